@@ -1,12 +1,8 @@
 package gov.noaa.pmel.dashboard.programs;
 
+import gov.noaa.pmel.dashboard.dsg.TimeCalculator;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.TimeZone;
-
 /**
  * Simple class for collecting and sorting time/lat/lon/sst/sal/fco2rec data
  */
@@ -14,22 +10,12 @@ public class DataPoint implements Comparable<DataPoint> {
     private static final Double MISSING_VALUE = -999.0;
 
     /**
-     * Jan 1, 1940 - reasonable lower limit on data dates
+     * Jan 1, 1940 - reasonable lower limit on data dates; in milliseconds since Jan 1, 1970 00:00:00
      */
-    private static final Date EARLIEST_DATE;
-    private static final SimpleDateFormat DATETIMESTAMPER;
-
-    static {
-        DATETIMESTAMPER = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        DATETIMESTAMPER.setTimeZone(TimeZone.getTimeZone("UTC"));
-        try {
-            EARLIEST_DATE = DATETIMESTAMPER.parse("1940-01-01 00:00:00");
-        } catch ( ParseException ex ) {
-            throw new RuntimeException(ex);
-        }
-    }
+    private static final long EARLIEST_DATE = TimeCalculator.epochMillis(1940, 1, 1, 0, 0, 0, 0);
 
-    private final Date datetime;
+    // measurement time in milliseconds since Jan 1, 1970 00:00:00
+    private final long datetime;
     final Double latitude;
     final Double longitude;
     final Double sst;
@@ -61,9 +47,9 @@ public class DataPoint implements Comparable<DataPoint> {
             Double sst, Double sal, Double fco2rec) throws IllegalArgumentException {
         if ( sectime == null )
             throw new IllegalArgumentException("null time for " + expocode);
-        datetime = new Date(Math.round(sectime * 1000.0));
-        if ( datetime.before(EARLIEST_DATE) || datetime.after(new Date()) )
-            throw new IllegalArgumentException("invalid time of " + datetime + " for " + expocode);
+        datetime = Math.round(sectime * 1000.0);
+        if ( (datetime < EARLIEST_DATE) || (datetime > System.currentTimeMillis()) )
+            throw new IllegalArgumentException("invalid time of " + getDateTimeString() + " for " + expocode);
 
         if ( latitude == null )
             throw new IllegalArgumentException("null latitude for " + expocode);
@@ -106,13 +92,13 @@ public class DataPoint implements Comparable<DataPoint> {
      * @return the date and time String in the format "yyyy-MM-dd HH:mm:ss"
      */
     public String getDateTimeString() {
-        return DATETIMESTAMPER.format(datetime);
+        return TimeCalculator.formatTimestamp(datetime);
     }
 
     @Override
     public int compareTo(DataPoint other) {
         // the primary sort must be on datetime
-        int result = datetime.compareTo(other.datetime);
+        int result = Long.compare(datetime, other.datetime);
         if ( result != 0 )
             return result;
         result = latitude.compareTo(other.latitude);
@@ -137,7 +123,7 @@ public class DataPoint implements Comparable<DataPoint> {
     public int hashCode() {
         final int prime = 37;
         int result = 1;
-        result = prime * result + datetime.hashCode();
+        result = prime * result + Long.hashCode(datetime);
         result = prime * result + latitude.hashCode();
         result = prime * result + longitude.hashCode();
         result = prime * result + fco2rec.hashCode();
@@ -155,7 +141,7 @@ public class DataPoint implements Comparable<DataPoint> {
         if ( !(obj instanceof DataPoint) )
             return false;
         DataPoint other = (DataPoint) obj;
-        if ( !datetime.equals(other.datetime) )
+        if ( datetime != other.datetime )
             return false;
         if ( !latitude.equals(other.latitude) )
             return false;
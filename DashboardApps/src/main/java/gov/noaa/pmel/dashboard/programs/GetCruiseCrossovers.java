@@ -12,6 +12,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Finds high-quality crossovers within sets of datasets
@@ -22,20 +24,34 @@ public class GetCruiseCrossovers {
 
     /**
      * @param args
-     *         ExpocodesFile - a file containing expocodes of the set of datasets
-     *         to examine for high-quality crossovers
+     *         ExpocodesFile [ NumThreads ] - a file containing expocodes of the set of datasets
+     *         to examine for high-quality crossovers, and optionally the number of threads to use
      */
     public static void main(String[] args) {
-        if ( args.length != 1 ) {
-            System.err.println("Arguments:  ExpocodesFile");
+        if ( (args.length < 1) || (args.length > 2) ) {
+            System.err.println("Arguments:  ExpocodesFile  [ NumThreads ]");
             System.err.println();
             System.err.println("ExpocodesFile");
             System.err.println("    is a file containing expocodes, one per line, of the set of datasets ");
             System.err.println("    to examine for high-quality crossovers. ");
+            System.err.println("NumThreads");
+            System.err.println("    is the number of threads to use when examining datasets for crossovers; ");
+            System.err.println("    if not given, the number of available processors is used. ");
             System.err.println();
             System.exit(1);
         }
         String exposFilename = args[0];
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        if ( args.length > 1 ) {
+            try {
+                numThreads = Integer.parseInt(args[1]);
+                if ( numThreads < 1 )
+                    throw new NumberFormatException();
+            } catch ( NumberFormatException ex ) {
+                System.err.println("Invalid number of threads: " + args[1]);
+                System.exit(1);
+            }
+        }
 
         TreeSet<String> givenExpocodes = new TreeSet<String>();
         try {
@@ -97,14 +113,22 @@ public class GetCruiseCrossovers {
             }
 
             TreeMap<String,TreeSet<Crossover>> crossoversMap = null;
+            // With only one thread, run everything in this thread
+            ExecutorService executor = null;
+            if ( numThreads > 1 )
+                executor = Executors.newFixedThreadPool(numThreads);
             try {
                 Set<String> expoSet = datasetFlagsMap.keySet();
-                CrossoverChecker crossChecker = new CrossoverChecker(configStore.getDsgNcFileHandler());
+                CrossoverChecker crossChecker =
+                        new CrossoverChecker(configStore.getDsgNcFileHandler(), null, executor);
                 crossoversMap = crossChecker.findCrossovers(expoSet, expoSet, System.err, startTime);
             } catch ( Exception ex ) {
                 System.err.println("Problems checking for crossovers: " + ex.getMessage());
                 ex.printStackTrace();
                 System.exit(1);
+            } finally {
+                if ( executor != null )
+                    executor.shutdownNow();
             }
             for (Map.Entry<String,TreeSet<Crossover>> entry : crossoversMap.entrySet()) {
                 String expo = entry.getKey();
@@ -7,8 +7,6 @@ import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
 import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
 import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
 import gov.noaa.pmel.dashboard.dsg.StdDataArray;
-import gov.noaa.pmel.dashboard.ferret.FerretConfig;
-import gov.noaa.pmel.dashboard.ferret.SocatTool;
 import gov.noaa.pmel.dashboard.handlers.DsgNcFileHandler;
 import gov.noaa.pmel.dashboard.handlers.MetadataFileHandler;
 import gov.noaa.pmel.dashboard.metadata.DashboardOmeMetadata;
@@ -35,7 +33,6 @@ public class RegenerateDsgs {
     private MetadataFileHandler metaHandler;
     private KnownDataTypes knownMetadataTypes;
     private KnownDataTypes knownDataFileTypes;
-    private FerretConfig ferretConfig;
 
     /**
      * Regenerate DSG files using the given configuration data.
@@ -48,7 +45,6 @@ public class RegenerateDsgs {
         metaHandler = configStore.getMetadataFileHandler();
         knownMetadataTypes = configStore.getKnownMetadataTypes();
         knownDataFileTypes = configStore.getKnownDataFileTypes();
-        ferretConfig = configStore.getFerretConfig();
     }
 
     /**
@@ -102,18 +98,8 @@ public class RegenerateDsgs {
 
         if ( updateIt ) {
             try {
-                // Regenerate the DSG file with the updated metadata
-                fullDataDsg.createFromFileData(updatedMeta, dataVals, knownDataFileTypes);
-                // Call Ferret to add data variables
-                SocatTool tool = new SocatTool(ferretConfig);
-                ArrayList<String> scriptArgs = new ArrayList<String>(1);
-                scriptArgs.add(fullDataDsg.getPath());
-                tool.init(scriptArgs, stdId, FerretConfig.Action.COMPUTE);
-                tool.run();
-                if ( tool.hasError() )
-                    throw new IllegalArgumentException("Failure in adding computed variables for " +
-                            stdId + ": " + tool.getErrorMessage());
-
+                // Regenerate the DSG file with the updated metadata and the computed data variables
+                dsgHandler.createDsgWithComputedData(fullDataDsg, updatedMeta, dataVals);
             } catch ( Exception ex ) {
                 throw new IllegalArgumentException("Problems regenerating the full-data DSG files for " +
                         stdId + ": " + ex.getMessage());
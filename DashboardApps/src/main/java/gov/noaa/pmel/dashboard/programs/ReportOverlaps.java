@@ -1,11 +1,11 @@
 package gov.noaa.pmel.dashboard.programs;
 
 import gov.noaa.pmel.dashboard.actions.OverlapChecker;
+import gov.noaa.pmel.dashboard.dsg.DatasetExtents;
+import gov.noaa.pmel.dashboard.dsg.DatasetExtentsIndex;
 import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
 import gov.noaa.pmel.dashboard.handlers.DsgNcFileHandler;
 import gov.noaa.pmel.dashboard.server.DashboardConfigStore;
-import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
-import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DatasetQCStatus;
 import gov.noaa.pmel.dashboard.shared.Overlap;
 
@@ -106,57 +106,46 @@ public class ReportOverlaps {
                 }
             }
 
-            // Get the time and latitude limits for all the cruises in the list
-            // in order to narrow down the cruises to examine for overlaps
-            TreeMap<String,double[]> timeMinMaxMap = new TreeMap<String,double[]>();
-            TreeMap<String,double[]> latMinMaxMap = new TreeMap<String,double[]>();
+            // Get the time and latitude limits for all the cruises in the list from the dataset
+            // extents catalog in order to narrow down the cruises to examine for overlaps
+            TreeMap<String,DatasetExtents> extentsMap = new TreeMap<String,DatasetExtents>();
             for (String expo : expoSet) {
                 timeDiff = (System.currentTimeMillis() - startTime) / (60.0 * 1000.0);
                 System.err.format("%.2fm - getting data limits for %s\n", timeDiff, expo);
-                double[][] dataVals = null;
+                DatasetExtents extents = null;
                 try {
-                    dataVals = oerlapChecker.getMaskedLonLatTimeSstFco2Vals(expo);
+                    extents = dsgHandler.getDatasetExtents(expo);
                 } catch ( Exception ex ) {
                     System.err.println("Unexpected error rereading " + expo + ": " + ex.getMessage());
                     System.exit(1);
                 }
-                double[] timeMinMaxVals = DashboardServerUtils.getMinMaxValidData(dataVals[2]);
-                if ( (timeMinMaxVals[0] == DashboardUtils.FP_MISSING_VALUE) ||
-                        (timeMinMaxVals[1] == DashboardUtils.FP_MISSING_VALUE) ) {
+                if ( !extents.hasValidTimes() ) {
                     System.err.println("No valid times for " + expo);
                     System.exit(1);
                 }
-                timeMinMaxMap.put(expo, timeMinMaxVals);
-                double[] latMinMaxVals = DashboardServerUtils.getMinMaxValidData(dataVals[1]);
-                if ( (latMinMaxVals[0] == DashboardUtils.FP_MISSING_VALUE) ||
-                        (latMinMaxVals[1] == DashboardUtils.FP_MISSING_VALUE) ) {
+                if ( !extents.hasValidLatitudes() ) {
                     System.err.println("No valid latitudes for " + expo);
                     System.exit(1);
                 }
-                latMinMaxMap.put(expo, latMinMaxVals);
+                extentsMap.put(expo, extents);
             }
+            DatasetExtentsIndex timeIndex = new DatasetExtentsIndex(extentsMap.values());
 
             for (String firstExpo : expoSet) {
-                double[] firstTimeMinMax = timeMinMaxMap.get(firstExpo);
-                double[] firstLatMinMax = latMinMaxMap.get(firstExpo);
-                // Get the list of possibly-crossing datasets to check
+                DatasetExtents firstExtents = extentsMap.get(firstExpo);
+                // Get the list of possibly-crossing datasets to check; must have some overlap in time
                 TreeSet<String> checkExpos = new TreeSet<String>();
-                for (String secondExpo : expoSet) {
+                // Always check for overlaps within a dataset
+                checkExpos.add(firstExpo);
+                for (DatasetExtents secondExtents : timeIndex.findTimeOverlaps(
+                        firstExtents.getMinTime() - DsgNcFile.MIN_TIME_DIFF,
+                        firstExtents.getMaxTime() + DsgNcFile.MIN_TIME_DIFF)) {
+                    String secondExpo = secondExtents.getDatasetId();
                     // Only those datasets preceding this one so not doing two checks on a pair
-                    if ( secondExpo.equals(firstExpo) ) {
-                        // Always check for overlaps within a dataset
-                        checkExpos.add(secondExpo);
-                        break;
-                    }
-                    // Check that there is some overlap in time
-                    double[] secondTimeMinMax = timeMinMaxMap.get(secondExpo);
-                    if ( (firstTimeMinMax[1] + DsgNcFile.MIN_TIME_DIFF < secondTimeMinMax[0]) ||
-                            (secondTimeMinMax[1] + DsgNcFile.MIN_TIME_DIFF < firstTimeMinMax[0]) )
+                    if ( secondExpo.compareTo(firstExpo) >= 0 )
                         continue;
                     // Check that there is some overlap in latitude
-                    double[] secondLatMinMax = latMinMaxMap.get(secondExpo);
-                    if ( (firstLatMinMax[1] + DsgNcFile.MIN_LAT_DIFF < secondLatMinMax[0]) ||
-                            (secondLatMinMax[1] + DsgNcFile.MIN_LON_DIFF < firstLatMinMax[0]) )
+                    if ( !firstExtents.latitudesOverlap(secondExtents, DsgNcFile.MIN_LAT_DIFF) )
                         continue;
                     checkExpos.add(secondExpo);
                 }
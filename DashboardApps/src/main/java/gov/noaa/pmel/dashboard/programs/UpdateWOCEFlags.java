@@ -114,22 +114,28 @@ public class UpdateWOCEFlags {
                     success = false;
                     continue;
                 }
+                ArrayList<DataQCEvent> applicableList = new ArrayList<DataQCEvent>(woceList.size());
+                for (DataQCEvent woce : woceList) {
+                    // Check if this is an applicable (not old) WOCE flag
+                    String flag = woce.getFlagValue();
+                    if ( flag.equals(DashboardServerUtils.WOCE_ACCEPTABLE) ||
+                            flag.equals(DashboardServerUtils.WOCE_QUESTIONABLE) ||
+                            flag.equals(DashboardServerUtils.WOCE_BAD) )
+                        applicableList.add(woce);
+                }
                 try {
-                    for (DataQCEvent woce : woceList) {
-                        // Check if this is an applicable (not old) WOCE flag
-                        String flag = woce.getFlagValue();
-                        if ( flag.equals(DashboardServerUtils.WOCE_ACCEPTABLE) ||
-                                flag.equals(DashboardServerUtils.WOCE_QUESTIONABLE) ||
-                                flag.equals(DashboardServerUtils.WOCE_BAD) ) {
-                            ArrayList<DataLocation> unidentified = dsgFile.updateDataQCFlags(woce, false);
-                            if ( unidentified.size() > 0 ) {
-                                for (DataLocation loc : unidentified) {
-                                    System.err.println("unknown data location: " + loc.toString());
-                                }
-                                throw new IllegalArgumentException("Mismatch of WOCE location data");
-                            }
+                    // Apply all the WOCE flags with a single read and write of the full-data DSG file
+                    ArrayList<ArrayList<DataLocation>> unidentifiedList =
+                            dsgFile.updateDataQCFlags(applicableList, false);
+                    boolean mismatch = false;
+                    for (ArrayList<DataLocation> unidentified : unidentifiedList) {
+                        for (DataLocation loc : unidentified) {
+                            System.err.println("unknown data location: " + loc.toString());
+                            mismatch = true;
                         }
                     }
+                    if ( mismatch )
+                        throw new IllegalArgumentException("Mismatch of WOCE location data");
                 } catch ( Exception ex ) {
                     System.err.println("Error reassigning WOCE flags in the full-data DSG file for " +
                             expocode + " : " + ex.getMessage());
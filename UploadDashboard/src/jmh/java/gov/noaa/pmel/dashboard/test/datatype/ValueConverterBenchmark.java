@@ -0,0 +1,132 @@
+package gov.noaa.pmel.dashboard.test.datatype;
+
+import gov.noaa.pmel.dashboard.datatype.LinearConverter;
+import gov.noaa.pmel.dashboard.datatype.LonLatConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * JMH micro-benchmarks comparing the interpretation of data value strings by {@link LinearConverter} and
+ * {@link LonLatConverter} to the original interpretation using {@link Double#valueOf(String)} and regular
+ * expressions.  Each benchmark interprets the same {@link #NUM_VALUES} strings, as would be done for a column
+ * of a data file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueConverterBenchmark {
+
+    private static final int NUM_VALUES = 10000;
+
+    private static final Pattern DEG_MIN_SEC_SPLIT_PATTERN =
+            Pattern.compile("[ " + LonLatConverter.DEGREE_SYMBOL + "'\",]+");
+
+    private String[] decimalValues;
+    private String[] degMinSecValues;
+    private LinearConverter linearConverter;
+    private LonLatConverter degreesConverter;
+    private LonLatConverter degMinSecConverter;
+
+    @Setup
+    public void setup() {
+        Random rand = new Random(20161017L);
+        decimalValues = new String[NUM_VALUES];
+        degMinSecValues = new String[NUM_VALUES];
+        for (int k = 0; k < NUM_VALUES; k++) {
+            // include some missing values as seen in data files
+            if ( (k % 50) == 0 ) {
+                decimalValues[k] = "-999";
+                degMinSecValues[k] = "NaN";
+                continue;
+            }
+            decimalValues[k] = String.format(Locale.ENGLISH, "%.5f", 360.0 * rand.nextDouble() - 180.0);
+            degMinSecValues[k] = String.format(Locale.ENGLISH, "%d%s %02d' %06.3f\"", rand.nextInt(180),
+                    LonLatConverter.DEGREE_SYMBOL, rand.nextInt(60), 60.0 * rand.nextDouble());
+        }
+        linearConverter = new LinearConverter("K", "degC", null);
+        degreesConverter = new LonLatConverter("deg E", "deg E", null);
+        degMinSecConverter = new LonLatConverter("deg min sec W", "deg E", null);
+    }
+
+    @Benchmark
+    public void doubleValueOf(Blackhole hole) {
+        for (String str : decimalValues) {
+            try {
+                hole.consume(Double.valueOf(str));
+            } catch ( NumberFormatException ex ) {
+                hole.consume(ex);
+            }
+        }
+    }
+
+    @Benchmark
+    public void linearConvertValueOf(Blackhole hole) {
+        for (String str : decimalValues) {
+            hole.consume(linearConverter.convertValueOf(str));
+        }
+    }
+
+    @Benchmark
+    public void linearConvertDoubleOf(Blackhole hole) {
+        for (String str : decimalValues) {
+            hole.consume(linearConverter.convertDoubleOf(str));
+        }
+    }
+
+    @Benchmark
+    public void degreesConvertValueOf(Blackhole hole) {
+        for (String str : decimalValues) {
+            hole.consume(degreesConverter.convertValueOf(str));
+        }
+    }
+
+    @Benchmark
+    public void degreesConvertDoubleOf(Blackhole hole) {
+        for (String str : decimalValues) {
+            hole.consume(degreesConverter.convertDoubleOf(str));
+        }
+    }
+
+    /**
+     * The original splitting of degree minute second values using a regular expression
+     */
+    @Benchmark
+    public void degMinSecPatternSplit(Blackhole hole) {
+        for (String str : degMinSecValues) {
+            String[] parts = DEG_MIN_SEC_SPLIT_PATTERN.split(str, 0);
+            if ( parts.length != 3 ) {
+                hole.consume(parts);
+                continue;
+            }
+            double value = Double.valueOf(parts[0]);
+            value += (Double.valueOf(parts[1]) / 60.0);
+            value += (Double.valueOf(parts[2]) / 3600.0);
+            hole.consume(value);
+        }
+    }
+
+    @Benchmark
+    public void degMinSecConvertDoubleOf(Blackhole hole) {
+        for (String str : degMinSecValues) {
+            hole.consume(degMinSecConverter.convertDoubleOf(str));
+        }
+    }
+
+}
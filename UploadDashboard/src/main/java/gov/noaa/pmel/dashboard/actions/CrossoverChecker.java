@@ -3,6 +3,8 @@
  */
 package gov.noaa.pmel.dashboard.actions;
 
+import gov.noaa.pmel.dashboard.dsg.DatasetExtents;
+import gov.noaa.pmel.dashboard.dsg.DatasetExtentsIndex;
 import gov.noaa.pmel.dashboard.handlers.DsgNcFileHandler;
 import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import gov.noaa.pmel.dashboard.shared.Crossover;
@@ -13,8 +15,17 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Checks for high-quality crossovers between datasets.  High-quality crossovers are desirable coincidental
@@ -25,16 +36,62 @@ import java.util.TreeSet;
  */
 public class CrossoverChecker {
 
+    /**
+     * Crossover matcher used when one is not specified
+     */
+    public static final CrossoverMatcher DEFAULT_MATCHER = new TimeIndexCrossoverMatcher();
+
     private DsgNcFileHandler dsgHandler;
+    private CrossoverMatcher matcher;
+    private ExecutorService executor;
 
     /**
      * Create a crossover checker which gets data from the full-data DSG files using the given DSG data file handler.
+     * Crossovers in the data are found using {@link #DEFAULT_MATCHER}.
      *
      * @param dsgHandler
      *         the DSG data file handler to use
      */
     public CrossoverChecker(DsgNcFileHandler dsgHandler) {
+        this(dsgHandler, DEFAULT_MATCHER);
+    }
+
+    /**
+     * Create a crossover checker which gets data from the full-data DSG files using the given DSG data file handler
+     * and finds crossovers in the data using the given crossover matcher.
+     *
+     * @param dsgHandler
+     *         the DSG data file handler to use
+     * @param matcher
+     *         the crossover matcher to use; if null, {@link #DEFAULT_MATCHER} is used
+     */
+    public CrossoverChecker(DsgNcFileHandler dsgHandler, CrossoverMatcher matcher) {
+        this(dsgHandler, matcher, null);
+    }
+
+    /**
+     * Create a crossover checker which gets data from the full-data DSG files using the given DSG data file handler
+     * and finds crossovers in the data using the given crossover matcher.  If an executor is given, the searches
+     * for crossovers between a dataset and a set of other datasets, and between multiple datasets and their sets of
+     * other datasets, are run as tasks of this executor; the crossovers returned are the same as those found
+     * without an executor.  The executor is not shut down by this checker.
+     *
+     * @param dsgHandler
+     *         the DSG data file handler to use
+     * @param matcher
+     *         the crossover matcher to use; if null, {@link #DEFAULT_MATCHER} is used.
+     *         If an executor is given, this matcher will be used concurrently from multiple threads.
+     * @param executor
+     *         the executor to use for searching for crossovers; if null, all searches are done sequentially
+     *         in the calling thread
+     */
+    public CrossoverChecker(DsgNcFileHandler dsgHandler, CrossoverMatcher matcher, ExecutorService executor) {
         this.dsgHandler = dsgHandler;
+        if ( matcher != null )
+            this.matcher = matcher;
+        else
+            this.matcher = DEFAULT_MATCHER;
+        this.executor = executor;
     }
 
     /**
@@ -117,7 +174,7 @@ public class CrossoverChecker {
             return null;
 
         // Check for a crossover
-        Crossover crossover = checkForCrossover(lons, lats, times, ssts, fco2s);
+        Crossover crossover = checkForCrossover(matcher, lons, lats, times, ssts, fco2s);
         if ( crossover != null ) {
             // crossover found; add the datasetIds, dataMinTimes, and dataMaxTimes
             crossover.setDatasetIds(upperExpos);
@@ -130,7 +187,9 @@ public class CrossoverChecker {
 
     /**
      * Checks for high-quality crossovers between a dataset and a set of other datasets.  Reads the data once
-     * for the primary dataset, then reads the data as needed for the other datasets.  Assumes the datasets
+     * for the primary dataset, then reads the data as needed for the other datasets.  If this checker has an
+     * executor, each of the other datasets is read and examined in a separate task, with the data of the primary
+     * dataset shared by all these tasks.  Assumes the datasets
      * to check against are those whose time and latitude minimums and maximums are such that a crossover is a
      * possibility, so this check is not performed.  The cruiseMinTimes and cruiseMaxTimes are neither computed
      * nor assigned in the crossovers since these presumably have already been computed elsewhere.
@@ -155,84 +214,180 @@ public class CrossoverChecker {
      * @throws IOException
      *         if problems reading from any full-data DSG file
      */
-    public ArrayList<Crossover> getCrossovers(String expocode, Iterable<String> checkExpos, PrintStream progressPrinter,
-            long progStartMilliTime) throws IllegalArgumentException, FileNotFoundException, IOException {
+    public ArrayList<Crossover> getCrossovers(String expocode, Iterable<String> checkExpos,
+            final PrintStream progressPrinter, final long progStartMilliTime)
+            throws IllegalArgumentException, FileNotFoundException, IOException {
+        // Get the data for the primary cruise
+        final String firstExpo = DashboardServerUtils.checkDatasetID(expocode);
+        final double[][] firstVals = readDataValues(firstExpo, progressPrinter, progStartMilliTime);
+
         ArrayList<Crossover> crossList = new ArrayList<Crossover>();
+        if ( executor == null ) {
+            for (String otherExpo : checkExpos) {
+                String secondExpo = DashboardServerUtils.checkDatasetID(otherExpo);
+                // Check that the NODC codes are different - crossovers must be between different instruments
+                if ( sameInstrument(firstExpo, secondExpo) )
+                    continue;
+                double[][] secondVals = readDataValues(secondExpo, progressPrinter, progStartMilliTime);
+                Crossover crossover = examinePair(firstExpo, firstVals, secondExpo, secondVals,
+                        progressPrinter, progStartMilliTime);
+                if ( crossover != null )
+                    crossList.add(crossover);
+            }
+            return crossList;
+        }
 
-        String[] upperExpos = new String[2];
-        double[][] lons = new double[2][];
-        double[][] lats = new double[2][];
-        double[][] times = new double[2][];
-        double[][] ssts = new double[2][];
-        double[][] fco2s = new double[2][];
+        // The data of the primary dataset is shared, read-only, by all the tasks
+        ArrayList<Future<Crossover>> futures = new ArrayList<Future<Crossover>>();
+        try {
+            for (String otherExpo : checkExpos) {
+                final String secondExpo = DashboardServerUtils.checkDatasetID(otherExpo);
+                if ( sameInstrument(firstExpo, secondExpo) )
+                    continue;
+                futures.add(executor.submit(new Callable<Crossover>() {
+                    @Override
+                    public Crossover call() throws Exception {
+                        double[][] secondVals = readDataValues(secondExpo, progressPrinter, progStartMilliTime);
+                        return examinePair(firstExpo, firstVals, secondExpo, secondVals,
+                                progressPrinter, progStartMilliTime);
+                    }
+                }));
+            }
+            for (Future<Crossover> future : futures) {
+                Crossover crossover = getResult(future);
+                if ( crossover != null )
+                    crossList.add(crossover);
+            }
+        } finally {
+            // Only has an effect if a problem occurred
+            for (Future<Crossover> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return crossList;
+    }
 
-        // Get the data for the primary cruise
-        upperExpos[0] = DashboardServerUtils.checkDatasetID(expocode);
+    /**
+     * Reads the longitudes, latitudes, times, SSTs, and fCO2_recommended values of a dataset.
+     *
+     * @param expocode
+     *         standardized ID of the dataset
+     * @param progressPrinter
+     *         if not null, progress messages with timings are printed here
+     * @param progStartMilliTime
+     *         start time of the program for reporting times to progressWriter;
+     *         only used if progressPrinter is not null
+     *
+     * @return the array { lons, lats, times, ssts, fco2s } of data values
+     *
+     * @throws FileNotFoundException
+     *         if the the full-data DSG file for the dataset is not found
+     * @throws IOException
+     *         if problems reading from the full-data DSG file
+     */
+    private double[][] readDataValues(String expocode, PrintStream progressPrinter, long progStartMilliTime)
+            throws FileNotFoundException, IOException {
         if ( progressPrinter != null ) {
             double deltaMinutes = (System.currentTimeMillis() - progStartMilliTime) / (60.0 * 1000.0);
-            progressPrinter.format("%.2fm - reading data for %s\n", deltaMinutes, upperExpos[0]);
+            progressPrinter.format("%.2fm - reading data for %s\n", deltaMinutes, expocode);
             progressPrinter.flush();
         }
-        double[][] dataVals = dsgHandler.readLonLatTimeSstFco2DataValues(upperExpos[0]);
-        lons[0] = dataVals[0];
-        lats[0] = dataVals[1];
-        times[0] = dataVals[2];
-        ssts[0] = dataVals[3];
-        fco2s[0] = dataVals[4];
-
-        for (String otherExpo : checkExpos) {
-            upperExpos[1] = DashboardServerUtils.checkDatasetID(otherExpo);
-            // Check that the NODC codes are different - crossovers must be between different instruments
-            if ( (upperExpos[0]).substring(0, 4).equals((upperExpos[1]).substring(0, 4)) )
-                continue;
-
-            if ( progressPrinter != null ) {
-                double deltaMinutes = (System.currentTimeMillis() - progStartMilliTime) / (60.0 * 1000.0);
-                progressPrinter.format("%.2fm - reading data for %s\n", deltaMinutes, upperExpos[1]);
-                progressPrinter.flush();
-            }
+        return dsgHandler.readLonLatTimeSstFco2DataValues(expocode);
+    }
 
-            dataVals = dsgHandler.readLonLatTimeSstFco2DataValues(upperExpos[1]);
-            lons[1] = dataVals[0];
-            lats[1] = dataVals[1];
-            times[1] = dataVals[2];
-            ssts[1] = dataVals[3];
-            fco2s[1] = dataVals[4];
+    /**
+     * Checks for a high-quality crossover between two datasets using the given data.  The data arrays are not
+     * modified, so the same arrays may be used in concurrent calls.  Progress is reported with a single print
+     * call so that reports from concurrent calls are not intermixed.
+     *
+     * @param firstExpo
+     *         standardized ID of the first dataset
+     * @param firstVals
+     *         the array { lons, lats, times, ssts, fco2s } of data values for the first dataset
+     * @param secondExpo
+     *         standardized ID of the second dataset
+     * @param secondVals
+     *         the array { lons, lats, times, ssts, fco2s } of data values for the second dataset
+     * @param progressPrinter
+     *         if not null, progress messages with timings are printed here
+     * @param progStartMilliTime
+     *         start time of the program for reporting times to progressWriter;
+     *         only used if progressPrinter is not null
+     *
+     * @return the crossover found, with the dataset IDs assigned, or null if there is no high-quality crossover
+     */
+    private Crossover examinePair(String firstExpo, double[][] firstVals, String secondExpo, double[][] secondVals,
+            PrintStream progressPrinter, long progStartMilliTime) {
+        long checkStartMilliTime = System.currentTimeMillis();
+        Crossover crossover = checkForCrossover(matcher,
+                new double[][] { firstVals[0], secondVals[0] },
+                new double[][] { firstVals[1], secondVals[1] },
+                new double[][] { firstVals[2], secondVals[2] },
+                new double[][] { firstVals[3], secondVals[3] },
+                new double[][] { firstVals[4], secondVals[4] });
+        if ( crossover != null ) {
+            // crossover found; add the datasetIds
+            crossover.setDatasetIds(new String[] { firstExpo, secondExpo });
+        }
+        if ( progressPrinter != null ) {
+            double deltaMinutes = (checkStartMilliTime - progStartMilliTime) / (60.0 * 1000.0);
+            double checkDeltaSecs = (System.currentTimeMillis() - checkStartMilliTime) / 1000.0;
+            if ( crossover != null )
+                progressPrinter.format("%.2fm - examining %s and %s: %.2fs - crossover found: %s\n",
+                        deltaMinutes, firstExpo, secondExpo, checkDeltaSecs, crossover.toString());
+            else
+                progressPrinter.format("%.2fm - examining %s and %s: %.2fs - no crossover\n",
+                        deltaMinutes, firstExpo, secondExpo, checkDeltaSecs);
+            progressPrinter.flush();
+        }
+        return crossover;
+    }
 
-            long checkStartMilliTime = System.currentTimeMillis();
-            if ( progressPrinter != null ) {
-                double deltaMinutes = (checkStartMilliTime - progStartMilliTime) / (60.0 * 1000.0);
-                progressPrinter.format("%.2fm - examining %s and %s: ", deltaMinutes, upperExpos[0], upperExpos[1]);
-                progressPrinter.flush();
-            }
+    /**
+     * @return if the two standardized dataset IDs have the same NODC code,
+     *         thus the datasets are from the same instrument
+     */
+    private static boolean sameInstrument(String firstExpo, String secondExpo) {
+        return firstExpo.substring(0, 4).equals(secondExpo.substring(0, 4));
+    }
 
-            // Check for a crossover
-            Crossover crossover = checkForCrossover(lons, lats, times, ssts, fco2s);
-            if ( crossover != null ) {
-                // crossover found; add the datasetIds (only the values in the array are used)
-                crossover.setDatasetIds(upperExpos);
-                crossList.add(crossover);
-                if ( progressPrinter != null ) {
-                    double checkDeltaSecs = (System.currentTimeMillis() - checkStartMilliTime) / 1000.0;
-                    progressPrinter.format("%.2fs - crossover found: %s\n", checkDeltaSecs, crossover.toString());
-                    progressPrinter.flush();
-                }
-            }
-            else if ( progressPrinter != null ) {
-                double checkDeltaSecs = (System.currentTimeMillis() - checkStartMilliTime) / 1000.0;
-                System.err.format("%.2fs - no crossover\n", checkDeltaSecs);
-                progressPrinter.flush();
-            }
+    /**
+     * Waits for and returns the result of a task, rethrowing any exception thrown by the task.
+     *
+     * @throws IllegalArgumentException
+     *         if the task threw one
+     * @throws FileNotFoundException
+     *         if the task threw one
+     * @throws IOException
+     *         if the task threw one, or if interrupted while waiting
+     */
+    private static <T> T getResult(Future<T> future)
+            throws IllegalArgumentException, FileNotFoundException, IOException {
+        try {
+            return future.get();
+        } catch ( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while checking for crossovers", ex);
+        } catch ( ExecutionException ex ) {
+            Throwable cause = ex.getCause();
+            if ( cause instanceof IOException )
+                throw (IOException) cause;
+            if ( cause instanceof RuntimeException )
+                throw (RuntimeException) cause;
+            if ( cause instanceof Error )
+                throw (Error) cause;
+            throw new IOException(cause);
         }
-
-        return crossList;
     }
 
     /**
      * Checks for high-quality crossovers in a set of dataset with another set of datasets.
-     * Computes the min and max times and latitudes for all datasets beforehand to efficiently check
-     * if a crossover is a possibility before actually reading data from each dataset to search
-     * for crossovers.  The crossovers returned are all fully assigned.
+     * Obtains the time and latitude extents of all datasets from the dataset extents catalog beforehand,
+     * and uses an interval index of the time extents, to efficiently find the pairs of datasets where a
+     * crossover is a possibility before actually reading data from each dataset to search for crossovers.
+     * The crossovers returned are all fully assigned.  If this checker has an executor, the search for
+     * crossovers of each dataset with its possibly-crossing datasets is a separate task, with the data of
+     * any dataset read only once and shared by all the tasks using it.
      * <p>
      * The keys of the returned map are the dataset IDs from reportExpos, if there was a crossover
      * found for that dataset.  The map values are the crossovers of that dataset with datasets having
@@ -261,92 +416,257 @@ public class CrossoverChecker {
             Collection<String> checkExpos, PrintStream progressPrinter, long startTimeMillis)
             throws IllegalArgumentException, FileNotFoundException, IOException {
         // Get all the unique expocodes to analyze data only once
-        TreeSet<String> allExpos = new TreeSet<String>(reportExpos);
-        allExpos.addAll(checkExpos);
+        TreeSet<String> stdReportExpos = new TreeSet<String>();
+        for (String expo : reportExpos) {
+            stdReportExpos.add(DashboardServerUtils.checkDatasetID(expo));
+        }
+        TreeSet<String> stdCheckExpos = new TreeSet<String>();
+        for (String expo : checkExpos) {
+            stdCheckExpos.add(DashboardServerUtils.checkDatasetID(expo));
+        }
+        TreeSet<String> allExpos = new TreeSet<String>(stdReportExpos);
+        allExpos.addAll(stdCheckExpos);
 
-        TreeMap<String,double[]> timeMinMaxMap = new TreeMap<String,double[]>();
-        TreeMap<String,double[]> latMinMaxMap = new TreeMap<String,double[]>();
+        // Data extents are from the dataset extents catalog;
+        // the data is only read for datasets whose catalog entry is missing or outdated
+        TreeMap<String,DatasetExtents> extentsMap = new TreeMap<String,DatasetExtents>();
         for (String expo : allExpos) {
             if ( progressPrinter != null ) {
                 double timeDiff = (System.currentTimeMillis() - startTimeMillis) / (60.0 * 1000.0);
                 progressPrinter.format("%.2fm - getting data limits for %s\n", timeDiff, expo);
             }
-            double[][] dataVals = dsgHandler.readLonLatTimeDataValues(expo);
-            double[] timeMinMaxVals = DashboardServerUtils.getMinMaxValidData(dataVals[2]);
-            if ( (timeMinMaxVals[0] == DashboardUtils.FP_MISSING_VALUE) ||
-                    (timeMinMaxVals[1] == DashboardUtils.FP_MISSING_VALUE) )
+            DatasetExtents extents = dsgHandler.getDatasetExtents(expo);
+            if ( !extents.hasValidTimes() )
                 throw new IllegalArgumentException("No valid times for " + expo);
-            timeMinMaxMap.put(expo, timeMinMaxVals);
-            double[] latMinMaxVals = DashboardServerUtils.getMinMaxValidData(dataVals[1]);
-            if ( (latMinMaxVals[0] == DashboardUtils.FP_MISSING_VALUE) ||
-                    (latMinMaxVals[1] == DashboardUtils.FP_MISSING_VALUE) )
+            if ( !extents.hasValidLatitudes() )
                 throw new IllegalArgumentException("No valid latitudes for " + expo);
-            latMinMaxMap.put(expo, latMinMaxVals);
+            extentsMap.put(expo, extents);
         }
+        DatasetExtentsIndex timeIndex = new DatasetExtentsIndex(extentsMap.values());
 
-        TreeMap<String,TreeSet<Crossover>> crossoversMap = new TreeMap<String,TreeSet<Crossover>>();
+        // Get the lists of possibly-crossing cruises to check
+        TreeMap<String,TreeSet<String>> candidatesMap = new TreeMap<String,TreeSet<String>>();
         for (String firstExpo : allExpos) {
-            double[] firstTimeMinMax = timeMinMaxMap.get(firstExpo);
-            double[] firstLatMinMax = latMinMaxMap.get(firstExpo);
-            // Get the list of possibly-crossing cruises to check
+            DatasetExtents firstExtents = extentsMap.get(firstExpo);
+            // Must have some overlap in time
             TreeSet<String> possibleExpos = new TreeSet<String>();
-            for (String secondExpo : allExpos) {
+            for (DatasetExtents secondExtents : timeIndex.findTimeOverlaps(
+                    firstExtents.getMinTime() - DashboardServerUtils.MAX_TIME_DIFF,
+                    firstExtents.getMaxTime() + DashboardServerUtils.MAX_TIME_DIFF)) {
+                String secondExpo = secondExtents.getDatasetId();
                 // Only check datasets preceding the first one so not doing two checks on a report pair
-                if ( firstExpo.equals(secondExpo) )
-                    break;
+                if ( secondExpo.compareTo(firstExpo) >= 0 )
+                    continue;
                 // Must be difference intstruments == different NODC codes at this time
-                if ( firstExpo.substring(0, 4).equals(secondExpo.substring(0, 4)) )
+                if ( sameInstrument(firstExpo, secondExpo) )
                     continue;
                 // One of the datasets must be from the report set, one from the check set
-                if ( ! ( (reportExpos.contains(firstExpo) && checkExpos.contains(secondExpo)) ||
-                         (reportExpos.contains(secondExpo) && checkExpos.contains(firstExpo)) ) )
-                    continue;
-
-                // Check that there is some overlap in time
-                double[] secondTimeMinMax = timeMinMaxMap.get(secondExpo);
-                if ( (firstTimeMinMax[1] + DashboardServerUtils.MAX_TIME_DIFF < secondTimeMinMax[0]) ||
-                        (secondTimeMinMax[1] + DashboardServerUtils.MAX_TIME_DIFF < firstTimeMinMax[0]) )
+                if ( ! ( (stdReportExpos.contains(firstExpo) && stdCheckExpos.contains(secondExpo)) ||
+                         (stdReportExpos.contains(secondExpo) && stdCheckExpos.contains(firstExpo)) ) )
                     continue;
                 // Check that there is some overlap in latitude
-                double[] secondLatMinMax = latMinMaxMap.get(secondExpo);
-                if ( (firstLatMinMax[1] + DashboardServerUtils.MAX_TIME_DIFF < secondLatMinMax[0]) ||
-                        (secondLatMinMax[1] + DashboardServerUtils.MAX_TIME_DIFF < firstLatMinMax[0]) )
+                if ( !firstExtents.latitudesOverlap(secondExtents, DashboardServerUtils.MAX_LAT_DIFF) )
                     continue;
                 possibleExpos.add(secondExpo);
             }
-            // Find any crossovers of this dataset with any of the selected set of datasets
-            if ( possibleExpos.size() > 0 ) {
-                ArrayList<Crossover> crossList =
-                        getCrossovers(firstExpo, possibleExpos, progressPrinter, startTimeMillis);
-                for (Crossover cross : crossList) {
-                    String[] expos = cross.getDatasetIds();
-                    Long[] minTimes = new Long[2];
-                    Long[] maxTimes = new Long[2];
-                    for (int q = 0; q < 2; q++) {
-                        double[] timeMinMax = timeMinMaxMap.get(expos[q]);
-                        minTimes[q] = Math.round(timeMinMax[0]);
-                        maxTimes[q] = Math.round(timeMinMax[1]);
+            if ( possibleExpos.size() > 0 )
+                candidatesMap.put(firstExpo, possibleExpos);
+        }
+
+        // Find any crossovers of each dataset with its selected set of datasets
+        TreeMap<String,ArrayList<Crossover>> crossListsMap;
+        if ( executor == null ) {
+            crossListsMap = new TreeMap<String,ArrayList<Crossover>>();
+            for (Map.Entry<String,TreeSet<String>> entry : candidatesMap.entrySet()) {
+                crossListsMap.put(entry.getKey(),
+                        getCrossovers(entry.getKey(), entry.getValue(), progressPrinter, startTimeMillis));
+            }
+        }
+        else {
+            crossListsMap = getCrossoversInParallel(candidatesMap, progressPrinter, startTimeMillis);
+        }
+
+        TreeMap<String,TreeSet<Crossover>> crossoversMap = new TreeMap<String,TreeSet<Crossover>>();
+        for (ArrayList<Crossover> crossList : crossListsMap.values()) {
+            for (Crossover cross : crossList) {
+                String[] expos = cross.getDatasetIds();
+                Long[] minTimes = new Long[2];
+                Long[] maxTimes = new Long[2];
+                for (int q = 0; q < 2; q++) {
+                    DatasetExtents extents = extentsMap.get(expos[q]);
+                    minTimes[q] = Math.round(extents.getMinTime());
+                    maxTimes[q] = Math.round(extents.getMaxTime());
+                }
+                cross.setDatasetMinTimes(minTimes);
+                cross.setDatasetMaxTimes(maxTimes);
+                for (int q = 0; q < 2; q++) {
+                    if ( stdReportExpos.contains(expos[q]) ) {
+                        TreeSet<Crossover> crossovers = crossoversMap.get(expos[q]);
+                        if ( crossovers == null ) {
+                            crossovers = new TreeSet<Crossover>();
+                            crossoversMap.put(expos[q], crossovers);
+                        }
+                        crossovers.add(cross);
                     }
-                    cross.setDatasetMinTimes(minTimes);
-                    cross.setDatasetMaxTimes(maxTimes);
-                    for (int q = 0; q < 2; q++) {
-                        if ( reportExpos.contains(expos[q]) ) {
-                            TreeSet<Crossover> crossovers = crossoversMap.get(expos[q]);
-                            if ( crossovers == null ) {
-                                crossovers = new TreeSet<Crossover>();
-                                crossoversMap.put(expos[q], crossovers);
+                }
+            }
+        }
+        return crossoversMap;
+    }
+
+    /**
+     * Checks for high-quality crossovers between each primary dataset and its set of other datasets using the
+     * executor of this checker.  Each primary dataset, with its set of other datasets, is a separate task.  The
+     * data of each dataset is read only once, when first needed by any task, and then shared read-only by all
+     * the tasks using it; the shared data is released once all the tasks using it have finished with it.
+     *
+     * @param candidatesMap
+     *         map of standardized IDs of the primary datasets to the standardized IDs of
+     *         the datasets to check for crossovers with that primary dataset
+     * @param progressPrinter
+     *         if not null, progress messages with timings are printed here
+     * @param progStartMilliTime
+     *         start time of the program for reporting times to progressWriter;
+     *         only used if progressPrinter is not null
+     *
+     * @return map of the standardized IDs of the primary datasets to the list of crossovers found for that
+     *         dataset.  The crossovers in the lists will not have the cruiseMinTimes and cruiseMaxTimes assigned.
+     *
+     * @throws IllegalArgumentException
+     *         if any expocode is invalid
+     * @throws FileNotFoundException
+     *         if the the full-data DSG file for any dataset is not found
+     * @throws IOException
+     *         if problems reading from any full-data DSG file, or if interrupted
+     */
+    private TreeMap<String,ArrayList<Crossover>> getCrossoversInParallel(TreeMap<String,TreeSet<String>> candidatesMap,
+            final PrintStream progressPrinter, final long progStartMilliTime)
+            throws IllegalArgumentException, FileNotFoundException, IOException {
+        final SharedDataValues sharedData = new SharedDataValues(candidatesMap, progressPrinter, progStartMilliTime);
+        TreeMap<String,Future<ArrayList<Crossover>>> futuresMap = new TreeMap<String,Future<ArrayList<Crossover>>>();
+        try {
+            for (Map.Entry<String,TreeSet<String>> entry : candidatesMap.entrySet()) {
+                final String firstExpo = entry.getKey();
+                final TreeSet<String> checkExpos = entry.getValue();
+                futuresMap.put(firstExpo, executor.submit(new Callable<ArrayList<Crossover>>() {
+                    @Override
+                    public ArrayList<Crossover> call() throws Exception {
+                        ArrayList<Crossover> crossList = new ArrayList<Crossover>();
+                        double[][] firstVals = sharedData.acquire(firstExpo);
+                        try {
+                            for (String secondExpo : checkExpos) {
+                                double[][] secondVals = sharedData.acquire(secondExpo);
+                                try {
+                                    Crossover crossover = examinePair(firstExpo, firstVals, secondExpo,
+                                            secondVals, progressPrinter, progStartMilliTime);
+                                    if ( crossover != null )
+                                        crossList.add(crossover);
+                                } finally {
+                                    sharedData.release(secondExpo);
+                                }
                             }
-                            crossovers.add(cross);
+                        } finally {
+                            sharedData.release(firstExpo);
                         }
+                        return crossList;
                     }
+                }));
+            }
+            TreeMap<String,ArrayList<Crossover>> crossListsMap = new TreeMap<String,ArrayList<Crossover>>();
+            for (Map.Entry<String,Future<ArrayList<Crossover>>> entry : futuresMap.entrySet()) {
+                crossListsMap.put(entry.getKey(), getResult(entry.getValue()));
+            }
+            return crossListsMap;
+        } finally {
+            // Only has an effect if a problem occurred
+            for (Future<ArrayList<Crossover>> future : futuresMap.values()) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Data values of datasets shared by concurrent crossover checks.  The data of a dataset is read by the first
+     * task to acquire it, with other tasks acquiring it waiting for that read to complete.  The number of times
+     * the data of each dataset will be acquired is counted beforehand, so the data can be dropped once it has been
+     * released that many times.
+     */
+    private class SharedDataValues {
+
+        private final ConcurrentHashMap<String,FutureTask<double[][]>> dataMap;
+        private final HashMap<String,AtomicInteger> usesMap;
+        private final PrintStream progressPrinter;
+        private final long progStartMilliTime;
+
+        /**
+         * @param candidatesMap
+         *         map of standardized IDs of the primary datasets to the standardized IDs of the datasets
+         *         to check for crossovers with that primary dataset; used to count the uses of each dataset
+         * @param progressPrinter
+         *         if not null, progress messages with timings are printed here
+         * @param progStartMilliTime
+         *         start time of the program for reporting times to progressWriter;
+         *         only used if progressPrinter is not null
+         */
+        SharedDataValues(TreeMap<String,TreeSet<String>> candidatesMap, PrintStream progressPrinter,
+                long progStartMilliTime) {
+            dataMap = new ConcurrentHashMap<String,FutureTask<double[][]>>();
+            usesMap = new HashMap<String,AtomicInteger>();
+            for (Map.Entry<String,TreeSet<String>> entry : candidatesMap.entrySet()) {
+                countUse(entry.getKey());
+                for (String expo : entry.getValue()) {
+                    countUse(expo);
                 }
             }
+            this.progressPrinter = progressPrinter;
+            this.progStartMilliTime = progStartMilliTime;
         }
-        return crossoversMap;
+
+        private void countUse(String expocode) {
+            AtomicInteger uses = usesMap.get(expocode);
+            if ( uses == null ) {
+                uses = new AtomicInteger(0);
+                usesMap.put(expocode, uses);
+            }
+            uses.incrementAndGet();
+        }
+
+        /**
+         * @return the data array { lons, lats, times, ssts, fco2s } for the dataset; the arrays must not be modified
+         */
+        double[][] acquire(final String expocode)
+                throws IllegalArgumentException, FileNotFoundException, IOException {
+            FutureTask<double[][]> dataTask = dataMap.get(expocode);
+            if ( dataTask == null ) {
+                FutureTask<double[][]> newTask = new FutureTask<double[][]>(new Callable<double[][]>() {
+                    @Override
+                    public double[][] call() throws Exception {
+                        return readDataValues(expocode, progressPrinter, progStartMilliTime);
+                    }
+                });
+                dataTask = dataMap.putIfAbsent(expocode, newTask);
+                if ( dataTask == null ) {
+                    // Read the data in this thread
+                    dataTask = newTask;
+                    dataTask.run();
+                }
+            }
+            return getResult(dataTask);
+        }
+
+        /**
+         * Releases a use of the data for a dataset acquired using {@link #acquire(String)}
+         */
+        void release(String expocode) {
+            // usesMap is not modified after construction, so concurrent reads are safe
+            if ( usesMap.get(expocode).decrementAndGet() <= 0 )
+                dataMap.remove(expocode);
+        }
+
     }
 
     /**
-     * Checks for high-quality crossovers in the data of a pair of datasets.
+     * Checks for high-quality crossovers in the data of a pair of datasets using {@link #DEFAULT_MATCHER}.
      *
      * @param longitudes
      *         the longitudes for the two datasets
@@ -370,6 +690,39 @@ public class CrossoverChecker {
      */
     public static Crossover checkForCrossover(double[][] longitudes, double[][] latitudes, double[][] times,
             double[][] ssts, double[][] fco2s) throws IllegalArgumentException {
+        return checkForCrossover(DEFAULT_MATCHER, longitudes, latitudes, times, ssts, fco2s);
+    }
+
+    /**
+     * Checks for high-quality crossovers in the data of a pair of datasets.
+     *
+     * @param matcher
+     *         the crossover matcher to use for searching the data
+     * @param longitudes
+     *         the longitudes for the two datasets
+     * @param latitudes
+     *         the latitudes for the two datasets
+     * @param times
+     *         the times, in seconds since Jan 1, 1970 00:00:00, of the two datasets
+     * @param ssts
+     *         the SSTs values for the two datasets
+     * @param fco2s
+     *         the fCO2_recommended values of the two datasets
+     *
+     * @return the closest high-quality crossover between the two datasets, or
+     *         null if no high-quality crossovers were found.  The dataset IDs, cruiseMinTimes,
+     *         and cruiseMaxTimes will not have been assigned in the returned crossover.
+     *
+     * @throws IllegalArgumentException
+     *         if the matcher is null,
+     *         if any of the arguments do not have length 2,
+     *         if any of the arguments or argument array values are null, or
+     *         if the number of longitude, latitude, time, SST, or fCO2_recommended data values for a dataset differ
+     */
+    public static Crossover checkForCrossover(CrossoverMatcher matcher, double[][] longitudes, double[][] latitudes,
+            double[][] times, double[][] ssts, double[][] fco2s) throws IllegalArgumentException {
+        if ( matcher == null )
+            throw new IllegalArgumentException("No crossover matcher given to checkForCrossover");
         if ( (longitudes == null) || (longitudes.length != 2) || (longitudes[0] == null) || (longitudes[1] == null) )
             throw new IllegalArgumentException("Invalid longitudes given to checkForCrossover");
         if ( (latitudes == null) || (latitudes.length != 2) || (latitudes[0] == null) || (latitudes[1] == null) )
@@ -391,87 +744,7 @@ public class CrossoverChecker {
         if ( (fco2s[0].length != numRows[0]) || (fco2s[1].length != numRows[1]) )
             throw new IllegalArgumentException("Sizes of longitudes and fco2s arrays do not match");
 
-        double minDistance = DashboardServerUtils.MAX_CROSSOVER_DIST;
-        Crossover crossover = null;
-        for (int j = 0; j < numRows[0]; j++) {
-            // Skip this point if any missing values
-            if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, longitudes[0][j],
-                    0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
-                continue;
-            if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, latitudes[0][j],
-                    0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
-                continue;
-            if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, times[0][j],
-                    0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
-                continue;
-            if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, ssts[0][j],
-                    0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
-                continue;
-            if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, fco2s[0][j],
-                    0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
-                continue;
-
-            for (int k = 0; k < numRows[1]; k++) {
-                // Skip this point if any missing values
-                if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, longitudes[1][k],
-                        0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
-                    continue;
-                if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, latitudes[1][k],
-                        0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
-                    continue;
-                if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, times[1][k],
-                        0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
-                    continue;
-                if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, ssts[1][k],
-                        0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
-                    continue;
-                if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, fco2s[1][k],
-                        0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
-                    continue;
-
-                if ( times[1][k] > times[0][j] + DashboardServerUtils.MAX_TIME_DIFF ) {
-                    // The rest of the second cruise occurred far later than the point of first cruise.
-                    // Go on to the next point of the first cruise.
-                    break;
-                }
-                if ( times[1][k] < times[0][j] - DashboardServerUtils.MAX_TIME_DIFF ) {
-                    // This point of the second cruise occurred far earlier than the point of the first cruise.
-                    // Go on to the next point of the second cruise.
-                    continue;
-                }
-                if ( Math.abs(ssts[1][k] - ssts[0][j]) > DashboardServerUtils.MAX_TEMP_DIFF ) {
-                    // SST difference too large.
-                    // Go on to the next point of the second cruise.
-                    continue;
-                }
-                if ( Math.abs(fco2s[1][k] - fco2s[0][j]) > DashboardServerUtils.MAX_FCO2_DIFF ) {
-                    // fCO2 difference too large.
-                    // Go on to the next point of the second cruise.
-                    continue;
-                }
-                if ( Math.abs(latitudes[1][k] - latitudes[0][j]) > DashboardServerUtils.MAX_LAT_DIFF ) {
-                    // Differences in latitudes are too large.
-                    // Go on to the next point of the second cruise.
-                    continue;
-                }
-
-                double locTimeDist = DashboardServerUtils.distanceBetween(
-                        longitudes[0][j], latitudes[0][j], times[0][j],
-                        longitudes[1][k], latitudes[1][k], times[1][k]);
-                if ( locTimeDist < minDistance ) {
-                    // Update this minimum distance and record the crossover
-                    minDistance = locTimeDist;
-                    crossover = new Crossover();
-                    crossover.setMinDistance(minDistance);
-                    crossover.setRowNumsAtMin(new Integer[] { j + 1, k + 1 });
-                    crossover.setLonsAtMin(new Double[] { longitudes[0][j], longitudes[1][k] });
-                    crossover.setLatsAtMin(new Double[] { latitudes[0][j], latitudes[1][k] });
-                    crossover.setTimesAtMin(new Long[] { Math.round(times[0][j]), Math.round(times[1][k]) });
-                }
-            }
-        }
-
-        return crossover;
+        return matcher.findClosestCrossover(longitudes, latitudes, times, ssts, fco2s);
     }
 
 }
@@ -0,0 +1,36 @@
+package gov.noaa.pmel.dashboard.actions;
+
+import gov.noaa.pmel.dashboard.shared.Crossover;
+
+/**
+ * Interface for the engine used to search the data of a pair of datasets for the closest high-quality crossover.
+ * Implementations must return the same closest crossover for the same data; they differ only in how candidate
+ * pairs of data points are found.  Implementations must be safe for concurrent use by multiple threads and
+ * must not modify the data arrays given, which may be shared with other concurrent searches.
+ */
+public interface CrossoverMatcher {
+
+    /**
+     * Finds the closest high-quality crossover in the data of a pair of datasets.  The arguments have already
+     * been validated by the caller: each argument has length two, no array is null, and the number of values
+     * for a dataset is the same in every argument.
+     *
+     * @param longitudes
+     *         the longitudes for the two datasets
+     * @param latitudes
+     *         the latitudes for the two datasets
+     * @param times
+     *         the times, in seconds since Jan 1, 1970 00:00:00, of the two datasets
+     * @param ssts
+     *         the SSTs values for the two datasets
+     * @param fco2s
+     *         the fCO2_recommended values of the two datasets
+     *
+     * @return the closest high-quality crossover between the two datasets, or
+     *         null if no high-quality crossovers were found.  The dataset IDs, cruiseMinTimes,
+     *         and cruiseMaxTimes will not have been assigned in the returned crossover.
+     */
+    Crossover findClosestCrossover(double[][] longitudes, double[][] latitudes, double[][] times,
+            double[][] ssts, double[][] fco2s);
+
+}
@@ -4,6 +4,7 @@ import gov.noaa.pmel.dashboard.datatype.DashDataType;
 import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
 import gov.noaa.pmel.dashboard.datatype.SocatTypes;
 import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
+import gov.noaa.pmel.dashboard.dsg.DsgSummary;
 import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
 import gov.noaa.pmel.dashboard.handlers.ArchiveFilesBundler;
 import gov.noaa.pmel.dashboard.handlers.CheckerMessageHandler;
@@ -11,6 +12,7 @@ import gov.noaa.pmel.dashboard.handlers.DataFileHandler;
 import gov.noaa.pmel.dashboard.handlers.DatabaseRequestHandler;
 import gov.noaa.pmel.dashboard.handlers.DsgNcFileHandler;
 import gov.noaa.pmel.dashboard.handlers.MetadataFileHandler;
+import gov.noaa.pmel.dashboard.handlers.VersionedFileHandler;
 import gov.noaa.pmel.dashboard.metadata.DashboardOmeMetadata;
 import gov.noaa.pmel.dashboard.qc.DataLocation;
 import gov.noaa.pmel.dashboard.qc.DataQCEvent;
@@ -25,6 +27,7 @@ import gov.noaa.pmel.dashboard.shared.DashboardMetadata;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DataQCFlag;
 import gov.noaa.pmel.dashboard.shared.DatasetQCStatus;
+import gov.noaa.pmel.dashboard.shared.SubmitJobStatus;
 import org.apache.logging.log4j.Logger;
 
 import java.io.FileNotFoundException;
@@ -77,12 +80,34 @@ public class DatasetSubmitter {
         itsLogger = configStore.getLogger();
     }
 
+    /**
+     * Creates a submitter without any handlers; for subclasses overriding the submit methods.
+     */
+    protected DatasetSubmitter() {
+    }
+
+    /**
+     * Receives notice of the stages reached while submitting a dataset.
+     */
+    public interface StageListener {
+        /**
+         * @param datasetId
+         *         ID of the dataset being submitted
+         * @param stage
+         *         stage of the submission just started; one of the STAGE_ values of {@link SubmitJobStatus}
+         */
+        void stageStarted(String datasetId, String stage);
+    }
+
     /**
      * Submit a dataset.  This standardized the data using the automated data checker and generates DSG and decimated
      * DSG files for datasets which are editable. For all datasets, the archive status is updated to the given value.
      * <p>
      * If the archive status begins with {@link DashboardUtils#ARCHIVE_STATUS_SENT_TO_START}, the archive request
      * is sent for dataset which have not already been sent, or for all datasets if repeatSend is true.
+     * <p>
+     * The datasets are submitted one at a time by the calling thread; {@link SubmitJobQueue} submits datasets
+     * in the background.
      *
      * @param idsSet
      *         IDs of the datasets to submit
@@ -106,202 +131,278 @@ public class DatasetSubmitter {
         HashSet<String> archiveIds = new HashSet<String>();
         ArrayList<String> errorMsgs = new ArrayList<String>();
         for (String datasetId : idsSet) {
-            // Get the dataset with data since almost always submitting for QC
-            DashboardDatasetData dataset = dataHandler.getDatasetDataFromFiles(datasetId, 0, -1);
-            if ( dataset == null )
-                throw new IllegalArgumentException("Unknown dataset " + datasetId);
+            submitDataset(datasetId, archiveStatus, repeatSend, submitter, ingestIds, archiveIds, errorMsgs, null);
+            try {
+                // Wait just a moment to let other things (mysql? svn?) catch up
+                // or clear;  submits of lots of datasets can sometimes cause
+                // messed-up DSG files not seen when submitted in small numbers.
+                Thread.sleep(100);
+            } catch ( InterruptedException ex ) {
+                // Ignore
+                ;
+            }
+        }
 
-            boolean changed = false;
-            String commitMsg = "Dataset " + datasetId;
+        finishSubmit(ingestIds, archiveIds, archiveStatus, timestamp, submitter, errorMsgs);
 
-            if ( Boolean.TRUE.equals(dataset.isEditable()) ) {
-                try {
-                    // Get the OME metadata for this dataset
-                    DashboardMetadata omeInfo = metadataHandler.getMetadataInfo(datasetId, DashboardUtils.OME_FILENAME);
-                    if ( !version.equals(omeInfo.getVersion()) ) {
-                        omeInfo.setVersion(version);
-                        metadataHandler.saveMetadataInfo(omeInfo, "Update metadata version number to " +
-                                version + " with submission of " + datasetId, false);
+        // If any dataset submit had errors, return the error messages
+        // TODO: do this in a return message, not an IllegalArgumentException
+        if ( errorMsgs.size() > 0 ) {
+            StringBuilder sb = new StringBuilder();
+            for (String msg : errorMsgs) {
+                sb.append(msg);
+                sb.append("\n");
+            }
+            throw new IllegalArgumentException(sb.toString());
+        }
+    }
+
+    /**
+     * Submit a single dataset.  If the dataset is editable, this standardizes the data using the automated data
+     * checker, generates the DSG and decimated DSG files, and updates the QC flags in the database.  The archive
+     * status of the dataset is updated to the given value unless an archival request is to be sent.
+     * <p>
+     * Sending the archival requests and notifying ERDDAP of the new DSG files are done afterwards for all the
+     * datasets of a submission by {@link #finishSubmit(Collection, Collection, String, String, String, Collection)}.
+     * <p>
+     * This may be called at the same time for different datasets (as {@link SubmitJobQueue} does), but not for the
+     * same dataset.  The data, metadata, and messages files written are those of the given dataset only, the DSG
+     * file handler locks the files of the dataset, the database requests use separate connections, and the version
+     * control operations of all the file handlers are serialized by {@link VersionedFileHandler}.
+     *
+     * @param datasetId
+     *         ID of the dataset to submit
+     * @param archiveStatus
+     *         archive status to set for this dataset
+     * @param repeatSend
+     *         re-send request to archive if an archive request was already sent for this dataset?
+     * @param submitter
+     *         user performing this submit
+     * @param ingestIds
+     *         the ID of the dataset is added to this collection if the DSG files for the dataset were created
+     * @param archiveIds
+     *         the ID of the dataset is added to this collection if an archival request is to be sent for the dataset
+     * @param errorMsgs
+     *         a message is added to this collection if the dataset was not acceptable
+     * @param listener
+     *         if not null, notified as each stage of the submission is started
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset is unknown, or
+     *         if there was a problem saving the updated dataset information (including archive status)
+     */
+    public void submitDataset(String datasetId, String archiveStatus, boolean repeatSend, String submitter,
+            Collection<String> ingestIds, Collection<String> archiveIds, Collection<String> errorMsgs,
+            StageListener listener) throws IllegalArgumentException {
+        // Get the dataset with data since almost always submitting for QC
+        DashboardDatasetData dataset = dataHandler.getDatasetDataFromFiles(datasetId, 0, -1);
+        if ( dataset == null )
+            throw new IllegalArgumentException("Unknown dataset " + datasetId);
+
+        boolean changed = false;
+        String commitMsg = "Dataset " + datasetId;
+
+        if ( Boolean.TRUE.equals(dataset.isEditable()) ) {
+            try {
+                if ( listener != null )
+                    listener.stageStarted(datasetId, SubmitJobStatus.STAGE_CHECKING);
+
+                // Get the OME metadata for this dataset
+                DashboardMetadata omeInfo = metadataHandler.getMetadataInfo(datasetId, DashboardUtils.OME_FILENAME);
+                if ( !version.equals(omeInfo.getVersion()) ) {
+                    omeInfo.setVersion(version);
+                    metadataHandler.saveMetadataInfo(omeInfo, "Update metadata version number to " +
+                            version + " with submission of " + datasetId, false);
+                }
+                DashboardOmeMetadata omeMData = metadataHandler.getOmeFromFile(omeInfo);
+                // get the DOIs from data file properties; CDIAC OME does save the DOI as such (may be part of citation)
+                omeMData.setDatasetDOI(dataset.getSourceDOI());
+                DsgMetadata dsgMData = omeMData.createDsgMetadata(fileMetadataTypes);
+
+                // For SOCAT, the version string in the DsgMetadata is the submit version number plus an 'N' or 'U'
+                // depending on whether this dataset is new to this version of SOCAT or an update from a previous
+                // version of SOCAT.  An update within the same version of SOCAT does not change 'N' to 'U'.
+                String versionStatus = databaseHandler.getVersionStatus(datasetId);
+                String datasetQCFlag;
+                if ( versionStatus.isEmpty() ) {
+                    versionStatus = version + "N";
+                    datasetQCFlag = "N";
+                }
+                else if ( "U".equals(versionStatus.substring(versionStatus.length() - 1)) ) {
+                    versionStatus = version + "U";
+                    datasetQCFlag = "U";
+                }
+                else {
+                    long newVersion;
+                    try {
+                        newVersion = Math.round(Double.parseDouble(version) * 10.0);
+                    } catch ( NumberFormatException ex ) {
+                        throw new RuntimeException("Unexpected non-numeric new version number '" + version + "'");
                     }
-                    DashboardOmeMetadata omeMData = metadataHandler.getOmeFromFile(omeInfo);
-                    // get the DOIs from data file properties; CDIAC OME does save the DOI as such (may be part of citation)
-                    omeMData.setDatasetDOI(dataset.getSourceDOI());
-                    DsgMetadata dsgMData = omeMData.createDsgMetadata(fileMetadataTypes);
-
-                    // For SOCAT, the version string in the DsgMetadata is the submit version number plus an 'N' or 'U'
-                    // depending on whether this dataset is new to this version of SOCAT or an update from a previous
-                    // version of SOCAT.  An update within the same version of SOCAT does not change 'N' to 'U'.
-                    String versionStatus = databaseHandler.getVersionStatus(datasetId);
-                    String datasetQCFlag;
-                    if ( versionStatus.isEmpty() ) {
-                        versionStatus = version + "N";
-                        datasetQCFlag = "N";
+                    String oldNum = versionStatus.substring(0, versionStatus.length() - 1);
+                    long oldVersion;
+                    try {
+                        oldVersion = Math.round(Double.parseDouble(oldNum) * 10.0);
+                    } catch ( NumberFormatException ex ) {
+                        throw new RuntimeException("Unexpected non-numeric old version number '" + oldNum + "'");
                     }
-                    else if ( "U".equals(versionStatus.substring(versionStatus.length() - 1)) ) {
+                    if ( newVersion > oldVersion ) {
                         versionStatus = version + "U";
                         datasetQCFlag = "U";
                     }
                     else {
-                        long newVersion;
-                        try {
-                            newVersion = Math.round(Double.parseDouble(version) * 10.0);
-                        } catch ( NumberFormatException ex ) {
-                            throw new RuntimeException("Unexpected non-numeric new version number '" + version + "'");
-                        }
-                        String oldNum = versionStatus.substring(0, versionStatus.length() - 1);
-                        long oldVersion;
-                        try {
-                            oldVersion = Math.round(Double.parseDouble(oldNum) * 10.0);
-                        } catch ( NumberFormatException ex ) {
-                            throw new RuntimeException("Unexpected non-numeric old version number '" + oldNum + "'");
-                        }
-                        if ( newVersion > oldVersion ) {
-                            versionStatus = version + "U";
-                            datasetQCFlag = "U";
-                        }
-                        else {
-                            versionStatus = version + "N";
-                            datasetQCFlag = "N";
-                        }
-                    }
-                    dsgMData.setVersion(versionStatus);
-                    dsgMData.setDatasetQCFlag(datasetQCFlag);
-
-                    // Standardize the data and perform the automated data checks.
-                    // Saves the messages from the standardization and automated data checks.
-                    // Assigns dataCheckStatus, numErrorRows, numWarnRows, checkerFlags, and userFlags in dataset
-                    StdUserDataArray userStdData = datasetChecker.standardizeDataset(dataset, dsgMData);
-                    if ( DashboardUtils.CHECK_STATUS_UNACCEPTABLE.equals(dataset.getDataCheckStatus()) ) {
-                        errorMsgs.add(datasetId + ": unacceptable; check data check error messages " +
-                                "(missing lon/lat/time or uninterpretable values)");
-                        continue;
+                        versionStatus = version + "N";
+                        datasetQCFlag = "N";
                     }
+                }
+                dsgMData.setVersion(versionStatus);
+                dsgMData.setDatasetQCFlag(datasetQCFlag);
+
+                // Standardize the data and perform the automated data checks.
+                // Saves the messages from the standardization and automated data checks.
+                // Assigns dataCheckStatus, numErrorRows, numWarnRows, checkerFlags, and userFlags in dataset
+                StdUserDataArray userStdData = datasetChecker.standardizeDataset(dataset, dsgMData);
+                if ( DashboardUtils.CHECK_STATUS_UNACCEPTABLE.equals(dataset.getDataCheckStatus()) ) {
+                    errorMsgs.add(datasetId + ": unacceptable; check data check error messages " +
+                            "(missing lon/lat/time or uninterpretable values)");
+                    return;
+                }
 
-                    // Add the automated data checker data QC flags to the appropriate data QC columns
-                    userStdData.addAutomatedDataQC();
+                // Add the automated data checker data QC flags to the appropriate data QC columns
+                userStdData.addAutomatedDataQC();
 
-                    // Generate the NetCDF DSG file, enhanced by Ferret
-                    if ( itsLogger != null )
-                        itsLogger.debug("Generating the full-data DSG file for " + datasetId);
-                    dsgHandler.saveDatasetDsg(dsgMData, userStdData);
+                if ( listener != null )
+                    listener.stageStarted(datasetId, SubmitJobStatus.STAGE_CREATING_DSG);
 
-                    // Generate the decimated-data DSG file from the full-data DSG file
-                    if ( itsLogger != null )
-                        itsLogger.debug("Generating the decimated-data DSG file for " + datasetId);
-                    dsgHandler.decimateDatasetDsg(datasetId);
+                // Generate the NetCDF DSG file, enhanced by Ferret
+                if ( itsLogger != null )
+                    itsLogger.debug("Generating the full-data DSG file for " + datasetId);
+                DsgSummary dsgSummary = dsgHandler.saveDatasetDsg(dsgMData, userStdData);
+                if ( itsLogger != null )
+                    itsLogger.debug("Full-data DSG file for " + datasetId + ": " + dsgSummary);
 
-                    // Update the all_region_ids metadata variable from the Ferret-generated
-                    // region_id data variable in the full-data DSG file.
-                    String allRegionIds = dsgHandler.updateAllRegionIds(datasetId);
+                // Generate the decimated-data DSG file from the full-data DSG file;
+                // this copies the all_region_ids metadata assigned when the full-data DSG file was written
+                if ( itsLogger != null )
+                    itsLogger.debug("Generating the decimated-data DSG file for " + datasetId);
+                dsgHandler.decimateDatasetDsg(datasetId);
+                String allRegionIds = dsgSummary.getAllRegionIds();
 
-                    // Generate the set of data QC events for the data QC flags from standardization
-                    // and automated data checking as well as for user-provided data QC flags
-                    ArrayList<DataQCEvent> dataQCEvents = generateDataQCEvents(dataset, userStdData);
+                if ( listener != null )
+                    listener.stageStarted(datasetId, SubmitJobStatus.STAGE_UPDATING_QC);
 
-                    // Update the data QC flags to those for this data
-                    databaseHandler.resetDataQCEvents(datasetId);
-                    databaseHandler.addDataQCEvent(dataQCEvents);
+                // Generate the set of data QC events for the data QC flags from standardization
+                // and automated data checking as well as for user-provided data QC flags
+                ArrayList<DataQCEvent> dataQCEvents = generateDataQCEvents(dataset, userStdData);
 
-                    // (re)generate the WOCE flags messages file
-                    metadataHandler.generateWoceFlagMsgsFile(datasetId, databaseHandler);
+                // Update the data QC flags to those for this data
+                databaseHandler.resetDataQCEvents(datasetId);
+                databaseHandler.addDataQCEvent(dataQCEvents);
 
-                    // Add new or update (regardless of version) dataset QC flags to the database.
-                    // Uses the submit status from dataset to determine if new or updated,
-                    // then updates the submit status appropriately.
-                    ArrayList<QCEvent> datasetQCEvents = generateDatasetQCEvents(dataset, allRegionIds);
-                    databaseHandler.addDatasetQCEvents(datasetQCEvents);
+                // (re)generate the WOCE flags messages file
+                metadataHandler.generateWoceFlagMsgsFile(datasetId, databaseHandler);
 
-                } catch ( Exception ex ) {
-                    errorMsgs.add(datasetId + ": unacceptable; " + ex.getMessage());
-                    continue;
-                }
+                // Add new or update (regardless of version) dataset QC flags to the database.
+                // Uses the submit status from dataset to determine if new or updated,
+                // then updates the submit status appropriately.
+                ArrayList<QCEvent> datasetQCEvents = generateDatasetQCEvents(dataset, allRegionIds);
+                databaseHandler.addDatasetQCEvents(datasetQCEvents);
 
-                // Set up to save changes to version control
-                changed = true;
-                commitMsg += " submitted";
-                ingestIds.add(datasetId);
+            } catch ( Exception ex ) {
+                errorMsgs.add(datasetId + ": unacceptable; " + ex.getMessage());
+                return;
             }
 
-            if ( archiveStatus.startsWith(DashboardUtils.ARCHIVE_STATUS_SENT_TO_START) &&
-                    (repeatSend || dataset.getArchiveTimestamps().isEmpty()) ) {
-                // Queue the request to send (or re-send) the data and metadata for archival.
-                // In the future there might be more than one place to send for archival.
-                archiveIds.add(datasetId);
-            }
-            else if ( !archiveStatus.equals(dataset.getArchiveStatus()) ) {
-                // Update the archive status now
-                dataset.setArchiveStatus(archiveStatus);
-                changed = true;
-                commitMsg += " archive status '" + archiveStatus + "'";
-            }
+            // Set up to save changes to version control
+            changed = true;
+            commitMsg += " submitted";
+            ingestIds.add(datasetId);
+        }
 
-            if ( changed ) {
-                // Commit this update of the dataset properties
-                commitMsg += " by user '" + submitter + "'";
-                dataHandler.saveDatasetInfoToFile(dataset, commitMsg);
-            }
-            try {
-                // Wait just a moment to let other things (mysql? svn?) catch up
-                // or clear;  submits of lots of datasets can sometimes cause
-                // messed-up DSG files not seen when submitted in small numbers.
-                Thread.sleep(100);
-            } catch ( InterruptedException ex ) {
-                // Ignore
-                ;
-            }
+        if ( archiveStatus.startsWith(DashboardUtils.ARCHIVE_STATUS_SENT_TO_START) &&
+                (repeatSend || dataset.getArchiveTimestamps().isEmpty()) ) {
+            // Queue the request to send (or re-send) the data and metadata for archival.
+            // In the future there might be more than one place to send for archival.
+            archiveIds.add(datasetId);
+        }
+        else if ( !archiveStatus.equals(dataset.getArchiveStatus()) ) {
+            // Update the archive status now
+            dataset.setArchiveStatus(archiveStatus);
+            changed = true;
+            commitMsg += " archive status '" + archiveStatus + "'";
+        }
+
+        if ( changed ) {
+            // Commit this update of the dataset properties
+            commitMsg += " by user '" + submitter + "'";
+            dataHandler.saveDatasetInfoToFile(dataset, commitMsg);
         }
+    }
 
+    /**
+     * Completes a submission of datasets.  Notifies ERDDAP if DSG files were created, and sends the data and metadata
+     * for archival for the datasets where the user requested immediate archival.
+     *
+     * @param ingestIds
+     *         IDs of datasets whose DSG files were created
+     * @param archiveIds
+     *         IDs of datasets to send for archival
+     * @param archiveStatus
+     *         archive status to set for the datasets sent for archival
+     * @param timestamp
+     *         local timestamp to associate with this submission
+     * @param submitter
+     *         user performing this submit
+     * @param errorMsgs
+     *         a message is added to this collection for each dataset that could not be sent for archival
+     *
+     * @throws IllegalArgumentException
+     *         if datasets are to be sent for archival but the real name or e-mail address of the submitter is unknown,
+     *         or if there was a problem saving the updated dataset information
+     */
+    public void finishSubmit(Collection<String> ingestIds, Collection<String> archiveIds, String archiveStatus,
+            String timestamp, String submitter, Collection<String> errorMsgs) throws IllegalArgumentException {
         // notify ERDDAP of new/updated dataset
         if ( !ingestIds.isEmpty() )
             dsgHandler.flagErddap(true, true);
 
         // Send dataset data and metadata for archival where user requested immediate archival
-        if ( !archiveIds.isEmpty() ) {
-            String userRealName;
-            try {
-                userRealName = databaseHandler.getReviewerRealname(submitter);
-            } catch ( Exception ex ) {
-                userRealName = null;
-            }
-            if ( (userRealName == null) || userRealName.isEmpty() )
-                throw new IllegalArgumentException("Unknown real name for user " + submitter);
+        if ( archiveIds.isEmpty() )
+            return;
+
+        String userRealName;
+        try {
+            userRealName = databaseHandler.getReviewerRealname(submitter);
+        } catch ( Exception ex ) {
+            userRealName = null;
+        }
+        if ( (userRealName == null) || userRealName.isEmpty() )
+            throw new IllegalArgumentException("Unknown real name for user " + submitter);
+
+        String userEmail;
+        try {
+            userEmail = databaseHandler.getReviewerEmail(submitter);
+        } catch ( Exception ex ) {
+            userEmail = null;
+        }
+        if ( (userEmail == null) || userEmail.isEmpty() )
+            throw new IllegalArgumentException("Unknown e-mail address for user " + submitter);
 
-            String userEmail;
+        for (String datasetId : archiveIds) {
+            String commitMsg = "Immediate archival of dataset " + datasetId + " requested by " +
+                    userRealName + " (" + userEmail + ") at " + timestamp;
             try {
-                userEmail = databaseHandler.getReviewerEmail(submitter);
+                filesBundler.sendOrigFilesBundle(datasetId, commitMsg, userRealName, userEmail);
             } catch ( Exception ex ) {
-                userEmail = null;
-            }
-            if ( (userEmail == null) || userEmail.isEmpty() )
-                throw new IllegalArgumentException("Unknown e-mail address for user " + submitter);
-
-            for (String datasetId : archiveIds) {
-                String commitMsg = "Immediate archival of dataset " + datasetId + " requested by " +
-                        userRealName + " (" + userEmail + ") at " + timestamp;
-                try {
-                    filesBundler.sendOrigFilesBundle(datasetId, commitMsg, userRealName, userEmail);
-                } catch ( Exception ex ) {
-                    errorMsgs.add("Failed to submit request for immediate archival of " +
-                            datasetId + ": " + ex.getMessage());
-                    continue;
-                }
-                // When successful, update the archived timestamp
-                DashboardDataset cruise = dataHandler.getDatasetFromInfoFile(datasetId);
-                cruise.setArchiveStatus(archiveStatus);
-                cruise.getArchiveTimestamps().add(timestamp);
-                dataHandler.saveDatasetInfoToFile(cruise, commitMsg);
-            }
-        }
-
-        // If any dataset submit had errors, return the error messages
-        // TODO: do this in a return message, not an IllegalArgumentException
-        if ( errorMsgs.size() > 0 ) {
-            StringBuilder sb = new StringBuilder();
-            for (String msg : errorMsgs) {
-                sb.append(msg);
-                sb.append("\n");
+                errorMsgs.add("Failed to submit request for immediate archival of " +
+                        datasetId + ": " + ex.getMessage());
+                continue;
             }
-            throw new IllegalArgumentException(sb.toString());
+            // When successful, update the archived timestamp
+            DashboardDataset cruise = dataHandler.getDatasetFromInfoFile(datasetId);
+            cruise.setArchiveStatus(archiveStatus);
+            cruise.getArchiveTimestamps().add(timestamp);
+            dataHandler.saveDatasetInfoToFile(cruise, commitMsg);
         }
     }
 
@@ -460,9 +561,13 @@ public class DatasetSubmitter {
 
             int colNum = msg.getColNumber();
             Integer colIdx = (colNum > 0) ? (colNum - 1) : null;
-            CommentedDataQCFlag info = new CommentedDataQCFlag(flagName, flagValue, severity, colIdx, rowNum - 1,
-                    comment);
-            dataqc.add(info);
+            // The message may be for a run of rows
+            int lastRowNum = msg.getLastRowNumber();
+            for (int rowIdx = rowNum - 1; rowIdx < lastRowNum; rowIdx++) {
+                CommentedDataQCFlag info = new CommentedDataQCFlag(flagName, flagValue, severity, colIdx, rowIdx,
+                        comment);
+                dataqc.add(info);
+            }
         }
 
         // Add the PI-provided data QC flags from values in the dataset
@@ -0,0 +1,102 @@
+package gov.noaa.pmel.dashboard.actions;
+
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.Crossover;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+
+/**
+ * Crossover matcher which compares every valid data point of the first dataset with the data points of the
+ * second dataset.  Assumes the data of the second dataset is ordered by time.  This is the original, simple
+ * implementation and is primarily retained for verifying other matchers.
+ */
+public class ScanCrossoverMatcher implements CrossoverMatcher {
+
+    @Override
+    public Crossover findClosestCrossover(double[][] longitudes, double[][] latitudes, double[][] times,
+            double[][] ssts, double[][] fco2s) {
+        int[] numRows = new int[] { longitudes[0].length, longitudes[1].length };
+
+        double minDistance = DashboardServerUtils.MAX_CROSSOVER_DIST;
+        Crossover crossover = null;
+        for (int j = 0; j < numRows[0]; j++) {
+            // Skip this point if any missing values
+            if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, longitudes[0][j],
+                    0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+                continue;
+            if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, latitudes[0][j],
+                    0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+                continue;
+            if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, times[0][j],
+                    0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+                continue;
+            if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, ssts[0][j],
+                    0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+                continue;
+            if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, fco2s[0][j],
+                    0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+                continue;
+
+            for (int k = 0; k < numRows[1]; k++) {
+                // Skip this point if any missing values
+                if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, longitudes[1][k],
+                        0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+                    continue;
+                if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, latitudes[1][k],
+                        0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+                    continue;
+                if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, times[1][k],
+                        0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+                    continue;
+                if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, ssts[1][k],
+                        0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+                    continue;
+                if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, fco2s[1][k],
+                        0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+                    continue;
+
+                if ( times[1][k] > times[0][j] + DashboardServerUtils.MAX_TIME_DIFF ) {
+                    // The rest of the second cruise occurred far later than the point of first cruise.
+                    // Go on to the next point of the first cruise.
+                    break;
+                }
+                if ( times[1][k] < times[0][j] - DashboardServerUtils.MAX_TIME_DIFF ) {
+                    // This point of the second cruise occurred far earlier than the point of the first cruise.
+                    // Go on to the next point of the second cruise.
+                    continue;
+                }
+                if ( Math.abs(ssts[1][k] - ssts[0][j]) > DashboardServerUtils.MAX_TEMP_DIFF ) {
+                    // SST difference too large.
+                    // Go on to the next point of the second cruise.
+                    continue;
+                }
+                if ( Math.abs(fco2s[1][k] - fco2s[0][j]) > DashboardServerUtils.MAX_FCO2_DIFF ) {
+                    // fCO2 difference too large.
+                    // Go on to the next point of the second cruise.
+                    continue;
+                }
+                if ( Math.abs(latitudes[1][k] - latitudes[0][j]) > DashboardServerUtils.MAX_LAT_DIFF ) {
+                    // Differences in latitudes are too large.
+                    // Go on to the next point of the second cruise.
+                    continue;
+                }
+
+                double locTimeDist = DashboardServerUtils.distanceBetween(
+                        longitudes[0][j], latitudes[0][j], times[0][j],
+                        longitudes[1][k], latitudes[1][k], times[1][k]);
+                if ( locTimeDist < minDistance ) {
+                    // Update this minimum distance and record the crossover
+                    minDistance = locTimeDist;
+                    crossover = new Crossover();
+                    crossover.setMinDistance(minDistance);
+                    crossover.setRowNumsAtMin(new Integer[] { j + 1, k + 1 });
+                    crossover.setLonsAtMin(new Double[] { longitudes[0][j], longitudes[1][k] });
+                    crossover.setLatsAtMin(new Double[] { latitudes[0][j], latitudes[1][k] });
+                    crossover.setTimesAtMin(new Long[] { Math.round(times[0][j]), Math.round(times[1][k]) });
+                }
+            }
+        }
+
+        return crossover;
+    }
+
+}
@@ -0,0 +1,512 @@
+package gov.noaa.pmel.dashboard.actions;
+
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.SubmitJobStatus;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queue of jobs submitting datasets for QC.  The datasets of the jobs are submitted in the background by a fixed
+ * number of worker threads using {@link DatasetSubmitter}.  Different datasets are submitted in parallel, but the
+ * submissions of any one dataset are never run at the same time.  Once all datasets of a job have been submitted,
+ * ERDDAP is notified and any archival requests are sent.
+ * <p>
+ * Each job is saved to a properties file in the jobs directory as it progresses, and the file is removed when the job
+ * finishes.  Jobs found in the jobs directory when the queue is created are resumed, submitting only the datasets that
+ * had not finished.  The status of a job can be obtained until a while after the job has finished.
+ */
+public class SubmitJobQueue {
+
+    private static final String JOB_FILENAME_EXTENSION = ".properties";
+    private static final String SUBMITTER_KEY = "submitter";
+    private static final String ARCHIVE_STATUS_KEY = "archiveStatus";
+    private static final String TIMESTAMP_KEY = "timestamp";
+    private static final String REPEAT_SEND_KEY = "repeatSend";
+    private static final String DATASET_IDS_KEY = "datasetIds";
+    private static final String INGEST_IDS_KEY = "ingestIds";
+    private static final String ARCHIVE_IDS_KEY = "archiveIds";
+    private static final String STAGE_KEY_PREFIX = "stage.";
+    private static final String MESSAGE_KEY_PREFIX = "message.";
+
+    /**
+     * Milliseconds the status of a finished job is kept
+     */
+    private static final long FINISHED_JOB_KEEP_MILLIS = 6L * 60L * 60L * 1000L;
+
+    /**
+     * Object synchronized on while a dataset is being submitted
+     */
+    private static class DatasetLock {
+        // number of threads holding or waiting for this lock; only accessed while synchronized on DATASET_LOCKS
+        int numUsers = 0;
+    }
+
+    /**
+     * Locks of the datasets being submitted, mapped by standardized dataset ID.  This is shared by all queues so a
+     * job resumed by a new queue cannot run along side the same dataset still finishing in a discarded queue.  A lock
+     * is removed once no thread is holding or waiting for it.  Synchronize on this map when using it.
+     */
+    private static final HashMap<String,DatasetLock> DATASET_LOCKS = new HashMap<String,DatasetLock>();
+
+    /**
+     * A queued submission of datasets
+     */
+    private static class SubmitJob {
+        final String jobId;
+        final String submitter;
+        final String archiveStatus;
+        final String timestamp;
+        final boolean repeatSend;
+        final File jobFile;
+        final SubmitJobStatus status;
+        final TreeSet<String> ingestIds;
+        final TreeSet<String> archiveIds;
+        int numPending;
+        long finishedMillis;
+
+        SubmitJob(String jobId, String submitter, String archiveStatus, String timestamp,
+                boolean repeatSend, File jobFile) {
+            this.jobId = jobId;
+            this.submitter = submitter;
+            this.archiveStatus = archiveStatus;
+            this.timestamp = timestamp;
+            this.repeatSend = repeatSend;
+            this.jobFile = jobFile;
+            this.status = new SubmitJobStatus();
+            this.status.setJobId(jobId);
+            this.status.setSubmitter(submitter);
+            this.ingestIds = new TreeSet<String>();
+            this.archiveIds = new TreeSet<String>();
+            this.numPending = 0;
+            this.finishedMillis = 0L;
+        }
+    }
+
+    private final DatasetSubmitter datasetSubmitter;
+    private final File jobsDir;
+    private final ExecutorService workers;
+    private final HashMap<String,SubmitJob> jobs;
+    private final Logger itsLogger;
+    private volatile boolean closed;
+
+    /**
+     * Creates the queue and resumes any unfinished jobs saved in the jobs directory.
+     *
+     * @param datasetSubmitter
+     *         submits the individual datasets
+     * @param jobsDirName
+     *         name of the directory for saving jobs; created if it does not exist
+     * @param numWorkers
+     *         number of datasets that can be submitted at the same time
+     * @param logger
+     *         logger for messages about jobs; can be null
+     *
+     * @throws IllegalArgumentException
+     *         if datasetSubmitter is null, if the jobs directory cannot be created, or if numWorkers is not positive
+     */
+    public SubmitJobQueue(DatasetSubmitter datasetSubmitter, String jobsDirName, int numWorkers, Logger logger)
+            throws IllegalArgumentException {
+        if ( datasetSubmitter == null )
+            throw new IllegalArgumentException("no dataset submitter given");
+        if ( numWorkers < 1 )
+            throw new IllegalArgumentException("invalid number of submit workers: " + numWorkers);
+        jobsDir = new File(jobsDirName);
+        if ( !(jobsDir.isDirectory() || jobsDir.mkdirs()) )
+            throw new IllegalArgumentException("Unable to create the submit jobs directory " + jobsDirName);
+        this.datasetSubmitter = datasetSubmitter;
+        this.itsLogger = logger;
+        this.jobs = new HashMap<String,SubmitJob>();
+        this.closed = false;
+        final AtomicInteger threadCount = new AtomicInteger(0);
+        workers = Executors.newFixedThreadPool(numWorkers, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "dataset-submit-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        resumeSavedJobs();
+    }
+
+    /**
+     * Queues a job to submit datasets for QC.  See {@link DatasetSubmitter#submitDatasets(Collection, String, String,
+     * boolean, String)} for a description of the submission.
+     *
+     * @param idsSet
+     *         IDs of the datasets to submit
+     * @param archiveStatus
+     *         archive status to set for these datasets
+     * @param timestamp
+     *         local timestamp to associate with this submission
+     * @param repeatSend
+     *         re-send request to archive for datasets which already had a request sent?
+     * @param submitter
+     *         user performing this submit
+     *
+     * @return the ID of the queued job
+     *
+     * @throws IllegalArgumentException
+     *         if no dataset IDs are given, or if the job cannot be saved
+     * @throws IllegalStateException
+     *         if this queue has been shut down
+     */
+    public String queueSubmit(Collection<String> idsSet, String archiveStatus, String timestamp,
+            boolean repeatSend, String submitter) throws IllegalArgumentException, IllegalStateException {
+        if ( (idsSet == null) || idsSet.isEmpty() )
+            throw new IllegalArgumentException("no datasets to submit");
+        if ( closed )
+            throw new IllegalStateException("dataset submission is shutting down");
+        String jobId = UUID.randomUUID().toString();
+        SubmitJob job = new SubmitJob(jobId, submitter, archiveStatus, timestamp, repeatSend,
+                new File(jobsDir, jobId + JOB_FILENAME_EXTENSION));
+        for (String datasetId : idsSet) {
+            job.status.getDatasetStages().put(datasetId, SubmitJobStatus.STAGE_QUEUED);
+        }
+        job.numPending = job.status.getDatasetStages().size();
+        synchronized(job) {
+            try {
+                saveJob(job);
+            } catch ( IOException ex ) {
+                throw new IllegalArgumentException("Unable to save the submit job: " + ex.getMessage());
+            }
+        }
+        synchronized(jobs) {
+            removeOldJobs();
+            jobs.put(jobId, job);
+        }
+        for (String datasetId : job.status.getDatasetStages().keySet()) {
+            queueDataset(job, datasetId);
+        }
+        return jobId;
+    }
+
+    /**
+     * Returns a copy of the current status of a job.
+     *
+     * @param jobId
+     *         ID of the job
+     * @param username
+     *         user requesting the status; must be the user that submitted the job
+     *
+     * @return the status of the job
+     *
+     * @throws IllegalArgumentException
+     *         if the job is not known (or is no longer known), or was not submitted by the given user
+     */
+    public SubmitJobStatus getJobStatus(String jobId, String username) throws IllegalArgumentException {
+        SubmitJob job;
+        synchronized(jobs) {
+            removeOldJobs();
+            job = jobs.get(jobId);
+        }
+        if ( (job == null) || !job.submitter.equals(username) )
+            throw new IllegalArgumentException("Unknown submit job " + jobId);
+        SubmitJobStatus copy = new SubmitJobStatus();
+        synchronized(job) {
+            copy.setJobId(job.status.getJobId());
+            copy.setSubmitter(job.status.getSubmitter());
+            copy.setDatasetStages(job.status.getDatasetStages());
+            copy.setMessages(job.status.getMessages());
+            copy.setFinished(job.status.isFinished());
+        }
+        return copy;
+    }
+
+    /**
+     * Stops this queue.  Datasets currently being submitted are allowed to finish, but no further datasets are
+     * submitted.  Unfinished jobs remain saved in the jobs directory, so they are resumed by the next queue created.
+     */
+    public void shutdown() {
+        closed = true;
+        workers.shutdown();
+    }
+
+    /**
+     * Queues the submission of a dataset of a job
+     */
+    private void queueDataset(final SubmitJob job, final String datasetId) {
+        workers.execute(new Runnable() {
+            @Override
+            public void run() {
+                submitDataset(job, datasetId);
+            }
+        });
+    }
+
+    /**
+     * Submits a dataset of a job, recording the progress of the submission in the job.
+     * If this is the last dataset of the job to finish, the job is then finished.
+     */
+    private void submitDataset(final SubmitJob job, String datasetId) {
+        if ( closed )
+            return;
+        ArrayList<String> ingested = new ArrayList<String>(1);
+        ArrayList<String> archive = new ArrayList<String>(1);
+        ArrayList<String> errorMsgs = new ArrayList<String>(1);
+        // Lock on the standardized ID so variations of the same ID cannot be submitted at the same time
+        String lockId;
+        try {
+            lockId = DashboardServerUtils.checkDatasetID(datasetId);
+        } catch ( IllegalArgumentException ex ) {
+            // Invalid ID; DatasetSubmitter reports the problem
+            lockId = datasetId;
+        }
+        DatasetLock lock;
+        synchronized(DATASET_LOCKS) {
+            lock = DATASET_LOCKS.get(lockId);
+            if ( lock == null ) {
+                lock = new DatasetLock();
+                DATASET_LOCKS.put(lockId, lock);
+            }
+            lock.numUsers++;
+        }
+        try {
+            synchronized(lock) {
+                try {
+                    datasetSubmitter.submitDataset(datasetId, job.archiveStatus, job.repeatSend, job.submitter,
+                            ingested, archive, errorMsgs, new DatasetSubmitter.StageListener() {
+                                @Override
+                                public void stageStarted(String datasetId, String stage) {
+                                    synchronized(job) {
+                                        job.status.getDatasetStages().put(datasetId, stage);
+                                    }
+                                }
+                            });
+                } catch ( Exception ex ) {
+                    errorMsgs.add(datasetId + ": " + ex.getMessage());
+                }
+            }
+        } finally {
+            synchronized(DATASET_LOCKS) {
+                lock.numUsers--;
+                if ( lock.numUsers == 0 )
+                    DATASET_LOCKS.remove(lockId);
+            }
+        }
+        boolean lastOne;
+        synchronized(job) {
+            job.ingestIds.addAll(ingested);
+            job.archiveIds.addAll(archive);
+            job.status.getMessages().addAll(errorMsgs);
+            job.status.getDatasetStages().put(datasetId,
+                    errorMsgs.isEmpty() ? SubmitJobStatus.STAGE_DONE : SubmitJobStatus.STAGE_FAILED);
+            job.numPending--;
+            lastOne = (job.numPending == 0);
+            saveJobQuietly(job);
+        }
+        if ( (itsLogger != null) && !errorMsgs.isEmpty() )
+            itsLogger.error("submit job " + job.jobId + ": " + errorMsgs.toString());
+        if ( lastOne )
+            finishJob(job);
+    }
+
+    /**
+     * Notifies ERDDAP and sends the archival requests for a job whose datasets have all been submitted,
+     * then marks the job finished and removes its saved file.
+     */
+    private void finishJob(SubmitJob job) {
+        if ( closed )
+            return;
+        ArrayList<String> ingestIds;
+        ArrayList<String> archiveIds;
+        synchronized(job) {
+            ingestIds = new ArrayList<String>(job.ingestIds);
+            archiveIds = new ArrayList<String>(job.archiveIds);
+        }
+        ArrayList<String> errorMsgs = new ArrayList<String>();
+        try {
+            datasetSubmitter.finishSubmit(ingestIds, archiveIds, job.archiveStatus,
+                    job.timestamp, job.submitter, errorMsgs);
+        } catch ( Exception ex ) {
+            errorMsgs.add(ex.getMessage());
+        }
+        synchronized(job) {
+            job.status.getMessages().addAll(errorMsgs);
+            job.status.setFinished(true);
+            job.finishedMillis = System.currentTimeMillis();
+        }
+        if ( !job.jobFile.delete() && job.jobFile.exists() && (itsLogger != null) )
+            itsLogger.error("Unable to delete submit job file " + job.jobFile.getPath());
+        if ( itsLogger != null ) {
+            itsLogger.info("submit job " + job.jobId + " by " + job.submitter + " finished: datasets " +
+                    job.status.getDatasetStages().keySet().toString());
+        }
+    }
+
+    /**
+     * Removes the jobs that finished more than {@link #FINISHED_JOB_KEEP_MILLIS} ago.
+     * The caller must be synchronized on {@link #jobs}.
+     */
+    private void removeOldJobs() {
+        long oldest = System.currentTimeMillis() - FINISHED_JOB_KEEP_MILLIS;
+        for (Iterator<Map.Entry<String,SubmitJob>> iter = jobs.entrySet().iterator(); iter.hasNext(); ) {
+            SubmitJob job = iter.next().getValue();
+            synchronized(job) {
+                if ( job.status.isFinished() && (job.finishedMillis < oldest) )
+                    iter.remove();
+            }
+        }
+    }
+
+    /**
+     * Writes the given job to its file.  The file is written under a temporary name then renamed,
+     * so a partially written job file is never seen.  The caller must be synchronized on the job.
+     *
+     * @throws IOException
+     *         if writing or renaming the file fails
+     */
+    private void saveJob(SubmitJob job) throws IOException {
+        Properties jobProps = new Properties();
+        jobProps.setProperty(SUBMITTER_KEY, job.submitter);
+        jobProps.setProperty(ARCHIVE_STATUS_KEY, job.archiveStatus);
+        jobProps.setProperty(TIMESTAMP_KEY, job.timestamp);
+        jobProps.setProperty(REPEAT_SEND_KEY, Boolean.toString(job.repeatSend));
+        jobProps.setProperty(DATASET_IDS_KEY, joinIds(job.status.getDatasetStages().keySet()));
+        jobProps.setProperty(INGEST_IDS_KEY, joinIds(job.ingestIds));
+        jobProps.setProperty(ARCHIVE_IDS_KEY, joinIds(job.archiveIds));
+        for (Map.Entry<String,String> entry : job.status.getDatasetStages().entrySet()) {
+            jobProps.setProperty(STAGE_KEY_PREFIX + entry.getKey(), entry.getValue());
+        }
+        ArrayList<String> messages = job.status.getMessages();
+        for (int k = 0; k < messages.size(); k++) {
+            jobProps.setProperty(MESSAGE_KEY_PREFIX + k, messages.get(k));
+        }
+        File tmpFile = new File(jobsDir, job.jobId + ".tmp");
+        FileOutputStream out = new FileOutputStream(tmpFile);
+        try {
+            jobProps.store(out, "Dataset submit job");
+        } finally {
+            out.close();
+        }
+        if ( !tmpFile.renameTo(job.jobFile) )
+            throw new IOException("Unable to rename " + tmpFile.getPath() + " to " + job.jobFile.getPath());
+    }
+
+    /**
+     * Writes the given job to its file, logging any problems.  The caller must be synchronized on the job.
+     */
+    private void saveJobQuietly(SubmitJob job) {
+        try {
+            saveJob(job);
+        } catch ( IOException ex ) {
+            if ( itsLogger != null )
+                itsLogger.error("Unable to save submit job " + job.jobId + ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Reads the jobs saved in the jobs directory and queues the datasets of these jobs that had not finished.
+     * Jobs whose datasets had all finished are queued to be finished.  Job files that cannot be read are
+     * logged and ignored.
+     */
+    private void resumeSavedJobs() {
+        File[] jobFiles = jobsDir.listFiles();
+        if ( jobFiles == null )
+            return;
+        for (File jobFile : jobFiles) {
+            String filename = jobFile.getName();
+            if ( !filename.endsWith(JOB_FILENAME_EXTENSION) )
+                continue;
+            Properties jobProps = new Properties();
+            try {
+                FileInputStream in = new FileInputStream(jobFile);
+                try {
+                    jobProps.load(in);
+                } finally {
+                    in.close();
+                }
+            } catch ( IOException ex ) {
+                if ( itsLogger != null )
+                    itsLogger.error("Unable to read submit job file " + jobFile.getPath() + ": " + ex.getMessage());
+                continue;
+            }
+            String jobId = filename.substring(0, filename.length() - JOB_FILENAME_EXTENSION.length());
+            String submitter = jobProps.getProperty(SUBMITTER_KEY);
+            String archiveStatus = jobProps.getProperty(ARCHIVE_STATUS_KEY);
+            String timestamp = jobProps.getProperty(TIMESTAMP_KEY);
+            String datasetIds = jobProps.getProperty(DATASET_IDS_KEY);
+            if ( (submitter == null) || (archiveStatus == null) || (timestamp == null) || (datasetIds == null) ) {
+                if ( itsLogger != null )
+                    itsLogger.error("Invalid submit job file " + jobFile.getPath());
+                continue;
+            }
+            final SubmitJob job = new SubmitJob(jobId, submitter, archiveStatus, timestamp,
+                    Boolean.parseBoolean(jobProps.getProperty(REPEAT_SEND_KEY)), jobFile);
+            job.ingestIds.addAll(splitIds(jobProps.getProperty(INGEST_IDS_KEY)));
+            job.archiveIds.addAll(splitIds(jobProps.getProperty(ARCHIVE_IDS_KEY)));
+            ArrayList<String> pendingIds = new ArrayList<String>();
+            for (String datasetId : splitIds(datasetIds)) {
+                String stage = jobProps.getProperty(STAGE_KEY_PREFIX + datasetId, SubmitJobStatus.STAGE_QUEUED);
+                if ( !(SubmitJobStatus.STAGE_DONE.equals(stage) || SubmitJobStatus.STAGE_FAILED.equals(stage)) ) {
+                    // Submit again from the start
+                    stage = SubmitJobStatus.STAGE_QUEUED;
+                    pendingIds.add(datasetId);
+                }
+                job.status.getDatasetStages().put(datasetId, stage);
+            }
+            for (int k = 0; jobProps.getProperty(MESSAGE_KEY_PREFIX + k) != null; k++) {
+                job.status.getMessages().add(jobProps.getProperty(MESSAGE_KEY_PREFIX + k));
+            }
+            job.numPending = pendingIds.size();
+            synchronized(jobs) {
+                jobs.put(jobId, job);
+            }
+            if ( itsLogger != null )
+                itsLogger.info("resuming submit job " + jobId + " by " + submitter + ": datasets " + pendingIds);
+            if ( pendingIds.isEmpty() ) {
+                workers.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        finishJob(job);
+                    }
+                });
+            }
+            for (String datasetId : pendingIds) {
+                queueDataset(job, datasetId);
+            }
+        }
+    }
+
+    /**
+     * @return the given dataset IDs as a space-separated string
+     */
+    private static String joinIds(Collection<String> ids) {
+        StringBuilder sb = new StringBuilder();
+        for (String id : ids) {
+            if ( sb.length() > 0 )
+                sb.append(' ');
+            sb.append(id);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the dataset IDs in the given space-separated string; never null but may be empty
+     */
+    private static ArrayList<String> splitIds(String ids) {
+        ArrayList<String> idList = new ArrayList<String>();
+        if ( (ids == null) || ids.trim().isEmpty() )
+            return idList;
+        idList.addAll(Arrays.asList(ids.trim().split("\\s+")));
+        return idList;
+    }
+
+}
@@ -0,0 +1,160 @@
+package gov.noaa.pmel.dashboard.actions;
+
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.Crossover;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Crossover matcher which indexes the valid data points of the second dataset by time.  For each valid data point
+ * of the first dataset, only the points of the second dataset within the crossover time window are examined; this
+ * window is located by a binary search of the time index and is narrowed as closer crossovers are found.  The SST,
+ * fCO2, and latitude filters are applied only to these candidate points.
+ * <p>
+ * The second dataset does not need to be ordered by time.  If it is, the crossover returned is identical to that
+ * returned by {@link ScanCrossoverMatcher}: the first data point of the first dataset, then the first data point
+ * of the second dataset, having the minimum location-time distance.
+ */
+public class TimeIndexCrossoverMatcher implements CrossoverMatcher {
+
+    /**
+     * Seconds of time difference corresponding to one kilometer of location-time "distance"
+     */
+    private static final double SECONDS_PER_KM = 24.0 * 60.0 * 60.0 / DashboardServerUtils.SEAWATER_SPEED;
+
+    /**
+     * Additional seconds added to a narrowed time window to guard against round-off in the distance calculations
+     */
+    private static final double WINDOW_SLACK = 1.0;
+
+    @Override
+    public Crossover findClosestCrossover(double[][] longitudes, double[][] latitudes, double[][] times,
+            double[][] ssts, double[][] fco2s) {
+        int[] firstRows = getValidRows(longitudes[0], latitudes[0], times[0], ssts[0], fco2s[0]);
+        if ( firstRows.length == 0 )
+            return null;
+        int[] secondRows = getValidRows(longitudes[1], latitudes[1], times[1], ssts[1], fco2s[1]);
+        if ( secondRows.length == 0 )
+            return null;
+        secondRows = sortByTime(secondRows, times[1]);
+        double[] secondTimes = new double[secondRows.length];
+        for (int q = 0; q < secondRows.length; q++) {
+            secondTimes[q] = times[1][secondRows[q]];
+        }
+
+        double minDistance = DashboardServerUtils.MAX_CROSSOVER_DIST;
+        double timeWindow = DashboardServerUtils.MAX_TIME_DIFF;
+        Crossover crossover = null;
+        int minJ = -1;
+        int minK = -1;
+        for (int j : firstRows) {
+            double time = times[0][j];
+            for (int q = lowerBound(secondTimes, time - timeWindow);
+                 (q < secondTimes.length) && (secondTimes[q] <= time + timeWindow); q++) {
+                int k = secondRows[q];
+                if ( Math.abs(ssts[1][k] - ssts[0][j]) > DashboardServerUtils.MAX_TEMP_DIFF )
+                    continue;
+                if ( Math.abs(fco2s[1][k] - fco2s[0][j]) > DashboardServerUtils.MAX_FCO2_DIFF )
+                    continue;
+                if ( Math.abs(latitudes[1][k] - latitudes[0][j]) > DashboardServerUtils.MAX_LAT_DIFF )
+                    continue;
+
+                double locTimeDist = DashboardServerUtils.distanceBetween(
+                        longitudes[0][j], latitudes[0][j], time,
+                        longitudes[1][k], latitudes[1][k], times[1][k]);
+                // Candidates are examined in time order, not row order, so a tie with the current
+                // closest point of this first-dataset point goes to the earlier second-dataset row
+                if ( (locTimeDist < minDistance) || ((minJ == j) && (locTimeDist == minDistance) && (k < minK)) ) {
+                    minDistance = locTimeDist;
+                    minJ = j;
+                    minK = k;
+                    timeWindow = Math.min(DashboardServerUtils.MAX_TIME_DIFF,
+                            minDistance * SECONDS_PER_KM + WINDOW_SLACK);
+                }
+            }
+        }
+
+        if ( minJ >= 0 ) {
+            crossover = new Crossover();
+            crossover.setMinDistance(minDistance);
+            crossover.setRowNumsAtMin(new Integer[] { minJ + 1, minK + 1 });
+            crossover.setLonsAtMin(new Double[] { longitudes[0][minJ], longitudes[1][minK] });
+            crossover.setLatsAtMin(new Double[] { latitudes[0][minJ], latitudes[1][minK] });
+            crossover.setTimesAtMin(new Long[] { Math.round(times[0][minJ]), Math.round(times[1][minK]) });
+        }
+        return crossover;
+    }
+
+    /**
+     * @return the indices, in increasing order, of the data points where none of the given values are missing
+     */
+    private static int[] getValidRows(double[] lons, double[] lats, double[] times, double[] ssts, double[] fco2s) {
+        int[] rows = new int[lons.length];
+        int numValid = 0;
+        for (int k = 0; k < lons.length; k++) {
+            if ( isMissing(lons[k]) || isMissing(lats[k]) || isMissing(times[k]) ||
+                    isMissing(ssts[k]) || isMissing(fco2s[k]) )
+                continue;
+            rows[numValid] = k;
+            numValid++;
+        }
+        return Arrays.copyOf(rows, numValid);
+    }
+
+    private static boolean isMissing(double value) {
+        return DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, value, 0.0, DashboardUtils.MAX_ABSOLUTE_ERROR);
+    }
+
+    /**
+     * @return the given row indices ordered by the associated time; rows with the same time remain
+     *         in increasing row order.  The given array is returned if already ordered by time.
+     */
+    private static int[] sortByTime(int[] rows, final double[] times) {
+        boolean ordered = true;
+        for (int q = 1; q < rows.length; q++) {
+            if ( times[rows[q]] < times[rows[q - 1]] ) {
+                ordered = false;
+                break;
+            }
+        }
+        if ( ordered )
+            return rows;
+
+        Integer[] boxedRows = new Integer[rows.length];
+        for (int q = 0; q < rows.length; q++) {
+            boxedRows[q] = rows[q];
+        }
+        // Arrays.sort on objects is stable, so rows with equal times remain in row order
+        Arrays.sort(boxedRows, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                return Double.compare(times[first], times[second]);
+            }
+        });
+        int[] sortedRows = new int[rows.length];
+        for (int q = 0; q < rows.length; q++) {
+            sortedRows[q] = boxedRows[q];
+        }
+        return sortedRows;
+    }
+
+    /**
+     * @return the index of the first value in the sorted array that is not less than the given value,
+     *         or the length of the array if all values are less than the given value
+     */
+    private static int lowerBound(double[] sortedValues, double value) {
+        int low = 0;
+        int high = sortedValues.length;
+        while ( low < high ) {
+            int mid = (low + high) >>> 1;
+            if ( sortedValues[mid] < value )
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+}
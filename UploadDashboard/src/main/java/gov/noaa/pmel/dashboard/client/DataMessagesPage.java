@@ -2,14 +2,17 @@ package gov.noaa.pmel.dashboard.client;
 
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.dom.client.Style;
+import com.google.gwt.event.dom.client.ChangeEvent;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.i18n.client.NumberFormat;
 import com.google.gwt.safehtml.shared.SafeHtmlUtils;
 import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.uibinder.client.UiHandler;
-import com.google.gwt.user.cellview.client.ColumnSortEvent;
-import com.google.gwt.user.cellview.client.ColumnSortEvent.ListHandler;
+import com.google.gwt.user.cellview.client.Column;
+import com.google.gwt.user.cellview.client.ColumnSortEvent.AsyncHandler;
+import com.google.gwt.user.cellview.client.ColumnSortList;
+import com.google.gwt.user.cellview.client.ColumnSortList.ColumnSortInfo;
 import com.google.gwt.user.cellview.client.DataGrid;
 import com.google.gwt.user.cellview.client.SimplePager;
 import com.google.gwt.user.cellview.client.TextColumn;
@@ -19,17 +22,21 @@ import com.google.gwt.user.client.ui.Button;
 import com.google.gwt.user.client.ui.HTML;
 import com.google.gwt.user.client.ui.InlineLabel;
 import com.google.gwt.user.client.ui.Label;
+import com.google.gwt.user.client.ui.ListBox;
 import com.google.gwt.user.client.ui.Widget;
-import com.google.gwt.view.client.ListDataProvider;
+import com.google.gwt.view.client.AsyncDataProvider;
+import com.google.gwt.view.client.HasData;
+import com.google.gwt.view.client.Range;
 import gov.noaa.pmel.dashboard.client.UploadDashboard.PagesEnum;
 import gov.noaa.pmel.dashboard.shared.ADCMessage;
-import gov.noaa.pmel.dashboard.shared.ADCMessageList;
+import gov.noaa.pmel.dashboard.shared.ADCMessageQuery;
+import gov.noaa.pmel.dashboard.shared.ADCMessageQueryResult;
 import gov.noaa.pmel.dashboard.shared.DashboardServicesInterface;
 import gov.noaa.pmel.dashboard.shared.DashboardServicesInterfaceAsync;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DataQCFlag.Severity;
 
-import java.util.List;
+import java.util.HashMap;
 
 /**
  * @author Karl Smith
@@ -42,6 +49,10 @@ public class DataMessagesPage extends CompositeWithUsername {
             "Dataset: <ul><li>";
     private static final String INTRO_HTML_EPILOGUE =
             "</li></ul>";
+    private static final String INTRO_HTML_ERRORS_START =
+            "Errors: ";
+    private static final String INTRO_HTML_WARNINGS_START =
+            "; Warnings: ";
 
     private static final String DISMISS_BUTTON_TEXT = "Back";
 
@@ -55,6 +66,10 @@ public class DataMessagesPage extends CompositeWithUsername {
     private static final String WARNING_SEVERITY_TEXT = "Warning";
     private static final String UNKNOWN_SEVERITY_TEXT = "Unknown";
 
+    private static final String ALL_MESSAGES_OPTION = "All messages";
+    private static final String ERROR_MESSAGES_OPTION = "Errors only";
+    private static final String WARNING_MESSAGES_OPTION = "Warnings only";
+
     private static final String EMPTY_TABLE_TEXT = "No problems detected!";
 
     interface DataMessagesPageUiBinder extends UiBinder<Widget,DataMessagesPage> {
@@ -76,8 +91,18 @@ public class DataMessagesPage extends CompositeWithUsername {
     Button dismissButton;
     @UiField
     SimplePager messagesPager;
-
-    private ListDataProvider<ADCMessage> listProvider;
+    @UiField
+    ListBox severityListBox;
+
+    private AsyncDataProvider<ADCMessage> dataProvider;
+    // Names used by the server for sorting by the sortable columns
+    private HashMap<Column<?,?>,String> sortColumnNames;
+    // Dataset whose messages are shown
+    private String datasetId;
+    // Show this page when the next page of messages is obtained from the server?
+    private boolean showWhenUpdated;
+    // Number of requests of messages from the server, to recognize responses to superseded requests
+    private int numMsgsRequests;
 
     // The singleton instance of this page
     private static DataMessagesPage singleton;
@@ -90,12 +115,24 @@ public class DataMessagesPage extends CompositeWithUsername {
         initWidget(uiBinder.createAndBindUi(this));
         singleton = this;
 
+        sortColumnNames = new HashMap<Column<?,?>,String>();
+        datasetId = null;
+        showWhenUpdated = false;
+        numMsgsRequests = 0;
+
         singleton.setUsername(null);
         titleLabel.setText(TITLE_TEXT);
         buildMessageListTable();
         dismissButton.setText(DISMISS_BUTTON_TEXT);
 
+        severityListBox.setVisibleItemCount(1);
+        severityListBox.addItem(ALL_MESSAGES_OPTION, ADCMessageQuery.SEVERITY_ANY);
+        severityListBox.addItem(ERROR_MESSAGES_OPTION, ADCMessageQuery.SEVERITY_ERRORS);
+        severityListBox.addItem(WARNING_MESSAGES_OPTION, ADCMessageQuery.SEVERITY_WARNINGS);
+        severityListBox.setSelectedIndex(0);
+
         // Assign the pager controlling which rows of the the messages grid are shown
+        messagesGrid.setPageSize(DashboardUtils.MAX_ROWS_PER_GRID_PAGE);
         messagesPager.setDisplay(messagesGrid);
     }
 
@@ -109,31 +146,15 @@ public class DataMessagesPage extends CompositeWithUsername {
      *         ID of the dataset to use
      */
     static void showPage(String username, String datasetId) {
-        UploadDashboard.showWaitCursor();
-        service.getDataMessages(username, datasetId, new AsyncCallback<ADCMessageList>() {
-            @Override
-            public void onSuccess(ADCMessageList msgList) {
-                if ( msgList == null ) {
-                    UploadDashboard.showMessage("Unexpected list of data problems returned");
-                    UploadDashboard.showAutoCursor();
-                    return;
-                }
-                if ( singleton == null )
-                    singleton = new DataMessagesPage();
-                UploadDashboard.updateCurrentPage(singleton);
-                singleton.updateMessages(msgList);
-                History.newItem(PagesEnum.SHOW_DATA_MESSAGES.name(), false);
-                UploadDashboard.showAutoCursor();
-            }
-
-            @Override
-            public void onFailure(Throwable ex) {
-                UploadDashboard.showFailureMessage(
-                        "Unexpected failure obtaining the list of data problems", ex);
-                UploadDashboard.showAutoCursor();
-            }
-        });
-
+        if ( singleton == null )
+            singleton = new DataMessagesPage();
+        singleton.setUsername(username);
+        singleton.datasetId = datasetId;
+        // Request the first page of all the messages; the page is shown when it arrives
+        singleton.severityListBox.setSelectedIndex(0);
+        singleton.showWhenUpdated = true;
+        singleton.messagesGrid.setVisibleRangeAndClearData(
+                new Range(0, DashboardUtils.MAX_ROWS_PER_GRID_PAGE), true);
     }
 
     /**
@@ -154,28 +175,88 @@ public class DataMessagesPage extends CompositeWithUsername {
         DataColumnSpecsPage.redisplayPage(getUsername());
     }
 
+    @UiHandler("severityListBox")
+    void severityOnChange(ChangeEvent event) {
+        // Show the first page of the messages of the selected severity
+        messagesGrid.setVisibleRangeAndClearData(
+                new Range(0, DashboardUtils.MAX_ROWS_PER_GRID_PAGE), true);
+    }
+
     /**
-     * Update the automated data checker messages with that given in the provided ADCMessageList.
+     * Requests a page of the automated data checker messages, sorted as currently specified for the table and
+     * of the severity currently selected, from the server.  The page of messages, the number of messages of the
+     * selected severity, and the introduction are updated when the response arrives.
      *
+     * @param range
+     *         range of rows of the table to get
+     */
+    private void requestMessages(final Range range) {
+        ADCMessageQuery query = new ADCMessageQuery();
+        query.setOffset(range.getStart());
+        query.setLimit(range.getLength());
+        ColumnSortList sortList = messagesGrid.getColumnSortList();
+        if ( sortList.size() > 0 ) {
+            ColumnSortInfo sortInfo = sortList.get(0);
+            query.setSortColumn(sortColumnNames.get(sortInfo.getColumn()));
+            query.setSortAscending(sortInfo.isAscending());
+        }
+        query.setSeverityFilter(severityListBox.getValue(severityListBox.getSelectedIndex()));
+        final int requestNum = ++numMsgsRequests;
+        UploadDashboard.showWaitCursor();
+        service.getDataMessagesPage(getUsername(), datasetId, query, new AsyncCallback<ADCMessageQueryResult>() {
+            @Override
+            public void onSuccess(ADCMessageQueryResult result) {
+                // Ignore the response to a superseded request
+                if ( requestNum != numMsgsRequests )
+                    return;
+                if ( result == null ) {
+                    showWhenUpdated = false;
+                    UploadDashboard.showMessage("Unexpected list of data problems returned");
+                    UploadDashboard.showAutoCursor();
+                    return;
+                }
+                updateMessages(range, result);
+                if ( showWhenUpdated ) {
+                    showWhenUpdated = false;
+                    UploadDashboard.updateCurrentPage(DataMessagesPage.this);
+                    History.newItem(PagesEnum.SHOW_DATA_MESSAGES.name(), false);
+                }
+                UploadDashboard.showAutoCursor();
+            }
+
+            @Override
+            public void onFailure(Throwable ex) {
+                if ( requestNum != numMsgsRequests )
+                    return;
+                showWhenUpdated = false;
+                UploadDashboard.showFailureMessage(
+                        "Unexpected failure obtaining the list of data problems", ex);
+                UploadDashboard.showAutoCursor();
+            }
+        });
+    }
+
+    /**
+     * Update the automated data checker messages with that given in the provided ADCMessageQueryResult.
+     *
+     * @param range
+     *         range of rows of the table requested
      * @param msgs
-     *         cruise dataset and set of messages to show
+     *         cruise dataset and page of messages to show
      */
-    private void updateMessages(ADCMessageList msgs) {
+    private void updateMessages(Range range, ADCMessageQueryResult msgs) {
         // Assign the username and introduction message
         setUsername(msgs.getUsername());
         introHtml.setHTML(INTRO_HTML_PROLOGUE +
                 SafeHtmlUtils.htmlEscape(msgs.getDatasetId()) +
-                INTRO_HTML_EPILOGUE);
-        // Update the table by resetting the data in the data provider
-        List<ADCMessage> msgList = listProvider.getList();
-        msgList.clear();
-        msgList.addAll(msgs);
-        messagesGrid.setRowCount(msgList.size(), true);
-        // Make sure the table is sorted according to the last specification
-        ColumnSortEvent.fire(messagesGrid, messagesGrid.getColumnSortList());
-        // Set the number of data rows to display in the grid.
-        // This will refresh the view.
-        messagesGrid.setPageSize(DashboardUtils.MAX_ROWS_PER_GRID_PAGE);
+                INTRO_HTML_EPILOGUE +
+                INTRO_HTML_ERRORS_START +
+                INT_NUMBER_FORMAT.format(msgs.getNumErrors()) +
+                INTRO_HTML_WARNINGS_START +
+                INT_NUMBER_FORMAT.format(msgs.getNumWarnings()));
+        // Update the table with the page of messages given
+        dataProvider.updateRowCount(msgs.getTotalCount(), true);
+        dataProvider.updateRowData(range.getStart(), msgs.getMessages());
     }
 
     /**
@@ -215,24 +296,29 @@ public class DataMessagesPage extends CompositeWithUsername {
         // Set the minimum width of the full table
         messagesGrid.setMinimumTableWidth(tableWidth, Style.Unit.EM);
 
-        // Create the data provider for this table
-        listProvider = new ListDataProvider<ADCMessage>();
-        listProvider.addDataDisplay(messagesGrid);
+        // Create the asynchronous data provider for this table
+        dataProvider = new AsyncDataProvider<ADCMessage>() {
+            @Override
+            protected void onRangeChanged(HasData<ADCMessage> display) {
+                // Ignore the call until messages are requested for a dataset
+                if ( datasetId == null )
+                    return;
+                requestMessages(display.getVisibleRange());
+            }
+        };
+        dataProvider.addDataDisplay(messagesGrid);
 
-        // Make the columns sortable
+        // Make the columns sortable; messages are sorted by the server,
+        // which only supports sorting on the severity, column number, and row number
         severityColumn.setSortable(true);
         colNumColumn.setSortable(true);
-        colNameColumn.setSortable(true);
         rowNumColumn.setSortable(true);
-        explanationColumn.setSortable(true);
+        sortColumnNames.put(severityColumn, ADCMessageQuery.SORT_SEVERITY);
+        sortColumnNames.put(colNumColumn, ADCMessageQuery.SORT_COLUMN_NUMBER);
+        sortColumnNames.put(rowNumColumn, ADCMessageQuery.SORT_ROW_NUMBER);
 
-        // Add a column sorting handler for these columns
-        ListHandler<ADCMessage> columnSortHandler = new ListHandler<ADCMessage>(listProvider.getList());
-        columnSortHandler.setComparator(severityColumn, DashboardUtils.severityComparator);
-        columnSortHandler.setComparator(colNumColumn, DashboardUtils.colNumComparator);
-        columnSortHandler.setComparator(colNameColumn, DashboardUtils.colNameComparator);
-        columnSortHandler.setComparator(rowNumColumn, DashboardUtils.rowNumComparator);
-        columnSortHandler.setComparator(explanationColumn, DashboardUtils.explanationComparator);
+        // A column sort just requests the messages again
+        AsyncHandler columnSortHandler = new AsyncHandler(messagesGrid);
 
         // Add the sort handler to the table, setting the default sorting
         // first by severity, then column number, and finally row number
@@ -297,6 +383,10 @@ public class DataMessagesPage extends CompositeWithUsername {
             public String getValue(ADCMessage msg) {
                 if ( (msg == null) || (msg.getRowNumber() <= 0) )
                     return "";
+                // Show the range of rows for a message about a run of rows
+                if ( msg.getNumRows() > 1 )
+                    return INT_NUMBER_FORMAT.format(msg.getRowNumber()) + " - " +
+                            INT_NUMBER_FORMAT.format(msg.getLastRowNumber());
                 return INT_NUMBER_FORMAT.format(msg.getRowNumber());
             }
         };
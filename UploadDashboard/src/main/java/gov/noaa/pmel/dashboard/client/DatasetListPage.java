@@ -16,11 +16,12 @@ import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.uibinder.client.UiHandler;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.ColumnSortEvent;
-import com.google.gwt.user.cellview.client.ColumnSortEvent.ListHandler;
+import com.google.gwt.user.cellview.client.ColumnSortEvent.AsyncHandler;
 import com.google.gwt.user.cellview.client.ColumnSortList;
 import com.google.gwt.user.cellview.client.ColumnSortList.ColumnSortInfo;
 import com.google.gwt.user.cellview.client.DataGrid;
 import com.google.gwt.user.cellview.client.Header;
+import com.google.gwt.user.cellview.client.SimplePager;
 import com.google.gwt.user.cellview.client.TextColumn;
 import com.google.gwt.user.client.History;
 import com.google.gwt.user.client.Window;
@@ -30,7 +31,9 @@ import com.google.gwt.user.client.ui.Image;
 import com.google.gwt.user.client.ui.InlineLabel;
 import com.google.gwt.user.client.ui.Label;
 import com.google.gwt.user.client.ui.Widget;
-import com.google.gwt.view.client.ListDataProvider;
+import com.google.gwt.view.client.AsyncDataProvider;
+import com.google.gwt.view.client.HasData;
+import com.google.gwt.view.client.Range;
 import gov.noaa.pmel.dashboard.client.UploadDashboard.PagesEnum;
 import gov.noaa.pmel.dashboard.shared.DashboardDataset;
 import gov.noaa.pmel.dashboard.shared.DashboardDatasetList;
@@ -38,10 +41,13 @@ import gov.noaa.pmel.dashboard.shared.DashboardMetadata;
 import gov.noaa.pmel.dashboard.shared.DashboardServicesInterface;
 import gov.noaa.pmel.dashboard.shared.DashboardServicesInterfaceAsync;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import gov.noaa.pmel.dashboard.shared.DatasetListQuery;
+import gov.noaa.pmel.dashboard.shared.DatasetListQueryResult;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map.Entry;
 import java.util.TreeSet;
 
 /**
@@ -109,6 +115,12 @@ public class DatasetListPage extends CompositeWithUsername {
     // Error message when the request for the latest cruise list fails
     private static final String GET_DATASET_LIST_ERROR_MSG =
             "Problems obtaining the latest dataset listing";
+    private static final String GET_SELECTED_DATASETS_ERROR_MSG =
+            "Problems obtaining the latest information about the selected datasets.  The datasets remain selected, " +
+                    "but cannot be used until this information is obtained; change the page or sorting of the " +
+                    "dataset list to try again";
+    private static final String SELECTED_DATASETS_NOT_FOUND_MSG_START =
+            "The following selected datasets no longer exist and are no longer selected: ";
 
     // Starts of error messages for improper cruise selections
     private static final String SUBMITTED_DATASETS_SELECTED_ERR_START =
@@ -298,8 +310,24 @@ public class DatasetListPage extends CompositeWithUsername {
     Button deleteButton;
     @UiField
     DataGrid<DashboardDataset> datasetsGrid;
-
-    private ListDataProvider<DashboardDataset> listProvider;
+    @UiField
+    SimplePager gridPager;
+
+    private AsyncDataProvider<DashboardDataset> dataProvider;
+    // Selected datasets, whether or not in the page shown; the dataset is null if not yet obtained from the server
+    private DashboardDatasetList selectedDatasets;
+    // Status of all the datasets to select with the next request of datasets
+    private String selectStatus;
+    // Names used by the server for sorting by the sortable columns
+    private HashMap<Column<?,?>,String> sortColumnNames;
+    // Has the dataset list been requested from the server?
+    private boolean listRequested;
+    // Show this page when the next page of datasets is obtained from the server?
+    private boolean showWhenUpdated;
+    // Number of requests of datasets from the server, to recognize responses to superseded requests
+    private int numListRequests;
+    // Number of requests for the selected datasets made; used to ignore responses to superseded requests
+    private int numSelectionRequests;
     private DashboardAskPopup askSuspendPopup;
     private DashboardAskPopup askDeletePopup;
     private DashboardAskPopup askRemovePopup;
@@ -324,6 +352,14 @@ public class DatasetListPage extends CompositeWithUsername {
         initWidget(uiBinder.createAndBindUi(this));
         singleton = this;
 
+        selectedDatasets = new DashboardDatasetList();
+        selectStatus = null;
+        sortColumnNames = new HashMap<Column<?,?>,String>();
+        listRequested = false;
+        showWhenUpdated = false;
+        numListRequests = 0;
+        numSelectionRequests = 0;
+
         buildDatasetListTable();
 
         setUsername(null);
@@ -381,25 +417,17 @@ public class DatasetListPage extends CompositeWithUsername {
      * to the page history.
      */
     static void showPage() {
-        UploadDashboard.showWaitCursor();
-        // Request the latest cruise list
-        service.getDatasetList(new AsyncCallback<DashboardDatasetList>() {
-            @Override
-            public void onSuccess(DashboardDatasetList cruises) {
-                if ( singleton == null )
-                    singleton = new DatasetListPage();
-                UploadDashboard.updateCurrentPage(singleton);
-                singleton.updateDatasets(cruises);
-                History.newItem(PagesEnum.SHOW_DATASETS.name(), false);
-                UploadDashboard.showAutoCursor();
-            }
-
-            @Override
-            public void onFailure(Throwable ex) {
-                UploadDashboard.showFailureMessage(GET_DATASET_LIST_ERROR_MSG, ex);
-                UploadDashboard.showAutoCursor();
-            }
-        });
+        if ( singleton == null )
+            singleton = new DatasetListPage();
+        // The selected datasets may have been changed on other pages; obtain them again with the first page
+        for (Entry<String,DashboardDataset> entry : singleton.selectedDatasets.entrySet()) {
+            entry.setValue(null);
+        }
+        // Request the first page of the latest cruise list; the page is shown when it arrives
+        singleton.showWhenUpdated = true;
+        singleton.listRequested = true;
+        singleton.datasetsGrid.setVisibleRangeAndClearData(
+                new Range(0, DashboardUtils.MAX_ROWS_PER_GRID_PAGE), true);
     }
 
     /**
@@ -423,7 +451,7 @@ public class DatasetListPage extends CompositeWithUsername {
     static void addSelectedDataset(String datasetId) {
         if ( singleton == null )
             singleton = new DatasetListPage();
-        singleton.datasetIdsSet.add(datasetId);
+        singleton.selectedDatasets.put(datasetId, null);
     }
 
     /**
@@ -439,33 +467,196 @@ public class DatasetListPage extends CompositeWithUsername {
     }
 
     /**
-     * Updates the dataset list page with the current username and with the datasets given in the argument.
+     * Updates the dataset list page with the current username from the dataset list given in the argument, and
+     * requests the datasets in the current page of the table from the server.
      *
      * @param newList
-     *         datasets to display
+     *         updated dataset list
      */
     private void updateDatasets(DashboardDatasetList newList) {
         // Update the username
         setUsername(newList.getUsername());
         userInfoLabel.setText(WELCOME_INTRO + getUsername());
-        // Update the cruises shown by resetting the data in the data provider
-        List<DashboardDataset> providerList = listProvider.getList();
-        providerList.clear();
-        if ( newList != null ) {
-            providerList.addAll(newList.values());
-            isManager = newList.isManager();
-            imageExtension = newList.getImageExtension();
+        isManager = newList.isManager();
+        imageExtension = newList.getImageExtension();
+        // Use the updated information for the selected datasets in the list
+        for (Entry<String,DashboardDataset> entry : selectedDatasets.entrySet()) {
+            DashboardDataset dataset = newList.get(entry.getKey());
+            if ( dataset != null )
+                entry.setValue(dataset);
         }
-        for (DashboardDataset dataset : providerList) {
-            if ( datasetIdsSet.contains(dataset.getDatasetId()) )
-                dataset.setSelected(true);
-            else
-                dataset.setSelected(false);
+        // Get the datasets shown, as well as the IDs of the selected datasets, from the server
+        refreshDatasets();
+    }
+
+    /**
+     * Requests the datasets in the current page of the table, as well as the IDs of the selected datasets,
+     * from the server.
+     */
+    private void refreshDatasets() {
+        listRequested = true;
+        datasetsGrid.setVisibleRangeAndClearData(datasetsGrid.getVisibleRange(), true);
+    }
+
+    /**
+     * Requests a page of the dataset list, sorted as currently specified for the table, from the server.  The page of
+     * datasets, the selected datasets, and the number of datasets in the list are updated when the response arrives.
+     * Only the IDs of the selected datasets are sent and returned;
+     * see {@link #updateSelectedDatasets(TreeSet, ArrayList)}.
+     *
+     * @param range
+     *         range of rows of the table to get
+     */
+    private void requestDatasets(final Range range) {
+        DatasetListQuery query = new DatasetListQuery();
+        query.setOffset(range.getStart());
+        query.setLimit(range.getLength());
+        ColumnSortList sortList = datasetsGrid.getColumnSortList();
+        if ( sortList.size() > 0 ) {
+            ColumnSortInfo sortInfo = sortList.get(0);
+            query.setSortColumn(sortColumnNames.get(sortInfo.getColumn()));
+            query.setSortAscending(sortInfo.isAscending());
         }
-        datasetsGrid.setRowCount(providerList.size());
-        datasetsGrid.setVisibleRange(0, providerList.size());
-        // Make sure the table is sorted according to the last specification
-        ColumnSortEvent.fire(datasetsGrid, datasetsGrid.getColumnSortList());
+        query.setSelectedIds(new TreeSet<String>(selectedDatasets.keySet()));
+        final String querySelectStatus = selectStatus;
+        query.setSelectStatus(querySelectStatus);
+        // The datasets selected by status are not known until the response arrives
+        if ( querySelectStatus != null )
+            setSelectionButtonsEnabled(false);
+        final int requestNum = ++numListRequests;
+        UploadDashboard.showWaitCursor();
+        service.getDatasetListPage(query, new AsyncCallback<DatasetListQueryResult>() {
+            @Override
+            public void onSuccess(DatasetListQueryResult result) {
+                // Ignore the response to a superseded request
+                if ( requestNum != numListRequests )
+                    return;
+                setUsername(result.getUsername());
+                userInfoLabel.setText(WELCOME_INTRO + getUsername());
+                isManager = result.isManager();
+                imageExtension = result.getImageExtension();
+                updateSelectedDatasets(result.getSelectedIds(), result.getDatasets());
+                if ( (querySelectStatus != null) && querySelectStatus.equals(selectStatus) )
+                    selectStatus = null;
+                dataProvider.updateRowCount(result.getTotalCount(), true);
+                dataProvider.updateRowData(range.getStart(), result.getDatasets());
+                if ( showWhenUpdated ) {
+                    showWhenUpdated = false;
+                    UploadDashboard.updateCurrentPage(DatasetListPage.this);
+                    History.newItem(PagesEnum.SHOW_DATASETS.name(), false);
+                }
+                UploadDashboard.showAutoCursor();
+            }
+
+            @Override
+            public void onFailure(Throwable ex) {
+                if ( requestNum != numListRequests )
+                    return;
+                showWhenUpdated = false;
+                setSelectionButtonsEnabled(isSelectionLoaded());
+                UploadDashboard.showFailureMessage(GET_DATASET_LIST_ERROR_MSG, ex);
+                UploadDashboard.showAutoCursor();
+            }
+        });
+    }
+
+    /**
+     * Updates the selected datasets to those with the given IDs.  The information already obtained for a selected
+     * dataset is kept, but is replaced by the information in the page of datasets shown.  The information about any
+     * remaining selected datasets, such as those selected by status, is then requested from the server.  The buttons
+     * acting on the selected datasets are disabled until the information about all the selected datasets has been
+     * obtained.  If the request fails, the datasets remain selected, without information, and the failure is
+     * reported; the information is requested again with the next page of the dataset list.
+     *
+     * @param selectedIds
+     *         IDs of the selected datasets in the dataset list
+     * @param pageDatasets
+     *         datasets in the page shown
+     */
+    private void updateSelectedDatasets(TreeSet<String> selectedIds, ArrayList<DashboardDataset> pageDatasets) {
+        selectedDatasets.keySet().retainAll(selectedIds);
+        for (String datasetId : selectedIds) {
+            if ( !selectedDatasets.containsKey(datasetId) )
+                selectedDatasets.put(datasetId, null);
+        }
+        for (DashboardDataset dataset : pageDatasets) {
+            if ( selectedDatasets.containsKey(dataset.getDatasetId()) )
+                selectedDatasets.put(dataset.getDatasetId(), dataset);
+        }
+        TreeSet<String> missingIds = new TreeSet<String>();
+        for (Entry<String,DashboardDataset> entry : selectedDatasets.entrySet()) {
+            if ( entry.getValue() == null )
+                missingIds.add(entry.getKey());
+        }
+        if ( missingIds.isEmpty() ) {
+            setSelectionButtonsEnabled(true);
+            return;
+        }
+        setSelectionButtonsEnabled(false);
+        final int requestNum = ++numSelectionRequests;
+        service.getUpdatedDatasets(getUsername(), missingIds, new AsyncCallback<DashboardDatasetList>() {
+            @Override
+            public void onSuccess(DashboardDatasetList datasets) {
+                // Ignore the response to a superseded request
+                if ( requestNum != numSelectionRequests )
+                    return;
+                TreeSet<String> notFoundIds = new TreeSet<String>();
+                for (Entry<String,DashboardDataset> entry : datasets.entrySet()) {
+                    // Ignore any dataset no longer selected
+                    if ( !selectedDatasets.containsKey(entry.getKey()) )
+                        continue;
+                    if ( entry.getValue() != null )
+                        selectedDatasets.put(entry.getKey(), entry.getValue());
+                    else
+                        notFoundIds.add(entry.getKey());
+                }
+                if ( !notFoundIds.isEmpty() ) {
+                    selectedDatasets.keySet().removeAll(notFoundIds);
+                    datasetsGrid.redraw();
+                    UploadDashboard.showMessage(SELECTED_DATASETS_NOT_FOUND_MSG_START +
+                            SafeHtmlUtils.htmlEscape(notFoundIds.toString()));
+                }
+                setSelectionButtonsEnabled(isSelectionLoaded());
+            }
+
+            @Override
+            public void onFailure(Throwable ex) {
+                if ( requestNum != numSelectionRequests )
+                    return;
+                UploadDashboard.showFailureMessage(GET_SELECTED_DATASETS_ERROR_MSG, ex);
+            }
+        });
+    }
+
+    /**
+     * @return if the information about all the selected datasets has been obtained from the server
+     */
+    private boolean isSelectionLoaded() {
+        for (DashboardDataset dataset : selectedDatasets.values()) {
+            if ( dataset == null )
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Enables or disables the buttons acting on the selected datasets.  These are disabled while the information
+     * about some of the selected datasets has not been obtained from the server, so an action is never performed
+     * on only part of the selection.
+     *
+     * @param enabled
+     *         enable the buttons?
+     */
+    private void setSelectionButtonsEnabled(boolean enabled) {
+        viewDataButton.setEnabled(enabled);
+        omeMetadataButton.setEnabled(enabled);
+        addlDocsButton.setEnabled(enabled);
+        reviewButton.setEnabled(enabled);
+        qcSubmitButton.setEnabled(enabled);
+        suspendDatasetButton.setEnabled(enabled);
+        hideDatasetButton.setEnabled(enabled);
+        changeOwnerButton.setEnabled(enabled);
+        deleteButton.setEnabled(enabled);
     }
 
     /**
@@ -482,49 +673,32 @@ public class DatasetListPage extends CompositeWithUsername {
         // Do nothing is SELECTION_OPTION_LABEL is given
         if ( SELECTION_OPTION_LABEL.equals(option) )
             return;
-        // Modify the dataset selection
-        List<DashboardDataset> providerList = listProvider.getList();
+        // Modify the dataset selection; the selection of datasets with a status is done by the server
         if ( ALL_SELECTION_OPTION.equals(option) ) {
-            for (DashboardDataset dataset : providerList) {
-                dataset.setSelected(true);
-            }
+            selectStatus = DatasetListQuery.STATUS_ANY;
         }
         else if ( EDITABLE_SELECTION_OPTION.equals(option) ) {
-            for (DashboardDataset dataset : providerList) {
-                if ( Boolean.TRUE.equals(dataset.isEditable()) )
-                    dataset.setSelected(true);
-                else
-                    dataset.setSelected(false);
-            }
+            selectStatus = DatasetListQuery.STATUS_EDITABLE;
         }
         else if ( SUBMITTED_SELECTION_OPTION.equals(option) ) {
-            for (DashboardDataset dataset : providerList) {
-                if ( Boolean.FALSE.equals(dataset.isEditable()) )
-                    dataset.setSelected(true);
-                else
-                    dataset.setSelected(false);
-            }
+            selectStatus = DatasetListQuery.STATUS_SUBMITTED;
         }
         else if ( PUBLISHED_SELECTION_OPTION.equals(option) ) {
-            for (DashboardDataset dataset : providerList) {
-                if ( null == dataset.isEditable() )
-                    dataset.setSelected(true);
-                else
-                    dataset.setSelected(false);
-            }
+            selectStatus = DatasetListQuery.STATUS_PUBLISHED;
         }
         else if ( CLEAR_SELECTION_OPTION.equals(option) ) {
-            for (DashboardDataset dataset : providerList) {
-                dataset.setSelected(false);
-            }
+            selectStatus = null;
+            selectedDatasets.clear();
+            // Ignore any outstanding request for the information about the selected datasets
+            numSelectionRequests++;
+            setSelectionButtonsEnabled(true);
+            datasetsGrid.redraw();
+            return;
         }
         else {
             throw new RuntimeException("Unexpected option given the setDatasetSelection: " + option);
         }
-        datasetsGrid.setRowCount(providerList.size());
-        datasetsGrid.setVisibleRange(0, providerList.size());
-        // Make sure the table is sorted according to the last specification
-        ColumnSortEvent.fire(datasetsGrid, datasetsGrid.getColumnSortList());
+        refreshDatasets();
     }
 
     /**
@@ -542,8 +716,10 @@ public class DatasetListPage extends CompositeWithUsername {
         datasetsSet.setUsername(getUsername());
         datasetsSet.setManager(isManager);
         datasetsSet.setImageExtension(imageExtension);
-        for (DashboardDataset dataset : listProvider.getList()) {
-            if ( dataset.isSelected() ) {
+        for (DashboardDataset dataset : selectedDatasets.values()) {
+            // Skip any selected dataset not yet obtained from the server; the buttons acting on
+            // the selected datasets are disabled until all the selected datasets are obtained
+            if ( dataset != null ) {
                 if ( onlyEditable != null ) {
                     Boolean editable = dataset.isEditable();
                     // check if from a previous version
@@ -1033,9 +1209,20 @@ public class DatasetListPage extends CompositeWithUsername {
         // Set the minimum width of the full table
         datasetsGrid.setMinimumTableWidth(minTableWidth, Style.Unit.EM);
 
-        // Create the data provider for this table
-        listProvider = new ListDataProvider<DashboardDataset>();
-        listProvider.addDataDisplay(datasetsGrid);
+        // Create the asynchronous data provider for this table
+        dataProvider = new AsyncDataProvider<DashboardDataset>() {
+            @Override
+            protected void onRangeChanged(HasData<DashboardDataset> display) {
+                // Ignore the call until the dataset list is requested
+                if ( !listRequested )
+                    return;
+                requestDatasets(display.getVisibleRange());
+            }
+        };
+        dataProvider.addDataDisplay(datasetsGrid);
+        // Assign the pager controlling which datasets are shown
+        datasetsGrid.setPageSize(DashboardUtils.MAX_ROWS_PER_GRID_PAGE);
+        gridPager.setDisplay(datasetsGrid);
 
         // Make the columns sortable
         expocodeColumn.setSortable(true);
@@ -1049,18 +1236,20 @@ public class DatasetListPage extends CompositeWithUsername {
         filenameColumn.setSortable(true);
         ownerColumn.setSortable(true);
 
-        // Add a column sorting handler for these columns
-        ListHandler<DashboardDataset> columnSortHandler = new ListHandler<DashboardDataset>(listProvider.getList());
-        columnSortHandler.setComparator(expocodeColumn, DashboardUtils.dataDatasetIdComparator);
-        columnSortHandler.setComparator(timestampColumn, DashboardUtils.dataTimestampComparator);
-        columnSortHandler.setComparator(dataCheckColumn, DashboardUtils.dataCheckComparator);
-        columnSortHandler.setComparator(omeMetadataColumn, DashboardUtils.omeTimestampComparator);
-        columnSortHandler.setComparator(addlDocsColumn, DashboardUtils.addlDocsComparator);
-        columnSortHandler.setComparator(versionColumn, DashboardUtils.versionComparator);
-        columnSortHandler.setComparator(qcStatusColumn, DashboardUtils.submitStatusComparator);
-        columnSortHandler.setComparator(archiveStatusColumn, DashboardUtils.archiveStatusComparator);
-        columnSortHandler.setComparator(filenameColumn, DashboardUtils.dataFilenameComparator);
-        columnSortHandler.setComparator(ownerColumn, DashboardUtils.dataOwnerComparator);
+        // Names of these columns used by the server for sorting
+        sortColumnNames.put(expocodeColumn, DatasetListQuery.SORT_DATASET_ID);
+        sortColumnNames.put(timestampColumn, DatasetListQuery.SORT_TIMESTAMP);
+        sortColumnNames.put(dataCheckColumn, DatasetListQuery.SORT_DATA_CHECK);
+        sortColumnNames.put(omeMetadataColumn, DatasetListQuery.SORT_OME_METADATA);
+        sortColumnNames.put(addlDocsColumn, DatasetListQuery.SORT_ADDL_DOCS);
+        sortColumnNames.put(versionColumn, DatasetListQuery.SORT_VERSION);
+        sortColumnNames.put(qcStatusColumn, DatasetListQuery.SORT_SUBMIT_STATUS);
+        sortColumnNames.put(archiveStatusColumn, DatasetListQuery.SORT_ARCHIVE_STATUS);
+        sortColumnNames.put(filenameColumn, DatasetListQuery.SORT_FILENAME);
+        sortColumnNames.put(ownerColumn, DatasetListQuery.SORT_OWNER);
+
+        // Sorting is done by the server, so a column sort just requests the datasets again
+        AsyncHandler columnSortHandler = new AsyncHandler(datasetsGrid);
 
         // Add the sort handler to the table, and set the default sort order
         datasetsGrid.addColumnSortHandler(columnSortHandler);
@@ -1082,22 +1271,14 @@ public class DatasetListPage extends CompositeWithUsername {
         TextColumn<DashboardDataset> rowNumColumn = new TextColumn<DashboardDataset>() {
             @Override
             public String getValue(DashboardDataset cruise) {
-                String expocode = cruise.getDatasetId();
-                List<DashboardDataset> cruiseList = listProvider.getList();
-                int k = 0;
-                while ( k < cruiseList.size() ) {
-                    // Only check datasetIds since they should be unique
-                    if ( expocode.equals(cruiseList.get(k).getDatasetId()) )
-                        break;
-                    k++;
-                }
-                return Integer.toString(k + 1);
+                // The row number comes from the context when rendered
+                return "";
             }
 
             @Override
             public void render(Cell.Context ctx, DashboardDataset cruise,
                     SafeHtmlBuilder sb) {
-                String msg = getValue(cruise);
+                String msg = Integer.toString(ctx.getIndex() + 1);
                 sb.appendHtmlConstant("<div style=\"color: " +
                         UploadDashboard.ROW_NUMBER_COLOR + ";\">");
                 for (int k = msg.length(); k < 4; k++) {
@@ -1146,17 +1327,17 @@ public class DatasetListPage extends CompositeWithUsername {
                 new Column<DashboardDataset,Boolean>(new CheckboxCell(true, true)) {
                     @Override
                     public Boolean getValue(DashboardDataset cruise) {
-                        return cruise.isSelected();
+                        return selectedDatasets.containsKey(cruise.getDatasetId());
                     }
                 };
         selectedColumn.setFieldUpdater(new FieldUpdater<DashboardDataset,Boolean>() {
             @Override
             public void update(int index, DashboardDataset cruise, Boolean value) {
                 if ( !value ) {
-                    cruise.setSelected(false);
+                    selectedDatasets.remove(cruise.getDatasetId());
                 }
                 else {
-                    cruise.setSelected(true);
+                    selectedDatasets.put(cruise.getDatasetId(), cruise);
                 }
             }
         });
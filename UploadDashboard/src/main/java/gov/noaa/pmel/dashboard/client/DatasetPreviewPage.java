@@ -13,6 +13,7 @@ import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.uibinder.client.UiHandler;
 import com.google.gwt.user.client.History;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.ui.Button;
 import com.google.gwt.user.client.ui.HTML;
@@ -47,6 +48,9 @@ public class DatasetPreviewPage extends CompositeWithUsername {
 
     private static final String PLOT_GENERATION_FAILURE_HTML = "<b>Problems generating the plot previews</b>";
 
+    // Milliseconds between inquiries about the plots being generated
+    private static final int PLOT_STATUS_POLL_MILLIS = 2000;
+
     private static final String LAT_VS_LON_TAB_TEXT = "lat vs lon";
     private static final String LAT_LON_TAB_TEXT = "lat, lon";
     private static final String SAMPLE_VS_TIME_TAB_TEXT = "sample num vs time";
@@ -212,9 +216,15 @@ public class DatasetPreviewPage extends CompositeWithUsername {
                     // Refresh this page to get the new image(s)
                     singleton.resetImageUrls();
                     if ( !isDone ) {
-                        // More images to be generated - inquire again
-                        service.buildPreviewImages(getUsername(), singleton.expocode,
-                                singleton.timetag, false, checkStatusCallback);
+                        // More images to be generated - inquire again after a short wait
+                        new Timer() {
+                            @Override
+                            public void run() {
+                                if ( UploadDashboard.isCurrentPage(singleton) )
+                                    service.buildPreviewImages(getUsername(), singleton.expocode,
+                                            singleton.timetag, false, checkStatusCallback);
+                            }
+                        }.schedule(PLOT_STATUS_POLL_MILLIS);
                     }
                 }
             }
@@ -8,6 +8,7 @@ import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.uibinder.client.UiHandler;
 import com.google.gwt.user.client.History;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.ui.Anchor;
 import com.google.gwt.user.client.ui.Button;
@@ -23,9 +24,11 @@ import gov.noaa.pmel.dashboard.shared.DashboardServicesInterface;
 import gov.noaa.pmel.dashboard.shared.DashboardServicesInterfaceAsync;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DatasetQCStatus;
+import gov.noaa.pmel.dashboard.shared.SubmitJobStatus;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Map;
 import java.util.TreeSet;
 
 /**
@@ -129,6 +132,17 @@ public class SubmitForQCPage extends CompositeWithUsername {
     private static final String SUBMIT_FAILURE_MSG =
             "Unexpected failure with submitting datasets for QC: ";
 
+    private static final String SUBMIT_PROGRESS_PROLOGUE =
+            "Submitting datasets (";
+    private static final String SUBMIT_PROGRESS_MIDDLE =
+            " finished): <ul>";
+
+    private static final String SUBMIT_PROBLEMS_MSG =
+            "Problems were encountered submitting datasets for QC: ";
+
+    // Milliseconds between requests for the progress of a submit job
+    private static final int SUBMIT_STATUS_POLL_MILLIS = 2000;
+
     private static final String SUBMIT_TEXT = "OK";
     private static final String CANCEL_TEXT = "Cancel";
 
@@ -480,15 +494,14 @@ public class SubmitForQCPage extends CompositeWithUsername {
         }
 
         boolean repeatSend = true;
-        // Submit the dataset
+        // Queue the datasets for submission
         UploadDashboard.showWaitCursor();
         service.submitDatasetsForQC(getUsername(), expocodes, archiveStatus,
-                localTimestamp, repeatSend, new AsyncCallback<Void>() {
+                localTimestamp, repeatSend, new AsyncCallback<String>() {
                     @Override
-                    public void onSuccess(Void result) {
-                        // Success - go back to the cruise list page
-                        DatasetListPage.showPage();
-                        UploadDashboard.showAutoCursor();
+                    public void onSuccess(String jobId) {
+                        // Queued - follow the progress of the submission
+                        checkSubmitProgress(jobId);
                     }
 
                     @Override
@@ -502,4 +515,59 @@ public class SubmitForQCPage extends CompositeWithUsername {
                 });
     }
 
+    /**
+     * Requests the progress of a submit job and shows it on this page.  Requests are repeated until the job has
+     * finished, at which time the datasets list page is shown.  Requests stop if this page is no longer shown;
+     * the submission continues on the server.
+     *
+     * @param jobId
+     *         ID of the submit job
+     */
+    void checkSubmitProgress(final String jobId) {
+        service.getSubmitJobStatus(getUsername(), jobId, new AsyncCallback<SubmitJobStatus>() {
+            @Override
+            public void onSuccess(SubmitJobStatus status) {
+                if ( !UploadDashboard.isCurrentPage(singleton) ) {
+                    UploadDashboard.showAutoCursor();
+                    return;
+                }
+                if ( !status.isFinished() ) {
+                    String progressMsg = SUBMIT_PROGRESS_PROLOGUE + status.getNumFinishedDatasets() + " of " +
+                            status.getDatasetStages().size() + SUBMIT_PROGRESS_MIDDLE;
+                    for (Map.Entry<String,String> entry : status.getDatasetStages().entrySet()) {
+                        progressMsg += "<li>" + SafeHtmlUtils.htmlEscape(entry.getKey()) + CRUISE_INFO_PROLOGUE +
+                                SafeHtmlUtils.htmlEscape(entry.getValue()) + CRUISE_INFO_EPILOGUE + "</li>";
+                    }
+                    progressMsg += INTRO_HTML_EPILOGUE;
+                    introHtml.setHTML(progressMsg);
+                    new Timer() {
+                        @Override
+                        public void run() {
+                            checkSubmitProgress(jobId);
+                        }
+                    }.schedule(SUBMIT_STATUS_POLL_MILLIS);
+                    return;
+                }
+                if ( !status.getMessages().isEmpty() ) {
+                    String problemsMsg = SUBMIT_PROBLEMS_MSG + "<br /><pre>";
+                    for (String msg : status.getMessages()) {
+                        problemsMsg += SafeHtmlUtils.htmlEscape(msg) + "\n";
+                    }
+                    problemsMsg += "</pre>";
+                    UploadDashboard.showMessage(problemsMsg);
+                }
+                // Go back to the cruise list page
+                DatasetListPage.showPage();
+                UploadDashboard.showAutoCursor();
+            }
+
+            @Override
+            public void onFailure(Throwable ex) {
+                UploadDashboard.showFailureMessage(SUBMIT_FAILURE_MSG, ex);
+                DatasetListPage.showPage();
+                UploadDashboard.showAutoCursor();
+            }
+        });
+    }
+
 }
@@ -51,6 +51,17 @@ public abstract class DashDataType<T extends Comparable<T>> implements Comparabl
         FILE_DATA
     }
 
+    /**
+     * Bound, if any, exceeded by a standard value of a data type
+     */
+    public enum BoundExceeded {
+        NONE,
+        UNREASONABLY_SMALL,
+        UNREASONABLY_LARGE,
+        QUESTIONABLY_SMALL,
+        QUESTIONABLY_LARGE
+    }
+
     protected String varName;
     protected Double sortOrder;
     protected String displayName;
@@ -240,6 +251,31 @@ public abstract class DashDataType<T extends Comparable<T>> implements Comparabl
         }
     }
 
+    /**
+     * Determines which bound, if any, is exceeded by the given standard value of this data type.
+     * Bounds are checked in the same order as in {@link #boundsCheckStandardValue(Comparable)},
+     * but no message is created, so this can be used to cheaply compare the results for different values.
+     *
+     * @param stdVal
+     *         standard value to check
+     *
+     * @return {@link BoundExceeded#NONE} if the given value is null (missing) or within the acceptable range;
+     *         otherwise, the bound exceeded by the value
+     */
+    public BoundExceeded boundExceeded(T stdVal) {
+        if ( stdVal == null )
+            return BoundExceeded.NONE;
+        if ( (minQuestionVal != null) && (minQuestionVal.compareTo(stdVal) > 0) )
+            return BoundExceeded.UNREASONABLY_SMALL;
+        if ( (maxQuestionVal != null) && (maxQuestionVal.compareTo(stdVal) < 0) )
+            return BoundExceeded.UNREASONABLY_LARGE;
+        if ( (minAcceptVal != null) && (minAcceptVal.compareTo(stdVal) > 0) )
+            return BoundExceeded.QUESTIONABLY_SMALL;
+        if ( (maxAcceptVal != null) && (maxAcceptVal.compareTo(stdVal) < 0) )
+            return BoundExceeded.QUESTIONABLY_LARGE;
+        return BoundExceeded.NONE;
+    }
+
     /**
      * Perform bounds checking on the given standard value of this data type.
      *
@@ -250,56 +286,52 @@ public abstract class DashDataType<T extends Comparable<T>> implements Comparabl
      *         the severity and describing the problem (both general comment and detailed comments are assigned).
      */
     public ADCMessage boundsCheckStandardValue(T stdVal) {
-        // If the value is missing, make no comment
-        if ( stdVal == null )
-            return null;
-        // Check if unreasonable small
-        if ( (minQuestionVal != null) && (minQuestionVal.compareTo(stdVal) > 0) ) {
-            ADCMessage msg = new ADCMessage();
-            if ( isCritical )
-                msg.setSeverity(Severity.CRITICAL);
-            else
-                msg.setSeverity(Severity.ERROR);
-            msg.setGeneralComment(displayName +
-                    UNREASONABLY_SMALL_MSG + minQuestionVal.toString());
-            msg.setDetailedComment(displayName + " value of " + stdVal.toString() +
-                    UNREASONABLY_SMALL_MSG + minQuestionVal.toString());
-            return msg;
-        }
-        // Check if unreasonably large
-        if ( (maxQuestionVal != null) && (maxQuestionVal.compareTo(stdVal) < 0) ) {
-            ADCMessage msg = new ADCMessage();
-            if ( isCritical )
-                msg.setSeverity(Severity.CRITICAL);
-            else
-                msg.setSeverity(Severity.ERROR);
-            msg.setGeneralComment(displayName +
-                    UNREASONABLY_LARGE_MSG + maxQuestionVal.toString());
-            msg.setDetailedComment(displayName + " value of " + stdVal.toString() +
-                    UNREASONABLY_LARGE_MSG + maxQuestionVal.toString());
-            return msg;
-        }
-        // Check if questionably small
-        if ( (minAcceptVal != null) && (minAcceptVal.compareTo(stdVal) > 0) ) {
-            ADCMessage msg = new ADCMessage();
-            msg.setSeverity(Severity.WARNING);
-            msg.setGeneralComment(displayName +
-                    QUESTIONABLY_SMALL_MSG + minAcceptVal.toString());
-            msg.setDetailedComment(displayName + " value of " + stdVal.toString() +
-                    QUESTIONABLY_SMALL_MSG + minAcceptVal.toString());
-            return msg;
+        ADCMessage msg;
+        switch ( boundExceeded(stdVal) ) {
+            case NONE:
+                // If the value is missing or acceptable, make no comment
+                return null;
+            case UNREASONABLY_SMALL:
+                msg = new ADCMessage();
+                if ( isCritical )
+                    msg.setSeverity(Severity.CRITICAL);
+                else
+                    msg.setSeverity(Severity.ERROR);
+                msg.setGeneralComment(displayName +
+                        UNREASONABLY_SMALL_MSG + minQuestionVal.toString());
+                msg.setDetailedComment(displayName + " value of " + stdVal.toString() +
+                        UNREASONABLY_SMALL_MSG + minQuestionVal.toString());
+                return msg;
+            case UNREASONABLY_LARGE:
+                msg = new ADCMessage();
+                if ( isCritical )
+                    msg.setSeverity(Severity.CRITICAL);
+                else
+                    msg.setSeverity(Severity.ERROR);
+                msg.setGeneralComment(displayName +
+                        UNREASONABLY_LARGE_MSG + maxQuestionVal.toString());
+                msg.setDetailedComment(displayName + " value of " + stdVal.toString() +
+                        UNREASONABLY_LARGE_MSG + maxQuestionVal.toString());
+                return msg;
+            case QUESTIONABLY_SMALL:
+                msg = new ADCMessage();
+                msg.setSeverity(Severity.WARNING);
+                msg.setGeneralComment(displayName +
+                        QUESTIONABLY_SMALL_MSG + minAcceptVal.toString());
+                msg.setDetailedComment(displayName + " value of " + stdVal.toString() +
+                        QUESTIONABLY_SMALL_MSG + minAcceptVal.toString());
+                return msg;
+            case QUESTIONABLY_LARGE:
+                msg = new ADCMessage();
+                msg.setSeverity(Severity.WARNING);
+                msg.setGeneralComment(displayName +
+                        QUESTIONABLY_LARGE_MSG + maxAcceptVal.toString());
+                msg.setDetailedComment(displayName + " value of " + stdVal.toString() +
+                        QUESTIONABLY_LARGE_MSG + maxAcceptVal.toString());
+                return msg;
+            default:
+                throw new RuntimeException("unexpected bound exceeded");
         }
-        // Check if questionably large
-        if ( (maxAcceptVal != null) && (maxAcceptVal.compareTo(stdVal) < 0) ) {
-            ADCMessage msg = new ADCMessage();
-            msg.setSeverity(Severity.WARNING);
-            msg.setGeneralComment(displayName +
-                    QUESTIONABLY_LARGE_MSG + maxAcceptVal.toString());
-            msg.setDetailedComment(displayName + " value of " + stdVal.toString() +
-                    QUESTIONABLY_LARGE_MSG + maxAcceptVal.toString());
-            return msg;
-        }
-        return null;
     }
 
     /**
@@ -391,6 +423,14 @@ public abstract class DashDataType<T extends Comparable<T>> implements Comparabl
         return roles.contains(role);
     }
 
+    /**
+     * @return the minimum value below which is considered bad;
+     *         may be null if there is no lower limit on acceptable or questionable values
+     */
+    public T getMinMaybeValue() {
+        return minQuestionVal;
+    }
+
     /**
      * @return the maximum value that is still considered an acceptable value;
      *         may be null if there is no upper limit on acceptable values
@@ -185,9 +185,33 @@ public class IntDashDataType extends DashDataType<Integer> {
             @Override
             public Integer convertValueOf(String valueString)
                     throws IllegalArgumentException, IllegalStateException {
-                if ( isMissingValue(valueString, true) )
+                int value = convertIntOf(valueString);
+                if ( value == MISSING_INT_VALUE )
                     return null;
-                return dataValueOf(valueString);
+                return value;
+            }
+
+            @Override
+            public int convertIntOf(CharSequence valueString)
+                    throws IllegalArgumentException, IllegalStateException {
+                int start = trimStart(valueString);
+                int end = trimEnd(valueString, start);
+                if ( isMissingString(valueString, start, end) )
+                    return MISSING_INT_VALUE;
+                int value;
+                try {
+                    value = NumberParser.parseInt(valueString, start, end);
+                } catch ( NumberFormatException ex ) {
+                    // Default missing numbers include values that are not integers
+                    if ( isMissingValue(valueString, true) )
+                        return MISSING_INT_VALUE;
+                    throw new IllegalArgumentException("not an integer value");
+                }
+                if ( isMissingNumber(value) )
+                    return MISSING_INT_VALUE;
+                if ( value == MISSING_INT_VALUE )
+                    throw new IllegalArgumentException("not an integer value");
+                return value;
             }
         };
 
@@ -7,6 +7,7 @@ import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import gov.noaa.pmel.dashboard.shared.DataColumnType;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Properties;
 import java.util.TreeSet;
@@ -252,6 +253,25 @@ public class KnownDataTypes {
         return knownTypes.containsKey(DashboardServerUtils.getKeyForName(typeName));
     }
 
+    /**
+     * Adds the given data types to this collection of known data types.
+     *
+     * @param dtypes
+     *         new data types to add to the known list;
+     *         the given instances are added to the internal collection of known data types.
+     *
+     * @return this instance (as a convenience for chaining)
+     *
+     * @throws IllegalArgumentException
+     *         if the display name of a given type matches the display name of another type in the set
+     */
+    public KnownDataTypes addDataTypes(Collection<DashDataType<?>> dtypes) throws IllegalArgumentException {
+        for (DashDataType<?> dtype : dtypes) {
+            addDataType(dtype);
+        }
+        return this;
+    }
+
     /**
      * Returns a new data type matching the variable or display name.
      *
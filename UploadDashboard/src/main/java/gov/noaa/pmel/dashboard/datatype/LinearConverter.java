@@ -133,19 +133,36 @@ public class LinearConverter extends ValueConverter<Double> {
     @Override
     public Double convertValueOf(String valueString)
             throws IllegalArgumentException, IllegalStateException {
+        double dataVal = convertDoubleOf(valueString);
+        if ( Double.isNaN(dataVal) )
+            return null;
+        return dataVal;
+    }
+
+    /**
+     * Converts the string representation of a floating-point value, parsing the characters only once for both the
+     * missing value check and the value.
+     */
+    @Override
+    public double convertDoubleOf(CharSequence valueString)
+            throws IllegalArgumentException, IllegalStateException {
         if ( (slope == null) || (intercept == null) )
             throw new IllegalArgumentException("conversion from \"" +
                     fromUnit + "\" to \"" + toUnit + "\" is not supported");
-        if ( isMissingValue(valueString, true) )
-            return null;
-        Double dataVal;
+        int start = trimStart(valueString);
+        int end = trimEnd(valueString, start);
+        if ( isMissingString(valueString, start, end) )
+            return Double.NaN;
+        double dataVal;
         try {
-            dataVal = Double.valueOf(valueString);
+            dataVal = NumberParser.parseDouble(valueString, start, end);
         } catch ( NumberFormatException ex ) {
             dataVal = Double.NaN;
         }
-        if ( dataVal.isNaN() || dataVal.isInfinite() )
+        if ( Double.isNaN(dataVal) || Double.isInfinite(dataVal) )
             throw new IllegalArgumentException("not a valid floating-point value");
+        if ( isMissingNumber(dataVal) )
+            return Double.NaN;
         dataVal *= slope;
         dataVal += intercept;
         return dataVal;
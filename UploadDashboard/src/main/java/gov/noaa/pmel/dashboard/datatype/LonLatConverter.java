@@ -1,11 +1,8 @@
 package gov.noaa.pmel.dashboard.datatype;
 
 import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
-import gov.noaa.pmel.dashboard.shared.ADCMessage;
-import gov.noaa.pmel.dashboard.shared.DataQCFlag;
 
 import java.util.TreeSet;
-import java.util.regex.Pattern;
 
 /**
  * For converting degree, degree-minute, and degree-minute-second string values to decimal degree values.
@@ -39,112 +36,291 @@ public class LonLatConverter extends ValueConverter<Double> {
         SUPPORTED_FROM_UNITS.add("from \"DD.MMSSss S\" to \"deg N\"");
     }
 
-    private static final Pattern DEG_MIN_SPLIT_PATTERN = Pattern.compile("[ " + DEGREE_SYMBOL + "',]+");
-    private static final Pattern DEG_MIN_SEC_SPLIT_PATTERN = Pattern.compile("[ " + DEGREE_SYMBOL + "'\",]+");
+    private static final String DEG_MIN_SEPARATORS = " " + DEGREE_SYMBOL + "',";
+    private static final String DEG_MIN_SEC_SEPARATORS = " " + DEGREE_SYMBOL + "'\",";
+    // decimal digits of the seconds in a DDD.MMSSss value computed exactly from the digits
+    private static final int MAX_SECONDS_DECIMALS = 13;
 
+    /**
+     * Formats of the input values; each with the message for values not in the format
+     */
+    private enum Format {
+        DEGREES("not a floating point value"),
+        DEG_MIN("not a degree minute value"),
+        DEG_MIN_SEC("not a degree minute second value"),
+        DDD_MMSS("not a DDD.MMSSss value");
+
+        private final String errMsg;
+
+        Format(String errMsg) {
+            this.errMsg = errMsg;
+        }
+    }
+
+    private final Format format;
+    private final boolean negate;
+    private final boolean isLongitude;
+    private final double minWrapLongitude;
+    private final double maxWrapLongitude;
+
+    /**
+     * Converts longitude or latitude string values to decimal degrees.  The format of the input values, whether the
+     * values are negated, and whether the values are longitudes are all determined here once for all values.
+     *
+     * @param inputUnit
+     *         format and direction of the input values, such as "deg min W"
+     * @param outputUnit
+     *         "deg E" for longitudes or "deg N" for latitudes
+     * @param missingValue
+     *         missing value string, or null for default missing values
+     *
+     * @throws IllegalArgumentException
+     *         if the conversion is not supported
+     * @throws IllegalStateException
+     *         never thrown
+     */
     public LonLatConverter(String inputUnit, String outputUnit, String missingValue)
             throws IllegalArgumentException, IllegalStateException {
         super(inputUnit, outputUnit, missingValue);
         String key = "from \"" + fromUnit + "\" to \"" + toUnit + "\"";
         if ( !SUPPORTED_FROM_UNITS.contains(key) )
             throw new IllegalArgumentException("conversion " + key + " not supported");
+        // Given value can be given in decimal degrees, or
+        // degrees and decimal minutes, or
+        // degrees, minutes, and decimal seconds, or
+        // as the DDD.MMSSsss floating point value.
+        String lowerUnit = fromUnit.toLowerCase();
+        if ( lowerUnit.startsWith("deg min sec ") )
+            format = Format.DEG_MIN_SEC;
+        else if ( lowerUnit.startsWith("deg min ") )
+            format = Format.DEG_MIN;
+        else if ( lowerUnit.startsWith("deg ") )
+            format = Format.DEGREES;
+        else
+            format = Format.DDD_MMSS;
+        negate = lowerUnit.endsWith("w") || lowerUnit.endsWith("s");
+        isLongitude = toUnit.endsWith("E") || toUnit.endsWith("e");
+        // Longitudes that are not outrageous values are converted to (-180,180]
+        Double minVal = DashboardServerUtils.LONGITUDE.getMinMaybeValue();
+        Double maxVal = DashboardServerUtils.LONGITUDE.getMaxMaybeValue();
+        minWrapLongitude = (minVal != null) ? minVal : Double.NEGATIVE_INFINITY;
+        maxWrapLongitude = (maxVal != null) ? maxVal : Double.POSITIVE_INFINITY;
     }
 
     @Override
     public Double convertValueOf(String valueString) throws IllegalArgumentException, IllegalStateException {
-        // Deal with missing values
-        if ( isMissingValue(valueString, true) )
+        double value = convertDoubleOf(valueString);
+        if ( Double.isNaN(value) )
             return null;
-        // Make sure nothing unexpected was added
-        if ( !("deg E".equalsIgnoreCase(toUnit) || "deg N".equalsIgnoreCase(toUnit)) )
-            throw new IllegalArgumentException("conversion to \"" + toUnit + "\" is not supported");
-        // Given value can be given in decimal degrees, or
-        // degrees and decimal minutes, or
-        // degrees, minutes, and decimal seconds, or
-        // as the DDD.MMSSsss floating point value.
-        Double value;
-        if ( "deg E".equalsIgnoreCase(fromUnit) || "deg W".equalsIgnoreCase(fromUnit) ||
-                "deg N".equalsIgnoreCase(fromUnit) || "deg S".equalsIgnoreCase(fromUnit) ) {
-            try {
-                value = Double.valueOf(valueString);
-            } catch ( Exception ex ) {
-                throw new IllegalArgumentException("not a floating point value");
+        return value;
+    }
+
+    /**
+     * Converts the string representation of a longitude or latitude, parsing the characters directly without
+     * regular expressions or intermediate strings.  A value that parses to NaN is not a valid value.
+     */
+    @Override
+    public double convertDoubleOf(CharSequence valueString) throws IllegalArgumentException, IllegalStateException {
+        int start = trimStart(valueString);
+        int end = trimEnd(valueString, start);
+        // Deal with missing values
+        if ( isMissingString(valueString, start, end) )
+            return Double.NaN;
+        double value;
+        // starting and ending indices of the degree, minute, and second parts, and of one extra part
+        int[] partBounds = new int[8];
+        try {
+            switch ( format ) {
+                case DEGREES:
+                    value = NumberParser.parseDouble(valueString, start, end);
+                    if ( isMissingNumber(value) )
+                        return Double.NaN;
+                    break;
+                case DEG_MIN:
+                    if ( splitParts(valueString, DEG_MIN_SEPARATORS, partBounds) != 2 )
+                        throw new NumberFormatException();
+                    value = NumberParser.parseDouble(valueString, partBounds[0], partBounds[1]);
+                    value += (NumberParser.parseDouble(valueString, partBounds[2], partBounds[3]) / 60.0);
+                    break;
+                case DEG_MIN_SEC:
+                    if ( splitParts(valueString, DEG_MIN_SEC_SEPARATORS, partBounds) != 3 )
+                        throw new NumberFormatException();
+                    value = NumberParser.parseDouble(valueString, partBounds[0], partBounds[1]);
+                    value += (NumberParser.parseDouble(valueString, partBounds[2], partBounds[3]) / 60.0);
+                    value += (NumberParser.parseDouble(valueString, partBounds[4], partBounds[5]) / 3600.0);
+                    break;
+                default:
+                    // Just verify the string is in the appropriate format - that of a floating-point value
+                    // which happens to be the value only if minutes and seconds are not specified
+                    value = NumberParser.parseDouble(valueString, start, end);
+                    if ( isMissingNumber(value) )
+                        return Double.NaN;
+                    value = parseDddMmss(valueString, value);
+                    break;
+            }
+        } catch ( Exception ex ) {
+            // Default missing numbers are not in a degree minute (second) format
+            if ( isMissingValue(valueString, true) )
+                return Double.NaN;
+            throw new IllegalArgumentException(format.errMsg);
+        }
+        if ( Double.isNaN(value) )
+            throw new IllegalArgumentException(format.errMsg);
+        // check if it needs to be negated
+        if ( negate )
+            value *= -1.0;
+        // if longitude, if not an outrageous value, convert to (-180,180]
+        if ( isLongitude && (value >= minWrapLongitude) && (value <= maxWrapLongitude) ) {
+            while ( value <= -180.0 ) {
+                value += 360.0;
+            }
+            while ( value > 180.0 ) {
+                value -= 360.0;
             }
         }
-        else if ( "deg min E".equalsIgnoreCase(fromUnit) || "deg min W".equalsIgnoreCase(fromUnit) ||
-                "deg min N".equalsIgnoreCase(fromUnit) || "deg min S".equalsIgnoreCase(fromUnit) ) {
-            try {
-                String[] parts = DEG_MIN_SPLIT_PATTERN.split(valueString, 0);
-                if ( parts.length != 2 )
-                    throw new Exception();
-                value = Double.valueOf(parts[0]);
-                value += (Double.valueOf(parts[1]) / 60.0);
-            } catch ( Exception ex ) {
-                throw new IllegalArgumentException("not a degree minute value");
+        return value;
+    }
+
+    /**
+     * Finds the parts of a string separated by runs of separator characters, as done by
+     * {@link java.util.regex.Pattern#split(CharSequence)} with a pattern matching one or more of the separator
+     * characters.  A leading separator gives an empty first part and trailing separators are ignored.
+     *
+     * @param chars
+     *         characters to split
+     * @param separators
+     *         separator characters
+     * @param partBounds
+     *         assigned the starting and ending indices of the parts
+     *
+     * @return the number of parts; the bounds of parts that do not fit in partBounds are not assigned
+     */
+    private static int splitParts(CharSequence chars, String separators, int[] partBounds) {
+        int len = chars.length();
+        int numParts = 0;
+        int partStart = 0;
+        while ( true ) {
+            int partEnd = partStart;
+            while ( (partEnd < len) && (separators.indexOf(chars.charAt(partEnd)) < 0) ) {
+                partEnd++;
+            }
+            if ( 2 * numParts < partBounds.length ) {
+                partBounds[2 * numParts] = partStart;
+                partBounds[2 * numParts + 1] = partEnd;
+            }
+            numParts++;
+            if ( partEnd == len )
+                break;
+            partStart = partEnd;
+            while ( (partStart < len) && (separators.indexOf(chars.charAt(partStart)) >= 0) ) {
+                partStart++;
             }
         }
-        else if ( "deg min sec E".equalsIgnoreCase(fromUnit) || "deg min sec W".equalsIgnoreCase(fromUnit) ||
-                "deg min sec N".equalsIgnoreCase(fromUnit) || "deg min sec S".equalsIgnoreCase(fromUnit) ) {
-            try {
-                String[] parts = DEG_MIN_SEC_SPLIT_PATTERN.split(valueString, 0);
-                if ( parts.length != 3 )
-                    throw new Exception();
-                value = Double.valueOf(parts[0]);
-                value += (Double.valueOf(parts[1]) / 60.0);
-                value += (Double.valueOf(parts[2]) / 3600.0);
-            } catch ( Exception ex ) {
-                throw new IllegalArgumentException("not a degree minute second value");
+        // Remove trailing empty parts; only the first and last parts can be empty
+        while ( (numParts > 0) && (2 * numParts <= partBounds.length) &&
+                (partBounds[2 * numParts - 2] == partBounds[2 * numParts - 1]) ) {
+            numParts--;
+        }
+        return numParts;
+    }
+
+    /**
+     * Interprets a DDD.MMSSss value, where the first two digits after the decimal point are the minutes, the next
+     * two digits are the seconds, and any further digits are the decimal part of the seconds.  Missing digits of the
+     * minutes and seconds are zeros.  Values with only digits after the decimal point are computed from the digits;
+     * anything else is interpreted using strings.
+     *
+     * @param chars
+     *         characters containing the value
+     * @param value
+     *         the floating-point value of the characters
+     *
+     * @return the value in decimal degrees
+     *
+     * @throws NumberFormatException
+     *         if the value is not a valid DDD.MMSSss value
+     */
+    private static double parseDddMmss(CharSequence chars, double value) throws NumberFormatException {
+        int len = chars.length();
+        int dot = -1;
+        for (int k = 0; k < len; k++) {
+            if ( chars.charAt(k) == '.' ) {
+                dot = k;
+                break;
             }
         }
-        else if ( "DDD.MMSSss E".equalsIgnoreCase(fromUnit) || "DD.MMSSss N".equalsIgnoreCase(fromUnit) ||
-                "DDD.MMSSss W".equalsIgnoreCase(fromUnit) || "DD.MMSSss S".equalsIgnoreCase(fromUnit) ) {
-            try {
-                // Just verify the string is in the appropriate format - that of a floating-point value
-                // which happens to be the value only if minutes and seconds are not specified
-                value = Double.valueOf(valueString);
-                int dot = valueString.indexOf('.');
-                if ( (dot >= 0) && (dot + 1 < valueString.length()) ) {
-                    // Append zeros just to make it easier to deal with partial specification
-                    String expanded = valueString + "0000000";
-                    if ( dot > 0 )
-                        value = Double.valueOf(valueString.substring(0, dot));
-                    else
-                        value = 0.0;
-                    double minval = Double.valueOf(expanded.substring(dot + 1, dot + 3));
-                    double secval = Double.valueOf(expanded.substring(dot + 3, dot + 5) +
-                            "." + expanded.substring(dot + 5));
-                    if ( value < 0.0 ) {
-                        value -= minval / 60.0;
-                        value -= secval / 3600.0;
-                    }
-                    else {
-                        value += minval / 60.0;
-                        value += secval / 3600.0;
-                    }
-                }
-            } catch ( Exception ex ) {
-                throw new IllegalArgumentException("not a DDD.MMSSss value");
+        if ( (dot < 0) || (dot + 1 >= len) )
+            return value;
+        int minval = 0;
+        long secDigits = 0L;
+        for (int k = dot + 1; k < dot + 5; k++) {
+            int digit = 0;
+            if ( k < len ) {
+                char c = chars.charAt(k);
+                if ( (c < '0') || (c > '9') )
+                    return parseDddMmss(chars.toString(), dot);
+                digit = c - '0';
             }
+            if ( k < dot + 3 )
+                minval = 10 * minval + digit;
+            else
+                secDigits = 10L * secDigits + digit;
+        }
+        int numSecDecimals = 0;
+        for (int k = dot + 5; k < len; k++) {
+            char c = chars.charAt(k);
+            if ( (c < '0') || (c > '9') || (numSecDecimals >= MAX_SECONDS_DECIMALS) )
+                return parseDddMmss(chars.toString(), dot);
+            secDigits = 10L * secDigits + (c - '0');
+            numSecDecimals++;
+        }
+        double secval = NumberParser.exactDecimalValue(secDigits, numSecDecimals);
+        if ( dot > 0 )
+            value = NumberParser.parseDouble(chars, 0, dot);
+        else
+            value = 0.0;
+        if ( value < 0.0 ) {
+            value -= minval / 60.0;
+            value -= secval / 3600.0;
         }
         else {
-            throw new IllegalArgumentException("conversion from \"" + fromUnit + "\" is not supported");
+            value += minval / 60.0;
+            value += secval / 3600.0;
         }
-        // check if it needs to be negated
-        if ( fromUnit.endsWith("W") || fromUnit.endsWith("S") || fromUnit.endsWith("w") || fromUnit.endsWith("s") ) {
-            if ( value != null )
-                value *= -1.0;
+        return value;
+    }
+
+    /**
+     * Interprets a DDD.MMSSss value with digits after the decimal point using strings.
+     *
+     * @param valueString
+     *         the DDD.MMSSss value
+     * @param dot
+     *         index of the decimal point in the value
+     *
+     * @return the value in decimal degrees
+     *
+     * @throws NumberFormatException
+     *         if the value is not a valid DDD.MMSSss value
+     */
+    private static double parseDddMmss(String valueString, int dot) throws NumberFormatException {
+        // Append zeros just to make it easier to deal with partial specification
+        String expanded = valueString + "0000000";
+        double value;
+        if ( dot > 0 )
+            value = Double.parseDouble(valueString.substring(0, dot));
+        else
+            value = 0.0;
+        double minval = Double.parseDouble(expanded.substring(dot + 1, dot + 3));
+        double secval = Double.parseDouble(expanded.substring(dot + 3, dot + 5) +
+                "." + expanded.substring(dot + 5));
+        if ( value < 0.0 ) {
+            value -= minval / 60.0;
+            value -= secval / 3600.0;
         }
-        // if longitude, if not an outrageous value, convert to (-180,180]
-        if ( toUnit.endsWith("E") || toUnit.endsWith("e") ) {
-            ADCMessage msg = DashboardServerUtils.LONGITUDE.boundsCheckStandardValue(value);
-            if ( (msg == null) || msg.getSeverity().equals(DataQCFlag.Severity.WARNING) ) {
-                while ( value <= -180.0 ) {
-                    value += 360.0;
-                }
-                while ( value > 180.0 ) {
-                    value -= 360.0;
-                }
-            }
+        else {
+            value += minval / 60.0;
+            value += secval / 3600.0;
         }
         return value;
     }
@@ -0,0 +1,167 @@
+package gov.noaa.pmel.dashboard.datatype;
+
+/**
+ * Parses integer and floating-point values directly from regions of characters, without creating intermediate
+ * strings for the common case of plain decimal values.  The results are the same as those from
+ * {@link Integer#valueOf(String)} and {@link Double#valueOf(String)} of the region.
+ */
+public final class NumberParser {
+
+    /**
+     * Powers of ten that are exactly represented as doubles
+     */
+    private static final double[] EXACT_POWERS_OF_TEN = new double[] {
+            1.0E0, 1.0E1, 1.0E2, 1.0E3, 1.0E4, 1.0E5, 1.0E6, 1.0E7, 1.0E8, 1.0E9, 1.0E10, 1.0E11,
+            1.0E12, 1.0E13, 1.0E14, 1.0E15, 1.0E16, 1.0E17, 1.0E18, 1.0E19, 1.0E20, 1.0E21, 1.0E22
+    };
+    /**
+     * Maximum number of significant digits whose integer value is always exactly represented as a double
+     */
+    private static final int MAX_EXACT_DIGITS = 15;
+    /**
+     * Integers below this value are always exactly represented as a double
+     */
+    private static final long MAX_EXACT_LONG = 1L << 53;
+
+    /**
+     * Only static methods
+     */
+    private NumberParser() {
+    }
+
+    /**
+     * Parses a floating-point value from a region of characters with the same result as {@link Double#valueOf(String)}
+     * of the region.  Plain decimal values (an optional sign, digits, and an optional decimal point followed by
+     * digits) with no more than fifteen significant digits are computed directly from the digits using
+     * {@link #exactDecimalValue(long, int)}.  Any other representation is parsed by
+     * {@link Double#parseDouble(String)}.
+     *
+     * @param chars
+     *         characters containing the value to parse
+     * @param start
+     *         index of the first character of the value
+     * @param end
+     *         index just after the last character of the value
+     *
+     * @return the floating-point value
+     *
+     * @throws NumberFormatException
+     *         if the region of characters does not represent a floating-point value
+     */
+    public static double parseDouble(CharSequence chars, int start, int end) throws NumberFormatException {
+        int idx = start;
+        while ( (idx < end) && (chars.charAt(idx) <= ' ') ) {
+            idx++;
+        }
+        int last = end;
+        while ( (last > idx) && (chars.charAt(last - 1) <= ' ') ) {
+            last--;
+        }
+        boolean negative = false;
+        if ( idx < last ) {
+            char sign = chars.charAt(idx);
+            if ( (sign == '-') || (sign == '+') ) {
+                negative = (sign == '-');
+                idx++;
+            }
+        }
+        long mantissa = 0L;
+        int numDigits = 0;
+        int numSigDigits = 0;
+        int numFracDigits = -1;
+        boolean plain = true;
+        for (int k = idx; plain && (k < last); k++) {
+            char c = chars.charAt(k);
+            if ( (c >= '0') && (c <= '9') ) {
+                mantissa = 10L * mantissa + (c - '0');
+                numDigits++;
+                if ( mantissa > 0L )
+                    numSigDigits++;
+                if ( numFracDigits >= 0 )
+                    numFracDigits++;
+                if ( (numSigDigits > MAX_EXACT_DIGITS) || (numFracDigits >= EXACT_POWERS_OF_TEN.length) )
+                    plain = false;
+            }
+            else if ( (c == '.') && (numFracDigits < 0) ) {
+                numFracDigits = 0;
+            }
+            else {
+                plain = false;
+            }
+        }
+        if ( plain && (numDigits > 0) ) {
+            double value = exactDecimalValue(mantissa, Math.max(numFracDigits, 0));
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(chars.subSequence(start, end).toString());
+    }
+
+    /**
+     * Computes the floating-point value of a decimal number given as its digits and the number of those digits
+     * after the decimal point.  The value is correctly rounded, as from {@link Double#parseDouble(String)}, since
+     * the digits and the power of ten are both exact doubles.
+     *
+     * @param digits
+     *         the digits of the decimal number as an integer; must not have more than fifteen digits
+     * @param numDecimals
+     *         the number of the digits after the decimal point; must not be more than twenty-two
+     *
+     * @return the floating-point value of the decimal number
+     *
+     * @throws IllegalArgumentException
+     *         if the value of the decimal number cannot be computed exactly
+     */
+    static double exactDecimalValue(long digits, int numDecimals) throws IllegalArgumentException {
+        if ( (digits < 0L) || (digits >= MAX_EXACT_LONG) ||
+                (numDecimals < 0) || (numDecimals >= EXACT_POWERS_OF_TEN.length) )
+            throw new IllegalArgumentException("decimal value cannot be computed exactly");
+        double value = (double) digits;
+        if ( numDecimals > 0 )
+            value /= EXACT_POWERS_OF_TEN[numDecimals];
+        return value;
+    }
+
+    /**
+     * Parses an integer value from a region of characters with the same result as {@link Integer#valueOf(String)}
+     * of the region.  Values of ASCII digits are computed directly from the digits; any other representation
+     * is parsed by {@link Integer#parseInt(String)}.
+     *
+     * @param chars
+     *         characters containing the value to parse
+     * @param start
+     *         index of the first character of the value
+     * @param end
+     *         index just after the last character of the value
+     *
+     * @return the integer value
+     *
+     * @throws NumberFormatException
+     *         if the region of characters does not represent an integer value
+     */
+    public static int parseInt(CharSequence chars, int start, int end) throws NumberFormatException {
+        int idx = start;
+        boolean negative = false;
+        if ( idx < end ) {
+            char sign = chars.charAt(idx);
+            if ( (sign == '-') || (sign == '+') ) {
+                negative = (sign == '-');
+                idx++;
+            }
+        }
+        if ( (idx < end) && (end - idx <= 9) ) {
+            // Nine digits cannot overflow an int
+            int value = 0;
+            int k;
+            for (k = idx; k < end; k++) {
+                char c = chars.charAt(k);
+                if ( (c < '0') || (c > '9') )
+                    break;
+                value = 10 * value + (c - '0');
+            }
+            if ( k == end )
+                return negative ? -value : value;
+        }
+        return Integer.parseInt(chars.subSequence(start, end).toString());
+    }
+
+}
@@ -82,6 +82,7 @@ public class TimestampConverter extends ValueConverter<String> {
     private GregorianCalendar utcCalendar;
     private long millisNow;
     private int currYear;
+    private boolean fromTimeOfDay;
 
     public TimestampConverter(String inputUnit, String outputUnit, String missingValue)
             throws IllegalArgumentException, IllegalStateException {
@@ -94,6 +95,7 @@ public class TimestampConverter extends ValueConverter<String> {
         millisNow = System.currentTimeMillis();
         utcCalendar.setTimeInMillis(millisNow);
         currYear = utcCalendar.get(GregorianCalendar.YEAR);
+        fromTimeOfDay = fromUnit.toLowerCase().endsWith("hh:mm:ss");
     }
 
     @Override
@@ -488,8 +490,16 @@ public class TimestampConverter extends ValueConverter<String> {
         } catch ( Exception ex ) {
             throw new IllegalArgumentException("invalid date value");
         }
-        String stdVal = String.format("%04d-%02d-%02d", year, month, day);
-        return stdVal;
+        // year is four digits, month and day are at most two digits
+        StringBuilder builder = new StringBuilder(10);
+        builder.append(year).append('-');
+        if ( month < 10 )
+            builder.append('0');
+        builder.append(month).append('-');
+        if ( day < 10 )
+            builder.append('0');
+        builder.append(day);
+        return builder.toString();
     }
 
     /**
@@ -507,7 +517,7 @@ public class TimestampConverter extends ValueConverter<String> {
         Integer hour;
         Integer minute;
         Double second;
-        if ( fromUnit.toLowerCase().endsWith("hh:mm:ss") ) {
+        if ( fromTimeOfDay ) {
             try {
                 String[] pieces = TIME_SPLIT_PATTERN.split(valueString, 0);
                 if ( (pieces.length < 2) || (pieces.length > 3) ) {
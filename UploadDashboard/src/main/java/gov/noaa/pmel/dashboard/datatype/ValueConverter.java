@@ -5,9 +5,6 @@ package gov.noaa.pmel.dashboard.datatype;
 
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 
-import java.util.Arrays;
-import java.util.HashSet;
-
 /**
  * Interprets string representations of data values based on an input unit/format as well as missing values.  Converts
  * the values, if needed, to that specified by an output unit/format.
@@ -18,18 +15,22 @@ public abstract class ValueConverter<T> {
 
     /**
      * Default missing value strings; includes the empty string, "NA", "N/A", "NAN", "NULL" and various numbers of
-     * dashes.
+     * dashes.  The upper-cased and trimmed value string is compared to these strings.
      */
-    private static final HashSet<String> DEFAULT_MISSING_VALUES_SET =
-            new HashSet<String>(Arrays.asList("", "NA", "N/A", "NAN",
-                    "NULL", "-", "--", "---", "----", "-----"));
+    private static final String[] DEFAULT_MISSING_VALUES_ARRAY =
+            new String[] { "", "NA", "N/A", "NAN", "NULL", "-", "--", "---", "----", "-----" };
     /**
      * Default missing value numbers of the -999, -9999, and -99999 variety.
      */
-    private static final Double[] DEFAULT_MISSING_NUMBERS_ARRAY =
-            new Double[] { -999.0, -999.9, -999.99, -999.999,
+    private static final double[] DEFAULT_MISSING_NUMBERS_ARRAY =
+            new double[] { -999.0, -999.9, -999.99, -999.999,
                     -9999.0, -9999.9, -9999.99, -99999.0, -99999.9 };
 
+    /**
+     * Value returned by {@link #convertIntOf(CharSequence)} for missing values.  Never a valid converted integer.
+     */
+    public static final int MISSING_INT_VALUE = Integer.MIN_VALUE;
+
     protected String fromUnit;
     protected String toUnit;
     protected String missVal;
@@ -64,7 +65,7 @@ public abstract class ValueConverter<T> {
      * Checks if a given string matches (compared case-insensitive) a missing value. If a missing value string is
      * specified (not null) in the constructor, only that value is checked.  Otherwise, the default set of missing
      * values is checked. A string is one of the default missing values if the trimmed and upper-cased value matches one
-     * of the string in {@link #DEFAULT_MISSING_VALUES_SET}, or if requested, if the string representation is a
+     * of the string in {@link #DEFAULT_MISSING_VALUES_ARRAY}, or if requested, if the string representation is a
      * floating-point value given in the array {@link #DEFAULT_MISSING_NUMBERS_ARRAY}.
      *
      * @param valueString
@@ -77,28 +78,67 @@ public abstract class ValueConverter<T> {
      * @throws IllegalArgumentException
      *         if the given string is null
      */
-    protected boolean isMissingValue(String valueString, boolean checkNumbers) throws IllegalArgumentException {
+    protected boolean isMissingValue(CharSequence valueString, boolean checkNumbers) throws IllegalArgumentException {
+        int start = trimStart(valueString);
+        int end = trimEnd(valueString, start);
+        if ( isMissingString(valueString, start, end) )
+            return true;
+        if ( checkNumbers && (missVal == null) ) {
+            try {
+                return isMissingNumber(NumberParser.parseDouble(valueString, start, end));
+            } catch ( NumberFormatException ex ) {
+                // not numeric
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a given string matches (compared case-insensitive) a missing value string.  If a missing value string
+     * is specified (not null) in the constructor, only that value is compared to the given string.  Otherwise, the
+     * trimmed region of the given string is compared to the default missing value strings without creating any
+     * intermediate strings.  Default numeric missing values are not checked; see {@link #isMissingNumber(double)}.
+     *
+     * @param valueString
+     *         string representation to check
+     * @param start
+     *         index of the first character of the trimmed string, as returned by {@link #trimStart(CharSequence)}
+     * @param end
+     *         index just after the last character of the trimmed string, as returned by
+     *         {@link #trimEnd(CharSequence, int)}
+     *
+     * @return if this string represents a missing value
+     *
+     * @throws IllegalArgumentException
+     *         if the given string is null
+     */
+    protected boolean isMissingString(CharSequence valueString, int start, int end) throws IllegalArgumentException {
         if ( valueString == null )
             throw new IllegalArgumentException("no value given");
-        if ( missVal == null ) {
-            String trimVal = valueString.trim();
-            if ( DEFAULT_MISSING_VALUES_SET.contains(trimVal.toUpperCase()) )
+        if ( missVal != null )
+            return equalsIgnoreCase(missVal, valueString, 0, valueString.length());
+        for (String mvstr : DEFAULT_MISSING_VALUES_ARRAY) {
+            if ( equalsIgnoreCase(mvstr, valueString, start, end) )
                 return true;
-            if ( checkNumbers ) {
-                try {
-                    Double value = Double.valueOf(trimVal);
-                    for (Double mvdbl : DEFAULT_MISSING_NUMBERS_ARRAY) {
-                        if ( DashboardUtils.closeTo(value, mvdbl, 0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) ) {
-                            return true;
-                        }
-                    }
-                } catch ( Exception ex ) {
-                    // not numeric
-                }
-            }
         }
-        else if ( missVal.equalsIgnoreCase(valueString) ) {
-            return true;
+        return false;
+    }
+
+    /**
+     * Checks if a numeric value is one of the default missing value numbers.  Always false if a missing value
+     * string was specified (not null) in the constructor.
+     *
+     * @param value
+     *         numeric value to check
+     *
+     * @return if this value is a default missing value number
+     */
+    protected boolean isMissingNumber(double value) {
+        if ( missVal != null )
+            return false;
+        for (double mvdbl : DEFAULT_MISSING_NUMBERS_ARRAY) {
+            if ( Math.abs(value - mvdbl) < DashboardUtils.MAX_ABSOLUTE_ERROR )
+                return true;
         }
         return false;
     }
@@ -117,6 +157,134 @@ public abstract class ValueConverter<T> {
      */
     public abstract T convertValueOf(String valueString) throws IllegalArgumentException, IllegalStateException;
 
+    /**
+     * Converts the string representation of a floating-point data value without creating a Double.  This
+     * implementation returns the value from {@link #convertValueOf(String)}; subclasses converting floating-point
+     * values should override this method to parse the given characters directly.
+     *
+     * @param valueString
+     *         the string representation of the data value in the input unit/format
+     *
+     * @return {@link Double#NaN} if the string representation matches a missing value; otherwise, the data value
+     *         converted to the output unit/format
+     *
+     * @throws IllegalArgumentException
+     *         if the given value is null, or if the given string cannot be interpreted
+     * @throws IllegalStateException
+     *         if unit/format conversion of the data value cannot be performed, or if this does not convert to
+     *         floating-point values
+     */
+    public double convertDoubleOf(CharSequence valueString) throws IllegalArgumentException, IllegalStateException {
+        if ( valueString == null )
+            throw new IllegalArgumentException("no value given");
+        T value = convertValueOf(valueString.toString());
+        if ( value == null )
+            return Double.NaN;
+        if ( !(value instanceof Double) )
+            throw new IllegalStateException("not a conversion to floating-point values");
+        return ((Double) value).doubleValue();
+    }
+
+    /**
+     * Converts the string representation of an integer data value without creating an Integer.  This implementation
+     * returns the value from {@link #convertValueOf(String)}; subclasses converting integer values should override
+     * this method to parse the given characters directly.
+     *
+     * @param valueString
+     *         the string representation of the data value in the input unit/format
+     *
+     * @return {@link #MISSING_INT_VALUE} if the string representation matches a missing value; otherwise, the data
+     *         value converted to the output unit/format
+     *
+     * @throws IllegalArgumentException
+     *         if the given value is null, or if the given string cannot be interpreted
+     * @throws IllegalStateException
+     *         if unit/format conversion of the data value cannot be performed, or if this does not convert to
+     *         integer values
+     */
+    public int convertIntOf(CharSequence valueString) throws IllegalArgumentException, IllegalStateException {
+        if ( valueString == null )
+            throw new IllegalArgumentException("no value given");
+        T value = convertValueOf(valueString.toString());
+        if ( value == null )
+            return MISSING_INT_VALUE;
+        if ( !(value instanceof Integer) )
+            throw new IllegalStateException("not a conversion to integer values");
+        int intVal = ((Integer) value).intValue();
+        if ( intVal == MISSING_INT_VALUE )
+            throw new IllegalArgumentException("not an integer value");
+        return intVal;
+    }
+
+    /**
+     * @param chars
+     *         characters to examine; if null, zero is returned
+     *
+     * @return the index of the first character that is not whitespace (as in {@link String#trim()}),
+     *         or the length of the characters if all are whitespace
+     */
+    protected static int trimStart(CharSequence chars) {
+        if ( chars == null )
+            return 0;
+        int len = chars.length();
+        int start = 0;
+        while ( (start < len) && (chars.charAt(start) <= ' ') ) {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * @param chars
+     *         characters to examine; if null, zero is returned
+     * @param start
+     *         index of the first character that is not whitespace, as returned by {@link #trimStart(CharSequence)}
+     *
+     * @return the index just after the last character that is not whitespace (as in {@link String#trim()}),
+     *         or start if all characters from start are whitespace
+     */
+    protected static int trimEnd(CharSequence chars, int start) {
+        if ( chars == null )
+            return 0;
+        int end = chars.length();
+        while ( (end > start) && (chars.charAt(end - 1) <= ' ') ) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Compares a string to a region of characters, ignoring case as in {@link String#equalsIgnoreCase(String)}.
+     *
+     * @param str
+     *         string to compare
+     * @param chars
+     *         characters containing the region to compare
+     * @param start
+     *         index of the first character of the region
+     * @param end
+     *         index just after the last character of the region
+     *
+     * @return if the string matches the region of characters
+     */
+    private static boolean equalsIgnoreCase(String str, CharSequence chars, int start, int end) {
+        if ( str.length() != (end - start) )
+            return false;
+        for (int k = 0; k < str.length(); k++) {
+            char c1 = str.charAt(k);
+            char c2 = chars.charAt(start + k);
+            if ( c1 == c2 )
+                continue;
+            c1 = Character.toUpperCase(c1);
+            c2 = Character.toUpperCase(c2);
+            if ( c1 == c2 )
+                continue;
+            if ( Character.toLowerCase(c1) != Character.toLowerCase(c2) )
+                return false;
+        }
+        return true;
+    }
+
     @Override
     public String toString() {
         return "ValueConverter" +
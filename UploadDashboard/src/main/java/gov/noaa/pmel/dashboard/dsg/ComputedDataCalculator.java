@@ -0,0 +1,525 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
+import gov.noaa.pmel.dashboard.datatype.DoubleDashDataType;
+import gov.noaa.pmel.dashboard.datatype.IntDashDataType;
+import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
+import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.datatype.StringDashDataType;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Computes the variables added to the standardized data of a dataset before the full-data DSG file is written.
+ * This is a Java implementation of the Ferret script calcSOCAT.jnl (the Ferret COMPUTE action), together with
+ * the scripts it calls, sampling the same gridded reference datasets.  The reference datasets are read from
+ * NetCDF files with the names used by the Ferret scripts in a single reference data directory.
+ * <p>
+ * The calculations follow the Ferret scripts as closely as possible, including the use of the Ferret IF-THEN-ELSE
+ * semantics (a zero value is false) when choosing the recommended fCO2, so the values written are the same as
+ * those written by Ferret to within floating-point differences.  An instance of this class can be shared by
+ * multiple threads.
+ */
+public class ComputedDataCalculator {
+
+    /**
+     * How the computed variables are added to the full-data DSG files
+     */
+    public enum Mode {
+        /**
+         * Compute the variables in Java before the DSG file is written; if this fails, use Ferret.
+         */
+        JAVA,
+        /**
+         * Write the DSG file then call Ferret to compute the variables and add them to the file.
+         */
+        FERRET,
+        /**
+         * Compute the variables using both Java and Ferret, log any differences, and keep the Ferret output.
+         */
+        CROSSCHECK,
+    }
+
+    public static final String NCEP_SLP_FILENAME = "ncep_slp.nc";
+    public static final String WOA_SALINITY_FILENAME = "s0112an1.nc";
+    public static final String ETOPO2_FILENAME = "etopo2.nc";
+    public static final String DIST_TO_LAND_FILENAME = "dist2land20_burke.nc";
+    public static final String REGION_IDS_FILENAME = "SOCAT_region_ids.nc";
+    public static final String GVCO2_FILENAME = "gvco2.nc";
+
+    /**
+     * Longitude in [0,360); added to the DSG files, but not a known data file type
+     */
+    public static final DoubleDashDataType LON360 = new DoubleDashDataType("lon360",
+            712.0, "lon360", "longitude in 0 to 360", false,
+            DashboardUtils.LONGITUDE_UNITS, "longitude", DashboardServerUtils.LOCATION_CATEGORY, "degrees_east",
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    /**
+     * Three-letter month name; added to the DSG files, but not a known data file type
+     */
+    public static final StringDashDataType TMONTH = new StringDashDataType("tmonth",
+            713.0, "tmonth", "month of year", false,
+            DashboardUtils.NO_UNITS, null, DashboardServerUtils.TIME_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    /**
+     * Data types added to the DSG files that are not known data file types
+     */
+    public static final List<DashDataType<?>> ADDED_FILE_TYPES = Arrays.<DashDataType<?>>asList(
+            LON360, DashboardServerUtils.DAY_OF_YEAR, TMONTH);
+
+    /**
+     * Names of the variables for the fCO2 values computed from the different sources,
+     * in the order of preference for the recommended fCO2; the fCO2 source number is one
+     * more than the index in this array.  Only those that are known data file types are
+     * added to the DSG files.
+     */
+    private static final String[] FCO2_SOURCE_NAMES = {
+            "fCO2_insitu_from_xCO2_water_equi_temp_dry_ppm",
+            "fCO2_insitu_from_xCO2_water_sst_dry_ppm",
+            "fCO2_from_pCO2_water_water_equi_temp",
+            "fCO2_from_pCO2_water_sst_100humidity_uatm",
+            "fCO2_insitu_from_fCO2_water_equi_uatm",
+            "fCO2_insitu_from_fCO2_water_sst_100humidty_uatm",
+            "fCO2_from_pCO2_water_water_equi_temp_ncep",
+            "fCO2_from_pCO2_water_sst_100humidity_uatm_ncep",
+            "fCO2_insitu_from_xCO2_water_equi_temp_dry_ppm_woa",
+            "fCO2_insitu_from_xCO2_water_sst_dry_ppm_woa",
+            "fCO2_insitu_from_xCO2_water_equi_temp_dry_ppm_ncep",
+            "fCO2_insitu_from_xCO2_water_sst_dry_ppm_ncep",
+            "fCO2_insitu_from_xCO2_water_equi_temp_dry_ppm_ncep_woa",
+            "fCO2_insitu_from_xCO2_water_sst_dry_ppm_ncep_woa",
+    };
+
+    /**
+     * Region codes for the region numbers 1 - 10 in the region IDs dataset (there are no regions 3 and 9)
+     */
+    private static final String[] REGION_CODES = { "N", "T", "-", "O", "I", "A", "C", "Z", "-", "R" };
+
+    private static final String[] MONTH_NAMES = {
+            "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+
+    /**
+     * Default salinity used where the World Ocean Atlas salinity is missing (land)
+     */
+    private static final double DEFAULT_SALINITY = 35.0;
+
+    private ReferenceGrid ncepSlpGrid;
+    private ReferenceGrid woaSalinityGrid;
+    private ReferenceGrid etopo2Grid;
+    private ReferenceGrid distToLandGrid;
+    private ReferenceGrid regionIdGrid;
+    private ReferenceGrid coastRegionIdGrid;
+    private ReferenceGrid gvco2Grid;
+
+    /**
+     * Opens the gridded reference datasets in the given directory.
+     *
+     * @param referenceDataDir
+     *         directory containing the reference dataset files
+     *
+     * @throws IOException
+     *         if a reference dataset file cannot be opened or read
+     * @throws IllegalArgumentException
+     *         if an expected variable is not found in a reference dataset file, or
+     *         if the coordinates of a reference dataset are invalid
+     */
+    public ComputedDataCalculator(File referenceDataDir) throws IOException, IllegalArgumentException {
+        ArrayList<ReferenceGrid> opened = new ArrayList<ReferenceGrid>(7);
+        boolean success = false;
+        try {
+            ncepSlpGrid = new ReferenceGrid(new File(referenceDataDir, NCEP_SLP_FILENAME), "slp", false);
+            opened.add(ncepSlpGrid);
+            // monthly climatology sampled by month number
+            woaSalinityGrid = new ReferenceGrid(new File(referenceDataDir, WOA_SALINITY_FILENAME), "s0112an1", true);
+            opened.add(woaSalinityGrid);
+            etopo2Grid = new ReferenceGrid(new File(referenceDataDir, ETOPO2_FILENAME), "rose", false);
+            opened.add(etopo2Grid);
+            distToLandGrid = new ReferenceGrid(new File(referenceDataDir, DIST_TO_LAND_FILENAME), "dist2land", false);
+            opened.add(distToLandGrid);
+            regionIdGrid = new ReferenceGrid(new File(referenceDataDir, REGION_IDS_FILENAME), "region_id", false);
+            opened.add(regionIdGrid);
+            coastRegionIdGrid = new ReferenceGrid(new File(referenceDataDir, REGION_IDS_FILENAME),
+                    "southern_coast_arctic", false);
+            opened.add(coastRegionIdGrid);
+            gvco2Grid = new ReferenceGrid(new File(referenceDataDir, GVCO2_FILENAME), "co2", false);
+            opened.add(gvco2Grid);
+            success = true;
+        } finally {
+            if ( !success ) {
+                for (ReferenceGrid grid : opened) {
+                    try {
+                        grid.close();
+                    } catch ( IOException ex ) {
+                        // ignore - already failing
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the data types of the variables to be written to a full-data DSG file whose data has been
+     * passed through {@link #addComputedData(StdDataArray, KnownDataTypes)}; namely, the given data file
+     * types plus {@link #ADDED_FILE_TYPES}.
+     *
+     * @param dataFileTypes
+     *         known data file types
+     *
+     * @return new collection of data types for writing the DSG file
+     */
+    public static KnownDataTypes getOutputTypes(KnownDataTypes dataFileTypes) {
+        KnownDataTypes outputTypes = new KnownDataTypes();
+        outputTypes.addDataTypes(ADDED_FILE_TYPES);
+        // any known data file type with the same name replaces an added type
+        outputTypes.addDataTypes(dataFileTypes.getKnownTypesSet());
+        return outputTypes;
+    }
+
+    /**
+     * Creates a standardized data array containing the data of the given array with the computed variables added.
+     * Any existing columns for the computed variables are replaced.  Only those computed variables whose type is
+     * in the given output types are added.
+     *
+     * @param stddata
+     *         standardized data for a dataset; must contain longitude, latitude, time, year, month of year,
+     *         day of month, hour of day, and minute of hour for every sample
+     * @param outputTypes
+     *         types of the variables to be written to the DSG file, as returned by
+     *         {@link #getOutputTypes(KnownDataTypes)}; the computed columns are given these type instances
+     *
+     * @return standardized data with the computed variables
+     *
+     * @throws IllegalArgumentException
+     *         if a required data column is missing, or if a year is before 1900
+     * @throws IOException
+     *         if problems reading from the reference datasets
+     */
+    public StdDataArray addComputedData(StdDataArray stddata, KnownDataTypes outputTypes)
+            throws IllegalArgumentException, IOException {
+        int numSamples = stddata.getNumSamples();
+        double[] lons = getColumn(stddata, DashboardServerUtils.LONGITUDE, true);
+        double[] lats = getColumn(stddata, DashboardServerUtils.LATITUDE, true);
+        double[] times = getColumn(stddata, DashboardServerUtils.TIME, true);
+        double[] years = getColumn(stddata, DashboardServerUtils.YEAR, true);
+        double[] months = getColumn(stddata, DashboardServerUtils.MONTH_OF_YEAR, true);
+        double[] days = getColumn(stddata, DashboardServerUtils.DAY_OF_MONTH, true);
+        double[] hours = getColumn(stddata, DashboardServerUtils.HOUR_OF_DAY, true);
+        double[] minutes = getColumn(stddata, DashboardServerUtils.MINUTE_OF_HOUR, true);
+        double[] seconds = getColumn(stddata, DashboardServerUtils.SECOND_OF_MINUTE, false);
+        for (int j = 0; j < numSamples; j++) {
+            // A missing seconds value is taken to be zero
+            if ( Double.isNaN(seconds[j]) )
+                seconds[j] = 0.0;
+            if ( Double.isNaN(lons[j]) || Double.isNaN(lats[j]) || Double.isNaN(times[j]) ||
+                    Double.isNaN(years[j]) || Double.isNaN(months[j]) || Double.isNaN(days[j]) ||
+                    Double.isNaN(hours[j]) || Double.isNaN(minutes[j]) )
+                throw new IllegalArgumentException("missing location or time for sample number " + (j + 1));
+            if ( years[j] < 1900.0 )
+                throw new IllegalArgumentException("Dataset contains years less than 1900");
+        }
+        double[] sal = getColumn(stddata, SocatTypes.SALINITY, false);
+        double[] tequ = getColumn(stddata, SocatTypes.TEQU, false);
+        double[] sst = getColumn(stddata, SocatTypes.SST, false);
+        double[] pequ = getColumn(stddata, SocatTypes.PEQU, false);
+        double[] patm = getColumn(stddata, SocatTypes.PATM, false);
+        double[] xco2TequDry = getColumn(stddata, SocatTypes.XCO2_WATER_TEQU_DRY, false);
+        double[] xco2SstDry = getColumn(stddata, SocatTypes.XCO2_WATER_SST_DRY, false);
+        double[] pco2TequWet = getColumn(stddata, SocatTypes.PCO2_WATER_TEQU_WET, false);
+        double[] pco2SstWet = getColumn(stddata, SocatTypes.PCO2_WATER_SST_WET, false);
+        double[] fco2TequWet = getColumn(stddata, SocatTypes.FCO2_WATER_TEQU_WET, false);
+        double[] fco2SstWet = getColumn(stddata, SocatTypes.FCO2_WATER_SST_WET, false);
+
+        // Values sampled from the reference datasets
+        double[] ncepSlp = new double[numSamples];
+        double[] woaSss = new double[numSamples];
+        double[] etopo2 = new double[numSamples];
+        double[] distToLand = new double[numSamples];
+        double[] gvco2 = new double[numSamples];
+        String[] regionIds = new String[numSamples];
+        for (int j = 0; j < numSamples; j++) {
+            // NCEP sea level pressure in Pa converted to hPa
+            ncepSlp[j] = 0.01 * ncepSlpGrid.sampleNearest(lons[j], lats[j], times[j]);
+            // WOA salinity, using the default salinity for cells labeled land
+            woaSss[j] = woaSalinityGrid.sampleNearest(lons[j], lats[j], months[j]);
+            if ( Double.isNaN(woaSss[j]) && (months[j] >= 1.0) && (months[j] <= 12.0) )
+                woaSss[j] = DEFAULT_SALINITY;
+            // ETOPO2 gives elevation; depth is positive down
+            etopo2[j] = -1.0 * etopo2Grid.sampleLinear(lons[j], lats[j], 0.0);
+            distToLand[j] = distToLandGrid.sampleLinear(lons[j], lats[j], 0.0);
+            gvco2[j] = gvco2Grid.sampleLinear(lons[j], lats[j], times[j]);
+            // Fill missing or land (zero) regions with Arctic, Coastal, or Southern Ocean
+            double regionNum = regionIdGrid.sampleNearest(lons[j], lats[j], 0.0);
+            if ( Double.isNaN(regionNum) || (regionNum == 0.0) )
+                regionNum = coastRegionIdGrid.sampleNearest(lons[j], lats[j], 0.0);
+            int regionIdx = Double.isNaN(regionNum) ? -1 : (int) Math.round(regionNum) - 1;
+            if ( (regionIdx >= 0) && (regionIdx < REGION_CODES.length) )
+                regionIds[j] = REGION_CODES[regionIdx];
+            else
+                regionIds[j] = null;
+        }
+
+        // fCO2 from each source; fco2Sources[k][j] is the value from source number k+1 for sample j
+        double[][] fco2Sources = new double[FCO2_SOURCE_NAMES.length][numSamples];
+        double[] fco2Rec = new double[numSamples];
+        Integer[] fco2Src = new Integer[numSamples];
+        double[] deltaTemp = new double[numSamples];
+        for (int j = 0; j < numSamples; j++) {
+            double sstK = sst[j] + 273.15;
+            double tequK = tequ[j] + 273.15;
+            // If equilibrator pressure is not given, use atmospheric pressure + 3
+            double press = isTrue(pequ[j]) ? pequ[j] : patm[j] + 3.0;
+            double ncepPress = ncepSlp[j] + 3.0;
+            double warming = Math.exp(0.0423 * (sst[j] - tequ[j]));
+
+            fco2Sources[0][j] = fco2FromXco2(xco2TequDry[j], press, tequK, sal[j]) * warming;
+            fco2Sources[1][j] = fco2FromXco2(xco2SstDry[j], press, sstK, sal[j]);
+            fco2Sources[2][j] = fco2FromPco2(pco2TequWet[j], press, tequK) * warming;
+            fco2Sources[3][j] = fco2FromPco2(pco2SstWet[j], press, sstK);
+            fco2Sources[4][j] = fco2TequWet[j] * warming;
+            fco2Sources[5][j] = fco2SstWet[j];
+            fco2Sources[6][j] = fco2FromPco2(pco2TequWet[j], ncepPress, tequK) * warming;
+            fco2Sources[7][j] = fco2FromPco2(pco2SstWet[j], ncepPress, sstK);
+            fco2Sources[8][j] = fco2FromXco2(xco2TequDry[j], press, tequK, woaSss[j]) * warming;
+            fco2Sources[9][j] = fco2FromXco2(xco2SstDry[j], press, sstK, woaSss[j]);
+            fco2Sources[10][j] = fco2FromXco2(xco2TequDry[j], ncepPress, tequK, sal[j]) * warming;
+            fco2Sources[11][j] = fco2FromXco2(xco2SstDry[j], ncepPress, sstK, sal[j]);
+            fco2Sources[12][j] = fco2FromXco2(xco2TequDry[j], ncepPress, tequK, woaSss[j]) * warming;
+            fco2Sources[13][j] = fco2FromXco2(xco2SstDry[j], ncepPress, sstK, woaSss[j]);
+
+            fco2Rec[j] = Double.NaN;
+            fco2Src[j] = null;
+            for (int k = 0; k < FCO2_SOURCE_NAMES.length; k++) {
+                if ( isTrue(fco2Sources[k][j]) ) {
+                    fco2Rec[j] = fco2Sources[k][j];
+                    fco2Src[j] = k + 1;
+                    break;
+                }
+            }
+            deltaTemp[j] = tequ[j] - sst[j];
+        }
+
+        double[] calcSpeed = calcShipSpeeds(lons, lats, times, seconds);
+
+        double[] lon360 = new double[numSamples];
+        double[] dayOfYear = new double[numSamples];
+        String[] tmonth = new String[numSamples];
+        GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        for (int j = 0; j < numSamples; j++) {
+            lon360[j] = (lons[j] < 0.0) ? lons[j] + 360.0 : lons[j];
+            cal.clear();
+            cal.set((int) years[j], (int) months[j] - 1, (int) days[j]);
+            dayOfYear[j] = cal.get(GregorianCalendar.DAY_OF_YEAR) +
+                    (hours[j] * 3600.0 + minutes[j] * 60.0 + seconds[j]) / 86400.0;
+            int monthIdx = (int) months[j] - 1;
+            tmonth[j] = ((monthIdx >= 0) && (monthIdx < 12)) ? MONTH_NAMES[monthIdx] : null;
+        }
+
+        // Assemble the computed columns whose types are output
+        ArrayList<DashDataType<?>> compTypes = new ArrayList<DashDataType<?>>();
+        ArrayList<StdDataColumn> compValues = new ArrayList<StdDataColumn>();
+        addDoubleColumn(outputTypes, SocatTypes.WOA_SALINITY.getVarName(), woaSss, compTypes, compValues);
+        addDoubleColumn(outputTypes, SocatTypes.NCEP_SLP.getVarName(), ncepSlp, compTypes, compValues);
+        for (int k = 0; k < FCO2_SOURCE_NAMES.length; k++) {
+            addDoubleColumn(outputTypes, FCO2_SOURCE_NAMES[k], fco2Sources[k], compTypes, compValues);
+        }
+        addDoubleColumn(outputTypes, SocatTypes.FCO2_REC.getVarName(), fco2Rec, compTypes, compValues);
+        addColumn(outputTypes, SocatTypes.FCO2_SOURCE.getVarName(), IntDashDataType.class,
+                fco2Src, compTypes, compValues);
+        addDoubleColumn(outputTypes, SocatTypes.GVCO2.getVarName(), gvco2, compTypes, compValues);
+        addDoubleColumn(outputTypes, SocatTypes.DELTA_TEMP.getVarName(), deltaTemp, compTypes, compValues);
+        addDoubleColumn(outputTypes, LON360.getVarName(), lon360, compTypes, compValues);
+        addDoubleColumn(outputTypes, SocatTypes.ETOPO2_DEPTH.getVarName(), etopo2, compTypes, compValues);
+        addDoubleColumn(outputTypes, SocatTypes.DIST_TO_LAND.getVarName(), distToLand, compTypes, compValues);
+        addDoubleColumn(outputTypes, DashboardServerUtils.DAY_OF_YEAR.getVarName(), dayOfYear,
+                compTypes, compValues);
+        addColumn(outputTypes, TMONTH.getVarName(), StringDashDataType.class, tmonth, compTypes, compValues);
+        addDoubleColumn(outputTypes, SocatTypes.CALC_SPEED.getVarName(), calcSpeed, compTypes, compValues);
+        addColumn(outputTypes, DashboardServerUtils.REGION_ID.getVarName(), StringDashDataType.class,
+                regionIds, compTypes, compValues);
+
+        // Copy the existing columns that are not being replaced
+        HashSet<String> compNames = new HashSet<String>();
+        for (DashDataType<?> dtype : compTypes) {
+            compNames.add(dtype.getVarName());
+        }
+        List<DashDataType<?>> origTypes = stddata.getDataTypes();
+        ArrayList<Integer> keptIndices = new ArrayList<Integer>(origTypes.size());
+        for (int k = 0; k < origTypes.size(); k++) {
+            if ( !compNames.contains(origTypes.get(k).getVarName()) )
+                keptIndices.add(k);
+        }
+        int numKept = keptIndices.size();
+        int numCols = numKept + compTypes.size();
+        DashDataType<?>[] dataTypes = new DashDataType<?>[numCols];
+        StdDataColumn[] columns = new StdDataColumn[numCols];
+        for (int k = 0; k < numKept; k++) {
+            int origIdx = keptIndices.get(k);
+            dataTypes[k] = origTypes.get(origIdx);
+            // The existing columns are not modified so they are shared
+            columns[k] = stddata.getStdColumn(origIdx);
+        }
+        for (int k = 0; k < compTypes.size(); k++) {
+            dataTypes[numKept + k] = compTypes.get(k);
+            columns[numKept + k] = compValues.get(k);
+        }
+        return new StdDataArray(dataTypes, columns);
+    }
+
+    /**
+     * Closes the reference dataset files.  This calculator cannot be used afterwards.
+     */
+    public void close() {
+        for (ReferenceGrid grid : new ReferenceGrid[] { ncepSlpGrid, woaSalinityGrid, etopo2Grid,
+                distToLandGrid, regionIdGrid, coastRegionIdGrid, gvco2Grid }) {
+            try {
+                grid.close();
+            } catch ( IOException ex ) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * @return the values of the data column of the given type as doubles; missing values, or all values if the
+     *         column is not present and not required, are NaN
+     *
+     * @throws IllegalArgumentException
+     *         if the column is required but not present
+     */
+    private static double[] getColumn(StdDataArray stddata, DashDataType<?> dtype, boolean required)
+            throws IllegalArgumentException {
+        Integer colIdx = stddata.getIndexOfType(dtype);
+        if ( colIdx == null ) {
+            if ( required )
+                throw new IllegalArgumentException("no " + dtype.getDisplayName() + " data column");
+            double[] values = new double[stddata.getNumSamples()];
+            Arrays.fill(values, Double.NaN);
+            return values;
+        }
+        double[] values = stddata.getStdColumn(colIdx).toDoubles();
+        for (int j = 0; j < values.length; j++) {
+            if ( Double.isInfinite(values[j]) )
+                values[j] = Double.NaN;
+        }
+        return values;
+    }
+
+    /**
+     * @return if the value would be considered true in a Ferret IF statement; namely, not missing and not zero
+     */
+    private static boolean isTrue(double value) {
+        return !(Double.isNaN(value) || Double.isInfinite(value) || (value == 0.0));
+    }
+
+    /**
+     * @return the water vapor pressure, in hPa, at the given temperature (in Kelvin) and salinity
+     */
+    private static double vaporPressure(double tempK, double salinity) {
+        return 1013.25 * Math.exp(24.4543 - 67.4509 * (100.0 / tempK) -
+                4.8489 * Math.log(tempK / 100.0) - 0.000544 * salinity);
+    }
+
+    /**
+     * @return the fugacity factor (DOE handbook) for the given pressure (in hPa), CO2 value (in umol/mol or uatm),
+     *         and temperature (in Kelvin)
+     */
+    private static double fugacityFactor(double press, double co2, double tempK) {
+        double dryFrac = 1.0 - co2 / 1.0E6;
+        return Math.exp((press / 1013.25) * ((-1636.75 + 12.0408 * tempK - 0.0327957 * tempK * tempK +
+                0.0000316528 * tempK * tempK * tempK + 2.0 * dryFrac * dryFrac * (57.7 - 0.118 * tempK)) /
+                (82.057 * tempK)));
+    }
+
+    /**
+     * @return fCO2 at the given temperature (in Kelvin) computed from the dry xCO2 at that temperature,
+     *         the given pressure (in hPa), and the given salinity
+     */
+    private static double fco2FromXco2(double xco2, double press, double tempK, double salinity) {
+        double pco2 = xco2 * ((press - vaporPressure(tempK, salinity)) / 1013.25);
+        return pco2 * fugacityFactor(press, xco2, tempK);
+    }
+
+    /**
+     * @return fCO2 at the given temperature (in Kelvin) computed from the wet pCO2 at that temperature
+     *         and the given pressure (in hPa)
+     */
+    private static double fco2FromPco2(double pco2, double press, double tempK) {
+        return pco2 * fugacityFactor(press, pco2, tempK);
+    }
+
+    /**
+     * Computes the ship speeds, in knots, to the next sample as done by the Ferret scripts calcSOCAT.jnl and
+     * sw_dist.jnl.  Distances use the "plane sailing" formula as written in sw_dist.jnl (including the use of half
+     * the latitude difference in degrees as the cosine argument), and time differences ignore the seconds, so that
+     * the speeds match those from Ferret.  The last sample is given the speed of the previous sample.
+     *
+     * @return the ship speeds; NaN where not computable
+     */
+    private static double[] calcShipSpeeds(double[] lons, double[] lats, double[] times, double[] seconds) {
+        int numSamples = lons.length;
+        double[] speeds = new double[numSamples];
+        if ( numSamples < 2 ) {
+            Arrays.fill(speeds, Double.NaN);
+            return speeds;
+        }
+        for (int j = 0; j < numSamples - 1; j++) {
+            double dlon = lons[j + 1] - lons[j];
+            if ( Math.abs(dlon) > 180.0 )
+                dlon = Math.signum(dlon) * (360.0 - Math.abs(dlon));
+            double dlat = lats[j + 1] - lats[j];
+            double dep = Math.cos(dlat / 2.0) * dlon;
+            double distNm = 60.0 * Math.sqrt(dlat * dlat + dep * dep);
+            double deltaHours = ((times[j + 1] - seconds[j + 1]) - (times[j] - seconds[j])) / 3600.0;
+            speeds[j] = (deltaHours != 0.0) ? distNm / deltaHours : Double.NaN;
+        }
+        speeds[numSamples - 1] = speeds[numSamples - 2];
+        return speeds;
+    }
+
+    /**
+     * Adds the given double values, with NaN as missing, as a computed column if the named type is output.
+     */
+    private static void addDoubleColumn(KnownDataTypes outputTypes, String varName, double[] vals,
+            ArrayList<DashDataType<?>> compTypes, ArrayList<StdDataColumn> compValues) {
+        DashDataType<?> dtype = outputTypes.getDataType(varName);
+        if ( !(dtype instanceof DoubleDashDataType) )
+            return;
+        StdDataColumn column = new StdDataColumn(dtype, vals.length);
+        for (int j = 0; j < vals.length; j++) {
+            if ( !(Double.isNaN(vals[j]) || Double.isInfinite(vals[j])) )
+                column.setDouble(j, vals[j]);
+        }
+        compTypes.add(dtype);
+        compValues.add(column);
+    }
+
+    /**
+     * Adds the given values as a computed column if the named type is output with the expected class of data type.
+     */
+    private static void addColumn(KnownDataTypes outputTypes, String varName,
+            Class<? extends DashDataType<?>> typeClass, Object[] vals,
+            ArrayList<DashDataType<?>> compTypes, ArrayList<StdDataColumn> compValues) {
+        DashDataType<?> dtype = outputTypes.getDataType(varName);
+        if ( (dtype == null) || !typeClass.isInstance(dtype) )
+            return;
+        StdDataColumn column = new StdDataColumn(dtype, vals.length);
+        for (int j = 0; j < vals.length; j++) {
+            column.setValue(j, vals[j]);
+        }
+        compTypes.add(dtype);
+        compValues.add(column);
+    }
+
+}
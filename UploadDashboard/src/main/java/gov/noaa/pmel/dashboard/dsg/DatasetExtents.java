@@ -0,0 +1,393 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+
+import java.util.Arrays;
+
+/**
+ * Time, latitude, and longitude extents of the data in the full-data DSG file of a dataset.  Along with the
+ * extents is the last-modified time and the length of the DSG file from which the extents were computed so that
+ * outdated extents can be recognized.  Missing extents are given as {@link DashboardUtils#FP_MISSING_VALUE}.
+ * <p>
+ * The longitude extents are given as a western and an eastern longitude in [-180,180), and describe the smallest
+ * longitude interval, travelling east from the western longitude, containing all the valid longitudes.  Thus the
+ * western longitude is larger than the eastern longitude when the data crosses the antimeridian.
+ */
+public class DatasetExtents {
+
+    private final String datasetId;
+    private final long fileStamp;
+    private final long fileLength;
+    private final int numValid;
+    private final double minTime;
+    private final double maxTime;
+    private final double southLat;
+    private final double northLat;
+    private final double westLon;
+    private final double eastLon;
+
+    /**
+     * Create with the given values.
+     *
+     * @param datasetId
+     *         ID of the dataset
+     * @param fileStamp
+     *         last-modified time of the full-data DSG file when the extents were computed
+     * @param fileLength
+     *         length of the full-data DSG file when the extents were computed
+     * @param numValid
+     *         number of data points with valid longitude, latitude, and time
+     * @param minTime
+     *         earliest valid time, in seconds since Jan 1, 1970 00:00:00
+     * @param maxTime
+     *         latest valid time, in seconds since Jan 1, 1970 00:00:00
+     * @param southLat
+     *         southern-most valid latitude
+     * @param northLat
+     *         northern-most valid latitude
+     * @param westLon
+     *         western valid longitude in [-180,180)
+     * @param eastLon
+     *         eastern valid longitude in [-180,180)
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is null or blank, or if the number of valid data points is negative
+     */
+    public DatasetExtents(String datasetId, long fileStamp, long fileLength, int numValid, double minTime,
+            double maxTime, double southLat, double northLat, double westLon, double eastLon)
+            throws IllegalArgumentException {
+        if ( (datasetId == null) || datasetId.trim().isEmpty() )
+            throw new IllegalArgumentException("no dataset ID given for the dataset extents");
+        if ( numValid < 0 )
+            throw new IllegalArgumentException("negative number of valid data points for " + datasetId);
+        this.datasetId = datasetId;
+        this.fileStamp = fileStamp;
+        this.fileLength = fileLength;
+        this.numValid = numValid;
+        this.minTime = minTime;
+        this.maxTime = maxTime;
+        this.southLat = southLat;
+        this.northLat = northLat;
+        this.westLon = westLon;
+        this.eastLon = eastLon;
+    }
+
+    /**
+     * Computes the extents of the given data.  The time extents are computed from all valid times, the latitude
+     * extents from all valid latitudes, and the longitude extents from all valid longitudes; the number of valid
+     * data points only counts points where the longitude, latitude, and time are all valid.
+     *
+     * @param datasetId
+     *         ID of the dataset
+     * @param fileStamp
+     *         last-modified time of the full-data DSG file containing this data
+     * @param fileLength
+     *         length of the full-data DSG file containing this data
+     * @param lons
+     *         longitudes of the data; {@link DashboardUtils#FP_MISSING_VALUE} for missing values
+     * @param lats
+     *         latitudes of the data; {@link DashboardUtils#FP_MISSING_VALUE} for missing values
+     * @param times
+     *         times of the data, in seconds since Jan 1, 1970 00:00:00;
+     *         {@link DashboardUtils#FP_MISSING_VALUE} for missing values
+     *
+     * @return the extents of the data
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is null or blank, if any of the arrays are null, or
+     *         if the arrays are not all the same length
+     */
+    public static DatasetExtents fromData(String datasetId, long fileStamp, long fileLength, double[] lons,
+            double[] lats, double[] times) throws IllegalArgumentException {
+        if ( (lons == null) || (lats == null) || (times == null) )
+            throw new IllegalArgumentException("null data given for the extents of " + datasetId);
+        if ( (lons.length != lats.length) || (lons.length != times.length) )
+            throw new IllegalArgumentException("different number of longitudes, latitudes, and times for " +
+                    datasetId);
+
+        int numValid = 0;
+        for (int k = 0; k < lons.length; k++) {
+            if ( isMissing(lons[k]) || isMissing(lats[k]) || isMissing(times[k]) )
+                continue;
+            numValid++;
+        }
+        double[] timeMinMax = DashboardServerUtils.getMinMaxValidData(times);
+        double[] latMinMax = DashboardServerUtils.getMinMaxValidData(lats);
+        double[] lonWestEast = getLongitudeExtents(lons);
+        return new DatasetExtents(datasetId, fileStamp, fileLength, numValid, timeMinMax[0], timeMinMax[1],
+                latMinMax[0], latMinMax[1], lonWestEast[0], lonWestEast[1]);
+    }
+
+    /**
+     * Determines the smallest longitude interval containing all the valid longitudes given.  The longitudes are
+     * sorted after adjusting to [-180,180), and the interval is the complement of the largest gap between
+     * consecutive longitudes, including the gap across the antimeridian.
+     *
+     * @param lons
+     *         longitudes to examine; {@link DashboardUtils#FP_MISSING_VALUE} for missing values
+     *
+     * @return the array { west, east } of the longitude interval, or
+     *         ({@link DashboardUtils#FP_MISSING_VALUE}, {@link DashboardUtils#FP_MISSING_VALUE}) if all
+     *         longitudes are missing.
+     */
+    private static double[] getLongitudeExtents(double[] lons) {
+        double[] stdLons = new double[lons.length];
+        int num = 0;
+        for (double lon : lons) {
+            if ( isMissing(lon) )
+                continue;
+            stdLons[num] = standardLongitude(lon);
+            num++;
+        }
+        if ( num == 0 )
+            return new double[] { DashboardUtils.FP_MISSING_VALUE, DashboardUtils.FP_MISSING_VALUE };
+        Arrays.sort(stdLons, 0, num);
+
+        // Start with the gap across the antimeridian; the interval is then from the first to the last longitude
+        double maxGap = stdLons[0] + 360.0 - stdLons[num - 1];
+        double west = stdLons[0];
+        double east = stdLons[num - 1];
+        for (int k = 1; k < num; k++) {
+            double gap = stdLons[k] - stdLons[k - 1];
+            if ( gap > maxGap ) {
+                maxGap = gap;
+                west = stdLons[k];
+                east = stdLons[k - 1];
+            }
+        }
+        return new double[] { west, east };
+    }
+
+    /**
+     * @return the given longitude adjusted to [-180,180)
+     */
+    private static double standardLongitude(double lon) {
+        double stdLon = lon % 360.0;
+        if ( stdLon < -180.0 )
+            stdLon += 360.0;
+        else if ( stdLon >= 180.0 )
+            stdLon -= 360.0;
+        return stdLon;
+    }
+
+    private static boolean isMissing(double value) {
+        return DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, value,
+                DashboardUtils.MAX_RELATIVE_ERROR, DashboardUtils.MAX_ABSOLUTE_ERROR);
+    }
+
+    /**
+     * @return the ID of the dataset; never null
+     */
+    public String getDatasetId() {
+        return datasetId;
+    }
+
+    /**
+     * @return the last-modified time of the full-data DSG file when these extents were computed
+     */
+    public long getFileStamp() {
+        return fileStamp;
+    }
+
+    /**
+     * @return the length of the full-data DSG file when these extents were computed
+     */
+    public long getFileLength() {
+        return fileLength;
+    }
+
+    /**
+     * Returns whether these extents were computed from the given last-modified time and length of the full-data
+     * DSG file.  Both are compared since the last-modified time only has a resolution of a second on some
+     * file systems.
+     *
+     * @param stamp
+     *         last-modified time of the full-data DSG file
+     * @param length
+     *         length of the full-data DSG file
+     *
+     * @return true if both the last-modified time and the length match those of these extents
+     */
+    public boolean isForFile(long stamp, long length) {
+        return (fileStamp == stamp) && (fileLength == length);
+    }
+
+    /**
+     * @return the number of data points with valid longitude, latitude, and time
+     */
+    public int getNumValid() {
+        return numValid;
+    }
+
+    /**
+     * @return the earliest valid time, in seconds since Jan 1, 1970 00:00:00;
+     *         {@link DashboardUtils#FP_MISSING_VALUE} if there are no valid times
+     */
+    public double getMinTime() {
+        return minTime;
+    }
+
+    /**
+     * @return the latest valid time, in seconds since Jan 1, 1970 00:00:00;
+     *         {@link DashboardUtils#FP_MISSING_VALUE} if there are no valid times
+     */
+    public double getMaxTime() {
+        return maxTime;
+    }
+
+    /**
+     * @return the southern-most valid latitude;
+     *         {@link DashboardUtils#FP_MISSING_VALUE} if there are no valid latitudes
+     */
+    public double getSouthLat() {
+        return southLat;
+    }
+
+    /**
+     * @return the northern-most valid latitude;
+     *         {@link DashboardUtils#FP_MISSING_VALUE} if there are no valid latitudes
+     */
+    public double getNorthLat() {
+        return northLat;
+    }
+
+    /**
+     * @return the western longitude, in [-180,180), of the valid longitudes;
+     *         {@link DashboardUtils#FP_MISSING_VALUE} if there are no valid longitudes
+     */
+    public double getWestLon() {
+        return westLon;
+    }
+
+    /**
+     * @return the eastern longitude, in [-180,180), of the valid longitudes;
+     *         {@link DashboardUtils#FP_MISSING_VALUE} if there are no valid longitudes
+     */
+    public double getEastLon() {
+        return eastLon;
+    }
+
+    /**
+     * @return true if there are valid times
+     */
+    public boolean hasValidTimes() {
+        return !(isMissing(minTime) || isMissing(maxTime));
+    }
+
+    /**
+     * @return true if there are valid latitudes
+     */
+    public boolean hasValidLatitudes() {
+        return !(isMissing(southLat) || isMissing(northLat));
+    }
+
+    /**
+     * @return true if the valid longitudes cross the antimeridian
+     */
+    public boolean crossesAntimeridian() {
+        return !(isMissing(westLon) || isMissing(eastLon)) && (westLon > eastLon);
+    }
+
+    /**
+     * Returns whether the time extents of this dataset and another dataset, each widened by the given amount,
+     * overlap.  Datasets without valid times never overlap.
+     *
+     * @param other
+     *         compare to the time extents of this dataset
+     * @param timeSlack
+     *         allowed gap, in seconds, between the time extents
+     *
+     * @return true if the time extents overlap
+     */
+    public boolean timesOverlap(DatasetExtents other, double timeSlack) {
+        if ( !(hasValidTimes() && other.hasValidTimes()) )
+            return false;
+        if ( (maxTime + timeSlack < other.minTime) || (other.maxTime + timeSlack < minTime) )
+            return false;
+        return true;
+    }
+
+    /**
+     * Returns whether the latitude extents of this dataset and another dataset, each widened by the given amount,
+     * overlap.  Datasets without valid latitudes never overlap.
+     *
+     * @param other
+     *         compare to the latitude extents of this dataset
+     * @param latSlack
+     *         allowed gap, in degrees, between the latitude extents
+     *
+     * @return true if the latitude extents overlap
+     */
+    public boolean latitudesOverlap(DatasetExtents other, double latSlack) {
+        if ( !(hasValidLatitudes() && other.hasValidLatitudes()) )
+            return false;
+        if ( (northLat + latSlack < other.southLat) || (other.northLat + latSlack < southLat) )
+            return false;
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 37;
+        int result = datasetId.hashCode();
+        result = result * prime + Long.valueOf(fileStamp).hashCode();
+        result = result * prime + Long.valueOf(fileLength).hashCode();
+        result = result * prime + numValid;
+        // Ignore floating point values as they do not have to be exactly the same for equals
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj )
+            return true;
+        if ( obj == null )
+            return false;
+
+        if ( !(obj instanceof DatasetExtents) )
+            return false;
+        DatasetExtents other = (DatasetExtents) obj;
+
+        if ( !datasetId.equals(other.datasetId) )
+            return false;
+        if ( fileStamp != other.fileStamp )
+            return false;
+        if ( fileLength != other.fileLength )
+            return false;
+        if ( numValid != other.numValid )
+            return false;
+
+        if ( !DashboardUtils.closeTo(minTime, other.minTime, 0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+            return false;
+        if ( !DashboardUtils.closeTo(maxTime, other.maxTime, 0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+            return false;
+        if ( !DashboardUtils.closeTo(southLat, other.southLat, 0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+            return false;
+        if ( !DashboardUtils.closeTo(northLat, other.northLat, 0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+            return false;
+        if ( !DashboardUtils.closeTo(westLon, other.westLon, 0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+            return false;
+        if ( !DashboardUtils.closeTo(eastLon, other.eastLon, 0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
+            return false;
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "DatasetExtents" +
+                "[ datasetId=" + datasetId +
+                ", fileStamp=" + fileStamp +
+                ", fileLength=" + fileLength +
+                ", numValid=" + numValid +
+                ", minTime=" + minTime +
+                ", maxTime=" + maxTime +
+                ", southLat=" + southLat +
+                ", northLat=" + northLat +
+                ", westLon=" + westLon +
+                ", eastLon=" + eastLon +
+                "]";
+    }
+
+}
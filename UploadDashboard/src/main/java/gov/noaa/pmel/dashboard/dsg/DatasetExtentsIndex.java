@@ -0,0 +1,118 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ * Immutable interval index of the time extents of a collection of datasets, for finding the datasets whose time
+ * extents overlap a given time interval without examining every dataset.  The datasets are ordered by earliest
+ * time, and this ordered array is treated as an implicit balanced binary tree in which each node also records the
+ * latest time of any dataset in its subtree (an augmented interval tree).  A query then only descends into
+ * subtrees which could contain an overlapping dataset.  Datasets without valid times are not indexed.
+ */
+public class DatasetExtentsIndex {
+
+    private final DatasetExtents[] extents;
+    private final double[] minTimes;
+    private final double[] maxTimes;
+    private final double[] subtreeMaxTimes;
+
+    /**
+     * Create an index of the time extents of the given datasets.
+     *
+     * @param datasetExtents
+     *         extents of the datasets to index; datasets without valid times are ignored
+     */
+    public DatasetExtentsIndex(Collection<DatasetExtents> datasetExtents) {
+        ArrayList<DatasetExtents> validExtents = new ArrayList<DatasetExtents>(datasetExtents.size());
+        for (DatasetExtents ext : datasetExtents) {
+            if ( ext.hasValidTimes() )
+                validExtents.add(ext);
+        }
+        Collections.sort(validExtents, new Comparator<DatasetExtents>() {
+            @Override
+            public int compare(DatasetExtents first, DatasetExtents second) {
+                int result = Double.compare(first.getMinTime(), second.getMinTime());
+                if ( result != 0 )
+                    return result;
+                return first.getDatasetId().compareTo(second.getDatasetId());
+            }
+        });
+        int num = validExtents.size();
+        extents = validExtents.toArray(new DatasetExtents[num]);
+        minTimes = new double[num];
+        maxTimes = new double[num];
+        for (int k = 0; k < num; k++) {
+            minTimes[k] = extents[k].getMinTime();
+            maxTimes[k] = extents[k].getMaxTime();
+        }
+        subtreeMaxTimes = new double[num];
+        assignSubtreeMaxTimes(0, num);
+    }
+
+    /**
+     * Assigns the subtree maximum times for the implicit subtree over the indices [lo, hi).
+     *
+     * @return the maximum time in the subtree, or negative infinity if the subtree is empty
+     */
+    private double assignSubtreeMaxTimes(int lo, int hi) {
+        if ( lo >= hi )
+            return Double.NEGATIVE_INFINITY;
+        int mid = (lo + hi) >>> 1;
+        double maxTime = maxTimes[mid];
+        maxTime = Math.max(maxTime, assignSubtreeMaxTimes(lo, mid));
+        maxTime = Math.max(maxTime, assignSubtreeMaxTimes(mid + 1, hi));
+        subtreeMaxTimes[mid] = maxTime;
+        return maxTime;
+    }
+
+    /**
+     * @return the number of datasets in this index
+     */
+    public int size() {
+        return extents.length;
+    }
+
+    /**
+     * Finds the datasets whose time extents overlap the given time interval; that is,
+     * the datasets whose latest time is not before startTime and whose earliest time
+     * is not after endTime.
+     *
+     * @param startTime
+     *         start of the time interval, in seconds since Jan 1, 1970 00:00:00
+     * @param endTime
+     *         end of the time interval, in seconds since Jan 1, 1970 00:00:00
+     *
+     * @return the extents of the overlapping datasets, ordered by earliest time; never null but may be empty
+     */
+    public ArrayList<DatasetExtents> findTimeOverlaps(double startTime, double endTime) {
+        ArrayList<DatasetExtents> overlaps = new ArrayList<DatasetExtents>();
+        if ( startTime <= endTime )
+            addTimeOverlaps(0, extents.length, startTime, endTime, overlaps);
+        return overlaps;
+    }
+
+    /**
+     * Adds the datasets in the implicit subtree over the indices [lo, hi) whose time extents
+     * overlap the given time interval to the given list, in order of earliest time.
+     */
+    private void addTimeOverlaps(int lo, int hi, double startTime, double endTime,
+            ArrayList<DatasetExtents> overlaps) {
+        if ( lo >= hi )
+            return;
+        int mid = (lo + hi) >>> 1;
+        // Nothing in this subtree ends late enough
+        if ( subtreeMaxTimes[mid] < startTime )
+            return;
+        addTimeOverlaps(lo, mid, startTime, endTime, overlaps);
+        // This node, and everything to its right, starts too late
+        if ( minTimes[mid] > endTime )
+            return;
+        if ( maxTimes[mid] >= startTime )
+            overlaps.add(extents[mid]);
+        addTimeOverlaps(mid + 1, hi, startTime, endTime, overlaps);
+    }
+
+}
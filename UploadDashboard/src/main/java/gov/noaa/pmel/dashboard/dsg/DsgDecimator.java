@@ -0,0 +1,374 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import ucar.ma2.Array;
+import ucar.ma2.ArrayInt;
+import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.Attribute;
+import ucar.nc2.Dimension;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.NetcdfFileWriter.Version;
+import ucar.nc2.Variable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Creates decimated-data DSG files from full-data DSG files.  This is a Java implementation of the Ferret script
+ * decimateSOCAT.jnl (the Ferret DECIMATE action): samples are selected by a piecewise-linear approximation of the
+ * longitude, latitude, and recommended fCO2 along the trajectory (as done by the Ferret function PIECEWISE3 with
+ * control parameter 2), then every variable on the observation dimension is sampled at the selected indices.
+ * Variables not on the observation dimension are copied unchanged, except for the observation counts.
+ * <p>
+ * Only the full-data DSG file being decimated is read, and the decimated DSG file is written directly, so multiple
+ * datasets can be decimated concurrently.
+ */
+public class DsgDecimator {
+
+    /**
+     * Tolerances for the deviation of the longitude (degrees), latitude (degrees),
+     * and recommended fCO2 (uatm) from the piecewise-linear approximation
+     */
+    public static final double LONGITUDE_TOLERANCE = 1.0;
+    public static final double LATITUDE_TOLERANCE = 1.0;
+    public static final double FCO2_TOLERANCE = 4.0;
+
+    public static final String SAMPLE_NUMBER_VARNAME = "sample_number";
+    public static final String DECIMATION_ATTRIBUTE = "decimation";
+
+    private static final String DEFAULT_OBS_DIMNAME = "obs";
+    private static final int SAMPLE_NUMBER_MISSING_VALUE = -1;
+
+    /**
+     * Prevent instantiation; all methods are static
+     */
+    private DsgDecimator() {
+    }
+
+    /**
+     * Creates a decimated-data DSG file from a full-data DSG file.  Any existing decimated-data DSG file is
+     * overwritten.
+     *
+     * @param fullDsgFile
+     *         full-data DSG file to decimate
+     * @param decDsgFile
+     *         decimated-data DSG file to create
+     *
+     * @return number of samples in the decimated-data DSG file
+     *
+     * @throws IllegalArgumentException
+     *         if the longitude, latitude, or observation counts are not found in the full-data DSG file
+     * @throws IOException
+     *         if problems reading the full-data DSG file or writing the decimated-data DSG file
+     */
+    public static int decimate(File fullDsgFile, File decDsgFile) throws IllegalArgumentException, IOException {
+        NetcdfFile fullNc = NetcdfFile.open(fullDsgFile.getPath());
+        try {
+            Variable numObsVar = fullNc.findVariable("num_obs");
+            if ( numObsVar == null )
+                throw new IllegalArgumentException("Unable to find num_obs in " + fullDsgFile.getName());
+            Attribute attr = numObsVar.findAttribute("sample_dimension");
+            String obsDimName = ((attr != null) && attr.isString()) ? attr.getStringValue() : DEFAULT_OBS_DIMNAME;
+            Dimension obsDim = fullNc.findDimension(obsDimName);
+            if ( obsDim == null )
+                throw new IllegalArgumentException("Unable to find the " + obsDimName + " dimension in " +
+                        fullDsgFile.getName());
+            int numFull = obsDim.getLength();
+
+            double[] lons = readDoubleValues(fullNc, DashboardServerUtils.LONGITUDE.getVarName(), numFull);
+            if ( lons == null )
+                throw new IllegalArgumentException("Unable to find longitudes in " + fullDsgFile.getName());
+            double[] lats = readDoubleValues(fullNc, DashboardServerUtils.LATITUDE.getVarName(), numFull);
+            if ( lats == null )
+                throw new IllegalArgumentException("Unable to find latitudes in " + fullDsgFile.getName());
+            double[] fco2s = readDoubleValues(fullNc, SocatTypes.FCO2_REC.getVarName(), numFull);
+            if ( fco2s == null )
+                fco2s = new double[numFull];
+
+            int[] samples = selectSamples(chooseLongitudes(lons), lats, fco2s,
+                    LONGITUDE_TOLERANCE, LATITUDE_TOLERANCE, FCO2_TOLERANCE);
+            writeDecimated(fullNc, obsDim, samples, decDsgFile);
+            return samples.length;
+        } finally {
+            fullNc.close();
+        }
+    }
+
+    /**
+     * Returns the indices of the samples selected by a piecewise-linear approximation of three variables along
+     * a trajectory.  The first and last samples are always selected.  A segment between two selected samples is
+     * split at the intermediate sample with the largest deviation from linear interpolation (in sample index)
+     * between the ends of the segment, if that deviation, divided by the tolerance, of any one of the variables
+     * is greater than one.  Missing values (NaN) do not contribute to the deviation.
+     *
+     * @param vals1
+     *         values of the first variable
+     * @param vals2
+     *         values of the second variable
+     * @param vals3
+     *         values of the third variable
+     * @param tol1
+     *         tolerance for the first variable
+     * @param tol2
+     *         tolerance for the second variable
+     * @param tol3
+     *         tolerance for the third variable
+     *
+     * @return indices of the selected samples, in increasing order
+     *
+     * @throws IllegalArgumentException
+     *         if the arrays are not the same length, or if a tolerance is not positive
+     */
+    public static int[] selectSamples(double[] vals1, double[] vals2, double[] vals3,
+            double tol1, double tol2, double tol3) throws IllegalArgumentException {
+        int num = vals1.length;
+        if ( (vals2.length != num) || (vals3.length != num) )
+            throw new IllegalArgumentException("arrays of values are not the same length");
+        if ( !((tol1 > 0.0) && (tol2 > 0.0) && (tol3 > 0.0)) )
+            throw new IllegalArgumentException("tolerances must be positive");
+        if ( num <= 2 ) {
+            int[] samples = new int[num];
+            for (int j = 0; j < num; j++) {
+                samples[j] = j;
+            }
+            return samples;
+        }
+
+        double[][] vals = { vals1, vals2, vals3 };
+        double[] tols = { tol1, tol2, tol3 };
+        boolean[] selected = new boolean[num];
+        selected[0] = true;
+        selected[num - 1] = true;
+        int numSelected = 2;
+
+        // Segments still to be examined, as pairs of start and end indices (avoids deep recursion)
+        int[] stack = new int[64];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        stack[stackSize++] = num - 1;
+        while ( stackSize > 0 ) {
+            int end = stack[--stackSize];
+            int start = stack[--stackSize];
+            if ( end - start < 2 )
+                continue;
+            int splitIdx = -1;
+            double maxDev = 1.0;
+            for (int j = start + 1; j < end; j++) {
+                double frac = (double) (j - start) / (double) (end - start);
+                for (int k = 0; k < 3; k++) {
+                    double startVal = vals[k][start];
+                    double endVal = vals[k][end];
+                    double val = vals[k][j];
+                    if ( Double.isNaN(startVal) || Double.isNaN(endVal) || Double.isNaN(val) )
+                        continue;
+                    double dev = Math.abs(val - (startVal + frac * (endVal - startVal))) / tols[k];
+                    if ( dev > maxDev ) {
+                        maxDev = dev;
+                        splitIdx = j;
+                    }
+                }
+            }
+            if ( splitIdx < 0 )
+                continue;
+            selected[splitIdx] = true;
+            numSelected++;
+            if ( stackSize + 4 > stack.length ) {
+                int[] newStack = new int[2 * stack.length];
+                System.arraycopy(stack, 0, newStack, 0, stackSize);
+                stack = newStack;
+            }
+            stack[stackSize++] = start;
+            stack[stackSize++] = splitIdx;
+            stack[stackSize++] = splitIdx;
+            stack[stackSize++] = end;
+        }
+
+        int[] samples = new int[numSelected];
+        int idx = 0;
+        for (int j = 0; j < num; j++) {
+            if ( selected[j] )
+                samples[idx++] = j;
+        }
+        return samples;
+    }
+
+    /**
+     * Returns the longitudes to use for decimation: the given longitudes, or the longitudes in [0,360) if that
+     * gives a smaller maximum jump between consecutive longitudes (a trajectory crossing the date line).
+     *
+     * @param lons
+     *         longitudes, with NaN for missing values
+     *
+     * @return longitudes to use for decimation
+     */
+    private static double[] chooseLongitudes(double[] lons) {
+        double[] lon360s = new double[lons.length];
+        for (int j = 0; j < lons.length; j++) {
+            lon360s[j] = (lons[j] < 0.0) ? lons[j] + 360.0 : lons[j];
+        }
+        if ( maxJump(lons) < maxJump(lon360s) )
+            return lons;
+        return lon360s;
+    }
+
+    /**
+     * @return the maximum absolute difference between consecutive non-missing values
+     */
+    private static double maxJump(double[] vals) {
+        double maxDiff = 0.0;
+        double last = Double.NaN;
+        for (double val : vals) {
+            if ( Double.isNaN(val) )
+                continue;
+            if ( !Double.isNaN(last) )
+                maxDiff = Math.max(maxDiff, Math.abs(val - last));
+            last = val;
+        }
+        return maxDiff;
+    }
+
+    /**
+     * Reads the values of a one-dimensional numeric variable, returning NaN for missing values
+     * (NaN, infinite, or of magnitude 1.0E30 or larger, as written to the DSG files).
+     *
+     * @return the values of the variable, or null if the variable is not found or does not have the given length
+     */
+    private static double[] readDoubleValues(NetcdfFile ncfile, String varName, int numVals) throws IOException {
+        Variable var = ncfile.findVariable(varName);
+        if ( (var == null) || (var.getRank() != 1) || (var.getShape(0) != numVals) )
+            return null;
+        Array array = var.read();
+        double[] values = new double[numVals];
+        for (int j = 0; j < numVals; j++) {
+            double value = array.getDouble(j);
+            if ( Double.isInfinite(value) || (Math.abs(value) >= 1.0E30) )
+                value = Double.NaN;
+            values[j] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Writes the decimated-data DSG file containing the selected samples of the full-data DSG file.
+     */
+    private static void writeDecimated(NetcdfFile fullNc, Dimension fullObsDim, int[] samples, File decDsgFile)
+            throws IOException {
+        int numFull = fullObsDim.getLength();
+        int numDec = samples.length;
+        NetcdfFileWriter decNc = NetcdfFileWriter.createNew(Version.netcdf3, decDsgFile.getPath());
+        try {
+            for (Attribute attr : fullNc.getGlobalAttributes()) {
+                if ( !DECIMATION_ATTRIBUTE.equals(attr.getShortName()) )
+                    decNc.addGroupAttribute(null, attr);
+            }
+            decNc.addGroupAttribute(null, new Attribute(DECIMATION_ATTRIBUTE, numFull +
+                    " original number of obs. Piecewise decimated to " + numDec +
+                    " obs using tolerances: lon " + LONGITUDE_TOLERANCE + ", lat " + LATITUDE_TOLERANCE +
+                    ", fco2_rec " + FCO2_TOLERANCE));
+
+            HashMap<String,Dimension> decDims = new HashMap<String,Dimension>();
+            Dimension decObsDim = null;
+            for (Dimension dim : fullNc.getDimensions()) {
+                int length = (dim == fullObsDim) ? numDec : dim.getLength();
+                Dimension decDim = decNc.addDimension(null, dim.getShortName(), length);
+                decDims.put(dim.getShortName(), decDim);
+                if ( dim == fullObsDim )
+                    decObsDim = decDim;
+            }
+
+            ArrayList<Variable> fullVars = new ArrayList<Variable>();
+            ArrayList<Variable> decVars = new ArrayList<Variable>();
+            for (Variable fullVar : fullNc.getVariables()) {
+                ArrayList<Dimension> dims = new ArrayList<Dimension>(fullVar.getRank());
+                for (Dimension dim : fullVar.getDimensions()) {
+                    dims.add(decDims.get(dim.getShortName()));
+                }
+                Variable decVar = decNc.addVariable(null, fullVar.getShortName(), fullVar.getDataType(), dims);
+                for (Attribute attr : fullVar.getAttributes()) {
+                    if ( DsgNcFile.NOBS_DECI_VARNAME.equals(fullVar.getShortName()) &&
+                            "note".equals(attr.getShortName()) )
+                        continue;
+                    decNc.addVariableAttribute(decVar, attr);
+                }
+                if ( DsgNcFile.NOBS_DECI_VARNAME.equals(fullVar.getShortName()) )
+                    decNc.addVariableAttribute(decVar, new Attribute("note", "Piecewise decimated"));
+                fullVars.add(fullVar);
+                decVars.add(decVar);
+            }
+
+            ArrayList<Dimension> obsDims = new ArrayList<Dimension>(1);
+            obsDims.add(decObsDim);
+            Variable sampleNumVar = null;
+            if ( fullNc.findVariable(SAMPLE_NUMBER_VARNAME) == null ) {
+                sampleNumVar = decNc.addVariable(null, SAMPLE_NUMBER_VARNAME, DataType.INT, obsDims);
+                decNc.addVariableAttribute(sampleNumVar,
+                        new Attribute("missing_value", SAMPLE_NUMBER_MISSING_VALUE));
+                decNc.addVariableAttribute(sampleNumVar,
+                        new Attribute("_FillValue", SAMPLE_NUMBER_MISSING_VALUE));
+                decNc.addVariableAttribute(sampleNumVar,
+                        new Attribute("long_name", "sequence number for decimated dataset"));
+            }
+
+            decNc.create();
+
+            for (int k = 0; k < fullVars.size(); k++) {
+                Variable fullVar = fullVars.get(k);
+                Variable decVar = decVars.get(k);
+                String varName = fullVar.getShortName();
+                Array values;
+                if ( "num_obs".equals(varName) || DsgNcFile.NOBS_DECI_VARNAME.equals(varName) ) {
+                    values = Array.factory(fullVar.getDataType(), fullVar.getShape());
+                    for (int j = 0; j < values.getSize(); j++) {
+                        values.setInt(j, numDec);
+                    }
+                }
+                else if ( (fullVar.getRank() > 0) && (fullVar.getDimension(0) == fullObsDim) ) {
+                    values = sampleRows(fullVar.read(), samples);
+                }
+                else {
+                    values = fullVar.read();
+                }
+                decNc.write(decVar, values);
+            }
+
+            if ( sampleNumVar != null ) {
+                ArrayInt.D1 sampleNums = new ArrayInt.D1(numDec);
+                for (int j = 0; j < numDec; j++) {
+                    sampleNums.set(j, j + 1);
+                }
+                decNc.write(sampleNumVar, sampleNums);
+            }
+        } catch ( InvalidRangeException ex ) {
+            throw new IOException("Unexpected invalid range writing " + decDsgFile.getName(), ex);
+        } finally {
+            decNc.close();
+        }
+    }
+
+    /**
+     * @return new array of the rows (indices along the first dimension) of the given array at the given indices
+     */
+    private static Array sampleRows(Array fullValues, int[] samples) {
+        int[] shape = fullValues.getShape();
+        long rowSize = 1;
+        for (int d = 1; d < shape.length; d++) {
+            rowSize *= shape[d];
+        }
+        shape[0] = samples.length;
+        Array decValues = Array.factory(fullValues.getDataType(), shape);
+        for (int j = 0; j < samples.length; j++) {
+            long fullStart = samples[j] * rowSize;
+            long decStart = j * rowSize;
+            for (int m = 0; m < rowSize; m++) {
+                decValues.setObject((int) (decStart + m), fullValues.getObject((int) (fullStart + m)));
+            }
+        }
+        return decValues;
+    }
+
+}
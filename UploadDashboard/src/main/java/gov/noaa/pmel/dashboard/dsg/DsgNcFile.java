@@ -11,6 +11,7 @@ import gov.noaa.pmel.dashboard.qc.DataQCEvent;
 import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DatasetQCStatus;
+import ucar.ma2.Array;
 import ucar.ma2.ArrayChar;
 import ucar.ma2.ArrayDouble;
 import ucar.ma2.ArrayInt;
@@ -26,7 +27,11 @@ import ucar.nc2.Variable;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.TreeSet;
@@ -50,8 +55,16 @@ public class DsgNcFile extends File {
      */
     public static final double MIN_LAT_DIFF = 0.0001;
 
+    /**
+     * Names of the trajectory variables giving the number of samples in the full and decimated data
+     */
+    public static final String NOBS_FULL_VARNAME = "nobs_full";
+    public static final String NOBS_DECI_VARNAME = "nobs_deci";
+
     private static final String DSG_VERSION = "DsgNcFile 2.0";
     private static final String TIME_ORIGIN_ATTRIBUTE = "01-JAN-1970 00:00:00";
+    // Maximum number of samples of a data variable written at one time
+    private static final int WRITE_CHUNK_SIZE = 4096;
 
     private DsgMetadata metadata;
     private StdDataArray stddata;
@@ -175,6 +188,34 @@ public class DsgNcFile extends File {
      */
     public void createFromFileData(DsgMetadata metadata, StdDataArray filedata, KnownDataTypes dataFileTypes)
             throws IllegalArgumentException, IOException, InvalidRangeException {
+        createFromFileData(metadata, filedata, dataFileTypes, false);
+    }
+
+    /**
+     * Creates this NetCDF DSG file with the given metadata and standardized data for data files.
+     * The internal metadata and stddata references are updated to the given DsgMetadata and StdDataArray object.
+     * If requested, the trajectory variables nobs_full and nobs_deci, both assigned the number of samples,
+     * are also added (as done by Ferret when adding the computed variables).
+     *
+     * @param metadata
+     *         metadata for the dataset; the DSG file will be created with exactly the metadata types it contains
+     * @param filedata
+     *         standardized data appropriate for data files
+     * @param dataFileTypes
+     *         all known data types for file data variables; the DSG file will be created with all these data types.
+     *         Any types not given in fileData will filled with appropriate missing values.
+     * @param addObsCounts
+     *         add the nobs_full and nobs_deci variables?
+     *
+     * @throws IllegalArgumentException
+     *         if either argument is null or invalid
+     * @throws IOException
+     *         if creating the NetCDF file throws one
+     * @throws InvalidRangeException
+     *         if creating the NetCDF file throws one
+     */
+    public void createFromFileData(DsgMetadata metadata, StdDataArray filedata, KnownDataTypes dataFileTypes,
+            boolean addObsCounts) throws IllegalArgumentException, IOException, InvalidRangeException {
         if ( metadata == null )
             throw new IllegalArgumentException("no metadata given");
         this.metadata = metadata;
@@ -227,6 +268,19 @@ public class DsgNcFile extends File {
             ncfile.addVariableAttribute(var, new Attribute("missing_value", DashboardUtils.INT_MISSING_VALUE));
             ncfile.addVariableAttribute(var, new Attribute("_FillValue", DashboardUtils.INT_MISSING_VALUE));
 
+            if ( addObsCounts ) {
+                // Both are needed so the set of variables is identical to that in the decimated DSG files
+                var = ncfile.addVariable(null, NOBS_FULL_VARNAME, DataType.INT, trajDims);
+                ncfile.addVariableAttribute(var, new Attribute("long_name", "Count in original trajectory"));
+                ncfile.addVariableAttribute(var, new Attribute("missing_value", DashboardUtils.INT_MISSING_VALUE));
+                ncfile.addVariableAttribute(var, new Attribute("_FillValue", DashboardUtils.INT_MISSING_VALUE));
+                var = ncfile.addVariable(null, NOBS_DECI_VARNAME, DataType.INT, trajDims);
+                ncfile.addVariableAttribute(var, new Attribute("long_name", "Count in decimated trajectory"));
+                ncfile.addVariableAttribute(var, new Attribute("missing_value", DashboardUtils.INT_MISSING_VALUE));
+                ncfile.addVariableAttribute(var, new Attribute("_FillValue", DashboardUtils.INT_MISSING_VALUE));
+                ncfile.addVariableAttribute(var, new Attribute("note", "This dataset is not decimated"));
+            }
+
             String varName;
             // Make netCDF variables of all the metadata and data variables
             for (DashDataType<?> dtype : metadata.valuesMap.keySet()) {
@@ -304,6 +358,14 @@ public class DsgNcFile extends File {
             ArrayInt.D1 obscount = new ArrayInt.D1(1);
             obscount.set(0, numSamples);
             ncfile.write(var, obscount);
+            if ( addObsCounts ) {
+                for (String obsVarName : new String[] { NOBS_FULL_VARNAME, NOBS_DECI_VARNAME }) {
+                    var = ncfile.findVariable(obsVarName);
+                    if ( var == null )
+                        throw new RuntimeException("Unexpected failure to find ncfile variable " + obsVarName);
+                    ncfile.write(var, obscount);
+                }
+            }
 
             for (Entry<DashDataType<?>,Object> entry : metadata.getValuesMap().entrySet()) {
                 DashDataType<?> dtype = entry.getKey();
@@ -345,14 +407,21 @@ public class DsgNcFile extends File {
                 }
             }
 
+            // Write the data variables in sections so only a chunk of each variable is ever held in memory;
+            // the buffers for each type of variable are created once and reused for all variables of that type
+            int chunkSize = Math.min(numSamples, WRITE_CHUNK_SIZE);
+            ArrayChar.D2 charBuffer = null;
+            String[] stringBuffer = null;
+            ArrayInt.D1 intBuffer = null;
+            ArrayDouble.D1 doubleBuffer = null;
             List<DashDataType<?>> dataTypes = stddata.getDataTypes();
-            // for (int k = 0; k < stddata.getNumDataCols(); k++) {
             for (DashDataType<?> dtype : knownDataTypes) {
                 varName = dtype.getVarName();
                 var = ncfile.findVariable(varName);
                 if ( var == null )
                     throw new RuntimeException("Unexpected failure to find ncfile variable " + varName);
                 int k = dataTypes.indexOf(dtype);
+                StdDataColumn column = (k >= 0) ? stddata.getStdColumn(k) : null;
 
                 if ( dtype instanceof StringDashDataType ) {
                     String missVal;
@@ -364,57 +433,49 @@ public class DsgNcFile extends File {
                     else
                         missVal = DashboardUtils.STRING_MISSING_VALUE;
                     // Data Stings
-                    ArrayChar.D2 dvar = new ArrayChar.D2(numSamples, maxDataChar);
-                    if ( k >= 0 ) {
-                        for (int j = 0; j < numSamples; j++) {
-                            String dvalue = (String) stddata.getStdVal(j, k);
-                            if ( dvalue == null )
-                                dvalue = missVal;
-                            dvar.setString(j, dvalue.trim());
-                        }
+                    if ( charBuffer == null ) {
+                        charBuffer = new ArrayChar.D2(chunkSize, maxDataChar);
+                        stringBuffer = new String[chunkSize];
                     }
-                    else {
-                        for (int j = 0; j < numSamples; j++) {
-                            dvar.setString(j, missVal);
+                    for (int start = 0; start < numSamples; start += chunkSize) {
+                        int count = Math.min(chunkSize, numSamples - start);
+                        if ( column != null )
+                            column.copyStrings(start, count, missVal, stringBuffer);
+                        else
+                            Arrays.fill(stringBuffer, 0, count, missVal);
+                        for (int j = 0; j < count; j++) {
+                            charBuffer.setString(j, stringBuffer[j].trim());
                         }
+                        writeDataSection(ncfile, var, charBuffer, start, count);
                     }
-                    ncfile.write(var, dvar);
                 }
                 else if ( dtype instanceof IntDashDataType ) {
                     // Data Integers
-                    ArrayInt.D1 dvar = new ArrayInt.D1(numSamples);
-                    if ( k >= 0 ) {
-                        for (int j = 0; j < numSamples; j++) {
-                            Integer dvalue = (Integer) stddata.getStdVal(j, k);
-                            if ( dvalue == null )
-                                dvalue = DashboardUtils.INT_MISSING_VALUE;
-                            dvar.set(j, dvalue);
-                        }
-                    }
-                    else {
-                        for (int j = 0; j < numSamples; j++) {
-                            dvar.set(j, DashboardUtils.INT_MISSING_VALUE);
-                        }
+                    if ( intBuffer == null )
+                        intBuffer = new ArrayInt.D1(chunkSize);
+                    int[] dvalues = (int[]) intBuffer.getStorage();
+                    for (int start = 0; start < numSamples; start += chunkSize) {
+                        int count = Math.min(chunkSize, numSamples - start);
+                        if ( column != null )
+                            column.copyInts(start, count, DashboardUtils.INT_MISSING_VALUE, dvalues);
+                        else
+                            Arrays.fill(dvalues, 0, count, DashboardUtils.INT_MISSING_VALUE);
+                        writeDataSection(ncfile, var, intBuffer, start, count);
                     }
-                    ncfile.write(var, dvar);
                 }
                 else if ( dtype instanceof DoubleDashDataType ) {
                     // Data Doubles
-                    ArrayDouble.D1 dvar = new ArrayDouble.D1(numSamples);
-                    if ( k >= 0 ) {
-                        for (int j = 0; j < numSamples; j++) {
-                            Double dvalue = (Double) stddata.getStdVal(j, k);
-                            if ( (dvalue == null) || dvalue.isNaN() || dvalue.isInfinite() )
-                                dvalue = DashboardUtils.FP_MISSING_VALUE;
-                            dvar.set(j, dvalue);
-                        }
-                    }
-                    else {
-                        for (int j = 0; j < numSamples; j++) {
-                            dvar.set(j, DashboardUtils.FP_MISSING_VALUE);
-                        }
+                    if ( doubleBuffer == null )
+                        doubleBuffer = new ArrayDouble.D1(chunkSize);
+                    double[] dvalues = (double[]) doubleBuffer.getStorage();
+                    for (int start = 0; start < numSamples; start += chunkSize) {
+                        int count = Math.min(chunkSize, numSamples - start);
+                        if ( column != null )
+                            column.copyDoubles(start, count, DashboardUtils.FP_MISSING_VALUE, dvalues);
+                        else
+                            Arrays.fill(dvalues, 0, count, DashboardUtils.FP_MISSING_VALUE);
+                        writeDataSection(ncfile, var, doubleBuffer, start, count);
                     }
-                    ncfile.write(var, dvar);
                 }
                 else {
                     // Should have been caught above
@@ -427,6 +488,40 @@ public class DsgNcFile extends File {
         }
     }
 
+    /**
+     * Writes the leading samples of a buffer to a section of a data variable.
+     *
+     * @param ncfile
+     *         NetCDF file being written
+     * @param var
+     *         data variable to write; the first dimension is the samples dimension
+     * @param buffer
+     *         values to write; the first dimension is the samples dimension, with any additional dimension
+     *         the same as that of the variable
+     * @param start
+     *         index of the first sample of the variable to write
+     * @param count
+     *         number of samples to write from the start of the buffer
+     *
+     * @throws IOException
+     *         if writing to the NetCDF file throws one
+     * @throws InvalidRangeException
+     *         if the section is not valid for the variable
+     */
+    private static void writeDataSection(NetcdfFileWriter ncfile, Variable var, Array buffer, int start, int count)
+            throws IOException, InvalidRangeException {
+        int[] shape = buffer.getShape();
+        int[] origin = new int[shape.length];
+        Array section = buffer;
+        if ( count < shape[0] ) {
+            // Only the first count samples of the buffer (the last section of the variable)
+            shape[0] = count;
+            section = buffer.sectionNoReduce(origin, shape, null);
+        }
+        origin[0] = start;
+        ncfile.write(var, origin, section);
+    }
+
     /**
      * Creates and assigns the internal metadata reference from the contents of this netCDF DSG file.
      *
@@ -529,18 +624,20 @@ public class DsgNcFile extends File {
                 throw new IOException("unable to find variable 'time' in " + getName());
             int numSamples = var.getShape(0);
 
-            // Create the array of data values
-            Object[][] dataArray = new Object[numSamples][numColumns];
+            // Create the columns of data values; all values are initially missing
+            StdDataColumn[] dataColumns = new StdDataColumn[numColumns];
 
             for (int k = 0; k < numColumns; k++) {
                 DashDataType<?> dtype = dataTypesArray[k];
                 varName = dtype.getVarName();
                 var = ncfile.findVariable(varName);
+                if ( !((dtype instanceof StringDashDataType) || (dtype instanceof IntDashDataType) ||
+                        (dtype instanceof DoubleDashDataType)) )
+                    throw new IllegalArgumentException("invalid data file type " + dtype.toString());
+                StdDataColumn column = new StdDataColumn(dtype, numSamples);
+                dataColumns[k] = column;
                 if ( var == null ) {
                     namesNotFound.add(varName);
-                    for (int j = 0; j < numSamples; j++) {
-                        dataArray[j][k] = null;
-                    }
                     continue;
                 }
 
@@ -553,38 +650,32 @@ public class DsgNcFile extends File {
                     ArrayChar.D2 dvar = (ArrayChar.D2) var.read();
                     for (int j = 0; j < numSamples; j++) {
                         String strval = dvar.getString(j).trim();
-                        if ( DashboardUtils.STRING_MISSING_VALUE.equals(strval) )
-                            dataArray[j][k] = null;
-                        else
-                            dataArray[j][k] = strval;
+                        if ( !DashboardUtils.STRING_MISSING_VALUE.equals(strval) )
+                            column.setString(j, strval);
                     }
                 }
                 else if ( dtype instanceof IntDashDataType ) {
-                    ArrayInt.D1 dvar = (ArrayInt.D1) var.read();
+                    // Copy the whole column, then mark the missing values
+                    int[] intvals = (int[]) var.read().get1DJavaArray(int.class);
+                    column.setInts(intvals);
+                    int intMissVal = DashboardUtils.INT_MISSING_VALUE;
                     for (int j = 0; j < numSamples; j++) {
-                        Integer intval = dvar.get(j);
-                        if ( DashboardUtils.INT_MISSING_VALUE.equals(intval) )
-                            dataArray[j][k] = null;
-                        else
-                            dataArray[j][k] = intval;
+                        if ( intvals[j] == intMissVal )
+                            column.setMissing(j);
                     }
                 }
-                else if ( dtype instanceof DoubleDashDataType ) {
-                    ArrayDouble.D1 dvar = (ArrayDouble.D1) var.read();
+                else {
+                    // Copy the whole column, then mark the missing values
+                    double[] dblvals = (double[]) var.read().get1DJavaArray(double.class);
+                    column.setDoubles(dblvals);
+                    double dblMissVal = DashboardUtils.FP_MISSING_VALUE;
                     for (int j = 0; j < numSamples; j++) {
-                        Double dblval = dvar.get(j);
-                        if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, dblval,
-                                0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
-                            dataArray[j][k] = null;
-                        else
-                            dataArray[j][k] = dblval;
+                        if ( Math.abs(dblvals[j] - dblMissVal) < DashboardUtils.MAX_ABSOLUTE_ERROR )
+                            column.setMissing(j);
                     }
                 }
-                else {
-                    throw new IllegalArgumentException("invalid data file type " + dtype.toString());
-                }
             }
-            stddata = new StdDataArray(dataTypesArray, dataArray);
+            stddata = new StdDataArray(dataTypesArray, dataColumns);
         } finally {
             ncfile.close();
         }
@@ -1009,6 +1100,27 @@ public class DsgNcFile extends File {
         }
     }
 
+    /**
+     * Generates the all_region_ids metadata value from region_id data values.
+     *
+     * @param regionIDs
+     *         region_id data values; null or blank values are ignored
+     *
+     * @return the String of sorted unique region IDs; never null but may be empty
+     */
+    public static String getAllRegionIDs(String[] regionIDs) {
+        TreeSet<String> allRegionIDsSet = new TreeSet<String>();
+        for (String id : regionIDs) {
+            if ( id != null )
+                allRegionIDsSet.add(id.trim());
+        }
+        StringBuilder builder = new StringBuilder();
+        for (String id : allRegionIDsSet) {
+            builder.append(id);
+        }
+        return builder.toString();
+    }
+
     /**
      * Updates the all_region_ids metadata variable in this DSG file.
      *
@@ -1031,14 +1143,7 @@ public class DsgNcFile extends File {
         if ( (newValue == null) || newValue.trim().isEmpty() ) {
             // Generate the String of sorted unique IDs
             String[] regionIDs = readStringVarDataValues(DashboardServerUtils.REGION_ID.getVarName());
-            TreeSet<String> allRegionIDsSet = new TreeSet<String>();
-            for (String id : regionIDs) {
-                allRegionIDsSet.add(id.trim());
-            }
-            allRegionIDs = "";
-            for (String id : allRegionIDsSet) {
-                allRegionIDs += id;
-            }
+            allRegionIDs = getAllRegionIDs(regionIDs);
             if ( allRegionIDs.isEmpty() )
                 throw new IllegalArgumentException("No region IDs given");
         }
@@ -1082,7 +1187,32 @@ public class DsgNcFile extends File {
      */
     public ArrayList<DataLocation> updateDataQCFlags(DataQCEvent woceEvent, boolean updateWoceEvent)
             throws IllegalArgumentException, IOException {
-        ArrayList<DataLocation> unidentified = new ArrayList<DataLocation>();
+        return updateDataQCFlags(Collections.singletonList(woceEvent), updateWoceEvent).get(0);
+    }
+
+    /**
+     * Updates this DSG file with the given data QC flags.  The DSG file is opened once, the longitudes, latitudes,
+     * times, and any data and data QC flag variables used are read once, the flags from all the events are applied
+     * in order to the values in memory, and each modified data QC flag variable is written once.
+     * Optionally, will also update the row number in the data QC flags from the data in this DSG file.
+     *
+     * @param woceEvents
+     *         data QC flags to set, in the order they are to be applied
+     * @param updateWoceEvents
+     *         if true, update the row numbers in the data QC flags from this DSG file
+     *
+     * @return for each data QC event, in the order given, the list of the data locations of that event not found
+     *         in this DSG file; never null, and none of the lists are null, but they may be empty
+     *
+     * @throws IllegalArgumentException
+     *         if the DSG file or the data QC flags are not valid
+     * @throws IOException
+     *         if opening, reading from, or writing to the DSG file throws one
+     */
+    public ArrayList<ArrayList<DataLocation>> updateDataQCFlags(List<DataQCEvent> woceEvents,
+            boolean updateWoceEvents) throws IllegalArgumentException, IOException {
+        ArrayList<ArrayList<DataLocation>> unidentifiedList =
+                new ArrayList<ArrayList<DataLocation>>(woceEvents.size());
         NetcdfFileWriter ncfile = NetcdfFileWriter.openExisting(getPath());
         try {
 
@@ -1104,75 +1234,122 @@ public class DsgNcFile extends File {
                 throw new IllegalArgumentException("Unable to find variable '" + varName + "' in " + getName());
             ArrayDouble.D1 times = (ArrayDouble.D1) var.read();
 
-            String dataname = woceEvent.getVarName();
-            ArrayDouble.D1 datavalues;
-            if ( DashboardUtils.STRING_MISSING_VALUE.equals(dataname) ) {
-                // WOCE based on longitude/latitude/time
-                datavalues = null;
-            }
-            else {
-                var = ncfile.findVariable(dataname);
-                if ( var == null )
-                    throw new IllegalArgumentException("Unable to find variable '" + dataname + "' in " + getName());
-                datavalues = (ArrayDouble.D1) var.read();
-            }
+            // Data values and data QC flags read from the file, keyed by variable name
+            HashMap<String,ArrayDouble.D1> dataValuesMap = new HashMap<String,ArrayDouble.D1>();
+            LinkedHashMap<String,ArrayChar.D2> woceValuesMap = new LinkedHashMap<String,ArrayChar.D2>();
 
-            varName = woceEvent.getFlagName();
-            Variable wocevar = ncfile.findVariable(varName);
-            if ( wocevar == null )
-                throw new IllegalArgumentException("Unable to find variable '" + varName + "' in " + getName());
-            ArrayChar.D2 wocevalues = (ArrayChar.D2) wocevar.read();
-
-            String newFlag = woceEvent.getFlagValue();
-
-            // Identify the data points using a round-robin search
-            // just in case there is more than one matching point
-            int startIdx = 0;
-            int arraySize = (int) times.getSize();
-            HashSet<Integer> assignedRowIndices = new HashSet<Integer>();
-            for (DataLocation dataloc : woceEvent.getLocations()) {
-                boolean valueFound = false;
-                int idx;
-                for (idx = startIdx; idx < arraySize; idx++) {
-                    if ( dataMatches(dataloc, longitudes, latitudes, times, datavalues, idx) ) {
-                        if ( assignedRowIndices.add(idx) ) {
-                            valueFound = true;
-                            break;
-                        }
-                    }
+            for (DataQCEvent woceEvent : woceEvents) {
+                String dataname = woceEvent.getVarName();
+                ArrayDouble.D1 datavalues;
+                if ( DashboardUtils.STRING_MISSING_VALUE.equals(dataname) ) {
+                    // WOCE based on longitude/latitude/time
+                    datavalues = null;
                 }
-                if ( idx >= arraySize ) {
-                    for (idx = 0; idx < startIdx; idx++) {
-                        if ( dataMatches(dataloc, longitudes, latitudes, times, datavalues, idx) ) {
-                            if ( assignedRowIndices.add(idx) ) {
-                                valueFound = true;
-                                break;
-                            }
-                        }
-                    }
-                }
-                if ( valueFound ) {
-                    wocevalues.setString(idx, newFlag.trim());
-                    if ( updateWoceEvent ) {
-                        dataloc.setRowNumber(idx + 1);
+                else {
+                    datavalues = dataValuesMap.get(dataname);
+                    if ( datavalues == null ) {
+                        var = ncfile.findVariable(dataname);
+                        if ( var == null )
+                            throw new IllegalArgumentException("Unable to find variable '" +
+                                    dataname + "' in " + getName());
+                        datavalues = (ArrayDouble.D1) var.read();
+                        dataValuesMap.put(dataname, datavalues);
                     }
-                    // Start the next search from the next data point
-                    startIdx = idx + 1;
                 }
-                else {
-                    unidentified.add(dataloc);
+
+                varName = woceEvent.getFlagName();
+                ArrayChar.D2 wocevalues = woceValuesMap.get(varName);
+                if ( wocevalues == null ) {
+                    var = ncfile.findVariable(varName);
+                    if ( var == null )
+                        throw new IllegalArgumentException("Unable to find variable '" +
+                                varName + "' in " + getName());
+                    wocevalues = (ArrayChar.D2) var.read();
+                    woceValuesMap.put(varName, wocevalues);
                 }
+
+                unidentifiedList.add(assignDataQCFlags(woceEvent, updateWoceEvents,
+                        longitudes, latitudes, times, datavalues, wocevalues));
             }
 
-            // Save the updated WOCE flags to the DSG file
+            // Save each of the updated WOCE flag variables to the DSG file
             try {
-                ncfile.write(wocevar, wocevalues);
+                for (Entry<String,ArrayChar.D2> entry : woceValuesMap.entrySet()) {
+                    ncfile.write(ncfile.findVariable(entry.getKey()), entry.getValue());
+                }
             } catch ( InvalidRangeException ex ) {
                 throw new IOException(ex);
             }
         } finally {
             ncfile.close();
         }
+        return unidentifiedList;
+    }
+
+    /**
+     * Assigns the data QC flag of a data QC event to the matching data points in an array of data QC flags.
+     *
+     * @param woceEvent
+     *         data QC flags to set
+     * @param updateWoceEvent
+     *         if true, update the row numbers in the data QC flags from the matching data points
+     * @param longitudes
+     *         array of longitudes to use
+     * @param latitudes
+     *         array of latitudes to use
+     * @param times
+     *         array of times (seconds since 1970-01-01 00:00:00) to use
+     * @param datavalues
+     *         if not null, array of data values to use
+     * @param wocevalues
+     *         array of data QC flags to update
+     *
+     * @return list of the data QC event data locations not found; never null but may be empty
+     */
+    private ArrayList<DataLocation> assignDataQCFlags(DataQCEvent woceEvent, boolean updateWoceEvent,
+            ArrayDouble.D1 longitudes, ArrayDouble.D1 latitudes, ArrayDouble.D1 times,
+            ArrayDouble.D1 datavalues, ArrayChar.D2 wocevalues) {
+        ArrayList<DataLocation> unidentified = new ArrayList<DataLocation>();
+        String newFlag = woceEvent.getFlagValue();
+
+        // Identify the data points using a round-robin search
+        // just in case there is more than one matching point
+        int startIdx = 0;
+        int arraySize = (int) times.getSize();
+        HashSet<Integer> assignedRowIndices = new HashSet<Integer>();
+        for (DataLocation dataloc : woceEvent.getLocations()) {
+            boolean valueFound = false;
+            int idx;
+            for (idx = startIdx; idx < arraySize; idx++) {
+                if ( dataMatches(dataloc, longitudes, latitudes, times, datavalues, idx) ) {
+                    if ( assignedRowIndices.add(idx) ) {
+                        valueFound = true;
+                        break;
+                    }
+                }
+            }
+            if ( idx >= arraySize ) {
+                for (idx = 0; idx < startIdx; idx++) {
+                    if ( dataMatches(dataloc, longitudes, latitudes, times, datavalues, idx) ) {
+                        if ( assignedRowIndices.add(idx) ) {
+                            valueFound = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            if ( valueFound ) {
+                wocevalues.setString(idx, newFlag.trim());
+                if ( updateWoceEvent ) {
+                    dataloc.setRowNumber(idx + 1);
+                }
+                // Start the next search from the next data point
+                startIdx = idx + 1;
+            }
+            else {
+                unidentified.add(dataloc);
+            }
+        }
         return unidentified;
     }
 
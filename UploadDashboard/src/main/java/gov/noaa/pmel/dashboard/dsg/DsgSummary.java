@@ -0,0 +1,70 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+/**
+ * Summary of a full-data DSG file obtained while the file was written, so the freshly written file
+ * does not need to be re-read for this information.
+ */
+public class DsgSummary {
+
+    private final int numSamples;
+    private final String allRegionIds;
+    private final DatasetExtents extents;
+
+    /**
+     * Create with the given values.
+     *
+     * @param numSamples
+     *         number of data samples written to the DSG file
+     * @param allRegionIds
+     *         the all_region_ids value assigned in the DSG file
+     * @param extents
+     *         time, latitude, and longitude extents of the data written to the DSG file
+     *
+     * @throws IllegalArgumentException
+     *         if the number of samples is negative, or if the region IDs or extents are null
+     */
+    public DsgSummary(int numSamples, String allRegionIds, DatasetExtents extents)
+            throws IllegalArgumentException {
+        if ( numSamples < 0 )
+            throw new IllegalArgumentException("invalid number of samples: " + numSamples);
+        if ( allRegionIds == null )
+            throw new IllegalArgumentException("no region IDs given");
+        if ( extents == null )
+            throw new IllegalArgumentException("no extents given");
+        this.numSamples = numSamples;
+        this.allRegionIds = allRegionIds;
+        this.extents = extents;
+    }
+
+    /**
+     * @return the number of data samples written to the DSG file
+     */
+    public int getNumSamples() {
+        return numSamples;
+    }
+
+    /**
+     * @return the all_region_ids value (sorted unique region IDs) assigned in the DSG file; never null
+     */
+    public String getAllRegionIds() {
+        return allRegionIds;
+    }
+
+    /**
+     * @return the time, latitude, and longitude extents, with the number of data samples
+     *         with valid longitude, latitude, and time, of the data written; never null
+     */
+    public DatasetExtents getExtents() {
+        return extents;
+    }
+
+    @Override
+    public String toString() {
+        return "DsgSummary" +
+                "[ numSamples=" + numSamples +
+                ", allRegionIds=" + allRegionIds +
+                ", extents=" + extents +
+                "]";
+    }
+
+}
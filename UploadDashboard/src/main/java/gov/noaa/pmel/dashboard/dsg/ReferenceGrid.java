@@ -0,0 +1,578 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.Attribute;
+import ucar.nc2.Dimension;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A gridded reference variable (climatology, reanalysis, bathymetry, or mask) in a NetCDF file which is sampled at
+ * data locations in the manner of the Ferret sampling functions (SAMPLEXY, SAMPLEXYT, SAMPLEXY_CLOSEST, and
+ * SAMPLEXYT_NRST) used in the scripts adding computed variables to DSG files.  The longitude, latitude, and time
+ * axes are identified from the coordinate variables of the dimensions of the gridded variable; any of these axes
+ * may be absent, in which case the grid is constant along that direction.  Any other dimension (such as depth) is
+ * sampled at its first index.  A longitude axis with a "modulo" attribute, or spanning 360 degrees, is treated
+ * as periodic.
+ * <p>
+ * Values are read from the NetCDF file in tiles as needed, and the most recently used tiles are kept in memory,
+ * so sampling along a cruise track only reads the small part of the grid near the track.  Packed values are
+ * unpacked using the scale_factor and add_offset attributes, and values matching the _FillValue or missing_value
+ * attributes are returned as NaN.  All sampling methods are thread-safe.
+ */
+public class ReferenceGrid {
+
+    /**
+     * Number of indices along each horizontal axis in a tile of grid values read at one time
+     */
+    private static final int TILE_SIZE = 64;
+
+    /**
+     * Maximum number of tiles of grid values kept in memory
+     */
+    private static final int MAX_NUM_TILES = 64;
+
+    private static final Pattern TIME_UNITS_PATTERN = Pattern.compile(
+            "\\s*(\\p{Alpha}+)\\s+since\\s+(-?\\d+)-(\\d+)-(\\d+)" +
+                    "(?:[T\\s]+(\\d+):(\\d+)(?::(\\d+(?:\\.\\d*)?))?)?.*");
+
+    private static final List<String> EAST_UNITS = Arrays.asList(
+            "degrees_east", "degree_east", "degrees_e", "degree_e", "degreese", "degreee");
+    private static final List<String> NORTH_UNITS = Arrays.asList(
+            "degrees_north", "degree_north", "degrees_n", "degree_n", "degreesn", "degreen");
+
+    private String gridName;
+    private NetcdfFile ncfile;
+    private Variable gridVar;
+    private int[] varShape;
+    private int xDimIdx;
+    private int yDimIdx;
+    private int tDimIdx;
+    private GridAxis xAxis;
+    private GridAxis yAxis;
+    private GridAxis tAxis;
+    private int numXTiles;
+    private int numYTiles;
+    private double scaleFactor;
+    private double addOffset;
+    private double[] missingValues;
+    private LinkedHashMap<Long,GridTile> tilesMap;
+
+    /**
+     * Ascending coordinates of an axis of the grid with the methods for locating values along the axis.
+     */
+    private static class GridAxis {
+        /**
+         * Coordinates in ascending order; negated from those in the file if the file coordinates are decreasing
+         */
+        final double[] coords;
+        final boolean reversed;
+        final boolean modulo;
+        final double lowerEdge;
+        final double upperEdge;
+
+        GridAxis(double[] fileCoords, boolean modulo) throws IllegalArgumentException {
+            int num = fileCoords.length;
+            reversed = (num > 1) && (fileCoords[num - 1] < fileCoords[0]);
+            coords = new double[num];
+            for (int k = 0; k < num; k++) {
+                coords[k] = reversed ? -fileCoords[k] : fileCoords[k];
+                if ( Double.isNaN(coords[k]) || ((k > 0) && (coords[k] <= coords[k - 1])) )
+                    throw new IllegalArgumentException("coordinates are missing or not monotonic");
+            }
+            this.modulo = modulo && (num > 1);
+            if ( num > 1 ) {
+                lowerEdge = coords[0] - 0.5 * (coords[1] - coords[0]);
+                upperEdge = coords[num - 1] + 0.5 * (coords[num - 1] - coords[num - 2]);
+            }
+            else {
+                lowerEdge = coords[0];
+                upperEdge = coords[0];
+            }
+        }
+
+        /**
+         * @return the given value as an ascending search key, moved into [lowerEdge, lowerEdge + 360) if modulo
+         */
+        private double searchKey(double value) {
+            double key = reversed ? -value : value;
+            if ( modulo ) {
+                key = (key - lowerEdge) % 360.0;
+                if ( key < 0.0 )
+                    key += 360.0;
+                key += lowerEdge;
+            }
+            return key;
+        }
+
+        /**
+         * @return the index of the coordinate nearest the given value, or -1 if the value
+         *         is missing or outside the grid cells of the axis
+         */
+        int nearestIndex(double value) {
+            if ( Double.isNaN(value) || Double.isInfinite(value) )
+                return -1;
+            int num = coords.length;
+            if ( num == 1 )
+                return 0;
+            double key = searchKey(value);
+            if ( modulo ) {
+                if ( key > coords[num - 1] )
+                    return ((key - coords[num - 1]) <= (coords[0] + 360.0 - key)) ? num - 1 : 0;
+            }
+            else if ( (key < lowerEdge) || (key > upperEdge) ) {
+                return -1;
+            }
+            int idx = Arrays.binarySearch(coords, key);
+            if ( idx >= 0 )
+                return idx;
+            idx = -idx - 1;
+            if ( idx == 0 )
+                return 0;
+            if ( idx == num )
+                return num - 1;
+            return ((key - coords[idx - 1]) <= (coords[idx] - key)) ? idx - 1 : idx;
+        }
+
+        /**
+         * Assigns the indices of the coordinates bracketing the given value.
+         *
+         * @param indices
+         *         the lower and upper bracketing indices are assigned to indices[0] and indices[1]
+         *
+         * @return the linear interpolation weight for indices[1] (the weight for indices[0] is one minus this
+         *         value), or NaN if the value is missing or outside the grid cells of the axis
+         */
+        double bracket(double value, int[] indices) {
+            if ( Double.isNaN(value) || Double.isInfinite(value) )
+                return Double.NaN;
+            int num = coords.length;
+            if ( num == 1 ) {
+                indices[0] = 0;
+                indices[1] = 0;
+                return 0.0;
+            }
+            double key = searchKey(value);
+            if ( modulo ) {
+                if ( (key < coords[0]) || (key > coords[num - 1]) ) {
+                    // Between the last coordinate and the first coordinate plus 360
+                    if ( key < coords[0] )
+                        key += 360.0;
+                    indices[0] = num - 1;
+                    indices[1] = 0;
+                    return (key - coords[num - 1]) / (coords[0] + 360.0 - coords[num - 1]);
+                }
+            }
+            else if ( key < coords[0] ) {
+                if ( key < lowerEdge )
+                    return Double.NaN;
+                indices[0] = 0;
+                indices[1] = 0;
+                return 0.0;
+            }
+            else if ( key > coords[num - 1] ) {
+                if ( key > upperEdge )
+                    return Double.NaN;
+                indices[0] = num - 1;
+                indices[1] = num - 1;
+                return 0.0;
+            }
+            int idx = Arrays.binarySearch(coords, key);
+            if ( idx >= 0 ) {
+                indices[0] = idx;
+                indices[1] = idx;
+                return 0.0;
+            }
+            idx = -idx - 1;
+            indices[0] = idx - 1;
+            indices[1] = idx;
+            return (key - coords[idx - 1]) / (coords[idx] - coords[idx - 1]);
+        }
+    }
+
+    /**
+     * Unpacked grid values for a tile of longitude and latitude indices at one time index.
+     */
+    private static class GridTile {
+        final int xStart;
+        final int yStart;
+        final int xCount;
+        final double[] values;
+
+        GridTile(int xStart, int yStart, int xCount, double[] values) {
+            this.xStart = xStart;
+            this.yStart = yStart;
+            this.xCount = xCount;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Opens the given NetCDF file and prepares to sample the given gridded variable.
+     *
+     * @param gridFile
+     *         NetCDF file containing the gridded variable
+     * @param varName
+     *         name of the gridded variable; the case of the name is ignored
+     * @param timeAsIndex
+     *         if true, the time axis is sampled by (one-based) index instead of by time value;
+     *         for example, to sample a monthly climatology by month number
+     *
+     * @throws IOException
+     *         if unable to open or read the NetCDF file
+     * @throws IllegalArgumentException
+     *         if the variable is not found in the file, or if the coordinates of an axis are invalid
+     */
+    public ReferenceGrid(File gridFile, String varName, boolean timeAsIndex)
+            throws IOException, IllegalArgumentException {
+        gridName = gridFile.getName() + ":" + varName;
+        ncfile = NetcdfFile.open(gridFile.getPath());
+        boolean success = false;
+        try {
+            gridVar = findVariable(ncfile, varName);
+            if ( gridVar == null )
+                throw new IllegalArgumentException("variable " + varName + " not found in " + gridFile.getPath());
+            varShape = gridVar.getShape();
+            xDimIdx = -1;
+            yDimIdx = -1;
+            tDimIdx = -1;
+            List<Dimension> dims = gridVar.getDimensions();
+            for (int d = 0; d < dims.size(); d++) {
+                Dimension dim = dims.get(d);
+                Variable coordVar = ncfile.findVariable(dim.getShortName());
+                if ( (coordVar == null) || (coordVar.getRank() != 1) || (dim.getLength() < 2) )
+                    continue;
+                String units = coordVar.getUnitsString();
+                units = (units != null) ? units.trim().toLowerCase() : "";
+                Attribute attr = coordVar.findAttribute("axis");
+                String axisName = ((attr != null) && attr.isString()) ? attr.getStringValue().trim() : "";
+                if ( "T".equalsIgnoreCase(axisName) || units.contains(" since ") ) {
+                    tDimIdx = d;
+                    tAxis = new GridAxis(timeAsIndex ? indexCoordinates(dim.getLength()) :
+                            timeCoordinates(readCoordinates(coordVar), units), false);
+                }
+                else if ( "X".equalsIgnoreCase(axisName) || EAST_UNITS.contains(units) ) {
+                    xDimIdx = d;
+                    double[] coords = readCoordinates(coordVar);
+                    boolean modulo = (coordVar.findAttribute("modulo") != null) ||
+                            (Math.abs(coords[coords.length - 1] - coords[0]) * coords.length /
+                                    (coords.length - 1) >= 359.999);
+                    xAxis = new GridAxis(coords, modulo);
+                }
+                else if ( "Y".equalsIgnoreCase(axisName) || NORTH_UNITS.contains(units) ) {
+                    yDimIdx = d;
+                    yAxis = new GridAxis(readCoordinates(coordVar), false);
+                }
+                // Any other dimension is sampled at its first index
+            }
+            numXTiles = (xDimIdx >= 0) ? (varShape[xDimIdx] + TILE_SIZE - 1) / TILE_SIZE : 1;
+            numYTiles = (yDimIdx >= 0) ? (varShape[yDimIdx] + TILE_SIZE - 1) / TILE_SIZE : 1;
+
+            Attribute attr = gridVar.findAttribute("scale_factor");
+            scaleFactor = ((attr != null) && (attr.getNumericValue() != null)) ?
+                    attr.getNumericValue().doubleValue() : 1.0;
+            attr = gridVar.findAttribute("add_offset");
+            addOffset = ((attr != null) && (attr.getNumericValue() != null)) ?
+                    attr.getNumericValue().doubleValue() : 0.0;
+            ArrayList<Double> missVals = new ArrayList<Double>(2);
+            for (String attrName : new String[] { "_FillValue", "missing_value" }) {
+                attr = gridVar.findAttribute(attrName);
+                if ( (attr == null) || attr.isString() )
+                    continue;
+                for (int k = 0; k < attr.getLength(); k++) {
+                    missVals.add(attr.getNumericValue(k).doubleValue());
+                }
+            }
+            missingValues = new double[missVals.size()];
+            for (int k = 0; k < missingValues.length; k++) {
+                missingValues[k] = missVals.get(k);
+            }
+            success = true;
+        } catch ( IllegalArgumentException ex ) {
+            throw new IllegalArgumentException(gridName + ": " + ex.getMessage(), ex);
+        } finally {
+            if ( !success )
+                ncfile.close();
+        }
+        // access-ordered so iteration starts with the least recently used tile
+        tilesMap = new LinkedHashMap<Long,GridTile>(2 * MAX_NUM_TILES, 0.75f, true) {
+            private static final long serialVersionUID = 2404627370587162217L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long,GridTile> eldest) {
+                return size() > MAX_NUM_TILES;
+            }
+        };
+    }
+
+    /**
+     * @return the variable in the NetCDF file whose name matches the given name, ignoring case; null if not found
+     */
+    private static Variable findVariable(NetcdfFile ncfile, String varName) {
+        Variable var = ncfile.findVariable(varName);
+        if ( var != null )
+            return var;
+        for (Variable fileVar : ncfile.getVariables()) {
+            if ( varName.equalsIgnoreCase(fileVar.getShortName()) )
+                return fileVar;
+        }
+        return null;
+    }
+
+    /**
+     * @return the values of the given one-dimensional coordinate variable
+     */
+    private static double[] readCoordinates(Variable coordVar) throws IOException {
+        Array array = coordVar.read();
+        int num = (int) array.getSize();
+        double[] coords = new double[num];
+        for (int k = 0; k < num; k++) {
+            coords[k] = array.getDouble(k);
+        }
+        return coords;
+    }
+
+    /**
+     * @return the one-based indices 1, 2, ..., num as coordinates
+     */
+    private static double[] indexCoordinates(int num) {
+        double[] coords = new double[num];
+        for (int k = 0; k < num; k++) {
+            coords[k] = k + 1.0;
+        }
+        return coords;
+    }
+
+    /**
+     * Converts time coordinates in the given units to seconds since 1970-01-01 00:00:00.
+     *
+     * @throws IllegalArgumentException
+     *         if the time units are not recognized
+     */
+    private static double[] timeCoordinates(double[] coords, String units) throws IllegalArgumentException {
+        Matcher matcher = TIME_UNITS_PATTERN.matcher(units);
+        if ( !matcher.matches() )
+            throw new IllegalArgumentException("unrecognized time units \"" + units + "\"");
+        String unitName = matcher.group(1);
+        double secsPerUnit;
+        if ( unitName.startsWith("sec") || "s".equals(unitName) )
+            secsPerUnit = 1.0;
+        else if ( unitName.startsWith("min") )
+            secsPerUnit = 60.0;
+        else if ( unitName.startsWith("hour") || unitName.startsWith("hr") || "h".equals(unitName) )
+            secsPerUnit = 3600.0;
+        else if ( unitName.startsWith("day") || "d".equals(unitName) )
+            secsPerUnit = 86400.0;
+        else if ( unitName.startsWith("week") )
+            secsPerUnit = 604800.0;
+        else
+            throw new IllegalArgumentException("unrecognized time units \"" + units + "\"");
+        GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        cal.clear();
+        double seconds = 0.0;
+        if ( matcher.group(7) != null )
+            seconds = Double.parseDouble(matcher.group(7));
+        cal.set(Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)) - 1,
+                Integer.parseInt(matcher.group(4)),
+                (matcher.group(5) != null) ? Integer.parseInt(matcher.group(5)) : 0,
+                (matcher.group(6) != null) ? Integer.parseInt(matcher.group(6)) : 0, 0);
+        double origin = cal.getTimeInMillis() / 1000.0 + seconds;
+        double[] times = new double[coords.length];
+        for (int k = 0; k < coords.length; k++) {
+            times[k] = origin + coords[k] * secsPerUnit;
+        }
+        return times;
+    }
+
+    /**
+     * @return the name of this grid, given as the name of the file followed by a colon and the name of the variable
+     */
+    public String getGridName() {
+        return gridName;
+    }
+
+    /**
+     * Samples the grid at the grid point nearest the given location and time
+     * (as done by the Ferret functions SAMPLEXY_CLOSEST and SAMPLEXYT_NRST).
+     *
+     * @param longitude
+     *         longitude of the location; ignored if the grid does not have a longitude axis
+     * @param latitude
+     *         latitude of the location; ignored if the grid does not have a latitude axis
+     * @param time
+     *         time in seconds since 1970-01-01 00:00:00, or one-based index if the time axis is sampled by index;
+     *         ignored if the grid does not have a time axis
+     *
+     * @return the value of the nearest grid point, or NaN if that value is missing
+     *         or if the location or time is missing or outside the grid
+     *
+     * @throws IOException
+     *         if problems reading values from the NetCDF file
+     */
+    public synchronized double sampleNearest(double longitude, double latitude, double time) throws IOException {
+        int xIdx = (xAxis != null) ? xAxis.nearestIndex(longitude) : 0;
+        int yIdx = (yAxis != null) ? yAxis.nearestIndex(latitude) : 0;
+        int tIdx = (tAxis != null) ? tAxis.nearestIndex(time) : 0;
+        if ( (xIdx < 0) || (yIdx < 0) || (tIdx < 0) )
+            return Double.NaN;
+        return getGridValue(xIdx, yIdx, tIdx);
+    }
+
+    /**
+     * Samples the grid at the given location and time by linear interpolation along each axis from the bracketing
+     * grid points (as done by the Ferret functions SAMPLEXY and SAMPLEXYT).  If any bracketing grid point
+     * contributing to the value is missing, the interpolated value is missing.
+     *
+     * @param longitude
+     *         longitude of the location; ignored if the grid does not have a longitude axis
+     * @param latitude
+     *         latitude of the location; ignored if the grid does not have a latitude axis
+     * @param time
+     *         time in seconds since 1970-01-01 00:00:00, or one-based index if the time axis is sampled by index;
+     *         ignored if the grid does not have a time axis
+     *
+     * @return the interpolated value, or NaN if a contributing grid value is missing
+     *         or if the location or time is missing or outside the grid
+     *
+     * @throws IOException
+     *         if problems reading values from the NetCDF file
+     */
+    public synchronized double sampleLinear(double longitude, double latitude, double time) throws IOException {
+        int[] xIdx = new int[2];
+        int[] yIdx = new int[2];
+        int[] tIdx = new int[2];
+        double xWeight = (xAxis != null) ? xAxis.bracket(longitude, xIdx) : 0.0;
+        double yWeight = (yAxis != null) ? yAxis.bracket(latitude, yIdx) : 0.0;
+        double tWeight = (tAxis != null) ? tAxis.bracket(time, tIdx) : 0.0;
+        if ( Double.isNaN(xWeight) || Double.isNaN(yWeight) || Double.isNaN(tWeight) )
+            return Double.NaN;
+        double result = 0.0;
+        for (int i = 0; i < 2; i++) {
+            double wi = (i == 0) ? 1.0 - xWeight : xWeight;
+            if ( wi == 0.0 )
+                continue;
+            for (int j = 0; j < 2; j++) {
+                double wj = (j == 0) ? 1.0 - yWeight : yWeight;
+                if ( wj == 0.0 )
+                    continue;
+                for (int k = 0; k < 2; k++) {
+                    double wk = (k == 0) ? 1.0 - tWeight : tWeight;
+                    if ( wk == 0.0 )
+                        continue;
+                    double value = getGridValue(xIdx[i], yIdx[j], tIdx[k]);
+                    if ( Double.isNaN(value) )
+                        return Double.NaN;
+                    result += wi * wj * wk * value;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the unpacked grid value at the given indices, or NaN if missing
+     */
+    private double getGridValue(int xIdx, int yIdx, int tIdx) throws IOException {
+        int xTile = xIdx / TILE_SIZE;
+        int yTile = yIdx / TILE_SIZE;
+        Long key = ((long) tIdx * numYTiles + yTile) * numXTiles + xTile;
+        GridTile tile = tilesMap.get(key);
+        if ( tile == null ) {
+            tile = readTile(xTile * TILE_SIZE, yTile * TILE_SIZE, tIdx);
+            tilesMap.put(key, tile);
+        }
+        return tile.values[(yIdx - tile.yStart) * tile.xCount + (xIdx - tile.xStart)];
+    }
+
+    /**
+     * Reads and unpacks the tile of grid values starting at the given longitude and latitude indices.
+     */
+    private GridTile readTile(int xStart, int yStart, int tIdx) throws IOException {
+        int rank = varShape.length;
+        int[] origin = new int[rank];
+        int[] shape = new int[rank];
+        for (int d = 0; d < rank; d++) {
+            origin[d] = 0;
+            shape[d] = 1;
+        }
+        int xCount = 1;
+        int yCount = 1;
+        if ( xDimIdx >= 0 ) {
+            xCount = Math.min(TILE_SIZE, varShape[xDimIdx] - xStart);
+            origin[xDimIdx] = xStart;
+            shape[xDimIdx] = xCount;
+        }
+        if ( yDimIdx >= 0 ) {
+            yCount = Math.min(TILE_SIZE, varShape[yDimIdx] - yStart);
+            origin[yDimIdx] = yStart;
+            shape[yDimIdx] = yCount;
+        }
+        if ( tDimIdx >= 0 )
+            origin[tDimIdx] = tIdx;
+        Array array;
+        try {
+            array = gridVar.read(origin, shape);
+        } catch ( InvalidRangeException ex ) {
+            throw new IOException("Unexpected invalid section reading " + gridName + ": " + ex.getMessage(), ex);
+        }
+        // Strides of the dimensions in the (row-major) array read
+        int[] strides = new int[rank];
+        int stride = 1;
+        for (int d = rank - 1; d >= 0; d--) {
+            strides[d] = stride;
+            stride *= shape[d];
+        }
+        int xStride = (xDimIdx >= 0) ? strides[xDimIdx] : 0;
+        int yStride = (yDimIdx >= 0) ? strides[yDimIdx] : 0;
+        double[] values = new double[xCount * yCount];
+        for (int j = 0; j < yCount; j++) {
+            for (int i = 0; i < xCount; i++) {
+                values[j * xCount + i] = unpack(array.getDouble(j * yStride + i * xStride));
+            }
+        }
+        return new GridTile(xStart, yStart, xCount, values);
+    }
+
+    /**
+     * @return the unpacked value of the given raw value from the NetCDF file, or NaN if a missing value
+     */
+    private double unpack(double rawValue) {
+        if ( Double.isNaN(rawValue) || Double.isInfinite(rawValue) )
+            return Double.NaN;
+        for (double missVal : missingValues) {
+            if ( Math.abs(rawValue - missVal) <= 1.0E-6 * Math.abs(missVal) )
+                return Double.NaN;
+        }
+        return rawValue * scaleFactor + addOffset;
+    }
+
+    /**
+     * Closes the NetCDF file of this grid; this grid cannot be sampled afterwards.
+     *
+     * @throws IOException
+     *         if closing the NetCDF file throws one
+     */
+    public synchronized void close() throws IOException {
+        tilesMap.clear();
+        ncfile.close();
+    }
+
+    @Override
+    public String toString() {
+        return "ReferenceGrid[" + gridName + "]";
+    }
+
+}
@@ -15,14 +15,13 @@ import gov.noaa.pmel.dashboard.shared.DataColumnType;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
-import java.util.TimeZone;
 
 /**
- * A 2-D array of objects corresponding to the standardized values in a dataset,
+ * The standardized values in a dataset, stored by data column as {@link StdDataColumn} objects,
  * as well as 1-D arrays of information describing each data column.
  *
  * @author Karl Smith
@@ -32,7 +31,7 @@ public class StdDataArray {
     protected int numSamples;
     protected int numDataCols;
     protected DashDataType<?>[] dataTypes;
-    protected Object[][] stdObjects;
+    protected StdDataColumn[] stdColumns;
     // Often-used indices
     protected int longitudeIndex;
     protected int latitudeIndex;
@@ -57,7 +56,7 @@ public class StdDataArray {
      * Create and assign the 1-D arrays of data column types from the given user's descriptions
      * of the data column.  Appends any required WOCE column types not already present, as well
      * as the non-user type {@link DashboardServerUtils#SAMPLE_NUMBER}.
-     * The 2-D array of standard data objects is not created.
+     * The standard data columns are not created.
      *
      * @param dataColumnTypes
      *         user's description of the data columns in each sample
@@ -89,7 +88,7 @@ public class StdDataArray {
             dataTypes = new DashDataType<?>[numDataCols + 2];
         else
             dataTypes = new DashDataType<?>[numDataCols + 1];
-        stdObjects = null;
+        stdColumns = null;
 
         for (int k = 0; k < numDataCols; k++) {
             DataColumnType dataColType = dataColumnTypes.get(k);
@@ -140,7 +139,7 @@ public class StdDataArray {
                     stdDataValues[0].length + ") and types (" + numDataCols + ")");
 
         dataTypes = new DashDataType<?>[numDataCols];
-        stdObjects = new Object[numSamples][numDataCols];
+        stdColumns = new StdDataColumn[numDataCols];
 
         for (int k = 0; k < numDataCols; k++) {
             DashDataType<?> dtype = dataColumnTypes[k];
@@ -151,43 +150,66 @@ public class StdDataArray {
 
             // Catch invalid data column types and invalid data objects
             // while assigning the standard data values
-            if ( dtype instanceof StringDashDataType ) {
-                for (int j = 0; j < numSamples; j++) {
-                    try {
-                        stdObjects[j][k] = (String) stdDataValues[j][k];
-                    } catch ( Exception ex ) {
-                        throw new IllegalArgumentException("standard data object for sample number " +
-                                Integer.toString(j + 1) + ", column number " + Integer.toString(j + 1) +
-                                " is invalid: " + ex.getMessage());
-                    }
-                }
-            }
-            else if ( dtype instanceof IntDashDataType ) {
-                for (int j = 0; j < numSamples; j++) {
-                    try {
-                        stdObjects[j][k] = (Integer) stdDataValues[j][k];
-                    } catch ( Exception ex ) {
-                        throw new IllegalArgumentException("standard data object for sample number " +
-                                Integer.toString(j + 1) + ", column number " + Integer.toString(j + 1) +
-                                " is invalid: " + ex.getMessage());
-                    }
-                }
-            }
-            else if ( dtype instanceof DoubleDashDataType ) {
-                for (int j = 0; j < numSamples; j++) {
-                    try {
-                        stdObjects[j][k] = (Double) stdDataValues[j][k];
-                    } catch ( Exception ex ) {
-                        throw new IllegalArgumentException("standard data object for sample number " +
-                                Integer.toString(j + 1) + ", column number " + Integer.toString(j + 1) +
-                                " is invalid: " + ex.getMessage());
-                    }
+            StdDataColumn column = new StdDataColumn(dtype, numSamples);
+            for (int j = 0; j < numSamples; j++) {
+                try {
+                    column.setValue(j, stdDataValues[j][k]);
+                } catch ( Exception ex ) {
+                    throw new IllegalArgumentException("standard data object for sample number " +
+                            Integer.toString(j + 1) + ", column number " + Integer.toString(k + 1) +
+                            " is invalid: " + ex.getMessage());
                 }
             }
-            else {
-                throw new IllegalArgumentException("unknown data class type for " +
-                        dtype.getDisplayName() + " (" + dtype.getDataClassName() + ")");
-            }
+            stdColumns[k] = column;
+        }
+
+        // Get column indices and check for UNKNOWN (return null) and duplicates (return true)
+        if ( !Boolean.FALSE.equals(assignColumnIndicesOfInterest()) )
+            throw new IllegalArgumentException("unknown or duplicated data column type");
+    }
+
+    /**
+     * Create with the given data file data types and standardized data columns.  The columns given are used
+     * directly (not copied), so a column can be shared with the standardized data array it came from.
+     *
+     * @param dataColumnTypes
+     *         types for the data columns in each sample
+     * @param stdDataColumns
+     *         standardized data columns; stdDataColumns[k] holds the values of the k-th data column
+     *
+     * @throws IllegalArgumentException
+     *         if no data column types are given, if the number of data columns does not match the number of data
+     *         column types, if a data column does not have the kind of values for its data column type, if the data
+     *         columns do not all have the same (non-zero) number of samples, or if a data column type is the
+     *         "UNKNOWN" type or occurs more that one.
+     */
+    public StdDataArray(DashDataType<?>[] dataColumnTypes, StdDataColumn[] stdDataColumns)
+            throws IllegalArgumentException {
+        if ( (dataColumnTypes == null) || (dataColumnTypes.length == 0) )
+            throw new IllegalArgumentException("no data column types given");
+        numDataCols = dataColumnTypes.length;
+        if ( (stdDataColumns == null) || (stdDataColumns.length != numDataCols) )
+            throw new IllegalArgumentException("Different number of data columns and data column types");
+        numSamples = stdDataColumns[0].getNumSamples();
+        if ( numSamples == 0 )
+            throw new IllegalArgumentException("no standardized data values given");
+
+        dataTypes = new DashDataType<?>[numDataCols];
+        stdColumns = new StdDataColumn[numDataCols];
+        for (int k = 0; k < numDataCols; k++) {
+            DashDataType<?> dtype = dataColumnTypes[k];
+            if ( dtype == null )
+                throw new IllegalArgumentException(
+                        "no data type for column number" + Integer.toString(k + 1));
+            StdDataColumn column = stdDataColumns[k];
+            if ( column.getValueKind() != StdDataColumn.valueKindOf(dtype) )
+                throw new IllegalArgumentException("data column number " + Integer.toString(k + 1) +
+                        " does not contain values for " + dtype.getDisplayName());
+            if ( column.getNumSamples() != numSamples )
+                throw new IllegalArgumentException("data column number " + Integer.toString(k + 1) +
+                        " has " + column.getNumSamples() + " values instead of " + numSamples);
+            dataTypes[k] = dtype;
+            stdColumns[k] = column;
         }
 
         // Get column indices and check for UNKNOWN (return null) and duplicates (return true)
@@ -236,7 +258,7 @@ public class StdDataArray {
 
         // Check that sample longitude, latitude, and time are present and all valid;
         // hang onto the time values for adding to this standardized data
-        Double[] timeVals;
+        double[] timeVals;
         try {
             for (Double value : userStdData.getSampleLongitudes()) {
                 if ( value == null )
@@ -246,11 +268,10 @@ public class StdDataArray {
                 if ( value == null )
                     throw new IllegalArgumentException("a latitude value is missing");
             }
-            timeVals = userStdData.calcSampleTimes();
-            for (Double value : timeVals) {
-                if ( value == null )
-                    throw new IllegalArgumentException("a sample date/time value is missing");
-            }
+            BitSet validTimes = new BitSet(numSamples);
+            timeVals = userStdData.calcSampleTimeValues(validTimes);
+            if ( validTimes.cardinality() != numSamples )
+                throw new IllegalArgumentException("a sample date/time value is missing");
         } catch ( IllegalStateException ex ) {
             throw new IllegalArgumentException(ex);
         }
@@ -302,66 +323,65 @@ public class StdDataArray {
 
         numDataCols = userDataTypes.size();
         dataTypes = new DashDataType<?>[numDataCols];
-        stdObjects = new Object[numSamples][numDataCols];
-        GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
-        cal.setLenient(false);
+        stdColumns = new StdDataColumn[numDataCols];
+        // year, month, day, hour, minute, second, and millisecond of a sample time
+        int[] fields = new int[7];
         for (int k = 0; k < numDataCols; k++) {
             dataTypes[k] = userDataTypes.get(k);
             int userIdx = userColIndices.get(k);
             if ( DashboardUtils.INT_MISSING_VALUE.equals(userIdx) ) {
+                StdDataColumn column = new StdDataColumn(dataTypes[k], numSamples);
                 if ( DashboardServerUtils.YEAR.typeNameEquals(dataTypes[k]) ) {
                     for (int j = 0; j < numSamples; j++) {
-                        cal.setTimeInMillis(Double.valueOf(timeVals[j] * 1000.0).longValue());
-                        stdObjects[j][k] = Integer.valueOf(cal.get(GregorianCalendar.YEAR));
+                        TimeCalculator.civilFromEpochMillis((long) (timeVals[j] * 1000.0), fields);
+                        column.setInt(j, fields[0]);
                     }
                 }
                 else if ( DashboardServerUtils.MONTH_OF_YEAR.typeNameEquals(dataTypes[k]) ) {
                     for (int j = 0; j < numSamples; j++) {
-                        cal.setTimeInMillis(Double.valueOf(timeVals[j] * 1000.0).longValue());
-                        stdObjects[j][k] = Integer.valueOf(cal.get(GregorianCalendar.MONTH) -
-                                GregorianCalendar.JANUARY + 1);
+                        TimeCalculator.civilFromEpochMillis((long) (timeVals[j] * 1000.0), fields);
+                        column.setInt(j, fields[1]);
                     }
                 }
                 else if ( DashboardServerUtils.DAY_OF_MONTH.typeNameEquals(dataTypes[k]) ) {
                     for (int j = 0; j < numSamples; j++) {
-                        cal.setTimeInMillis(Double.valueOf(timeVals[j] * 1000.0).longValue());
-                        stdObjects[j][k] = Integer.valueOf(cal.get(GregorianCalendar.DAY_OF_MONTH));
+                        TimeCalculator.civilFromEpochMillis((long) (timeVals[j] * 1000.0), fields);
+                        column.setInt(j, fields[2]);
                     }
                 }
                 else if ( DashboardServerUtils.HOUR_OF_DAY.typeNameEquals(dataTypes[k]) ) {
                     for (int j = 0; j < numSamples; j++) {
-                        cal.setTimeInMillis(Double.valueOf(timeVals[j] * 1000.0).longValue());
-                        stdObjects[j][k] = Integer.valueOf(cal.get(GregorianCalendar.HOUR_OF_DAY));
+                        TimeCalculator.civilFromEpochMillis((long) (timeVals[j] * 1000.0), fields);
+                        column.setInt(j, fields[3]);
                     }
                 }
                 else if ( DashboardServerUtils.MINUTE_OF_HOUR.typeNameEquals(dataTypes[k]) ) {
                     for (int j = 0; j < numSamples; j++) {
-                        cal.setTimeInMillis(Double.valueOf(timeVals[j] * 1000.0).longValue());
-                        stdObjects[j][k] = Integer.valueOf(cal.get(GregorianCalendar.MINUTE));
+                        TimeCalculator.civilFromEpochMillis((long) (timeVals[j] * 1000.0), fields);
+                        column.setInt(j, fields[4]);
                     }
                 }
                 else if ( DashboardServerUtils.SECOND_OF_MINUTE.typeNameEquals(dataTypes[k]) ) {
                     for (int j = 0; j < numSamples; j++) {
-                        cal.setTimeInMillis(Double.valueOf(timeVals[j] * 1000.0).longValue());
-                        Double second = (1000.0 * cal.get(GregorianCalendar.SECOND) +
-                                cal.get(GregorianCalendar.MILLISECOND)) / 1000.0;
-                        stdObjects[j][k] = second;
+                        TimeCalculator.civilFromEpochMillis((long) (timeVals[j] * 1000.0), fields);
+                        double second = (1000.0 * fields[5] + fields[6]) / 1000.0;
+                        column.setDouble(j, second);
                     }
                 }
                 else if ( DashboardServerUtils.TIME.typeNameEquals(dataTypes[k]) ) {
                     for (int j = 0; j < numSamples; j++) {
-                        stdObjects[j][k] = timeVals[j];
+                        column.setDouble(j, timeVals[j]);
                     }
                 }
                 else {
                     throw new IllegalArgumentException("Unexpected error: unknown data column type with missing index");
                 }
+                stdColumns[k] = column;
             }
             else {
-                for (int j = 0; j < numSamples; j++) {
-                    // Because isValidIndex was true, this should not throw any exceptions
-                    stdObjects[j][k] = userStdData.getStdVal(j, userIdx);
-                }
+                // Because isValidIndex was true, this should not throw any exceptions.
+                // Copy the column since the standardized user data can still be modified.
+                stdColumns[k] = new StdDataColumn(userStdData.getStdColumn(userIdx));
             }
         }
 
@@ -521,13 +541,9 @@ public class StdDataArray {
         int maxStrLen = 1;
         for (int k = 0; k < numDataCols; k++) {
             if ( dataTypes[k] instanceof StringDashDataType ) {
-                for (int j = 0; j < numSamples; j++) {
-                    String strval = (String) stdObjects[j][k];
-                    if ( strval != null ) {
-                        if ( maxStrLen < strval.length() )
-                            maxStrLen = strval.length();
-                    }
-                }
+                int strLen = stdColumns[k].getMaxStringLength();
+                if ( maxStrLen < strLen )
+                    maxStrLen = strLen;
             }
         }
         return maxStrLen;
@@ -543,8 +559,10 @@ public class StdDataArray {
         if ( !isUsableIndex(longitudeIndex) )
             throw new IllegalStateException("no valid longitude data column");
         Double[] sampleLongitudes = new Double[numSamples];
+        StdDataColumn column = stdColumns[longitudeIndex];
         for (int j = 0; j < numSamples; j++) {
-            sampleLongitudes[j] = (Double) stdObjects[j][longitudeIndex];
+            if ( !column.isMissing(j) )
+                sampleLongitudes[j] = column.getDouble(j);
         }
         return sampleLongitudes;
     }
@@ -559,8 +577,10 @@ public class StdDataArray {
         if ( !isUsableIndex(latitudeIndex) )
             throw new IllegalStateException("no valid latitude data column");
         Double[] sampleLatitudes = new Double[numSamples];
+        StdDataColumn column = stdColumns[latitudeIndex];
         for (int j = 0; j < numSamples; j++) {
-            sampleLatitudes[j] = (Double) stdObjects[j][latitudeIndex];
+            if ( !column.isMissing(j) )
+                sampleLatitudes[j] = column.getDouble(j);
         }
         return sampleLatitudes;
     }
@@ -575,8 +595,10 @@ public class StdDataArray {
         if ( !isUsableIndex(sampleDepthIndex) )
             throw new IllegalStateException("no valid sample depth data column");
         Double[] sampleDepths = new Double[numSamples];
+        StdDataColumn column = stdColumns[sampleDepthIndex];
         for (int j = 0; j < numSamples; j++) {
-            sampleDepths[j] = (Double) stdObjects[j][sampleDepthIndex];
+            if ( !column.isMissing(j) )
+                sampleDepths[j] = column.getDouble(j);
         }
         return sampleDepths;
     }
@@ -608,9 +630,41 @@ public class StdDataArray {
      *         if specification of the sample date and time is incomplete
      */
     public Double[] calcSampleTimes() throws IllegalStateException {
-        GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
-        cal.setLenient(false);
+        BitSet valid = new BitSet(numSamples);
+        double[] times = calcSampleTimeValues(valid);
         Double[] sampleTimes = new Double[numSamples];
+        for (int j = valid.nextSetBit(0); j >= 0; j = valid.nextSetBit(j + 1)) {
+            sampleTimes[j] = times[j];
+        }
+        return sampleTimes;
+    }
+
+    /**
+     * Computes the fully-specified time, in units of "seconds since 1970-01-01T00:00:00Z", as described in
+     * {@link #calcSampleTimes()}, without creating an object for each sample time.  The date and time values
+     * of all samples are first gathered by data column, then all the sample times are computed using
+     * {@link TimeCalculator#calcEpochSeconds(int[], int[], int[], int[], int[], double[], BitSet)}.
+     *
+     * @param valid
+     *         assigned the samples with a valid time; any previous values are cleared
+     *
+     * @return an array containing the sample times; values for samples without a valid time are NaN
+     *
+     * @throws IllegalStateException
+     *         if specification of the sample date and time is incomplete
+     */
+    public double[] calcSampleTimeValues(BitSet valid) throws IllegalStateException {
+        int[] years = new int[numSamples];
+        int[] months = new int[numSamples];
+        int[] days = new int[numSamples];
+        int[] hours = new int[numSamples];
+        int[] minutes = new int[numSamples];
+        double[] seconds = new double[numSamples];
+        // year, month, day, hour, and minute from parsing date and time strings
+        int[] fields = new int[5];
+        // days are the day of the year instead of the day of the month
+        boolean useDayOfYear = false;
+        valid.clear();
         indicesForTime = null;
 
         if ( isUsableIndex(yearIndex) && isUsableIndex(monthOfYearIndex) &&
@@ -626,31 +680,17 @@ public class StdDataArray {
                         hourOfDayIndex, minuteOfHourIndex };
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    int year = ((Integer) stdObjects[j][yearIndex]).intValue();
-                    int month = ((Integer) stdObjects[j][monthOfYearIndex]).intValue();
-                    int day = ((Integer) stdObjects[j][dayOfMonthIndex]).intValue();
-                    int hour = ((Integer) stdObjects[j][hourOfDayIndex]).intValue();
-                    int min = ((Integer) stdObjects[j][minuteOfHourIndex]).intValue();
-                    int sec = 0;
-                    int millisec = 0;
-                    if ( hasSec ) {
-                        try {
-                            Double value = (Double) stdObjects[j][secondOfMinuteIndex];
-                            sec = value.intValue();
-                            value -= sec;
-                            value *= 1000.0;
-                            millisec = value.intValue();
-                        } catch ( Exception ex ) {
-                            sec = 0;
-                            millisec = 0;
-                        }
-                    }
-                    cal.set(year, GregorianCalendar.JANUARY + month - 1, day, hour, min, sec);
-                    cal.set(GregorianCalendar.MILLISECOND, millisec);
-                    sampleTimes[j] = Double.valueOf(cal.getTimeInMillis() / 1000.0);
+                    years[j] = stdColumns[yearIndex].getInt(j);
+                    months[j] = stdColumns[monthOfYearIndex].getInt(j);
+                    days[j] = stdColumns[dayOfMonthIndex].getInt(j);
+                    hours[j] = stdColumns[hourOfDayIndex].getInt(j);
+                    minutes[j] = stdColumns[minuteOfHourIndex].getInt(j);
+                    if ( hasSec && !stdColumns[secondOfMinuteIndex].isMissing(j) )
+                        seconds[j] = stdColumns[secondOfMinuteIndex].getDouble(j);
                 } catch ( Exception ex ) {
-                    sampleTimes[j] = null;
+                    continue;
                 }
+                valid.set(j);
             }
         }
         else if ( isUsableIndex(yearIndex) && isUsableIndex(monthOfYearIndex) &&
@@ -658,64 +698,45 @@ public class StdDataArray {
             // Use year, month, day, and time string
             // Standard format of time string is HH:mm:ss.SSS
             indicesForTime = new int[] { yearIndex, monthOfYearIndex, dayOfMonthIndex, timeOfDayIndex };
-
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    int year = ((Integer) stdObjects[j][yearIndex]).intValue();
-                    int month = ((Integer) stdObjects[j][monthOfYearIndex]).intValue();
-                    int day = ((Integer) stdObjects[j][dayOfMonthIndex]).intValue();
-                    String[] hms = ((String) stdObjects[j][timeOfDayIndex]).split(":");
-                    if ( hms.length != 3 )
-                        throw new Exception();
-                    int hour = Integer.parseInt(hms[0]);
-                    int min = Integer.parseInt(hms[1]);
-                    Double value = Double.parseDouble(hms[2]);
-                    int sec = value.intValue();
-                    value -= sec;
-                    value *= 1000.0;
-                    int millisec = value.intValue();
-                    cal.set(year, GregorianCalendar.JANUARY + month - 1, day, hour, min, sec);
-                    cal.set(GregorianCalendar.MILLISECOND, millisec);
-                    sampleTimes[j] = Double.valueOf(cal.getTimeInMillis() / 1000.0);
+                    years[j] = stdColumns[yearIndex].getInt(j);
+                    months[j] = stdColumns[monthOfYearIndex].getInt(j);
+                    days[j] = stdColumns[dayOfMonthIndex].getInt(j);
+                    String timeStr = stdColumns[timeOfDayIndex].getString(j);
+                    seconds[j] = TimeCalculator.parseTimeOfDay(timeStr, 0, timeStr.length(), fields);
+                    hours[j] = fields[3];
+                    minutes[j] = fields[4];
                 } catch ( Exception ex ) {
-                    sampleTimes[j] = null;
+                    continue;
                 }
+                valid.set(j);
             }
         }
         else if ( isUsableIndex(yearIndex) && isUsableIndex(dayOfYearIndex) && isUsableIndex(secondOfDayIndex) ) {
             // Use year, day of year (an integer), and second of day
             indicesForTime = new int[] { yearIndex, dayOfYearIndex, secondOfDayIndex };
+            useDayOfYear = true;
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    int year = ((Integer) stdObjects[j][yearIndex]).intValue();
-                    Double value = (Double) stdObjects[j][dayOfYearIndex];
-                    int dayOfYear = value.intValue();
-                    if ( Math.abs(value - dayOfYear) > DashboardUtils.MAX_ABSOLUTE_ERROR )
-                        throw new Exception();
-                    value = ((Double) stdObjects[j][secondOfDayIndex]).doubleValue();
+                    years[j] = stdColumns[yearIndex].getInt(j);
+                    double value = stdColumns[dayOfYearIndex].getDouble(j);
+                    days[j] = (int) value;
+                    if ( Math.abs(value - days[j]) > DashboardUtils.MAX_ABSOLUTE_ERROR )
+                        continue;
+                    value = stdColumns[secondOfDayIndex].getDouble(j);
                     value /= 3600.0;
-                    int hour = value.intValue();
-                    value -= hour;
+                    hours[j] = (int) value;
+                    value -= hours[j];
                     value *= 60.0;
-                    int minute = value.intValue();
-                    value -= minute;
+                    minutes[j] = (int) value;
+                    value -= minutes[j];
                     value *= 60.0;
-                    int sec = value.intValue();
-                    value -= sec;
-                    value *= 1000.0;
-                    int millisec = value.intValue();
-                    cal.clear(GregorianCalendar.MONTH);
-                    cal.clear(GregorianCalendar.DAY_OF_MONTH);
-                    cal.set(GregorianCalendar.YEAR, year);
-                    cal.set(GregorianCalendar.DAY_OF_YEAR, dayOfYear);
-                    cal.set(GregorianCalendar.HOUR_OF_DAY, hour);
-                    cal.set(GregorianCalendar.MINUTE, minute);
-                    cal.set(GregorianCalendar.SECOND, sec);
-                    cal.set(GregorianCalendar.MILLISECOND, millisec);
-                    sampleTimes[j] = Double.valueOf(cal.getTimeInMillis() / 1000.0);
+                    seconds[j] = value;
                 } catch ( Exception ex ) {
-                    sampleTimes[j] = null;
+                    continue;
                 }
+                valid.set(j);
             }
         }
         else if ( isUsableIndex(timestampIndex) ) {
@@ -724,31 +745,16 @@ public class StdDataArray {
             indicesForTime = new int[] { timestampIndex };
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    String[] dateTime = ((String) stdObjects[j][timestampIndex]).split(" ");
-                    if ( dateTime.length != 2 )
-                        throw new Exception();
-                    String[] ymd = dateTime[0].split("-");
-                    if ( ymd.length != 3 )
-                        throw new Exception();
-                    int year = Integer.parseInt(ymd[0]);
-                    int month = Integer.parseInt(ymd[1]);
-                    int day = Integer.parseInt(ymd[2]);
-                    String[] hms = dateTime[1].split(":");
-                    if ( hms.length != 3 )
-                        throw new Exception();
-                    int hour = Integer.parseInt(hms[0]);
-                    int min = Integer.parseInt(hms[1]);
-                    Double value = Double.parseDouble(hms[2]);
-                    int sec = value.intValue();
-                    value -= sec;
-                    value *= 1000.0;
-                    int millisec = value.intValue();
-                    cal.set(year, GregorianCalendar.JANUARY + month - 1, day, hour, min, sec);
-                    cal.set(GregorianCalendar.MILLISECOND, millisec);
-                    sampleTimes[j] = Double.valueOf(cal.getTimeInMillis() / 1000.0);
+                    seconds[j] = TimeCalculator.parseTimestamp(stdColumns[timestampIndex].getString(j), fields);
+                    years[j] = fields[0];
+                    months[j] = fields[1];
+                    days[j] = fields[2];
+                    hours[j] = fields[3];
+                    minutes[j] = fields[4];
                 } catch ( Exception ex ) {
-                    sampleTimes[j] = null;
+                    continue;
                 }
+                valid.set(j);
             }
         }
         else if ( isUsableIndex(dateIndex) && isUsableIndex(timeOfDayIndex) ) {
@@ -758,28 +764,19 @@ public class StdDataArray {
             indicesForTime = new int[] { dateIndex, timeOfDayIndex };
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    String[] ymd = ((String) stdObjects[j][dateIndex]).split("-");
-                    if ( ymd.length != 3 )
-                        throw new Exception();
-                    int year = Integer.parseInt(ymd[0]);
-                    int month = Integer.parseInt(ymd[1]);
-                    int day = Integer.parseInt(ymd[2]);
-                    String[] hms = ((String) stdObjects[j][timeOfDayIndex]).split(":");
-                    if ( hms.length != 3 )
-                        throw new Exception();
-                    int hour = Integer.parseInt(hms[0]);
-                    int min = Integer.parseInt(hms[1]);
-                    Double value = Double.parseDouble(hms[2]);
-                    int sec = value.intValue();
-                    value -= sec;
-                    value *= 1000.0;
-                    int millisec = value.intValue();
-                    cal.set(year, GregorianCalendar.JANUARY + month - 1, day, hour, min, sec);
-                    cal.set(GregorianCalendar.MILLISECOND, millisec);
-                    sampleTimes[j] = Double.valueOf(cal.getTimeInMillis() / 1000.0);
+                    String dateStr = stdColumns[dateIndex].getString(j);
+                    TimeCalculator.parseDate(dateStr, 0, dateStr.length(), fields);
+                    String timeStr = stdColumns[timeOfDayIndex].getString(j);
+                    seconds[j] = TimeCalculator.parseTimeOfDay(timeStr, 0, timeStr.length(), fields);
+                    years[j] = fields[0];
+                    months[j] = fields[1];
+                    days[j] = fields[2];
+                    hours[j] = fields[3];
+                    minutes[j] = fields[4];
                 } catch ( Exception ex ) {
-                    sampleTimes[j] = null;
+                    continue;
                 }
+                valid.set(j);
             }
         }
         else if ( isUsableIndex(dateIndex) && isUsableIndex(hourOfDayIndex) && isUsableIndex(minuteOfHourIndex) ) {
@@ -792,74 +789,50 @@ public class StdDataArray {
                 indicesForTime = new int[] { dateIndex, hourOfDayIndex, minuteOfHourIndex };
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    String[] ymd = ((String) stdObjects[j][dateIndex]).split("-");
-                    if ( ymd.length != 3 )
-                        throw new Exception();
-                    int year = Integer.parseInt(ymd[0]);
-                    int month = Integer.parseInt(ymd[1]);
-                    int day = Integer.parseInt(ymd[2]);
-                    int hour = ((Integer) stdObjects[j][hourOfDayIndex]).intValue();
-                    int min = ((Integer) stdObjects[j][minuteOfHourIndex]).intValue();
-                    int sec = 0;
-                    int millisec = 0;
-                    if ( hasSec ) {
-                        try {
-                            Double value = (Double) stdObjects[j][secondOfMinuteIndex];
-                            sec = value.intValue();
-                            value -= sec;
-                            value *= 1000.0;
-                            millisec = value.intValue();
-                        } catch ( Exception ex ) {
-                            sec = 0;
-                            millisec = 0;
-                        }
-                    }
-                    cal.set(year, GregorianCalendar.JANUARY + month - 1, day, hour, min, sec);
-                    cal.set(GregorianCalendar.MILLISECOND, millisec);
-                    sampleTimes[j] = Double.valueOf(cal.getTimeInMillis() / 1000.0);
+                    String dateStr = stdColumns[dateIndex].getString(j);
+                    TimeCalculator.parseDate(dateStr, 0, dateStr.length(), fields);
+                    years[j] = fields[0];
+                    months[j] = fields[1];
+                    days[j] = fields[2];
+                    hours[j] = stdColumns[hourOfDayIndex].getInt(j);
+                    minutes[j] = stdColumns[minuteOfHourIndex].getInt(j);
+                    if ( hasSec && !stdColumns[secondOfMinuteIndex].isMissing(j) )
+                        seconds[j] = stdColumns[secondOfMinuteIndex].getDouble(j);
                 } catch ( Exception ex ) {
-                    sampleTimes[j] = null;
+                    continue;
                 }
+                valid.set(j);
             }
         }
         else if ( isUsableIndex(yearIndex) && isUsableIndex(dayOfYearIndex) ) {
             // Use year and day of year (floating-point)
             indicesForTime = new int[] { yearIndex, dayOfYearIndex };
+            useDayOfYear = true;
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    int year = ((Integer) stdObjects[j][yearIndex]).intValue();
-                    Double value = (Double) stdObjects[j][dayOfYearIndex];
-                    int dayOfYear = value.intValue();
-                    value -= dayOfYear;
+                    years[j] = stdColumns[yearIndex].getInt(j);
+                    double value = stdColumns[dayOfYearIndex].getDouble(j);
+                    days[j] = (int) value;
+                    value -= days[j];
                     value *= 24.0;
-                    int hour = value.intValue();
-                    value -= hour;
+                    hours[j] = (int) value;
+                    value -= hours[j];
                     value *= 60.0;
-                    int minute = value.intValue();
-                    value -= minute;
+                    minutes[j] = (int) value;
+                    value -= minutes[j];
                     value *= 60.0;
-                    int sec = value.intValue();
-                    value -= sec;
-                    value *= 1000.0;
-                    int millisec = value.intValue();
-                    cal.clear(GregorianCalendar.MONTH);
-                    cal.clear(GregorianCalendar.DAY_OF_MONTH);
-                    cal.set(GregorianCalendar.YEAR, year);
-                    cal.set(GregorianCalendar.DAY_OF_YEAR, dayOfYear);
-                    cal.set(GregorianCalendar.HOUR_OF_DAY, hour);
-                    cal.set(GregorianCalendar.MINUTE, minute);
-                    cal.set(GregorianCalendar.SECOND, sec);
-                    cal.set(GregorianCalendar.MILLISECOND, millisec);
-                    sampleTimes[j] = Double.valueOf(cal.getTimeInMillis() / 1000.0);
+                    seconds[j] = value;
                 } catch ( Exception ex ) {
-                    sampleTimes[j] = null;
+                    continue;
                 }
+                valid.set(j);
             }
         }
         else
             throw new IllegalStateException("Incomplete specification of sample time");
 
-        return sampleTimes;
+        return TimeCalculator.calcEpochSeconds(years, useDayOfYear ? null : months, days,
+                hours, minutes, seconds, valid);
     }
 
     /**
@@ -969,13 +942,31 @@ public class StdDataArray {
             throw new IndexOutOfBoundsException("sample index is invalid: " + sampleIdx);
         if ( (columnIdx < 0) || (columnIdx >= numDataCols) )
             throw new IndexOutOfBoundsException("data column index is invalid: " + columnIdx);
-        return stdObjects[sampleIdx][columnIdx];
+        return stdColumns[columnIdx].getValue(sampleIdx);
+    }
+
+    /**
+     * Get the standardized values of the specified data column.  The values in the returned column are not modified
+     * by this standardized data array, so they can be used without copying.
+     *
+     * @param columnIdx
+     *         index of the data column
+     *
+     * @return standardized data column
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the data column index is invalid
+     */
+    public StdDataColumn getStdColumn(int columnIdx) throws IndexOutOfBoundsException {
+        if ( (columnIdx < 0) || (columnIdx >= numDataCols) )
+            throw new IndexOutOfBoundsException("data column index is invalid: " + columnIdx);
+        return stdColumns[columnIdx];
     }
 
     @Override
     public int hashCode() {
         final int prime = 37;
-        int result = Arrays.deepHashCode(stdObjects);
+        int result = Arrays.hashCode(stdColumns);
         result = prime * result + Arrays.hashCode(dataTypes);
         result = prime * result + numDataCols;
         result = prime * result + numSamples;
@@ -1001,7 +992,7 @@ public class StdDataArray {
         if ( !Arrays.equals(dataTypes, other.dataTypes) )
             return false;
 
-        if ( !Arrays.deepEquals(stdObjects, other.stdObjects) )
+        if ( !Arrays.equals(stdColumns, other.stdColumns) )
             return false;
 
         return true;
@@ -1016,11 +1007,15 @@ public class StdDataArray {
                 repr += ",";
             repr += "\n    " + dataTypes[k].toString();
         }
-        repr += "\n  ],\n  stdObjects=[";
+        repr += "\n  ],\n  stdValues=[";
+        Object[] rowVals = new Object[numDataCols];
         for (int j = 0; j < numSamples; j++) {
             if ( j > 0 )
                 repr += ",";
-            repr += "\n    " + Arrays.toString(stdObjects[j]);
+            for (int k = 0; k < numDataCols; k++) {
+                rowVals[k] = stdColumns[k].getValue(j);
+            }
+            repr += "\n    " + Arrays.toString(rowVals);
         }
         repr += "\n  ]\n]";
         return repr;
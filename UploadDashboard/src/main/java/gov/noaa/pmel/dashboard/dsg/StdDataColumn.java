@@ -0,0 +1,665 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
+import gov.noaa.pmel.dashboard.datatype.DoubleDashDataType;
+import gov.noaa.pmel.dashboard.datatype.IntDashDataType;
+import gov.noaa.pmel.dashboard.datatype.StringDashDataType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * The standardized values of one data column of a dataset, stored without boxing each value.  Values of
+ * {@link DoubleDashDataType} columns are held in a double array, values of {@link IntDashDataType} columns in an int
+ * array, and values of {@link StringDashDataType} columns as int codes into a dictionary of the distinct strings.
+ * Missing values are recorded in a bitmap rather than by a special value.
+ * <p>
+ * Only classes in this package can modify the values.  Once given to a {@link StdDataArray} the values are not
+ * changed, so columns can be shared between standardized data arrays.
+ */
+public class StdDataColumn {
+
+    /**
+     * The kind of values stored in a data column
+     */
+    public enum ValueKind {
+        DOUBLE,
+        INTEGER,
+        STRING
+    }
+
+    private final ValueKind kind;
+    private final int numSamples;
+    // Values for DOUBLE columns; null otherwise
+    private final double[] doubleVals;
+    // Values for INTEGER columns or dictionary codes for STRING columns; null for DOUBLE columns
+    private final int[] intVals;
+    // Dictionary of distinct strings for STRING columns and the code of each string; null otherwise
+    private final ArrayList<String> dictionary;
+    private final HashMap<String,Integer> dictionaryCodes;
+    // Bit j is set if the value for sample j is missing
+    private final BitSet missing;
+
+    /**
+     * Create a column, with all values missing, for the given number of samples of the given data type.
+     *
+     * @param dtype
+     *         data type of the column; must be a {@link StringDashDataType}, {@link IntDashDataType},
+     *         or {@link DoubleDashDataType}
+     * @param numSamples
+     *         number of samples (rows) in the column
+     *
+     * @throws IllegalArgumentException
+     *         if the data type is not one of the known subclasses, or if the number of samples is negative
+     */
+    public StdDataColumn(DashDataType<?> dtype, int numSamples) throws IllegalArgumentException {
+        this(valueKindOf(dtype), numSamples);
+    }
+
+    /**
+     * Create a column, with all values missing, for the given number of samples of the given kind of values.
+     *
+     * @param kind
+     *         kind of values in this column
+     * @param numSamples
+     *         number of samples (rows) in the column
+     *
+     * @throws IllegalArgumentException
+     *         if the number of samples is negative
+     */
+    public StdDataColumn(ValueKind kind, int numSamples) throws IllegalArgumentException {
+        if ( numSamples < 0 )
+            throw new IllegalArgumentException("invalid number of samples: " + numSamples);
+        this.kind = kind;
+        this.numSamples = numSamples;
+        switch ( kind ) {
+            case DOUBLE:
+                doubleVals = new double[numSamples];
+                intVals = null;
+                dictionary = null;
+                dictionaryCodes = null;
+                break;
+            case INTEGER:
+                doubleVals = null;
+                intVals = new int[numSamples];
+                dictionary = null;
+                dictionaryCodes = null;
+                break;
+            case STRING:
+                doubleVals = null;
+                intVals = new int[numSamples];
+                dictionary = new ArrayList<String>();
+                dictionaryCodes = new HashMap<String,Integer>();
+                break;
+            default:
+                throw new IllegalArgumentException("unknown kind of values: " + kind);
+        }
+        missing = new BitSet(numSamples);
+        missing.set(0, numSamples);
+    }
+
+    /**
+     * Create a copy of the given column.
+     *
+     * @param other
+     *         column to copy
+     */
+    public StdDataColumn(StdDataColumn other) {
+        kind = other.kind;
+        numSamples = other.numSamples;
+        doubleVals = (other.doubleVals != null) ? other.doubleVals.clone() : null;
+        intVals = (other.intVals != null) ? other.intVals.clone() : null;
+        dictionary = (other.dictionary != null) ? new ArrayList<String>(other.dictionary) : null;
+        dictionaryCodes = (other.dictionaryCodes != null) ? new HashMap<String,Integer>(other.dictionaryCodes) : null;
+        missing = (BitSet) other.missing.clone();
+    }
+
+    /**
+     * @return the kind of values stored for the given data type
+     *
+     * @throws IllegalArgumentException
+     *         if the data type is not a {@link StringDashDataType}, {@link IntDashDataType},
+     *         or {@link DoubleDashDataType}
+     */
+    public static ValueKind valueKindOf(DashDataType<?> dtype) throws IllegalArgumentException {
+        if ( dtype instanceof DoubleDashDataType )
+            return ValueKind.DOUBLE;
+        if ( dtype instanceof IntDashDataType )
+            return ValueKind.INTEGER;
+        if ( dtype instanceof StringDashDataType )
+            return ValueKind.STRING;
+        if ( dtype == null )
+            throw new IllegalArgumentException("no data type given");
+        throw new IllegalArgumentException("unknown data class type for " +
+                dtype.getDisplayName() + " (" + dtype.getDataClassName() + ")");
+    }
+
+    /**
+     * @return the kind of values in this column
+     */
+    public ValueKind getValueKind() {
+        return kind;
+    }
+
+    /**
+     * @return the number of samples (rows) in this column
+     */
+    public int getNumSamples() {
+        return numSamples;
+    }
+
+    /**
+     * @param sampleIdx
+     *         index of the sample (row)
+     *
+     * @return if the value of the sample is missing
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     */
+    public boolean isMissing(int sampleIdx) throws IndexOutOfBoundsException {
+        checkIndex(sampleIdx);
+        return missing.get(sampleIdx);
+    }
+
+    /**
+     * @return if any values in this column are missing
+     */
+    public boolean hasMissing() {
+        return !missing.isEmpty();
+    }
+
+    /**
+     * @param sampleIdx
+     *         index of the sample (row)
+     *
+     * @return the value of the sample in this DOUBLE column
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     * @throws IllegalStateException
+     *         if this is not a DOUBLE column, or if the value is missing
+     */
+    public double getDouble(int sampleIdx) throws IndexOutOfBoundsException, IllegalStateException {
+        if ( doubleVals == null )
+            throw new IllegalStateException("not a column of floating-point values");
+        if ( isMissing(sampleIdx) )
+            throw new IllegalStateException("value is missing");
+        return doubleVals[sampleIdx];
+    }
+
+    /**
+     * @param sampleIdx
+     *         index of the sample (row)
+     *
+     * @return the value of the sample in this INTEGER column
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     * @throws IllegalStateException
+     *         if this is not an INTEGER column, or if the value is missing
+     */
+    public int getInt(int sampleIdx) throws IndexOutOfBoundsException, IllegalStateException {
+        if ( kind != ValueKind.INTEGER )
+            throw new IllegalStateException("not a column of integer values");
+        if ( isMissing(sampleIdx) )
+            throw new IllegalStateException("value is missing");
+        return intVals[sampleIdx];
+    }
+
+    /**
+     * @param sampleIdx
+     *         index of the sample (row)
+     *
+     * @return the value of the sample in this STRING column
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     * @throws IllegalStateException
+     *         if this is not a STRING column, or if the value is missing
+     */
+    public String getString(int sampleIdx) throws IndexOutOfBoundsException, IllegalStateException {
+        if ( dictionary == null )
+            throw new IllegalStateException("not a column of string values");
+        if ( isMissing(sampleIdx) )
+            throw new IllegalStateException("value is missing");
+        return dictionary.get(intVals[sampleIdx]);
+    }
+
+    /**
+     * @param sampleIdx
+     *         index of the sample (row)
+     *
+     * @return the value of the sample as a Double, Integer, or String object, as appropriate for the kind of column;
+     *         null if the value is missing
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     */
+    public Object getValue(int sampleIdx) throws IndexOutOfBoundsException {
+        if ( isMissing(sampleIdx) )
+            return null;
+        switch ( kind ) {
+            case DOUBLE:
+                return Double.valueOf(doubleVals[sampleIdx]);
+            case INTEGER:
+                return Integer.valueOf(intVals[sampleIdx]);
+            default:
+                return dictionary.get(intVals[sampleIdx]);
+        }
+    }
+
+    /**
+     * @return the values of this DOUBLE or INTEGER column as doubles; missing values are NaN
+     *
+     * @throws IllegalStateException
+     *         if this is a STRING column
+     */
+    public double[] toDoubles() throws IllegalStateException {
+        double[] values = new double[numSamples];
+        if ( kind == ValueKind.DOUBLE )
+            System.arraycopy(doubleVals, 0, values, 0, numSamples);
+        else if ( kind == ValueKind.INTEGER ) {
+            for (int j = 0; j < numSamples; j++) {
+                values[j] = intVals[j];
+            }
+        }
+        else
+            throw new IllegalStateException("not a column of numeric values");
+        for (int j = missing.nextSetBit(0); j >= 0; j = missing.nextSetBit(j + 1)) {
+            values[j] = Double.NaN;
+        }
+        return values;
+    }
+
+    /**
+     * @param missingValue
+     *         value to assign for missing values
+     *
+     * @return a new array of the values of this DOUBLE column; NaN and infinite values are also given the missing value
+     *
+     * @throws IllegalStateException
+     *         if this is not a DOUBLE column
+     */
+    public double[] getDoubles(double missingValue) throws IllegalStateException {
+        if ( doubleVals == null )
+            throw new IllegalStateException("not a column of floating-point values");
+        double[] values = doubleVals.clone();
+        for (int j = 0; j < numSamples; j++) {
+            if ( Double.isNaN(values[j]) || Double.isInfinite(values[j]) )
+                values[j] = missingValue;
+        }
+        for (int j = missing.nextSetBit(0); j >= 0; j = missing.nextSetBit(j + 1)) {
+            values[j] = missingValue;
+        }
+        return values;
+    }
+
+    /**
+     * @param missingValue
+     *         value to assign for missing values
+     *
+     * @return a new array of the values of this INTEGER column
+     *
+     * @throws IllegalStateException
+     *         if this is not an INTEGER column
+     */
+    public int[] getInts(int missingValue) throws IllegalStateException {
+        if ( kind != ValueKind.INTEGER )
+            throw new IllegalStateException("not a column of integer values");
+        int[] values = intVals.clone();
+        for (int j = missing.nextSetBit(0); j >= 0; j = missing.nextSetBit(j + 1)) {
+            values[j] = missingValue;
+        }
+        return values;
+    }
+
+    /**
+     * @param missingValue
+     *         value to assign for missing values
+     *
+     * @return a new array of the values of this STRING column; the array elements for equal values are the same
+     *         String object
+     *
+     * @throws IllegalStateException
+     *         if this is not a STRING column
+     */
+    public String[] getStrings(String missingValue) throws IllegalStateException {
+        if ( dictionary == null )
+            throw new IllegalStateException("not a column of string values");
+        String[] values = new String[numSamples];
+        for (int j = 0; j < numSamples; j++) {
+            values[j] = missing.get(j) ? missingValue : dictionary.get(intVals[j]);
+        }
+        return values;
+    }
+
+    /**
+     * Copies a section of the values of this DOUBLE column into an existing array.
+     *
+     * @param start
+     *         index of the first sample to copy
+     * @param count
+     *         number of samples to copy
+     * @param missingValue
+     *         value to assign for missing values; NaN and infinite values are also given the missing value
+     * @param dest
+     *         array to receive the values, starting at index zero
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the section of samples is invalid
+     * @throws IllegalStateException
+     *         if this is not a DOUBLE column
+     */
+    public void copyDoubles(int start, int count, double missingValue, double[] dest)
+            throws IndexOutOfBoundsException, IllegalStateException {
+        if ( doubleVals == null )
+            throw new IllegalStateException("not a column of floating-point values");
+        checkSection(start, count);
+        System.arraycopy(doubleVals, start, dest, 0, count);
+        for (int j = 0; j < count; j++) {
+            if ( Double.isNaN(dest[j]) || Double.isInfinite(dest[j]) )
+                dest[j] = missingValue;
+        }
+        int end = start + count;
+        for (int j = missing.nextSetBit(start); (j >= 0) && (j < end); j = missing.nextSetBit(j + 1)) {
+            dest[j - start] = missingValue;
+        }
+    }
+
+    /**
+     * Copies a section of the values of this INTEGER column into an existing array.
+     *
+     * @param start
+     *         index of the first sample to copy
+     * @param count
+     *         number of samples to copy
+     * @param missingValue
+     *         value to assign for missing values
+     * @param dest
+     *         array to receive the values, starting at index zero
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the section of samples is invalid
+     * @throws IllegalStateException
+     *         if this is not an INTEGER column
+     */
+    public void copyInts(int start, int count, int missingValue, int[] dest)
+            throws IndexOutOfBoundsException, IllegalStateException {
+        if ( kind != ValueKind.INTEGER )
+            throw new IllegalStateException("not a column of integer values");
+        checkSection(start, count);
+        System.arraycopy(intVals, start, dest, 0, count);
+        int end = start + count;
+        for (int j = missing.nextSetBit(start); (j >= 0) && (j < end); j = missing.nextSetBit(j + 1)) {
+            dest[j - start] = missingValue;
+        }
+    }
+
+    /**
+     * Copies a section of the values of this STRING column into an existing array.
+     *
+     * @param start
+     *         index of the first sample to copy
+     * @param count
+     *         number of samples to copy
+     * @param missingValue
+     *         value to assign for missing values
+     * @param dest
+     *         array to receive the values, starting at index zero; the array elements for equal values are the same
+     *         String object
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the section of samples is invalid
+     * @throws IllegalStateException
+     *         if this is not a STRING column
+     */
+    public void copyStrings(int start, int count, String missingValue, String[] dest)
+            throws IndexOutOfBoundsException, IllegalStateException {
+        if ( dictionary == null )
+            throw new IllegalStateException("not a column of string values");
+        checkSection(start, count);
+        for (int j = 0; j < count; j++) {
+            dest[j] = missing.get(start + j) ? missingValue : dictionary.get(intVals[start + j]);
+        }
+    }
+
+    /**
+     * @return the maximum length of the (non-missing) values of this STRING column; zero if all values are missing
+     *
+     * @throws IllegalStateException
+     *         if this is not a STRING column
+     */
+    public int getMaxStringLength() throws IllegalStateException {
+        if ( dictionary == null )
+            throw new IllegalStateException("not a column of string values");
+        // Only consider dictionary entries still in use
+        boolean[] used = new boolean[dictionary.size()];
+        for (int j = missing.nextClearBit(0); j < numSamples; j = missing.nextClearBit(j + 1)) {
+            used[intVals[j]] = true;
+        }
+        int maxLen = 0;
+        for (int n = 0; n < used.length; n++) {
+            if ( used[n] && (maxLen < dictionary.get(n).length()) )
+                maxLen = dictionary.get(n).length();
+        }
+        return maxLen;
+    }
+
+    /**
+     * Marks the value of a sample as missing.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     */
+    void setMissing(int sampleIdx) throws IndexOutOfBoundsException {
+        checkIndex(sampleIdx);
+        missing.set(sampleIdx);
+    }
+
+    /**
+     * Assigns the value of a sample in this DOUBLE column.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     * @throws IllegalStateException
+     *         if this is not a DOUBLE column
+     */
+    void setDouble(int sampleIdx, double value) throws IndexOutOfBoundsException, IllegalStateException {
+        if ( doubleVals == null )
+            throw new IllegalStateException("not a column of floating-point values");
+        checkIndex(sampleIdx);
+        doubleVals[sampleIdx] = value;
+        missing.clear(sampleIdx);
+    }
+
+    /**
+     * Assigns the value of a sample in this INTEGER column.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     * @throws IllegalStateException
+     *         if this is not an INTEGER column
+     */
+    void setInt(int sampleIdx, int value) throws IndexOutOfBoundsException, IllegalStateException {
+        if ( kind != ValueKind.INTEGER )
+            throw new IllegalStateException("not a column of integer values");
+        checkIndex(sampleIdx);
+        intVals[sampleIdx] = value;
+        missing.clear(sampleIdx);
+    }
+
+    /**
+     * Assigns the value of a sample in this STRING column.  A null value marks the value as missing.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     * @throws IllegalStateException
+     *         if this is not a STRING column
+     */
+    void setString(int sampleIdx, String value) throws IndexOutOfBoundsException, IllegalStateException {
+        if ( dictionary == null )
+            throw new IllegalStateException("not a column of string values");
+        checkIndex(sampleIdx);
+        if ( value == null ) {
+            missing.set(sampleIdx);
+            return;
+        }
+        Integer code = dictionaryCodes.get(value);
+        if ( code == null ) {
+            code = dictionary.size();
+            dictionary.add(value);
+            dictionaryCodes.put(value, code);
+        }
+        intVals[sampleIdx] = code;
+        missing.clear(sampleIdx);
+    }
+
+    /**
+     * Assigns the value of a sample from a Double, Integer, or String object, as appropriate for the kind of column.
+     * A null value marks the value as missing.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     * @throws IllegalArgumentException
+     *         if the value is not the appropriate class of object for this column
+     */
+    void setValue(int sampleIdx, Object value) throws IndexOutOfBoundsException, IllegalArgumentException {
+        if ( value == null ) {
+            setMissing(sampleIdx);
+            return;
+        }
+        try {
+            switch ( kind ) {
+                case DOUBLE:
+                    setDouble(sampleIdx, ((Double) value).doubleValue());
+                    break;
+                case INTEGER:
+                    setInt(sampleIdx, ((Integer) value).intValue());
+                    break;
+                default:
+                    setString(sampleIdx, (String) value);
+                    break;
+            }
+        } catch ( ClassCastException ex ) {
+            throw new IllegalArgumentException("a " + value.getClass().getSimpleName() +
+                    " value is not valid for a column of " + kind.name().toLowerCase() + " values");
+        }
+    }
+
+    /**
+     * Assigns all the values of this DOUBLE column.  All values are marked as not missing; use
+     * {@link #setMissing(int)} afterwards to mark any missing values.
+     *
+     * @param values
+     *         values to assign; the array is copied
+     *
+     * @throws IllegalArgumentException
+     *         if the number of values is not the number of samples in this column
+     * @throws IllegalStateException
+     *         if this is not a DOUBLE column
+     */
+    void setDoubles(double[] values) throws IllegalArgumentException, IllegalStateException {
+        if ( doubleVals == null )
+            throw new IllegalStateException("not a column of floating-point values");
+        if ( values.length != numSamples )
+            throw new IllegalArgumentException("number of values (" + values.length +
+                    ") does not match the number of samples (" + numSamples + ")");
+        System.arraycopy(values, 0, doubleVals, 0, numSamples);
+        missing.clear();
+    }
+
+    /**
+     * Assigns all the values of this INTEGER column.  All values are marked as not missing; use
+     * {@link #setMissing(int)} afterwards to mark any missing values.
+     *
+     * @param values
+     *         values to assign; the array is copied
+     *
+     * @throws IllegalArgumentException
+     *         if the number of values is not the number of samples in this column
+     * @throws IllegalStateException
+     *         if this is not an INTEGER column
+     */
+    void setInts(int[] values) throws IllegalArgumentException, IllegalStateException {
+        if ( kind != ValueKind.INTEGER )
+            throw new IllegalStateException("not a column of integer values");
+        if ( values.length != numSamples )
+            throw new IllegalArgumentException("number of values (" + values.length +
+                    ") does not match the number of samples (" + numSamples + ")");
+        System.arraycopy(values, 0, intVals, 0, numSamples);
+        missing.clear();
+    }
+
+    private void checkIndex(int sampleIdx) throws IndexOutOfBoundsException {
+        if ( (sampleIdx < 0) || (sampleIdx >= numSamples) )
+            throw new IndexOutOfBoundsException("sample index is invalid: " + sampleIdx);
+    }
+
+    private void checkSection(int start, int count) throws IndexOutOfBoundsException {
+        if ( (start < 0) || (count < 0) || (start > numSamples - count) )
+            throw new IndexOutOfBoundsException("invalid section of " + count + " samples starting at " + start);
+    }
+
+    @Override
+    public int hashCode() {
+        // Do not use the values so equal STRING columns with different dictionaries have the same hash code
+        final int prime = 37;
+        int result = kind.hashCode();
+        result = prime * result + numSamples;
+        result = prime * result + missing.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj )
+            return true;
+        if ( obj == null )
+            return false;
+
+        if ( !(obj instanceof StdDataColumn) )
+            return false;
+        StdDataColumn other = (StdDataColumn) obj;
+
+        if ( kind != other.kind )
+            return false;
+        if ( numSamples != other.numSamples )
+            return false;
+        if ( !missing.equals(other.missing) )
+            return false;
+
+        for (int j = missing.nextClearBit(0); j < numSamples; j = missing.nextClearBit(j + 1)) {
+            switch ( kind ) {
+                case DOUBLE:
+                    // Same comparison as Double.equals
+                    if ( Double.doubleToLongBits(doubleVals[j]) != Double.doubleToLongBits(other.doubleVals[j]) )
+                        return false;
+                    break;
+                case INTEGER:
+                    if ( intVals[j] != other.intVals[j] )
+                        return false;
+                    break;
+                default:
+                    if ( !dictionary.get(intVals[j]).equals(other.dictionary.get(other.intVals[j])) )
+                        return false;
+                    break;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        String[] strs = new String[numSamples];
+        for (int j = 0; j < numSamples; j++) {
+            Object value = getValue(j);
+            strs[j] = (value != null) ? value.toString() : "null";
+        }
+        return "StdDataColumn[kind=" + kind + ", values=" + Arrays.toString(strs) + "]";
+    }
+
+}
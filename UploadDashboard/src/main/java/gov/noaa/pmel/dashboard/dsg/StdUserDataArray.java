@@ -7,7 +7,7 @@ import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
 import gov.noaa.pmel.dashboard.datatype.SocatTypes;
 import gov.noaa.pmel.dashboard.datatype.StringDashDataType;
 import gov.noaa.pmel.dashboard.datatype.ValueConverter;
-import gov.noaa.pmel.dashboard.qc.DataLocation;
+import gov.noaa.pmel.dashboard.dsg.StdDataColumn.ValueKind;
 import gov.noaa.pmel.dashboard.server.DashboardConfigStore;
 import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import gov.noaa.pmel.dashboard.shared.ADCMessage;
@@ -19,11 +19,10 @@ import gov.noaa.pmel.dashboard.shared.DataQCFlag.Severity;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
-import java.util.TreeSet;
+import java.util.Iterator;
 
 /**
- * A 2-D array of objects corresponding to the standardized values of string values provided by the user.
+ * The standardized values, stored by data column, of the string values provided by the user.
  * Also contains 1-D arrays of information describing each data column.
  *
  * @author Karl Smith
@@ -33,6 +32,11 @@ public class StdUserDataArray extends StdDataArray {
     public static final String INCONSISTENT_NUMBER_OF_DATA_VALUES_MSG =
             "inconstistent number of data values";
 
+    /**
+     * Number of data rows standardized together; only the user's strings for this many rows are gathered at a time
+     */
+    public static final int STANDARDIZATION_CHUNK_SIZE = 4096;
+
     private String[] userColNames;
     private String[] userUnits;
     private String[] userMissVals;
@@ -45,6 +49,11 @@ public class StdUserDataArray extends StdDataArray {
      * {@link DashboardServerUtils#OTHER} are ignored; {@link #isUsableIndex(int)} will return false, and
      * {@link #getStdVal(int, int)} will throw an exception for data columns of these types.  Values that
      * match a missing value for that data column are set to null.
+     * <p>
+     * The data is standardized in chunks of {@link #STANDARDIZATION_CHUNK_SIZE} rows taken directly from the
+     * data rows of the dataset.  The standardizer of a data column may depend on the standardized values of
+     * other columns; such a column is standardized once the columns it depends upon have been standardized.
+     * A data column whose dependencies can never be satisfied is left as not standardized.
      *
      * <p>
      * The list of automated data check messages describing problems (critical errors) encountered when
@@ -111,91 +120,235 @@ public class StdUserDataArray extends StdDataArray {
             throw new IllegalArgumentException("number of row numbers (" + rowNums.size() +
                     ") does not match the number of samples (" + numSamples + ")");
 
-        stdObjects = new Object[numSamples][numDataCols];
+        stdColumns = new StdDataColumn[numDataCols];
+        for (int k = 0; k < numDataCols; k++) {
+            stdColumns[k] = new StdDataColumn(dataTypes[k], numSamples);
+        }
         stdMsgList = new ArrayList<ADCMessage>();
 
-        // Create a 2-D array of these Strings for efficiency
-        String[][] strDataVals = new String[numSamples][numDataCols];
-        int woceIdx = -1;
-        for (int j = 0; j < numSamples; j++) {
-            ArrayList<String> rowVals = dataVals.get(j);
-            if ( rowVals.size() != numUserDataCols ) {
-                // Generate a general message for this row - in case too long
-                ADCMessage msg = new ADCMessage();
-                msg.setSeverity(Severity.CRITICAL);
-                msg.setRowNumber(j + 1);
-                msg.setGeneralComment(INCONSISTENT_NUMBER_OF_DATA_VALUES_MSG);
-                msg.setDetailedComment(INCONSISTENT_NUMBER_OF_DATA_VALUES_MSG + "; " +
-                        numUserDataCols + " expected but " + rowVals.size() + " found");
-                stdMsgList.add(msg);
-                // Continue on, assuming the missing values are at the end
+        // Columns still needing a standardizer; the values in UNKNOWN and OTHER columns remain missing
+        ArrayList<Integer> pendingCols = new ArrayList<Integer>(numDataCols);
+        for (int k = 0; k < numDataCols; k++) {
+            if ( DashboardServerUtils.UNKNOWN.typeNameEquals(dataTypes[k]) ||
+                    DashboardServerUtils.OTHER.typeNameEquals(dataTypes[k]) ) {
+                standardized[k] = null;
             }
-            for (int k = 0; k < numUserDataCols; k++) {
-                try {
-                    strDataVals[j][k] = rowVals.get(k);
-                } catch ( IndexOutOfBoundsException ex ) {
-                    // Setting it to null will generate a "no value given" message
-                    strDataVals[j][k] = null;
-                }
+            else {
+                standardized[k] = false;
+                pendingCols.add(k);
             }
-            for (int k = numUserDataCols; k < numDataCols; k++) {
-                if ( DashboardServerUtils.SAMPLE_NUMBER.typeNameEquals(dataTypes[k]) ) {
-                    strDataVals[j][k] = rowNums.get(j).toString();
+        }
+        for (int k = numUserDataCols; k < numDataCols; k++) {
+            if ( !(DashboardServerUtils.SAMPLE_NUMBER.typeNameEquals(dataTypes[k]) ||
+                    SocatTypes.WOCE_CO2_WATER.typeNameEquals(dataTypes[k])) )
+                throw new IllegalArgumentException("unexpected unknown added data types");
+        }
+
+        // Columns with a standardizer, in the order they are to be standardized;
+        // any column a standardizer depends upon appears earlier in this list
+        ArrayList<Integer> orderedCols = new ArrayList<Integer>(numDataCols);
+        ValueConverter<?>[] stdizers = new ValueConverter<?>[numDataCols];
+        // Last message added for each column, so a run of rows with the same problem can continue across chunks
+        ADCMessage[] lastColMsgs = new ADCMessage[numDataCols];
+
+        // Standardize the data a chunk of rows at a time so only the strings for one chunk are gathered at once
+        String[][] chunkVals = new String[Math.min(STANDARDIZATION_CHUNK_SIZE, numSamples)][numDataCols];
+        Iterator<ArrayList<String>> rowIter = dataVals.iterator();
+        for (int firstRow = 0; firstRow < numSamples; firstRow += STANDARDIZATION_CHUNK_SIZE) {
+            int numRows = Math.min(STANDARDIZATION_CHUNK_SIZE, numSamples - firstRow);
+            for (int r = 0; r < numRows; r++) {
+                int j = firstRow + r;
+                ArrayList<String> rowVals = rowIter.next();
+                if ( rowVals.size() != numUserDataCols ) {
+                    // Generate a general message for this row - in case too long
+                    ADCMessage msg = new ADCMessage();
+                    msg.setSeverity(Severity.CRITICAL);
+                    msg.setRowNumber(j + 1);
+                    msg.setGeneralComment(INCONSISTENT_NUMBER_OF_DATA_VALUES_MSG);
+                    msg.setDetailedComment(INCONSISTENT_NUMBER_OF_DATA_VALUES_MSG + "; " +
+                            numUserDataCols + " expected but " + rowVals.size() + " found");
+                    stdMsgList.add(msg);
+                    // Continue on, assuming the missing values are at the end
                 }
-                else if ( SocatTypes.WOCE_CO2_WATER.typeNameEquals(dataTypes[k]) ) {
-                    strDataVals[j][k] = DashboardUtils.STRING_MISSING_VALUE;
+                for (int k = 0; k < numUserDataCols; k++) {
+                    // Setting it to null will generate a "no value given" message
+                    chunkVals[r][k] = (k < rowVals.size()) ? rowVals.get(k) : null;
                 }
-                else {
-                    throw new IllegalArgumentException("unexpected unknown added data types");
+                for (int k = numUserDataCols; k < numDataCols; k++) {
+                    if ( DashboardServerUtils.SAMPLE_NUMBER.typeNameEquals(dataTypes[k]) )
+                        chunkVals[r][k] = rowNums.get(j).toString();
+                    else
+                        chunkVals[r][k] = DashboardUtils.STRING_MISSING_VALUE;
                 }
             }
-        }
 
-        // Standardize data columns
-        boolean needsAnotherPass;
-        do {
-            needsAnotherPass = false;
-            for (int k = 0; k < numDataCols; k++) {
-                DashDataType<?> colType = dataTypes[k];
-                if ( DashboardServerUtils.UNKNOWN.typeNameEquals(colType) ||
-                        DashboardServerUtils.OTHER.typeNameEquals(colType) ) {
-                    for (int j = 0; j < numSamples; j++) {
-                        stdObjects[j][k] = null;
-                    }
-                    standardized[k] = null;
+            // Standardize this chunk of the columns with a standardizer
+            for (Iterator<Integer> colIter = orderedCols.iterator(); colIter.hasNext(); ) {
+                int k = colIter.next();
+                if ( !standardizeChunk(k, stdizers[k], chunkVals, firstRow, numRows, lastColMsgs) ) {
+                    // Not expected since the columns are in dependency order; give up on this column
+                    standardized[k] = false;
+                    colIter.remove();
                 }
-                else {
+            }
+
+            // While working on the first chunk, find standardizers for the remaining columns.  Only columns whose
+            // standardizers depend on other columns not yet standardized are retried, until no more progress is
+            // made.  Any columns still pending after the first chunk are left as not standardized.
+            boolean progress = (firstRow == 0);
+            while ( progress && !pendingCols.isEmpty() ) {
+                progress = false;
+                for (Iterator<Integer> colIter = pendingCols.iterator(); colIter.hasNext(); ) {
+                    int k = colIter.next();
+                    ValueConverter<?> stdizer;
                     try {
-                        ValueConverter<?> stdizer = colType.getStandardizer(userUnits[k], userMissVals[k], this);
-                        for (int j = 0; j < numSamples; j++) {
-                            try {
-                                stdObjects[j][k] = stdizer.convertValueOf(strDataVals[j][k]);
-                            } catch ( IllegalArgumentException ex ) {
-                                stdObjects[j][k] = null;
-                                ADCMessage msg = new ADCMessage();
-                                if ( colType.isCritical() )
-                                    msg.setSeverity(Severity.CRITICAL);
-                                else
-                                    msg.setSeverity(Severity.ERROR);
-                                msg.setRowNumber(j + 1);
-                                msg.setColNumber(k + 1);
-                                msg.setColName(userColNames[k]);
-                                msg.setGeneralComment(ex.getMessage());
-                                if ( strDataVals[j][k] == null )
-                                    msg.setDetailedComment(ex.getMessage());
-                                else
-                                    msg.setDetailedComment(ex.getMessage() + ": \"" + strDataVals[j][k] + "\"");
-                                stdMsgList.add(msg);
-                            }
-                        }
-                        standardized[k] = true;
+                        stdizer = dataTypes[k].getStandardizer(userUnits[k], userMissVals[k], this);
                     } catch ( IllegalStateException ex ) {
-                        standardized[k] = false;
-                        needsAnotherPass = true;
+                        continue;
+                    }
+                    if ( standardizeChunk(k, stdizer, chunkVals, firstRow, numRows, lastColMsgs) ) {
+                        stdizers[k] = stdizer;
+                        orderedCols.add(k);
+                        standardized[k] = true;
+                        colIter.remove();
+                        progress = true;
                     }
                 }
             }
-        } while ( needsAnotherPass );
+        }
+    }
+
+    /**
+     * Standardizes the values of a chunk of rows of a data column.  Values that cannot be interpreted are set
+     * to missing and generate messages.  These messages are added to the internal list of messages only if the
+     * standardization of the chunk succeeds; thus a chunk can be retried without duplicating messages.
+     * Consecutive rows with the same problem are described by one message for the run of rows, so the detailed
+     * comment is only formatted for the first row of a run.
+     *
+     * @param k
+     *         index of the data column
+     * @param stdizer
+     *         standardizer for the data column
+     * @param chunkVals
+     *         user's strings for the chunk of rows; chunkVals[r][k] is the value for row (firstRow + r)
+     * @param firstRow
+     *         index of the first row of the chunk
+     * @param numRows
+     *         number of rows in the chunk
+     * @param lastColMsgs
+     *         last message added for each data column; the run of rows of the message for this data column is
+     *         extended if the messages for this chunk start by continuing it, and the message is updated
+     *
+     * @return true if the chunk was standardized; false if the standardizer needs standardized values
+     *         from another data column that are not yet available
+     */
+    private boolean standardizeChunk(int k, ValueConverter<?> stdizer, String[][] chunkVals,
+            int firstRow, int numRows, ADCMessage[] lastColMsgs) {
+        DashDataType<?> colType = dataTypes[k];
+        StdDataColumn column = stdColumns[k];
+        Severity severity = colType.isCritical() ? Severity.CRITICAL : Severity.ERROR;
+        ArrayList<ADCMessage> chunkMsgs = new ArrayList<ADCMessage>();
+        ADCMessage runMsg = null;
+        // Floating-point and integer values are converted without creating Double or Integer objects
+        ValueKind kind = column.getValueKind();
+        try {
+            for (int r = 0; r < numRows; r++) {
+                int j = firstRow + r;
+                String strVal = chunkVals[r][k];
+                try {
+                    if ( ValueKind.DOUBLE.equals(kind) ) {
+                        double dblVal = stdizer.convertDoubleOf(strVal);
+                        if ( Double.isNaN(dblVal) )
+                            column.setMissing(j);
+                        else
+                            column.setDouble(j, dblVal);
+                    }
+                    else if ( ValueKind.INTEGER.equals(kind) ) {
+                        int intVal = stdizer.convertIntOf(strVal);
+                        if ( intVal == ValueConverter.MISSING_INT_VALUE )
+                            column.setMissing(j);
+                        else
+                            column.setInt(j, intVal);
+                    }
+                    else {
+                        column.setValue(j, stdizer.convertValueOf(strVal));
+                    }
+                } catch ( IllegalArgumentException ex ) {
+                    column.setMissing(j);
+                    if ( extendMessageRun(runMsg, severity, k + 1, ex.getMessage(), j + 1, j + 1, strVal) )
+                        continue;
+                    ADCMessage msg = new ADCMessage();
+                    msg.setSeverity(severity);
+                    msg.setRowNumber(j + 1);
+                    msg.setColNumber(k + 1);
+                    msg.setColName(userColNames[k]);
+                    msg.setGeneralComment(ex.getMessage());
+                    if ( strVal == null )
+                        msg.setDetailedComment(ex.getMessage());
+                    else
+                        msg.setDetailedComment(ex.getMessage() + ": \"" + strVal + "\"");
+                    msg.setFirstValue(strVal);
+                    msg.setLastValue(strVal);
+                    chunkMsgs.add(msg);
+                    runMsg = msg;
+                }
+            }
+        } catch ( IllegalStateException ex ) {
+            for (int r = 0; r < numRows; r++) {
+                column.setMissing(firstRow + r);
+            }
+            return false;
+        }
+        if ( !chunkMsgs.isEmpty() ) {
+            // Continue the run of rows from the previous chunk if this chunk starts with the same problem
+            ADCMessage msg = chunkMsgs.get(0);
+            if ( extendMessageRun(lastColMsgs[k], msg.getSeverity(), k + 1, msg.getGeneralComment(),
+                    msg.getRowNumber(), msg.getLastRowNumber(), msg.getLastValue()) )
+                chunkMsgs.remove(0);
+            if ( !chunkMsgs.isEmpty() )
+                lastColMsgs[k] = chunkMsgs.get(chunkMsgs.size() - 1);
+            stdMsgList.addAll(chunkMsgs);
+        }
+        return true;
+    }
+
+    /**
+     * Extends the run of rows of a message to include the given rows if the message is for the same data column,
+     * severity, and general comment, and its run of rows ends just before the given rows.  The detailed comment
+     * of the message, which may describe only the first row, is removed so {@link ADCMessage#getDetailedComment()}
+     * describes the run of rows, including the first value of the message and the last value given here.
+     *
+     * @param runMsg
+     *         message to extend; may be null
+     * @param severity
+     *         severity of the problem in the given rows
+     * @param colNum
+     *         data column number of the problem in the given rows
+     * @param generalComment
+     *         general comment for the problem in the given rows
+     * @param firstRowNum
+     *         first of the given data row numbers
+     * @param lastRowNum
+     *         last of the given data row numbers
+     * @param lastValue
+     *         offending data value of the last of the given rows; may be null if there is no such value
+     *
+     * @return true if the run of rows of the message was extended; false if a new message is needed
+     */
+    private static boolean extendMessageRun(ADCMessage runMsg, Severity severity, int colNum,
+            String generalComment, int firstRowNum, int lastRowNum, String lastValue) {
+        if ( (runMsg == null) || (generalComment == null) )
+            return false;
+        if ( (runMsg.getRowNumber() < 1) || (runMsg.getLastRowNumber() != firstRowNum - 1) )
+            return false;
+        if ( (runMsg.getColNumber() != colNum) || !runMsg.getSeverity().equals(severity) )
+            return false;
+        if ( !runMsg.getGeneralComment().equals(generalComment) )
+            return false;
+        runMsg.setLastRowNumber(lastRowNum);
+        runMsg.setLastValue(lastValue);
+        runMsg.setDetailedComment(null);
+        return true;
     }
 
     /**
@@ -208,17 +361,21 @@ public class StdUserDataArray extends StdDataArray {
     public Double[] checkMissingLonLatTime() {
         try {
             Double[] longitudes = getSampleLongitudes();
+            ADCMessage runMsg = null;
             for (int j = 0; j < numSamples; j++) {
                 if ( longitudes[j] == null ) {
+                    String comment = "missing longitude";
+                    if ( extendMessageRun(runMsg, Severity.CRITICAL, longitudeIndex + 1, comment, j + 1, j + 1, null) )
+                        continue;
                     ADCMessage msg = new ADCMessage();
                     msg.setSeverity(Severity.CRITICAL);
                     msg.setRowNumber(j + 1);
                     msg.setColNumber(longitudeIndex + 1);
                     msg.setColName(userColNames[longitudeIndex]);
-                    String comment = "missing longitude";
                     msg.setGeneralComment(comment);
                     msg.setDetailedComment(comment);
                     stdMsgList.add(msg);
+                    runMsg = msg;
                 }
             }
         } catch ( Exception ex ) {
@@ -232,17 +389,21 @@ public class StdUserDataArray extends StdDataArray {
 
         try {
             Double[] latitudes = getSampleLatitudes();
+            ADCMessage runMsg = null;
             for (int j = 0; j < numSamples; j++) {
                 if ( latitudes[j] == null ) {
+                    String comment = "missing latitude";
+                    if ( extendMessageRun(runMsg, Severity.CRITICAL, latitudeIndex + 1, comment, j + 1, j + 1, null) )
+                        continue;
                     ADCMessage msg = new ADCMessage();
                     msg.setSeverity(Severity.CRITICAL);
                     msg.setRowNumber(j + 1);
                     msg.setColNumber(latitudeIndex + 1);
                     msg.setColName(userColNames[latitudeIndex]);
-                    String comment = "missing latitude";
                     msg.setGeneralComment(comment);
                     msg.setDetailedComment(comment);
                     stdMsgList.add(msg);
+                    runMsg = msg;
                 }
             }
         } catch ( Exception ex ) {
@@ -257,18 +418,23 @@ public class StdUserDataArray extends StdDataArray {
         Double[] times = null;
         try {
             times = calcSampleTimes();
+            ADCMessage[] runMsgs = new ADCMessage[indicesForTime.length];
             for (int j = 0; j < numSamples; j++) {
                 if ( times[j] == null ) {
                     for (int k = 0; k < indicesForTime.length; k++) {
+                        String comment = "invalid sample date/time specification";
+                        if ( extendMessageRun(runMsgs[k], Severity.CRITICAL, indicesForTime[k] + 1, comment,
+                                j + 1, j + 1, null) )
+                            continue;
                         ADCMessage msg = new ADCMessage();
                         msg.setSeverity(Severity.CRITICAL);
                         msg.setRowNumber(j + 1);
                         msg.setColNumber(indicesForTime[k] + 1);
                         msg.setColName(userColNames[indicesForTime[k]]);
-                        String comment = "invalid sample date/time specification";
                         msg.setGeneralComment(comment);
                         msg.setDetailedComment(comment);
                         stdMsgList.add(msg);
+                        runMsgs[k] = msg;
                     }
                 }
             }
@@ -289,6 +455,10 @@ public class StdUserDataArray extends StdDataArray {
      * speed and time gaps between two data points.  Any misorderings, excessive speeds, or excessive
      * time gaps detected generate error messages that are added to the internal list of automated
      * data checker messages.
+     * <p>
+     * The misordered samples are those not in a longest sequence of samples, in row order, with non-decreasing
+     * times.  Speeds and time gaps are checked between consecutive samples of this sequence.  Samples missing
+     * a longitude, latitude, or time are ignored.
      *
      * @param times
      *         sample times to be used for this data array
@@ -303,201 +473,36 @@ public class StdUserDataArray extends StdDataArray {
             // Messages about problems getting the longitudes or latitudes should already have been generated
             return;
         }
-        TreeSet<DataLocation> orderedSet = new TreeSet<DataLocation>();
+
+        // Primitive arrays of the values for the samples with a longitude, latitude, and time, in row order
+        int[] rowIndices = new int[numSamples];
+        double[] validLons = new double[numSamples];
+        double[] validLats = new double[numSamples];
+        double[] validTimes = new double[numSamples];
+        int numValid = 0;
         for (int rowIdx = 0; rowIdx < numSamples; rowIdx++) {
-            if ( times[rowIdx] != null ) {
-                DataLocation dataLoc = new DataLocation();
-                // Messages about missing longitude, latitude, or times should already have been generated
-                if ( (times[rowIdx] == null) || (longitudes[rowIdx] == null) || (latitudes[rowIdx] == null) )
-                    continue;
-                dataLoc.setDataDate(new Date(Math.round(times[rowIdx] * 1000.0)));
-                dataLoc.setLongitude(longitudes[rowIdx]);
-                dataLoc.setLatitude(latitudes[rowIdx]);
-                dataLoc.setRowNumber(rowIdx + 1);
-                if ( !orderedSet.add(dataLoc) )
-                    throw new RuntimeException("Unexpected duplicate data location with row number");
-            }
+            // Messages about missing longitude, latitude, or times should already have been generated
+            if ( (times[rowIdx] == null) || (longitudes[rowIdx] == null) || (latitudes[rowIdx] == null) )
+                continue;
+            rowIndices[numValid] = rowIdx;
+            validLons[numValid] = longitudes[rowIdx];
+            validLats[numValid] = latitudes[rowIdx];
+            validTimes[numValid] = times[rowIdx];
+            numValid++;
         }
-
-        // TODO: needs a better method of figuring out which rows are actually misordered
-        // the following works okay if there is only one block of misordered data
-        // or if multiple blocks are consistent in the "direction" they are misordered.
+        boolean[] inOrder = findOrderedSamples(validTimes, numValid);
 
         double[] maxSpeeds = DashboardConfigStore.getMaxCalcSpeedsKnots();
         double[] maxTimeGaps = DashboardConfigStore.getMaxTimeGapsDays();
 
-        // The following will say:
-        // 4,5,6 are misordered in 1,2,3,7,8,9,4,5,6,10,11,12;
-        // 1,2 are misordered in 3,4,1,2,5,6
-        // 3 is misordered in 1,2,4,5
-        TreeSet<Integer> forwardErrs = new TreeSet<Integer>();
-        ArrayList<ADCMessage> forwardSpeedMsgs = new ArrayList<ADCMessage>();
-        ArrayList<ADCMessage> forwardTimeGapMsgs = new ArrayList<ADCMessage>();
-        int lastRowNum = 0;
-        int expectedRowNum = 1;
-        for (DataLocation dataLoc : orderedSet) {
-            int actualRowNum = dataLoc.getRowNumber();
-            while ( expectedRowNum < actualRowNum ) {
-                forwardErrs.add(expectedRowNum);
-                expectedRowNum += 1;
-            }
-            if ( expectedRowNum == actualRowNum ) {
-                if ( lastRowNum > 0 ) {
-                    double kmdelta = DashboardServerUtils.distanceBetween(longitudes[actualRowNum - 1],
-                            latitudes[actualRowNum - 1], longitudes[lastRowNum - 1], latitudes[lastRowNum - 1]);
-                    double hourdelta = (times[actualRowNum - 1] - times[lastRowNum - 1]) / 3600.0;
-                    double speed = 0.539957 * kmdelta / hourdelta;
-                    if ( (speed < 0.0) || (hourdelta < 0.0) ) {
-                        // Just to make sure the calculation was done correctly
-                        throw new RuntimeException("Negative calculated speed or time gap obtained");
-                    }
-                    else if ( speed > maxSpeeds[1] ) {
-                        // Add one message at this time - later repeat with all the columns
-                        ADCMessage msg = new ADCMessage();
-                        msg.setSeverity(Severity.ERROR);
-                        msg.setRowNumber(actualRowNum);
-                        msg.setGeneralComment(String.format(
-                                "calculated speed exceeds %g knots", maxSpeeds[1]));
-                        msg.setDetailedComment(String.format(
-                                "calculated speed of %g knots exceeds %g knots", speed, maxSpeeds[1]));
-                        forwardSpeedMsgs.add(msg);
-                    }
-                    else if ( speed > maxSpeeds[0] ) {
-                        // Add one message at this time - later repeat with all the columns
-                        ADCMessage msg = new ADCMessage();
-                        msg.setSeverity(Severity.WARNING);
-                        msg.setRowNumber(actualRowNum);
-                        msg.setGeneralComment(String.format(
-                                "calculated speed exceeds %g knots", maxSpeeds[0]));
-                        msg.setDetailedComment(String.format(
-                                "calculated speed of %g knots exceeds %g knots", speed, maxSpeeds[0]));
-                        forwardSpeedMsgs.add(msg);
-                    }
-                    else if ( hourdelta > 24.0 * maxTimeGaps[1] ) {
-                        // Add one message at this time - later repeat with all the columns
-                        ADCMessage msg = new ADCMessage();
-                        msg.setSeverity(Severity.ERROR);
-                        msg.setRowNumber(actualRowNum);
-                        msg.setGeneralComment(String.format(
-                                "time between consecutive measurements exceeds %g days", maxTimeGaps[1]));
-                        msg.setDetailedComment(String.format(
-                                "time between consecutive measurements %g days exceeds %g days",
-                                hourdelta / 24.0, maxTimeGaps[1]));
-                        forwardTimeGapMsgs.add(msg);
-                    }
-                    else if ( hourdelta > 24.0 * maxTimeGaps[0] ) {
-                        // Add one message at this time - later repeat with all the columns
-                        ADCMessage msg = new ADCMessage();
-                        msg.setSeverity(Severity.WARNING);
-                        msg.setRowNumber(actualRowNum);
-                        msg.setGeneralComment(String.format(
-                                "time between consecutive measurements exceeds %g days", maxTimeGaps[0]));
-                        msg.setDetailedComment(String.format(
-                                "time between consecutive measurements %g days exceeds %g days",
-                                hourdelta / 24.0, maxTimeGaps[0]));
-                        forwardTimeGapMsgs.add(msg);
-                    }
-                }
-                lastRowNum = actualRowNum;
-                expectedRowNum += 1;
-            }
-        }
-        // The following will say:
-        // 7,8,9 are misordered in 1,2,3,7,8,9,4,5,6,10,11,12;
-        // 3,4 are misordered in 3,4,1,2,5,6
-        // 3 is misordered in 1,2,4,5
-        TreeSet<Integer> reverseErrs = new TreeSet<Integer>();
-        ArrayList<ADCMessage> reverseSpeedMsgs = new ArrayList<ADCMessage>();
-        ArrayList<ADCMessage> reverseTimeGapMsgs = new ArrayList<ADCMessage>();
-        lastRowNum = 0;
-        expectedRowNum = numSamples;
-        for (DataLocation dataLoc : orderedSet.descendingSet()) {
-            int actualRowNum = dataLoc.getRowNumber();
-            while ( expectedRowNum > actualRowNum ) {
-                reverseErrs.add(expectedRowNum);
-                expectedRowNum -= 1;
-            }
-            if ( expectedRowNum == actualRowNum ) {
-                if ( lastRowNum > 0 ) {
-                    double kmdelta = DashboardServerUtils.distanceBetween(longitudes[lastRowNum - 1],
-                            latitudes[lastRowNum - 1], longitudes[actualRowNum - 1], latitudes[actualRowNum - 1]);
-                    double hourdelta = (times[lastRowNum - 1] - times[actualRowNum - 1]) / 3600.0;
-                    double speed = 0.539957 * kmdelta / hourdelta;
-                    if ( (speed < 0.0) || (hourdelta < 0.0) ) {
-                        // Just to make sure the calculation was done correctly
-                        throw new RuntimeException("Negative calculated speed or time gap obtained");
-                    }
-                    else if ( speed > maxSpeeds[1] ) {
-                        // Add one message at this time - later repeat with all the columns
-                        ADCMessage msg = new ADCMessage();
-                        msg.setSeverity(Severity.ERROR);
-                        msg.setRowNumber(actualRowNum);
-                        msg.setGeneralComment(String.format(
-                                "calculated speed exceeds %g knots", maxSpeeds[1]));
-                        msg.setDetailedComment(String.format(
-                                "calculated speed of %g knots exceeds %g knots", speed, maxSpeeds[1]));
-                        reverseSpeedMsgs.add(msg);
-                    }
-                    else if ( speed > maxSpeeds[0] ) {
-                        // Add one message at this time - later repeat with all the columns
-                        ADCMessage msg = new ADCMessage();
-                        msg.setSeverity(Severity.WARNING);
-                        msg.setRowNumber(actualRowNum);
-                        msg.setGeneralComment(String.format(
-                                "calculated speed exceeds %g knots", maxSpeeds[0]));
-                        msg.setDetailedComment(String.format(
-                                "calculated speed of %g knots exceeds %g knots", speed, maxSpeeds[0]));
-                        reverseSpeedMsgs.add(msg);
-                    }
-                    else if ( hourdelta > 24.0 * maxTimeGaps[1] ) {
-                        // Add one message at this time - later repeat with all the columns
-                        ADCMessage msg = new ADCMessage();
-                        msg.setSeverity(Severity.ERROR);
-                        msg.setRowNumber(actualRowNum);
-                        msg.setGeneralComment(String.format(
-                                "time between consecutive measurements exceeds %g days", maxTimeGaps[1]));
-                        msg.setDetailedComment(String.format(
-                                "time between consecutive measurements %g days exceeds %g days",
-                                hourdelta / 24.0, maxTimeGaps[1]));
-                        reverseTimeGapMsgs.add(msg);
-                    }
-                    else if ( hourdelta > 24.0 * maxTimeGaps[0] ) {
-                        // Add one message at this time - later repeat with all the columns
-                        ADCMessage msg = new ADCMessage();
-                        msg.setSeverity(Severity.WARNING);
-                        msg.setRowNumber(actualRowNum);
-                        msg.setGeneralComment(String.format(
-                                "time between consecutive measurements exceeds %g days", maxTimeGaps[0]));
-                        msg.setDetailedComment(String.format(
-                                "time between consecutive measurements %g days exceeds %g days",
-                                hourdelta / 24.0, maxTimeGaps[0]));
-                        reverseTimeGapMsgs.add(msg);
-                    }
-                }
-                lastRowNum = actualRowNum;
-                expectedRowNum -= 1;
-            }
-        }
-        // Guess that the set with fewer errors is the correct one
-        TreeSet<Integer> errorRowsNums;
-        ArrayList<ADCMessage> speedMsgs;
-        ArrayList<ADCMessage> timeGapMsgs;
-        if ( (forwardErrs.size() + forwardSpeedMsgs.size() + forwardTimeGapMsgs.size())
-                <= (reverseErrs.size() + reverseSpeedMsgs.size() + reverseTimeGapMsgs.size()) ) {
-            errorRowsNums = forwardErrs;
-            speedMsgs = forwardSpeedMsgs;
-            timeGapMsgs = forwardTimeGapMsgs;
-        }
-        else {
-            errorRowsNums = reverseErrs;
-            speedMsgs = reverseSpeedMsgs;
-            timeGapMsgs = reverseTimeGapMsgs;
-        }
-        for (Integer rowNum : errorRowsNums) {
+        // Samples not in the time-ordered sequence are misordered
+        for (int k = 0; k < numValid; k++) {
+            if ( inOrder[k] )
+                continue;
             for (Integer colIdx : indicesForTime) {
                 ADCMessage msg = new ADCMessage();
                 msg.setSeverity(Severity.CRITICAL);
-                msg.setRowNumber(rowNum);
+                msg.setRowNumber(rowIndices[k] + 1);
                 msg.setColNumber(colIdx + 1);
                 msg.setColName(userColNames[colIdx]);
                 String comment = "time-misordered data row";
@@ -506,6 +511,70 @@ public class StdUserDataArray extends StdDataArray {
                 stdMsgList.add(msg);
             }
         }
+
+        // Check the speed and time gap between consecutive samples in the time-ordered sequence
+        ArrayList<ADCMessage> speedMsgs = new ArrayList<ADCMessage>();
+        ArrayList<ADCMessage> timeGapMsgs = new ArrayList<ADCMessage>();
+        int last = -1;
+        for (int k = 0; k < numValid; k++) {
+            if ( !inOrder[k] )
+                continue;
+            if ( last >= 0 ) {
+                int rowNum = rowIndices[k] + 1;
+                double kmdelta = DashboardServerUtils.distanceBetween(validLons[k], validLats[k],
+                        validLons[last], validLats[last]);
+                double hourdelta = (validTimes[k] - validTimes[last]) / 3600.0;
+                double speed = 0.539957 * kmdelta / hourdelta;
+                if ( speed > maxSpeeds[1] ) {
+                    // Add one message at this time - later repeat with all the columns
+                    ADCMessage msg = new ADCMessage();
+                    msg.setSeverity(Severity.ERROR);
+                    msg.setRowNumber(rowNum);
+                    msg.setGeneralComment(String.format(
+                            "calculated speed exceeds %g knots", maxSpeeds[1]));
+                    msg.setDetailedComment(String.format(
+                            "calculated speed of %g knots exceeds %g knots", speed, maxSpeeds[1]));
+                    speedMsgs.add(msg);
+                }
+                else if ( speed > maxSpeeds[0] ) {
+                    // Add one message at this time - later repeat with all the columns
+                    ADCMessage msg = new ADCMessage();
+                    msg.setSeverity(Severity.WARNING);
+                    msg.setRowNumber(rowNum);
+                    msg.setGeneralComment(String.format(
+                            "calculated speed exceeds %g knots", maxSpeeds[0]));
+                    msg.setDetailedComment(String.format(
+                            "calculated speed of %g knots exceeds %g knots", speed, maxSpeeds[0]));
+                    speedMsgs.add(msg);
+                }
+                else if ( hourdelta > 24.0 * maxTimeGaps[1] ) {
+                    // Add one message at this time - later repeat with all the columns
+                    ADCMessage msg = new ADCMessage();
+                    msg.setSeverity(Severity.ERROR);
+                    msg.setRowNumber(rowNum);
+                    msg.setGeneralComment(String.format(
+                            "time between consecutive measurements exceeds %g days", maxTimeGaps[1]));
+                    msg.setDetailedComment(String.format(
+                            "time between consecutive measurements %g days exceeds %g days",
+                            hourdelta / 24.0, maxTimeGaps[1]));
+                    timeGapMsgs.add(msg);
+                }
+                else if ( hourdelta > 24.0 * maxTimeGaps[0] ) {
+                    // Add one message at this time - later repeat with all the columns
+                    ADCMessage msg = new ADCMessage();
+                    msg.setSeverity(Severity.WARNING);
+                    msg.setRowNumber(rowNum);
+                    msg.setGeneralComment(String.format(
+                            "time between consecutive measurements exceeds %g days", maxTimeGaps[0]));
+                    msg.setDetailedComment(String.format(
+                            "time between consecutive measurements %g days exceeds %g days",
+                            hourdelta / 24.0, maxTimeGaps[0]));
+                    timeGapMsgs.add(msg);
+                }
+            }
+            last = k;
+        }
+
         for (ADCMessage spdmsg : speedMsgs) {
             // Speed problems could be in longitude ...
             ADCMessage msg = new ADCMessage();
@@ -551,54 +620,105 @@ public class StdUserDataArray extends StdDataArray {
         }
     }
 
+    /**
+     * Finds a longest sequence of non-decreasing times, using the patience sorting algorithm
+     * which requires O(n log n) time.  Equal times are considered in order.
+     *
+     * @param times
+     *         times to examine, in row order
+     * @param numTimes
+     *         number of times, from the start of the array, to examine
+     *
+     * @return array identifying which of the times examined are in the sequence
+     */
+    private static boolean[] findOrderedSamples(double[] times, int numTimes) {
+        // tailIndices[n] is the index of the smallest last time in a sequence of length n+1 found so far
+        int[] tailIndices = new int[numTimes];
+        // prevIndices[k] is the index of the time before time k in the sequence ending with time k
+        int[] prevIndices = new int[numTimes];
+        int length = 0;
+        for (int k = 0; k < numTimes; k++) {
+            // Find the shortest sequence whose last time is after this time
+            int lo = 0;
+            int hi = length;
+            while ( lo < hi ) {
+                int mid = (lo + hi) >>> 1;
+                if ( times[tailIndices[mid]] <= times[k] )
+                    lo = mid + 1;
+                else
+                    hi = mid;
+            }
+            prevIndices[k] = (lo > 0) ? tailIndices[lo - 1] : -1;
+            tailIndices[lo] = k;
+            if ( lo == length )
+                length++;
+        }
+        boolean[] inOrder = new boolean[numTimes];
+        int k = (length > 0) ? tailIndices[length - 1] : -1;
+        while ( k >= 0 ) {
+            inOrder[k] = true;
+            k = prevIndices[k];
+        }
+        return inOrder;
+    }
+
     /**
      * Checks that all values given (not missing values) are within the acceptable range for that data type.
      * Any problems found generate (error or warning) messages that are added to the internal list of messages.
+     * Consecutive rows of a data column exceeding the same bound are described by one message for the run of rows.
      */
     public void checkBounds() {
         for (int k = 0; k < numDataCols; k++) {
             DashDataType<?> dtype = dataTypes[k];
 
-            if ( dtype instanceof StringDashDataType ) {
-                StringDashDataType strtype = (StringDashDataType) dtype;
-                for (int j = 0; j < numSamples; j++) {
-                    ADCMessage msg = strtype.boundsCheckStandardValue((String) stdObjects[j][k]);
-                    if ( msg != null ) {
-                        msg.setRowNumber(j + 1);
-                        msg.setColNumber(k + 1);
-                        msg.setColName(userColNames[k]);
-                        stdMsgList.add(msg);
-                    }
-                }
-            }
-            else if ( dtype instanceof IntDashDataType ) {
-                IntDashDataType inttype = (IntDashDataType) dtype;
-                for (int j = 0; j < numSamples; j++) {
-                    ADCMessage msg = inttype.boundsCheckStandardValue((Integer) stdObjects[j][k]);
-                    if ( msg != null ) {
-                        msg.setRowNumber(j + 1);
-                        msg.setColNumber(k + 1);
-                        msg.setColName(userColNames[k]);
-                        stdMsgList.add(msg);
-                    }
-                }
-            }
-            else if ( dtype instanceof DoubleDashDataType ) {
-                DoubleDashDataType dbltype = (DoubleDashDataType) dtype;
-                for (int j = 0; j < numSamples; j++) {
-                    ADCMessage msg = dbltype.boundsCheckStandardValue((Double) stdObjects[j][k]);
-                    if ( msg != null ) {
-                        msg.setRowNumber(j + 1);
-                        msg.setColNumber(k + 1);
-                        msg.setColName(userColNames[k]);
-                        stdMsgList.add(msg);
-                    }
-                }
-            }
-            else {
+            if ( dtype instanceof StringDashDataType )
+                checkColumnBounds(k, (StringDashDataType) dtype);
+            else if ( dtype instanceof IntDashDataType )
+                checkColumnBounds(k, (IntDashDataType) dtype);
+            else if ( dtype instanceof DoubleDashDataType )
+                checkColumnBounds(k, (DoubleDashDataType) dtype);
+            else
                 throw new IllegalArgumentException(
                         "unexpected data type encountered in bounds checking: " + dtype);
+        }
+    }
+
+    /**
+     * Checks that all values given (not missing values) in a data column are within the acceptable range for
+     * the data type of the column.  A message is only created for the first row of a run of rows exceeding
+     * the same bound; the run of rows and the last value of that message are updated for the remaining rows of
+     * the run.
+     *
+     * @param k
+     *         index of the data column to check
+     * @param dtype
+     *         data type of the data column
+     */
+    private <T extends Comparable<T>> void checkColumnBounds(int k, DashDataType<T> dtype) {
+        ADCMessage runMsg = null;
+        DashDataType.BoundExceeded runBound = DashDataType.BoundExceeded.NONE;
+        for (int j = 0; j < numSamples; j++) {
+            @SuppressWarnings("unchecked")
+            T stdVal = (T) stdColumns[k].getValue(j);
+            DashDataType.BoundExceeded bound = dtype.boundExceeded(stdVal);
+            if ( DashDataType.BoundExceeded.NONE.equals(bound) ) {
+                runMsg = null;
+                continue;
             }
+            if ( (runMsg != null) && bound.equals(runBound) ) {
+                runMsg.setLastRowNumber(j + 1);
+                runMsg.setLastValue(stdVal.toString());
+                runMsg.setDetailedComment(null);
+                continue;
+            }
+            runMsg = dtype.boundsCheckStandardValue(stdVal);
+            runMsg.setFirstValue(stdVal.toString());
+            runMsg.setLastValue(stdVal.toString());
+            runMsg.setRowNumber(j + 1);
+            runMsg.setColNumber(k + 1);
+            runMsg.setColName(userColNames[k]);
+            stdMsgList.add(runMsg);
+            runBound = bound;
         }
     }
 
@@ -614,7 +734,7 @@ public class StdUserDataArray extends StdDataArray {
             if ( dtype instanceof StringDashDataType ) {
                 String singleVal = null;
                 for (int j = 0; j < numSamples; j++) {
-                    String thisVal = (String) stdObjects[j][k];
+                    String thisVal = (String) stdColumns[k].getValue(j);
                     if ( thisVal == null )
                         continue;
                     if ( singleVal == null ) {
@@ -639,7 +759,7 @@ public class StdUserDataArray extends StdDataArray {
             else if ( dtype instanceof IntDashDataType ) {
                 Integer singleVal = null;
                 for (int j = 0; j < numSamples; j++) {
-                    Integer thisVal = (Integer) stdObjects[j][k];
+                    Integer thisVal = (Integer) stdColumns[k].getValue(j);
                     if ( thisVal == null )
                         continue;
                     if ( singleVal == null ) {
@@ -664,7 +784,7 @@ public class StdUserDataArray extends StdDataArray {
             else if ( dtype instanceof DoubleDashDataType ) {
                 Double singleVal = null;
                 for (int j = 0; j < numSamples; j++) {
-                    Double thisVal = (Double) stdObjects[j][k];
+                    Double thisVal = (Double) stdColumns[k].getValue(j);
                     if ( thisVal == null )
                         continue;
                     if ( singleVal == null ) {
@@ -698,7 +818,8 @@ public class StdUserDataArray extends StdDataArray {
     /**
      * @return the list of automated data check messages describing problems detected in the data.
      *         The messages that are in this list comes from the constructor as well as any check
-     *         methods that were called.  Never null.
+     *         methods that were called.  A message may apply to a run of consecutive data rows
+     *         (see {@link ADCMessage#getLastRowNumber()}).  Never null.
      */
     public ArrayList<ADCMessage> getStandardizationMessages() {
         return stdMsgList;
@@ -753,7 +874,10 @@ public class StdUserDataArray extends StdDataArray {
                 continue;
 
             // Do not worry about any existing flags as this is always a WOCE-4, and thus, more severe
-            stdObjects[rowNum - 1][qcColIdx] = flagValue;
+            int lastRowNum = msg.getLastRowNumber();
+            for (int j = rowNum - 1; j < lastRowNum; j++) {
+                stdColumns[qcColIdx].setString(j, flagValue);
+            }
         }
     }
 
@@ -803,7 +927,34 @@ public class StdUserDataArray extends StdDataArray {
             throw new IllegalArgumentException("value cannot be standardized");
         if ( !standardized[columnIdx] )
             throw new IllegalStateException("value has not been standardized");
-        return stdObjects[sampleIdx][columnIdx];
+        return stdColumns[columnIdx].getValue(sampleIdx);
+    }
+
+    /**
+     * Get the standardized values of the specified data column.
+     *
+     * @param columnIdx
+     *         index of the data column
+     *
+     * @return standardized data column
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the column index is invalid
+     * @throws IllegalArgumentException
+     *         if the values in the column cannot be standardized
+     * @throws IllegalStateException
+     *         if the values in the column have not been standardized
+     */
+    @Override
+    public StdDataColumn getStdColumn(int columnIdx)
+            throws IndexOutOfBoundsException, IllegalArgumentException, IllegalStateException {
+        if ( (columnIdx < 0) || (columnIdx >= numDataCols) )
+            throw new IndexOutOfBoundsException("data column index is invalid: " + columnIdx);
+        if ( standardized[columnIdx] == null )
+            throw new IllegalArgumentException("value cannot be standardized");
+        if ( !standardized[columnIdx] )
+            throw new IllegalStateException("value has not been standardized");
+        return stdColumns[columnIdx];
     }
 
     @Override
@@ -0,0 +1,450 @@
+/**
+ *
+ */
+package gov.noaa.pmel.dashboard.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.NumberParser;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * Computes times, in milliseconds or seconds since 1970-01-01T00:00:00Z, from UTC dates and times of day, and
+ * dates and times of day from times, using direct arithmetic on the days of the Gregorian calendar.  Dates and
+ * times of day are validated as strictly as done by a non-lenient {@link GregorianCalendar}.  Years before
+ * {@link #MIN_DIRECT_YEAR} or after {@link #MAX_DIRECT_YEAR} are handled by a {@link GregorianCalendar} since it
+ * uses the Julian calendar for dates before the Gregorian calendar was adopted in 1582.
+ */
+public class TimeCalculator {
+
+    /**
+     * Value returned for the time of an invalid date and time of day
+     */
+    public static final long INVALID_MILLIS = Long.MIN_VALUE;
+
+    /**
+     * First year computed directly; the first full year of the Gregorian calendar
+     */
+    public static final int MIN_DIRECT_YEAR = 1583;
+
+    /**
+     * Last year computed directly
+     */
+    public static final int MAX_DIRECT_YEAR = 9999;
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_MINUTE = 60L * MILLIS_PER_SECOND;
+    private static final long MILLIS_PER_HOUR = 60L * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24L * MILLIS_PER_HOUR;
+
+    // Days in each month of a non-leap year
+    private static final int[] DAYS_IN_MONTH = new int[] { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+    // Days in a 400-year cycle of the Gregorian calendar
+    private static final long DAYS_PER_ERA = 146097L;
+    // Days from 0000-03-01 to 1970-01-01 in the proleptic Gregorian calendar
+    private static final long DAYS_TO_EPOCH_FROM_ERA_START = 719468L;
+
+    // Times before and after those computed directly
+    private static final long MIN_DIRECT_MILLIS = daysFromCivil(MIN_DIRECT_YEAR, 1, 1) * MILLIS_PER_DAY;
+    private static final long MAX_DIRECT_MILLIS = daysFromCivil(MAX_DIRECT_YEAR + 1, 1, 1) * MILLIS_PER_DAY;
+
+    /**
+     * @param year
+     *         year to check
+     *
+     * @return if the year is a leap year in the Gregorian calendar
+     */
+    public static boolean isLeapYear(int year) {
+        return ((year % 4) == 0) && (((year % 100) != 0) || ((year % 400) == 0));
+    }
+
+    /**
+     * @param year
+     *         year of the month
+     * @param month
+     *         month of the year; 1 for January, 12 for December
+     *
+     * @return the number of days in the month of the Gregorian calendar
+     *
+     * @throws IllegalArgumentException
+     *         if the month is not valid
+     */
+    public static int daysInMonth(int year, int month) throws IllegalArgumentException {
+        if ( (month < 1) || (month > 12) )
+            throw new IllegalArgumentException("invalid month " + month);
+        if ( (month == 2) && isLeapYear(year) )
+            return 29;
+        return DAYS_IN_MONTH[month - 1];
+    }
+
+    /**
+     * Computes the number of days from 1970-01-01 to the given date in the proleptic Gregorian calendar.
+     * The date is not validated.
+     *
+     * @param year
+     *         year of the date
+     * @param month
+     *         month of the date; 1 for January, 12 for December
+     * @param day
+     *         day of the month of the date
+     *
+     * @return the number of days since 1970-01-01; negative for dates before 1970-01-01
+     */
+    public static long daysFromCivil(int year, int month, int day) {
+        // Count years from March so the leap day is the last day of the year
+        long yr = (month <= 2) ? year - 1L : year;
+        long era = Math.floorDiv(yr, 400L);
+        long yearOfEra = yr - 400L * era;
+        long monthFromMarch = (month + 9) % 12;
+        long dayOfYear = (153L * monthFromMarch + 2L) / 5L + day - 1L;
+        long dayOfEra = 365L * yearOfEra + yearOfEra / 4L - yearOfEra / 100L + dayOfYear;
+        return DAYS_PER_ERA * era + dayOfEra - DAYS_TO_EPOCH_FROM_ERA_START;
+    }
+
+    /**
+     * Computes the time of a UTC date and time of day.
+     *
+     * @param year
+     *         year of the date
+     * @param month
+     *         month of the date; 1 for January, 12 for December
+     * @param day
+     *         day of the month of the date
+     * @param hour
+     *         hour of the day, 0 - 23
+     * @param minute
+     *         minute of the hour, 0 - 59
+     * @param second
+     *         second of the minute, 0 - 59
+     * @param millisec
+     *         millisecond of the second, 0 - 999
+     *
+     * @return milliseconds since 1970-01-01T00:00:00Z, or {@link #INVALID_MILLIS} if the date or time of day
+     *         is not valid
+     */
+    public static long epochMillis(int year, int month, int day, int hour, int minute, int second, int millisec) {
+        if ( (year < MIN_DIRECT_YEAR) || (year > MAX_DIRECT_YEAR) )
+            return calendarMillis(year, month, day, 0, hour, minute, second, millisec);
+        if ( (month < 1) || (month > 12) || (day < 1) || (day > daysInMonth(year, month)) )
+            return INVALID_MILLIS;
+        long millisOfDay = millisOfDay(hour, minute, second, millisec);
+        if ( millisOfDay < 0L )
+            return INVALID_MILLIS;
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY + millisOfDay;
+    }
+
+    /**
+     * Computes the time of a UTC date and time of day with the seconds given as a floating-point value.  Any fraction
+     * of a millisecond is truncated.
+     *
+     * @param year
+     *         year of the date
+     * @param month
+     *         month of the date; 1 for January, 12 for December
+     * @param day
+     *         day of the month of the date
+     * @param hour
+     *         hour of the day, 0 - 23
+     * @param minute
+     *         minute of the hour, 0 - 59
+     * @param seconds
+     *         seconds of the minute, [0.0, 60.0)
+     *
+     * @return milliseconds since 1970-01-01T00:00:00Z, or {@link #INVALID_MILLIS} if the date or time of day
+     *         is not valid
+     */
+    public static long epochMillis(int year, int month, int day, int hour, int minute, double seconds) {
+        int second = (int) seconds;
+        int millisec = (int) ((seconds - second) * 1000.0);
+        return epochMillis(year, month, day, hour, minute, second, millisec);
+    }
+
+    /**
+     * Computes the time of a UTC day of a year and time of day with the seconds given as a floating-point value.
+     * Any fraction of a millisecond is truncated.
+     *
+     * @param year
+     *         year of the date
+     * @param dayOfYear
+     *         day of the year; 1 for January 1
+     * @param hour
+     *         hour of the day, 0 - 23
+     * @param minute
+     *         minute of the hour, 0 - 59
+     * @param seconds
+     *         seconds of the minute, [0.0, 60.0)
+     *
+     * @return milliseconds since 1970-01-01T00:00:00Z, or {@link #INVALID_MILLIS} if the day of the year or time of
+     *         day is not valid
+     */
+    public static long epochMillisOfDayOfYear(int year, int dayOfYear, int hour, int minute, double seconds) {
+        int second = (int) seconds;
+        int millisec = (int) ((seconds - second) * 1000.0);
+        if ( (year < MIN_DIRECT_YEAR) || (year > MAX_DIRECT_YEAR) )
+            return calendarMillis(year, 0, 0, dayOfYear, hour, minute, second, millisec);
+        if ( (dayOfYear < 1) || (dayOfYear > (isLeapYear(year) ? 366 : 365)) )
+            return INVALID_MILLIS;
+        long millisOfDay = millisOfDay(hour, minute, second, millisec);
+        if ( millisOfDay < 0L )
+            return INVALID_MILLIS;
+        return (daysFromCivil(year, 1, 1) + dayOfYear - 1L) * MILLIS_PER_DAY + millisOfDay;
+    }
+
+    /**
+     * Computes the times, in seconds since 1970-01-01T00:00:00Z, of the samples with valid UTC dates and times of
+     * day.  The values for a sample are taken from the same index of each array.  Any fraction of a millisecond in
+     * the seconds is truncated.
+     *
+     * @param years
+     *         years of the dates
+     * @param months
+     *         months of the dates, 1 for January, 12 for December; if null, the days are days of the year
+     * @param days
+     *         days of the month of the dates, or days of the year of the dates if months is null
+     * @param hours
+     *         hours of the day
+     * @param minutes
+     *         minutes of the hour
+     * @param seconds
+     *         seconds of the minute
+     * @param valid
+     *         on input, the samples with date and time values to use; on output, cleared for samples whose date or
+     *         time of day is not valid
+     *
+     * @return the times of the samples in seconds since 1970-01-01T00:00:00Z; the times of samples not valid are NaN
+     */
+    public static double[] calcEpochSeconds(int[] years, int[] months, int[] days,
+            int[] hours, int[] minutes, double[] seconds, BitSet valid) {
+        double[] times = new double[years.length];
+        Arrays.fill(times, Double.NaN);
+        for (int j = valid.nextSetBit(0); j >= 0; j = valid.nextSetBit(j + 1)) {
+            long millis;
+            if ( months != null )
+                millis = epochMillis(years[j], months[j], days[j], hours[j], minutes[j], seconds[j]);
+            else
+                millis = epochMillisOfDayOfYear(years[j], days[j], hours[j], minutes[j], seconds[j]);
+            if ( millis == INVALID_MILLIS )
+                valid.clear(j);
+            else
+                times[j] = millis / 1000.0;
+        }
+        return times;
+    }
+
+    /**
+     * Computes the UTC date and time of day of a time.
+     *
+     * @param millis
+     *         milliseconds since 1970-01-01T00:00:00Z
+     * @param fields
+     *         array of (at least) seven values to be assigned the year, month (1 for January, 12 for December),
+     *         day of the month, hour of the day, minute of the hour, second of the minute, and millisecond of the
+     *         second, in that order
+     */
+    public static void civilFromEpochMillis(long millis, int[] fields) {
+        if ( (millis < MIN_DIRECT_MILLIS) || (millis >= MAX_DIRECT_MILLIS) ) {
+            GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+            cal.setTimeInMillis(millis);
+            fields[0] = cal.get(GregorianCalendar.YEAR);
+            fields[1] = cal.get(GregorianCalendar.MONTH) - GregorianCalendar.JANUARY + 1;
+            fields[2] = cal.get(GregorianCalendar.DAY_OF_MONTH);
+            fields[3] = cal.get(GregorianCalendar.HOUR_OF_DAY);
+            fields[4] = cal.get(GregorianCalendar.MINUTE);
+            fields[5] = cal.get(GregorianCalendar.SECOND);
+            fields[6] = cal.get(GregorianCalendar.MILLISECOND);
+            return;
+        }
+        long days = Math.floorDiv(millis, MILLIS_PER_DAY);
+        int millisOfDay = (int) (millis - days * MILLIS_PER_DAY);
+        // Days and years from March so the leap day is the last day of the year
+        long dayOfEpochEra = days + DAYS_TO_EPOCH_FROM_ERA_START;
+        long era = Math.floorDiv(dayOfEpochEra, DAYS_PER_ERA);
+        long dayOfEra = dayOfEpochEra - DAYS_PER_ERA * era;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460L + dayOfEra / 36524L - dayOfEra / 146096L) / 365L;
+        long dayOfYear = dayOfEra - (365L * yearOfEra + yearOfEra / 4L - yearOfEra / 100L);
+        long monthFromMarch = (5L * dayOfYear + 2L) / 153L;
+        int month = (int) ((monthFromMarch < 10L) ? monthFromMarch + 3L : monthFromMarch - 9L);
+        fields[0] = (int) (400L * era + yearOfEra + ((month <= 2) ? 1L : 0L));
+        fields[1] = month;
+        fields[2] = (int) (dayOfYear - (153L * monthFromMarch + 2L) / 5L + 1L);
+        fields[3] = (int) (millisOfDay / MILLIS_PER_HOUR);
+        fields[4] = (int) ((millisOfDay % MILLIS_PER_HOUR) / MILLIS_PER_MINUTE);
+        fields[5] = (int) ((millisOfDay % MILLIS_PER_MINUTE) / MILLIS_PER_SECOND);
+        fields[6] = (int) (millisOfDay % MILLIS_PER_SECOND);
+    }
+
+    /**
+     * @param millis
+     *         milliseconds since 1970-01-01T00:00:00Z
+     *
+     * @return the UTC date and time of day of the time in the format "yyyy-MM-dd HH:mm:ss"
+     */
+    public static String formatTimestamp(long millis) {
+        int[] fields = new int[7];
+        civilFromEpochMillis(millis, fields);
+        StringBuilder builder = new StringBuilder(19);
+        builder.append(fields[0]);
+        for (int k = 1; k < 6; k++) {
+            builder.append((k < 3) ? '-' : ((k == 3) ? ' ' : ':'));
+            if ( fields[k] < 10 )
+                builder.append('0');
+            builder.append(fields[k]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Interprets a date of three integers separated by dashes, such as the standard date format yyyy-MM-dd.
+     * The date is not validated.  Interpreted as done using {@link String#split(String)} and
+     * {@link Integer#parseInt(String)} but without creating intermediate strings.
+     *
+     * @param chars
+     *         characters containing the date
+     * @param start
+     *         index of the first character of the date
+     * @param end
+     *         index just after the last character of the date
+     * @param fields
+     *         array of (at least) three values to be assigned the year, month, and day, in that order
+     *
+     * @throws NumberFormatException
+     *         if the date is not three integers separated by dashes
+     */
+    public static void parseDate(CharSequence chars, int start, int end, int[] fields)
+            throws NumberFormatException {
+        // Trailing separators are ignored, as done by split
+        while ( (end > start) && (chars.charAt(end - 1) == '-') ) {
+            end--;
+        }
+        int first = indexOf(chars, '-', start, end);
+        int second = indexOf(chars, '-', first + 1, end);
+        if ( (first < 0) || (second < 0) || (indexOf(chars, '-', second + 1, end) >= 0) )
+            throw new NumberFormatException("not a date of three integers separated by dashes");
+        fields[0] = NumberParser.parseInt(chars, start, first);
+        fields[1] = NumberParser.parseInt(chars, first + 1, second);
+        fields[2] = NumberParser.parseInt(chars, second + 1, end);
+    }
+
+    /**
+     * Interprets a time of day of two integers and a floating-point value separated by colons, such as the standard
+     * time-of-day format HH:mm:ss.SSS.  The time of day is not validated.  Interpreted as done using
+     * {@link String#split(String)}, {@link Integer#parseInt(String)} and {@link Double#parseDouble(String)} but
+     * without creating intermediate strings.
+     *
+     * @param chars
+     *         characters containing the time of day
+     * @param start
+     *         index of the first character of the time of day
+     * @param end
+     *         index just after the last character of the time of day
+     * @param fields
+     *         array of (at least) five values whose fourth and fifth values are assigned the hour and minute
+     *
+     * @return the seconds of the time of day
+     *
+     * @throws NumberFormatException
+     *         if the time of day is not two integers and a floating-point value separated by colons
+     */
+    public static double parseTimeOfDay(CharSequence chars, int start, int end, int[] fields)
+            throws NumberFormatException {
+        // Trailing separators are ignored, as done by split
+        while ( (end > start) && (chars.charAt(end - 1) == ':') ) {
+            end--;
+        }
+        int first = indexOf(chars, ':', start, end);
+        int second = indexOf(chars, ':', first + 1, end);
+        if ( (first < 0) || (second < 0) || (indexOf(chars, ':', second + 1, end) >= 0) )
+            throw new NumberFormatException("not a time of day of three values separated by colons");
+        fields[3] = NumberParser.parseInt(chars, start, first);
+        fields[4] = NumberParser.parseInt(chars, first + 1, second);
+        return NumberParser.parseDouble(chars, second + 1, end);
+    }
+
+    /**
+     * Interprets a timestamp of a date and a time of day separated by a space, such as the standard timestamp format
+     * yyyy-MM-dd HH:mm:ss.SSS.  The timestamp is not validated.  See {@link #parseDate(CharSequence, int, int, int[])}
+     * and {@link #parseTimeOfDay(CharSequence, int, int, int[])}.
+     *
+     * @param chars
+     *         the timestamp
+     * @param fields
+     *         array of (at least) five values to be assigned the year, month, day, hour, and minute, in that order
+     *
+     * @return the seconds of the timestamp
+     *
+     * @throws NumberFormatException
+     *         if the timestamp is not a date and a time of day separated by a space
+     */
+    public static double parseTimestamp(CharSequence chars, int[] fields) throws NumberFormatException {
+        int end = chars.length();
+        // Trailing separators are ignored, as done by split
+        while ( (end > 0) && (chars.charAt(end - 1) == ' ') ) {
+            end--;
+        }
+        int space = indexOf(chars, ' ', 0, end);
+        if ( (space < 0) || (indexOf(chars, ' ', space + 1, end) >= 0) )
+            throw new NumberFormatException("not a timestamp of a date and a time separated by a space");
+        parseDate(chars, 0, space, fields);
+        return parseTimeOfDay(chars, space + 1, end, fields);
+    }
+
+    /**
+     * @return the milliseconds of the time of day, or -1 if the time of day is not valid
+     */
+    private static long millisOfDay(int hour, int minute, int second, int millisec) {
+        if ( (hour < 0) || (hour > 23) || (minute < 0) || (minute > 59) ||
+                (second < 0) || (second > 59) || (millisec < 0) || (millisec > 999) )
+            return -1L;
+        return hour * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE + second * MILLIS_PER_SECOND + millisec;
+    }
+
+    /**
+     * Computes the time of a UTC date and time of day using a non-lenient {@link GregorianCalendar}.
+     *
+     * @param month
+     *         month of the date; 1 for January, 12 for December; if zero, the day of the year is used instead
+     *
+     * @return milliseconds since 1970-01-01T00:00:00Z, or {@link #INVALID_MILLIS} if the date or time of day
+     *         is not valid
+     */
+    private static long calendarMillis(int year, int month, int day, int dayOfYear,
+            int hour, int minute, int second, int millisec) {
+        GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        cal.setLenient(false);
+        cal.clear();
+        try {
+            if ( month != 0 ) {
+                cal.set(year, GregorianCalendar.JANUARY + month - 1, day, hour, minute, second);
+            }
+            else {
+                cal.set(GregorianCalendar.YEAR, year);
+                cal.set(GregorianCalendar.DAY_OF_YEAR, dayOfYear);
+                cal.set(GregorianCalendar.HOUR_OF_DAY, hour);
+                cal.set(GregorianCalendar.MINUTE, minute);
+                cal.set(GregorianCalendar.SECOND, second);
+            }
+            cal.set(GregorianCalendar.MILLISECOND, millisec);
+            return cal.getTimeInMillis();
+        } catch ( IllegalArgumentException ex ) {
+            return INVALID_MILLIS;
+        }
+    }
+
+    /**
+     * @return the index of the first occurrence of the character in the region, or -1 if not present
+     *         (including if start is negative)
+     */
+    private static int indexOf(CharSequence chars, char ch, int start, int end) {
+        if ( start < 0 )
+            return -1;
+        for (int k = start; k < end; k++) {
+            if ( chars.charAt(k) == ch )
+                return k;
+        }
+        return -1;
+    }
+
+}
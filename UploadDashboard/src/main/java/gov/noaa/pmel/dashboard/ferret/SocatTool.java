@@ -15,6 +15,11 @@ public class SocatTool extends Thread {
     private String message;
     private boolean error;
     private boolean done;
+    private volatile Task task;
+    private volatile boolean canceled;
+    private long wallTimeMillis;
+    private long cpuTimeMillis;
+    private long outputSize;
 
 
     public SocatTool(FerretConfig ferretConf) {
@@ -25,6 +30,11 @@ public class SocatTool extends Thread {
         message = null;
         error = false;
         done = false;
+        task = null;
+        canceled = false;
+        wallTimeMillis = -1L;
+        cpuTimeMillis = -1L;
+        outputSize = -1L;
     }
 
     public void init(List<String> scriptArgs, String expocode, FerretConfig.Action action) {
@@ -97,11 +107,21 @@ public class SocatTool extends Thread {
 
             long timelimit = ferret.getTimeLimit();
 
-            Task task = new Task(fullCmd, ferret.getRuntimeEnvironment().getEnv(),
-                    new File(temp_dir), new File("cancel"), timelimit, ferret.getErrorKeys());
-            task.run();
-            error = task.getHasError();
-            message = task.getErrorMessage();
+            Task ferretTask = new Task(fullCmd, ferret.getRuntimeEnvironment().getEnv(),
+                    new File(temp_dir), timelimit, ferret.getErrorKeys());
+            task = ferretTask;
+            if ( canceled )
+                ferretTask.cancel();
+            try {
+                ferretTask.run();
+            } finally {
+                task = null;
+                wallTimeMillis = ferretTask.getWallTimeMillis();
+                cpuTimeMillis = ferretTask.getCpuTimeMillis();
+                outputSize = ferretTask.getOutputSize();
+            }
+            error = ferretTask.getHasError();
+            message = ferretTask.getErrorMessage();
             done = true;
             if ( !error )
                 script.delete();
@@ -114,6 +134,37 @@ public class SocatTool extends Thread {
 
     }
 
+    /**
+     * Cancels the Ferret process run by this tool, if running or not yet started.
+     */
+    public void cancel() {
+        canceled = true;
+        Task ferretTask = task;
+        if ( ferretTask != null )
+            ferretTask.cancel();
+    }
+
+    /**
+     * @return elapsed (wall-clock) time in milliseconds of the Ferret process, or -1 if not run
+     */
+    public long getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    /**
+     * @return CPU time in milliseconds of the Ferret process, or -1 if not run or not available
+     */
+    public long getCpuTimeMillis() {
+        return cpuTimeMillis;
+    }
+
+    /**
+     * @return number of characters output by the Ferret process, or -1 if not run
+     */
+    public long getOutputSize() {
+        return outputSize;
+    }
+
     public boolean hasError() {
         return error;
     }
@@ -2,9 +2,14 @@ package gov.noaa.pmel.dashboard.ferret;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
 
 
 public class Task {
@@ -59,12 +64,46 @@ public class Task {
      */
     protected boolean hasError;
 
-    protected File cancel;
+    /**
+     * Maximum time in milliseconds to wait for the output streams to be drained after the process exits
+     * (a background child of the process could keep the streams open)
+     */
+    protected static final long STREAM_DRAIN_MILLIS = 5000L;
+
+    /**
+     * Interval in milliseconds for sampling the CPU time of the running process
+     */
+    protected static final long CPU_SAMPLE_MILLIS = 100L;
+
+    /**
+     * Clock ticks per second used for the times in the Linux /proc/[pid]/stat files (USER_HZ)
+     */
+    private static final double CLOCK_TICKS_PER_SECOND = 100.0;
+
+    /**
+     * The running external process; null if not running
+     */
+    protected volatile Process process;
+
+    /**
+     * Set when this task is canceled
+     */
+    protected volatile boolean canceled;
+
+    /**
+     * Elapsed (wall-clock) time in milliseconds of the last invocation; -1 if not run
+     */
+    protected long wallTimeMillis;
+
+    /**
+     * CPU time in milliseconds of the process of the last invocation; -1 if not run or not available
+     */
+    protected long cpuTimeMillis;
 
     /**
      * Sets up an external process.
      */
-    public Task(String[] cmd, String[] env, File workDir, File cancel, long timeLimit, String[] errors) {
+    public Task(String[] cmd, String[] env, File workDir, long timeLimit, String[] errors) {
         this.cmd = cmd;
         this.env = env;
         this.workDir = workDir;
@@ -72,8 +111,11 @@ public class Task {
         this.cmdString = buildCmdString(cmd);
         this.output = new StringBuffer();
         this.stderr = new StringBuffer();
-        this.cancel = cancel;
         this.ERROR_INDICATOR = errors;
+        this.process = null;
+        this.canceled = false;
+        this.wallTimeMillis = -1L;
+        this.cpuTimeMillis = -1L;
     }
 
     /**
@@ -87,15 +129,26 @@ public class Task {
 
         try {
             long startTime = System.currentTimeMillis();
+            wallTimeMillis = -1L;
+            cpuTimeMillis = -1L;
 
-            Process process = Runtime.getRuntime().exec(cmd, env, workDir);
+            Process proc = Runtime.getRuntime().exec(cmd, env, workDir);
 
-            if ( process == null ) {
+            if ( proc == null ) {
                 throw new Exception("creation of child process failed for unknown reasons\n" +
                         "command: " + cmdString);
             }
 
-            finish(process, startTime);
+            process = proc;
+            try {
+                // A cancel before the process was assigned still stops it
+                if ( canceled )
+                    proc.destroyForcibly();
+                finish(proc, startTime);
+            } finally {
+                process = null;
+                wallTimeMillis = System.currentTimeMillis() - startTime;
+            }
 
         } catch ( IOException ioe ) {
             throw new Exception("creation of child process failed\n"
@@ -127,6 +180,49 @@ public class Task {
         }
     }
 
+    /**
+     * Cancels this task.  This may be called from any thread.  If the external process is running, it is destroyed
+     * and {@link #run()} throws an exception; if it has not yet been started, it is destroyed as soon as it starts.
+     */
+    public void cancel() {
+        canceled = true;
+        Process proc = process;
+        if ( proc != null )
+            proc.destroyForcibly();
+    }
+
+    /**
+     * @return if this task has been canceled
+     */
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    /**
+     * @return the elapsed (wall-clock) time in milliseconds of the last invocation of the external process,
+     *         or -1 if it has not been run
+     */
+    public long getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    /**
+     * @return the CPU time in milliseconds of the last invocation of the external process (including the child
+     *         processes it waited for), or -1 if not available; the CPU time of the process is sampled every
+     *         {@link #CPU_SAMPLE_MILLIS} milliseconds while it runs, so the time used after the last sample is
+     *         not included
+     */
+    public long getCpuTimeMillis() {
+        return cpuTimeMillis;
+    }
+
+    /**
+     * @return the number of characters written to standard output and standard error by the external process
+     */
+    public long getOutputSize() {
+        return output.length() + stderr.length();
+    }
+
     /**
      * Returns a printable string version of the external command.
      */
@@ -176,7 +272,11 @@ public class Task {
     /**
      * Monitors the running process, puts the process's standard output to
      * <code>output</code> and errors output to <code>stderr</code>. Also
-     * monitors the process' time limit and output limit, checks if there is any error generated.
+     * monitors the process' time limit, checks if there is any error generated.
+     * The output streams are drained as the output is generated by dedicated threads, so the process
+     * never stalls on a full pipe, and the process is waited on (rather than polled) so the return is
+     * immediate when the process exits.  While waiting, the CPU time of the process is sampled (on systems
+     * providing it).  A process exceeding the time limit is forcibly destroyed.
      * <p>
      *
      * @param process
@@ -189,81 +289,160 @@ public class Task {
      */
     protected void finish(Process process, long startTime) throws Exception {
 
-        BufferedReader outstream = new BufferedReader(new InputStreamReader(
-                process.getInputStream()));
-        BufferedReader errstream = new BufferedReader(new InputStreamReader(
-                process.getErrorStream()));
-        try {
-            char[] buffer = new char[1024];
+        // The process is given no input
+        process.getOutputStream().close();
 
-            while ( true ) {
-                try {
-                    process.exitValue();
-                    break;
-                } catch ( IllegalThreadStateException itse ) {
-                    // wait 10ms for the script to complete
-                    try {
-                        Thread.sleep(10);
-                    } catch ( InterruptedException ie ) {
-                    }
-
-                    // pass along any stdout and stderr
-                    try {
-                        if ( outstream.ready() ) {
-                            int charsRead = outstream.read(buffer);
-                            output.append(buffer, 0, charsRead);
-                        }
-                    } catch ( IOException ioe ) {
-                    }
-                    try {
-                        if ( errstream.ready() ) {
-                            int charsRead = errstream.read(buffer);
-                            stderr.append(buffer, 0, charsRead);
-                        }
-                    } catch ( IOException ioe ) {
-                    }
+        Thread outPump = startStreamPump(process.getInputStream(), output, "stdout");
+        Thread errPump = startStreamPump(process.getErrorStream(), stderr, "stderr");
+        File procStatFile = getProcStatFile(process);
+        try {
+            boolean exited = false;
+            while ( !exited ) {
+                long waitMillis = Long.MAX_VALUE;
+                if ( timeLimit > 0 ) {
+                    waitMillis = timeLimit * 1000L - (System.currentTimeMillis() - startTime);
+                    if ( waitMillis <= 0L )
+                        break;
+                }
+                if ( procStatFile != null ) {
+                    // the CPU time is no longer available once the process has exited
+                    long cpuTime = readCpuTimeMillis(procStatFile);
+                    if ( cpuTime >= 0L )
+                        cpuTimeMillis = cpuTime;
+                    waitMillis = Math.min(waitMillis, CPU_SAMPLE_MILLIS);
+                }
+                if ( waitMillis == Long.MAX_VALUE ) {
+                    process.waitFor();
+                    exited = true;
+                }
+                else
+                    exited = process.waitFor(waitMillis, TimeUnit.MILLISECONDS);
+            }
 
-                    // check if we have waited too long
-                    long endTime = System.currentTimeMillis();
-                    if ( timeLimit > 0 && endTime - startTime > timeLimit * 1000 ) {
-                        process.destroy();
-                        throw new Exception("process exceeded time limit of " + timeLimit + " sec");
-                    }
+            // check if the task was canceled
+            if ( canceled )
+                throw new Exception("Process canceled");
 
-                    // check if the request was canceled
-                    if ( cancel != null && cancel.exists() ) {
-                        process.destroy();
-                        cancel.delete();
-                        throw new Exception("Process canceled.");
-                    }
-                }
+            // check if we have waited too long
+            if ( !exited ) {
+                process.destroyForcibly();
+                throw new Exception("process exceeded time limit of " + timeLimit + " sec");
             }
 
             // pass along any remaining stdout and stderr
+            outPump.join(STREAM_DRAIN_MILLIS);
+            errPump.join(STREAM_DRAIN_MILLIS);
+
+            // check if any error messages were output by the process
+            checkErrors();
+
+        } catch ( InterruptedException ex ) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new Exception("Interrupted while waiting for the process");
+        } finally {
+            // closing the streams stops the pumps if they are still running
             try {
-                while ( outstream.ready() ) {
-                    int charsRead = outstream.read(buffer);
-                    output.append(buffer, 0, charsRead);
-                }
+                process.getInputStream().close();
             } catch ( IOException ioe ) {
             }
             try {
-                while ( errstream.ready() ) {
-                    int charsRead = errstream.read(buffer);
-                    stderr.append(buffer, 0, charsRead);
-                }
+                process.getErrorStream().close();
             } catch ( IOException ioe ) {
             }
+        }
+    }
 
-            // check if any error messages were output by the process
-            checkErrors();
+    /**
+     * @param proc
+     *         a running process
+     *
+     * @return the Linux /proc/[pid]/stat file of the process, or null if the process ID cannot be obtained or
+     *         the file does not exist
+     */
+    protected static File getProcStatFile(Process proc) {
+        long pid;
+        try {
+            // Process.pid() in Java 9 and later
+            pid = ((Number) Process.class.getMethod("pid").invoke(proc)).longValue();
+        } catch ( Exception ex ) {
+            try {
+                // the UNIXProcess implementation in Java 8
+                Field pidField = proc.getClass().getDeclaredField("pid");
+                pidField.setAccessible(true);
+                pid = pidField.getLong(proc);
+            } catch ( Exception ex2 ) {
+                return null;
+            }
+        }
+        File statFile = new File("/proc/" + pid + "/stat");
+        if ( !statFile.canRead() )
+            return null;
+        return statFile;
+    }
 
-        } finally {
-            outstream.close();
-            errstream.close();
+    /**
+     * @param procStatFile
+     *         the Linux /proc/[pid]/stat file of a process
+     *
+     * @return the user plus system CPU time in milliseconds of the process and of its child processes that it
+     *         has waited for, or -1 if the file cannot be read (such as when the process has exited)
+     */
+    protected static long readCpuTimeMillis(File procStatFile) {
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(procStatFile));
+            String stat;
+            try {
+                stat = reader.readLine();
+            } finally {
+                reader.close();
+            }
+            // The command name (field 2) is in parentheses and may contain spaces; utime, stime, cutime,
+            // and cstime are fields 14 through 17, so fields 12 through 15 after the closing parenthesis
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            long ticks = Long.parseLong(fields[11]) + Long.parseLong(fields[12]) +
+                    Long.parseLong(fields[13]) + Long.parseLong(fields[14]);
+            return Math.round(ticks * 1000.0 / CLOCK_TICKS_PER_SECOND);
+        } catch ( Exception ex ) {
+            return -1L;
         }
     }
 
+    /**
+     * Starts a daemon thread copying all the characters from the given stream to the given buffer
+     * until the end of the stream is reached or the stream is closed.
+     *
+     * @param stream
+     *         output stream of the process
+     * @param buffer
+     *         append the characters to this buffer
+     * @param name
+     *         name of the stream, for the thread name
+     *
+     * @return the started thread
+     */
+    protected Thread startStreamPump(final InputStream stream, final StringBuffer buffer, String name) {
+        Thread pump = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                char[] chars = new char[8192];
+                Reader reader = new InputStreamReader(stream);
+                try {
+                    int charsRead = reader.read(chars);
+                    while ( charsRead >= 0 ) {
+                        buffer.append(chars, 0, charsRead);
+                        charsRead = reader.read(chars);
+                    }
+                } catch ( IOException ioe ) {
+                    // stream closed
+                }
+            }
+        }, "Task " + name + " pump");
+        pump.setDaemon(true);
+        pump.start();
+        return pump;
+    }
+
     /**
      * Checks if there is an error after the task is completed.
      *
@@ -5,18 +5,34 @@ import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
 import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import gov.noaa.pmel.dashboard.shared.ADCMessage;
 import gov.noaa.pmel.dashboard.shared.ADCMessageList;
+import gov.noaa.pmel.dashboard.shared.ADCMessageQuery;
+import gov.noaa.pmel.dashboard.shared.ADCMessageQueryResult;
 import gov.noaa.pmel.dashboard.shared.DashboardDataset;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DataColumnType;
 import gov.noaa.pmel.dashboard.shared.DataQCFlag;
+import gov.noaa.pmel.dashboard.shared.DataQCFlag.Severity;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Properties;
@@ -31,15 +47,23 @@ import java.util.TreeSet;
 public class CheckerMessageHandler extends VersionedFileHandler {
 
     private static final String MSGS_FILENAME_EXTENSION = ".messages";
+    private static final String MSGS_INDEX_FILENAME_EXTENSION = ".msgidx";
     private static final String MSG_KEY_VALUE_SEP = ":";
     private static final String MSG_SEVERITY_KEY = "MsgSeverity";
     private static final String MSG_ROW_NUMBER_KEY = "MsgRowNumber";
+    private static final String MSG_LAST_ROW_NUMBER_KEY = "MsgLastRowNumber";
     private static final String MSG_COLUMN_NUMBER_KEY = "MsgColumnNumber";
     private static final String MSG_COLUMN_NAME_KEY = "MsgColumnName";
     private static final String MSG_GENERAL_MSG_KEY = "MsgGeneralMessage";
     private static final String MSG_DETAILED_MSG_KEY = "MsgDetailedMessage";
     private static final String MSG_SUMMARY_MSG_KEY = "MsgSummaryMessage";
 
+    private static final Severity[] SEVERITIES = Severity.values();
+
+    // Written at the start of an index file; index files without it (from before messages for runs of rows)
+    // are not recognized, and thus are rebuilt from the messages file
+    private static final int MSGS_INDEX_FORMAT_VERSION = 2;
+
     /**
      * Handler for automated data check flags and messages.
      *
@@ -77,6 +101,22 @@ public class CheckerMessageHandler extends VersionedFileHandler {
         return msgsFile;
     }
 
+    /**
+     * @param datasetId
+     *         ID of the dataset
+     *
+     * @return the index file for the messages file associated with the dataset
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid
+     */
+    private File messagesIndexFile(String datasetId) throws IllegalArgumentException {
+        File msgsFile = messagesFile(datasetId);
+        String name = msgsFile.getName();
+        name = name.substring(0, name.length() - MSGS_FILENAME_EXTENSION.length()) + MSGS_INDEX_FILENAME_EXTENSION;
+        return new File(msgsFile.getParentFile(), name);
+    }
+
     /**
      * Appropriately renames a messages file, if one exists, for a change in dataset ID.
      *
@@ -89,6 +129,8 @@ public class CheckerMessageHandler extends VersionedFileHandler {
      *         if a messages file for the new ID already exists, or if unable to rename the messages file
      */
     public void renameMsgsFile(String oldId, String newId) throws IllegalArgumentException {
+        // The index is recreated for the new ID when next needed
+        messagesIndexFile(oldId).delete();
         File oldMsgsFile = messagesFile(oldId);
         if ( !oldMsgsFile.exists() )
             return;
@@ -123,6 +165,7 @@ public class CheckerMessageHandler extends VersionedFileHandler {
      *         if the dataset ID is invalid, or if the messages file exists but could not be deleted
      */
     public void deleteMsgsFile(String datasetId) throws IllegalArgumentException {
+        messagesIndexFile(datasetId).delete();
         File msgsFile = messagesFile(datasetId);
         if ( msgsFile.exists() ) {
             String commitMsg = "Deleted messages file for " + datasetId;
@@ -185,45 +228,57 @@ public class CheckerMessageHandler extends VersionedFileHandler {
         File parentFile = msgsFile.getParentFile();
         if ( !parentFile.exists() )
             parentFile.mkdirs();
-        PrintWriter msgsWriter;
+        OutputStream msgsWriter;
         try {
-            msgsWriter = new PrintWriter(msgsFile);
+            msgsWriter = new BufferedOutputStream(new FileOutputStream(msgsFile));
         } catch ( FileNotFoundException ex ) {
             throw new RuntimeException("Unexpected error opening messages file " +
                     msgsFile.getPath() + "\n    " + ex.getMessage(), ex);
         }
+        // Write the messages file a line at a time, recording where each message starts for the index
+        Charset charset = Charset.defaultCharset();
+        byte[] lineSeparator = System.lineSeparator().getBytes(charset);
+        MessagesIndex msgsIndex = new MessagesIndex(msgList.size());
         try {
+            long offset = 0L;
 
             TreeMap<String,Integer> errorCnt = new TreeMap<String,Integer>();
             TreeMap<String,Integer> warnCnt = new TreeMap<String,Integer>();
             for (ADCMessage msg : msgList) {
-                // Start with a summary giving the counts of each general message/severity
+                // Start with a summary giving the counts of each general message/severity;
+                // a message for a run of rows counts once for each row
                 DataQCFlag.Severity severity = msg.getSeverity();
                 String summary = msg.getGeneralComment();
+                int numRows = Math.max(msg.getNumRows(), 1);
                 if ( DataQCFlag.Severity.CRITICAL.equals(severity) || DataQCFlag.Severity.ERROR.equals(severity) ) {
                     Integer cnt = errorCnt.get(summary);
                     if ( cnt == null )
-                        cnt = 1;
+                        cnt = numRows;
                     else
-                        cnt += 1;
+                        cnt += numRows;
                     errorCnt.put(summary, cnt);
                 }
                 else if ( DataQCFlag.Severity.WARNING.equals(severity) ) {
                     Integer cnt = warnCnt.get(summary);
                     if ( cnt == null )
-                        cnt = 1;
+                        cnt = numRows;
                     else
-                        cnt += 1;
+                        cnt += numRows;
                     warnCnt.put(summary, cnt);
                 }
             }
+            ArrayList<String> summaries = new ArrayList<String>(warnCnt.size() + errorCnt.size());
             for (Entry<String,Integer> sumCnt : warnCnt.entrySet()) {
-                msgsWriter.println(MSG_SUMMARY_MSG_KEY + MSG_KEY_VALUE_SEP +
-                        sumCnt.getValue() + " errors of type: " + sumCnt.getKey());
+                summaries.add(sumCnt.getValue() + " errors of type: " + sumCnt.getKey());
             }
             for (Entry<String,Integer> sumCnt : errorCnt.entrySet()) {
-                msgsWriter.println(MSG_SUMMARY_MSG_KEY + MSG_KEY_VALUE_SEP +
-                        sumCnt.getValue() + " warnings of type: " + sumCnt.getKey());
+                summaries.add(sumCnt.getValue() + " warnings of type: " + sumCnt.getKey());
+            }
+            for (String summary : summaries) {
+                int length = writeMessagesLine(msgsWriter, MSG_SUMMARY_MSG_KEY + MSG_KEY_VALUE_SEP + summary,
+                        charset, lineSeparator);
+                offset += length + lineSeparator.length;
+                msgsIndex.summaries.add(summary.trim());
             }
 
             // WOCE-type QC flags to assign from the automated data check
@@ -243,6 +298,12 @@ public class CheckerMessageHandler extends VersionedFileHandler {
                 else
                     rowNum = null;
 
+                Integer lastRowNum = msg.getLastRowNumber();
+                if ( (rowNum != null) && (lastRowNum > rowNum) && (lastRowNum <= numSamples) )
+                    mappings.add(MSG_LAST_ROW_NUMBER_KEY + MSG_KEY_VALUE_SEP + lastRowNum);
+                else
+                    lastRowNum = rowNum;
+
                 Integer colNumber = msg.getColNumber();
                 if ( (colNumber > 0) && (colNumber <= numUserCols) &&
                         !DashboardUtils.INT_MISSING_VALUE.equals(colNumber) )
@@ -265,37 +326,65 @@ public class CheckerMessageHandler extends VersionedFileHandler {
                     mappings.add(MSG_DETAILED_MSG_KEY + MSG_KEY_VALUE_SEP + details);
 
                 // Write this array list of key-value strings to file
-                msgsWriter.println(DashboardUtils.encodeStringArrayList(mappings));
-
-                // Create the QC flag for this message.
+                int length = writeMessagesLine(msgsWriter, DashboardUtils.encodeStringArrayList(mappings),
+                        charset, lineSeparator);
+                // Index this message with the values that will be read back from the file
+                ADCMessage indexed = new ADCMessage();
+                indexed.setColNumber(colNumber);
+                indexed.setRowNumber(rowNum);
+                indexed.setLastRowNumber(lastRowNum);
+                msgsIndex.add(severity, indexed.getColNumber(), indexed.getRowNumber(), indexed.getLastRowNumber(),
+                        offset, length);
+                offset += length + lineSeparator.length;
+
+                // Create the QC flags for this message, which may be for a run of rows
                 if ( rowNum != null ) {
-                    if ( DataQCFlag.Severity.CRITICAL.equals(severity) || DataQCFlag.Severity.ERROR.equals(severity) ) {
-                        DataQCFlag flag;
-                        if ( colNumber != null )
-                            flag = new DataQCFlag(null, DashboardServerUtils.WOCE_BAD,
-                                    DataQCFlag.Severity.ERROR, colNumber - 1, rowNum - 1);
-                        else
-                            flag = new DataQCFlag(null, DashboardServerUtils.WOCE_BAD,
-                                    DataQCFlag.Severity.ERROR, null, rowNum - 1);
-                        woceFlags.add(flag);
-                    }
-                    else if ( DataQCFlag.Severity.WARNING.equals(severity) ) {
-                        DataQCFlag flag;
-                        if ( colNumber > 0 )
-                            flag = new DataQCFlag(null, DashboardServerUtils.WOCE_QUESTIONABLE,
-                                    DataQCFlag.Severity.WARNING, colNumber - 1, rowNum - 1);
-                        else
-                            flag = new DataQCFlag(null, DashboardServerUtils.WOCE_QUESTIONABLE,
-                                    DataQCFlag.Severity.WARNING, null, rowNum - 1);
-                        woceFlags.add(flag);
+                    for (int rowIdx = rowNum - 1; rowIdx < lastRowNum; rowIdx++) {
+                        if ( DataQCFlag.Severity.CRITICAL.equals(severity) ||
+                                DataQCFlag.Severity.ERROR.equals(severity) ) {
+                            DataQCFlag flag;
+                            if ( colNumber != null )
+                                flag = new DataQCFlag(null, DashboardServerUtils.WOCE_BAD,
+                                        DataQCFlag.Severity.ERROR, colNumber - 1, rowIdx);
+                            else
+                                flag = new DataQCFlag(null, DashboardServerUtils.WOCE_BAD,
+                                        DataQCFlag.Severity.ERROR, null, rowIdx);
+                            woceFlags.add(flag);
+                        }
+                        else if ( DataQCFlag.Severity.WARNING.equals(severity) ) {
+                            DataQCFlag flag;
+                            if ( colNumber != null )
+                                flag = new DataQCFlag(null, DashboardServerUtils.WOCE_QUESTIONABLE,
+                                        DataQCFlag.Severity.WARNING, colNumber - 1, rowIdx);
+                            else
+                                flag = new DataQCFlag(null, DashboardServerUtils.WOCE_QUESTIONABLE,
+                                        DataQCFlag.Severity.WARNING, null, rowIdx);
+                            woceFlags.add(flag);
+                        }
                     }
                 }
             }
 
             dataset.setCheckerFlags(woceFlags);
 
+            msgsWriter.flush();
+        } catch ( IOException ex ) {
+            throw new IllegalArgumentException("Problems writing the messages file " +
+                    msgsFile.getPath() + ": " + ex.getMessage());
         } finally {
-            msgsWriter.close();
+            try {
+                msgsWriter.close();
+            } catch ( IOException ex ) {
+                // any problem writing the file was reported by the flush
+            }
+        }
+
+        // Save the index for the messages file; without a valid index, it is rebuilt from the messages file when needed
+        File indexFile = messagesIndexFile(dataset.getDatasetId());
+        try {
+            saveMessagesIndex(indexFile, msgsFile, msgsIndex);
+        } catch ( IOException ex ) {
+            indexFile.delete();
         }
 
         // Commit the updated messages file, if possible
@@ -380,109 +469,534 @@ public class CheckerMessageHandler extends VersionedFileHandler {
         msgReader = new BufferedReader(new FileReader(msgsFile));
         try {
             try {
-                String summmaryStart = MSG_SUMMARY_MSG_KEY + MSG_KEY_VALUE_SEP;
-                String altSummmaryStart = "SC" + summmaryStart;
                 for (String msgline = msgReader.readLine(); msgline != null; msgline = msgReader.readLine()) {
                     if ( msgline.trim().isEmpty() )
                         continue;
 
-                    if ( msgline.startsWith(summmaryStart) ) {
-                        summaryMsgs.add(msgline.substring(summmaryStart.length()).trim());
-                        continue;
-                    }
-                    // For backwards compatibility
-                    if ( msgline.startsWith(altSummmaryStart) ) {
-                        summaryMsgs.add(msgline.substring(altSummmaryStart.length()).trim());
+                    String summary = getSummary(msgline);
+                    if ( summary != null ) {
+                        summaryMsgs.add(summary);
                         continue;
                     }
 
-                    Properties msgProps = new Properties();
-                    try {
-                        for (String msgPart : DashboardUtils.decodeStringArrayList(msgline)) {
-                            String[] keyValue = msgPart.split(MSG_KEY_VALUE_SEP, 2);
-                            if ( keyValue.length != 2 )
-                                throw new IOException("Invalid key:value pair '" + msgPart + "'");
-                            msgProps.setProperty(keyValue[0], keyValue[1]);
-                        }
-                    } catch ( IllegalArgumentException ex ) {
-                        throw new IOException("Invalid saved checker message: " + msgline);
-                    }
+                    msgList.add(parseMessageLine(msgline));
+                }
+            } finally {
+                msgReader.close();
+            }
+        } catch ( IOException ex ) {
+            throw new IllegalArgumentException("Unexpected problem reading messages from " +
+                    msgsFile.getPath() + "\n    " + ex.getMessage(), ex);
+        }
 
-                    ADCMessage msg = new ADCMessage();
+        return msgList;
+    }
 
-                    try {
-                        String propVal = msgProps.getProperty(MSG_SEVERITY_KEY);
-                        if ( propVal == null )
-                            propVal = msgProps.getProperty("SC" + MSG_SEVERITY_KEY);
-                        msg.setSeverity(DataQCFlag.Severity.valueOf(propVal));
-                    } catch ( Exception ex ) {
-                        // leave as the default
-                    }
+    /**
+     * Returns one page of the messages in the messages file written by
+     * {@link #processCheckerMessages(DashboardDataset, StdUserDataArray)}.  The messages are selected and sorted
+     * using the index for the messages file, so only the messages returned are read from the messages file.
+     * If the index does not exist or is out of date, it is first rebuilt from the messages file.
+     *
+     * @param datasetId
+     *         get messages for the dataset with this ID
+     * @param query
+     *         which messages to return, and how they are sorted
+     *
+     * @return the page of messages, along with the number of messages included by the query and the summary
+     *         messages and counts for all the messages of the dataset.  The datasetId, but not the username,
+     *         will be assigned in the returned ADCMessageQueryResult
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid, if the query is invalid, or if the messages file is invalid
+     * @throws FileNotFoundException
+     *         if there is no messages file for the dateset
+     */
+    public ADCMessageQueryResult getCheckerMessagesPage(String datasetId, ADCMessageQuery query)
+            throws IllegalArgumentException, FileNotFoundException {
+        File msgsFile = messagesFile(datasetId);
+        if ( !msgsFile.exists() )
+            throw new FileNotFoundException("No messages file for " + datasetId);
+        final MessagesIndex msgsIndex = getMessagesIndex(datasetId, msgsFile);
+
+        // Select the messages included by the query using only the index
+        ArrayList<Integer> included = new ArrayList<Integer>();
+        for (int k = 0; k < msgsIndex.numMsgs; k++) {
+            if ( query.matches(SEVERITIES[msgsIndex.severities[k]], msgsIndex.colNumbers[k], msgsIndex.rowNumbers[k],
+                    msgsIndex.lastRowNumbers[k]) )
+                included.add(k);
+        }
 
-                    try {
-                        String propVal = msgProps.getProperty(MSG_ROW_NUMBER_KEY);
-                        if ( propVal == null )
-                            propVal = msgProps.getProperty("SC" + MSG_ROW_NUMBER_KEY);
-                        msg.setRowNumber(Integer.parseInt(propVal));
-                    } catch ( Exception ex ) {
-                        // leave as the default
+        // Sort the included messages by the requested column,
+        // then by severity, column number, row number, and finally location in the file
+        final String sortColumn = query.getSortColumn();
+        if ( !(ADCMessageQuery.SORT_SEVERITY.equals(sortColumn) ||
+                ADCMessageQuery.SORT_COLUMN_NUMBER.equals(sortColumn) ||
+                ADCMessageQuery.SORT_ROW_NUMBER.equals(sortColumn)) )
+            throw new IllegalArgumentException("Unknown messages sort column " + sortColumn);
+        final boolean ascending = query.isSortAscending();
+        Collections.sort(included, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer idx1, Integer idx2) {
+                int result = msgsIndex.compare(sortColumn, idx1, idx2);
+                if ( !ascending )
+                    result = -result;
+                if ( result != 0 )
+                    return result;
+                result = msgsIndex.compare(ADCMessageQuery.SORT_SEVERITY, idx1, idx2);
+                if ( result != 0 )
+                    return result;
+                result = msgsIndex.compare(ADCMessageQuery.SORT_COLUMN_NUMBER, idx1, idx2);
+                if ( result != 0 )
+                    return result;
+                result = msgsIndex.compare(ADCMessageQuery.SORT_ROW_NUMBER, idx1, idx2);
+                if ( result != 0 )
+                    return result;
+                return idx1.compareTo(idx2);
+            }
+        });
+
+        // Read only the messages in the requested page
+        int startIdx = Math.min(query.getOffset(), included.size());
+        int endIdx = included.size();
+        if ( (query.getLimit() >= 0) && (query.getLimit() < endIdx - startIdx) )
+            endIdx = startIdx + query.getLimit();
+        ArrayList<ADCMessage> messages = new ArrayList<ADCMessage>(endIdx - startIdx);
+        if ( endIdx > startIdx ) {
+            Charset charset = Charset.defaultCharset();
+            try {
+                RandomAccessFile msgsReader = new RandomAccessFile(msgsFile, "r");
+                try {
+                    for (int j = startIdx; j < endIdx; j++) {
+                        int k = included.get(j);
+                        byte[] bytes = new byte[msgsIndex.lengths[k]];
+                        msgsReader.seek(msgsIndex.offsets[k]);
+                        msgsReader.readFully(bytes);
+                        messages.add(parseMessageLine(new String(bytes, charset)));
                     }
+                } finally {
+                    msgsReader.close();
+                }
+            } catch ( IOException ex ) {
+                throw new IllegalArgumentException("Unexpected problem reading messages from " +
+                        msgsFile.getPath() + "\n    " + ex.getMessage(), ex);
+            }
+        }
 
-                    try {
-                        String propVal = msgProps.getProperty(MSG_COLUMN_NUMBER_KEY);
-                        if ( propVal == null )
-                            propVal = msgProps.getProperty("SC" + MSG_COLUMN_NUMBER_KEY);
-                        msg.setColNumber(Integer.parseInt(propVal));
-                    } catch ( Exception ex ) {
-                        // leave as the default
-                    }
+        ADCMessageQueryResult result = new ADCMessageQueryResult();
+        result.setDatasetId(datasetId);
+        result.setSummaries(msgsIndex.summaries);
+        result.setNumErrors(msgsIndex.numErrors);
+        result.setNumWarnings(msgsIndex.numWarnings);
+        result.setTotalCount(included.size());
+        result.setMessages(messages);
+        return result;
+    }
 
-                    try {
-                        String propVal = msgProps.getProperty(MSG_COLUMN_NAME_KEY);
-                        if ( propVal == null )
-                            propVal = msgProps.getProperty("SC" + MSG_COLUMN_NAME_KEY);
-                        msg.setColName(propVal);
-                    } catch ( Exception ex ) {
-                        // leave as the default
-                    }
+    /**
+     * @param msgline
+     *         line from a messages file
+     *
+     * @return the summary message given in the line, or null if the line is not a summary message
+     */
+    private static String getSummary(String msgline) {
+        String summmaryStart = MSG_SUMMARY_MSG_KEY + MSG_KEY_VALUE_SEP;
+        if ( msgline.startsWith(summmaryStart) )
+            return msgline.substring(summmaryStart.length()).trim();
+        // For backwards compatibility
+        String altSummmaryStart = "SC" + summmaryStart;
+        if ( msgline.startsWith(altSummmaryStart) )
+            return msgline.substring(altSummmaryStart.length()).trim();
+        return null;
+    }
 
-                    try {
-                        String propVal = msgProps.getProperty(MSG_GENERAL_MSG_KEY);
-                        if ( propVal == null )
-                            propVal = msgProps.getProperty("SC" + MSG_GENERAL_MSG_KEY);
-                        // Replace all escaped newlines in the message string
-                        if ( propVal != null ) {
-                            propVal = propVal.replace("\\n", "\n");
-                            msg.setGeneralComment(propVal);
-                        }
-                    } catch ( Exception ex ) {
-                        // leave as the default
-                    }
+    /**
+     * Creates the message described in a (non-summary) line from a messages file.
+     *
+     * @param msgline
+     *         encoded key:value pairs describing the message
+     *
+     * @return the message described
+     *
+     * @throws IOException
+     *         if the line is not a valid encoding of key:value pairs
+     */
+    private static ADCMessage parseMessageLine(String msgline) throws IOException {
+        Properties msgProps = new Properties();
+        try {
+            for (String msgPart : DashboardUtils.decodeStringArrayList(msgline)) {
+                String[] keyValue = msgPart.split(MSG_KEY_VALUE_SEP, 2);
+                if ( keyValue.length != 2 )
+                    throw new IOException("Invalid key:value pair '" + msgPart + "'");
+                msgProps.setProperty(keyValue[0], keyValue[1]);
+            }
+        } catch ( IllegalArgumentException ex ) {
+            throw new IOException("Invalid saved checker message: " + msgline);
+        }
 
-                    try {
-                        String propVal = msgProps.getProperty(MSG_DETAILED_MSG_KEY);
-                        if ( propVal == null )
-                            propVal = msgProps.getProperty("SC" + MSG_DETAILED_MSG_KEY);
-                        if ( propVal != null ) {
-                            // Replace all escaped newlines in the message string
-                            propVal = propVal.replace("\\n", "\n");
-                            msg.setDetailedComment(propVal);
-                        }
-                    } catch ( Exception ex ) {
-                        // leave as the default
-                    }
+        ADCMessage msg = new ADCMessage();
+
+        try {
+            String propVal = msgProps.getProperty(MSG_SEVERITY_KEY);
+            if ( propVal == null )
+                propVal = msgProps.getProperty("SC" + MSG_SEVERITY_KEY);
+            msg.setSeverity(DataQCFlag.Severity.valueOf(propVal));
+        } catch ( Exception ex ) {
+            // leave as the default
+        }
+
+        try {
+            String propVal = msgProps.getProperty(MSG_ROW_NUMBER_KEY);
+            if ( propVal == null )
+                propVal = msgProps.getProperty("SC" + MSG_ROW_NUMBER_KEY);
+            msg.setRowNumber(Integer.parseInt(propVal));
+        } catch ( Exception ex ) {
+            // leave as the default
+        }
+
+        try {
+            String propVal = msgProps.getProperty(MSG_LAST_ROW_NUMBER_KEY);
+            // Only messages for a run of rows give the last row number
+            if ( propVal != null )
+                msg.setLastRowNumber(Integer.parseInt(propVal));
+        } catch ( Exception ex ) {
+            // leave as the default
+        }
 
-                    msgList.add(msg);
+        try {
+            String propVal = msgProps.getProperty(MSG_COLUMN_NUMBER_KEY);
+            if ( propVal == null )
+                propVal = msgProps.getProperty("SC" + MSG_COLUMN_NUMBER_KEY);
+            msg.setColNumber(Integer.parseInt(propVal));
+        } catch ( Exception ex ) {
+            // leave as the default
+        }
+
+        try {
+            String propVal = msgProps.getProperty(MSG_COLUMN_NAME_KEY);
+            if ( propVal == null )
+                propVal = msgProps.getProperty("SC" + MSG_COLUMN_NAME_KEY);
+            msg.setColName(propVal);
+        } catch ( Exception ex ) {
+            // leave as the default
+        }
+
+        try {
+            String propVal = msgProps.getProperty(MSG_GENERAL_MSG_KEY);
+            if ( propVal == null )
+                propVal = msgProps.getProperty("SC" + MSG_GENERAL_MSG_KEY);
+            // Replace all escaped newlines in the message string
+            if ( propVal != null ) {
+                propVal = propVal.replace("\\n", "\n");
+                msg.setGeneralComment(propVal);
+            }
+        } catch ( Exception ex ) {
+            // leave as the default
+        }
+
+        try {
+            String propVal = msgProps.getProperty(MSG_DETAILED_MSG_KEY);
+            if ( propVal == null )
+                propVal = msgProps.getProperty("SC" + MSG_DETAILED_MSG_KEY);
+            if ( propVal != null ) {
+                // Replace all escaped newlines in the message string
+                propVal = propVal.replace("\\n", "\n");
+                msg.setDetailedComment(propVal);
+            }
+        } catch ( Exception ex ) {
+            // leave as the default
+        }
+
+        return msg;
+    }
+
+    /**
+     * Writes a line to a messages file.
+     *
+     * @param writer
+     *         write to this output stream
+     * @param line
+     *         line to write, without a line separator
+     * @param charset
+     *         encode the line using this character set
+     * @param lineSeparator
+     *         encoded line separator to write after the line
+     *
+     * @return the number of bytes written for the line, not including the line separator
+     *
+     * @throws IOException
+     *         if writing to the output stream throws one
+     */
+    private static int writeMessagesLine(OutputStream writer, String line, Charset charset,
+            byte[] lineSeparator) throws IOException {
+        byte[] bytes = line.getBytes(charset);
+        writer.write(bytes);
+        writer.write(lineSeparator);
+        return bytes.length;
+    }
+
+    /**
+     * Returns the index for a messages file.  The index is read from the index file if it exists and is for the
+     * current messages file; otherwise the index is created from the messages file and the index file is rewritten.
+     *
+     * @param datasetId
+     *         ID of the dataset
+     * @param msgsFile
+     *         messages file of the dataset
+     *
+     * @return the index for the messages file
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid, or if the messages file is invalid
+     */
+    private MessagesIndex getMessagesIndex(String datasetId, File msgsFile) throws IllegalArgumentException {
+        File indexFile = messagesIndexFile(datasetId);
+        MessagesIndex msgsIndex = null;
+        if ( indexFile.exists() ) {
+            try {
+                msgsIndex = readMessagesIndex(indexFile, msgsFile);
+            } catch ( IOException ex ) {
+                // rebuild the index
+                msgsIndex = null;
+            }
+        }
+        if ( msgsIndex == null ) {
+            try {
+                msgsIndex = buildMessagesIndex(msgsFile);
+            } catch ( IOException ex ) {
+                throw new IllegalArgumentException("Unexpected problem reading messages from " +
+                        msgsFile.getPath() + "\n    " + ex.getMessage(), ex);
+            }
+            try {
+                saveMessagesIndex(indexFile, msgsFile, msgsIndex);
+            } catch ( IOException ex ) {
+                indexFile.delete();
+            }
+        }
+        return msgsIndex;
+    }
+
+    /**
+     * Creates the index for a messages file by reading through the messages file.
+     * Used for messages files written before index files were saved, or if the index file is out of date.
+     *
+     * @param msgsFile
+     *         messages file to index
+     *
+     * @return the index for the messages file
+     *
+     * @throws IOException
+     *         if reading the messages file throws one, or if the messages file is invalid
+     */
+    private static MessagesIndex buildMessagesIndex(File msgsFile) throws IOException {
+        Charset charset = Charset.defaultCharset();
+        MessagesIndex msgsIndex = new MessagesIndex(1024);
+        InputStream msgsStream = new BufferedInputStream(new FileInputStream(msgsFile));
+        try {
+            ByteArrayOutputStream lineBytes = new ByteArrayOutputStream();
+            long lineStart = 0L;
+            long offset = 0L;
+            boolean atEnd = false;
+            while ( !atEnd ) {
+                int b = msgsStream.read();
+                if ( b >= 0 )
+                    offset++;
+                else
+                    atEnd = true;
+                if ( (b >= 0) && (b != '\n') ) {
+                    lineBytes.write(b);
+                    continue;
                 }
-            } finally {
-                msgReader.close();
+                // Index this line, ignoring any carriage return at the end of the line
+                byte[] bytes = lineBytes.toByteArray();
+                int length = bytes.length;
+                if ( (length > 0) && (bytes[length - 1] == '\r') )
+                    length--;
+                String msgline = new String(bytes, 0, length, charset);
+                if ( !msgline.trim().isEmpty() ) {
+                    String summary = getSummary(msgline);
+                    if ( summary != null ) {
+                        msgsIndex.summaries.add(summary);
+                    }
+                    else {
+                        ADCMessage msg = parseMessageLine(msgline);
+                        msgsIndex.add(msg.getSeverity(), msg.getColNumber(), msg.getRowNumber(),
+                                msg.getLastRowNumber(), lineStart, length);
+                    }
+                }
+                lineBytes.reset();
+                lineStart = offset;
             }
-        } catch ( IOException ex ) {
-            throw new IllegalArgumentException("Unexpected problem reading messages from " +
-                    msgsFile.getPath() + "\n    " + ex.getMessage(), ex);
+        } finally {
+            msgsStream.close();
         }
+        return msgsIndex;
+    }
 
-        return msgList;
+    /**
+     * Writes the index file for a messages file.  The index file contains the index format version, the length and
+     * last-modified time of the messages file, the summary messages, and the number of messages followed by the
+     * severity, column number, first and last row numbers, and byte offset and length in the messages file of
+     * each message.
+     *
+     * @param indexFile
+     *         index file to write
+     * @param msgsFile
+     *         messages file just written
+     * @param msgsIndex
+     *         index for the messages file
+     *
+     * @throws IOException
+     *         if writing the index file throws one
+     */
+    private static void saveMessagesIndex(File indexFile, File msgsFile, MessagesIndex msgsIndex) throws IOException {
+        DataOutputStream indexWriter = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+        try {
+            indexWriter.writeInt(MSGS_INDEX_FORMAT_VERSION);
+            indexWriter.writeLong(msgsFile.length());
+            indexWriter.writeLong(msgsFile.lastModified());
+            indexWriter.writeInt(msgsIndex.summaries.size());
+            for (String summary : msgsIndex.summaries) {
+                indexWriter.writeUTF(summary);
+            }
+            indexWriter.writeInt(msgsIndex.numMsgs);
+            for (int k = 0; k < msgsIndex.numMsgs; k++) {
+                indexWriter.writeByte(msgsIndex.severities[k]);
+                indexWriter.writeInt(msgsIndex.colNumbers[k]);
+                indexWriter.writeInt(msgsIndex.rowNumbers[k]);
+                indexWriter.writeInt(msgsIndex.lastRowNumbers[k]);
+                indexWriter.writeLong(msgsIndex.offsets[k]);
+                indexWriter.writeInt(msgsIndex.lengths[k]);
+            }
+        } finally {
+            indexWriter.close();
+        }
+    }
+
+    /**
+     * Reads the index file for a messages file.
+     *
+     * @param indexFile
+     *         index file to read
+     * @param msgsFile
+     *         messages file for the index
+     *
+     * @return the index for the messages file, or null if the index file is not for the current messages file
+     *         or is not of the current index format
+     *
+     * @throws IOException
+     *         if reading the index file throws one, or if the index file is invalid
+     */
+    private static MessagesIndex readMessagesIndex(File indexFile, File msgsFile) throws IOException {
+        DataInputStream indexReader = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+        try {
+            if ( indexReader.readInt() != MSGS_INDEX_FORMAT_VERSION )
+                return null;
+            if ( indexReader.readLong() != msgsFile.length() )
+                return null;
+            if ( indexReader.readLong() != msgsFile.lastModified() )
+                return null;
+            int numSummaries = indexReader.readInt();
+            ArrayList<String> summaries = new ArrayList<String>(numSummaries);
+            for (int k = 0; k < numSummaries; k++) {
+                summaries.add(indexReader.readUTF());
+            }
+            int numMsgs = indexReader.readInt();
+            MessagesIndex msgsIndex = new MessagesIndex(numMsgs);
+            msgsIndex.summaries.addAll(summaries);
+            for (int k = 0; k < numMsgs; k++) {
+                int severityIdx = indexReader.readByte();
+                if ( (severityIdx < 0) || (severityIdx >= SEVERITIES.length) )
+                    throw new IOException("Invalid severity in messages index file " + indexFile.getPath());
+                int colNumber = indexReader.readInt();
+                int rowNumber = indexReader.readInt();
+                int lastRowNumber = indexReader.readInt();
+                long offset = indexReader.readLong();
+                int length = indexReader.readInt();
+                msgsIndex.add(SEVERITIES[severityIdx], colNumber, rowNumber, lastRowNumber, offset, length);
+            }
+            return msgsIndex;
+        } finally {
+            indexReader.close();
+        }
+    }
+
+    /**
+     * Compact index of a messages file: the summary messages, and the severity, column number, first and last
+     * row numbers, and location in the messages file of each message.  Also counts the data rows of the error and
+     * warning messages, counting a message for a run of rows once for each row, as in the summary counts.
+     */
+    private static class MessagesIndex {
+        final ArrayList<String> summaries;
+        int numMsgs;
+        int numErrors;
+        int numWarnings;
+        byte[] severities;
+        int[] colNumbers;
+        int[] rowNumbers;
+        int[] lastRowNumbers;
+        long[] offsets;
+        int[] lengths;
+
+        /**
+         * @param capacity
+         *         initial number of messages that can be held without reallocation
+         */
+        MessagesIndex(int capacity) {
+            if ( capacity < 1 )
+                capacity = 1;
+            summaries = new ArrayList<String>();
+            numMsgs = 0;
+            numErrors = 0;
+            numWarnings = 0;
+            severities = new byte[capacity];
+            colNumbers = new int[capacity];
+            rowNumbers = new int[capacity];
+            lastRowNumbers = new int[capacity];
+            offsets = new long[capacity];
+            lengths = new int[capacity];
+        }
+
+        /**
+         * Adds a message to this index.
+         */
+        void add(Severity severity, int colNumber, int rowNumber, int lastRowNumber, long offset, int length) {
+            if ( numMsgs == severities.length ) {
+                int capacity = 2 * numMsgs;
+                severities = Arrays.copyOf(severities, capacity);
+                colNumbers = Arrays.copyOf(colNumbers, capacity);
+                rowNumbers = Arrays.copyOf(rowNumbers, capacity);
+                lastRowNumbers = Arrays.copyOf(lastRowNumbers, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            severities[numMsgs] = (byte) severity.ordinal();
+            colNumbers[numMsgs] = colNumber;
+            rowNumbers[numMsgs] = rowNumber;
+            lastRowNumbers[numMsgs] = lastRowNumber;
+            offsets[numMsgs] = offset;
+            lengths[numMsgs] = length;
+            numMsgs++;
+            // Same as ADCMessage.getNumRows, but a message without a row number still counts once
+            int numRows = (rowNumber > 0) ? lastRowNumber - rowNumber + 1 : 1;
+            if ( ADCMessageQuery.hasSeverity(severity, ADCMessageQuery.SEVERITY_ERRORS) )
+                numErrors += numRows;
+            else if ( ADCMessageQuery.hasSeverity(severity, ADCMessageQuery.SEVERITY_WARNINGS) )
+                numWarnings += numRows;
+        }
+
+        /**
+         * Compares two messages in this index by the value given by a SORT_ value of {@link ADCMessageQuery}.
+         */
+        int compare(String sortColumn, int idx1, int idx2) {
+            if ( ADCMessageQuery.SORT_SEVERITY.equals(sortColumn) )
+                return Integer.compare(severities[idx1], severities[idx2]);
+            if ( ADCMessageQuery.SORT_COLUMN_NUMBER.equals(sortColumn) )
+                return Integer.compare(colNumbers[idx1], colNumbers[idx2]);
+            if ( ADCMessageQuery.SORT_ROW_NUMBER.equals(sortColumn) )
+                return Integer.compare(rowNumbers[idx1], rowNumbers[idx2]);
+            throw new IllegalArgumentException("Unknown messages sort column " + sortColumn);
+        }
     }
 
 }
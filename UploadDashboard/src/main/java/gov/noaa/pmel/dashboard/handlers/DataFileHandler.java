@@ -20,21 +20,32 @@ import gov.noaa.pmel.dashboard.shared.DatasetQCStatus;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
-import org.tmatesoft.svn.core.SVNException;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileFilter;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.RandomAccessFile;
 import java.io.Reader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Properties;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -48,6 +59,7 @@ public class DataFileHandler extends VersionedFileHandler {
 
     private static final String INFO_FILENAME_EXTENSION = ".properties";
     private static final String DATA_FILENAME_EXTENSION = ".tsv";
+    private static final String ROW_INDEX_FILENAME_EXTENSION = ".rowidx";
     private static final String DATA_OWNER_ID = "dataowner";
     private static final String VERSION_ID = "version";
     private static final String UPLOAD_FILENAME_ID = "uploadfilename";
@@ -85,9 +97,31 @@ public class DataFileHandler extends VersionedFileHandler {
                     Pattern.CASE_INSENSITIVE)
     };
 
+    /**
+     * Dataset information read from an information file, with the last-modified time and length of the file when read
+     */
+    private static class CachedDatasetInfo {
+        final long lastModified;
+        final long length;
+        final DashboardDataset dataset;
+
+        CachedDatasetInfo(long lastModified, long length, DashboardDataset dataset) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.dataset = dataset;
+        }
+    }
+
     private KnownDataTypes userTypes;
     private UserFileHandler userFileHandler;
     private String uploadVersion;
+    // Dataset information read from the information files, mapped by standardized dataset ID
+    private final ConcurrentHashMap<String,CachedDatasetInfo> infoCache;
+    private final AtomicLong infoCacheHits;
+    private final AtomicLong infoCacheMisses;
+    // Sorted IDs of all datasets with an information file; built on first use
+    private final ConcurrentSkipListSet<String> datasetIdsIndex;
+    private volatile boolean datasetIdsIndexed;
 
 
     /**
@@ -115,6 +149,11 @@ public class DataFileHandler extends VersionedFileHandler {
         this.userTypes = userTypes;
         this.userFileHandler = userFileHandler;
         this.uploadVersion = uploadVersion;
+        this.infoCache = new ConcurrentHashMap<String,CachedDatasetInfo>();
+        this.infoCacheHits = new AtomicLong(0L);
+        this.infoCacheMisses = new AtomicLong(0L);
+        this.datasetIdsIndex = new ConcurrentSkipListSet<String>();
+        this.datasetIdsIndexed = false;
     }
 
     /**
@@ -153,9 +192,29 @@ public class DataFileHandler extends VersionedFileHandler {
         return dataFile;
     }
 
+    /**
+     * @param datasetId
+     *         the ID of the dataset
+     *
+     * @return the file with the byte offsets of the data rows in the data file associated with the dataset
+     *
+     * @throws IllegalArgumentException
+     *         if datasetId is not a valid dataset ID
+     */
+    File datasetRowIndexFile(String datasetId) throws IllegalArgumentException {
+        // Check and standardize the dataset ID
+        String upperExpo = DashboardServerUtils.checkDatasetID(datasetId);
+        // Create the file with the full path name of the row index file
+        File parentDir = new File(filesDir, upperExpo.substring(0, 4));
+        File indexFile = new File(parentDir, upperExpo + ROW_INDEX_FILENAME_EXTENSION);
+        return indexFile;
+    }
+
     /**
      * Searches all existing datasets and returns the dataset IDs of those that match
      * the given dataset ID containing wildcards and/or regular expressions.
+     * Only the IDs in the index of dataset IDs starting with the literal prefix
+     * of the given dataset ID are examined.
      *
      * @param wildDatasetId
      *         dataset ID, possibly with wildcards * and ?, to use;
@@ -172,42 +231,91 @@ public class DataFileHandler extends VersionedFileHandler {
     public HashSet<String> getMatchingDatasetIds(String wildDatasetId)
             throws IllegalArgumentException {
         HashSet<String> matchingIds = new HashSet<String>();
-        final Pattern filenamePattern;
+        String upperWildId = wildDatasetId.toUpperCase();
+        Pattern idPattern;
         try {
-            String filenameRegEx = wildDatasetId.toUpperCase();
-            filenameRegEx = filenameRegEx.replace("*", "[\\p{javaUpperCase}\\p{Digit}-]*");
-            filenameRegEx = filenameRegEx.replace("?", "[\\p{javaUpperCase}\\p{Digit}-]{1}");
-            filenameRegEx += INFO_FILENAME_EXTENSION;
-            filenamePattern = Pattern.compile(filenameRegEx);
+            String idRegEx = upperWildId.replace("*", "[\\p{javaUpperCase}\\p{Digit}-]*");
+            idRegEx = idRegEx.replace("?", "[\\p{javaUpperCase}\\p{Digit}-]{1}");
+            idPattern = Pattern.compile(idRegEx);
         } catch ( PatternSyntaxException ex ) {
             throw new IllegalArgumentException(ex);
         }
-        File[] subDirs = filesDir.listFiles(new FileFilter() {
-            @Override
-            public boolean accept(File pathname) {
-                if ( pathname.isDirectory() )
-                    return true;
-                return false;
-            }
-        });
-        for (File subDir : subDirs) {
-            File[] matchFiles = subDir.listFiles(new FilenameFilter() {
-                @Override
-                public boolean accept(File dir, String name) {
-                    if ( filenamePattern.matcher(name).matches() )
-                        return true;
-                    return false;
-                }
-            });
-            for (File match : matchFiles) {
-                String name = match.getName();
-                String datasetId = name.substring(0, name.length() - INFO_FILENAME_EXTENSION.length());
+        String prefix = getLiteralPrefix(upperWildId);
+        for (String datasetId : getDatasetIdsIndex().tailSet(prefix)) {
+            if ( !datasetId.startsWith(prefix) )
+                break;
+            if ( idPattern.matcher(datasetId).matches() )
                 matchingIds.add(datasetId);
-            }
         }
         return matchingIds;
     }
 
+    /**
+     * Returns the initial characters of a dataset ID pattern that any matching dataset ID must start with.
+     *
+     * @param upperWildId
+     *         uppercase dataset ID, possibly with wildcards and/or regular expressions
+     *
+     * @return the literal prefix of the pattern; may be empty
+     */
+    private static String getLiteralPrefix(String upperWildId) {
+        // Alternatives could match IDs starting with anything
+        if ( upperWildId.indexOf('|') >= 0 )
+            return "";
+        int k = 0;
+        while ( k < upperWildId.length() ) {
+            char c = upperWildId.charAt(k);
+            if ( !(((c >= 'A') && (c <= 'Z')) || ((c >= '0') && (c <= '9')) || (c == '-')) )
+                break;
+            k++;
+        }
+        // A count after the last literal character could allow zero occurrences of that character
+        if ( (k > 0) && (k < upperWildId.length()) && (upperWildId.charAt(k) == '{') )
+            k--;
+        return upperWildId.substring(0, k);
+    }
+
+    /**
+     * @return the index of the IDs of all datasets with an information file; built from the dataset files
+     *         if this has not yet been done
+     */
+    private ConcurrentSkipListSet<String> getDatasetIdsIndex() {
+        if ( datasetIdsIndexed )
+            return datasetIdsIndex;
+        synchronized(datasetIdsIndex) {
+            if ( !datasetIdsIndexed ) {
+                File[] subDirs = filesDir.listFiles(new FileFilter() {
+                    @Override
+                    public boolean accept(File pathname) {
+                        if ( pathname.isDirectory() )
+                            return true;
+                        return false;
+                    }
+                });
+                if ( subDirs != null ) {
+                    for (File subDir : subDirs) {
+                        File[] infoFiles = subDir.listFiles(new FilenameFilter() {
+                            @Override
+                            public boolean accept(File dir, String name) {
+                                if ( name.endsWith(INFO_FILENAME_EXTENSION) )
+                                    return true;
+                                return false;
+                            }
+                        });
+                        if ( infoFiles == null )
+                            continue;
+                        for (File info : infoFiles) {
+                            String name = info.getName();
+                            datasetIdsIndex.add(name.substring(0, name.length() - INFO_FILENAME_EXTENSION.length()));
+                        }
+                    }
+                }
+                datasetIdsIndexed = true;
+            }
+        }
+        return datasetIdsIndex;
+    }
+
     /**
      * Determines if a dataset data file exists
      *
@@ -480,7 +588,8 @@ public class DataFileHandler extends VersionedFileHandler {
 
     /**
      * Returns a new DashboardDataset assigned from the dataset information file
-     * without reading any of the data in dataset data file.
+     * without reading any of the data in dataset data file.  The information is cached,
+     * so the information file is only read again when its last-modified time or length changes.
      *
      * @param datasetId
      *         ID of the dataset to read
@@ -492,22 +601,76 @@ public class DataFileHandler extends VersionedFileHandler {
      *         if the dataset ID is not valid or if there are problems accessing the information file
      */
     public DashboardDataset getDatasetFromInfoFile(String datasetId) throws IllegalArgumentException {
+        String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        File infoFile = datasetInfoFile(stdId);
+        long lastModified = infoFile.lastModified();
+        long length = infoFile.length();
+        // Use the cached information if the information file has not changed
+        CachedDatasetInfo cached = infoCache.get(stdId);
+        if ( (cached != null) && (lastModified != 0L) &&
+                (cached.lastModified == lastModified) && (cached.length == length) ) {
+            infoCacheHits.incrementAndGet();
+            DashboardDataset dataset = copyDataset(cached.dataset);
+            dataset.setDatasetId(datasetId);
+            return dataset;
+        }
+        infoCacheMisses.incrementAndGet();
+
         DashboardDataset dataset = new DashboardDataset();
         dataset.setDatasetId(datasetId);
         // Read the information saved in the properties file
         try {
             assignDatasetFromInfoFile(dataset);
         } catch ( FileNotFoundException ex ) {
+            infoCache.remove(stdId);
             return null;
         } catch ( IOException ex ) {
             throw new IllegalArgumentException("Problems reading dataset information for " +
                     datasetId + ": " + ex.getMessage());
         }
+        // If the file changed while being read, the times will not match and it will be read again
+        if ( lastModified != 0L )
+            infoCache.put(stdId, new CachedDatasetInfo(lastModified, length, copyDataset(dataset)));
         return dataset;
     }
 
     /**
-     * Get a dataset with data saved to file
+     * @return the number of datasets with cached information
+     */
+    public int getInfoCacheSize() {
+        return infoCache.size();
+    }
+
+    /**
+     * @return the number of requests for dataset information answered from the cache
+     */
+    public long getInfoCacheHits() {
+        return infoCacheHits.get();
+    }
+
+    /**
+     * @return the number of requests for dataset information that read the information file
+     */
+    public long getInfoCacheMisses() {
+        return infoCacheMisses.get();
+    }
+
+    /**
+     * @return the fraction of requests for dataset information answered from the cache;
+     *         zero if there have not been any requests
+     */
+    public double getInfoCacheHitRate() {
+        long hits = infoCacheHits.get();
+        long total = hits + infoCacheMisses.get();
+        if ( total == 0L )
+            return 0.0;
+        return (double) hits / (double) total;
+    }
+
+    /**
+     * Get a dataset with data saved to file.  If not starting with the first data row, and the row index file
+     * written with the data file is still valid, reading starts directly at the first data row requested,
+     * so only the rows returned are parsed.
      *
      * @param datasetId
      *         ID of the dataset to read
@@ -538,6 +701,10 @@ public class DataFileHandler extends VersionedFileHandler {
         // Read the cruise data file
         File dataFile = datasetDataFile(datasetId);
         try {
+            // Use the row index, if valid, to go directly to the first row
+            if ( (firstDataRow > 0) &&
+                    assignDatasetDataUsingRowIndex(cruiseData, dataFile, firstDataRow, numDataRows) )
+                return cruiseData;
             FileReader cruiseReader = new FileReader(dataFile);
             try {
                 // Assign values from the cruise data file
@@ -658,7 +825,10 @@ public class DataFileHandler extends VersionedFileHandler {
         } catch ( IOException ex ) {
             throw new IllegalArgumentException("Problems writing dataset information for " +
                     datasetId + " to " + infoFile.getPath() + ": " + ex.getMessage());
+        } finally {
+            infoCache.remove(DashboardServerUtils.checkDatasetID(datasetId));
         }
+        datasetIdsIndex.add(DashboardServerUtils.checkDatasetID(datasetId));
 
         if ( (message == null) || message.trim().isEmpty() )
             return;
@@ -706,38 +876,58 @@ public class DataFileHandler extends VersionedFileHandler {
             configStore.getCheckerMsgHandler().deleteMsgsFile(datasetId);
         }
 
-        // Save the data to the data file
+        // Save the data to the data file, recording where each data row starts
+        Charset charset = Charset.defaultCharset();
+        byte[] lineSeparator = System.lineSeparator().getBytes(charset);
+        ArrayList<ArrayList<String>> dataValues = dataset.getDataValues();
+        long[] rowOffsets = new long[dataValues.size() + 1];
+        // The row index is only correct if the data rows are read back exactly as written
+        boolean indexable = isIndexable(dataValues);
         try {
-            PrintWriter writer = new PrintWriter(dataFile);
+            OutputStream writer = new BufferedOutputStream(new FileOutputStream(dataFile));
             try {
+                long offset = 0L;
                 // metadata preamble
                 for (String metaline : dataset.getPreamble()) {
-                    writer.println(metaline);
+                    byte[] bytes = metaline.getBytes(charset);
+                    writer.write(bytes);
+                    writer.write(lineSeparator);
+                    offset += bytes.length + lineSeparator.length;
                 }
                 // data column headers
-                String dataline = "";
+                StringBuilder dataline = new StringBuilder();
                 boolean first = true;
                 for (String name : dataset.getUserColNames()) {
                     if ( !first )
-                        dataline += "\t";
+                        dataline.append('\t');
                     else
                         first = false;
-                    dataline += name;
+                    dataline.append(name);
                 }
-                writer.println(dataline);
+                byte[] bytes = dataline.toString().getBytes(charset);
+                writer.write(bytes);
+                writer.write(lineSeparator);
+                offset += bytes.length + lineSeparator.length;
                 // data measurements (rows of data)
-                for (ArrayList<String> datarow : dataset.getDataValues()) {
-                    dataline = "";
+                int rowIdx = 0;
+                for (ArrayList<String> datarow : dataValues) {
+                    rowOffsets[rowIdx] = offset;
+                    rowIdx++;
+                    dataline.setLength(0);
                     first = true;
                     for (String datum : datarow) {
                         if ( !first )
-                            dataline += "\t";
+                            dataline.append('\t');
                         else
                             first = false;
-                        dataline += datum;
+                        dataline.append(datum);
                     }
-                    writer.println(dataline);
+                    bytes = dataline.toString().getBytes(charset);
+                    writer.write(bytes);
+                    writer.write(lineSeparator);
+                    offset += bytes.length + lineSeparator.length;
                 }
+                rowOffsets[rowIdx] = offset;
             } finally {
                 writer.close();
             }
@@ -746,6 +936,18 @@ public class DataFileHandler extends VersionedFileHandler {
                     datasetId + " to " + dataFile.getPath() + ": " + ex.getMessage());
         }
 
+        // Save the row index for the data file; without a valid index, paged reads parse from the start
+        File indexFile = datasetRowIndexFile(datasetId);
+        if ( indexable ) {
+            try {
+                saveRowIndex(indexFile, dataFile, rowOffsets);
+            } catch ( IOException ex ) {
+                indexFile.delete();
+            }
+        }
+        else
+            indexFile.delete();
+
         if ( (message == null) || message.trim().isEmpty() )
             return;
 
@@ -894,15 +1096,21 @@ public class DataFileHandler extends VersionedFileHandler {
             }
         }
 
-        // Move the old dataset files to the new location and name
+        // Move the old dataset files to the new location and name; the row index is rewritten with the data
+        datasetRowIndexFile(oldId).delete();
+        infoCache.remove(DashboardServerUtils.checkDatasetID(oldId));
+        infoCache.remove(DashboardServerUtils.checkDatasetID(newId));
         String commitMsg = "Rename from " + oldName + " to " + newName;
         try {
             moveVersionedFile(oldDataFile, newDataFile, commitMsg);
             moveVersionedFile(oldInfoFile, newInfoFile, commitMsg);
-        } catch ( SVNException ex ) {
+        } catch ( Exception ex ) {
             throw new IllegalArgumentException("Problems renaming the dateaset files from " +
                     oldId + " to " + newId + ": " + ex.getMessage());
         }
+        // Only update the index of dataset IDs once the information file has been moved
+        datasetIdsIndex.remove(DashboardServerUtils.checkDatasetID(oldId));
+        datasetIdsIndex.add(DashboardServerUtils.checkDatasetID(newId));
 
         // Save under the new dataset
         saveDatasetInfoToFile(datasetData, commitMsg);
@@ -986,6 +1194,9 @@ public class DataFileHandler extends VersionedFileHandler {
         // If it exists, delete the messages file
         configStore.getCheckerMsgHandler().deleteMsgsFile(datasetId);
 
+        // Delete the row index of the cruise data file
+        datasetRowIndexFile(datasetId).delete();
+
         // Delete the cruise data file
         String commitMsg = "Cruise file for " + datasetId + " owned by " +
                 dataset.getOwner() + " deleted by " + username;
@@ -1001,7 +1212,10 @@ public class DataFileHandler extends VersionedFileHandler {
         } catch ( Exception ex ) {
             throw new IllegalArgumentException("Problems deleting the dataset information file for " +
                     datasetId + ": " + ex.getMessage());
+        } finally {
+            infoCache.remove(DashboardServerUtils.checkDatasetID(datasetId));
         }
+        datasetIdsIndex.remove(DashboardServerUtils.checkDatasetID(datasetId));
 
         if ( deleteMetadata ) {
             // Delete the metadata and additional documents associated with this cruise
@@ -1033,6 +1247,232 @@ public class DataFileHandler extends VersionedFileHandler {
         }
     }
 
+    /**
+     * Creates a deep copy of a dataset, so changes to the copy or to the original do not affect the other.
+     *
+     * @param dataset
+     *         dataset to copy
+     *
+     * @return the copy of the dataset
+     */
+    private static DashboardDataset copyDataset(DashboardDataset dataset) {
+        DashboardDataset copy = new DashboardDataset();
+        copy.setSelected(dataset.isSelected());
+        copy.setVersion(dataset.getVersion());
+        copy.setOwner(dataset.getOwner());
+        copy.setDatasetId(dataset.getDatasetId());
+        copy.setDataCheckStatus(dataset.getDataCheckStatus());
+        copy.setOmeTimestamp(dataset.getOmeTimestamp());
+        copy.setAddlDocs(dataset.getAddlDocs());
+        copy.setSubmitStatus(dataset.getSubmitStatus());
+        copy.setArchiveStatus(dataset.getArchiveStatus());
+        copy.setArchiveTimestamps(dataset.getArchiveTimestamps());
+        copy.setUploadFilename(dataset.getUploadFilename());
+        copy.setUploadTimestamp(dataset.getUploadTimestamp());
+        copy.setSourceDOI(dataset.getSourceDOI());
+        copy.setEnhancedDOI(dataset.getEnhancedDOI());
+        copy.setNumDataRows(dataset.getNumDataRows());
+        copy.setNumErrorRows(dataset.getNumErrorRows());
+        copy.setNumWarnRows(dataset.getNumWarnRows());
+        copy.setUserColNames(dataset.getUserColNames());
+        ArrayList<DataColumnType> colTypes = copy.getDataColTypes();
+        for (DataColumnType dtype : dataset.getDataColTypes()) {
+            colTypes.add(dtype.duplicate());
+        }
+        TreeSet<DataQCFlag> flags = copy.getCheckerFlags();
+        for (DataQCFlag flag : dataset.getCheckerFlags()) {
+            flags.add(new DataQCFlag(flag.getFlagName(), flag.getFlagValue(), flag.getSeverity(),
+                    flag.getColumnIndex(), flag.getRowIndex()));
+        }
+        flags = copy.getUserFlags();
+        for (DataQCFlag flag : dataset.getUserFlags()) {
+            flags.add(new DataQCFlag(flag.getFlagName(), flag.getFlagValue(), flag.getSeverity(),
+                    flag.getColumnIndex(), flag.getRowIndex()));
+        }
+        return copy;
+    }
+
+    /**
+     * Checks whether data rows written to a data file would be read back exactly as given, one row per line.
+     * This is not true for values containing tabs, double quotes, or line breaks, for rows of blank values (which
+     * are skipped when read), or if every value in the first row would be taken as a units specification.
+     *
+     * @param dataValues
+     *         data rows to check
+     *
+     * @return if a row index can be used for a data file with these data rows
+     */
+    private boolean isIndexable(ArrayList<ArrayList<String>> dataValues) {
+        for (ArrayList<String> datarow : dataValues) {
+            boolean allBlank = true;
+            for (String datum : datarow) {
+                for (int j = 0; j < datum.length(); j++) {
+                    char c = datum.charAt(j);
+                    if ( (c == '\t') || (c == '"') || (c == '\n') || (c == '\r') )
+                        return false;
+                    if ( allBlank && !Character.isWhitespace(c) )
+                        allBlank = false;
+                }
+            }
+            if ( allBlank )
+                return false;
+        }
+        if ( dataValues.isEmpty() )
+            return true;
+        for (String datum : dataValues.get(0)) {
+            try {
+                Double.valueOf(datum);
+                return true;
+            } catch ( NumberFormatException ex ) {
+                // not numeric; check the next value
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the row index file for a data file.  The index file contains the length and last-modified time of the
+     * data file, the number of data rows, and the byte offset of the start of each data row, followed by the offset
+     * of the end of the data.  The offset of the first data row is also the length of the metadata preamble and the
+     * column headers.
+     *
+     * @param indexFile
+     *         row index file to write
+     * @param dataFile
+     *         data file just written
+     * @param rowOffsets
+     *         byte offsets of the start of each data row, with the end of the data as the last value
+     *
+     * @throws IOException
+     *         if writing the index file throws one
+     */
+    private void saveRowIndex(File indexFile, File dataFile, long[] rowOffsets) throws IOException {
+        DataOutputStream indexWriter = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+        try {
+            indexWriter.writeLong(dataFile.length());
+            indexWriter.writeLong(dataFile.lastModified());
+            indexWriter.writeInt(rowOffsets.length - 1);
+            for (long offset : rowOffsets) {
+                indexWriter.writeLong(offset);
+            }
+        } finally {
+            indexWriter.close();
+        }
+    }
+
+    /**
+     * Assigns the metadata preamble and data rows of a dataset using the row index file for the data file.
+     * The metadata preamble and column headers are parsed using
+     * {@link #assignDatasetDataFromInput(DashboardDatasetData, Reader, String, String, int, int)},
+     * after which parsing of the data rows starts directly at the first row requested.
+     *
+     * @param datasetData
+     *         assign the preamble, data values, and row numbers of this dataset
+     * @param dataFile
+     *         data file of the dataset
+     * @param firstRowIdx
+     *         index of the first data row to assign
+     * @param numDataRows
+     *         maximum number of data rows to assign;
+     *         if negative, no limit is applied (all remaining data rows are assigned)
+     *
+     * @return true if the data was assigned; false if there is no valid row index for the data file
+     *
+     * @throws IOException
+     *         if there are problems reading the data file, or if the data rows are inconsistent with the headers
+     */
+    private boolean assignDatasetDataUsingRowIndex(DashboardDatasetData datasetData, File dataFile,
+            int firstRowIdx, int numDataRows) throws IOException {
+        File indexFile = datasetRowIndexFile(datasetData.getDatasetId());
+        if ( !indexFile.exists() )
+            return false;
+
+        // Get the offsets of the header end, the first data row, and the end of the rows requested
+        long headerEnd;
+        long startOffset;
+        long endOffset;
+        int numRows;
+        RandomAccessFile indexReader = new RandomAccessFile(indexFile, "r");
+        try {
+            if ( indexReader.readLong() != dataFile.length() )
+                return false;
+            if ( indexReader.readLong() != dataFile.lastModified() )
+                return false;
+            int numIndexedRows = indexReader.readInt();
+            if ( indexReader.length() != 20L + 8L * (numIndexedRows + 1) )
+                return false;
+            int firstIdx = Math.min(firstRowIdx, numIndexedRows);
+            int endIdx = numIndexedRows;
+            if ( (numDataRows >= 0) && (numDataRows < numIndexedRows - firstIdx) )
+                endIdx = firstIdx + numDataRows;
+            numRows = endIdx - firstIdx;
+            headerEnd = indexReader.readLong();
+            indexReader.seek(20L + 8L * firstIdx);
+            startOffset = indexReader.readLong();
+            indexReader.seek(20L + 8L * endIdx);
+            endOffset = indexReader.readLong();
+        } finally {
+            indexReader.close();
+        }
+
+        FileInputStream dataStream = new FileInputStream(dataFile);
+        try {
+            // Parse the metadata preamble and column headers
+            byte[] header = new byte[(int) headerEnd];
+            int offset = 0;
+            while ( offset < header.length ) {
+                int numRead = dataStream.read(header, offset, header.length - offset);
+                if ( numRead < 0 )
+                    throw new IOException("Unexpected end of data file " + dataFile.getPath());
+                offset += numRead;
+            }
+            assignDatasetDataFromInput(datasetData, new InputStreamReader(new ByteArrayInputStream(header)),
+                    DashboardUtils.TAB_FORMAT_TAG, null, 0, 0);
+            int numDataColumns = datasetData.getUserColNames().size();
+
+            // Parse only the data rows requested
+            ArrayList<ArrayList<String>> dataVals = new ArrayList<ArrayList<String>>(numRows);
+            ArrayList<Integer> rowNums = new ArrayList<Integer>(numRows);
+            if ( numRows > 0 ) {
+                dataStream.getChannel().position(startOffset);
+                byte[] rows = new byte[(int) (endOffset - startOffset)];
+                offset = 0;
+                while ( offset < rows.length ) {
+                    int numRead = dataStream.read(rows, offset, rows.length - offset);
+                    if ( numRead < 0 )
+                        throw new IOException("Unexpected end of data file " + dataFile.getPath());
+                    offset += numRead;
+                }
+                CSVFormat format = CSVFormat.EXCEL.withIgnoreSurroundingSpaces()
+                                                  .withDelimiter('\t');
+                CSVParser dataParser = new CSVParser(new InputStreamReader(new ByteArrayInputStream(rows)), format);
+                try {
+                    int rowNum = firstRowIdx;
+                    for (CSVRecord record : dataParser) {
+                        if ( record.size() != numDataColumns )
+                            throw new IOException("Inconsistent number of data columns (" + record.size() +
+                                    " instead of " + numDataColumns + ") for measurement " + (rowNum + 1) +
+                                    ":\n    " + rebuildDataline(record, '\t', false));
+                        ArrayList<String> datavals = new ArrayList<String>(numDataColumns);
+                        for (String val : record) {
+                            datavals.add(val);
+                        }
+                        rowNum++;
+                        rowNums.add(rowNum);
+                        dataVals.add(datavals);
+                    }
+                } finally {
+                    dataParser.close();
+                }
+            }
+            datasetData.setDataValues(dataVals);
+            datasetData.setRowNums(rowNums);
+        } finally {
+            dataStream.close();
+        }
+        return true;
+    }
+
     /**
      * Assigns a DashboardDataset (or DashboardDatasetData) from the dataset properties file.
      * The ID of the dataset is obtained from the DashboardDataset.
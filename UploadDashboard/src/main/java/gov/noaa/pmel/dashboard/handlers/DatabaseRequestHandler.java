@@ -12,10 +12,10 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -41,12 +41,25 @@ public class DatabaseRequestHandler {
     private static final String SELECT_PASS_TAG = "selectpass";
     private static final String UPDATE_USER_TAG = "updateuser";
     private static final String UPDATE_PASS_TAG = "updatepass";
+    private static final String POOL_SIZE_TAG = "poolsize";
+
+    /**
+     * Default maximum number of idle connections kept in each of the read and update connection pools
+     */
+    public static final int DEFAULT_POOL_SIZE = 4;
+
+    /**
+     * Maximum number of data QC locations added in one JDBC batch
+     */
+    private static final int LOCATIONS_BATCH_SIZE = 1000;
 
     String databaseUrl;
     String selectUser;
     String selectPass;
     String updateUser;
     String updatePass;
+    private SqlConnectionPool selectPool;
+    private SqlConnectionPool updatePool;
 
     /**
      * Create using the given configuration properties file.
@@ -105,6 +118,19 @@ public class DatabaseRequestHandler {
             throw new IllegalArgumentException("Value for " + UPDATE_PASS_TAG +
                     " must be given in " + configFilename);
         updatePass = updatePass.trim();
+        int poolSize = DEFAULT_POOL_SIZE;
+        String propVal = configProps.getProperty(POOL_SIZE_TAG);
+        if ( (propVal != null) && !propVal.trim().isEmpty() ) {
+            try {
+                poolSize = Integer.parseInt(propVal.trim());
+                if ( poolSize < 0 )
+                    throw new NumberFormatException();
+            } catch ( NumberFormatException ex ) {
+                throw new IllegalArgumentException("Invalid value for " + POOL_SIZE_TAG +
+                        " given in " + configFilename);
+            }
+        }
+        createPools(poolSize);
         testConnections(sqlDriverName);
     }
 
@@ -151,9 +177,29 @@ public class DatabaseRequestHandler {
         if ( (updatePass == null) || updatePass.trim().isEmpty() )
             throw new IllegalArgumentException("password for update user must be given");
         this.updatePass = updatePass.trim();
+        createPools(DEFAULT_POOL_SIZE);
         testConnections(sqlDriverName.trim());
     }
 
+    /**
+     * Creates the (empty) pools of read-only and read-write connections to the database.
+     *
+     * @param poolSize
+     *         maximum number of idle connections kept in each pool
+     */
+    private void createPools(int poolSize) {
+        selectPool = new SqlConnectionPool(databaseUrl, selectUser, selectPass, poolSize);
+        updatePool = new SqlConnectionPool(databaseUrl, updateUser, updatePass, poolSize);
+    }
+
+    /**
+     * Closes the idle pooled connections to the database.  Connections made after this call are not pooled.
+     */
+    public void close() {
+        selectPool.close();
+        updatePool.close();
+    }
+
     /**
      * Validates the parameters in this handler.
      *
@@ -182,7 +228,7 @@ public class DatabaseRequestHandler {
     }
 
     /**
-     * Creates a connection to the associated database catalog.
+     * Obtains a pooled connection to the associated database catalog.  Closing the connection returns it to the pool.
      *
      * @param canUpdate
      *         if true, the connection will be made using updateUser; otherwise, the connection will be made using
@@ -194,17 +240,29 @@ public class DatabaseRequestHandler {
      *         if connecting to the database catalog throws one or if a null connection is returned
      */
     private Connection makeConnection(boolean canUpdate) throws SQLException {
-        // Open a connection to the database
-        Connection catConn;
-        if ( canUpdate ) {
-            catConn = DriverManager.getConnection(databaseUrl, updateUser, updatePass);
-        }
-        else {
-            catConn = DriverManager.getConnection(databaseUrl, selectUser, selectPass);
+        if ( canUpdate )
+            return updatePool.getConnection();
+        return selectPool.getConnection();
+    }
+
+    /**
+     * Get the ID for a reviewer, using the given map of IDs already found for this request before querying the
+     * reviewers database table.
+     *
+     * @param reviewerIds
+     *         map of username and realname (separated by a tab) to the reviewer ID; updated with any ID found
+     *
+     * @see #getReviewerId(Connection, String, String)
+     */
+    private int getReviewerId(Connection catConn, HashMap<String,Integer> reviewerIds, String username,
+            String realname) throws SQLException {
+        String key = username + "\t" + realname;
+        Integer reviewerId = reviewerIds.get(key);
+        if ( reviewerId == null ) {
+            reviewerId = getReviewerId(catConn, username, realname);
+            reviewerIds.put(key, reviewerId);
         }
-        if ( catConn == null )
-            throw new SQLException("null SQL connection returned");
-        return catConn;
+        return reviewerId;
     }
 
     /**
@@ -236,23 +294,29 @@ public class DatabaseRequestHandler {
                     REVIEWERS_TABLE_NAME + "` WHERE `realname` = ?;");
             prepStmt.setString(1, realname);
         }
-        ResultSet results = prepStmt.executeQuery();
+        // Called once for each new reviewer while adding events, so close the statement rather than leaving it
+        // open until the (pooled) connection is returned
         try {
-            if ( !results.first() ) {
-                if ( !username.isEmpty() )
-                    throw new SQLException("Reviewer username '" + username + "' not found");
-                else
-                    throw new SQLException("Reviewer realname '" + realname + "' not found");
-            }
-            reviewerId = results.getInt(1);
-            if ( reviewerId <= 0 ) {
-                if ( !username.isEmpty() )
-                    throw new SQLException("ID for reviewer username '" + username + "' not found");
-                else
-                    throw new SQLException("ID for reviewer realname '" + realname + "' not found");
+            ResultSet results = prepStmt.executeQuery();
+            try {
+                if ( !results.first() ) {
+                    if ( !username.isEmpty() )
+                        throw new SQLException("Reviewer username '" + username + "' not found");
+                    else
+                        throw new SQLException("Reviewer realname '" + realname + "' not found");
+                }
+                reviewerId = results.getInt(1);
+                if ( reviewerId <= 0 ) {
+                    if ( !username.isEmpty() )
+                        throw new SQLException("ID for reviewer username '" + username + "' not found");
+                    else
+                        throw new SQLException("ID for reviewer realname '" + realname + "' not found");
+                }
+            } finally {
+                results.close();
             }
         } finally {
-            results.close();
+            prepStmt.close();
         }
         return reviewerId;
     }
@@ -372,12 +436,15 @@ public class DatabaseRequestHandler {
     public void addDatasetQCEvents(Collection<QCEvent> qcEvents) throws SQLException {
         Connection catConn = makeConnection(true);
         try {
+            // Add all the events, or none of them
+            catConn.setAutoCommit(false);
+            HashMap<String,Integer> reviewerIds = new HashMap<String,Integer>();
             PreparedStatement addPrepStmt = catConn.prepareStatement("INSERT INTO `" +
                     QCEVENTS_TABLE_NAME + "` (`qc_flag`, `qc_time`, `expocode`, " +
                     "`socat_version`, `region_id`, `reviewer_id`, `qc_comment`) " +
                     "VALUES(?, ?, ?, ?, ?, ?, ?);");
             for (QCEvent event : qcEvents) {
-                int reviewerId = getReviewerId(catConn, event.getUsername(), event.getRealname());
+                int reviewerId = getReviewerId(catConn, reviewerIds, event.getUsername(), event.getRealname());
                 addPrepStmt.setString(1, event.getFlagValue());
                 Date flagDate = event.getFlagDate();
                 if ( flagDate.equals(DashboardUtils.DATE_MISSING_VALUE) )
@@ -389,8 +456,10 @@ public class DatabaseRequestHandler {
                 addPrepStmt.setString(5, event.getRegionId());
                 addPrepStmt.setInt(6, reviewerId);
                 addPrepStmt.setString(7, event.getComment());
-                addPrepStmt.executeUpdate();
+                addPrepStmt.addBatch();
             }
+            addPrepStmt.executeBatch();
+            catConn.commit();
         } finally {
             catConn.close();
         }
@@ -646,9 +715,10 @@ public class DatabaseRequestHandler {
 
     /**
      * Adds a new data QC event for a dataset.  This includes assigning the DataLocations to the WOCELocations table.
+     * All the events are added in a single transaction, with the locations added in JDBC batches.
      *
      * @param woceEvents
-     *         the data QC events to add; the ID in each data QC event will be assigned for those successfully added
+     *         the data QC events to add; the ID in each data QC event will be assigned if all are successfully added
      *
      * @throws SQLException
      *         if accessing or updating the database throws one,
@@ -656,17 +726,23 @@ public class DatabaseRequestHandler {
      *         if a problem occurs adding the data QC event
      */
     public void addDataQCEvent(Collection<DataQCEvent> woceEvents) throws SQLException {
+        ArrayList<DataQCEvent> addedEvents = new ArrayList<DataQCEvent>(woceEvents.size());
+        ArrayList<Long> woceIds = new ArrayList<Long>(woceEvents.size());
         Connection catConn = makeConnection(true);
         try {
+            // Add all the events with their locations, or none of them
+            catConn.setAutoCommit(false);
+            HashMap<String,Integer> reviewerIds = new HashMap<String,Integer>();
             PreparedStatement eventPrepStmt = catConn.prepareStatement("INSERT INTO `" +
                     WOCEEVENTS_TABLE_NAME + "` (`woce_name`, `woce_flag`, `woce_time`, " +
                     "`expocode`, `socat_version`, `data_name`, `reviewer_id`, " +
-                    "`woce_comment`) VALUES(?, ?, ?, ?, ?, ?, ?, ?);");
+                    "`woce_comment`) VALUES(?, ?, ?, ?, ?, ?, ?, ?);", Statement.RETURN_GENERATED_KEYS);
             PreparedStatement locPrepStmt = catConn.prepareStatement("INSERT INTO `" + WOCELOCATIONS_TABLE_NAME +
                     "` (`woce_id`, `row_num`, `longitude`, `latitude`, `data_time`, `data_value`) " +
                     "VALUES (?, ?, ?, ?, ?, ?);");
+            int numBatched = 0;
             for (DataQCEvent event : woceEvents) {
-                int reviewerId = getReviewerId(catConn, event.getUsername(), event.getRealname());
+                int reviewerId = getReviewerId(catConn, reviewerIds, event.getUsername(), event.getRealname());
                 // Add the WOCE event
                 eventPrepStmt.setString(1, event.getFlagName());
                 eventPrepStmt.setString(2, event.getFlagValue());
@@ -683,11 +759,11 @@ public class DatabaseRequestHandler {
                 if ( eventPrepStmt.executeUpdate() != 1 )
                     throw new SQLException("Adding the data QC event was unsuccessful");
 
-                // Get the woce_id for the added WOCE event
+                // Get the woce_id generated for the added WOCE event
                 long woceId;
-                ResultSet results = catConn.createStatement().executeQuery("SELECT LAST_INSERT_ID();");
+                ResultSet results = eventPrepStmt.getGeneratedKeys();
                 try {
-                    if ( !results.first() )
+                    if ( !results.next() )
                         throw new SQLException("Unexpected failure to get the woce_id for an added data QC event");
                     woceId = results.getLong(1);
                     if ( woceId <= 0 )
@@ -696,7 +772,7 @@ public class DatabaseRequestHandler {
                     results.close();
                 }
 
-                // Add the DataLocations to the WOCELocations table
+                // Add the DataLocations to the WOCELocations table in batches
                 for (DataLocation location : event.getLocations()) {
                     locPrepStmt.setLong(1, woceId);
                     Integer intVal = location.getRowNumber();
@@ -724,17 +800,41 @@ public class DatabaseRequestHandler {
                         locPrepStmt.setNull(6, java.sql.Types.DOUBLE);
                     else
                         locPrepStmt.setDouble(6, dblVal);
-                    locPrepStmt.executeUpdate();
-                    if ( locPrepStmt.getUpdateCount() != 1 )
-                        throw new SQLException("Adding a data QC location was unsuccessful");
+                    locPrepStmt.addBatch();
+                    numBatched++;
+                    if ( numBatched >= LOCATIONS_BATCH_SIZE ) {
+                        executeLocationsBatch(locPrepStmt);
+                        numBatched = 0;
+                    }
                 }
 
-                // Success - assign the ID
-                event.setId(woceId);
+                addedEvents.add(event);
+                woceIds.add(woceId);
             }
+            if ( numBatched > 0 )
+                executeLocationsBatch(locPrepStmt);
+            catConn.commit();
         } finally {
             catConn.close();
         }
+
+        // Success - assign the IDs
+        for (int k = 0; k < addedEvents.size(); k++) {
+            addedEvents.get(k).setId(woceIds.get(k));
+        }
+    }
+
+    /**
+     * Executes the batch of data QC location inserts in the given statement.
+     *
+     * @throws SQLException
+     *         if executing the batch throws one, or if any location was not added
+     */
+    private static void executeLocationsBatch(PreparedStatement locPrepStmt) throws SQLException {
+        for (int count : locPrepStmt.executeBatch()) {
+            if ( (count != 1) && (count != Statement.SUCCESS_NO_INFO) )
+                throw new SQLException("Adding a data QC location was unsuccessful");
+        }
     }
 
     /**
@@ -910,6 +1010,8 @@ public class DatabaseRequestHandler {
             throws SQLException {
         Connection catConn = makeConnection(true);
         try {
+            // Make all the changes, or none of them
+            catConn.setAutoCommit(false);
             long nowSec = Math.round(System.currentTimeMillis() / 1000.0);
             int reviewerId = getReviewerId(catConn, username, "");
             String renameComment = "Rename from " + oldExpocode + " to " + newExpocode;
@@ -989,6 +1091,7 @@ public class DatabaseRequestHandler {
             addWocePrepStmt.setString(7, renameComment);
             addWocePrepStmt.setString(14, renameComment);
             addWocePrepStmt.executeUpdate();
+            catConn.commit();
         } finally {
             catConn.close();
         }
@@ -0,0 +1,313 @@
+package gov.noaa.pmel.dashboard.handlers;
+
+import gov.noaa.pmel.dashboard.dsg.DatasetExtents;
+import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Persistent catalog of the time, latitude, and longitude extents of the full-data DSG files of datasets.
+ * Each entry records the last-modified time and the length of the DSG file it was computed from; an entry whose
+ * time or length does not match that of the DSG file is recomputed from the DSG file when requested.  Thus the
+ * catalog never gives outdated extents even if a DSG file is modified by some other program, and the length
+ * catches rewrites within the one-second resolution of the last-modified time on some file systems.
+ * <p>
+ * The catalog file is a log of tab-separated lines, each giving either the extents of a dataset or, for a
+ * removed dataset, only the dataset ID.  Changes are appended to the file, and later lines supersede earlier
+ * lines for the same dataset.  The file is rewritten with only the current entries when it grows much larger
+ * than the number of entries.  Since any entry can be recomputed, a damaged or missing catalog file only results
+ * in extra reading of DSG files.  The catalog file should not be placed in the directory of DSG files served by
+ * ERDDAP.
+ * <p>
+ * Current entries are returned without any locking.  Outdated or missing entries are computed from the DSG file
+ * outside of any lock, so requests for different datasets read their DSG files concurrently; only the update of
+ * the catalog (and its file) is serialized.
+ */
+public class DatasetExtentsCatalog {
+
+    private static final String CATALOG_HEADER = "# datasetId\tfileStamp\tfileLength\tnumValid\t" +
+            "minTime\tmaxTime\tsouthLat\tnorthLat\twestLon\teastLon";
+    private static final String CATALOG_SEPARATOR = "\t";
+    private static final Pattern CATALOG_SPLIT_PATTERN = Pattern.compile(CATALOG_SEPARATOR);
+    private static final int NUM_CATALOG_FIELDS = 10;
+    private static final int MIN_LINES_FOR_COMPACTION = 256;
+
+    private File catalogFile;
+    private Logger itsLogger;
+    private final ConcurrentHashMap<String,DatasetExtents> extentsMap;
+    private int numLogLines;
+
+    /**
+     * Create a catalog of dataset extents saved in the given file.  If the file exists,
+     * the entries in the file are read; any problems reading the file are logged and
+     * the unreadable entries are ignored.
+     *
+     * @param catalogFile
+     *         file for saving the catalog
+     * @param logger
+     *         log messages here; may be null
+     *
+     * @throws IllegalArgumentException
+     *         if the parent directory of the catalog file does not exist or is not a directory
+     */
+    public DatasetExtentsCatalog(File catalogFile, Logger logger) throws IllegalArgumentException {
+        File parentDir = catalogFile.getParentFile();
+        if ( (parentDir == null) || !parentDir.isDirectory() )
+            throw new IllegalArgumentException("parent directory of " + catalogFile.getPath() + " is not valid");
+        this.catalogFile = catalogFile;
+        itsLogger = logger;
+        extentsMap = new ConcurrentHashMap<String,DatasetExtents>();
+        numLogLines = 0;
+        if ( catalogFile.exists() ) {
+            try {
+                readCatalog();
+            } catch ( Exception ex ) {
+                if ( itsLogger != null )
+                    itsLogger.error("Problems reading the dataset extents catalog " + catalogFile.getPath() +
+                            ": " + ex.getMessage());
+            }
+            if ( (numLogLines >= MIN_LINES_FOR_COMPACTION) && (numLogLines > 2 * extentsMap.size()) )
+                compact();
+        }
+    }
+
+    /**
+     * Reads the catalog file, replacing earlier entries with later entries for the same dataset.
+     *
+     * @throws IOException
+     *         if reading the catalog file throws one
+     */
+    private void readCatalog() throws IOException {
+        BufferedReader reader = new BufferedReader(new FileReader(catalogFile));
+        try {
+            String line = reader.readLine();
+            while ( line != null ) {
+                if ( !(line.trim().isEmpty() || line.startsWith("#")) ) {
+                    numLogLines++;
+                    String[] fields = CATALOG_SPLIT_PATTERN.split(line);
+                    if ( fields.length == 1 ) {
+                        extentsMap.remove(fields[0]);
+                    }
+                    else if ( fields.length == NUM_CATALOG_FIELDS ) {
+                        try {
+                            DatasetExtents extents = new DatasetExtents(fields[0], Long.parseLong(fields[1]),
+                                    Long.parseLong(fields[2]), Integer.parseInt(fields[3]),
+                                    Double.parseDouble(fields[4]), Double.parseDouble(fields[5]),
+                                    Double.parseDouble(fields[6]), Double.parseDouble(fields[7]),
+                                    Double.parseDouble(fields[8]), Double.parseDouble(fields[9]));
+                            extentsMap.put(extents.getDatasetId(), extents);
+                        } catch ( IllegalArgumentException ex ) {
+                            // Includes NumberFormatException; probably a partially written line
+                            extentsMap.remove(fields[0]);
+                        }
+                    }
+                }
+                line = reader.readLine();
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @return the catalog line for the given extents
+     */
+    private static String catalogLine(DatasetExtents extents) {
+        return extents.getDatasetId() + CATALOG_SEPARATOR +
+                extents.getFileStamp() + CATALOG_SEPARATOR +
+                extents.getFileLength() + CATALOG_SEPARATOR +
+                extents.getNumValid() + CATALOG_SEPARATOR +
+                extents.getMinTime() + CATALOG_SEPARATOR +
+                extents.getMaxTime() + CATALOG_SEPARATOR +
+                extents.getSouthLat() + CATALOG_SEPARATOR +
+                extents.getNorthLat() + CATALOG_SEPARATOR +
+                extents.getWestLon() + CATALOG_SEPARATOR +
+                extents.getEastLon();
+    }
+
+    /**
+     * Appends a line to the catalog file.  Problems writing are logged but otherwise ignored.
+     */
+    private void appendLine(String line) {
+        try {
+            boolean newFile = !catalogFile.exists();
+            PrintWriter writer = new PrintWriter(new FileWriter(catalogFile, true));
+            try {
+                if ( newFile )
+                    writer.println(CATALOG_HEADER);
+                writer.println(line);
+            } finally {
+                writer.close();
+            }
+            numLogLines++;
+        } catch ( IOException ex ) {
+            if ( itsLogger != null )
+                itsLogger.error("Problems appending to the dataset extents catalog " + catalogFile.getPath() +
+                        ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the catalog file with only the current entries.  The new contents are written to a temporary
+     * file which then replaces the catalog file.  Problems writing are logged but otherwise ignored.
+     */
+    public synchronized void compact() {
+        File tmpFile = new File(catalogFile.getPath() + ".tmp");
+        try {
+            PrintWriter writer = new PrintWriter(tmpFile);
+            try {
+                writer.println(CATALOG_HEADER);
+                // Write the entries ordered by dataset ID
+                for (DatasetExtents extents : new TreeMap<String,DatasetExtents>(extentsMap).values()) {
+                    writer.println(catalogLine(extents));
+                }
+            } finally {
+                writer.close();
+            }
+            if ( !tmpFile.renameTo(catalogFile) )
+                throw new IOException("unable to rename " + tmpFile.getName() + " to " + catalogFile.getName());
+            numLogLines = extentsMap.size();
+        } catch ( IOException ex ) {
+            tmpFile.delete();
+            if ( itsLogger != null )
+                itsLogger.error("Problems rewriting the dataset extents catalog " + catalogFile.getPath() +
+                        ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the extents of the data in the given full-data DSG file.  If the catalog entry for the
+     * dataset is missing or outdated, the extents are computed from the data in the DSG file and the
+     * catalog is updated.
+     *
+     * @param datasetId
+     *         ID of the dataset
+     * @param dsgFile
+     *         full-data DSG file of the dataset
+     *
+     * @return the extents of the data in the DSG file
+     *
+     * @throws FileNotFoundException
+     *         if the full-data DSG file does not exist
+     * @throws IOException
+     *         if problems opening or reading from the DSG file, or
+     *         if any of the data arrays are not given in the DSG file
+     */
+    public DatasetExtents getExtents(String datasetId, DsgNcFile dsgFile)
+            throws FileNotFoundException, IOException {
+        if ( !dsgFile.exists() )
+            throw new FileNotFoundException("Full-data DSG file for " + datasetId + " does not exist");
+        long fileStamp = dsgFile.lastModified();
+        long fileLength = dsgFile.length();
+        DatasetExtents extents = extentsMap.get(datasetId);
+        if ( (extents != null) && extents.isForFile(fileStamp, fileLength) )
+            return extents;
+        // Read the DSG file without holding the monitor so misses for different datasets are not serialized
+        double[][] lonlattimes = dsgFile.readLonLatTimeDataValues();
+        return publishExtents(dsgFile, DatasetExtents.fromData(datasetId, fileStamp, fileLength,
+                lonlattimes[0], lonlattimes[1], lonlattimes[2]));
+    }
+
+    /**
+     * Saves extents computed from a DSG file in the catalog unless another thread has already saved extents
+     * for the same version of the DSG file, or the DSG file was modified after it was read.
+     *
+     * @return the extents in the catalog for the version of the DSG file read, or the given extents if the
+     *         DSG file has since been modified
+     */
+    private synchronized DatasetExtents publishExtents(DsgNcFile dsgFile, DatasetExtents extents) {
+        DatasetExtents current = extentsMap.get(extents.getDatasetId());
+        if ( (current != null) && current.isForFile(extents.getFileStamp(), extents.getFileLength()) )
+            return current;
+        // Do not record extents of a version of the DSG file that has been replaced while being read
+        if ( !extents.isForFile(dsgFile.lastModified(), dsgFile.length()) )
+            return extents;
+        return putExtents(extents);
+    }
+
+    /**
+     * Assigns the extents of a dataset from the given data just written to the given full-data DSG file.
+     *
+     * @param datasetId
+     *         ID of the dataset
+     * @param dsgFile
+     *         full-data DSG file of the dataset
+     * @param lons
+     *         longitudes written to the DSG file
+     * @param lats
+     *         latitudes written to the DSG file
+     * @param times
+     *         times written to the DSG file
+     *
+     * @return the extents of the given data
+     *
+     * @throws IllegalArgumentException
+     *         if the data arrays are invalid
+     */
+    public synchronized DatasetExtents updateExtents(String datasetId, DsgNcFile dsgFile,
+            double[] lons, double[] lats, double[] times) throws IllegalArgumentException {
+        return putExtents(DatasetExtents.fromData(datasetId, dsgFile.lastModified(), dsgFile.length(),
+                lons, lats, times));
+    }
+
+    /**
+     * Updates the file time and length of the catalog entry of a dataset after a modification of the DSG file that
+     * did not change the longitudes, latitudes, or times.  The entry is only updated if it was current for the DSG
+     * file prior to the modification.
+     *
+     * @param datasetId
+     *         ID of the dataset
+     * @param dsgFile
+     *         full-data DSG file of the dataset
+     * @param priorFileStamp
+     *         last-modified time of the DSG file prior to the modification
+     * @param priorFileLength
+     *         length of the DSG file prior to the modification
+     */
+    public synchronized void updateFileStamp(String datasetId, DsgNcFile dsgFile, long priorFileStamp,
+            long priorFileLength) {
+        DatasetExtents extents = extentsMap.get(datasetId);
+        if ( (extents == null) || !extents.isForFile(priorFileStamp, priorFileLength) )
+            return;
+        long fileStamp = dsgFile.lastModified();
+        long fileLength = dsgFile.length();
+        if ( extents.isForFile(fileStamp, fileLength) )
+            return;
+        putExtents(new DatasetExtents(datasetId, fileStamp, fileLength, extents.getNumValid(),
+                extents.getMinTime(), extents.getMaxTime(), extents.getSouthLat(), extents.getNorthLat(),
+                extents.getWestLon(), extents.getEastLon()));
+    }
+
+    /**
+     * Removes the catalog entry, if it exists, of a dataset.
+     *
+     * @param datasetId
+     *         ID of the dataset
+     */
+    public synchronized void removeExtents(String datasetId) {
+        if ( extentsMap.remove(datasetId) != null )
+            appendLine(datasetId);
+    }
+
+    /**
+     * Saves the given extents in the catalog.
+     *
+     * @return the given extents
+     */
+    private DatasetExtents putExtents(DatasetExtents extents) {
+        extentsMap.put(extents.getDatasetId(), extents);
+        appendLine(catalogLine(extents));
+        return extents;
+    }
+
+}
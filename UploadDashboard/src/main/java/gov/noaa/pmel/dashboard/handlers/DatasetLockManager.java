@@ -0,0 +1,189 @@
+package gov.noaa.pmel.dashboard.handlers;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Striped read/write locks for the files of datasets.  Each dataset ID is assigned to one of a fixed number of
+ * reentrant read/write locks, so operations on different datasets (almost always) proceed concurrently, while
+ * a dataset being written is protected from other readers and writers.  The number of lock requests, the number
+ * of requests that had to wait for the lock, and the time spent waiting are recorded for monitoring contention.
+ * All methods are thread-safe.
+ * <p>
+ * Since different datasets may share a lock, a thread holding a lock for one dataset should not request a lock
+ * for another dataset, and a thread holding a read lock must never request a write lock.
+ */
+public class DatasetLockManager {
+
+    /**
+     * Default number of locks shared among datasets
+     */
+    public static final int DEFAULT_NUM_STRIPES = 64;
+
+    private final ReentrantReadWriteLock[] stripes;
+    private final AtomicLong readLockCount;
+    private final AtomicLong writeLockCount;
+    private final AtomicLong readWaitCount;
+    private final AtomicLong writeWaitCount;
+    private final AtomicLong readWaitNanos;
+    private final AtomicLong writeWaitNanos;
+    private final AtomicLong maxWaitNanos;
+
+    /**
+     * Create a lock manager with the given number of locks shared among datasets.
+     *
+     * @param numStripes
+     *         number of locks shared among datasets
+     *
+     * @throws IllegalArgumentException
+     *         if the number of locks is not positive
+     */
+    public DatasetLockManager(int numStripes) throws IllegalArgumentException {
+        if ( numStripes < 1 )
+            throw new IllegalArgumentException("invalid number of locks: " + numStripes);
+        stripes = new ReentrantReadWriteLock[numStripes];
+        for (int k = 0; k < numStripes; k++) {
+            stripes[k] = new ReentrantReadWriteLock();
+        }
+        readLockCount = new AtomicLong(0L);
+        writeLockCount = new AtomicLong(0L);
+        readWaitCount = new AtomicLong(0L);
+        writeWaitCount = new AtomicLong(0L);
+        readWaitNanos = new AtomicLong(0L);
+        writeWaitNanos = new AtomicLong(0L);
+        maxWaitNanos = new AtomicLong(0L);
+    }
+
+    /**
+     * @param datasetId
+     *         standardized ID of the dataset
+     *
+     * @return the read/write lock assigned to the dataset
+     */
+    private ReentrantReadWriteLock getStripe(String datasetId) {
+        int hash = datasetId.hashCode();
+        // spread the higher bits since the IDs of related datasets differ only in a few characters
+        hash ^= (hash >>> 16);
+        return stripes[(hash & 0x7FFFFFFF) % stripes.length];
+    }
+
+    /**
+     * Acquires the lock for reading the files of a dataset, waiting if the files are being written.
+     * The caller must release the lock returned, normally in a finally block.
+     *
+     * @param datasetId
+     *         standardized ID of the dataset
+     *
+     * @return the lock acquired
+     */
+    public Lock lockForReading(String datasetId) {
+        Lock lock = getStripe(datasetId).readLock();
+        acquire(lock, readLockCount, readWaitCount, readWaitNanos);
+        return lock;
+    }
+
+    /**
+     * Acquires the lock for writing the files of a dataset, waiting if the files are being read or written.
+     * The caller must release the lock returned, normally in a finally block.
+     *
+     * @param datasetId
+     *         standardized ID of the dataset
+     *
+     * @return the lock acquired
+     */
+    public Lock lockForWriting(String datasetId) {
+        Lock lock = getStripe(datasetId).writeLock();
+        acquire(lock, writeLockCount, writeWaitCount, writeWaitNanos);
+        return lock;
+    }
+
+    /**
+     * Acquires a lock, recording whether it was necessary to wait and for how long.
+     */
+    private void acquire(Lock lock, AtomicLong lockCount, AtomicLong waitCount, AtomicLong waitNanos) {
+        lockCount.incrementAndGet();
+        if ( lock.tryLock() )
+            return;
+        long start = System.nanoTime();
+        lock.lock();
+        long waited = System.nanoTime() - start;
+        waitCount.incrementAndGet();
+        waitNanos.addAndGet(waited);
+        long maxWaited = maxWaitNanos.get();
+        while ( (waited > maxWaited) && !maxWaitNanos.compareAndSet(maxWaited, waited) ) {
+            maxWaited = maxWaitNanos.get();
+        }
+    }
+
+    /**
+     * @return the number of locks shared among datasets
+     */
+    public int getNumStripes() {
+        return stripes.length;
+    }
+
+    /**
+     * @return the number of read locks acquired
+     */
+    public long getReadLockCount() {
+        return readLockCount.get();
+    }
+
+    /**
+     * @return the number of write locks acquired
+     */
+    public long getWriteLockCount() {
+        return writeLockCount.get();
+    }
+
+    /**
+     * @return the number of read locks that were not immediately available
+     */
+    public long getReadWaitCount() {
+        return readWaitCount.get();
+    }
+
+    /**
+     * @return the number of write locks that were not immediately available
+     */
+    public long getWriteWaitCount() {
+        return writeWaitCount.get();
+    }
+
+    /**
+     * @return the total time, in milliseconds, spent waiting for read locks
+     */
+    public double getReadWaitMillis() {
+        return readWaitNanos.get() / 1.0E6;
+    }
+
+    /**
+     * @return the total time, in milliseconds, spent waiting for write locks
+     */
+    public double getWriteWaitMillis() {
+        return writeWaitNanos.get() / 1.0E6;
+    }
+
+    /**
+     * @return the longest time, in milliseconds, spent waiting for any one lock
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1.0E6;
+    }
+
+    @Override
+    public String toString() {
+        return "DatasetLockManager" +
+                "[ numStripes=" + stripes.length +
+                ", readLockCount=" + getReadLockCount() +
+                ", writeLockCount=" + getWriteLockCount() +
+                ", readWaitCount=" + getReadWaitCount() +
+                ", writeWaitCount=" + getWriteWaitCount() +
+                ", readWaitMillis=" + getReadWaitMillis() +
+                ", writeWaitMillis=" + getWriteWaitMillis() +
+                ", maxWaitMillis=" + getMaxWaitMillis() +
+                "]";
+    }
+
+}
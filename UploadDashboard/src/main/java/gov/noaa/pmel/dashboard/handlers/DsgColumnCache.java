@@ -0,0 +1,224 @@
+package gov.noaa.pmel.dashboard.handlers;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memory-bounded, least-recently-used cache of data columns read from full-data DSG files.  Each column is
+ * identified by the dataset ID and the variable name, and is recorded with the last-modified time of the DSG file
+ * it was read from; a column is only returned if this time matches the current last-modified time of the DSG file.
+ * The size of the cache is limited by the (approximate) number of bytes used by the cached columns; the least
+ * recently used columns are dropped to stay within this limit.  All methods are thread-safe.
+ * <p>
+ * The arrays given to and returned from this cache are those held by the cache, so callers must not modify them.
+ */
+public class DsgColumnCache {
+
+    /**
+     * Approximate number of bytes used by a cache entry in addition to the data values
+     */
+    private static final long ENTRY_OVERHEAD_BYTES = 160L;
+
+    private static final String KEY_SEPARATOR = "\t";
+
+    private final long maxBytes;
+    private final LinkedHashMap<String,CachedColumn> columnsMap;
+    private long totalBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long invalidationCount;
+
+    /**
+     * A data column with the last-modified time of the DSG file it was read from
+     */
+    private static class CachedColumn {
+        final String datasetId;
+        final long fileStamp;
+        final double[] values;
+        final long numBytes;
+
+        CachedColumn(String datasetId, long fileStamp, double[] values) {
+            this.datasetId = datasetId;
+            this.fileStamp = fileStamp;
+            this.values = values;
+            this.numBytes = ENTRY_OVERHEAD_BYTES + 8L * values.length;
+        }
+    }
+
+    /**
+     * Create an empty cache of DSG data columns.
+     *
+     * @param maxBytes
+     *         maximum number of bytes to be used by the cached columns;
+     *         if zero or negative, nothing is ever cached
+     */
+    public DsgColumnCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        // access-ordered so iteration starts with the least recently used column
+        columnsMap = new LinkedHashMap<String,CachedColumn>(64, 0.75f, true);
+        totalBytes = 0L;
+        hitCount = 0L;
+        missCount = 0L;
+        evictionCount = 0L;
+        invalidationCount = 0L;
+    }
+
+    private static String columnKey(String datasetId, String varName) {
+        return datasetId + KEY_SEPARATOR + varName;
+    }
+
+    /**
+     * Returns a cached data column.  A column cached for a different last-modified time of the DSG file is removed.
+     *
+     * @param datasetId
+     *         standardized ID of the dataset
+     * @param varName
+     *         name of the variable of the data column
+     * @param fileStamp
+     *         current last-modified time of the full-data DSG file of the dataset
+     *
+     * @return the cached data values, which must not be modified, or null if not cached
+     */
+    public synchronized double[] get(String datasetId, String varName, long fileStamp) {
+        String key = columnKey(datasetId, varName);
+        CachedColumn column = columnsMap.get(key);
+        if ( column == null ) {
+            missCount++;
+            return null;
+        }
+        if ( column.fileStamp != fileStamp ) {
+            columnsMap.remove(key);
+            totalBytes -= column.numBytes;
+            invalidationCount++;
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return column.values;
+    }
+
+    /**
+     * Adds a data column to the cache, replacing any previously cached values for this column, then drops the
+     * least recently used columns as needed to keep within the maximum size of the cache.  A column larger than
+     * the maximum size of the cache is not cached.
+     *
+     * @param datasetId
+     *         standardized ID of the dataset
+     * @param varName
+     *         name of the variable of the data column
+     * @param fileStamp
+     *         last-modified time of the full-data DSG file prior to reading the data values
+     * @param values
+     *         data values read from the DSG file; the cache keeps this array, so it must not be modified
+     */
+    public synchronized void put(String datasetId, String varName, long fileStamp, double[] values) {
+        CachedColumn column = new CachedColumn(datasetId, fileStamp, values);
+        String key = columnKey(datasetId, varName);
+        CachedColumn oldColumn = columnsMap.remove(key);
+        if ( oldColumn != null )
+            totalBytes -= oldColumn.numBytes;
+        if ( column.numBytes > maxBytes )
+            return;
+        columnsMap.put(key, column);
+        totalBytes += column.numBytes;
+        Iterator<CachedColumn> iter = columnsMap.values().iterator();
+        while ( (totalBytes > maxBytes) && iter.hasNext() ) {
+            CachedColumn eldest = iter.next();
+            iter.remove();
+            totalBytes -= eldest.numBytes;
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Removes all cached data columns for a dataset.
+     *
+     * @param datasetId
+     *         standardized ID of the dataset
+     */
+    public synchronized void invalidate(String datasetId) {
+        ArrayList<String> keys = new ArrayList<String>();
+        for (Map.Entry<String,CachedColumn> entry : columnsMap.entrySet()) {
+            if ( entry.getValue().datasetId.equals(datasetId) )
+                keys.add(entry.getKey());
+        }
+        for (String key : keys) {
+            totalBytes -= columnsMap.remove(key).numBytes;
+            invalidationCount++;
+        }
+    }
+
+    /**
+     * Removes all cached data columns.  The counters are not reset.
+     */
+    public synchronized void clear() {
+        columnsMap.clear();
+        totalBytes = 0L;
+    }
+
+    /**
+     * @return the maximum number of bytes to be used by the cached columns
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the approximate number of bytes currently used by the cached columns
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return the number of data columns currently cached
+     */
+    public synchronized int getNumColumns() {
+        return columnsMap.size();
+    }
+
+    /**
+     * @return the number of requests for a data column that returned cached values
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of requests for a data column that did not return cached values
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the number of data columns dropped to keep within the maximum size of the cache
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the number of data columns dropped because the DSG file was modified
+     */
+    public synchronized long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DsgColumnCache" +
+                "[ numColumns=" + columnsMap.size() +
+                ", totalBytes=" + totalBytes +
+                ", maxBytes=" + maxBytes +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", invalidationCount=" + invalidationCount +
+                "]";
+    }
+
+}
@@ -1,8 +1,16 @@
 package gov.noaa.pmel.dashboard.handlers;
 
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
+import gov.noaa.pmel.dashboard.datatype.DoubleDashDataType;
+import gov.noaa.pmel.dashboard.datatype.IntDashDataType;
 import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
+import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.dsg.ComputedDataCalculator;
+import gov.noaa.pmel.dashboard.dsg.DatasetExtents;
+import gov.noaa.pmel.dashboard.dsg.DsgDecimator;
 import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
 import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
+import gov.noaa.pmel.dashboard.dsg.DsgSummary;
 import gov.noaa.pmel.dashboard.dsg.StdDataArray;
 import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
 import gov.noaa.pmel.dashboard.ferret.FerretConfig;
@@ -26,6 +34,10 @@ import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.locks.Lock;
 import java.util.regex.Pattern;
 
 /**
@@ -36,7 +48,9 @@ import java.util.regex.Pattern;
 public class DsgNcFileHandler {
 
     private static final String DSG_FILE_SUFFIX = ".nc";
-    private static final Object SINGLETON_SYNC_OBJECT = new Object();
+    private static final String DECIMATE_TEMP_SUFFIX = ".tmp";
+    private static final double CROSSCHECK_RELATIVE_TOLERANCE = 1.0E-4;
+    private static final int CROSSCHECK_MAX_REPORTED = 5;
 
     private File dsgFilesDir;
     private File decDsgFilesDir;
@@ -50,6 +64,11 @@ public class DsgNcFileHandler {
     private WatchService watcher;
     private Thread watcherThread;
     private Pattern nodcCodePattern;
+    private DatasetExtentsCatalog extentsCatalog;
+    private DsgColumnCache columnCache;
+    private DatasetLockManager lockManager;
+    private ComputedDataCalculator calculator;
+    private ComputedDataCalculator.Mode computeMode;
 
     /**
      * Handles storage and retrieval of full and decimated NetCDF discrete geometry files under the given directories.
@@ -62,6 +81,9 @@ public class DsgNcFileHandler {
      *         name of the flag file to create to notify ERDDAP of updates to the full NetCDF DSG files
      * @param erddapDecDsgFlagFileName
      *         name of the flag file to create to notify ERDDAP of updates to the decimated NetCDF DSG files
+     * @param extentsCatalogFileName
+     *         name of the file for saving the catalog of the extents of the data in the full NetCDF DSG files;
+     *         this should not be in a directory served by ERDDAP
      * @param ferretConf
      *         configuration document for running Ferret
      * @param knownMDataTypes
@@ -70,16 +92,27 @@ public class DsgNcFileHandler {
      *         data types contained in the DSG files
      * @param dataHandler
      *         handler of user-provided data files
+     * @param dataCacheMaxBytes
+     *         maximum number of bytes of data read from full-data DSG files to keep in memory;
+     *         if zero or negative, data read from the DSG files is not cached
+     * @param dataCalculator
+     *         calculator of the variables added to the full-data DSG files;
+     *         if null, Ferret is always used to add these variables
+     * @param dataComputeMode
+     *         how to add the computed variables to the full-data DSG files;
+     *         if null, or if dataCalculator is null, {@link ComputedDataCalculator.Mode#FERRET} is used
      * @param logger
      *         log messages here
      *
      * @throws IllegalArgumentException
-     *         if the specified DSG directories, or the parent directories of the ERDDAP flag files,
-     *         do not exist or are not directories
+     *         if the specified DSG directories, or the parent directories of the ERDDAP flag files or
+     *         of the extents catalog file, do not exist or are not directories
      */
     public DsgNcFileHandler(String dsgFilesDirName, String decDsgFilesDirName, String erddapDsgFlagFileName,
-            String erddapDecDsgFlagFileName, FerretConfig ferretConf, KnownDataTypes knownMDataTypes,
-            KnownDataTypes knownDFileTypes, DataFileHandler dataHandler, Logger logger) {
+            String erddapDecDsgFlagFileName, String extentsCatalogFileName, FerretConfig ferretConf,
+            KnownDataTypes knownMDataTypes, KnownDataTypes knownDFileTypes, DataFileHandler dataHandler,
+            long dataCacheMaxBytes, ComputedDataCalculator dataCalculator, ComputedDataCalculator.Mode dataComputeMode,
+            Logger logger) {
         dsgFilesDir = new File(dsgFilesDirName);
         if ( !dsgFilesDir.isDirectory() )
             throw new IllegalArgumentException(dsgFilesDirName + " is not a directory");
@@ -100,6 +133,11 @@ public class DsgNcFileHandler {
         knownMetadataTypes = knownMDataTypes;
         knownDataFileTypes = knownDFileTypes;
         dataFileHandler = dataHandler;
+        calculator = dataCalculator;
+        if ( (calculator == null) || (dataComputeMode == null) )
+            computeMode = ComputedDataCalculator.Mode.FERRET;
+        else
+            computeMode = dataComputeMode;
         itsLogger = logger;
 
         // Verify that a watcher can be placed on this directory (but do not yet create it)
@@ -115,6 +153,9 @@ public class DsgNcFileHandler {
         }
         watcherThread = null;
         nodcCodePattern = Pattern.compile("\\p{Alnum}\\p{Alnum}\\p{Alnum}\\p{Alnum}");
+        extentsCatalog = new DatasetExtentsCatalog(new File(extentsCatalogFileName), itsLogger);
+        columnCache = new DsgColumnCache(dataCacheMaxBytes);
+        lockManager = new DatasetLockManager(DatasetLockManager.DEFAULT_NUM_STRIPES);
     }
 
     /**
@@ -186,19 +227,174 @@ public class DsgNcFileHandler {
      * @param stdUserData
      *         standardized user-provided data
      *
+     * @return summary of the full-data DSG file written, including the all_region_ids value assigned
+     *         and the extents of the data, so the file does not need to be re-read for this information
+     *
      * @throws IllegalArgumentException
-     *         if there are problems with the metadata or data given, or
-     *         if there are problems creating or writing the full-data DSG file
+     *         if there are problems with the metadata or data given,
+     *         if there are problems creating or writing the full-data DSG file, or
+     *         if none of the data points are in a region (the full-data DSG file written is then removed)
      */
-    public void saveDatasetDsg(DsgMetadata metadata, StdUserDataArray stdUserData) throws IllegalArgumentException {
+    public DsgSummary saveDatasetDsg(DsgMetadata metadata, StdUserDataArray stdUserData)
+            throws IllegalArgumentException {
         // Get the location and name for the NetCDF DSG file
         DsgNcFile dsgFile = getDsgNcFile(metadata.getDatasetId());
 
-        // Create the NetCDF DSG file
+        // Verify lon and lat, and compute and add time and, if not already present, year, month, day, etc.
+        StdDataArray fileData;
+        try {
+            fileData = new StdDataArray(stdUserData, knownDataFileTypes);
+        } catch ( Exception ex ) {
+            throw new IllegalArgumentException("Problems creating the DSG file " +
+                    dsgFile.getName() + "\n    " + ex.getMessage(), ex);
+        }
+
+        // Compute the added variables before locking so readers of the existing DSG file are not blocked
+        StdDataArray javaData = computeJavaData(metadata, fileData);
+
+        String stdId = DashboardServerUtils.checkDatasetID(metadata.getDatasetId());
+        Lock lock = lockManager.lockForWriting(stdId);
         try {
-            synchronized(SINGLETON_SYNC_OBJECT) {
-                dsgFile.createFromUserData(metadata, stdUserData, knownDataFileTypes);
+            // Create the NetCDF DSG file with the computed variables and all_region_ids
+            String allRegionIds = writeDsgWithComputedData(dsgFile, metadata, fileData, javaData);
+
+            // Drop any cached data from the previous DSG file
+            columnCache.invalidate(stdId);
+
+            // The region IDs are only known once the file is written (by Ferret); an unacceptable file
+            // is removed, along with the extents recorded for the previous DSG file
+            if ( allRegionIds.isEmpty() ) {
+                dsgFile.delete();
+                extentsCatalog.removeExtents(stdId);
+                throw new IllegalArgumentException("No region IDs for the data in the full-data DSG file for " +
+                        metadata.getDatasetId());
             }
+
+            // Record the extents of the data just written; the computed variables do not change these
+            StdDataArray stddata = dsgFile.getStdDataArray();
+            DatasetExtents extents = extentsCatalog.updateExtents(stdId, dsgFile,
+                    getDataValues(stddata, DashboardServerUtils.LONGITUDE),
+                    getDataValues(stddata, DashboardServerUtils.LATITUDE),
+                    getDataValues(stddata, DashboardServerUtils.TIME));
+            return new DsgSummary(stddata.getNumSamples(), allRegionIds, extents);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates the full-data DSG file from the given metadata and standardized data, adding the computed variables
+     * in the manner specified by the compute mode of this handler.  In {@link ComputedDataCalculator.Mode#JAVA}
+     * mode, the computed variables are added to the data before the DSG file is written, so the file is written
+     * only once; if this fails, Ferret is used instead.  In {@link ComputedDataCalculator.Mode#CROSSCHECK} mode,
+     * the DSG file is created using Ferret and any differences from the values computed in Java are logged.
+     * The all_region_ids metadata value is assigned from the region IDs computed in Java when those values are
+     * written, or else from the region_id values computed by Ferret.  Variables are computed in Java before
+     * the write lock for the dataset is acquired; the lock is only held while the DSG file is written.
+     *
+     * @param dsgFile
+     *         full-data DSG file to create
+     * @param metadata
+     *         metadata for the dataset; the all_region_ids value is updated
+     * @param fileData
+     *         standardized data for the dataset, including sample times
+     *
+     * @return the all_region_ids value assigned in the DSG file; never null but may be empty if none of
+     *         the data points are in a region
+     *
+     * @throws IllegalArgumentException
+     *         if there are problems with the metadata or data given, or
+     *         if there are problems creating or writing the full-data DSG file, or
+     *         if there are problems adding the computed variables
+     */
+    public String createDsgWithComputedData(DsgNcFile dsgFile, DsgMetadata metadata, StdDataArray fileData)
+            throws IllegalArgumentException {
+        StdDataArray javaData = computeJavaData(metadata, fileData);
+        // Hold the lock for the dataset only while the DSG file, including the computed variables, is written
+        Lock lock = lockManager.lockForWriting(DashboardServerUtils.checkDatasetID(metadata.getDatasetId()));
+        try {
+            return writeDsgWithComputedData(dsgFile, metadata, fileData, javaData);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates a preview DSG file from the given metadata and standardized data, adding the computed variables
+     * as done by {@link #createDsgWithComputedData(DsgNcFile, DsgMetadata, StdDataArray)}.  The lock for the
+     * dataset is not acquired since a preview DSG file is only used by the caller creating it; thus readers
+     * and writers of the DSG files of the dataset are not blocked while the preview DSG file is created.
+     *
+     * @param dsgFile
+     *         preview DSG file to create; must not be the full-data or decimated DSG file of the dataset
+     * @param metadata
+     *         metadata for the dataset; the all_region_ids value is updated
+     * @param fileData
+     *         standardized data for the dataset, including sample times
+     *
+     * @return the all_region_ids value assigned in the DSG file; never null but may be empty if none of
+     *         the data points are in a region
+     *
+     * @throws IllegalArgumentException
+     *         if there are problems with the metadata or data given, or
+     *         if there are problems creating or writing the preview DSG file, or
+     *         if there are problems adding the computed variables
+     */
+    public String createPreviewDsgWithComputedData(DsgNcFile dsgFile, DsgMetadata metadata, StdDataArray fileData)
+            throws IllegalArgumentException {
+        return writeDsgWithComputedData(dsgFile, metadata, fileData, computeJavaData(metadata, fileData));
+    }
+
+    /**
+     * Computes the added variables in Java, unless the compute mode of this handler is
+     * {@link ComputedDataCalculator.Mode#FERRET}.  No DSG files are accessed, so no locks are needed.
+     *
+     * @param metadata
+     *         metadata for the dataset; only used for the dataset ID in messages
+     * @param fileData
+     *         standardized data for the dataset, including sample times
+     *
+     * @return the standardized data with the computed variables added, or null if computing in Java
+     *         is not to be done or if there were problems computing the variables in Java
+     */
+    private StdDataArray computeJavaData(DsgMetadata metadata, StdDataArray fileData) {
+        if ( ComputedDataCalculator.Mode.FERRET.equals(computeMode) )
+            return null;
+        try {
+            return calculator.addComputedData(fileData, ComputedDataCalculator.getOutputTypes(knownDataFileTypes));
+        } catch ( Exception ex ) {
+            itsLogger.warn("Problems computing variables for " + metadata.getDatasetId() +
+                    " in Java; using Ferret instead: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the DSG file with the computed variables as described in
+     * {@link #createDsgWithComputedData(DsgNcFile, DsgMetadata, StdDataArray)}.  Any lock needed for the
+     * DSG file must be held by the caller.
+     *
+     * @param javaData
+     *         standardized data with the variables computed in Java, or null if not computed in Java
+     */
+    private String writeDsgWithComputedData(DsgNcFile dsgFile, DsgMetadata metadata, StdDataArray fileData,
+            StdDataArray javaData) throws IllegalArgumentException {
+        if ( (javaData != null) && ComputedDataCalculator.Mode.JAVA.equals(computeMode) ) {
+            try {
+                String allRegionIds = getAllRegionIds(javaData);
+                metadata.setAllRegionIDs(allRegionIds);
+                dsgFile.createFromFileData(metadata, javaData,
+                        ComputedDataCalculator.getOutputTypes(knownDataFileTypes), true);
+                return allRegionIds;
+            } catch ( Exception ex ) {
+                itsLogger.warn("Problems writing the DSG file " + dsgFile.getName() +
+                        " with variables computed in Java; using Ferret instead: " + ex.getMessage());
+            }
+        }
+
+        // Create the NetCDF DSG file
+        try {
+            dsgFile.createFromFileData(metadata, fileData, knownDataFileTypes);
         } catch ( Exception ex ) {
             dsgFile.delete();
             throw new IllegalArgumentException("Problems creating the DSG file " +
@@ -212,11 +408,159 @@ public class DsgNcFileHandler {
         tool.init(scriptArgs, metadata.getDatasetId(), FerretConfig.Action.COMPUTE);
         tool.run();
         if ( tool.hasError() )
-            throw new IllegalArgumentException("Failure adding computed variables: " + tool.getErrorMessage());
+            throw new IllegalArgumentException(metadata.getDatasetId() + ": Failure adding computed variables: " +
+                    tool.getErrorMessage());
+        itsLogger.debug("Ferret compute for " + metadata.getDatasetId() + ": " + tool.getWallTimeMillis() +
+                " ms elapsed, " + tool.getCpuTimeMillis() + " ms CPU, " +
+                tool.getOutputSize() + " characters output");
+
+        // Assign all_region_ids from the region_id values computed by Ferret
+        String allRegionIds;
+        try {
+            allRegionIds = DsgNcFile.getAllRegionIDs(
+                    dsgFile.readStringVarDataValues(DashboardServerUtils.REGION_ID.getVarName()));
+            if ( !allRegionIds.isEmpty() )
+                dsgFile.updateAllRegionIDs(allRegionIds);
+        } catch ( Exception ex ) {
+            throw new IllegalArgumentException(metadata.getDatasetId() +
+                    ": Failure assigning all_region_ids: " + ex.getMessage(), ex);
+        }
+        metadata.setAllRegionIDs(allRegionIds);
+
+        if ( (javaData != null) && ComputedDataCalculator.Mode.CROSSCHECK.equals(computeMode) )
+            crossCheckComputedData(dsgFile, metadata.getDatasetId(), javaData);
+
+        return allRegionIds;
+    }
+
+    /**
+     * @param stddata
+     *         standardized data with the region IDs computed in Java
+     *
+     * @return the all_region_ids value for the region IDs in the data; never null but may be empty
+     */
+    private static String getAllRegionIds(StdDataArray stddata) {
+        Integer colIdx = stddata.getIndexOfType(DashboardServerUtils.REGION_ID);
+        if ( colIdx == null )
+            return "";
+        int numSamples = stddata.getNumSamples();
+        String[] regionIds = new String[numSamples];
+        for (int j = 0; j < numSamples; j++) {
+            regionIds[j] = (String) stddata.getStdVal(j, colIdx);
+        }
+        return DsgNcFile.getAllRegionIDs(regionIds);
     }
 
     /**
-     * Generates the decimated-data NetCDF DSG file from the full-data NetCDF DSG file.  After successful creation of
+     * Compares the data values computed in Java to those in the full-data DSG file created using Ferret,
+     * logging a warning for each variable with differences.  Problems reading the DSG file are also logged.
+     *
+     * @param dsgFile
+     *         full-data DSG file created using Ferret
+     * @param datasetId
+     *         ID of the dataset
+     * @param javaData
+     *         standardized data with the variables computed in Java
+     */
+    private void crossCheckComputedData(DsgNcFile dsgFile, String datasetId, StdDataArray javaData) {
+        int numSamples = javaData.getNumSamples();
+        List<DashDataType<?>> dataTypes = javaData.getDataTypes();
+        int numDiffVars = 0;
+        for (int k = 0; k < dataTypes.size(); k++) {
+            DashDataType<?> dtype = dataTypes.get(k);
+            String varName = dtype.getVarName();
+            ArrayList<String> diffs = new ArrayList<String>();
+            int numDiffs = 0;
+            try {
+                if ( dtype instanceof DoubleDashDataType ) {
+                    double[] ferretVals = dsgFile.readDoubleVarDataValues(varName);
+                    for (int j = 0; j < numSamples; j++) {
+                        Double javaVal = (Double) javaData.getStdVal(j, k);
+                        if ( !doublesMatch(javaVal, ferretVals[j]) ) {
+                            if ( numDiffs < CROSSCHECK_MAX_REPORTED )
+                                diffs.add("sample " + (j + 1) + ": Java " + javaVal + ", Ferret " + ferretVals[j]);
+                            numDiffs++;
+                        }
+                    }
+                }
+                else if ( dtype instanceof IntDashDataType ) {
+                    int[] ferretVals = dsgFile.readIntVarDataValues(varName);
+                    for (int j = 0; j < numSamples; j++) {
+                        Integer javaVal = (Integer) javaData.getStdVal(j, k);
+                        boolean javaMissing = (javaVal == null) || (javaVal < 0);
+                        boolean ferretMissing = ferretVals[j] < 0;
+                        if ( (javaMissing != ferretMissing) || (!javaMissing && (javaVal != ferretVals[j])) ) {
+                            if ( numDiffs < CROSSCHECK_MAX_REPORTED )
+                                diffs.add("sample " + (j + 1) + ": Java " + javaVal + ", Ferret " + ferretVals[j]);
+                            numDiffs++;
+                        }
+                    }
+                }
+                else {
+                    String[] ferretVals = dsgFile.readStringVarDataValues(varName);
+                    for (int j = 0; j < numSamples; j++) {
+                        Object javaObj = javaData.getStdVal(j, k);
+                        String javaVal = (javaObj != null) ? javaObj.toString().trim() : "";
+                        String ferretVal = (ferretVals[j] != null) ? ferretVals[j].trim() : "";
+                        if ( !javaVal.equals(ferretVal) ) {
+                            if ( numDiffs < CROSSCHECK_MAX_REPORTED )
+                                diffs.add("sample " + (j + 1) + ": Java '" + javaVal + "', Ferret '" + ferretVal + "'");
+                            numDiffs++;
+                        }
+                    }
+                }
+            } catch ( Exception ex ) {
+                itsLogger.warn(datasetId + " cross-check: unable to read " + varName + " from the Ferret " +
+                        "DSG file: " + ex.getMessage());
+                continue;
+            }
+            if ( numDiffs > 0 ) {
+                numDiffVars++;
+                itsLogger.warn(datasetId + " cross-check: " + numDiffs + " of " + numSamples + " values of " +
+                        varName + " differ; " + diffs);
+            }
+        }
+        if ( numDiffVars == 0 )
+            itsLogger.info(datasetId + " cross-check: Java and Ferret computed data agree");
+    }
+
+    /**
+     * @return if the value computed in Java and the value written by Ferret are both missing, or are both
+     *         present and equal to within {@link #CROSSCHECK_RELATIVE_TOLERANCE}
+     */
+    private static boolean doublesMatch(Double javaVal, double ferretVal) {
+        boolean javaMissing = (javaVal == null) || javaVal.isNaN() || javaVal.isInfinite() ||
+                (Math.abs(javaVal) >= 1.0E30);
+        boolean ferretMissing = Double.isNaN(ferretVal) || Double.isInfinite(ferretVal) ||
+                (Math.abs(ferretVal) >= 1.0E30);
+        if ( javaMissing || ferretMissing )
+            return javaMissing == ferretMissing;
+        double diff = Math.abs(javaVal - ferretVal);
+        double scale = Math.max(1.0, Math.max(Math.abs(javaVal), Math.abs(ferretVal)));
+        return diff <= CROSSCHECK_RELATIVE_TOLERANCE * scale;
+    }
+
+    /**
+     * @return the values of the indicated data column of the standardized data; missing, NaN, and infinite
+     *         values, as well as all values if the data column is not present, are
+     *         {@link DashboardUtils#FP_MISSING_VALUE} (as written to the DSG file)
+     */
+    private static double[] getDataValues(StdDataArray stddata, DashDataType<?> dtype) {
+        int numSamples = stddata.getNumSamples();
+        double[] values = new double[numSamples];
+        Integer colIdx = stddata.getIndexOfType(dtype);
+        for (int j = 0; j < numSamples; j++) {
+            Double dvalue = (colIdx != null) ? (Double) stddata.getStdVal(j, colIdx) : null;
+            if ( (dvalue == null) || dvalue.isNaN() || dvalue.isInfinite() )
+                dvalue = DashboardUtils.FP_MISSING_VALUE;
+            values[j] = dvalue;
+        }
+        return values;
+    }
+
+    /**
+     * Generates the decimated-data NetCDF DSG file from the full-data NetCDF DSG file using {@link DsgDecimator};
+     * if this fails, Ferret is used to create the decimated-data DSG file.  After successful creation of
      * the decimated DSG file, ERDDAP will need to be notified of changes to the decimated DSG files. This notification
      * is not done in this routine so that a single notification event can be made after multiple modifications.
      *
@@ -236,15 +580,37 @@ public class DsgNcFileHandler {
         // Get the location and name for the decimated DSG file
         File decDsgFile = getDecDsgNcFile(datasetId);
 
-        // Call Ferret to create the decimated DSG file from the full DSG file
-        SocatTool tool = new SocatTool(ferretConfig);
-        ArrayList<String> scriptArgs = new ArrayList<String>(2);
-        scriptArgs.add(dsgFile.getPath());
-        scriptArgs.add(decDsgFile.getPath());
-        tool.init(scriptArgs, datasetId, FerretConfig.Action.DECIMATE);
-        tool.run();
-        if ( tool.hasError() )
-            throw new IllegalArgumentException("Failure decimating the full-data DSG file: " + tool.getErrorMessage());
+        // The full-data DSG file must not change, nor another decimated DSG file be created, while decimating
+        Lock lock = lockManager.lockForWriting(DashboardServerUtils.checkDatasetID(datasetId));
+        try {
+            // Create the decimated DSG file in a temporary file that is not seen by ERDDAP, then rename it
+            File tmpDecDsgFile = new File(decDsgFile.getPath() + DECIMATE_TEMP_SUFFIX);
+            try {
+                DsgDecimator.decimate(dsgFile, tmpDecDsgFile);
+                if ( decDsgFile.exists() && !decDsgFile.delete() )
+                    throw new IOException("unable to delete the old decimated DSG file");
+                if ( !tmpDecDsgFile.renameTo(decDsgFile) )
+                    throw new IOException("unable to rename the new decimated DSG file");
+                return;
+            } catch ( Exception ex ) {
+                tmpDecDsgFile.delete();
+                itsLogger.warn("Problems decimating the full-data DSG file for " + datasetId +
+                        " in Java; using Ferret instead: " + ex.getMessage());
+            }
+
+            // Call Ferret to create the decimated DSG file from the full DSG file
+            SocatTool tool = new SocatTool(ferretConfig);
+            ArrayList<String> scriptArgs = new ArrayList<String>(2);
+            scriptArgs.add(dsgFile.getPath());
+            scriptArgs.add(decDsgFile.getPath());
+            tool.init(scriptArgs, datasetId, FerretConfig.Action.DECIMATE);
+            tool.run();
+            if ( tool.hasError() )
+                throw new IllegalArgumentException("Failure decimating the full-data DSG file: " +
+                        tool.getErrorMessage());
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -275,31 +641,36 @@ public class DsgNcFileHandler {
         DsgNcFile oldDsgFile = getDsgNcFile(oldId);
         if ( oldDsgFile.exists() ) {
             // Just re-create the DSG file with the updated metadata
-            ArrayList<String> missing = oldDsgFile.readMetadata(knownMetadataTypes);
-            if ( !missing.isEmpty() )
-                throw new RuntimeException("Unexpected metadata fields missing from the DSG file: " + missing);
-            missing = oldDsgFile.readData(knownDataFileTypes);
-            if ( !missing.isEmpty() )
-                throw new RuntimeException("Unexpected data fields missing from the DSG file: " + missing);
+            // Locks for the two datasets are never held at the same time since they may be the same lock
+            Lock lock = lockManager.lockForReading(oldId);
+            try {
+                ArrayList<String> missing = oldDsgFile.readMetadata(knownMetadataTypes);
+                if ( !missing.isEmpty() )
+                    throw new RuntimeException("Unexpected metadata fields missing from the DSG file: " + missing);
+                missing = oldDsgFile.readData(knownDataFileTypes);
+                if ( !missing.isEmpty() )
+                    throw new RuntimeException("Unexpected data fields missing from the DSG file: " + missing);
+            } finally {
+                lock.unlock();
+            }
             try {
                 StdDataArray dataVals = oldDsgFile.getStdDataArray();
                 DsgMetadata updatedMeta = oldDsgFile.getMetadata();
                 updatedMeta.setDatasetId(newId);
-                newDsgFile.createFromFileData(updatedMeta, dataVals, knownDataFileTypes);
-                // Call Ferret to add lon360 and tmonth (calculated data should be the same)
-                SocatTool tool = new SocatTool(ferretConfig);
-                ArrayList<String> scriptArgs = new ArrayList<String>(1);
-                scriptArgs.add(newDsgFile.getPath());
-                tool.init(scriptArgs, newId, FerretConfig.Action.COMPUTE);
-                tool.run();
-                if ( tool.hasError() )
-                    throw new IllegalArgumentException(newId + ": Failure adding computed variables: " +
-                            tool.getErrorMessage());
+                // Re-create with lon360 and tmonth (calculated data should be the same)
+                createDsgWithComputedData(newDsgFile, updatedMeta, dataVals);
                 // Re-create the decimated-data DSG file
                 decimateDatasetDsg(newId);
                 // Delete the old DSG and decimated-data DSG files
-                oldDsgFile.delete();
-                getDecDsgNcFile(oldId).delete();
+                lock = lockManager.lockForWriting(oldId);
+                try {
+                    oldDsgFile.delete();
+                    getDecDsgNcFile(oldId).delete();
+                    extentsCatalog.removeExtents(oldId);
+                    columnCache.invalidate(oldId);
+                } finally {
+                    lock.unlock();
+                }
             } catch ( Exception ex ) {
                 throw new IOException(ex);
             }
@@ -326,16 +697,24 @@ public class DsgNcFileHandler {
     public boolean deleteDsgNcFiles(String datasetId) throws IllegalArgumentException {
         boolean fileDeleted = false;
         File dsgFile = getDsgNcFile(datasetId);
-        if ( dsgFile.exists() ) {
-            if ( !dsgFile.delete() )
-                throw new IllegalArgumentException("Unable to delete the full-data DSG file for " + datasetId);
-            fileDeleted = true;
-        }
         File decDsgFile = getDecDsgNcFile(datasetId);
-        if ( decDsgFile.exists() ) {
-            if ( !decDsgFile.delete() )
-                throw new IllegalArgumentException("Unable to delete the decimated DSG file for " + datasetId);
-            fileDeleted = true;
+        String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        Lock lock = lockManager.lockForWriting(stdId);
+        try {
+            if ( dsgFile.exists() ) {
+                if ( !dsgFile.delete() )
+                    throw new IllegalArgumentException("Unable to delete the full-data DSG file for " + datasetId);
+                fileDeleted = true;
+            }
+            extentsCatalog.removeExtents(stdId);
+            columnCache.invalidate(stdId);
+            if ( decDsgFile.exists() ) {
+                if ( !decDsgFile.delete() )
+                    throw new IllegalArgumentException("Unable to delete the decimated DSG file for " + datasetId);
+                fileDeleted = true;
+            }
+        } finally {
+            lock.unlock();
         }
         return fileDeleted;
     }
@@ -390,7 +769,12 @@ public class DsgNcFileHandler {
         DsgNcFile dsgFile = getDsgNcFile(datasetId);
         if ( !dsgFile.exists() )
             throw new FileNotFoundException("Full-data DSG file for " + datasetId + " does not exist");
-        return dsgFile.readStringVarDataValues(varName);
+        Lock lock = lockManager.lockForReading(DashboardServerUtils.checkDatasetID(datasetId));
+        try {
+            return dsgFile.readStringVarDataValues(varName);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -417,7 +801,12 @@ public class DsgNcFileHandler {
         DsgNcFile dsgFile = getDsgNcFile(datasetId);
         if ( !dsgFile.exists() )
             throw new FileNotFoundException("Full-data DSG file for " + datasetId + " does not exist");
-        return dsgFile.readIntVarDataValues(varName);
+        Lock lock = lockManager.lockForReading(DashboardServerUtils.checkDatasetID(datasetId));
+        try {
+            return dsgFile.readIntVarDataValues(varName);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -445,7 +834,19 @@ public class DsgNcFileHandler {
         DsgNcFile dsgFile = getDsgNcFile(datasetId);
         if ( !dsgFile.exists() )
             throw new FileNotFoundException("Full-data DSG file for " + datasetId + " does not exist");
-        return dsgFile.readDoubleVarDataValues(varName);
+        String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        Lock lock = lockManager.lockForReading(stdId);
+        try {
+            long fileStamp = dsgFile.lastModified();
+            double[][] dataVals = getCachedColumns(stdId, fileStamp, varName);
+            if ( dataVals == null ) {
+                dataVals = new double[][] { dsgFile.readDoubleVarDataValues(varName) };
+                cacheColumns(stdId, fileStamp, new String[] { varName }, dataVals);
+            }
+            return dataVals[0];
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -472,7 +873,24 @@ public class DsgNcFileHandler {
         DsgNcFile dsgFile = getDsgNcFile(datasetId);
         if ( !dsgFile.exists() )
             throw new FileNotFoundException("Full-data DSG file for " + datasetId + " does not exist");
-        return dsgFile.readLonLatTimeDataValues();
+        String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        String[] varNames = new String[] {
+                DashboardServerUtils.LONGITUDE.getVarName(),
+                DashboardServerUtils.LATITUDE.getVarName(),
+                DashboardServerUtils.TIME.getVarName()
+        };
+        Lock lock = lockManager.lockForReading(stdId);
+        try {
+            long fileStamp = dsgFile.lastModified();
+            double[][] dataVals = getCachedColumns(stdId, fileStamp, varNames);
+            if ( dataVals == null ) {
+                dataVals = dsgFile.readLonLatTimeDataValues();
+                cacheColumns(stdId, fileStamp, varNames, dataVals);
+            }
+            return dataVals;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -502,7 +920,109 @@ public class DsgNcFileHandler {
         DsgNcFile dsgFile = getDsgNcFile(datasetId);
         if ( !dsgFile.exists() )
             throw new FileNotFoundException("Full-data DSG file for " + datasetId + " does not exist");
-        return dsgFile.readLonLatTimeSstFco2DataValues();
+        String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        String[] varNames = new String[] {
+                DashboardServerUtils.LONGITUDE.getVarName(),
+                DashboardServerUtils.LATITUDE.getVarName(),
+                DashboardServerUtils.TIME.getVarName(),
+                SocatTypes.SST.getVarName(),
+                SocatTypes.FCO2_REC.getVarName()
+        };
+        Lock lock = lockManager.lockForReading(stdId);
+        try {
+            long fileStamp = dsgFile.lastModified();
+            double[][] dataVals = getCachedColumns(stdId, fileStamp, varNames);
+            if ( dataVals == null ) {
+                dataVals = dsgFile.readLonLatTimeSstFco2DataValues();
+                cacheColumns(stdId, fileStamp, varNames, dataVals);
+            }
+            return dataVals;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns copies of cached data columns of a full-data DSG file.
+     *
+     * @param stdId
+     *         standardized ID of the dataset
+     * @param fileStamp
+     *         current last-modified time of the full-data DSG file
+     * @param varNames
+     *         names of the variables of the data columns
+     *
+     * @return copies of the cached data columns, in the order of the variable names,
+     *         or null if any of the data columns are not cached
+     */
+    private double[][] getCachedColumns(String stdId, long fileStamp, String... varNames) {
+        double[][] dataVals = new double[varNames.length][];
+        for (int k = 0; k < varNames.length; k++) {
+            double[] values = columnCache.get(stdId, varNames[k], fileStamp);
+            if ( values == null )
+                return null;
+            // Callers are free to modify the arrays returned
+            dataVals[k] = values.clone();
+        }
+        return dataVals;
+    }
+
+    /**
+     * Saves copies of data columns read from a full-data DSG file in the data column cache.
+     *
+     * @param stdId
+     *         standardized ID of the dataset
+     * @param fileStamp
+     *         last-modified time of the full-data DSG file prior to reading the data
+     * @param varNames
+     *         names of the variables of the data columns
+     * @param dataVals
+     *         data columns read, in the order of the variable names
+     */
+    private void cacheColumns(String stdId, long fileStamp, String[] varNames, double[][] dataVals) {
+        if ( columnCache.getMaxBytes() <= 0L )
+            return;
+        for (int k = 0; k < varNames.length; k++) {
+            columnCache.put(stdId, varNames[k], fileStamp, dataVals[k].clone());
+        }
+    }
+
+    /**
+     * @return the cache of data columns read from the full-data DSG files; for examining the cache usage counters
+     */
+    public DsgColumnCache getColumnCache() {
+        return columnCache;
+    }
+
+    /**
+     * Returns the time, latitude, and longitude extents of the data in the full-data DSG file for the specified
+     * dataset.  These extents are obtained from the persistent dataset extents catalog, which is updated whenever
+     * a DSG file is saved by this handler.  The extents are only computed from the data in the DSG file if the
+     * catalog entry is missing or outdated (such as after the file is modified by another program).
+     *
+     * @param datasetId
+     *         get the extents for the dataset with this ID
+     *
+     * @return the extents of the data in the full-data DSG file
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid
+     * @throws FileNotFoundException
+     *         if the full-data DSG file does not exist
+     * @throws IOException
+     *         if problems opening or reading from the DSG file, or
+     *         if any of the data arrays are not given in the DSG file
+     */
+    public DatasetExtents getDatasetExtents(String datasetId)
+            throws IllegalArgumentException, FileNotFoundException, IOException {
+        DsgNcFile dsgFile = getDsgNcFile(datasetId);
+        String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        Lock lock = lockManager.lockForReading(stdId);
+        try {
+            return extentsCatalog.getExtents(stdId, dsgFile);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -521,8 +1041,13 @@ public class DsgNcFileHandler {
         DsgNcFile dsgFile = getDsgNcFile(datasetId);
         if ( !dsgFile.exists() )
             throw new IllegalArgumentException("Full-data DSG file for " + datasetId + " does not exist");
-        String[] flagVersionStatus = dsgFile.getDatasetQCFlagAndVersionStatus();
-        return flagVersionStatus;
+        Lock lock = lockManager.lockForReading(DashboardServerUtils.checkDatasetID(datasetId));
+        try {
+            String[] flagVersionStatus = dsgFile.getDatasetQCFlagAndVersionStatus();
+            return flagVersionStatus;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -547,13 +1072,21 @@ public class DsgNcFileHandler {
         DsgNcFile dsgFile = getDsgNcFile(datasetId);
         if ( !dsgFile.exists() )
             throw new IllegalArgumentException("Full-data DSG file for " + datasetId + " does not exist");
-        synchronized(SINGLETON_SYNC_OBJECT) {
+        DsgNcFile decDsgFile = getDecDsgNcFile(datasetId);
+        String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        Lock lock = lockManager.lockForWriting(stdId);
+        try {
+            long priorStamp = dsgFile.lastModified();
+            long priorLength = dsgFile.length();
             dsgFile.updateDatasetQCFlagAndVersionStatus(qcStatus, versionStatus);
+            columnCache.invalidate(stdId);
+            extentsCatalog.updateFileStamp(stdId, dsgFile, priorStamp, priorLength);
+            if ( !decDsgFile.exists() )
+                throw new IllegalArgumentException("Decimated DSG file for " + datasetId + " does not exist");
+            decDsgFile.updateDatasetQCFlagAndVersionStatus(qcStatus, versionStatus);
+        } finally {
+            lock.unlock();
         }
-        DsgNcFile decDsgFile = getDecDsgNcFile(datasetId);
-        if ( !decDsgFile.exists() )
-            throw new IllegalArgumentException("Decimated DSG file for " + datasetId + " does not exist");
-        decDsgFile.updateDatasetQCFlagAndVersionStatus(qcStatus, versionStatus);
         flagErddap(true, true);
     }
 
@@ -572,24 +1105,33 @@ public class DsgNcFileHandler {
         DsgNcFile dsgFile = getDsgNcFile(datasetId);
         if ( !dsgFile.exists() )
             throw new IllegalArgumentException("Full-data DSG file for " + datasetId + " does not exist");
+        String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        DsgNcFile decDsgFile = getDecDsgNcFile(datasetId);
         String allRegionIds;
+        // Both files are updated under the lock so the decimated DSG file cannot be replaced while being updated
+        Lock lock = lockManager.lockForWriting(stdId);
         try {
-            synchronized(SINGLETON_SYNC_OBJECT) {
+            try {
+                long priorStamp = dsgFile.lastModified();
+                long priorLength = dsgFile.length();
                 allRegionIds = dsgFile.updateAllRegionIDs(null);
+                columnCache.invalidate(stdId);
+                extentsCatalog.updateFileStamp(stdId, dsgFile, priorStamp, priorLength);
+            } catch ( Exception ex ) {
+                throw new IllegalArgumentException(
+                        "Problems resetting all_region_ids in the full-data DSG file for " + datasetId);
             }
-        } catch ( Exception ex ) {
-            throw new IllegalArgumentException(
-                    "Problems resetting all_region_ids in the full-data DSG file for " + datasetId);
-        }
-        // Assign this all_region_ids value to the decimated-data DSG file
-        DsgNcFile decDsgFile = getDecDsgNcFile(datasetId);
-        if ( !decDsgFile.exists() )
-            throw new IllegalArgumentException("Decimated DSG file for " + datasetId + " does not exist");
-        try {
-            dsgFile.updateAllRegionIDs(allRegionIds);
-        } catch ( Exception ex ) {
-            throw new IllegalArgumentException(
-                    "Problems resetting all_region_ids in the full-data DSG file for " + datasetId);
+            // Assign this all_region_ids value to the decimated-data DSG file
+            if ( !decDsgFile.exists() )
+                throw new IllegalArgumentException("Decimated DSG file for " + datasetId + " does not exist");
+            try {
+                decDsgFile.updateAllRegionIDs(allRegionIds);
+            } catch ( Exception ex ) {
+                throw new IllegalArgumentException(
+                        "Problems resetting all_region_ids in the decimated DSG file for " + datasetId);
+            }
+        } finally {
+            lock.unlock();
         }
         return allRegionIds;
     }
@@ -615,16 +1157,88 @@ public class DsgNcFileHandler {
      */
     public ArrayList<DataLocation> updateDataQCFlags(DataQCEvent woceEvent, boolean updateWoceEvent)
             throws IllegalArgumentException, IOException {
-        String datasetId = woceEvent.getDatasetId();
-        DsgNcFile dsgFile = getDsgNcFile(datasetId);
-        if ( !dsgFile.exists() )
-            throw new IllegalArgumentException("Full-data DSG file for " + datasetId + " does not exist");
-        ArrayList<DataLocation> unidentified;
-        synchronized(SINGLETON_SYNC_OBJECT) {
-            unidentified = dsgFile.updateDataQCFlags(woceEvent, updateWoceEvent);
+        ArrayList<DataQCEvent> woceEvents = new ArrayList<DataQCEvent>(1);
+        woceEvents.add(woceEvent);
+        return updateDataQCFlags(woceEvents, updateWoceEvent).get(0);
+    }
+
+    /**
+     * Updates the full-data DSG files with the given data QC flags, and then regenerates the decimated DSG files.
+     * The data QC events are grouped by dataset; the full-data DSG file of each dataset is opened and written
+     * once for all the events of that dataset, and the decimated DSG file of each dataset is regenerated once.
+     * Only the files of the dataset being updated are locked, so updates to different datasets can proceed
+     * concurrently.
+     * Optionally, will also update the row number in the data QC flags from the data in the full-data DSG files.
+     *
+     * @param woceEvents
+     *         data QC flags to set; the recorded dataset IDs are those of the datasets to update.
+     *         The events for a dataset are applied in the order given.
+     * @param updateWoceEvents
+     *         if true, update the row numbers in the data QC flags from the full-data DSG files
+     *
+     * @return for each data QC event, in the order given, the list of the data locations of that event not found
+     *         in the full-data DSG file; never null, and none of the lists are null, but they may be empty
+     *
+     * @throws IllegalArgumentException
+     *         if the data QC flags are not valid,
+     *         if a full-data DSG file does not exist or is invalid, or
+     *         if there are problem creating a decimated DSG file from the update full-data DSG file
+     * @throws IOException
+     *         if opening, reading from, or writing to a full-data DSG file throws one
+     */
+    public ArrayList<ArrayList<DataLocation>> updateDataQCFlags(List<DataQCEvent> woceEvents,
+            boolean updateWoceEvents) throws IllegalArgumentException, IOException {
+        // Group the indices of the events by the standardized dataset ID, keeping the order given
+        LinkedHashMap<String,ArrayList<Integer>> datasetEventIndices = new LinkedHashMap<String,ArrayList<Integer>>();
+        for (int k = 0; k < woceEvents.size(); k++) {
+            String stdId = DashboardServerUtils.checkDatasetID(woceEvents.get(k).getDatasetId());
+            ArrayList<Integer> indices = datasetEventIndices.get(stdId);
+            if ( indices == null ) {
+                indices = new ArrayList<Integer>();
+                datasetEventIndices.put(stdId, indices);
+            }
+            indices.add(k);
         }
-        decimateDatasetDsg(datasetId);
-        return unidentified;
+
+        ArrayList<ArrayList<DataLocation>> unidentifiedList = new ArrayList<ArrayList<DataLocation>>(woceEvents.size());
+        for (int k = 0; k < woceEvents.size(); k++) {
+            unidentifiedList.add(null);
+        }
+        for (Entry<String,ArrayList<Integer>> entry : datasetEventIndices.entrySet()) {
+            String stdId = entry.getKey();
+            ArrayList<Integer> indices = entry.getValue();
+            DsgNcFile dsgFile = getDsgNcFile(stdId);
+            if ( !dsgFile.exists() )
+                throw new IllegalArgumentException("Full-data DSG file for " + stdId + " does not exist");
+            ArrayList<DataQCEvent> datasetEvents = new ArrayList<DataQCEvent>(indices.size());
+            for (Integer idx : indices) {
+                datasetEvents.add(woceEvents.get(idx));
+            }
+            ArrayList<ArrayList<DataLocation>> unidentified;
+            Lock lock = lockManager.lockForWriting(stdId);
+            try {
+                // Data QC flags do not change the extents of the data
+                long priorStamp = dsgFile.lastModified();
+                long priorLength = dsgFile.length();
+                unidentified = dsgFile.updateDataQCFlags(datasetEvents, updateWoceEvents);
+                columnCache.invalidate(stdId);
+                extentsCatalog.updateFileStamp(stdId, dsgFile, priorStamp, priorLength);
+                decimateDatasetDsg(stdId);
+            } finally {
+                lock.unlock();
+            }
+            for (int j = 0; j < indices.size(); j++) {
+                unidentifiedList.set(indices.get(j), unidentified.get(j));
+            }
+        }
+        return unidentifiedList;
+    }
+
+    /**
+     * @return the manager of the locks for the DSG files of datasets; for examining the lock wait counters
+     */
+    public DatasetLockManager getLockManager() {
+        return lockManager;
     }
 
     /**
@@ -711,10 +1325,7 @@ public class DsgNcFileHandler {
                             // Ignore repeated events of what was just handled
                             if ( thisFile.equals(lastFile) && thisKind.equals(lastKind) )
                                 continue;
-                            // If a DSG file is being saved, block until done saving
-                            synchronized(SINGLETON_SYNC_OBJECT) {
-                                handleDsgDirChange(subRegs, thisKind, thisFile);
-                            }
+                            handleDsgDirChange(subRegs, thisKind, thisFile);
                             lastFile = thisFile;
                             lastKind = thisKind;
                         }
@@ -789,11 +1400,20 @@ public class DsgNcFileHandler {
                 // Not a DSG file used by this system - ignore this call
                 return;
             }
+            // Drop any cached data for this dataset
+            columnCache.invalidate(expocode);
             if ( itsLogger != null )
                 itsLogger.info("Checking QC flag given in " + changedFile.getPath());
             try {
                 DsgNcFile dsgFile = new DsgNcFile(changedFile.getPath());
-                String qcFlag = dsgFile.getDatasetQCFlagAndVersionStatus()[0];
+                String qcFlag;
+                // If the DSG file is being saved, block until done saving
+                Lock lock = lockManager.lockForReading(expocode);
+                try {
+                    qcFlag = dsgFile.getDatasetQCFlagAndVersionStatus()[0];
+                } finally {
+                    lock.unlock();
+                }
                 if ( dataFileHandler.updateDatasetDashboardStatus(expocode, qcFlag) ) {
                     if ( itsLogger != null )
                         itsLogger.info("Updated dashboard status for " + expocode +
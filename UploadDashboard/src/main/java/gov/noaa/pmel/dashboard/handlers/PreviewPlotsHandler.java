@@ -4,6 +4,7 @@ import gov.noaa.pmel.dashboard.actions.DatasetChecker;
 import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
 import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
 import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
+import gov.noaa.pmel.dashboard.dsg.StdDataArray;
 import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
 import gov.noaa.pmel.dashboard.ferret.FerretConfig;
 import gov.noaa.pmel.dashboard.ferret.SocatTool;
@@ -14,19 +15,77 @@ import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
-
+/**
+ * Generates the data preview plots of datasets.  Plots can be generated in the background using
+ * {@link #startPreviewPlots(String, String)} and {@link #isPreviewPlotsDone(String, String)}, in which case
+ * requests for the same dataset and time tag are only generated once, and the plots of a dataset whose data
+ * has not changed since its plots were last generated are reused.
+ */
 public class PreviewPlotsHandler {
 
+    /**
+     * Number of datasets whose preview plots can be generated in the background at the same time
+     */
+    private static final int NUM_PLOTS_WORKERS = 2;
+
+    /**
+     * Milliseconds a finished background generation of plots is kept for {@link #isPreviewPlotsDone(String, String)}
+     */
+    private static final long FINISHED_TASK_KEEP_MILLIS = 30L * 60L * 1000L;
+
+    /**
+     * Background generation of the preview plots of a dataset, recording when it finished
+     */
+    private static class PlotsTask extends FutureTask<Void> {
+        final String stdId;
+        volatile long finishedMillis;
+
+        PlotsTask(String stdId, Callable<Void> callable) {
+            super(callable);
+            this.stdId = stdId;
+            this.finishedMillis = 0L;
+        }
+
+        @Override
+        protected void done() {
+            finishedMillis = System.currentTimeMillis();
+        }
+    }
+
     File dsgFilesDir;
     File plotsFilesDir;
     DataFileHandler dataHandler;
+    MetadataFileHandler metadataHandler;
     DatasetChecker dataChecker;
     KnownDataTypes knownMetadataTypes;
     KnownDataTypes knownDataFileTypes;
     FerretConfig ferretConfig;
+    DsgNcFileHandler dsgHandler;
     Logger itsLogger;
+    // Background generation of plots, mapped by standardized dataset ID and time tag
+    private final ConcurrentHashMap<String,PlotsTask> plotsTasks;
+    // Content hash of the data and OME metadata files, and the time tag, of the last plots generated,
+    // mapped by standardized dataset ID
+    private final ConcurrentHashMap<String,String[]> lastPlots;
+    private ExecutorService plotsWorkers;
 
     /**
      * Create with the given directories for the preview DSG files and plots.
@@ -36,7 +95,8 @@ public class PreviewPlotsHandler {
      * @param previewPlotsDirName
      *         directory to contain the preview plots
      * @param configStore
-     *         get the DataFileHandler, DatasetChecker, MetadataFileHandler, and FerretConfig from here
+     *         get the DataFileHandler, DatasetChecker, MetadataFileHandler, FerretConfig,
+     *         and DsgNcFileHandler from here
      */
     public PreviewPlotsHandler(String previewDsgsDirName, String previewPlotsDirName,
             DashboardConfigStore configStore) {
@@ -47,11 +107,16 @@ public class PreviewPlotsHandler {
         if ( !plotsFilesDir.isDirectory() )
             throw new IllegalArgumentException(previewPlotsDirName + " is not a directory");
         dataHandler = configStore.getDataFileHandler();
+        metadataHandler = configStore.getMetadataFileHandler();
         dataChecker = configStore.getDashboardDatasetChecker();
         knownMetadataTypes = configStore.getKnownMetadataTypes();
         knownDataFileTypes = configStore.getKnownDataFileTypes();
         ferretConfig = configStore.getFerretConfig();
+        dsgHandler = configStore.getDsgNcFileHandler();
         itsLogger = configStore.getLogger();
+        plotsTasks = new ConcurrentHashMap<String,PlotsTask>();
+        lastPlots = new ConcurrentHashMap<String,String[]>();
+        plotsWorkers = null;
     }
 
     /**
@@ -157,28 +222,16 @@ public class PreviewPlotsHandler {
         if ( itsLogger != null )
             itsLogger.debug("generating preview DSG file " + dsgFile.getPath());
 
-        // Create the preview NetCDF DSG file
+        // Create the preview NetCDF DSG file with the computed variables
         try {
-            dsgFile.createFromUserData(dsgMData, stdUserData, knownDataFileTypes);
+            StdDataArray fileData = new StdDataArray(stdUserData, knownDataFileTypes);
+            dsgHandler.createPreviewDsgWithComputedData(dsgFile, dsgMData, fileData);
         } catch ( Exception ex ) {
             dsgFile.delete();
             throw new IllegalArgumentException("Problems creating the preview DSG file for " +
                     datasetId + ": " + ex.getMessage(), ex);
         }
 
-        if ( itsLogger != null )
-            itsLogger.debug("adding computed variables to preview DSG file " + dsgFile.getPath());
-
-        // Call Ferret to add the computed variables to the preview DSG file
-        SocatTool tool = new SocatTool(ferretConfig);
-        ArrayList<String> scriptArgs = new ArrayList<String>(1);
-        scriptArgs.add(dsgFile.getPath());
-        tool.init(scriptArgs, stdId, FerretConfig.Action.COMPUTE);
-        tool.run();
-        if ( tool.hasError() )
-            throw new IllegalArgumentException("Failure adding computed variables to the preview DSG file for " +
-                    datasetId + ": " + tool.getErrorMessage());
-
         if ( itsLogger != null )
             itsLogger.debug("generating preview plots for " + dsgFile.getPath());
 
@@ -186,7 +239,9 @@ public class PreviewPlotsHandler {
         String cruisePlotsDirname = getDatasetPreviewPlotsDir(stdId).getPath();
 
         // Call Ferret to generate the plots from the preview DSG file
-        tool = new SocatTool(ferretConfig);
+        SocatTool tool = new SocatTool(ferretConfig);
+        ArrayList<String> scriptArgs = new ArrayList<String>(3);
+        scriptArgs.add(dsgFile.getPath());
         scriptArgs.add(cruisePlotsDirname);
         scriptArgs.add(timetag);
         tool.init(scriptArgs, stdId, FerretConfig.Action.PLOTS);
@@ -195,10 +250,249 @@ public class PreviewPlotsHandler {
             throw new IllegalArgumentException("Failure generating data preview plots for " +
                     datasetId + ": " + tool.getErrorMessage());
 
+        if ( itsLogger != null )
+            itsLogger.debug("Ferret preview plots for " + stdId + ": " + tool.getWallTimeMillis() + " ms elapsed, " +
+                    tool.getCpuTimeMillis() + " ms CPU, " + tool.getOutputSize() + " characters output");
+
         if ( itsLogger != null ) {
             itsLogger.debug("preview plots generated in " + cruisePlotsDirname);
             itsLogger.info("created preview plots for " + stdId + " with time tag " + timetag);
         }
     }
 
+    /**
+     * Starts generating the data preview plots for the given dataset in the background.  If the plots for this
+     * dataset and time tag are already being generated, nothing new is started.  If the data of this dataset has
+     * not changed since the last plots were generated, the last plots are copied using the new time tag instead of
+     * generating them again.  Use {@link #isPreviewPlotsDone(String, String)} to check when generation has finished.
+     * Finished generations of plots not checked within {@link #FINISHED_TASK_KEEP_MILLIS}, and those of previous
+     * time tags for this dataset, are forgotten.
+     *
+     * @param datasetId
+     *         ID of the dataset to preview
+     * @param timetag
+     *         time tag to add to the end of the names of the plots (before the filename extension)
+     *
+     * @return true if the plots are already available; false if the plots are being generated
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid, or if there is an error reading the data files
+     */
+    public boolean startPreviewPlots(String datasetId, String timetag) throws IllegalArgumentException {
+        final String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        final String tag = timetag;
+        final String taskKey = stdId + "_" + tag;
+        removeFinishedTasks(stdId, taskKey);
+        if ( plotsTasks.containsKey(taskKey) )
+            return false;
+
+        // Reuse the last plots if the data has not changed since they were generated
+        final String contentHash = getDataContentHash(stdId);
+        String[] hashAndTag = lastPlots.get(stdId);
+        if ( (hashAndTag != null) && hashAndTag[0].equals(contentHash) &&
+                copyPreviewPlots(stdId, hashAndTag[1], tag) ) {
+            if ( itsLogger != null )
+                itsLogger.info("reused preview plots for " + stdId + " with time tag " +
+                        hashAndTag[1] + " as time tag " + tag);
+            return true;
+        }
+
+        PlotsTask task = new PlotsTask(stdId, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                createPreviewPlots(stdId, tag);
+                // Only remember these plots if the data did not change while they were generated
+                if ( contentHash.equals(getDataContentHash(stdId)) )
+                    lastPlots.put(stdId, new String[] { contentHash, tag });
+                return null;
+            }
+        });
+        if ( plotsTasks.putIfAbsent(taskKey, task) != null )
+            return false;
+        getPlotsWorkers().execute(task);
+        return false;
+    }
+
+    /**
+     * Checks if the background generation of the data preview plots started by
+     * {@link #startPreviewPlots(String, String)} has finished.
+     *
+     * @param datasetId
+     *         ID of the dataset being previewed
+     * @param timetag
+     *         time tag of the plots being generated
+     *
+     * @return true if the plots are done (or are not being generated); false if still being generated
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid, or if the generation of the plots failed
+     */
+    public boolean isPreviewPlotsDone(String datasetId, String timetag) throws IllegalArgumentException {
+        String taskKey = DashboardServerUtils.checkDatasetID(datasetId) + "_" + timetag;
+        PlotsTask task = plotsTasks.get(taskKey);
+        if ( task == null )
+            return true;
+        if ( !task.isDone() )
+            return false;
+        plotsTasks.remove(taskKey);
+        try {
+            task.get();
+        } catch ( ExecutionException ex ) {
+            Throwable cause = ex.getCause();
+            if ( cause instanceof IllegalArgumentException )
+                throw (IllegalArgumentException) cause;
+            throw new IllegalArgumentException("Failure generating data preview plots for " +
+                    datasetId + ": " + cause.getMessage(), cause);
+        } catch ( InterruptedException ex ) {
+            throw new IllegalArgumentException("Generating data preview plots for " +
+                    datasetId + " was interrupted", ex);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the background generations of plots that finished more than {@link #FINISHED_TASK_KEEP_MILLIS} ago,
+     * and any finished generations of plots with other time tags for the given dataset, since that dataset is being
+     * previewed again.
+     *
+     * @param stdId
+     *         standardized ID of the dataset being previewed
+     * @param taskKey
+     *         key of the generation of plots being requested
+     */
+    private void removeFinishedTasks(String stdId, String taskKey) {
+        long oldest = System.currentTimeMillis() - FINISHED_TASK_KEEP_MILLIS;
+        for (Iterator<Map.Entry<String,PlotsTask>> iter = plotsTasks.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<String,PlotsTask> entry = iter.next();
+            PlotsTask task = entry.getValue();
+            long finished = task.finishedMillis;
+            if ( finished == 0L )
+                continue;
+            if ( (finished < oldest) || (task.stdId.equals(stdId) && !entry.getKey().equals(taskKey)) )
+                iter.remove();
+        }
+    }
+
+    /**
+     * Stops the background generation of preview plots.  Plots currently being generated are allowed to finish.
+     */
+    public void shutdown() {
+        synchronized(plotsTasks) {
+            if ( plotsWorkers != null )
+                plotsWorkers.shutdown();
+        }
+    }
+
+    /**
+     * @return the threads generating preview plots in the background; created on first use
+     */
+    private ExecutorService getPlotsWorkers() {
+        synchronized(plotsTasks) {
+            if ( plotsWorkers == null ) {
+                final AtomicInteger threadCount = new AtomicInteger(0);
+                plotsWorkers = Executors.newFixedThreadPool(NUM_PLOTS_WORKERS, new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable task) {
+                        Thread thread = new Thread(task, "preview-plots-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            return plotsWorkers;
+        }
+    }
+
+    /**
+     * Computes a hash of the contents of the data and properties files, and of the OME metadata file, of a dataset,
+     * so any change to the data, to how the data columns are to be interpreted, or to the metadata shown in the
+     * plots gives a different hash.  The OME metadata file does not have to exist.
+     *
+     * @param stdId
+     *         standardized ID of the dataset
+     *
+     * @return hexadecimal string of the SHA-256 hash of the dataset files
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset files cannot be read
+     */
+    private String getDataContentHash(String stdId) throws IllegalArgumentException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch ( NoSuchAlgorithmException ex ) {
+            throw new IllegalArgumentException("Unexpected missing SHA-256 support: " + ex.getMessage(), ex);
+        }
+        byte[] buffer = new byte[65536];
+        File omeFile = metadataHandler.getMetadataFile(stdId, DashboardUtils.OME_FILENAME);
+        for (File dataFile : new File[] { dataHandler.datasetInfoFile(stdId), dataHandler.datasetDataFile(stdId),
+                omeFile }) {
+            if ( (dataFile == omeFile) && !omeFile.exists() )
+                continue;
+            try {
+                FileInputStream input = new FileInputStream(dataFile);
+                try {
+                    int numRead;
+                    while ( (numRead = input.read(buffer)) > 0 ) {
+                        digest.update(buffer, 0, numRead);
+                    }
+                } finally {
+                    input.close();
+                }
+            } catch ( IOException ex ) {
+                throw new IllegalArgumentException("Problems reading " + dataFile.getPath() +
+                        ": " + ex.getMessage(), ex);
+            }
+        }
+        StringBuilder builder = new StringBuilder();
+        for (byte b : digest.digest()) {
+            builder.append(String.format("%02x", b & 0xFF));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Copies the preview plots of a dataset generated with one time tag to files named with another time tag.
+     *
+     * @param stdId
+     *         standardized ID of the dataset
+     * @param oldTimetag
+     *         time tag of the existing plots
+     * @param newTimetag
+     *         time tag for the copies of the plots
+     *
+     * @return true if plots were copied; false if no plots with the old time tag exist, or if there was a problem
+     *         copying the plots
+     */
+    private boolean copyPreviewPlots(String stdId, String oldTimetag, String newTimetag) {
+        File plotsDir = getDatasetPreviewPlotsDir(stdId);
+        String prefix = stdId + "_";
+        String oldTag = "_" + oldTimetag + ".";
+        String newTag = "_" + newTimetag + ".";
+        File[] plotFiles = plotsDir.listFiles();
+        if ( plotFiles == null )
+            return false;
+        int numCopied = 0;
+        try {
+            for (File plot : plotFiles) {
+                String name = plot.getName();
+                if ( !name.startsWith(prefix) )
+                    continue;
+                int idx = name.lastIndexOf(oldTag);
+                if ( idx < 0 )
+                    continue;
+                File copy = new File(plotsDir, name.substring(0, idx) + newTag +
+                        name.substring(idx + oldTag.length()));
+                if ( !copy.equals(plot) )
+                    Files.copy(plot.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                numCopied++;
+            }
+        } catch ( IOException ex ) {
+            if ( itsLogger != null )
+                itsLogger.error("Problems copying the preview plots of " + stdId + ": " + ex.getMessage());
+            return false;
+        }
+        return numCopied > 0;
+    }
+
 }
@@ -0,0 +1,241 @@
+package gov.noaa.pmel.dashboard.handlers;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * A simple pool of database connections for a single database URL and user.  Connections obtained from
+ * {@link #getConnection()} are returned to the pool, rather than closed, when their close method is called,
+ * so callers use them exactly as connections obtained from {@link DriverManager}.  Any statements (and thus
+ * result sets) created from a connection and not yet closed are closed when the connection is returned, as done
+ * when a physical connection is closed.  An idle connection that has been unused for a while is validated before
+ * it is handed out again.
+ */
+class SqlConnectionPool {
+
+    /**
+     * Idle time in milliseconds after which a pooled connection is validated before being reused
+     */
+    private static final long VALIDATE_IDLE_MILLIS = 30000L;
+
+    /**
+     * Seconds to wait for a connection to be validated
+     */
+    private static final int VALIDATE_TIMEOUT_SECS = 5;
+
+    /**
+     * A physical connection in the pool with the time it was returned to the pool
+     */
+    private static class IdleConnection {
+        final Connection conn;
+        final long idleSince;
+
+        IdleConnection(Connection conn, long idleSince) {
+            this.conn = conn;
+            this.idleSince = idleSince;
+        }
+    }
+
+    private final String databaseUrl;
+    private final String username;
+    private final String password;
+    private final int maxIdle;
+    private final ArrayDeque<IdleConnection> idleConnections;
+    private boolean closed;
+
+    /**
+     * Create a pool of connections to the given database as the given user.  No connections are made
+     * until requested.
+     *
+     * @param databaseUrl
+     *         database URL, such as "jdbc:mysql://localhost:3306/SOCATFlags"
+     * @param username
+     *         name of the database user
+     * @param password
+     *         password of the database user
+     * @param maxIdle
+     *         maximum number of idle connections kept in the pool; connections returned when the pool is full
+     *         are closed
+     */
+    SqlConnectionPool(String databaseUrl, String username, String password, int maxIdle) {
+        this.databaseUrl = databaseUrl;
+        this.username = username;
+        this.password = password;
+        this.maxIdle = maxIdle;
+        this.idleConnections = new ArrayDeque<IdleConnection>(maxIdle);
+        this.closed = false;
+    }
+
+    /**
+     * Returns a connection from the pool, making a new connection if there are no valid idle connections.
+     * The connection is in auto-commit mode.  Closing the returned connection returns it to the pool.
+     *
+     * @return the database connection
+     *
+     * @throws SQLException
+     *         if connecting to the database throws one, or if a null connection is returned
+     */
+    Connection getConnection() throws SQLException {
+        Connection conn = null;
+        synchronized(idleConnections) {
+            long now = System.currentTimeMillis();
+            while ( (conn == null) && !idleConnections.isEmpty() ) {
+                IdleConnection idle = idleConnections.pop();
+                if ( (now - idle.idleSince < VALIDATE_IDLE_MILLIS) || isUsable(idle.conn) )
+                    conn = idle.conn;
+                else
+                    closeQuietly(idle.conn);
+            }
+        }
+        if ( conn == null ) {
+            conn = DriverManager.getConnection(databaseUrl, username, password);
+            if ( conn == null )
+                throw new SQLException("null SQL connection returned");
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new PooledConnectionHandler(conn));
+    }
+
+    /**
+     * Closes all idle connections in this pool.  Connections currently in use are closed when they are returned.
+     * Connections requested after this call are not pooled; they are closed when their close method is called.
+     */
+    void close() {
+        synchronized(idleConnections) {
+            closed = true;
+            for (IdleConnection idle : idleConnections) {
+                closeQuietly(idle.conn);
+            }
+            idleConnections.clear();
+        }
+    }
+
+    /**
+     * Returns a physical connection to the pool, or closes it if it is no longer usable or the pool is full.
+     * Any uncommitted transaction is rolled back and auto-commit mode is restored.
+     */
+    private void release(Connection conn) {
+        try {
+            if ( conn.isClosed() )
+                return;
+            if ( !conn.getAutoCommit() ) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        } catch ( SQLException ex ) {
+            closeQuietly(conn);
+            return;
+        }
+        synchronized(idleConnections) {
+            if ( !closed && (idleConnections.size() < maxIdle) ) {
+                idleConnections.push(new IdleConnection(conn, System.currentTimeMillis()));
+                return;
+            }
+        }
+        closeQuietly(conn);
+    }
+
+    /**
+     * @return if the given connection is still valid
+     */
+    private static boolean isUsable(Connection conn) {
+        try {
+            return conn.isValid(VALIDATE_TIMEOUT_SECS);
+        } catch ( SQLException ex ) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes the given connection, ignoring any exceptions
+     */
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch ( SQLException ex ) {
+            // ignore
+        }
+    }
+
+    /**
+     * Closes the given statement, ignoring any exceptions
+     */
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch ( SQLException ex ) {
+            // ignore
+        }
+    }
+
+    /**
+     * Forwards all calls to a physical connection except close, which closes any statements created from the
+     * physical connection and then returns the physical connection to the pool.  Once closed, calls other than
+     * close and isClosed throw an SQLException.
+     */
+    private class PooledConnectionHandler implements InvocationHandler {
+        private volatile Connection conn;
+        // Statements created from the physical connection while checked out of the pool
+        private final ArrayList<Statement> statements;
+
+        PooledConnectionHandler(Connection conn) {
+            this.conn = conn;
+            this.statements = new ArrayList<Statement>();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ( "close".equals(name) && (method.getParameterTypes().length == 0) ) {
+                Connection physical;
+                ArrayList<Statement> openStmts;
+                synchronized(this) {
+                    physical = conn;
+                    conn = null;
+                    openStmts = new ArrayList<Statement>(statements);
+                    statements.clear();
+                }
+                // Closing a statement also closes its result sets; pooled connections are never
+                // closed, so this is the only place these would otherwise be released
+                for (Statement stmt : openStmts) {
+                    closeQuietly(stmt);
+                }
+                if ( physical != null )
+                    release(physical);
+                return null;
+            }
+            if ( "isClosed".equals(name) && (method.getParameterTypes().length == 0) ) {
+                Connection physical = conn;
+                return (physical == null) || physical.isClosed();
+            }
+            if ( "equals".equals(name) && (args != null) && (args.length == 1) )
+                return proxy == args[0];
+            if ( "hashCode".equals(name) && (method.getParameterTypes().length == 0) )
+                return System.identityHashCode(proxy);
+            Connection physical = conn;
+            if ( physical == null )
+                throw new SQLException("connection has been closed");
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch ( InvocationTargetException ex ) {
+                throw ex.getCause();
+            }
+            if ( result instanceof Statement ) {
+                synchronized(this) {
+                    statements.add((Statement) result);
+                }
+            }
+            return result;
+        }
+    }
+
+}
@@ -12,6 +12,8 @@ import gov.noaa.pmel.dashboard.shared.DashboardDataset;
 import gov.noaa.pmel.dashboard.shared.DashboardDatasetList;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DataColumnType;
+import gov.noaa.pmel.dashboard.shared.DatasetListQuery;
+import gov.noaa.pmel.dashboard.shared.DatasetListQueryResult;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -21,12 +23,16 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Handles storage and retrieval of user data in files.
@@ -40,8 +46,60 @@ public class UserFileHandler extends VersionedFileHandler {
     private static final String USER_DATA_COLUMNS_NAME_EXTENSION =
             "_data_columns.properties";
 
+    /**
+     * Dataset listing of a user with the datasets included by the filters of a query, sorted as given in the query.
+     * Also records the information files of the datasets in the listing, so it can be checked if the listing is
+     * still current.  The datasets in the listing are not to be modified.
+     */
+    private static class SortedListing {
+        final String sortColumn;
+        final boolean sortAscending;
+        final String statusFilter;
+        final String ownerFilter;
+        final String versionFilter;
+        final String[] datasetIds;
+        final long[] infoModified;
+        final long[] infoLengths;
+        final DashboardDatasetList listing;
+        final ArrayList<DashboardDataset> matching;
+
+        SortedListing(DatasetListQuery query, String[] datasetIds, long[] infoModified, long[] infoLengths,
+                DashboardDatasetList listing, ArrayList<DashboardDataset> matching) {
+            this.sortColumn = query.getSortColumn();
+            this.sortAscending = query.isSortAscending();
+            this.statusFilter = query.getStatusFilter();
+            this.ownerFilter = query.getOwnerFilter();
+            this.versionFilter = query.getVersionFilter();
+            this.datasetIds = datasetIds;
+            this.infoModified = infoModified;
+            this.infoLengths = infoLengths;
+            this.listing = listing;
+            this.matching = matching;
+        }
+
+        /**
+         * @return if this listing has the filters and sort of the given query, and was created from the given
+         *         dataset IDs with information files having the given last-modified times and lengths
+         */
+        boolean isCurrent(DatasetListQuery query, String[] ids, long[] modified, long[] lengths) {
+            if ( !(sortColumn.equals(query.getSortColumn()) && (sortAscending == query.isSortAscending()) &&
+                    statusFilter.equals(query.getStatusFilter()) && ownerFilter.equals(query.getOwnerFilter()) &&
+                    versionFilter.equals(query.getVersionFilter())) )
+                return false;
+            // A missing information file has a last-modified time of zero and is never current
+            for (long time : modified) {
+                if ( time == 0L )
+                    return false;
+            }
+            return Arrays.equals(datasetIds, ids) && Arrays.equals(infoModified, modified) &&
+                    Arrays.equals(infoLengths, lengths);
+        }
+    }
+
     private KnownDataTypes userTypes;
     private HashMap<String,DataColumnType> defaultColNamesToTypes;
+    // Last sorted dataset listing of each user, mapped by the cleaned username
+    private final ConcurrentHashMap<String,SortedListing> sortedListings;
 
     /**
      * Handles storage and retrieval of user data in files under the given user files directory.
@@ -65,6 +123,7 @@ public class UserFileHandler extends VersionedFileHandler {
             String colNamesToTypesFilename, KnownDataTypes userTypes) throws IllegalArgumentException {
         super(userFilesDirName, svnUsername, svnPassword);
         this.userTypes = userTypes;
+        this.sortedListings = new ConcurrentHashMap<String,SortedListing>();
         // Generate the default data column name to type map
         defaultColNamesToTypes = new HashMap<String,DataColumnType>();
         addDataColumnNames(defaultColNamesToTypes, new File(colNamesToTypesFilename));
@@ -148,20 +207,12 @@ public class UserFileHandler extends VersionedFileHandler {
         boolean needsCommit = false;
         String commitMessage = "";
         // Read the cruise datasetIds from the cruise list file
-        HashSet<String> dataIdsSet = new HashSet<String>();
+        TreeSet<String> dataIdsSet;
         try {
-            BufferedReader idsReader = new BufferedReader(new FileReader(userDataFile));
-            try {
-                String datasetId = idsReader.readLine();
-                while ( datasetId != null ) {
-                    dataIdsSet.add(datasetId);
-                    datasetId = idsReader.readLine();
-                }
-            } finally {
-                idsReader.close();
-            }
+            dataIdsSet = readListingIds(userDataFile);
         } catch ( FileNotFoundException ex ) {
             // Return a valid cruise listing with no cruises
+            dataIdsSet = new TreeSet<String>();
             needsCommit = true;
             commitMessage = "add new dataset listing for " + cleanUsername + "; ";
         } catch ( Exception ex ) {
@@ -208,6 +259,186 @@ public class UserFileHandler extends VersionedFileHandler {
         return datasetList;
     }
 
+    /**
+     * @param userDataFile
+     *         dataset list file of a user
+     *
+     * @return the dataset IDs in the file; never null but may be empty
+     *
+     * @throws FileNotFoundException
+     *         if the file does not exist
+     * @throws IOException
+     *         if reading the file fails
+     */
+    private static TreeSet<String> readListingIds(File userDataFile) throws FileNotFoundException, IOException {
+        TreeSet<String> dataIdsSet = new TreeSet<String>();
+        BufferedReader idsReader = new BufferedReader(new FileReader(userDataFile));
+        try {
+            String datasetId = idsReader.readLine();
+            while ( datasetId != null ) {
+                dataIdsSet.add(datasetId);
+                datasetId = idsReader.readLine();
+            }
+        } finally {
+            idsReader.close();
+        }
+        return dataIdsSet;
+    }
+
+    /**
+     * Gets one page of the sorted and filtered list of datasets for a user, along with the IDs of the selected
+     * datasets.  Only the datasets in the page are returned, so the selected datasets outside the page are not sent
+     * again with every page.
+     * <p>
+     * The filtered and sorted listing is cached for each user.  The cached listing is used while the dataset IDs in
+     * the user's dataset list file, and the last-modified times and lengths of the information files of these
+     * datasets, are unchanged, and the same filters and sort are requested.  Otherwise the listing is obtained again
+     * from {@link #getDatasetListing(String)}.
+     *
+     * @param username
+     *         get cruises for this user
+     * @param query
+     *         the page, sorting, filtering, and selection of datasets to return
+     *
+     * @return the requested page of datasets and the IDs of the selected datasets; never null
+     *
+     * @throws IllegalArgumentException
+     *         if username is invalid, if the sort column or a status in the query is not recognized,
+     *         if there was a problem reading an existing dataset listing, or if there was an error
+     *         committing the updated dataset listing to version control
+     */
+    public DatasetListQueryResult getDatasetListingPage(String username, DatasetListQuery query)
+            throws IllegalArgumentException {
+        String cleanUsername = DashboardServerUtils.cleanUsername(username);
+        if ( cleanUsername.isEmpty() )
+            throw new IllegalArgumentException("invalid username");
+        DataFileHandler dataHandler;
+        try {
+            dataHandler = DashboardConfigStore.get(false).getDataFileHandler();
+        } catch ( Exception ex ) {
+            throw new IllegalArgumentException("Unexpected failure to get dashboard settings");
+        }
+
+        // Record the IDs in the dataset list file, and the information files of these datasets, before getting any
+        // listing, so any later change to these files is seen with the next request
+        TreeSet<String> dataIdsSet;
+        try {
+            dataIdsSet = readListingIds(new File(filesDir, cleanUsername + USER_CRUISE_LIST_NAME_EXTENSION));
+        } catch ( FileNotFoundException ex ) {
+            dataIdsSet = new TreeSet<String>();
+        } catch ( IOException ex ) {
+            throw new IllegalArgumentException("Problems reading the dataset listing for " +
+                    cleanUsername + ": " + ex.getMessage());
+        }
+        String[] datasetIds = dataIdsSet.toArray(new String[dataIdsSet.size()]);
+        long[] infoModified = new long[datasetIds.length];
+        long[] infoLengths = new long[datasetIds.length];
+        for (int k = 0; k < datasetIds.length; k++) {
+            File infoFile = dataHandler.datasetInfoFile(datasetIds[k]);
+            infoModified[k] = infoFile.lastModified();
+            infoLengths[k] = infoFile.length();
+        }
+
+        DashboardDatasetList listing;
+        ArrayList<DashboardDataset> matching;
+        SortedListing sorted = sortedListings.get(cleanUsername);
+        if ( (sorted != null) && sorted.isCurrent(query, datasetIds, infoModified, infoLengths) ) {
+            listing = sorted.listing;
+            matching = sorted.matching;
+        }
+        else {
+            listing = getDatasetListing(username);
+
+            // Filter and sort the datasets; ties are ordered by dataset ID
+            matching = new ArrayList<DashboardDataset>(listing.size());
+            for (DashboardDataset dataset : listing.values()) {
+                if ( query.matches(dataset) )
+                    matching.add(dataset);
+            }
+            final Comparator<DashboardDataset> columnComparator = getListingComparator(query.getSortColumn());
+            final boolean ascending = query.isSortAscending();
+            Collections.sort(matching, new Comparator<DashboardDataset>() {
+                @Override
+                public int compare(DashboardDataset d1, DashboardDataset d2) {
+                    int result = columnComparator.compare(d1, d2);
+                    if ( !ascending )
+                        result = -result;
+                    if ( result == 0 )
+                        result = DashboardUtils.dataDatasetIdComparator.compare(d1, d2);
+                    return result;
+                }
+            });
+
+            sortedListings.put(cleanUsername,
+                    new SortedListing(query, datasetIds, infoModified, infoLengths, listing, matching));
+        }
+
+        // Extract the requested page of datasets
+        int start = Math.min(query.getOffset(), matching.size());
+        int end = matching.size();
+        if ( (query.getLimit() >= 0) && (query.getLimit() < end - start) )
+            end = start + query.getLimit();
+
+        // Get the IDs of the selected datasets in the full listing
+        TreeSet<String> selectedIds = new TreeSet<String>();
+        String selectStatus = query.getSelectStatus();
+        if ( !selectStatus.isEmpty() ) {
+            for (DashboardDataset dataset : listing.values()) {
+                if ( DatasetListQuery.hasStatus(dataset, selectStatus) )
+                    selectedIds.add(dataset.getDatasetId());
+            }
+        }
+        else {
+            for (String datasetId : query.getSelectedIds()) {
+                if ( listing.containsKey(datasetId) )
+                    selectedIds.add(datasetId);
+            }
+        }
+
+        DatasetListQueryResult result = new DatasetListQueryResult();
+        result.setUsername(listing.getUsername());
+        result.setManager(listing.isManager());
+        result.setImageExtension(listing.getImageExtension());
+        result.setTotalCount(matching.size());
+        result.setDatasets(new ArrayList<DashboardDataset>(matching.subList(start, end)));
+        result.setSelectedIds(selectedIds);
+        return result;
+    }
+
+    /**
+     * @param sortColumn
+     *         one of the DatasetListQuery SORT_ values
+     *
+     * @return the comparator for sorting datasets by the given column
+     *
+     * @throws IllegalArgumentException
+     *         if the sort column is not recognized
+     */
+    private static Comparator<DashboardDataset> getListingComparator(String sortColumn)
+            throws IllegalArgumentException {
+        if ( DatasetListQuery.SORT_DATASET_ID.equals(sortColumn) )
+            return DashboardUtils.dataDatasetIdComparator;
+        if ( DatasetListQuery.SORT_TIMESTAMP.equals(sortColumn) )
+            return DashboardUtils.dataTimestampComparator;
+        if ( DatasetListQuery.SORT_DATA_CHECK.equals(sortColumn) )
+            return DashboardUtils.dataCheckComparator;
+        if ( DatasetListQuery.SORT_OME_METADATA.equals(sortColumn) )
+            return DashboardUtils.omeTimestampComparator;
+        if ( DatasetListQuery.SORT_ADDL_DOCS.equals(sortColumn) )
+            return DashboardUtils.addlDocsComparator;
+        if ( DatasetListQuery.SORT_VERSION.equals(sortColumn) )
+            return DashboardUtils.versionComparator;
+        if ( DatasetListQuery.SORT_SUBMIT_STATUS.equals(sortColumn) )
+            return DashboardUtils.submitStatusComparator;
+        if ( DatasetListQuery.SORT_ARCHIVE_STATUS.equals(sortColumn) )
+            return DashboardUtils.archiveStatusComparator;
+        if ( DatasetListQuery.SORT_FILENAME.equals(sortColumn) )
+            return DashboardUtils.dataFilenameComparator;
+        if ( DatasetListQuery.SORT_OWNER.equals(sortColumn) )
+            return DashboardUtils.dataOwnerComparator;
+        throw new IllegalArgumentException("Unknown dataset list sort column " + sortColumn);
+    }
+
     /**
      * Saves the list of datasets for a user
      *
@@ -29,6 +29,10 @@ public class VersionedFileHandler {
     // Keep working while less than 3 seconds have passed
     private static final long MILLISECONDS_WORK_INTERVAL = 3 * 1000L;
 
+    // The SVN client managers are not thread-safe, and the working copies of the different handlers may overlap,
+    // so all version control operations (from any handler) are made while synchronized on this object
+    private static final Object SVN_LOCK = new Object();
+
     File filesDir;
     private SVNClientManager svnManager;
     private ArrayDeque<File[]> filesToCommit;
@@ -189,59 +193,61 @@ public class VersionedFileHandler {
         if ( (filesToCommit == null) || (parentToUpdate == null) || (commitMessage == null) )
             throw new NullPointerException(
                     "commitVersion called for VersionedFileHandler that is not version controlled");
-        boolean needsAdd = false;
-        try {
-            SVNStatus status = svnManager.getStatusClient()
-                                         .doStatus(wcfile, false);
-            SVNStatusType contentsStatus = status.getContentsStatus();
-            if ( (contentsStatus == SVNStatusType.STATUS_UNVERSIONED) ||
-                    (contentsStatus == SVNStatusType.STATUS_DELETED) ||
-                    (contentsStatus == SVNStatusType.STATUS_NONE) )
-                needsAdd = true;
-        } catch ( SVNException ex ) {
-            // At this point, assume the parent directory is not version controlled
-            needsAdd = true;
-        }
-
-        if ( needsAdd ) {
-            // Add the file (force), and any unversioned directories in its path, to version control
-            svnManager.getWCClient()
-                      .doAdd(wcfile, true, false, false, SVNDepth.EMPTY, false, true);
-        }
-
-        // Get the list of directories, as well as the file, that need to be committed
-        ArrayDeque<File> commitFiles = new ArrayDeque<File>();
-        commitFiles.push(wcfile);
-        // Work down the directory tree until we fall out
-        // or find an unchanged directory
-        File parent = wcfile;
-        for (File currFile = wcfile.getParentFile(); currFile != null; currFile = currFile.getParentFile()) {
-            SVNStatus status;
+        synchronized(SVN_LOCK) {
+            boolean needsAdd = false;
             try {
-                status = svnManager.getStatusClient().doStatus(currFile, false);
+                SVNStatus status = svnManager.getStatusClient()
+                                             .doStatus(wcfile, false);
+                SVNStatusType contentsStatus = status.getContentsStatus();
+                if ( (contentsStatus == SVNStatusType.STATUS_UNVERSIONED) ||
+                        (contentsStatus == SVNStatusType.STATUS_DELETED) ||
+                        (contentsStatus == SVNStatusType.STATUS_NONE) )
+                    needsAdd = true;
             } catch ( SVNException ex ) {
-                // Probably outside the working copy
-                break;
-            }
-            SVNStatusType statType = status.getContentsStatus();
-            if ( (statType == SVNStatusType.STATUS_ADDED) ||
-                    (statType == SVNStatusType.STATUS_MODIFIED) ||
-                    (statType == SVNStatusType.STATUS_REPLACED) ) {
-                commitFiles.push(currFile);
-                parent = currFile;
+                // At this point, assume the parent directory is not version controlled
+                needsAdd = true;
             }
-            else if ( statType == SVNStatusType.STATUS_NORMAL ) {
-                // An unmodified directory under version control
-                parent = currFile;
-                break;
+
+            if ( needsAdd ) {
+                // Add the file (force), and any unversioned directories in its path, to version control
+                svnManager.getWCClient()
+                          .doAdd(wcfile, true, false, false, SVNDepth.EMPTY, false, true);
             }
-            else {
-                // A directory outside version control
-                break;
+
+            // Get the list of directories, as well as the file, that need to be committed
+            ArrayDeque<File> commitFiles = new ArrayDeque<File>();
+            commitFiles.push(wcfile);
+            // Work down the directory tree until we fall out
+            // or find an unchanged directory
+            File parent = wcfile;
+            for (File currFile = wcfile.getParentFile(); currFile != null; currFile = currFile.getParentFile()) {
+                SVNStatus status;
+                try {
+                    status = svnManager.getStatusClient().doStatus(currFile, false);
+                } catch ( SVNException ex ) {
+                    // Probably outside the working copy
+                    break;
+                }
+                SVNStatusType statType = status.getContentsStatus();
+                if ( (statType == SVNStatusType.STATUS_ADDED) ||
+                        (statType == SVNStatusType.STATUS_MODIFIED) ||
+                        (statType == SVNStatusType.STATUS_REPLACED) ) {
+                    commitFiles.push(currFile);
+                    parent = currFile;
+                }
+                else if ( statType == SVNStatusType.STATUS_NORMAL ) {
+                    // An unmodified directory under version control
+                    parent = currFile;
+                    break;
+                }
+                else {
+                    // A directory outside version control
+                    break;
+                }
             }
+            // schedule committing the changes
+            addFilesToCommit(commitFiles.toArray(new File[commitFiles.size()]), parent, message);
         }
-        // schedule committing the changes
-        addFilesToCommit(commitFiles.toArray(new File[commitFiles.size()]), parent, message);
     }
 
     /**
@@ -262,62 +268,64 @@ public class VersionedFileHandler {
         if ( (filesToCommit == null) || (parentToUpdate == null) || (commitMessage == null) )
             throw new NullPointerException(
                     "moveVersionedFile called for VersionedFileHandler that is not version controlled");
-        // Make sure the parent directory of the new file is under version control
-        File parent = newWcFile.getParentFile();
-        boolean needsAdd = false;
-        try {
-            SVNStatus status = svnManager.getStatusClient()
-                                         .doStatus(parent, false);
-            SVNStatusType contentsStatus = status.getContentsStatus();
-            if ( (contentsStatus == SVNStatusType.STATUS_UNVERSIONED) ||
-                    (contentsStatus == SVNStatusType.STATUS_DELETED) ||
-                    (contentsStatus == SVNStatusType.STATUS_NONE) )
-                needsAdd = true;
-        } catch ( SVNException ex ) {
-            // At this point, assume the parent directory is not version controlled
-            needsAdd = true;
-        }
-        if ( needsAdd ) {
-            // Add the file (force), and any unversioned directories in its path, to version control
-            svnManager.getWCClient()
-                      .doAdd(parent, true, false, false, SVNDepth.EMPTY, false, true);
-        }
-        // Move the old file to the new location
-        svnManager.getMoveClient().doMove(oldWcFile, newWcFile);
-
-        // Get the list of directories, as well as the file, that need to be committed
-        ArrayDeque<File> commitFiles = new ArrayDeque<File>();
-        commitFiles.push(oldWcFile);
-        commitFiles.push(newWcFile);
-        // Work down the directory tree until we fall out
-        // or find an unchanged directory
-        for (File currFile = newWcFile.getParentFile(); currFile != null; currFile = currFile.getParentFile()) {
-            SVNStatus status;
+        synchronized(SVN_LOCK) {
+            // Make sure the parent directory of the new file is under version control
+            File parent = newWcFile.getParentFile();
+            boolean needsAdd = false;
             try {
-                status = svnManager.getStatusClient().doStatus(currFile, false);
+                SVNStatus status = svnManager.getStatusClient()
+                                             .doStatus(parent, false);
+                SVNStatusType contentsStatus = status.getContentsStatus();
+                if ( (contentsStatus == SVNStatusType.STATUS_UNVERSIONED) ||
+                        (contentsStatus == SVNStatusType.STATUS_DELETED) ||
+                        (contentsStatus == SVNStatusType.STATUS_NONE) )
+                    needsAdd = true;
             } catch ( SVNException ex ) {
-                // Probably outside the working copy
-                break;
-            }
-            SVNStatusType statType = status.getContentsStatus();
-            if ( (statType == SVNStatusType.STATUS_ADDED) ||
-                    (statType == SVNStatusType.STATUS_MODIFIED) ||
-                    (statType == SVNStatusType.STATUS_REPLACED) ) {
-                commitFiles.push(currFile);
-                parent = currFile;
+                // At this point, assume the parent directory is not version controlled
+                needsAdd = true;
             }
-            else if ( statType == SVNStatusType.STATUS_NORMAL ) {
-                // An unmodified directory under version control
-                parent = currFile;
-                break;
+            if ( needsAdd ) {
+                // Add the file (force), and any unversioned directories in its path, to version control
+                svnManager.getWCClient()
+                          .doAdd(parent, true, false, false, SVNDepth.EMPTY, false, true);
             }
-            else {
-                // A directory outside version control
-                break;
+            // Move the old file to the new location
+            svnManager.getMoveClient().doMove(oldWcFile, newWcFile);
+
+            // Get the list of directories, as well as the file, that need to be committed
+            ArrayDeque<File> commitFiles = new ArrayDeque<File>();
+            commitFiles.push(oldWcFile);
+            commitFiles.push(newWcFile);
+            // Work down the directory tree until we fall out
+            // or find an unchanged directory
+            for (File currFile = newWcFile.getParentFile(); currFile != null; currFile = currFile.getParentFile()) {
+                SVNStatus status;
+                try {
+                    status = svnManager.getStatusClient().doStatus(currFile, false);
+                } catch ( SVNException ex ) {
+                    // Probably outside the working copy
+                    break;
+                }
+                SVNStatusType statType = status.getContentsStatus();
+                if ( (statType == SVNStatusType.STATUS_ADDED) ||
+                        (statType == SVNStatusType.STATUS_MODIFIED) ||
+                        (statType == SVNStatusType.STATUS_REPLACED) ) {
+                    commitFiles.push(currFile);
+                    parent = currFile;
+                }
+                else if ( statType == SVNStatusType.STATUS_NORMAL ) {
+                    // An unmodified directory under version control
+                    parent = currFile;
+                    break;
+                }
+                else {
+                    // A directory outside version control
+                    break;
+                }
             }
+            // schedule committing the changes
+            addFilesToCommit(commitFiles.toArray(new File[commitFiles.size()]), parent, message);
         }
-        // schedule committing the changes
-        addFilesToCommit(commitFiles.toArray(new File[commitFiles.size()]), parent, message);
     }
 
     /**
@@ -335,10 +343,12 @@ public class VersionedFileHandler {
         if ( (filesToCommit == null) || (parentToUpdate == null) || (commitMessage == null) )
             throw new NullPointerException(
                     "moveVersionedFile called for VersionedFileHandler that is not version controlled");
-        // Delete the file (force) from the working directory and version control
-        svnManager.getWCClient().doDelete(wcFile, true, true, false);
-        // schedule committing the changes
-        addFilesToCommit(new File[] { wcFile }, wcFile.getParentFile(), message);
+        synchronized(SVN_LOCK) {
+            // Delete the file (force) from the working directory and version control
+            svnManager.getWCClient().doDelete(wcFile, true, true, false);
+            // schedule committing the changes
+            addFilesToCommit(new File[] { wcFile }, wcFile.getParentFile(), message);
+        }
     }
 
 }
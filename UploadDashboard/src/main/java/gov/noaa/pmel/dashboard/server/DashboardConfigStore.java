@@ -6,10 +6,12 @@ package gov.noaa.pmel.dashboard.server;
 import gov.noaa.pmel.dashboard.actions.DatasetChecker;
 import gov.noaa.pmel.dashboard.actions.DatasetSubmitter;
 import gov.noaa.pmel.dashboard.actions.OmePdfGenerator;
+import gov.noaa.pmel.dashboard.actions.SubmitJobQueue;
 import gov.noaa.pmel.dashboard.datatype.DashDataType;
 import gov.noaa.pmel.dashboard.datatype.DoubleDashDataType;
 import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
 import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.dsg.ComputedDataCalculator;
 import gov.noaa.pmel.dashboard.ferret.FerretConfig;
 import gov.noaa.pmel.dashboard.handlers.ArchiveFilesBundler;
 import gov.noaa.pmel.dashboard.handlers.CheckerMessageHandler;
@@ -58,6 +60,8 @@ public class DashboardConfigStore {
     private static final String METADATA_FILES_DIR_NAME_TAG = "MetadataFilesDir";
     private static final String DSG_NC_FILES_DIR_NAME_TAG = "DsgNcFilesDir";
     private static final String DEC_DSG_NC_FILES_DIR_NAME_TAG = "DecDsgNcFilesDir";
+    private static final String DSG_DATA_CACHE_MBYTES_TAG = "DsgDataCacheMBytes";
+    private static final long DEFAULT_DSG_DATA_CACHE_MBYTES = 256;
     private static final String ARCHIVE_BUNDLES_DIR_NAME_TAG = "ArchiveBundlesDir";
     private static final String ARCHIVE_BUNDLES_EMAIL_ADDRESS_TAG = "ArchiveBundlesEmailAddress";
     private static final String CC_BUNDLES_EMAIL_ADDRESS_TAG = "CCBundlesEmailAddress";
@@ -70,8 +74,14 @@ public class DashboardConfigStore {
     private static final String KNOWN_TYPES_PROPS_FILE_TAG = "KnownTypesFile";
     private static final String DEFAULT_TYPE_KEYS_FILE_TAG = "DefaultTypeKeysFile";
     private static final String FERRET_CONFIG_FILE_NAME_TAG = "FerretConfigFile";
+    private static final String REFERENCE_DATA_DIR_NAME_TAG = "ReferenceDataDir";
+    private static final String COMPUTE_MODE_NAME_TAG = "ComputeMode";
     private static final String DATABASE_CONFIG_FILE_NAME_TAG = "DatabaseConfigFile";
     private static final String SPELLING_CONFIG_FILE_NAME_TAG = "SpellingConfigFile";
+    private static final String SUBMIT_WORKER_THREADS_TAG = "SubmitWorkerThreads";
+    private static final int DEFAULT_SUBMIT_WORKER_THREADS = 2;
+    private static final String SUBMIT_JOBS_DIR_NAME = "SubmitJobs";
+    private static final String DATASET_EXTENTS_CATALOG_NAME = "DatasetExtents.tsv";
     private static final String USER_ROLE_NAME_TAG_PREFIX = "RoleFor_";
 
     private static final String CONFIG_FILE_INFO_MSG =
@@ -86,6 +96,8 @@ public class DashboardConfigStore {
                     METADATA_FILES_DIR_NAME_TAG + "=/Some/SVN/Work/Dir/For/Metadata/Docs \n" +
                     DSG_NC_FILES_DIR_NAME_TAG + "=/Some/Plain/Dir/For/NetCDF/DSG/Files \n" +
                     DEC_DSG_NC_FILES_DIR_NAME_TAG + "=/Some/Plain/Dir/For/NetCDF/Decimated/DSG/Files \n" +
+                    "# optional; default " + DEFAULT_DSG_DATA_CACHE_MBYTES + " \n" +
+                    DSG_DATA_CACHE_MBYTES_TAG + "=MegabytesOfDsgDataToCache \n" +
                     ARCHIVE_BUNDLES_DIR_NAME_TAG + "=/Some/SVN/Work/Dir/For/Archive/Bundles \n" +
                     ARCHIVE_BUNDLES_EMAIL_ADDRESS_TAG + "=archiver@gdac.org \n" +
                     CC_BUNDLES_EMAIL_ADDRESS_TAG + "=dashboard@my.group.org \n" +
@@ -98,8 +110,14 @@ public class DashboardConfigStore {
                     KNOWN_TYPES_PROPS_FILE_TAG + "=/Path/To/User/Known/Types/PropsFile \n" +
                     DEFAULT_TYPE_KEYS_FILE_TAG + "=/Path/To/To/TypeNameKeys/PropsFile \n" +
                     FERRET_CONFIG_FILE_NAME_TAG + "=/Path/To/FerretConfig/XMLFile \n" +
+                    "# optional; if not given, Ferret is used to add computed data to the DSG files \n" +
+                    REFERENCE_DATA_DIR_NAME_TAG + "=/Path/To/Reference/NetCDF/Datasets \n" +
+                    "# optional; Java (default if " + REFERENCE_DATA_DIR_NAME_TAG + " is given), Ferret, or CrossCheck \n" +
+                    COMPUTE_MODE_NAME_TAG + "=Java \n" +
                     DATABASE_CONFIG_FILE_NAME_TAG + "=/Path/To/DatabaseConfig/PropsFile \n" +
                     SPELLING_CONFIG_FILE_NAME_TAG + "=/Path/To/SpellingConfig/TSVFile \n" +
+                    "# optional; default " + DEFAULT_SUBMIT_WORKER_THREADS + " \n" +
+                    SUBMIT_WORKER_THREADS_TAG + "=NumberOfDatasetsToSubmitAtOnce \n" +
                     USER_ROLE_NAME_TAG_PREFIX + "SomeUserName=MemberOf1,MemberOf2 \n" +
                     USER_ROLE_NAME_TAG_PREFIX + "SomeManagerName=ManagerOf1,MemberOf2 \n" +
                     USER_ROLE_NAME_TAG_PREFIX + "SomeAdminName=Admin \n" +
@@ -125,11 +143,13 @@ public class DashboardConfigStore {
     private ArchiveFilesBundler archiveFilesBundler;
     private DsgNcFileHandler dsgNcFileHandler;
     private FerretConfig ferretConf;
+    private ComputedDataCalculator computedDataCalculator;
     private String imageExtension;
     private DatasetChecker datasetChecker;
     private DatabaseRequestHandler databaseRequestHandler;
     private PreviewPlotsHandler plotsHandler;
     private DatasetSubmitter datasetSubmitter;
+    private SubmitJobQueue submitJobQueue;
     private OmePdfGenerator omePdfGenerator;
     private KnownDataTypes knownUserDataTypes;
     private KnownDataTypes knownMetadataTypes;
@@ -475,6 +495,37 @@ public class DashboardConfigStore {
         if ( itsLogger != null )
             itsLogger.info("image filename extension: '" + imageExtension + "'");
 
+        // Reference datasets for computing data added to the DSG files, and how to add the computed data
+        ComputedDataCalculator.Mode computeMode = ComputedDataCalculator.Mode.FERRET;
+        computedDataCalculator = null;
+        propVal = configProps.getProperty(REFERENCE_DATA_DIR_NAME_TAG);
+        if ( (propVal != null) && !propVal.trim().isEmpty() ) {
+            computeMode = ComputedDataCalculator.Mode.JAVA;
+            try {
+                propVal = getFilePathProperty(configProps, REFERENCE_DATA_DIR_NAME_TAG, appConfigDir);
+                computedDataCalculator = new ComputedDataCalculator(new File(propVal));
+                if ( itsLogger != null )
+                    itsLogger.info("reference data directory = " + propVal);
+            } catch ( Exception ex ) {
+                throw new IOException("Invalid " + REFERENCE_DATA_DIR_NAME_TAG + " value specified in " +
+                        configFile.getPath() + "\n" + ex.getMessage() + "\n" + CONFIG_FILE_INFO_MSG);
+            }
+        }
+        propVal = configProps.getProperty(COMPUTE_MODE_NAME_TAG);
+        if ( (propVal != null) && !propVal.trim().isEmpty() ) {
+            try {
+                computeMode = ComputedDataCalculator.Mode.valueOf(propVal.trim().toUpperCase());
+            } catch ( IllegalArgumentException ex ) {
+                throw new IOException("Invalid " + COMPUTE_MODE_NAME_TAG + " value specified in " +
+                        configFile.getPath() + "\n" + CONFIG_FILE_INFO_MSG);
+            }
+            if ( (computedDataCalculator == null) && !ComputedDataCalculator.Mode.FERRET.equals(computeMode) )
+                throw new IOException(COMPUTE_MODE_NAME_TAG + " " + propVal.trim() + " requires " +
+                        REFERENCE_DATA_DIR_NAME_TAG + " in " + configFile.getPath() + "\n" + CONFIG_FILE_INFO_MSG);
+        }
+        if ( itsLogger != null )
+            itsLogger.info("compute mode = " + computeMode);
+
         // Handler for DSG NC files
         String dsgFileDirName;
         try {
@@ -513,10 +564,24 @@ public class DashboardConfigStore {
             throw new IOException("Invalid " + ERDDAP_DEC_DSG_FLAG_FILE_NAME_TAG + " value specified in " +
                     configFile.getPath() + "\n" + ex.getMessage() + "\n" + CONFIG_FILE_INFO_MSG);
         }
+        long dsgDataCacheMBytes = DEFAULT_DSG_DATA_CACHE_MBYTES;
+        propVal = configProps.getProperty(DSG_DATA_CACHE_MBYTES_TAG);
+        if ( propVal != null ) {
+            try {
+                dsgDataCacheMBytes = Long.parseLong(propVal.trim());
+            } catch ( NumberFormatException ex ) {
+                throw new IOException("Invalid " + DSG_DATA_CACHE_MBYTES_TAG + " value specified in " +
+                        configFile.getPath() + "\n" + ex.getMessage() + "\n" + CONFIG_FILE_INFO_MSG);
+            }
+        }
+        if ( itsLogger != null )
+            itsLogger.info("DSG data cache size (MB) = " + dsgDataCacheMBytes);
         try {
             dsgNcFileHandler = new DsgNcFileHandler(dsgFileDirName, decDsgFileDirName,
-                    erddapDsgFlagFileName, erddapDecDsgFlagFileName, ferretConf,
-                    knownMetadataTypes, knownDataFileTypes, dataFileHandler, itsLogger);
+                    erddapDsgFlagFileName, erddapDecDsgFlagFileName,
+                    appContentDirPath + DATASET_EXTENTS_CATALOG_NAME, ferretConf, knownMetadataTypes,
+                    knownDataFileTypes, dataFileHandler, dsgDataCacheMBytes * 1024L * 1024L,
+                    computedDataCalculator, computeMode, itsLogger);
         } catch ( Exception ex ) {
             throw new IOException(ex);
         }
@@ -546,6 +611,31 @@ public class DashboardConfigStore {
         // Dataset submitter - uses various handlers just created
         datasetSubmitter = new DatasetSubmitter(this);
 
+        // Queue for submitting datasets in the background; only when running as the dashboard server
+        int numSubmitWorkers = DEFAULT_SUBMIT_WORKER_THREADS;
+        propVal = configProps.getProperty(SUBMIT_WORKER_THREADS_TAG);
+        if ( propVal != null ) {
+            try {
+                numSubmitWorkers = Integer.parseInt(propVal.trim());
+                if ( numSubmitWorkers < 1 )
+                    throw new NumberFormatException("not a positive integer");
+            } catch ( NumberFormatException ex ) {
+                throw new IOException("Invalid " + SUBMIT_WORKER_THREADS_TAG + " value specified in " +
+                        configFile.getPath() + "\n" + ex.getMessage() + "\n" + CONFIG_FILE_INFO_MSG);
+            }
+        }
+        submitJobQueue = null;
+        if ( startMonitors ) {
+            try {
+                submitJobQueue = new SubmitJobQueue(datasetSubmitter,
+                        appContentDirPath + SUBMIT_JOBS_DIR_NAME, numSubmitWorkers, itsLogger);
+            } catch ( IllegalArgumentException ex ) {
+                throw new IOException(ex.getMessage());
+            }
+            if ( itsLogger != null )
+                itsLogger.info("dataset submit workers = " + numSubmitWorkers);
+        }
+
         // Authorized users and their roles
         userInfoMap = new HashMap<String,DashboardUserInfo>();
         for (Entry<Object,Object> entry : configProps.entrySet()) {
@@ -673,6 +763,17 @@ public class DashboardConfigStore {
         archiveFilesBundler.shutdown();
         // Stop monitoring changes in the DSG files
         dsgNcFileHandler.cancelWatch();
+        // Stop generating preview plots in the background
+        plotsHandler.shutdown();
+        // Stop submitting datasets; unfinished jobs are resumed by the next data store
+        if ( submitJobQueue != null )
+            submitJobQueue.shutdown();
+        // Close the pooled database connections
+        if ( databaseRequestHandler != null )
+            databaseRequestHandler.close();
+        // Release the reference datasets
+        if ( computedDataCalculator != null )
+            computedDataCalculator.close();
         // Stop the configuration watcher
         cancelWatch();
     }
@@ -877,6 +978,14 @@ public class DashboardConfigStore {
         return datasetSubmitter;
     }
 
+    /**
+     * @return the queue for submitting datasets in the background; null if the monitors were not started,
+     *         indicating this is running from a command-prompt app
+     */
+    public SubmitJobQueue getSubmitJobQueue() {
+        return submitJobQueue;
+    }
+
     /**
      * @return the files bundler for archiving datasets
      */
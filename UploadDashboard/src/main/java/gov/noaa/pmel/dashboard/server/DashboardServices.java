@@ -11,7 +11,8 @@ import gov.noaa.pmel.dashboard.handlers.DsgNcFileHandler;
 import gov.noaa.pmel.dashboard.handlers.MetadataFileHandler;
 import gov.noaa.pmel.dashboard.handlers.UserFileHandler;
 import gov.noaa.pmel.dashboard.qc.QCEvent;
-import gov.noaa.pmel.dashboard.shared.ADCMessageList;
+import gov.noaa.pmel.dashboard.shared.ADCMessageQuery;
+import gov.noaa.pmel.dashboard.shared.ADCMessageQueryResult;
 import gov.noaa.pmel.dashboard.shared.DashboardDataset;
 import gov.noaa.pmel.dashboard.shared.DashboardDatasetData;
 import gov.noaa.pmel.dashboard.shared.DashboardDatasetList;
@@ -19,7 +20,10 @@ import gov.noaa.pmel.dashboard.shared.DashboardMetadata;
 import gov.noaa.pmel.dashboard.shared.DashboardServicesInterface;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DataColumnType;
+import gov.noaa.pmel.dashboard.shared.DatasetListQuery;
+import gov.noaa.pmel.dashboard.shared.DatasetListQueryResult;
 import gov.noaa.pmel.dashboard.shared.DatasetQCStatus;
+import gov.noaa.pmel.dashboard.shared.SubmitJobStatus;
 import gov.noaa.pmel.dashboard.shared.TypesDatasetDataPair;
 import org.apache.logging.log4j.Logger;
 
@@ -132,9 +136,23 @@ public class DashboardServices extends RemoteServiceServlet implements Dashboard
             throw new IllegalArgumentException("Invalid user request");
         DashboardDatasetList datasetList = configStore.getUserFileHandler().getDatasetListing(username);
         itsLogger.info("dataset list returned for " + username);
+        DataFileHandler dataHandler = configStore.getDataFileHandler();
+        itsLogger.debug("dataset information cache: " + dataHandler.getInfoCacheSize() + " datasets, " +
+                dataHandler.getInfoCacheHits() + " hits, " + dataHandler.getInfoCacheMisses() + " misses");
         return datasetList;
     }
 
+    @Override
+    public DatasetListQueryResult getDatasetListPage(DatasetListQuery query) throws IllegalArgumentException {
+        // Get the dashboard data store and current username
+        if ( !validateRequest(null) )
+            throw new IllegalArgumentException("Invalid user request");
+        DatasetListQueryResult result = configStore.getUserFileHandler().getDatasetListingPage(username, query);
+        itsLogger.info("dataset list page of " + result.getDatasets().size() + " of " +
+                result.getTotalCount() + " datasets returned for " + username);
+        return result;
+    }
+
     @Override
     public DashboardDatasetList deleteDatasets(String pageUsername, TreeSet<String> idsSet, Boolean deleteMetadata)
             throws IllegalArgumentException {
@@ -537,21 +555,23 @@ public class DashboardServices extends RemoteServiceServlet implements Dashboard
     }
 
     @Override
-    public ADCMessageList getDataMessages(String pageUsername, String datasetId) throws IllegalArgumentException {
+    public ADCMessageQueryResult getDataMessagesPage(String pageUsername, String datasetId, ADCMessageQuery query)
+            throws IllegalArgumentException {
         // Get the dashboard data store and current username, and validate that username
         if ( !validateRequest(pageUsername) )
             throw new IllegalArgumentException("Invalid user request");
 
-        // Get the list of saved automated data checker messages for this dataset
-        ADCMessageList scMsgList;
+        // Get the requested page of saved automated data checker messages for this dataset
+        ADCMessageQueryResult scMsgPage;
         try {
-            scMsgList = configStore.getCheckerMsgHandler().getCheckerMessages(datasetId);
+            scMsgPage = configStore.getCheckerMsgHandler().getCheckerMessagesPage(datasetId, query);
         } catch ( FileNotFoundException ex ) {
             throw new IllegalArgumentException("The automated data checker has never been run on dataset " + datasetId);
         }
-        scMsgList.setUsername(username);
-        itsLogger.info("returned automated data checker messages for " + datasetId + " for " + username);
-        return scMsgList;
+        scMsgPage.setUsername(username);
+        itsLogger.info("returned " + scMsgPage.getMessages().size() + " of " + scMsgPage.getTotalCount() +
+                " automated data checker messages for " + datasetId + " for " + username);
+        return scMsgPage;
     }
 
     @Override
@@ -561,26 +581,39 @@ public class DashboardServices extends RemoteServiceServlet implements Dashboard
         if ( !validateRequest(pageUsername) )
             throw new IllegalArgumentException("Invalid user request");
 
-        // Generate the preview plots for this dataset
-        // TODO: refactor so starts this in a separate thread when firstCall is true and
-        //       returns false, then when gets called again with firstCall is false for
-        //       a status update, returns false if still working and true if all plots are done
+        // Start generating the preview plots for this dataset in the background,
+        // or report whether the plots being generated are done
         if ( firstCall )
-            configStore.getPreviewPlotsHandler().createPreviewPlots(datasetId, timetag);
-        return true;
+            return configStore.getPreviewPlotsHandler().startPreviewPlots(datasetId, timetag);
+        return configStore.getPreviewPlotsHandler().isPreviewPlotsDone(datasetId, timetag);
     }
 
     @Override
-    public void submitDatasetsForQC(String pageUsername, TreeSet<String> idsSet, String archiveStatus,
+    public String submitDatasetsForQC(String pageUsername, TreeSet<String> idsSet, String archiveStatus,
             String timestamp, boolean repeatSend) throws IllegalArgumentException {
         // Get the dashboard data store and current username, and validate that username
         if ( !validateRequest(pageUsername) )
             throw new IllegalArgumentException("Invalid user request");
 
-        // Submit the datasets for QC and possibly send to be archived
-        configStore.getDashboardDatasetSubmitter().submitDatasets(idsSet,
-                archiveStatus, timestamp, repeatSend, username);
-        itsLogger.info("datasets " + idsSet.toString() + " submitted by " + username);
+        // Queue the datasets to be submitted for QC and possibly sent to be archived
+        String jobId;
+        try {
+            jobId = configStore.getSubmitJobQueue().queueSubmit(idsSet,
+                    archiveStatus, timestamp, repeatSend, username);
+        } catch ( IllegalStateException ex ) {
+            throw new IllegalArgumentException(ex.getMessage());
+        }
+        itsLogger.info("datasets " + idsSet.toString() + " queued for submit by " + username + " as job " + jobId);
+        return jobId;
+    }
+
+    @Override
+    public SubmitJobStatus getSubmitJobStatus(String pageUsername, String jobId) throws IllegalArgumentException {
+        // Get the dashboard data store and current username, and validate that username
+        if ( !validateRequest(pageUsername) )
+            throw new IllegalArgumentException("Invalid user request");
+
+        return configStore.getSubmitJobQueue().getJobStatus(jobId, username);
     }
 
     @Override
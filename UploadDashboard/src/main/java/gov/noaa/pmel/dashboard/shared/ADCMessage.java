@@ -7,6 +7,9 @@ import java.io.Serializable;
 
 /**
  * Parts of a automated data checker Message object that needs to be transferred to the client for display.
+ * A message about data values may apply to a run of consecutive data rows, given by the first and last row
+ * numbers, so a problem repeated in many rows (such as an unrecognized unit or values outside the acceptable
+ * range throughout a column) is described by one message rather than one message per row.
  *
  * @author Karl Smith
  */
@@ -16,10 +19,13 @@ public class ADCMessage implements Serializable, IsSerializable {
 
     protected Severity severity;
     protected Integer rowNumber;
+    protected Integer lastRowNumber;
     protected Integer colNumber;
     protected String colName;
     protected String generalComment;
     protected String detailedComment;
+    protected String firstValue;
+    protected String lastValue;
 
     /**
      * Create an empty message of unknown severity
@@ -27,10 +33,13 @@ public class ADCMessage implements Serializable, IsSerializable {
     public ADCMessage() {
         severity = Severity.UNASSIGNED;
         rowNumber = DashboardUtils.INT_MISSING_VALUE;
+        lastRowNumber = DashboardUtils.INT_MISSING_VALUE;
         colNumber = DashboardUtils.INT_MISSING_VALUE;
         colName = DashboardUtils.STRING_MISSING_VALUE;
         generalComment = DashboardUtils.STRING_MISSING_VALUE;
         detailedComment = DashboardUtils.STRING_MISSING_VALUE;
+        firstValue = DashboardUtils.STRING_MISSING_VALUE;
+        lastValue = DashboardUtils.STRING_MISSING_VALUE;
     }
 
     /**
@@ -52,7 +61,8 @@ public class ADCMessage implements Serializable, IsSerializable {
     }
 
     /**
-     * @return the data row number; never null, but may be {@link DashboardUtils#INT_MISSING_VALUE} if not available.
+     * @return the data row number, or the first data row number of a run of rows; never null,
+     *         but may be {@link DashboardUtils#INT_MISSING_VALUE} if not available.
      */
     public Integer getRowNumber() {
         return rowNumber;
@@ -70,6 +80,39 @@ public class ADCMessage implements Serializable, IsSerializable {
             this.rowNumber = rowNumber;
     }
 
+    /**
+     * @return the last data row number of the run of rows for this message; never null.  This is the data row
+     *         number if the message is for a single row, or {@link DashboardUtils#INT_MISSING_VALUE} if the data
+     *         row number is not available.
+     */
+    public Integer getLastRowNumber() {
+        if ( (rowNumber > 0) && (lastRowNumber > rowNumber) )
+            return lastRowNumber;
+        return rowNumber;
+    }
+
+    /**
+     * @param lastRowNumber
+     *         the last data row number of the run of rows for this message to set; if null, invalid (not in
+     *         [1,999999]), or not larger than the data row number, the message is for a single row.
+     */
+    public void setLastRowNumber(Integer lastRowNumber) {
+        if ( (lastRowNumber == null) || (lastRowNumber < 1) || (lastRowNumber > 999999) )
+            this.lastRowNumber = DashboardUtils.INT_MISSING_VALUE;
+        else
+            this.lastRowNumber = lastRowNumber;
+    }
+
+    /**
+     * @return the number of data rows in the run of rows for this message;
+     *         zero if the data row number is not available
+     */
+    public int getNumRows() {
+        if ( rowNumber < 1 )
+            return 0;
+        return getLastRowNumber() - rowNumber + 1;
+    }
+
     /**
      * @return the input data column number; never null but may be
      *         {@link DashboardUtils#INT_MISSING_VALUE} if not available.
@@ -130,10 +173,21 @@ public class ADCMessage implements Serializable, IsSerializable {
     }
 
     /**
-     * @return the automated data checker detailed explanation of the issue; never null,
-     *         but may be {@link DashboardUtils#STRING_MISSING_VALUE} if not available.
+     * @return the automated data checker detailed explanation of the issue; never null.  If a detailed explanation
+     *         was not given for a message about a run of rows, one is formatted from the general explanation, the
+     *         row numbers, and the first and last values of the run.  Otherwise may be
+     *         {@link DashboardUtils#STRING_MISSING_VALUE} if not available.
      */
     public String getDetailedComment() {
+        if ( DashboardUtils.STRING_MISSING_VALUE.equals(detailedComment) && (getNumRows() > 1) &&
+                !DashboardUtils.STRING_MISSING_VALUE.equals(generalComment) ) {
+            String comment = generalComment + " in rows " + rowNumber + " through " + lastRowNumber;
+            if ( !DashboardUtils.STRING_MISSING_VALUE.equals(firstValue) )
+                comment += "; first value \"" + firstValue + "\"";
+            if ( !DashboardUtils.STRING_MISSING_VALUE.equals(lastValue) )
+                comment += "; last value \"" + lastValue + "\"";
+            return comment;
+        }
         return detailedComment;
     }
 
@@ -149,15 +203,58 @@ public class ADCMessage implements Serializable, IsSerializable {
             this.detailedComment = detailedComment;
     }
 
+    /**
+     * @return the offending data value of the first data row of the run of rows for this message; never null,
+     *         but may be {@link DashboardUtils#STRING_MISSING_VALUE} if not available.
+     */
+    public String getFirstValue() {
+        return firstValue;
+    }
+
+    /**
+     * @param firstValue
+     *         the offending data value of the first data row of the run of rows for this message to set;
+     *         if null, {@link DashboardUtils#STRING_MISSING_VALUE} is assigned.
+     */
+    public void setFirstValue(String firstValue) {
+        if ( firstValue == null )
+            this.firstValue = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.firstValue = firstValue;
+    }
+
+    /**
+     * @return the offending data value of the last data row of the run of rows for this message; never null,
+     *         but may be {@link DashboardUtils#STRING_MISSING_VALUE} if not available.
+     */
+    public String getLastValue() {
+        return lastValue;
+    }
+
+    /**
+     * @param lastValue
+     *         the offending data value of the last data row of the run of rows for this message to set;
+     *         if null, {@link DashboardUtils#STRING_MISSING_VALUE} is assigned.
+     */
+    public void setLastValue(String lastValue) {
+        if ( lastValue == null )
+            this.lastValue = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.lastValue = lastValue;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 37;
         int result = severity.hashCode();
         result = result * prime + rowNumber.hashCode();
+        result = result * prime + getLastRowNumber().hashCode();
         result = result * prime + colNumber.hashCode();
         result = result * prime + colName.hashCode();
         result = result * prime + generalComment.hashCode();
         result = result * prime + detailedComment.hashCode();
+        result = result * prime + firstValue.hashCode();
+        result = result * prime + lastValue.hashCode();
         // Do not use floating point values for the hash code
         // since they do not have to be exactly equal
         return result;
@@ -178,6 +275,8 @@ public class ADCMessage implements Serializable, IsSerializable {
             return false;
         if ( !rowNumber.equals(other.rowNumber) )
             return false;
+        if ( !getLastRowNumber().equals(other.getLastRowNumber()) )
+            return false;
         if ( !colNumber.equals(other.colNumber) )
             return false;
         if ( !colName.equals(other.colName) )
@@ -186,6 +285,10 @@ public class ADCMessage implements Serializable, IsSerializable {
             return false;
         if ( !detailedComment.equals(other.detailedComment) )
             return false;
+        if ( !firstValue.equals(other.firstValue) )
+            return false;
+        if ( !lastValue.equals(other.lastValue) )
+            return false;
 
         return true;
     }
@@ -194,10 +297,13 @@ public class ADCMessage implements Serializable, IsSerializable {
     public String toString() {
         return "ADCMessage[severity=" + severity.toString() +
                 ", rowNumber=" + rowNumber.toString() +
+                ", lastRowNumber=" + getLastRowNumber().toString() +
                 ", colNumber=" + colNumber.toString() +
                 ", colName=" + colName +
                 ", generalComment=" + generalComment +
-                ", detailedComment=" + detailedComment + "]";
+                ", detailedComment=" + detailedComment +
+                ", firstValue=" + firstValue +
+                ", lastValue=" + lastValue + "]";
     }
 
 }
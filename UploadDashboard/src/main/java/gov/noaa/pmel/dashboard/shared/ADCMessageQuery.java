@@ -0,0 +1,348 @@
+/**
+ *
+ */
+package gov.noaa.pmel.dashboard.shared;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+import gov.noaa.pmel.dashboard.shared.DataQCFlag.Severity;
+
+import java.io.Serializable;
+
+/**
+ * Request for one page of the automated data checker messages for a dataset: the range of messages to return,
+ * how the messages are sorted, and which messages are included.
+ */
+public class ADCMessageQuery implements Serializable, IsSerializable {
+
+    private static final long serialVersionUID = -3361520978542076180L;
+
+    /**
+     * Sort by severity
+     */
+    public static final String SORT_SEVERITY = "severity";
+    /**
+     * Sort by data column number
+     */
+    public static final String SORT_COLUMN_NUMBER = "colNumber";
+    /**
+     * Sort by data row number
+     */
+    public static final String SORT_ROW_NUMBER = "rowNumber";
+
+    /**
+     * Messages of any severity
+     */
+    public static final String SEVERITY_ANY = "any";
+    /**
+     * Messages of {@link Severity#ERROR} or {@link Severity#CRITICAL} severity
+     */
+    public static final String SEVERITY_ERRORS = "errors";
+    /**
+     * Messages of {@link Severity#WARNING} severity
+     */
+    public static final String SEVERITY_WARNINGS = "warnings";
+
+    protected int offset;
+    protected int limit;
+    protected String sortColumn;
+    protected boolean sortAscending;
+    protected String severityFilter;
+    protected Integer colNumberFilter;
+    protected Integer minRowNumber;
+    protected Integer maxRowNumber;
+
+    /**
+     * Creates a query for all messages, sorted by severity, then column number, and then row number.
+     */
+    public ADCMessageQuery() {
+        offset = 0;
+        limit = -1;
+        sortColumn = SORT_SEVERITY;
+        sortAscending = true;
+        severityFilter = SEVERITY_ANY;
+        colNumberFilter = DashboardUtils.INT_MISSING_VALUE;
+        minRowNumber = DashboardUtils.INT_MISSING_VALUE;
+        maxRowNumber = DashboardUtils.INT_MISSING_VALUE;
+    }
+
+    /**
+     * Checks if a message severity is included by a severity filter.
+     *
+     * @param severity
+     *         severity to check
+     * @param filter
+     *         one of {@link #SEVERITY_ANY}, {@link #SEVERITY_ERRORS}, or {@link #SEVERITY_WARNINGS}
+     *
+     * @return if the severity is included by the filter
+     *
+     * @throws IllegalArgumentException
+     *         if the filter is not recognized
+     */
+    public static boolean hasSeverity(Severity severity, String filter) throws IllegalArgumentException {
+        if ( SEVERITY_ANY.equals(filter) )
+            return true;
+        if ( SEVERITY_ERRORS.equals(filter) )
+            return Severity.ERROR.equals(severity) || Severity.CRITICAL.equals(severity);
+        if ( SEVERITY_WARNINGS.equals(filter) )
+            return Severity.WARNING.equals(severity);
+        throw new IllegalArgumentException("Unknown message severity filter " + filter);
+    }
+
+    /**
+     * Checks if a message is included by the severity, column number, and row number filters of this query.
+     *
+     * @param severity
+     *         severity of the message
+     * @param colNumber
+     *         data column number of the message, or {@link DashboardUtils#INT_MISSING_VALUE} if not given
+     * @param rowNumber
+     *         data row number of the message, or {@link DashboardUtils#INT_MISSING_VALUE} if not given
+     *
+     * @return if the message is included
+     *
+     * @throws IllegalArgumentException
+     *         if the severity filter is not recognized
+     */
+    public boolean matches(Severity severity, int colNumber, int rowNumber) throws IllegalArgumentException {
+        return matches(severity, colNumber, rowNumber, rowNumber);
+    }
+
+    /**
+     * Checks if a message for a run of data rows is included by the severity, column number, and row number filters
+     * of this query.  The message is included by the row number filters if any row of the run is within the rows
+     * of the filters.
+     *
+     * @param severity
+     *         severity of the message
+     * @param colNumber
+     *         data column number of the message, or {@link DashboardUtils#INT_MISSING_VALUE} if not given
+     * @param rowNumber
+     *         first data row number of the message, or {@link DashboardUtils#INT_MISSING_VALUE} if not given
+     * @param lastRowNumber
+     *         last data row number of the message, or {@link DashboardUtils#INT_MISSING_VALUE} if not given
+     *
+     * @return if the message is included
+     *
+     * @throws IllegalArgumentException
+     *         if the severity filter is not recognized
+     */
+    public boolean matches(Severity severity, int colNumber, int rowNumber, int lastRowNumber)
+            throws IllegalArgumentException {
+        if ( !hasSeverity(severity, severityFilter) )
+            return false;
+        if ( !DashboardUtils.INT_MISSING_VALUE.equals(colNumberFilter) && (colNumberFilter != colNumber) )
+            return false;
+        if ( !DashboardUtils.INT_MISSING_VALUE.equals(minRowNumber) &&
+                (DashboardUtils.INT_MISSING_VALUE.equals(lastRowNumber) || (lastRowNumber < minRowNumber)) )
+            return false;
+        if ( !DashboardUtils.INT_MISSING_VALUE.equals(maxRowNumber) &&
+                (DashboardUtils.INT_MISSING_VALUE.equals(rowNumber) || (rowNumber > maxRowNumber)) )
+            return false;
+        return true;
+    }
+
+    /**
+     * @return the index, in the sorted and filtered messages, of the first message to return
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @param offset
+     *         the index of the first message to return; if negative, zero is assigned
+     */
+    public void setOffset(int offset) {
+        if ( offset < 0 )
+            this.offset = 0;
+        else
+            this.offset = offset;
+    }
+
+    /**
+     * @return the maximum number of messages to return; if negative, all remaining messages are returned
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param limit
+     *         the maximum number of messages to return; if negative, all remaining messages are returned
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * @return the SORT_ value naming what the messages are primarily sorted by; never null.
+     *         Messages are then sorted by severity, column number, and row number.
+     */
+    public String getSortColumn() {
+        return sortColumn;
+    }
+
+    /**
+     * @param sortColumn
+     *         the SORT_ value naming what the messages are primarily sorted by;
+     *         if null, {@link #SORT_SEVERITY} is assigned
+     */
+    public void setSortColumn(String sortColumn) {
+        if ( sortColumn == null )
+            this.sortColumn = SORT_SEVERITY;
+        else
+            this.sortColumn = sortColumn;
+    }
+
+    /**
+     * @return if the messages are sorted in ascending order
+     */
+    public boolean isSortAscending() {
+        return sortAscending;
+    }
+
+    /**
+     * @param sortAscending
+     *         sort the messages in ascending order?
+     */
+    public void setSortAscending(boolean sortAscending) {
+        this.sortAscending = sortAscending;
+    }
+
+    /**
+     * @return the SEVERITY_ value of the messages to include; never null
+     */
+    public String getSeverityFilter() {
+        return severityFilter;
+    }
+
+    /**
+     * @param severityFilter
+     *         the SEVERITY_ value of the messages to include; if null, {@link #SEVERITY_ANY} is assigned
+     */
+    public void setSeverityFilter(String severityFilter) {
+        if ( severityFilter == null )
+            this.severityFilter = SEVERITY_ANY;
+        else
+            this.severityFilter = severityFilter;
+    }
+
+    /**
+     * @return the data column number of the messages to include; never null,
+     *         but may be {@link DashboardUtils#INT_MISSING_VALUE} to include messages for any column
+     */
+    public Integer getColNumberFilter() {
+        return colNumberFilter;
+    }
+
+    /**
+     * @param colNumberFilter
+     *         the data column number of the messages to include;
+     *         if null, {@link DashboardUtils#INT_MISSING_VALUE} is assigned
+     */
+    public void setColNumberFilter(Integer colNumberFilter) {
+        if ( colNumberFilter == null )
+            this.colNumberFilter = DashboardUtils.INT_MISSING_VALUE;
+        else
+            this.colNumberFilter = colNumberFilter;
+    }
+
+    /**
+     * @return the smallest data row number of the messages to include; never null,
+     *         but may be {@link DashboardUtils#INT_MISSING_VALUE} if there is no lower limit
+     */
+    public Integer getMinRowNumber() {
+        return minRowNumber;
+    }
+
+    /**
+     * @param minRowNumber
+     *         the smallest data row number of the messages to include;
+     *         if null, {@link DashboardUtils#INT_MISSING_VALUE} is assigned
+     */
+    public void setMinRowNumber(Integer minRowNumber) {
+        if ( minRowNumber == null )
+            this.minRowNumber = DashboardUtils.INT_MISSING_VALUE;
+        else
+            this.minRowNumber = minRowNumber;
+    }
+
+    /**
+     * @return the largest data row number of the messages to include; never null,
+     *         but may be {@link DashboardUtils#INT_MISSING_VALUE} if there is no upper limit
+     */
+    public Integer getMaxRowNumber() {
+        return maxRowNumber;
+    }
+
+    /**
+     * @param maxRowNumber
+     *         the largest data row number of the messages to include;
+     *         if null, {@link DashboardUtils#INT_MISSING_VALUE} is assigned
+     */
+    public void setMaxRowNumber(Integer maxRowNumber) {
+        if ( maxRowNumber == null )
+            this.maxRowNumber = DashboardUtils.INT_MISSING_VALUE;
+        else
+            this.maxRowNumber = maxRowNumber;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 37;
+        int result = offset;
+        result = result * prime + limit;
+        result = result * prime + sortColumn.hashCode();
+        result = result * prime + Boolean.valueOf(sortAscending).hashCode();
+        result = result * prime + severityFilter.hashCode();
+        result = result * prime + colNumberFilter.hashCode();
+        result = result * prime + minRowNumber.hashCode();
+        result = result * prime + maxRowNumber.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj )
+            return true;
+        if ( obj == null )
+            return false;
+
+        if ( !(obj instanceof ADCMessageQuery) )
+            return false;
+        ADCMessageQuery other = (ADCMessageQuery) obj;
+
+        if ( offset != other.offset )
+            return false;
+        if ( limit != other.limit )
+            return false;
+        if ( sortAscending != other.sortAscending )
+            return false;
+        if ( !sortColumn.equals(other.sortColumn) )
+            return false;
+        if ( !severityFilter.equals(other.severityFilter) )
+            return false;
+        if ( !colNumberFilter.equals(other.colNumberFilter) )
+            return false;
+        if ( !minRowNumber.equals(other.minRowNumber) )
+            return false;
+        if ( !maxRowNumber.equals(other.maxRowNumber) )
+            return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ADCMessageQuery" +
+                "[\n    offset=" + offset +
+                ",\n    limit=" + limit +
+                ",\n    sortColumn=" + sortColumn +
+                ",\n    sortAscending=" + sortAscending +
+                ",\n    severityFilter=" + severityFilter +
+                ",\n    colNumberFilter=" + colNumberFilter +
+                ",\n    minRowNumber=" + minRowNumber +
+                ",\n    maxRowNumber=" + maxRowNumber +
+                " \n]";
+    }
+
+}
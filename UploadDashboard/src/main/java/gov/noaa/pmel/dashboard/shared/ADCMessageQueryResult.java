@@ -0,0 +1,215 @@
+/**
+ *
+ */
+package gov.noaa.pmel.dashboard.shared;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * One page of the automated data checker messages for a dataset as requested by an {@link ADCMessageQuery},
+ * along with the number of messages included by the query and summary information about all the messages.
+ */
+public class ADCMessageQueryResult implements Serializable, IsSerializable {
+
+    private static final long serialVersionUID = 2876315403391547724L;
+
+    protected String username;
+    protected String datasetId;
+    protected ArrayList<String> summaries;
+    protected int numErrors;
+    protected int numWarnings;
+    protected int totalCount;
+    protected ArrayList<ADCMessage> messages;
+
+    /**
+     * Creates an empty result without a user or dataset
+     */
+    public ADCMessageQueryResult() {
+        username = DashboardUtils.STRING_MISSING_VALUE;
+        datasetId = DashboardUtils.STRING_MISSING_VALUE;
+        summaries = new ArrayList<String>();
+        numErrors = 0;
+        numWarnings = 0;
+        totalCount = 0;
+        messages = new ArrayList<ADCMessage>();
+    }
+
+    /**
+     * @return the username; never null, but may be {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @param username
+     *         the username to set; if null, {@link DashboardUtils#STRING_MISSING_VALUE} is assigned
+     */
+    public void setUsername(String username) {
+        if ( username == null )
+            this.username = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.username = username;
+    }
+
+    /**
+     * @return the dataset ID; never null, but may be {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    public String getDatasetId() {
+        return datasetId;
+    }
+
+    /**
+     * @param datasetId
+     *         the dataset to set; if null, {@link DashboardUtils#STRING_MISSING_VALUE} is assigned
+     */
+    public void setDatasetId(String datasetId) {
+        if ( datasetId == null )
+            this.datasetId = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.datasetId = datasetId;
+    }
+
+    /**
+     * @return the summary messages for all the messages; never null but may be empty.
+     *         The actual list contained in this object is returned.
+     */
+    public ArrayList<String> getSummaries() {
+        return summaries;
+    }
+
+    /**
+     * @param summaries
+     *         the summary messages to assign.  The current list of summary messages is cleared,
+     *         and then the contents of this list, if not null, are added to the list.
+     */
+    public void setSummaries(ArrayList<String> summaries) {
+        this.summaries.clear();
+        if ( summaries != null )
+            this.summaries.addAll(summaries);
+    }
+
+    /**
+     * @return the number of error and critical messages for the dataset, regardless of the query filters;
+     *         a message for a run of data rows counts once for each row
+     */
+    public int getNumErrors() {
+        return numErrors;
+    }
+
+    /**
+     * @param numErrors
+     *         the number of error and critical messages for the dataset, counting each row of a run, to set
+     */
+    public void setNumErrors(int numErrors) {
+        this.numErrors = numErrors;
+    }
+
+    /**
+     * @return the number of warning messages for the dataset, regardless of the query filters;
+     *         a message for a run of data rows counts once for each row
+     */
+    public int getNumWarnings() {
+        return numWarnings;
+    }
+
+    /**
+     * @param numWarnings
+     *         the number of warning messages for the dataset, counting each row of a run, to set
+     */
+    public void setNumWarnings(int numWarnings) {
+        this.numWarnings = numWarnings;
+    }
+
+    /**
+     * @return the number of messages included by the query filters
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @param totalCount
+     *         the number of messages included by the query filters
+     */
+    public void setTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * @return the requested page of sorted messages; never null but may be empty.
+     *         The actual list contained in this object is returned.
+     */
+    public ArrayList<ADCMessage> getMessages() {
+        return messages;
+    }
+
+    /**
+     * @param messages
+     *         the page of sorted messages to assign.  The current list of messages is cleared,
+     *         and then the contents of this list, if not null, are added to the list.
+     */
+    public void setMessages(ArrayList<ADCMessage> messages) {
+        this.messages.clear();
+        if ( messages != null )
+            this.messages.addAll(messages);
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 37;
+        int result = username.hashCode();
+        result = result * prime + datasetId.hashCode();
+        result = result * prime + summaries.hashCode();
+        result = result * prime + numErrors;
+        result = result * prime + numWarnings;
+        result = result * prime + totalCount;
+        result = result * prime + messages.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj )
+            return true;
+        if ( obj == null )
+            return false;
+
+        if ( !(obj instanceof ADCMessageQueryResult) )
+            return false;
+        ADCMessageQueryResult other = (ADCMessageQueryResult) obj;
+
+        if ( numErrors != other.numErrors )
+            return false;
+        if ( numWarnings != other.numWarnings )
+            return false;
+        if ( totalCount != other.totalCount )
+            return false;
+        if ( !username.equals(other.username) )
+            return false;
+        if ( !datasetId.equals(other.datasetId) )
+            return false;
+        if ( !summaries.equals(other.summaries) )
+            return false;
+        if ( !messages.equals(other.messages) )
+            return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ADCMessageQueryResult" +
+                "[\n    username=" + username +
+                ",\n    datasetId=" + datasetId +
+                ",\n    summaries=" + summaries.toString() +
+                ",\n    numErrors=" + numErrors +
+                ",\n    numWarnings=" + numWarnings +
+                ",\n    totalCount=" + totalCount +
+                ",\n    messages=" + messages.toString() +
+                " \n]";
+    }
+
+}
@@ -32,6 +32,20 @@ public interface DashboardServicesInterface extends RemoteService {
      */
     DashboardDatasetList getDatasetList() throws IllegalArgumentException;
 
+    /**
+     * Gets one page of the current user's sorted and filtered list of datasets, along with the IDs of the selected
+     * datasets.
+     *
+     * @param query
+     *         the page, sorting, filtering, and selection of datasets to return
+     *
+     * @return the requested page of datasets and the IDs of the selected datasets
+     *
+     * @throws IllegalArgumentException
+     *         if problems getting the cruise list, or if the query is invalid
+     */
+    DatasetListQueryResult getDatasetListPage(DatasetListQuery query) throws IllegalArgumentException;
+
     /**
      * Deletes all files for the indicated datasets.
      *
@@ -225,20 +239,24 @@ public interface DashboardServicesInterface extends RemoteService {
     void updateDataColumns(String username, ArrayList<String> datasetIds) throws IllegalArgumentException;
 
     /**
-     * Returns the set of sanity checker data messages for a given dataset.
+     * Returns one page of the sanity checker data messages for a given dataset.
      *
      * @param username
      *         name of the current user - for validation
      * @param datasetId
      *         get data messages for this dataset
+     * @param query
+     *         which data messages to return, and how they are sorted
      *
-     * @return list of data messages for the dataset; never null, but may be empty if the automated data checker did not
-     *         generate any data messages.
+     * @return the page of data messages for the dataset, with the number of messages included by the query and the
+     *         summary messages and counts for the dataset; never null, but the page may be empty if the automated data
+     *         checker did not generate any data messages.
      *
      * @throws IllegalArgumentException
-     *         if the dataset ID is invalid, or if the automated data checker has never been run on this cruise.
+     *         if the dataset ID or query is invalid, or if the automated data checker has never been run on this cruise.
      */
-    ADCMessageList getDataMessages(String username, String datasetId) throws IllegalArgumentException;
+    ADCMessageQueryResult getDataMessagesPage(String username, String datasetId, ADCMessageQuery query)
+            throws IllegalArgumentException;
 
     /**
      * Requests that the preview images for a dataset be generated.
@@ -254,7 +272,8 @@ public interface DashboardServicesInterface extends RemoteService {
      *         is this the first request for the preview images? If true, the process to generate the images are
      *         started. If false, just checks if all the images have been created.
      *
-     * @return true if all the images have been created
+     * @return true if all the images have been created; on the first request, true only if the images from an
+     *         earlier request for unchanged data were reused
      *
      * @throws IllegalArgumentException
      *         if the dataset ID is invalid, or
@@ -264,7 +283,8 @@ public interface DashboardServicesInterface extends RemoteService {
             throws IllegalArgumentException;
 
     /**
-     * Submits datasets named in the given listing for QC.
+     * Queues the datasets named in the given listing to be submitted for QC.  The datasets are submitted in the
+     * background; the progress of the submission is obtained using {@link #getSubmitJobStatus(String, String)}.
      *
      * @param username
      *         name of user making this request - for validation
@@ -277,14 +297,32 @@ public interface DashboardServicesInterface extends RemoteService {
      * @param repeatSend
      *         if the archive request is to send for immediate archival, should datasets already sent be sent again?
      *
+     * @return the ID of the submit job
+     *
      * @throws IllegalArgumentException
      *         if authentication failed,
-     *         if the dataset does not exist for any of the given IDs, or
-     *         if submitting a dataset fails
+     *         if no dataset IDs are given, or
+     *         if the submission could not be queued
      */
-    void submitDatasetsForQC(String username, TreeSet<String> datasetIds, String archiveStatus,
+    String submitDatasetsForQC(String username, TreeSet<String> datasetIds, String archiveStatus,
             String localTimestamp, boolean repeatSend) throws IllegalArgumentException;
 
+    /**
+     * Returns the progress of a job submitting datasets for QC.
+     *
+     * @param username
+     *         name of user making this request - for validation; must be the user that queued the submit job
+     * @param jobId
+     *         ID of the submit job
+     *
+     * @return the current status of the submit job
+     *
+     * @throws IllegalArgumentException
+     *         if authentication failed, or
+     *         if the submit job is not known for this user
+     */
+    SubmitJobStatus getSubmitJobStatus(String username, String jobId) throws IllegalArgumentException;
+
     /**
      * Suspends datasets from QC.
      *
@@ -31,6 +31,16 @@ public interface DashboardServicesInterfaceAsync {
      */
     void getDatasetList(AsyncCallback<DashboardDatasetList> callback);
 
+    /**
+     * Client side request to get one page of the current user's sorted and filtered list of cruises.
+     *
+     * @param query
+     *         the page, sorting, filtering, and selection of cruises to return
+     * @param callback
+     *         the callback to make with the page of cruises and the IDs of the selected cruises.
+     */
+    void getDatasetListPage(DatasetListQuery query, AsyncCallback<DatasetListQueryResult> callback);
+
     /**
      * Client side request to deletes all files for the indicated cruises.
      *
@@ -210,10 +220,13 @@ public interface DashboardServicesInterfaceAsync {
      *         name of the current user - for validation
      * @param datasetId
      *         get data messages for this dataset
+     * @param query
+     *         which data messages to return, and how they are sorted
      * @param callback
-     *         the callback to make with list of sanity checker data messages
+     *         the callback to make with the page of sanity checker data messages
      */
-    void getDataMessages(String username, String datasetId, AsyncCallback<ADCMessageList> callback);
+    void getDataMessagesPage(String username, String datasetId, ADCMessageQuery query,
+            AsyncCallback<ADCMessageQueryResult> callback);
 
     /**
      * Client side request to generate the preview images for a dataset.
@@ -248,12 +261,25 @@ public interface DashboardServicesInterfaceAsync {
      * @param repeatSend
      *         if the archive request is to send for immediate archival, should datasets already sent be sent again?
      * @param callback
-     *         the callback to make when complete; the onFailure method of the callback will be called if authentication
-     *         failed, if a dataset does not exist for any of the IDs, or if the submitting of a dataset or change in
-     *         archive status failed.
+     *         the callback to make with the ID of the submit job once the datasets are queued for submission;
+     *         the onFailure method of the callback will be called if authentication failed, if no dataset IDs
+     *         are given, or if the submission could not be queued.
      */
     void submitDatasetsForQC(String username, TreeSet<String> datasetIds, String archiveStatus,
-            String localTimestamp, boolean repeatSend, AsyncCallback<Void> callback);
+            String localTimestamp, boolean repeatSend, AsyncCallback<String> callback);
+
+    /**
+     * Client-side interface for getting the progress of a job submitting datasets for QC.
+     *
+     * @param username
+     *         name of user making this request - for validation; must be the user that queued the submit job
+     * @param jobId
+     *         ID of the submit job
+     * @param callback
+     *         the callback to make with the current status of the submit job; the onFailure method of the callback
+     *         will be called if authentication failed or if the submit job is not known for this user.
+     */
+    void getSubmitJobStatus(String username, String jobId, AsyncCallback<SubmitJobStatus> callback);
 
     /**
      * Client-side interface for suspending datasets from QC.
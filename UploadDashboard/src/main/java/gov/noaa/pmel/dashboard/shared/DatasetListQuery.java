@@ -0,0 +1,375 @@
+/**
+ *
+ */
+package gov.noaa.pmel.dashboard.shared;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+import java.io.Serializable;
+import java.util.TreeSet;
+
+/**
+ * Request for one page of the datasets in a user's dataset list: the range of datasets to return, how the datasets
+ * are sorted, which datasets are included, and which datasets are selected.
+ */
+public class DatasetListQuery implements Serializable, IsSerializable {
+
+    private static final long serialVersionUID = 4518296077310529114L;
+
+    /**
+     * Sort by dataset ID
+     */
+    public static final String SORT_DATASET_ID = "datasetId";
+    /**
+     * Sort by upload timestamp
+     */
+    public static final String SORT_TIMESTAMP = "uploadTimestamp";
+    /**
+     * Sort by data check status
+     */
+    public static final String SORT_DATA_CHECK = "dataCheckStatus";
+    /**
+     * Sort by OME metadata timestamp
+     */
+    public static final String SORT_OME_METADATA = "omeTimestamp";
+    /**
+     * Sort by additional documents
+     */
+    public static final String SORT_ADDL_DOCS = "addlDocs";
+    /**
+     * Sort by version
+     */
+    public static final String SORT_VERSION = "version";
+    /**
+     * Sort by QC submission status
+     */
+    public static final String SORT_SUBMIT_STATUS = "submitStatus";
+    /**
+     * Sort by archive status
+     */
+    public static final String SORT_ARCHIVE_STATUS = "archiveStatus";
+    /**
+     * Sort by upload filename
+     */
+    public static final String SORT_FILENAME = "uploadFilename";
+    /**
+     * Sort by owner
+     */
+    public static final String SORT_OWNER = "owner";
+
+    /**
+     * Status of any dataset
+     */
+    public static final String STATUS_ANY = "any";
+    /**
+     * Status of a dataset that can be modified ({@link DashboardDataset#isEditable()} is true)
+     */
+    public static final String STATUS_EDITABLE = "editable";
+    /**
+     * Status of a dataset submitted for QC ({@link DashboardDataset#isEditable()} is false)
+     */
+    public static final String STATUS_SUBMITTED = "submitted";
+    /**
+     * Status of a dataset published in a previous version ({@link DashboardDataset#isEditable()} is null)
+     */
+    public static final String STATUS_PUBLISHED = "published";
+
+    protected int offset;
+    protected int limit;
+    protected String sortColumn;
+    protected boolean sortAscending;
+    protected String statusFilter;
+    protected String ownerFilter;
+    protected String versionFilter;
+    protected TreeSet<String> selectedIds;
+    protected String selectStatus;
+
+    /**
+     * Creates a query for all datasets, most recently uploaded first, without any selected datasets.
+     */
+    public DatasetListQuery() {
+        offset = 0;
+        limit = -1;
+        sortColumn = SORT_TIMESTAMP;
+        sortAscending = false;
+        statusFilter = STATUS_ANY;
+        ownerFilter = DashboardUtils.STRING_MISSING_VALUE;
+        versionFilter = DashboardUtils.STRING_MISSING_VALUE;
+        selectedIds = new TreeSet<String>();
+        selectStatus = DashboardUtils.STRING_MISSING_VALUE;
+    }
+
+    /**
+     * Checks if a dataset has the given status.
+     *
+     * @param dataset
+     *         dataset to check
+     * @param status
+     *         one of {@link #STATUS_ANY}, {@link #STATUS_EDITABLE}, {@link #STATUS_SUBMITTED},
+     *         or {@link #STATUS_PUBLISHED}
+     *
+     * @return if the dataset has the given status
+     *
+     * @throws IllegalArgumentException
+     *         if the status is not recognized
+     */
+    public static boolean hasStatus(DashboardDataset dataset, String status) throws IllegalArgumentException {
+        if ( STATUS_ANY.equals(status) )
+            return true;
+        Boolean editable = dataset.isEditable();
+        if ( STATUS_EDITABLE.equals(status) )
+            return Boolean.TRUE.equals(editable);
+        if ( STATUS_SUBMITTED.equals(status) )
+            return Boolean.FALSE.equals(editable);
+        if ( STATUS_PUBLISHED.equals(status) )
+            return editable == null;
+        throw new IllegalArgumentException("Unknown dataset status " + status);
+    }
+
+    /**
+     * Checks if a dataset is included by the status, owner, and version filters of this query.
+     *
+     * @param dataset
+     *         dataset to check
+     *
+     * @return if the dataset is included
+     *
+     * @throws IllegalArgumentException
+     *         if the status filter is not recognized
+     */
+    public boolean matches(DashboardDataset dataset) throws IllegalArgumentException {
+        if ( !hasStatus(dataset, statusFilter) )
+            return false;
+        if ( !ownerFilter.isEmpty() && !ownerFilter.equals(dataset.getOwner()) )
+            return false;
+        if ( !versionFilter.isEmpty() && !versionFilter.equals(dataset.getVersion()) )
+            return false;
+        return true;
+    }
+
+    /**
+     * @return the index, in the sorted and filtered dataset list, of the first dataset to return
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @param offset
+     *         the index of the first dataset to return; if negative, zero is assigned
+     */
+    public void setOffset(int offset) {
+        if ( offset < 0 )
+            this.offset = 0;
+        else
+            this.offset = offset;
+    }
+
+    /**
+     * @return the maximum number of datasets to return; if negative, all remaining datasets are returned
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param limit
+     *         the maximum number of datasets to return; if negative, all remaining datasets are returned
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * @return the SORT_ value naming what the datasets are sorted by; never null
+     */
+    public String getSortColumn() {
+        return sortColumn;
+    }
+
+    /**
+     * @param sortColumn
+     *         the SORT_ value naming what the datasets are sorted by; if null, {@link #SORT_TIMESTAMP} is assigned
+     */
+    public void setSortColumn(String sortColumn) {
+        if ( sortColumn == null )
+            this.sortColumn = SORT_TIMESTAMP;
+        else
+            this.sortColumn = sortColumn;
+    }
+
+    /**
+     * @return if the datasets are sorted in ascending order
+     */
+    public boolean isSortAscending() {
+        return sortAscending;
+    }
+
+    /**
+     * @param sortAscending
+     *         sort the datasets in ascending order?
+     */
+    public void setSortAscending(boolean sortAscending) {
+        this.sortAscending = sortAscending;
+    }
+
+    /**
+     * @return the STATUS_ value of the datasets to include; never null
+     */
+    public String getStatusFilter() {
+        return statusFilter;
+    }
+
+    /**
+     * @param statusFilter
+     *         the STATUS_ value of the datasets to include; if null, {@link #STATUS_ANY} is assigned
+     */
+    public void setStatusFilter(String statusFilter) {
+        if ( statusFilter == null )
+            this.statusFilter = STATUS_ANY;
+        else
+            this.statusFilter = statusFilter;
+    }
+
+    /**
+     * @return the owner of the datasets to include;
+     *         never null, but may be {@link DashboardUtils#STRING_MISSING_VALUE} to include datasets of any owner
+     */
+    public String getOwnerFilter() {
+        return ownerFilter;
+    }
+
+    /**
+     * @param ownerFilter
+     *         the owner (after trimming) of the datasets to include;
+     *         if null, {@link DashboardUtils#STRING_MISSING_VALUE} is assigned
+     */
+    public void setOwnerFilter(String ownerFilter) {
+        if ( ownerFilter == null )
+            this.ownerFilter = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.ownerFilter = ownerFilter.trim();
+    }
+
+    /**
+     * @return the version of the datasets to include;
+     *         never null, but may be {@link DashboardUtils#STRING_MISSING_VALUE} to include datasets of any version
+     */
+    public String getVersionFilter() {
+        return versionFilter;
+    }
+
+    /**
+     * @param versionFilter
+     *         the version (after trimming) of the datasets to include;
+     *         if null, {@link DashboardUtils#STRING_MISSING_VALUE} is assigned
+     */
+    public void setVersionFilter(String versionFilter) {
+        if ( versionFilter == null )
+            this.versionFilter = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.versionFilter = versionFilter.trim();
+    }
+
+    /**
+     * @return the IDs of the currently selected datasets; never null but may be empty.
+     *         The actual set contained in this object is returned.
+     */
+    public TreeSet<String> getSelectedIds() {
+        return selectedIds;
+    }
+
+    /**
+     * @param selectedIds
+     *         the IDs of the currently selected datasets.  The current set of IDs is cleared,
+     *         and then the contents of this set, if not null, are added to the set.
+     */
+    public void setSelectedIds(TreeSet<String> selectedIds) {
+        this.selectedIds.clear();
+        if ( selectedIds != null )
+            this.selectedIds.addAll(selectedIds);
+    }
+
+    /**
+     * @return the STATUS_ value of all the datasets in the list to select instead of the currently selected datasets;
+     *         never null, but may be {@link DashboardUtils#STRING_MISSING_VALUE} to keep the selected datasets
+     */
+    public String getSelectStatus() {
+        return selectStatus;
+    }
+
+    /**
+     * @param selectStatus
+     *         the STATUS_ value of all the datasets in the list to select instead of the currently selected datasets;
+     *         if null, {@link DashboardUtils#STRING_MISSING_VALUE} is assigned
+     */
+    public void setSelectStatus(String selectStatus) {
+        if ( selectStatus == null )
+            this.selectStatus = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.selectStatus = selectStatus;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 37;
+        int result = offset;
+        result = result * prime + limit;
+        result = result * prime + sortColumn.hashCode();
+        result = result * prime + Boolean.valueOf(sortAscending).hashCode();
+        result = result * prime + statusFilter.hashCode();
+        result = result * prime + ownerFilter.hashCode();
+        result = result * prime + versionFilter.hashCode();
+        result = result * prime + selectedIds.hashCode();
+        result = result * prime + selectStatus.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj )
+            return true;
+        if ( obj == null )
+            return false;
+
+        if ( !(obj instanceof DatasetListQuery) )
+            return false;
+        DatasetListQuery other = (DatasetListQuery) obj;
+
+        if ( offset != other.offset )
+            return false;
+        if ( limit != other.limit )
+            return false;
+        if ( sortAscending != other.sortAscending )
+            return false;
+        if ( !sortColumn.equals(other.sortColumn) )
+            return false;
+        if ( !statusFilter.equals(other.statusFilter) )
+            return false;
+        if ( !ownerFilter.equals(other.ownerFilter) )
+            return false;
+        if ( !versionFilter.equals(other.versionFilter) )
+            return false;
+        if ( !selectedIds.equals(other.selectedIds) )
+            return false;
+        if ( !selectStatus.equals(other.selectStatus) )
+            return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "DatasetListQuery" +
+                "[\n    offset=" + offset +
+                ",\n    limit=" + limit +
+                ",\n    sortColumn=" + sortColumn +
+                ",\n    sortAscending=" + sortAscending +
+                ",\n    statusFilter=" + statusFilter +
+                ",\n    ownerFilter=" + ownerFilter +
+                ",\n    versionFilter=" + versionFilter +
+                ",\n    selectedIds=" + selectedIds.toString() +
+                ",\n    selectStatus=" + selectStatus +
+                " \n]";
+    }
+
+}
@@ -0,0 +1,195 @@
+/**
+ *
+ */
+package gov.noaa.pmel.dashboard.shared;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.TreeSet;
+
+/**
+ * One page of the datasets in a user's dataset list as requested by a {@link DatasetListQuery}, along with the number
+ * of datasets in the filtered list, the IDs of the selected datasets, and information about the user.
+ */
+public class DatasetListQueryResult implements Serializable, IsSerializable {
+
+    private static final long serialVersionUID = -6037295532118064852L;
+
+    protected String username;
+    protected boolean manager;
+    protected String imageExtension;
+    protected int totalCount;
+    protected ArrayList<DashboardDataset> datasets;
+    protected TreeSet<String> selectedIds;
+
+    /**
+     * Creates an empty result without a user
+     */
+    public DatasetListQueryResult() {
+        username = DashboardUtils.STRING_MISSING_VALUE;
+        manager = false;
+        imageExtension = DashboardUtils.STRING_MISSING_VALUE;
+        totalCount = 0;
+        datasets = new ArrayList<DashboardDataset>();
+        selectedIds = new TreeSet<String>();
+    }
+
+    /**
+     * @return the user of the dataset list; never null, but may be {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @param username
+     *         the user of the dataset list to set; if null, {@link DashboardUtils#STRING_MISSING_VALUE} is assigned
+     */
+    public void setUsername(String username) {
+        if ( username == null )
+            this.username = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.username = username;
+    }
+
+    /**
+     * @return if this user is a manager/admin
+     */
+    public boolean isManager() {
+        return manager;
+    }
+
+    /**
+     * @param manager
+     *         set if this user is a manager/admin
+     */
+    public void setManager(boolean manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * @return the image filename extension (including the leading '.', if appropriate);
+     *         never null, but may be {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    public String getImageExtension() {
+        return imageExtension;
+    }
+
+    /**
+     * @param imageExtension
+     *         the image filename extension (including the leading '.', if appropriate) to assign;
+     *         if null, {@link DashboardUtils#STRING_MISSING_VALUE} is assigned
+     */
+    public void setImageExtension(String imageExtension) {
+        if ( imageExtension == null )
+            this.imageExtension = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.imageExtension = imageExtension;
+    }
+
+    /**
+     * @return the number of datasets in the dataset list after filtering
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @param totalCount
+     *         the number of datasets in the dataset list after filtering
+     */
+    public void setTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * @return the requested page of sorted datasets; never null but may be empty.
+     *         The actual list contained in this object is returned.
+     */
+    public ArrayList<DashboardDataset> getDatasets() {
+        return datasets;
+    }
+
+    /**
+     * @param datasets
+     *         the page of sorted datasets to assign.  The current list of datasets is cleared,
+     *         and then the contents of this list, if not null, are added to the list.
+     */
+    public void setDatasets(ArrayList<DashboardDataset> datasets) {
+        this.datasets.clear();
+        if ( datasets != null )
+            this.datasets.addAll(datasets);
+    }
+
+    /**
+     * @return the IDs of the selected datasets, whether or not in the requested page, that are in the dataset list;
+     *         never null but may be empty.  The actual set contained in this object is returned.
+     */
+    public TreeSet<String> getSelectedIds() {
+        return selectedIds;
+    }
+
+    /**
+     * @param selectedIds
+     *         the IDs of the selected datasets to assign.  The current set of IDs is cleared,
+     *         and then the contents of this set, if not null, are added to the set.
+     */
+    public void setSelectedIds(TreeSet<String> selectedIds) {
+        this.selectedIds.clear();
+        if ( selectedIds != null )
+            this.selectedIds.addAll(selectedIds);
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 37;
+        int result = username.hashCode();
+        result = result * prime + Boolean.valueOf(manager).hashCode();
+        result = result * prime + imageExtension.hashCode();
+        result = result * prime + totalCount;
+        result = result * prime + datasets.hashCode();
+        result = result * prime + selectedIds.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj )
+            return true;
+        if ( obj == null )
+            return false;
+
+        if ( !(obj instanceof DatasetListQueryResult) )
+            return false;
+        DatasetListQueryResult other = (DatasetListQueryResult) obj;
+
+        if ( manager != other.manager )
+            return false;
+        if ( totalCount != other.totalCount )
+            return false;
+        if ( !username.equals(other.username) )
+            return false;
+        if ( !imageExtension.equals(other.imageExtension) )
+            return false;
+        if ( !datasets.equals(other.datasets) )
+            return false;
+        if ( !selectedIds.equals(other.selectedIds) )
+            return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "DatasetListQueryResult" +
+                "[\n    username=" + username +
+                ",\n    manager=" + manager +
+                ",\n    imageExtension=" + imageExtension +
+                ",\n    totalCount=" + totalCount +
+                ",\n    datasets=" + datasets.toString() +
+                ",\n    selectedIds=" + selectedIds.toString() +
+                " \n]";
+    }
+
+}
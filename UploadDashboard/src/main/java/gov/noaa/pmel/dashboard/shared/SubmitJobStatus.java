@@ -0,0 +1,209 @@
+/**
+ *
+ */
+package gov.noaa.pmel.dashboard.shared;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+/**
+ * Progress of a job submitting datasets for QC: the current stage of each dataset in the job,
+ * messages about any problems encountered, and whether the job has finished.
+ */
+public class SubmitJobStatus implements Serializable, IsSerializable {
+
+    private static final long serialVersionUID = -2184761137495207533L;
+
+    /**
+     * Stage of a dataset waiting to be submitted
+     */
+    public static final String STAGE_QUEUED = "queued";
+    /**
+     * Stage of a dataset whose data is being standardized and checked
+     */
+    public static final String STAGE_CHECKING = "checking data";
+    /**
+     * Stage of a dataset whose DSG files are being created
+     */
+    public static final String STAGE_CREATING_DSG = "creating DSG files";
+    /**
+     * Stage of a dataset whose QC flags are being updated
+     */
+    public static final String STAGE_UPDATING_QC = "updating QC flags";
+    /**
+     * Stage of a dataset successfully submitted
+     */
+    public static final String STAGE_DONE = "done";
+    /**
+     * Stage of a dataset that could not be submitted
+     */
+    public static final String STAGE_FAILED = "failed";
+
+    protected String jobId;
+    protected String submitter;
+    protected TreeMap<String,String> datasetStages;
+    protected ArrayList<String> messages;
+    protected boolean finished;
+
+    /**
+     * Creates an unfinished job status without a job ID, submitter, datasets, or messages.
+     */
+    public SubmitJobStatus() {
+        jobId = DashboardUtils.STRING_MISSING_VALUE;
+        submitter = DashboardUtils.STRING_MISSING_VALUE;
+        datasetStages = new TreeMap<String,String>();
+        messages = new ArrayList<String>();
+        finished = false;
+    }
+
+    /**
+     * @return the job ID; never null, but may be {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    public String getJobId() {
+        return jobId;
+    }
+
+    /**
+     * @param jobId
+     *         the job ID to set; if null, {@link DashboardUtils#STRING_MISSING_VALUE} is assigned
+     */
+    public void setJobId(String jobId) {
+        if ( jobId == null )
+            this.jobId = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.jobId = jobId;
+    }
+
+    /**
+     * @return the user submitting the datasets; never null, but may be {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    public String getSubmitter() {
+        return submitter;
+    }
+
+    /**
+     * @param submitter
+     *         the user submitting the datasets to set; if null, {@link DashboardUtils#STRING_MISSING_VALUE} is assigned
+     */
+    public void setSubmitter(String submitter) {
+        if ( submitter == null )
+            this.submitter = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.submitter = submitter;
+    }
+
+    /**
+     * @return the current stage of each dataset in the job, mapped by dataset ID; never null.
+     *         The actual map contained in this object is returned.
+     */
+    public TreeMap<String,String> getDatasetStages() {
+        return datasetStages;
+    }
+
+    /**
+     * @param datasetStages
+     *         the stages of the datasets to assign.  The current map of stages is cleared,
+     *         and then the contents of this map, if not null, are added to the map.
+     */
+    public void setDatasetStages(TreeMap<String,String> datasetStages) {
+        this.datasetStages.clear();
+        if ( datasetStages != null )
+            this.datasetStages.putAll(datasetStages);
+    }
+
+    /**
+     * @return the number of datasets in the job that are done or have failed
+     */
+    public int getNumFinishedDatasets() {
+        int numFinished = 0;
+        for (String stage : datasetStages.values()) {
+            if ( STAGE_DONE.equals(stage) || STAGE_FAILED.equals(stage) )
+                numFinished++;
+        }
+        return numFinished;
+    }
+
+    /**
+     * @return the messages about problems encountered by the job; never null but may be empty.
+     *         The actual list contained in this object is returned.
+     */
+    public ArrayList<String> getMessages() {
+        return messages;
+    }
+
+    /**
+     * @param messages
+     *         the messages to assign.  The current list of messages is cleared,
+     *         and then the contents of this list, if not null, are added to the list.
+     */
+    public void setMessages(ArrayList<String> messages) {
+        this.messages.clear();
+        if ( messages != null )
+            this.messages.addAll(messages);
+    }
+
+    /**
+     * @return if the job has finished, including any requests for archival
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @param finished
+     *         has the job finished?
+     */
+    public void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 37;
+        int result = jobId.hashCode();
+        result = result * prime + submitter.hashCode();
+        result = result * prime + datasetStages.hashCode();
+        result = result * prime + messages.hashCode();
+        result = result * prime + Boolean.valueOf(finished).hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj )
+            return true;
+        if ( obj == null )
+            return false;
+
+        if ( !(obj instanceof SubmitJobStatus) )
+            return false;
+        SubmitJobStatus other = (SubmitJobStatus) obj;
+
+        if ( finished != other.finished )
+            return false;
+        if ( !jobId.equals(other.jobId) )
+            return false;
+        if ( !submitter.equals(other.submitter) )
+            return false;
+        if ( !datasetStages.equals(other.datasetStages) )
+            return false;
+        if ( !messages.equals(other.messages) )
+            return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "SubmitJobStatus" +
+                "[\n    jobId=" + jobId +
+                ",\n    submitter=" + submitter +
+                ",\n    datasetStages=" + datasetStages.toString() +
+                ",\n    messages=" + messages.toString() +
+                ",\n    finished=" + finished +
+                " \n]";
+    }
+
+}
@@ -4,13 +4,30 @@
 package gov.noaa.pmel.dashboard.test.actions;
 
 import gov.noaa.pmel.dashboard.actions.CrossoverChecker;
+import gov.noaa.pmel.dashboard.actions.ScanCrossoverMatcher;
+import gov.noaa.pmel.dashboard.actions.TimeIndexCrossoverMatcher;
+import gov.noaa.pmel.dashboard.dsg.DatasetExtents;
+import gov.noaa.pmel.dashboard.handlers.DsgNcFileHandler;
 import gov.noaa.pmel.dashboard.shared.Crossover;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Karl Smith
@@ -62,6 +79,157 @@ public class CrossoverCheckerTest {
         assertNull(cruiseMaxTimes[1]);
     }
 
+    /**
+     * Test that {@link TimeIndexCrossoverMatcher} and {@link ScanCrossoverMatcher} find the same crossover.
+     */
+    @Test
+    public void testCrossoverMatchers() {
+        double[][] lons = new double[][] { lons_09AR20120105, lons_353L20120107 };
+        double[][] lats = new double[][] { lats_09AR20120105, lats_353L20120107 };
+        double[][] times = new double[][] { times_09AR20120105, times_353L20120107 };
+        double[][] ssts = new double[][] { ssts_09AR20120105, ssts_353L20120107 };
+        double[][] fco2s = new double[][] { fco2s_09AR20120105, fco2s_353L20120107 };
+
+        Crossover scanCross = CrossoverChecker.checkForCrossover(new ScanCrossoverMatcher(),
+                lons, lats, times, ssts, fco2s);
+        assertNotNull(scanCross);
+        Crossover indexCross = CrossoverChecker.checkForCrossover(new TimeIndexCrossoverMatcher(),
+                lons, lats, times, ssts, fco2s);
+        assertEquals(scanCross, indexCross);
+
+        // Swap the datasets
+        lons = new double[][] { lons_353L20120107, lons_09AR20120105 };
+        lats = new double[][] { lats_353L20120107, lats_09AR20120105 };
+        times = new double[][] { times_353L20120107, times_09AR20120105 };
+        ssts = new double[][] { ssts_353L20120107, ssts_09AR20120105 };
+        fco2s = new double[][] { fco2s_353L20120107, fco2s_09AR20120105 };
+        scanCross = CrossoverChecker.checkForCrossover(new ScanCrossoverMatcher(), lons, lats, times, ssts, fco2s);
+        assertNotNull(scanCross);
+        indexCross = CrossoverChecker.checkForCrossover(new TimeIndexCrossoverMatcher(),
+                lons, lats, times, ssts, fco2s);
+        assertEquals(scanCross, indexCross);
+
+        // Reverse the order of the second dataset; the time index does not depend on the data order
+        int num = lons[1].length;
+        double[][] revLons = new double[][] { lons[0], new double[num] };
+        double[][] revLats = new double[][] { lats[0], new double[num] };
+        double[][] revTimes = new double[][] { times[0], new double[num] };
+        double[][] revSsts = new double[][] { ssts[0], new double[num] };
+        double[][] revFco2s = new double[][] { fco2s[0], new double[num] };
+        for (int k = 0; k < num; k++) {
+            revLons[1][k] = lons[1][num - 1 - k];
+            revLats[1][k] = lats[1][num - 1 - k];
+            revTimes[1][k] = times[1][num - 1 - k];
+            revSsts[1][k] = ssts[1][num - 1 - k];
+            revFco2s[1][k] = fco2s[1][num - 1 - k];
+        }
+        Crossover revCross = CrossoverChecker.checkForCrossover(new TimeIndexCrossoverMatcher(),
+                revLons, revLats, revTimes, revSsts, revFco2s);
+        assertNotNull(revCross);
+        assertEquals(indexCross.getMinDistance(), revCross.getMinDistance(), 1.0E-12);
+        assertEquals(indexCross.getRowNumsAtMin()[0], revCross.getRowNumsAtMin()[0]);
+        assertEquals(num + 1 - indexCross.getRowNumsAtMin()[1], revCross.getRowNumsAtMin()[1].intValue());
+    }
+
+    /**
+     * DSG file handler giving data and extents from arrays in memory instead of from full-data DSG files
+     */
+    private static class ArrayDsgNcFileHandler extends DsgNcFileHandler {
+        private final HashMap<String,double[][]> dataMap;
+
+        ArrayDsgNcFileHandler(File dir, HashMap<String,double[][]> dataMap) {
+            super(dir.getPath(), dir.getPath(), new File(dir, "dsgflag").getPath(),
+                    new File(dir, "decdsgflag").getPath(), new File(dir, "extents.tsv").getPath(),
+                    null, null, null, null, 0L, null, null, null);
+            this.dataMap = dataMap;
+        }
+
+        @Override
+        public double[][] readLonLatTimeSstFco2DataValues(String datasetId) throws IllegalArgumentException {
+            double[][] dataVals = dataMap.get(datasetId);
+            if ( dataVals == null )
+                throw new IllegalArgumentException("No data for " + datasetId);
+            return dataVals;
+        }
+
+        @Override
+        public DatasetExtents getDatasetExtents(String datasetId) throws IllegalArgumentException {
+            double[][] dataVals = readLonLatTimeSstFco2DataValues(datasetId);
+            return DatasetExtents.fromData(datasetId, 0L, 0L, dataVals[0], dataVals[1], dataVals[2]);
+        }
+    }
+
+    /**
+     * @return the data array { lons, lats, times, ssts, fco2s } of the given data with the longitudes and times offset
+     */
+    private static double[][] offsetData(double[] lons, double[] lats, double[] times, double[] ssts, double[] fco2s,
+            double lonOffset, double timeOffset) {
+        double[] newLons = new double[lons.length];
+        double[] newTimes = new double[times.length];
+        for (int k = 0; k < lons.length; k++) {
+            newLons[k] = lons[k] + lonOffset;
+            newTimes[k] = times[k] + timeOffset;
+        }
+        return new double[][] { newLons, lats, newTimes, ssts, fco2s };
+    }
+
+    /**
+     * Test that {@link CrossoverChecker#findCrossovers(java.util.Collection, java.util.Collection,
+     * java.io.PrintStream, long)} and {@link CrossoverChecker#getCrossovers(String, Iterable, java.io.PrintStream,
+     * long)} find the same crossovers with an executor as without one.
+     */
+    @Test
+    public void testParallelCrossovers() throws IOException {
+        HashMap<String,double[][]> dataMap = new HashMap<String,double[][]>();
+        dataMap.put("09AR20120105", offsetData(lons_09AR20120105, lats_09AR20120105, times_09AR20120105,
+                ssts_09AR20120105, fco2s_09AR20120105, 0.0, 0.0));
+        dataMap.put("353L20120107", offsetData(lons_353L20120107, lats_353L20120107, times_353L20120107,
+                ssts_353L20120107, fco2s_353L20120107, 0.0, 0.0));
+        dataMap.put("33RO20120105", offsetData(lons_09AR20120105, lats_09AR20120105, times_09AR20120105,
+                ssts_09AR20120105, fco2s_09AR20120105, 0.05, 0.0));
+        dataMap.put("49P120120107", offsetData(lons_353L20120107, lats_353L20120107, times_353L20120107,
+                ssts_353L20120107, fco2s_353L20120107, 0.0, 3600.0));
+        dataMap.put("35A320120107", offsetData(lons_353L20120107, lats_353L20120107, times_353L20120107,
+                ssts_353L20120107, fco2s_353L20120107, -0.02, -1800.0));
+        // Same instrument as 09AR20120105, and much later than all the others
+        dataMap.put("09AR20120305", offsetData(lons_09AR20120105, lats_09AR20120105, times_09AR20120105,
+                ssts_09AR20120105, fco2s_09AR20120105, 0.0, 60.0 * 24.0 * 3600.0));
+        List<String> reportExpos = Arrays.asList("09AR20120105", "353L20120107", "09AR20120305");
+        List<String> checkExpos = new ArrayList<String>(new TreeSet<String>(dataMap.keySet()));
+
+        File dir = Files.createTempDirectory("crossovers").toFile();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            DsgNcFileHandler dsgHandler = new ArrayDsgNcFileHandler(dir, dataMap);
+            CrossoverChecker serialChecker = new CrossoverChecker(dsgHandler, null);
+            CrossoverChecker parallelChecker = new CrossoverChecker(dsgHandler, null, executor);
+
+            TreeMap<String,TreeSet<Crossover>> serialMap =
+                    serialChecker.findCrossovers(reportExpos, checkExpos, null, 0L);
+            assertEquals(2, serialMap.size());
+            assertTrue(serialMap.get("09AR20120105").size() > 1);
+            assertTrue(serialMap.get("353L20120107").size() > 1);
+            // Repeat so the tasks run in a different interleaving
+            for (int k = 0; k < 5; k++) {
+                TreeMap<String,TreeSet<Crossover>> parallelMap =
+                        parallelChecker.findCrossovers(reportExpos, checkExpos, null, 0L);
+                assertEquals(serialMap, parallelMap);
+            }
+
+            for (String expo : reportExpos) {
+                ArrayList<Crossover> serialList = serialChecker.getCrossovers(expo, checkExpos, null, 0L);
+                ArrayList<Crossover> parallelList = parallelChecker.getCrossovers(expo, checkExpos, null, 0L);
+                assertEquals(serialList, parallelList);
+            }
+        } finally {
+            executor.shutdownNow();
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
     // All the data is below
     private static final double[] lons_09AR20120105 = {
             147.3715, 147.382333, 147.3765, 147.3835, 147.442, 147.402833,
@@ -0,0 +1,140 @@
+package gov.noaa.pmel.dashboard.test.actions;
+
+import gov.noaa.pmel.dashboard.actions.DatasetSubmitter;
+import gov.noaa.pmel.dashboard.actions.SubmitJobQueue;
+import gov.noaa.pmel.dashboard.shared.SubmitJobStatus;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for methods in {@link SubmitJobQueue}
+ */
+public class SubmitJobQueueTest {
+
+    private static final String SUBMITTER = "tester";
+    private static final String ARCHIVE_STATUS = "Not specified";
+    private static final String TIMESTAMP = "2026-10-17 12:00";
+
+    /**
+     * Submitter recording the datasets submitted, and whether any dataset was submitted by more than one thread
+     * at a time
+     */
+    private static class RecordingSubmitter extends DatasetSubmitter {
+        final HashMap<String,Integer> activeCounts = new HashMap<String,Integer>();
+        final HashMap<String,Integer> submitCounts = new HashMap<String,Integer>();
+        final AtomicInteger numActive = new AtomicInteger(0);
+        final AtomicInteger maxActive = new AtomicInteger(0);
+        final AtomicInteger numFinished = new AtomicInteger(0);
+        volatile boolean overlapped = false;
+
+        @Override
+        public void submitDataset(String datasetId, String archiveStatus, boolean repeatSend, String submitter,
+                Collection<String> ingestIds, Collection<String> archiveIds, Collection<String> errorMsgs,
+                StageListener listener) {
+            String stdId = datasetId.toUpperCase(Locale.ENGLISH);
+            synchronized(this) {
+                Integer count = activeCounts.get(stdId);
+                if ( count != null )
+                    overlapped = true;
+                activeCounts.put(stdId, (count == null) ? 1 : count + 1);
+                count = submitCounts.get(stdId);
+                submitCounts.put(stdId, (count == null) ? 1 : count + 1);
+            }
+            int active = numActive.incrementAndGet();
+            int max = maxActive.get();
+            while ( (active > max) && !maxActive.compareAndSet(max, active) ) {
+                max = maxActive.get();
+            }
+            try {
+                if ( listener != null )
+                    listener.stageStarted(datasetId, SubmitJobStatus.STAGE_CHECKING);
+                Thread.sleep(50L);
+            } catch ( InterruptedException ex ) {
+                errorMsgs.add(datasetId + ": interrupted");
+            }
+            numActive.decrementAndGet();
+            synchronized(this) {
+                Integer count = activeCounts.remove(stdId);
+                if ( count > 1 )
+                    activeCounts.put(stdId, count - 1);
+            }
+            ingestIds.add(datasetId);
+        }
+
+        @Override
+        public void finishSubmit(Collection<String> ingestIds, Collection<String> archiveIds, String archiveStatus,
+                String timestamp, String submitter, Collection<String> errorMsgs) {
+            numFinished.incrementAndGet();
+        }
+    }
+
+    /**
+     * Test of {@link SubmitJobQueue#queueSubmit(Collection, String, String, boolean, String)} and
+     * {@link SubmitJobQueue#getJobStatus(String, String)} with jobs submitting overlapping sets of datasets at the
+     * same time.  Different datasets should be submitted in parallel, but a dataset, including the same ID given in
+     * a different case, should never be submitted by two threads at the same time.
+     */
+    @Test
+    public void testConcurrentSubmits() throws IOException, InterruptedException {
+        File jobsDir = Files.createTempDirectory("submitjobs").toFile();
+        RecordingSubmitter submitter = new RecordingSubmitter();
+        SubmitJobQueue queue = new SubmitJobQueue(submitter, jobsDir.getPath(), 4, null);
+        try {
+            List<List<String>> jobIdSets = Arrays.asList(
+                    Arrays.asList("AAAA20140113", "BBBB20140113", "CCCC20140113"),
+                    Arrays.asList("aaaa20140113", "BBBB20140113"),
+                    Arrays.asList("CCCC20140113", "DDDD20140113"),
+                    Arrays.asList("AAAA20140113", "dddd20140113"));
+            ArrayList<String> jobIds = new ArrayList<String>(jobIdSets.size());
+            for (List<String> ids : jobIdSets) {
+                jobIds.add(queue.queueSubmit(ids, ARCHIVE_STATUS, TIMESTAMP, false, SUBMITTER));
+            }
+
+            long endMillis = System.currentTimeMillis() + 30000L;
+            for (String jobId : jobIds) {
+                SubmitJobStatus status = queue.getJobStatus(jobId, SUBMITTER);
+                while ( !status.isFinished() && (System.currentTimeMillis() < endMillis) ) {
+                    Thread.sleep(20L);
+                    status = queue.getJobStatus(jobId, SUBMITTER);
+                }
+                assertTrue(status.isFinished());
+                assertTrue(status.getMessages().isEmpty());
+                for (String stage : status.getDatasetStages().values()) {
+                    assertEquals(SubmitJobStatus.STAGE_DONE, stage);
+                }
+            }
+
+            assertFalse(submitter.overlapped);
+            assertTrue(submitter.maxActive.get() > 1);
+            assertEquals(jobIdSets.size(), submitter.numFinished.get());
+            assertEquals(Integer.valueOf(3), submitter.submitCounts.get("AAAA20140113"));
+            assertEquals(Integer.valueOf(2), submitter.submitCounts.get("BBBB20140113"));
+            assertEquals(Integer.valueOf(2), submitter.submitCounts.get("CCCC20140113"));
+            assertEquals(Integer.valueOf(2), submitter.submitCounts.get("DDDD20140113"));
+        } finally {
+            queue.shutdown();
+            File[] jobFiles = jobsDir.listFiles();
+            if ( jobFiles != null ) {
+                for (File jobFile : jobFiles) {
+                    jobFile.delete();
+                }
+            }
+            jobsDir.delete();
+        }
+    }
+
+}
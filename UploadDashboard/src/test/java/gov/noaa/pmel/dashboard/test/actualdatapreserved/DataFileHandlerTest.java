@@ -5,17 +5,36 @@ package gov.noaa.pmel.dashboard.test.actualdatapreserved;
 
 import gov.noaa.pmel.dashboard.handlers.DataFileHandler;
 import gov.noaa.pmel.dashboard.server.DashboardConfigStore;
+import gov.noaa.pmel.dashboard.shared.DashboardDataset;
 import gov.noaa.pmel.dashboard.shared.DashboardDatasetData;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import org.junit.Test;
+import org.tmatesoft.svn.core.SVNDepth;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.internal.io.fs.FSRepositoryFactory;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+import org.tmatesoft.svn.core.wc.SVNClientManager;
+import org.tmatesoft.svn.core.wc.SVNRevision;
 
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Test of {@link DataFileHandler}.
@@ -59,6 +78,335 @@ public class DataFileHandlerTest {
         }
     }
 
+    /**
+     * Test method for {@link DataFileHandler#getDatasetDataFromFiles(String, int, int)} reading pages of data
+     * using the row index written by {@link DataFileHandler#saveDatasetDataToFile(DashboardDatasetData, String)}.
+     * Uses a temporary data files directory that is not under version control.
+     */
+    @Test
+    public void testGetDatasetDataFromFilesUsingRowIndex() throws IOException {
+        System.setProperty("CATALINA_BASE", System.getenv("HOME"));
+        System.setProperty("UPLOAD_DASHBOARD_SERVER_NAME", "SocatUploadDashboard");
+        DashboardConfigStore configStore = DashboardConfigStore.get(false);
+        File dataFilesDir = Files.createTempDirectory("datafiles").toFile();
+        try {
+            DataFileHandler dataHandler = new DataFileHandler(dataFilesDir.getPath(), null, null,
+                    configStore.getKnownUserDataTypes(), configStore.getUserFileHandler(),
+                    configStore.getUploadVersion());
+            File parentDir = new File(dataFilesDir, TEST_DATASET_ID.substring(0, 4));
+            File dataFile = new File(parentDir, TEST_DATASET_ID + ".tsv");
+            File indexFile = new File(parentDir, TEST_DATASET_ID + ".rowidx");
+
+            int numRows = 50;
+            DashboardDatasetData cruiseData = dataHandler.assignDatasetDataFromInput(null,
+                    new StringReader(createCsvData(numRows, 0.0)), DashboardUtils.COMMA_FORMAT_TAG,
+                    DATASET_OWNER, 0, -1);
+            assertEquals(TEST_DATASET_ID, cruiseData.getDatasetId());
+            dataHandler.saveDatasetInfoToFile(cruiseData, null);
+            dataHandler.saveDatasetDataToFile(cruiseData, null);
+            assertTrue(indexFile.exists());
+            assertPagesMatchFullRead(dataHandler, numRows);
+
+            // Rewriting the data file rewrites the row index
+            long indexLength = indexFile.length();
+            numRows = 57;
+            cruiseData = dataHandler.assignDatasetDataFromInput(null,
+                    new StringReader(createCsvData(numRows, 0.5)), DashboardUtils.COMMA_FORMAT_TAG,
+                    DATASET_OWNER, 0, -1);
+            dataHandler.saveDatasetInfoToFile(cruiseData, null);
+            dataHandler.saveDatasetDataToFile(cruiseData, null);
+            assertEquals(indexLength + 8L * 7, indexFile.length());
+            assertPagesMatchFullRead(dataHandler, numRows);
+
+            // A data file changed by other means (such as a version control revert) does not use the old row index
+            List<String> lines = Files.readAllLines(dataFile.toPath());
+            long lastModified = dataFile.lastModified();
+            PrintWriter writer = new PrintWriter(dataFile);
+            try {
+                for (int k = 0; k < lines.size(); k++) {
+                    // remove the tenth data row (after the preamble and column headers)
+                    if ( k != META_PREAMBLE.size() + 10 )
+                        writer.println(lines.get(k));
+                }
+            } finally {
+                writer.close();
+            }
+            assertTrue(dataFile.setLastModified(lastModified - 60000L));
+            numRows--;
+            assertPagesMatchFullRead(dataHandler, numRows);
+        } finally {
+            deleteFiles(dataFilesDir);
+        }
+    }
+
+    /**
+     * Test method for {@link DataFileHandler#getDatasetFromInfoFile(String)} checking the cached information is
+     * not used once the information file is rewritten, whether or not by the handler, or renamed.
+     * Uses a temporary data files directory that is not under version control.
+     */
+    @Test
+    public void testGetDatasetFromInfoFileCache() throws IOException {
+        System.setProperty("CATALINA_BASE", System.getenv("HOME"));
+        System.setProperty("UPLOAD_DASHBOARD_SERVER_NAME", "SocatUploadDashboard");
+        DashboardConfigStore configStore = DashboardConfigStore.get(false);
+        File dataFilesDir = Files.createTempDirectory("datafiles").toFile();
+        try {
+            DataFileHandler dataHandler = new DataFileHandler(dataFilesDir.getPath(), null, null,
+                    configStore.getKnownUserDataTypes(), configStore.getUserFileHandler(),
+                    configStore.getUploadVersion());
+            File parentDir = new File(dataFilesDir, TEST_DATASET_ID.substring(0, 4));
+            File infoFile = new File(parentDir, TEST_DATASET_ID + ".properties");
+
+            DashboardDatasetData cruiseData = dataHandler.assignDatasetDataFromInput(null,
+                    new StringReader(createCsvData(5, 0.0)), DashboardUtils.COMMA_FORMAT_TAG,
+                    DATASET_OWNER, 0, -1);
+            dataHandler.saveDatasetInfoToFile(cruiseData, null);
+            assertTrue(infoFile.exists());
+
+            // The second read uses the cached information
+            DashboardDataset dataset = dataHandler.getDatasetFromInfoFile(TEST_DATASET_ID);
+            assertEquals(DATASET_OWNER, dataset.getOwner());
+            long misses = dataHandler.getInfoCacheMisses();
+            long hits = dataHandler.getInfoCacheHits();
+            assertEquals(dataset, dataHandler.getDatasetFromInfoFile(TEST_DATASET_ID));
+            assertEquals(hits + 1, dataHandler.getInfoCacheHits());
+            assertEquals(misses, dataHandler.getInfoCacheMisses());
+
+            // Information file rewritten by the handler
+            cruiseData.setVersion(cruiseData.getVersion() + "N");
+            dataHandler.saveDatasetInfoToFile(cruiseData, null);
+            dataset = dataHandler.getDatasetFromInfoFile(TEST_DATASET_ID);
+            assertEquals(cruiseData.getVersion(), dataset.getVersion());
+
+            // Information file rewritten by other means (such as a version control update)
+            String otherOwner = "Someone Else";
+            long lastModified = infoFile.lastModified();
+            Properties infoProps = new Properties();
+            FileReader reader = new FileReader(infoFile);
+            try {
+                infoProps.load(reader);
+            } finally {
+                reader.close();
+            }
+            infoProps.setProperty("dataowner", otherOwner);
+            FileWriter writer = new FileWriter(infoFile);
+            try {
+                infoProps.store(writer, null);
+            } finally {
+                writer.close();
+            }
+            assertTrue(infoFile.setLastModified(lastModified - 60000L));
+            misses = dataHandler.getInfoCacheMisses();
+            dataset = dataHandler.getDatasetFromInfoFile(TEST_DATASET_ID);
+            assertEquals(otherOwner, dataset.getOwner());
+            assertEquals(cruiseData.getVersion(), dataset.getVersion());
+            assertEquals(misses + 1, dataHandler.getInfoCacheMisses());
+
+            // Information file renamed to that of another dataset
+            String otherId = "00TT20161018";
+            assertTrue(infoFile.renameTo(new File(parentDir, otherId + ".properties")));
+            assertNull(dataHandler.getDatasetFromInfoFile(TEST_DATASET_ID));
+            dataset = dataHandler.getDatasetFromInfoFile(otherId);
+            assertEquals(otherId, dataset.getDatasetId());
+            assertEquals(otherOwner, dataset.getOwner());
+            // Renamed back to the original dataset
+            assertTrue(new File(parentDir, otherId + ".properties").renameTo(infoFile));
+            assertNull(dataHandler.getDatasetFromInfoFile(otherId));
+            dataset = dataHandler.getDatasetFromInfoFile(TEST_DATASET_ID);
+            assertEquals(TEST_DATASET_ID, dataset.getDatasetId());
+            assertEquals(otherOwner, dataset.getOwner());
+        } finally {
+            deleteFiles(dataFilesDir);
+        }
+    }
+
+    /**
+     * Test method for {@link DataFileHandler#getMatchingDatasetIds(String)} using the index of dataset IDs built
+     * from existing information files and updated as information files are added, as well as checking a rename
+     * that fails to move the files does not change the index.  Uses a temporary data files directory that is not
+     * under version control.
+     */
+    @Test
+    public void testGetMatchingDatasetIds() throws IOException {
+        System.setProperty("CATALINA_BASE", System.getenv("HOME"));
+        System.setProperty("UPLOAD_DASHBOARD_SERVER_NAME", "SocatUploadDashboard");
+        DashboardConfigStore configStore = DashboardConfigStore.get(false);
+        File dataFilesDir = Files.createTempDirectory("datafiles").toFile();
+        try {
+            DataFileHandler dataHandler = new DataFileHandler(dataFilesDir.getPath(), null, null,
+                    configStore.getKnownUserDataTypes(), configStore.getUserFileHandler(),
+                    configStore.getUploadVersion());
+            DashboardDatasetData cruiseData = dataHandler.assignDatasetDataFromInput(null,
+                    new StringReader(createCsvData(5, 0.0)), DashboardUtils.COMMA_FORMAT_TAG,
+                    DATASET_OWNER, 0, -1);
+            dataHandler.saveDatasetInfoToFile(cruiseData, null);
+            dataHandler.saveDatasetDataToFile(cruiseData, null);
+            cruiseData.setDatasetId("00TT20161018");
+            dataHandler.saveDatasetInfoToFile(cruiseData, null);
+
+            // A new handler builds the index from the existing information files
+            dataHandler = new DataFileHandler(dataFilesDir.getPath(), null, null,
+                    configStore.getKnownUserDataTypes(), configStore.getUserFileHandler(),
+                    configStore.getUploadVersion());
+            assertEquals(new HashSet<String>(Arrays.asList(TEST_DATASET_ID, "00TT20161018")),
+                    dataHandler.getMatchingDatasetIds("00tt2016101?"));
+
+            // New information files are added to the index
+            cruiseData.setDatasetId("00TT20170101");
+            dataHandler.saveDatasetInfoToFile(cruiseData, null);
+            cruiseData.setDatasetId("00TU20161017");
+            dataHandler.saveDatasetInfoToFile(cruiseData, null);
+            assertEquals(new HashSet<String>(Arrays.asList(TEST_DATASET_ID, "00TT20161018", "00TT20170101")),
+                    dataHandler.getMatchingDatasetIds("00TT*"));
+            assertEquals(new HashSet<String>(Arrays.asList(TEST_DATASET_ID, "00TT20161018", "00TU20161017")),
+                    dataHandler.getMatchingDatasetIds("00T?2016*"));
+            assertEquals(new HashSet<String>(Arrays.asList(TEST_DATASET_ID, "00TU20161017")),
+                    dataHandler.getMatchingDatasetIds("*1017"));
+            assertEquals(new HashSet<String>(Arrays.asList("00TT20170101", "00TU20161017")),
+                    dataHandler.getMatchingDatasetIds("00TT20170101|00TU20161017"));
+            assertEquals(new HashSet<String>(Arrays.asList("00TT20161018")),
+                    dataHandler.getMatchingDatasetIds("00TT20161018"));
+            assertTrue(dataHandler.getMatchingDatasetIds("00TV*").isEmpty());
+
+            // Files cannot be moved in a directory that is not version controlled, so the index is not changed
+            try {
+                dataHandler.renameDatasetFiles(TEST_DATASET_ID, RENAMED_DATASET_ID);
+                fail("rename without version control succeeded");
+            } catch ( IllegalArgumentException ex ) {
+                // Expected
+            }
+            assertEquals(new HashSet<String>(Arrays.asList(TEST_DATASET_ID)),
+                    dataHandler.getMatchingDatasetIds(TEST_DATASET_ID));
+            assertTrue(dataHandler.getMatchingDatasetIds(RENAMED_DATASET_ID).isEmpty());
+        } finally {
+            deleteFiles(dataFilesDir);
+        }
+    }
+
+    /**
+     * Test method for {@link DataFileHandler#getMatchingDatasetIds(String)} after
+     * {@link DataFileHandler#renameDatasetFiles(String, String)} and
+     * {@link DataFileHandler#deleteDatasetFiles(String, String, Boolean)}.
+     * Uses a temporary data files directory that is a working copy of a temporary local repository.
+     */
+    @Test
+    public void testMatchingDatasetIdsAfterRenameDelete() throws IOException, SVNException {
+        System.setProperty("CATALINA_BASE", System.getenv("HOME"));
+        System.setProperty("UPLOAD_DASHBOARD_SERVER_NAME", "SocatUploadDashboard");
+        DashboardConfigStore configStore = DashboardConfigStore.get(false);
+        File tempDir = Files.createTempDirectory("versioneddatafiles").toFile();
+        SVNClientManager svnManager = SVNClientManager.newInstance();
+        try {
+            FSRepositoryFactory.setup();
+            SVNURL repoUrl = SVNRepositoryFactory.createLocalRepository(new File(tempDir, "repo"), true, false);
+            File dataFilesDir = new File(tempDir, "datafiles");
+            svnManager.getUpdateClient().doCheckout(repoUrl, dataFilesDir, SVNRevision.HEAD, SVNRevision.HEAD,
+                    SVNDepth.INFINITY, false);
+            DataFileHandler dataHandler = new DataFileHandler(dataFilesDir.getPath(), "tester", "",
+                    configStore.getKnownUserDataTypes(), configStore.getUserFileHandler(),
+                    configStore.getUploadVersion());
+            try {
+                DashboardDatasetData cruiseData = dataHandler.assignDatasetDataFromInput(null,
+                        new StringReader(createCsvData(5, 0.0)), DashboardUtils.COMMA_FORMAT_TAG,
+                        DATASET_OWNER, 0, -1);
+                dataHandler.saveDatasetInfoToFile(cruiseData, "Add " + TEST_DATASET_ID);
+                dataHandler.saveDatasetDataToFile(cruiseData, "Add " + TEST_DATASET_ID);
+                svnManager.getCommitClient().doCommit(new File[] { dataFilesDir }, false, "Add " + TEST_DATASET_ID,
+                        null, null, false, false, SVNDepth.INFINITY);
+                assertEquals(new HashSet<String>(Arrays.asList(TEST_DATASET_ID)),
+                        dataHandler.getMatchingDatasetIds("00TT*"));
+
+                dataHandler.renameDatasetFiles(TEST_DATASET_ID, RENAMED_DATASET_ID);
+                assertEquals(new HashSet<String>(Arrays.asList(RENAMED_DATASET_ID)),
+                        dataHandler.getMatchingDatasetIds("00TT*"));
+                assertEquals(RENAMED_DATASET_ID, dataHandler.getDatasetFromInfoFile(RENAMED_DATASET_ID).getDatasetId());
+                svnManager.getCommitClient().doCommit(new File[] { dataFilesDir }, false, "Rename " + TEST_DATASET_ID,
+                        null, null, false, false, SVNDepth.INFINITY);
+
+                dataHandler.deleteDatasetFiles(RENAMED_DATASET_ID, DATASET_OWNER, false);
+                assertTrue(dataHandler.getMatchingDatasetIds("00TT*").isEmpty());
+            } finally {
+                dataHandler.shutdown();
+            }
+        } finally {
+            svnManager.dispose();
+            deleteFiles(tempDir);
+        }
+    }
+
+    /**
+     * Checks that pages of data read using the row index match the same rows of a full read of the data file.
+     */
+    private static void assertPagesMatchFullRead(DataFileHandler dataHandler, int numRows) {
+        DashboardDatasetData fullData = dataHandler.getDatasetDataFromFiles(TEST_DATASET_ID, 0, -1);
+        assertEquals(numRows, fullData.getDataValues().size());
+        assertEquals(numRows, fullData.getRowNums().size());
+        for (int firstRow : new int[] { 1, 7, numRows - 3, numRows, numRows + 5 }) {
+            for (int numPageRows : new int[] { 0, 1, 10, -1 }) {
+                DashboardDatasetData pageData = dataHandler.getDatasetDataFromFiles(TEST_DATASET_ID,
+                        firstRow, numPageRows);
+                int start = Math.min(firstRow, numRows);
+                int end = numRows;
+                if ( (numPageRows >= 0) && (start + numPageRows < numRows) )
+                    end = start + numPageRows;
+                String page = "rows " + firstRow + " to " + end;
+                assertEquals(page, fullData.getPreamble(), pageData.getPreamble());
+                assertEquals(page, fullData.getUserColNames(), pageData.getUserColNames());
+                assertEquals(page, fullData.getDataValues().subList(start, end), pageData.getDataValues());
+                assertEquals(page, fullData.getRowNums().subList(start, end), pageData.getRowNums());
+            }
+        }
+    }
+
+    /**
+     * @return CSV data for {@link #TEST_DATASET_ID} with the given number of data rows, with the given value added to
+     *         the SST values
+     */
+    private static String createCsvData(int numRows, double sstOffset) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("# Expocode: " + TEST_DATASET_ID + "\n");
+        builder.append("#Ship: Atlantis\n");
+        builder.append("\"PI: Wanninkhof, R.\"\n");
+        builder.append("\n");
+        boolean first = true;
+        for (String header : HEADERS) {
+            if ( !first )
+                builder.append(',');
+            else
+                first = false;
+            builder.append(header);
+        }
+        builder.append('\n');
+        for (int k = 0; k < numRows; k++) {
+            int seconds = 19 * 3600 + 45 + 149 * k;
+            builder.append("AOML_Atlantis,20-01B,");
+            builder.append(110.79219 + 0.00172 * k).append(",19042012,");
+            builder.append(String.format("%02d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60));
+            builder.append(',').append(12.638 - 0.005 * k);
+            builder.append(',').append(-59.239 + 0.006 * k);
+            builder.append(",394.227,-999,395.34,1009.3,1012.01,27.55,");
+            builder.append(27.4844 + sstOffset + 0.001 * k);
+            builder.append(",35.17,376.43,379.65,-3.22,2,\n");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Deletes a file, or a directory and all its contents
+     */
+    private static void deleteFiles(File file) {
+        File[] children = file.listFiles();
+        if ( children != null ) {
+            for (File child : children) {
+                deleteFiles(child);
+            }
+        }
+        file.delete();
+    }
+
+    // Rewriting the data deletes the messages file for the dataset in the installation, so not an actual dataset ID
+    private static final String TEST_DATASET_ID = "00TT20161017";
+    private static final String RENAMED_DATASET_ID = "00TT20161019";
     private static final String DATASET_OWNER = "Kevin Sullivan";
     private static final String CSV_DATA = "# Expocode: 00KS20120419 , , , , , , , , , , , , , , , , , , ,\n" +
             "#Ship: Atlantis         , , , , , , , , , , , , , , , , , , ,\n" +
@@ -7,8 +7,14 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Test of generating the preview plots, which also tests the
@@ -63,4 +69,129 @@ public class PreviewPlotsHandlerTest {
         }
     }
 
+    /**
+     * Preview plots handler that writes a placeholder plot instead of calling Ferret, and fails for time tags
+     * starting with {@link #FAIL_TAG_PREFIX}.  Plots are not written until {@link #gate} is opened.
+     */
+    private static class PlaceholderPlotsHandler extends PreviewPlotsHandler {
+        static final String FAIL_TAG_PREFIX = "fail";
+        final CountDownLatch gate = new CountDownLatch(1);
+        final AtomicInteger numCreated = new AtomicInteger(0);
+
+        PlaceholderPlotsHandler(File previewDir, DashboardConfigStore configStore) {
+            super(new File(previewDir, "dsgfiles").getPath(), new File(previewDir, "plots").getPath(),
+                    configStore);
+        }
+
+        @Override
+        public void createPreviewPlots(String datasetId, String timetag) throws IllegalArgumentException {
+            numCreated.incrementAndGet();
+            if ( timetag.startsWith(FAIL_TAG_PREFIX) )
+                throw new IllegalArgumentException("Failure generating data preview plots for " + datasetId);
+            try {
+                gate.await();
+                File plotFile = new File(getDatasetPreviewPlotsDir(datasetId),
+                        datasetId + "_" + DatasetPreviewPage.LAT_VS_LON_IMAGE_NAME + "_" + timetag + ".gif");
+                Files.write(plotFile.toPath(), timetag.getBytes());
+            } catch ( Exception ex ) {
+                throw new IllegalArgumentException(ex);
+            }
+        }
+    }
+
+    /**
+     * Waits until the given number of plots have been created, then a little longer so the background generation
+     * of those plots has finished.
+     */
+    private static void waitForCreated(PlaceholderPlotsHandler plotsHandler, int numCreated)
+            throws InterruptedException {
+        long endMillis = System.currentTimeMillis() + 30000L;
+        while ( (plotsHandler.numCreated.get() < numCreated) && (System.currentTimeMillis() < endMillis) ) {
+            Thread.sleep(20L);
+        }
+        assertEquals(numCreated, plotsHandler.numCreated.get());
+        Thread.sleep(200L);
+    }
+
+    /**
+     * Waits until {@link PreviewPlotsHandler#isPreviewPlotsDone(String, String)} returns true.
+     */
+    private static void waitForDone(PreviewPlotsHandler plotsHandler, String timetag) throws InterruptedException {
+        long endMillis = System.currentTimeMillis() + 30000L;
+        while ( !plotsHandler.isPreviewPlotsDone(EXPOCODE, timetag) ) {
+            assertTrue("plots for " + timetag + " not done", System.currentTimeMillis() < endMillis);
+            Thread.sleep(20L);
+        }
+    }
+
+    /**
+     * Test method for {@link PreviewPlotsHandler#startPreviewPlots(String, String)} and
+     * {@link PreviewPlotsHandler#isPreviewPlotsDone(String, String)}, including reusing the plots of unchanged data,
+     * reporting failures, and forgetting finished generations of plots with other time tags for a dataset.
+     * Ferret is not called; placeholder plots are written instead.
+     */
+    @Test
+    public void testStartPreviewPlots() throws IOException, InterruptedException {
+        System.setProperty("CATALINA_BASE", System.getenv("HOME"));
+        System.setProperty("UPLOAD_DASHBOARD_SERVER_NAME", "SocatUploadDashboard");
+        DashboardConfigStore configStore = DashboardConfigStore.get(false);
+        File previewDir = Files.createTempDirectory("preview").toFile();
+        assertTrue(new File(previewDir, "dsgfiles").mkdir());
+        assertTrue(new File(previewDir, "plots").mkdir());
+        PlaceholderPlotsHandler plotsHandler = new PlaceholderPlotsHandler(previewDir, configStore);
+        try {
+            File plotsDir = plotsHandler.getDatasetPreviewPlotsDir(EXPOCODE);
+
+            // Generated once in the background even if requested again
+            assertFalse(plotsHandler.startPreviewPlots(EXPOCODE, "first"));
+            assertFalse(plotsHandler.startPreviewPlots(EXPOCODE.toLowerCase(), "first"));
+            assertFalse(plotsHandler.isPreviewPlotsDone(EXPOCODE, "first"));
+            plotsHandler.gate.countDown();
+            waitForDone(plotsHandler, "first");
+            assertEquals(1, plotsHandler.numCreated.get());
+
+            // Data not changed, so the plots are copied with the new time tag
+            assertTrue(plotsHandler.startPreviewPlots(EXPOCODE, "second"));
+            assertTrue(plotsHandler.isPreviewPlotsDone(EXPOCODE, "second"));
+            assertEquals(1, plotsHandler.numCreated.get());
+            File[] plotFiles = plotsDir.listFiles();
+            assertEquals(2, plotFiles.length);
+
+            // Without the plots to copy, they are generated again; failures are reported once
+            for (File plot : plotFiles) {
+                assertTrue(plot.delete());
+            }
+            assertFalse(plotsHandler.startPreviewPlots(EXPOCODE, "fail1"));
+            waitForCreated(plotsHandler, 2);
+            try {
+                plotsHandler.isPreviewPlotsDone(EXPOCODE, "fail1");
+                fail("failure generating the plots not reported");
+            } catch ( IllegalArgumentException ex ) {
+                // Expected
+            }
+            assertTrue(plotsHandler.isPreviewPlotsDone(EXPOCODE, "fail1"));
+
+            // A finished generation of plots is forgotten when the dataset is previewed with another time tag
+            assertFalse(plotsHandler.startPreviewPlots(EXPOCODE, "fail2"));
+            waitForCreated(plotsHandler, 3);
+            assertFalse(plotsHandler.startPreviewPlots(EXPOCODE, "third"));
+            assertTrue(plotsHandler.isPreviewPlotsDone(EXPOCODE, "fail2"));
+            waitForDone(plotsHandler, "third");
+            assertEquals(4, plotsHandler.numCreated.get());
+        } finally {
+            plotsHandler.shutdown();
+            deleteFiles(previewDir);
+        }
+    }
+
+    private static void deleteFiles(File file) {
+        File[] children = file.listFiles();
+        if ( children != null ) {
+            for (File child : children) {
+                deleteFiles(child);
+            }
+        }
+        file.delete();
+    }
+
 }
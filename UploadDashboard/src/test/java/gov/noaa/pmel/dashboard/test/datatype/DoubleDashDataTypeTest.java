@@ -80,6 +80,7 @@ public class DoubleDashDataTypeTest {
 
     /**
      * Test method for {@link DashDataType#boundsCheckStandardValue(Comparable)}
+     * and {@link DashDataType#boundExceeded(Comparable)}
      */
     @Test
     public void testBoundsCheckStandardValue() {
@@ -90,10 +91,12 @@ public class DoubleDashDataTypeTest {
 
         ADCMessage msg = dtype.boundsCheckStandardValue(null);
         assertNull(msg);
+        assertEquals(DashDataType.BoundExceeded.NONE, dtype.boundExceeded(null));
 
         Double testVal = 0.5 * (BOUNDS[1] + BOUNDS[2]);
         msg = dtype.boundsCheckStandardValue(testVal);
         assertNull(msg);
+        assertEquals(DashDataType.BoundExceeded.NONE, dtype.boundExceeded(testVal));
 
         testVal = BOUNDS[0] - 1.0;
         msg = dtype.boundsCheckStandardValue(testVal);
@@ -101,6 +104,7 @@ public class DoubleDashDataTypeTest {
         assertEquals(Severity.ERROR, msg.getSeverity());
         assertTrue(msg.getGeneralComment().contains(DashDataType.UNREASONABLY_SMALL_MSG));
         assertTrue(msg.getDetailedComment().contains(DashDataType.UNREASONABLY_SMALL_MSG));
+        assertEquals(DashDataType.BoundExceeded.UNREASONABLY_SMALL, dtype.boundExceeded(testVal));
 
         testVal = BOUNDS[3] + 1.0;
         msg = dtype.boundsCheckStandardValue(testVal);
@@ -108,6 +112,7 @@ public class DoubleDashDataTypeTest {
         assertEquals(Severity.ERROR, msg.getSeverity());
         assertTrue(msg.getGeneralComment().contains(DashDataType.UNREASONABLY_LARGE_MSG));
         assertTrue(msg.getDetailedComment().contains(DashDataType.UNREASONABLY_LARGE_MSG));
+        assertEquals(DashDataType.BoundExceeded.UNREASONABLY_LARGE, dtype.boundExceeded(testVal));
 
         testVal = 0.5 * (BOUNDS[0] + BOUNDS[1]);
         msg = dtype.boundsCheckStandardValue(testVal);
@@ -115,6 +120,7 @@ public class DoubleDashDataTypeTest {
         assertEquals(Severity.WARNING, msg.getSeverity());
         assertTrue(msg.getGeneralComment().contains(DashDataType.QUESTIONABLY_SMALL_MSG));
         assertTrue(msg.getDetailedComment().contains(DashDataType.QUESTIONABLY_SMALL_MSG));
+        assertEquals(DashDataType.BoundExceeded.QUESTIONABLY_SMALL, dtype.boundExceeded(testVal));
 
         testVal = 0.5 * (BOUNDS[2] + BOUNDS[3]);
         msg = dtype.boundsCheckStandardValue(testVal);
@@ -122,6 +128,7 @@ public class DoubleDashDataTypeTest {
         assertEquals(Severity.WARNING, msg.getSeverity());
         assertTrue(msg.getGeneralComment().contains(DashDataType.QUESTIONABLY_LARGE_MSG));
         assertTrue(msg.getDetailedComment().contains(DashDataType.QUESTIONABLY_LARGE_MSG));
+        assertEquals(DashDataType.BoundExceeded.QUESTIONABLY_LARGE, dtype.boundExceeded(testVal));
     }
 
     /**
@@ -4,11 +4,17 @@
 package gov.noaa.pmel.dashboard.test.datatype;
 
 import gov.noaa.pmel.dashboard.datatype.LinearConverter;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Unit tests for methods of {@link LinearConverter}
@@ -101,4 +107,150 @@ public class LinearConverterTest {
         assertEquals(10.0, converter.convertValueOf("5.14444444"), 1.0E-6);
     }
 
+    /**
+     * Test method for {@link LinearConverter#convertDoubleOf(CharSequence)}.
+     */
+    @Test
+    public void testConvertDoubleOf() {
+        String[] testStrs = new String[] {
+                "123.456", " -45.67 ", "0.1", "-0.0", "+.5", "5.", "1.0E3", "12345678901234567890.5", "0x1p3"
+        };
+        LinearConverter converter = new LinearConverter("K", "degC", null);
+        for (String str : testStrs) {
+            assertEquals(converter.convertValueOf(str).doubleValue(),
+                    converter.convertDoubleOf(new StringBuilder(str)), 0.0);
+        }
+        assertEquals(Double.parseDouble("0.1") - 273.15, converter.convertDoubleOf("0.1"), 0.0);
+
+        // missing values are NaN
+        for (String str : new String[] { "", " NaN ", "n/a", "--", "-999", "-999.9", "-9999.99" }) {
+            assertTrue(Double.isNaN(converter.convertDoubleOf(str)));
+        }
+
+        converter = new LinearConverter(null, null, "nothing");
+        assertTrue(Double.isNaN(converter.convertDoubleOf("NOTHING")));
+        assertEquals(-999.0, converter.convertDoubleOf("-999"), 0.0);
+
+        for (String str : new String[] { "NaN", "Infinity", "12..3", "1.2.3", "-", "." }) {
+            boolean errCaught = false;
+            try {
+                converter.convertDoubleOf(str);
+            } catch ( IllegalArgumentException ex ) {
+                errCaught = true;
+            }
+            assertTrue(errCaught);
+        }
+    }
+
+    private static final HashSet<String> ORIGINAL_MISSING_VALUES_SET =
+            new HashSet<String>(Arrays.asList("", "NA", "N/A", "NAN",
+                    "NULL", "-", "--", "---", "----", "-----"));
+    private static final Double[] ORIGINAL_MISSING_NUMBERS_ARRAY =
+            new Double[] { -999.0, -999.9, -999.99, -999.999,
+                    -9999.0, -9999.9, -9999.99, -99999.0, -99999.9 };
+
+    /**
+     * The original implementation of {@link LinearConverter#convertValueOf(String)} with default missing values,
+     * which used {@link Double#valueOf(String)} for parsing and for checking for missing values.
+     */
+    private static Double originalConvertValueOf(String valueString, double slope, double intercept)
+            throws IllegalArgumentException {
+        String trimVal = valueString.trim();
+        if ( ORIGINAL_MISSING_VALUES_SET.contains(trimVal.toUpperCase()) )
+            return null;
+        try {
+            Double value = Double.valueOf(trimVal);
+            for (Double mvdbl : ORIGINAL_MISSING_NUMBERS_ARRAY) {
+                if ( DashboardUtils.closeTo(value, mvdbl, 0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) ) {
+                    return null;
+                }
+            }
+        } catch ( Exception ex ) {
+            // not numeric
+        }
+        Double dataVal;
+        try {
+            dataVal = Double.valueOf(valueString);
+        } catch ( NumberFormatException ex ) {
+            dataVal = Double.NaN;
+        }
+        if ( dataVal.isNaN() || dataVal.isInfinite() )
+            throw new IllegalArgumentException("not a valid floating-point value");
+        dataVal *= slope;
+        dataVal += intercept;
+        return dataVal;
+    }
+
+    /**
+     * Test method for {@link LinearConverter#convertDoubleOf(CharSequence)} and
+     * {@link LinearConverter#convertValueOf(String)} comparing the results for random strings to those of the
+     * original implementation using {@link Double#valueOf(String)}.
+     */
+    @Test
+    public void testConvertDoubleOfRandom() {
+        String[] fixedStrs = new String[] {
+                "-999", "-999.0", " -9999.99 ", "-999.9999999", "-999.999999", "nan", "N/a", " null ", "---",
+                "------", "1e5", "0x1p3", "Infinity", "-0", "-0.0", ".5", "5.", ".", "-", "+.5", "1d", "1e999",
+                "00000000000000000000001.5", "0.1", "123456789012345.6", "1234567890123456", "3.14159265358979"
+        };
+        String chars = "0123456789.-+ eE";
+        Random rand = new Random(20161017L);
+        LinearConverter[] converters = new LinearConverter[] {
+                new LinearConverter(null, null, null),
+                new LinearConverter("K", "degC", null)
+        };
+        double[][] slopesIntercepts = new double[][] { { 1.0, 0.0 }, { 1.0, -273.15 } };
+        for (int n = 0; n < 200000; n++) {
+            String str;
+            if ( n < fixedStrs.length ) {
+                str = fixedStrs[n];
+            }
+            else if ( (n % 2) == 0 ) {
+                // random characters, mostly digits
+                int len = rand.nextInt(20);
+                StringBuilder builder = new StringBuilder();
+                for (int k = 0; k < len; k++) {
+                    builder.append(chars.charAt(rand.nextInt(rand.nextBoolean() ? 10 : chars.length())));
+                }
+                str = builder.toString();
+            }
+            else {
+                // well-formed decimal values, to check the value is the correctly rounded value
+                int len = 1 + rand.nextInt(24);
+                int dot = rand.nextInt(len + 1);
+                StringBuilder builder = new StringBuilder();
+                if ( rand.nextInt(3) == 0 )
+                    builder.append('-');
+                for (int k = 0; k < len; k++) {
+                    if ( k == dot )
+                        builder.append('.');
+                    builder.append((char) ('0' + rand.nextInt(10)));
+                }
+                str = builder.toString();
+            }
+            for (int j = 0; j < converters.length; j++) {
+                Double expected;
+                try {
+                    expected = originalConvertValueOf(str, slopesIntercepts[j][0], slopesIntercepts[j][1]);
+                } catch ( IllegalArgumentException ex ) {
+                    try {
+                        converters[j].convertDoubleOf(str);
+                        fail("convertDoubleOf of \"" + str + "\" succeeded");
+                    } catch ( IllegalArgumentException ex2 ) {
+                        // Expected result
+                    }
+                    continue;
+                }
+                if ( expected == null ) {
+                    assertTrue(str, Double.isNaN(converters[j].convertDoubleOf(str)));
+                    assertNull(str, converters[j].convertValueOf(str));
+                }
+                else {
+                    assertEquals(str, expected, converters[j].convertDoubleOf(str), 0.0);
+                    assertEquals(str, expected, converters[j].convertValueOf(str));
+                }
+            }
+        }
+    }
+
 }
@@ -4,12 +4,22 @@
 package gov.noaa.pmel.dashboard.test.datatype;
 
 import gov.noaa.pmel.dashboard.datatype.LonLatConverter;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.ADCMessage;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import gov.noaa.pmel.dashboard.shared.DataQCFlag;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.regex.Pattern;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Unit tests for methods of {@link LonLatConverter}
@@ -151,4 +161,210 @@ public class LonLatConverterTest {
         assertEquals(45.7675, converter.convertValueOf("314.135700"), 1.0E-6);
     }
 
+    /**
+     * Test method for {@link LonLatConverter#convertDoubleOf(CharSequence)}.
+     */
+    @Test
+    public void testConvertDoubleOf() {
+        String[][] unitsAndValues = new String[][] {
+                { "deg E", "123.45", "-45.67", "315", "-180.0", "9999" },
+                { "deg W", "123.45", "-45.67", "315", "-180.0", "9999" },
+                { "deg min E", "314" + LonLatConverter.DEGREE_SYMBOL + " 45.0'", "45 51.3", "45,51.3,,", "-45 30" },
+                { "deg min sec W", "45" + LonLatConverter.DEGREE_SYMBOL + " 50' 11.4\"", "45  50  11.4", "45 50 11 " },
+                { "DDD.MMSSss E", "314.45", "45.5118", "314.135700", "-45.5", ".3015", "45.",
+                        "45.1234567890123456789" },
+                { "DD.MMSSss S", "45.50114", "45", "-45.3" },
+        };
+        for (String[] values : unitsAndValues) {
+            String outputUnit = values[0].endsWith("E") || values[0].endsWith("W") ? "deg E" : "deg N";
+            LonLatConverter converter = new LonLatConverter(values[0], outputUnit, null);
+            for (int k = 1; k < values.length; k++) {
+                assertEquals(converter.convertValueOf(values[k]).doubleValue(),
+                        converter.convertDoubleOf(new StringBuilder(values[k])), 0.0);
+            }
+            // missing values are NaN
+            for (String str : new String[] { "", " --- ", "NA", "-9999", "-999.9" }) {
+                assertTrue(Double.isNaN(converter.convertDoubleOf(str)));
+                assertNull(converter.convertValueOf(str));
+            }
+        }
+        LonLatConverter converter = new LonLatConverter("DDD.MMSSss W", "deg E", null);
+        assertEquals(45.7675, converter.convertDoubleOf("314.135700"), 1.0E-6);
+        assertEquals(-45.50175, converter.convertDoubleOf("45.30063"), 1.0E-6);
+
+        // degrees and minutes must be given if deg min sec
+        converter = new LonLatConverter("deg min sec N", "deg N", null);
+        for (String str : new String[] { "45 11.4", " 45 50 11.4", "45 50 11.4 2", "NaN 50 11.4" }) {
+            boolean errCaught = false;
+            try {
+                converter.convertDoubleOf(str);
+            } catch ( IllegalArgumentException ex ) {
+                errCaught = true;
+            }
+            assertTrue(errCaught);
+        }
+    }
+
+    private static final HashSet<String> ORIGINAL_MISSING_VALUES_SET =
+            new HashSet<String>(Arrays.asList("", "NA", "N/A", "NAN",
+                    "NULL", "-", "--", "---", "----", "-----"));
+    private static final Double[] ORIGINAL_MISSING_NUMBERS_ARRAY =
+            new Double[] { -999.0, -999.9, -999.99, -999.999,
+                    -9999.0, -9999.9, -9999.99, -99999.0, -99999.9 };
+    private static final Pattern DEG_MIN_SPLIT_PATTERN =
+            Pattern.compile("[ " + LonLatConverter.DEGREE_SYMBOL + "',]+");
+    private static final Pattern DEG_MIN_SEC_SPLIT_PATTERN =
+            Pattern.compile("[ " + LonLatConverter.DEGREE_SYMBOL + "'\",]+");
+
+    /**
+     * The original implementation of {@link LonLatConverter#convertValueOf(String)}, which split the values using
+     * regular expressions and used {@link Double#valueOf(String)} for parsing and for checking for missing values.
+     */
+    private static Double originalConvertValueOf(String fromUnit, String toUnit, String missVal,
+            String valueString) throws IllegalArgumentException {
+        // Deal with missing values
+        if ( missVal == null ) {
+            String trimVal = valueString.trim();
+            if ( ORIGINAL_MISSING_VALUES_SET.contains(trimVal.toUpperCase()) )
+                return null;
+            try {
+                Double value = Double.valueOf(trimVal);
+                for (Double mvdbl : ORIGINAL_MISSING_NUMBERS_ARRAY) {
+                    if ( DashboardUtils.closeTo(value, mvdbl, 0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) ) {
+                        return null;
+                    }
+                }
+            } catch ( Exception ex ) {
+                // not numeric
+            }
+        }
+        else if ( missVal.equalsIgnoreCase(valueString) ) {
+            return null;
+        }
+        Double value;
+        if ( fromUnit.startsWith("deg min sec ") ) {
+            try {
+                String[] parts = DEG_MIN_SEC_SPLIT_PATTERN.split(valueString, 0);
+                if ( parts.length != 3 )
+                    throw new Exception();
+                value = Double.valueOf(parts[0]);
+                value += (Double.valueOf(parts[1]) / 60.0);
+                value += (Double.valueOf(parts[2]) / 3600.0);
+            } catch ( Exception ex ) {
+                throw new IllegalArgumentException("not a degree minute second value");
+            }
+        }
+        else if ( fromUnit.startsWith("deg min ") ) {
+            try {
+                String[] parts = DEG_MIN_SPLIT_PATTERN.split(valueString, 0);
+                if ( parts.length != 2 )
+                    throw new Exception();
+                value = Double.valueOf(parts[0]);
+                value += (Double.valueOf(parts[1]) / 60.0);
+            } catch ( Exception ex ) {
+                throw new IllegalArgumentException("not a degree minute value");
+            }
+        }
+        else if ( fromUnit.startsWith("deg ") ) {
+            try {
+                value = Double.valueOf(valueString);
+            } catch ( Exception ex ) {
+                throw new IllegalArgumentException("not a floating point value");
+            }
+        }
+        else {
+            try {
+                value = Double.valueOf(valueString);
+                int dot = valueString.indexOf('.');
+                if ( (dot >= 0) && (dot + 1 < valueString.length()) ) {
+                    String expanded = valueString + "0000000";
+                    if ( dot > 0 )
+                        value = Double.valueOf(valueString.substring(0, dot));
+                    else
+                        value = 0.0;
+                    double minval = Double.valueOf(expanded.substring(dot + 1, dot + 3));
+                    double secval = Double.valueOf(expanded.substring(dot + 3, dot + 5) +
+                            "." + expanded.substring(dot + 5));
+                    if ( value < 0.0 ) {
+                        value -= minval / 60.0;
+                        value -= secval / 3600.0;
+                    }
+                    else {
+                        value += minval / 60.0;
+                        value += secval / 3600.0;
+                    }
+                }
+            } catch ( Exception ex ) {
+                throw new IllegalArgumentException("not a DDD.MMSSss value");
+            }
+        }
+        if ( fromUnit.endsWith("W") || fromUnit.endsWith("S") )
+            value *= -1.0;
+        if ( toUnit.endsWith("E") ) {
+            ADCMessage msg = DashboardServerUtils.LONGITUDE.boundsCheckStandardValue(value);
+            if ( (msg == null) || msg.getSeverity().equals(DataQCFlag.Severity.WARNING) ) {
+                while ( value <= -180.0 ) {
+                    value += 360.0;
+                }
+                while ( value > 180.0 ) {
+                    value -= 360.0;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Test method for {@link LonLatConverter#convertDoubleOf(CharSequence)} and
+     * {@link LonLatConverter#convertValueOf(String)} comparing the results for random strings to those of the
+     * original implementation using regular expressions and {@link Double#valueOf(String)}.
+     */
+    @Test
+    public void testConvertDoubleOfRandom() {
+        String[] fromUnits = new String[] {
+                "deg E", "deg min E", "deg min sec E", "DDD.MMSSss E",
+                "deg W", "deg min W", "deg min sec W", "DDD.MMSSss W",
+                "deg N", "deg min N", "deg min sec N", "DD.MMSSss N",
+                "deg S", "deg min S", "deg min sec S", "DD.MMSSss S"
+        };
+        String chars = "0123456789.- '\"" + LonLatConverter.DEGREE_SYMBOL + ",e";
+        Random rand = new Random(20161017L);
+        for (String missVal : new String[] { null, "-999" }) {
+            for (String fromUnit : fromUnits) {
+                String toUnit = fromUnit.endsWith("E") || fromUnit.endsWith("W") ? "deg E" : "deg N";
+                LonLatConverter converter = new LonLatConverter(fromUnit, toUnit, missVal);
+                for (int n = 0; n < 20000; n++) {
+                    // random characters, mostly digits, decimal points, minus signs, and spaces
+                    int len = rand.nextInt(16);
+                    StringBuilder builder = new StringBuilder();
+                    for (int k = 0; k < len; k++) {
+                        builder.append(chars.charAt(rand.nextInt((rand.nextInt(3) == 0) ? chars.length() : 12)));
+                    }
+                    String str = builder.toString();
+                    String msg = fromUnit + " [" + str + "]";
+                    Double expected;
+                    try {
+                        expected = originalConvertValueOf(fromUnit, toUnit, missVal, str);
+                    } catch ( IllegalArgumentException ex ) {
+                        try {
+                            converter.convertDoubleOf(str);
+                            fail("convertDoubleOf of " + msg + " succeeded");
+                        } catch ( IllegalArgumentException ex2 ) {
+                            assertEquals(msg, ex.getMessage(), ex2.getMessage());
+                        }
+                        continue;
+                    }
+                    if ( expected == null ) {
+                        assertTrue(msg, Double.isNaN(converter.convertDoubleOf(str)));
+                        assertNull(msg, converter.convertValueOf(str));
+                    }
+                    else {
+                        assertEquals(msg, expected, converter.convertDoubleOf(str), 0.0);
+                        assertEquals(msg, expected, converter.convertValueOf(str));
+                    }
+                }
+            }
+        }
+    }
+
 }
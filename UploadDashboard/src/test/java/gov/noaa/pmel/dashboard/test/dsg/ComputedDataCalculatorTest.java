@@ -0,0 +1,438 @@
+package gov.noaa.pmel.dashboard.test.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
+import gov.noaa.pmel.dashboard.datatype.DoubleDashDataType;
+import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
+import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.dsg.ComputedDataCalculator;
+import gov.noaa.pmel.dashboard.dsg.StdDataArray;
+import gov.noaa.pmel.dashboard.dsg.StdDataColumn;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ucar.ma2.ArrayDouble;
+import ucar.ma2.DataType;
+import ucar.nc2.Attribute;
+import ucar.nc2.Dimension;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.NetcdfFileWriter.Version;
+import ucar.nc2.Variable;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests of methods of {@link ComputedDataCalculator}.  The reference datasets are small global grids with
+ * simple values, and the expected values were computed independently from the formulas in the Ferret scripts
+ * calcSOCAT.jnl and sw_dist.jnl.
+ */
+public class ComputedDataCalculatorTest {
+
+    private static final double[] LONGITUDES = { 0.0, 90.0, 180.0, 270.0 };
+    private static final double[] LATITUDES = { -45.0, 45.0 };
+    private static final double FILL_VALUE = -999.0;
+
+    /**
+     * Names of the variables for the fCO2 values from each source, in the order of preference in calcSOCAT.jnl
+     */
+    private static final String[] FCO2_SOURCE_NAMES = {
+            "fCO2_insitu_from_xCO2_water_equi_temp_dry_ppm",
+            "fCO2_insitu_from_xCO2_water_sst_dry_ppm",
+            "fCO2_from_pCO2_water_water_equi_temp",
+            "fCO2_from_pCO2_water_sst_100humidity_uatm",
+            "fCO2_insitu_from_fCO2_water_equi_uatm",
+            "fCO2_insitu_from_fCO2_water_sst_100humidty_uatm",
+            "fCO2_from_pCO2_water_water_equi_temp_ncep",
+            "fCO2_from_pCO2_water_sst_100humidity_uatm_ncep",
+            "fCO2_insitu_from_xCO2_water_equi_temp_dry_ppm_woa",
+            "fCO2_insitu_from_xCO2_water_sst_dry_ppm_woa",
+            "fCO2_insitu_from_xCO2_water_equi_temp_dry_ppm_ncep",
+            "fCO2_insitu_from_xCO2_water_sst_dry_ppm_ncep",
+            "fCO2_insitu_from_xCO2_water_equi_temp_dry_ppm_ncep_woa",
+            "fCO2_insitu_from_xCO2_water_sst_dry_ppm_ncep_woa",
+    };
+
+    /**
+     * Expected fCO2 from each source for the reported values in {@link #testFco2Sources()}
+     */
+    private static final double[] FCO2_SOURCE_VALUES = {
+            360.958096, 378.643654, 361.039030, 373.731678, 352.465953, 365.000000, 361.031508,
+            373.723843, 360.951035, 378.636477, 363.237703, 381.033154, 363.230642, 381.025978,
+    };
+
+    /**
+     * Time of 2015-06-15 00:00:00 UTC in seconds since 1970-01-01 00:00:00 UTC
+     */
+    private static final double START_TIME = 1434326400.0;
+
+    private static final DashDataType<?>[] TIME_LOCATION_TYPES = {
+            DashboardServerUtils.LONGITUDE,
+            DashboardServerUtils.LATITUDE,
+            DashboardServerUtils.TIME,
+            DashboardServerUtils.YEAR,
+            DashboardServerUtils.MONTH_OF_YEAR,
+            DashboardServerUtils.DAY_OF_MONTH,
+            DashboardServerUtils.HOUR_OF_DAY,
+            DashboardServerUtils.MINUTE_OF_HOUR,
+            DashboardServerUtils.SECOND_OF_MINUTE,
+    };
+
+    private static final DashDataType<?>[] CO2_INPUT_TYPES = {
+            SocatTypes.SALINITY,
+            SocatTypes.TEQU,
+            SocatTypes.SST,
+            SocatTypes.PEQU,
+            SocatTypes.PATM,
+            SocatTypes.XCO2_WATER_TEQU_DRY,
+            SocatTypes.XCO2_WATER_SST_DRY,
+            SocatTypes.PCO2_WATER_TEQU_WET,
+            SocatTypes.PCO2_WATER_SST_WET,
+            SocatTypes.FCO2_WATER_TEQU_WET,
+            SocatTypes.FCO2_WATER_SST_WET,
+    };
+
+    private static File refDir;
+    private static ComputedDataCalculator calculator;
+    private static DoubleDashDataType[] sourceTypes;
+    private static KnownDataTypes outputTypes;
+
+    /**
+     * Creates a NetCDF file in the reference directory with global longitude-latitude grid variables with the given
+     * names and values.  The values of each variable are given by latitude index then longitude index.
+     */
+    private static void createGridFile(String filename, String[] varNames, double[][][] values) throws Exception {
+        File gridFile = new File(refDir, filename);
+        NetcdfFileWriter ncfile = NetcdfFileWriter.createNew(Version.netcdf3, gridFile.getPath());
+        try {
+            Dimension latDim = ncfile.addDimension(null, "lat", LATITUDES.length);
+            Dimension lonDim = ncfile.addDimension(null, "lon", LONGITUDES.length);
+            ArrayList<Dimension> dims = new ArrayList<Dimension>(1);
+            dims.add(lonDim);
+            Variable lonVar = ncfile.addVariable(null, "lon", DataType.DOUBLE, dims);
+            ncfile.addVariableAttribute(lonVar, new Attribute("units", "degrees_east"));
+            dims = new ArrayList<Dimension>(1);
+            dims.add(latDim);
+            Variable latVar = ncfile.addVariable(null, "lat", DataType.DOUBLE, dims);
+            ncfile.addVariableAttribute(latVar, new Attribute("units", "degrees_north"));
+            dims = new ArrayList<Dimension>(2);
+            dims.add(latDim);
+            dims.add(lonDim);
+            Variable[] gridVars = new Variable[varNames.length];
+            for (int v = 0; v < varNames.length; v++) {
+                gridVars[v] = ncfile.addVariable(null, varNames[v], DataType.DOUBLE, dims);
+                ncfile.addVariableAttribute(gridVars[v], new Attribute("_FillValue", FILL_VALUE));
+            }
+            ncfile.create();
+
+            ArrayDouble.D1 lonVals = new ArrayDouble.D1(LONGITUDES.length);
+            for (int i = 0; i < LONGITUDES.length; i++) {
+                lonVals.set(i, LONGITUDES[i]);
+            }
+            ncfile.write(lonVar, lonVals);
+            ArrayDouble.D1 latVals = new ArrayDouble.D1(LATITUDES.length);
+            for (int j = 0; j < LATITUDES.length; j++) {
+                latVals.set(j, LATITUDES[j]);
+            }
+            ncfile.write(latVar, latVals);
+            for (int v = 0; v < varNames.length; v++) {
+                ArrayDouble.D2 vals = new ArrayDouble.D2(LATITUDES.length, LONGITUDES.length);
+                for (int j = 0; j < LATITUDES.length; j++) {
+                    for (int i = 0; i < LONGITUDES.length; i++) {
+                        vals.set(j, i, values[v][j][i]);
+                    }
+                }
+                ncfile.write(gridVars[v], vals);
+            }
+        } finally {
+            ncfile.close();
+        }
+    }
+
+    /**
+     * @return grid values, by latitude index then longitude index, that are all the given value
+     */
+    private static double[][] constantGrid(double value) {
+        double[][] vals = new double[LATITUDES.length][LONGITUDES.length];
+        for (int j = 0; j < LATITUDES.length; j++) {
+            for (int i = 0; i < LONGITUDES.length; i++) {
+                vals[j][i] = value;
+            }
+        }
+        return vals;
+    }
+
+    /**
+     * Creates the reference datasets, the calculator, and the output types.  The reference grids have constant
+     * values except: the WOA salinity is missing (land) in the northern row; and the region IDs, with the coastal
+     * region IDs, have a different value at each grid point.
+     */
+    @BeforeClass
+    public static void setUp() throws Exception {
+        refDir = Files.createTempDirectory("refdata").toFile();
+        createGridFile(ComputedDataCalculator.NCEP_SLP_FILENAME, new String[] { "slp" },
+                new double[][][] { constantGrid(101325.0) });
+        createGridFile(ComputedDataCalculator.WOA_SALINITY_FILENAME, new String[] { "s0112an1" },
+                new double[][][] { { { 34.0, 34.0, 34.0, 34.0 }, constantGrid(FILL_VALUE)[1] } });
+        createGridFile(ComputedDataCalculator.ETOPO2_FILENAME, new String[] { "rose" },
+                new double[][][] { constantGrid(-4000.0) });
+        createGridFile(ComputedDataCalculator.DIST_TO_LAND_FILENAME, new String[] { "dist2land" },
+                new double[][][] { constantGrid(500.0) });
+        createGridFile(ComputedDataCalculator.REGION_IDS_FILENAME,
+                new String[] { "region_id", "southern_coast_arctic" },
+                new double[][][] {
+                        { { 1.0, 0.0, FILL_VALUE, 6.0 }, { 2.0, 4.0, 10.0, 11.0 } },
+                        { { 8.0, 8.0, 8.0, 8.0 }, { 7.0, 7.0, 7.0, 7.0 } }
+                });
+        createGridFile(ComputedDataCalculator.GVCO2_FILENAME, new String[] { "co2" },
+                new double[][][] { constantGrid(400.0) });
+        calculator = new ComputedDataCalculator(refDir);
+
+        // The fCO2 from each source is only added when its type is a known data file type
+        sourceTypes = new DoubleDashDataType[FCO2_SOURCE_NAMES.length];
+        ArrayList<DashDataType<?>> typesList = new ArrayList<DashDataType<?>>(FCO2_SOURCE_NAMES.length);
+        for (int k = 0; k < FCO2_SOURCE_NAMES.length; k++) {
+            sourceTypes[k] = new DoubleDashDataType(FCO2_SOURCE_NAMES[k],
+                    720.0 + k, FCO2_SOURCE_NAMES[k], FCO2_SOURCE_NAMES[k], false,
+                    SocatTypes.FCO2_UNITS, null, SocatTypes.CO2_CATEGORY, null,
+                    null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+            typesList.add(sourceTypes[k]);
+        }
+        KnownDataTypes dataFileTypes = new KnownDataTypes().addStandardTypesForDataFiles();
+        dataFileTypes.addDataTypes(typesList);
+        outputTypes = ComputedDataCalculator.getOutputTypes(dataFileTypes);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if ( calculator != null )
+            calculator.close();
+        File[] refFiles = refDir.listFiles();
+        if ( refFiles != null ) {
+            for (File refFile : refFiles) {
+                refFile.delete();
+            }
+        }
+        refDir.delete();
+    }
+
+    /**
+     * @return the time and location values for a sample on 2015-06-15 at the given longitude, latitude,
+     *         and time of day
+     */
+    private static Object[] timeLocation(double lon, double lat, int hour, int minute, double second) {
+        return new Object[] { lon, lat, START_TIME + hour * 3600.0 + minute * 60.0 + second,
+                2015, 6, 15, hour, minute, second };
+    }
+
+    /**
+     * @return standardized data of the given time and location values of each sample, followed by the given
+     *         values, if any, of the given types
+     */
+    private static StdDataArray createStdData(Object[][] timeLocs, DashDataType<?>[] otherTypes,
+            Object[][] otherVals) {
+        int numOther = (otherTypes != null) ? otherTypes.length : 0;
+        DashDataType<?>[] types = new DashDataType<?>[TIME_LOCATION_TYPES.length + numOther];
+        System.arraycopy(TIME_LOCATION_TYPES, 0, types, 0, TIME_LOCATION_TYPES.length);
+        if ( numOther > 0 )
+            System.arraycopy(otherTypes, 0, types, TIME_LOCATION_TYPES.length, numOther);
+        Object[][] values = new Object[timeLocs.length][types.length];
+        for (int j = 0; j < timeLocs.length; j++) {
+            System.arraycopy(timeLocs[j], 0, values[j], 0, TIME_LOCATION_TYPES.length);
+            if ( numOther > 0 )
+                System.arraycopy(otherVals[j], 0, values[j], TIME_LOCATION_TYPES.length, numOther);
+        }
+        return new StdDataArray(types, values);
+    }
+
+    /**
+     * @return the computed column of the given type in the given standardized data
+     */
+    private static StdDataColumn getColumn(StdDataArray stddata, DashDataType<?> dtype) {
+        Integer colIdx = stddata.getIndexOfType(dtype);
+        assertNotNull("no " + dtype.getVarName() + " column", colIdx);
+        return stddata.getStdColumn(colIdx);
+    }
+
+    /**
+     * Test method for {@link ComputedDataCalculator#addComputedData(StdDataArray, KnownDataTypes)} of the fCO2
+     * from each source, and the recommended fCO2 and its source number.  Each sample after the first reports only
+     * the values needed for the source with the next number to be the recommended fCO2.
+     */
+    @Test
+    public void testFco2Sources() throws Exception {
+        // salinity, Tequ, SST, Pequ, Patm, xCO2 Tequ dry, xCO2 SST dry, pCO2 Tequ wet, pCO2 SST wet,
+        // fCO2 Tequ wet, fCO2 SST wet
+        Object[][] co2Vals = {
+                { 35.5, 20.5, 20.0, 1010.0, 1008.0, 380.0, 390.0, 370.0, 375.0, 360.0, 365.0 },
+                { 35.5, 20.5, 20.0, 1010.0, 1008.0, null, 390.0, 370.0, 375.0, 360.0, 365.0 },
+                { 35.5, 20.5, 20.0, 1010.0, 1008.0, null, null, 370.0, 375.0, 360.0, 365.0 },
+                { 35.5, 20.5, 20.0, 1010.0, 1008.0, null, null, null, 375.0, 360.0, 365.0 },
+                { 35.5, 20.5, 20.0, 1010.0, 1008.0, null, null, null, null, 360.0, 365.0 },
+                { 35.5, 20.5, 20.0, 1010.0, 1008.0, null, null, null, null, null, 365.0 },
+                { 35.5, 20.5, 20.0, null, null, null, null, 370.0, 375.0, null, null },
+                { 35.5, 20.5, 20.0, null, null, null, null, null, 375.0, null, null },
+                { null, 20.5, 20.0, 1010.0, 1008.0, 380.0, 390.0, null, null, null, null },
+                { null, 20.5, 20.0, 1010.0, 1008.0, null, 390.0, null, null, null, null },
+                { 35.5, 20.5, 20.0, null, null, 380.0, 390.0, null, null, null, null },
+                { 35.5, 20.5, 20.0, null, null, null, 390.0, null, null, null, null },
+                { null, 20.5, 20.0, null, null, 380.0, 390.0, null, null, null, null },
+                { null, 20.5, 20.0, null, null, null, 390.0, null, null, null, null },
+                // a zero value is false in Ferret, so is not used
+                { 35.5, 20.5, 20.0, 1010.0, 1008.0, 0.0, null, null, 375.0, null, null },
+                // zero equilibrator pressure, so atmospheric pressure + 3 is used
+                { 35.5, 20.5, 20.0, 0.0, 1008.0, 380.0, null, null, null, null, null },
+                // no CO2 values
+                { 35.5, 20.5, 20.0, 1010.0, 1008.0, null, null, null, null, null, null },
+        };
+        Object[][] timeLocs = new Object[co2Vals.length][];
+        for (int j = 0; j < co2Vals.length; j++) {
+            timeLocs[j] = timeLocation(-150.0, -30.0, j, 0, 0.0);
+        }
+        StdDataArray stddata = createStdData(timeLocs, CO2_INPUT_TYPES, co2Vals);
+        StdDataArray computed = calculator.addComputedData(stddata, outputTypes);
+
+        // All the sources for the first sample, which reports all the values
+        for (int k = 0; k < FCO2_SOURCE_NAMES.length; k++) {
+            StdDataColumn column = getColumn(computed, sourceTypes[k]);
+            assertEquals(FCO2_SOURCE_NAMES[k], FCO2_SOURCE_VALUES[k], column.getDouble(0), 1.0E-5);
+        }
+        // No pressures reported, so no fCO2 using reported pressures
+        StdDataColumn column = getColumn(computed, sourceTypes[2]);
+        assertTrue(column.isMissing(6));
+        column = getColumn(computed, sourceTypes[6]);
+        assertEquals(FCO2_SOURCE_VALUES[6], column.getDouble(6), 1.0E-5);
+
+        StdDataColumn recColumn = getColumn(computed, SocatTypes.FCO2_REC);
+        StdDataColumn srcColumn = getColumn(computed, SocatTypes.FCO2_SOURCE);
+        for (int k = 0; k < FCO2_SOURCE_NAMES.length; k++) {
+            assertEquals(FCO2_SOURCE_VALUES[k], recColumn.getDouble(k), 1.0E-5);
+            assertEquals(k + 1, srcColumn.getInt(k));
+        }
+        assertEquals(FCO2_SOURCE_VALUES[3], recColumn.getDouble(14), 1.0E-5);
+        assertEquals(4, srcColumn.getInt(14));
+        assertEquals(361.322840, recColumn.getDouble(15), 1.0E-5);
+        assertEquals(1, srcColumn.getInt(15));
+        assertTrue(recColumn.isMissing(16));
+        assertTrue(srcColumn.isMissing(16));
+
+        // The reported data columns are kept
+        column = getColumn(computed, SocatTypes.XCO2_WATER_TEQU_DRY);
+        assertEquals(380.0, column.getDouble(0), 1.0E-10);
+        assertEquals(co2Vals.length, computed.getNumSamples());
+    }
+
+    /**
+     * Test method for {@link ComputedDataCalculator#addComputedData(StdDataArray, KnownDataTypes)} of the values
+     * from the reference datasets and the time and location values.
+     */
+    @Test
+    public void testReferenceValues() throws Exception {
+        Object[][] timeLocs = {
+                timeLocation(-150.0, -30.0, 12, 30, 30.0),
+                timeLocation(150.0, 40.0, 13, 0, 0.0),
+        };
+        Object[][] tempVals = {
+                { 20.5, 20.0 },
+                { 15.0, 15.25 },
+        };
+        StdDataArray stddata = createStdData(timeLocs,
+                new DashDataType<?>[] { SocatTypes.TEQU, SocatTypes.SST }, tempVals);
+        StdDataArray computed = calculator.addComputedData(stddata, outputTypes);
+
+        StdDataColumn column = getColumn(computed, SocatTypes.WOA_SALINITY);
+        assertEquals(34.0, column.getDouble(0), 1.0E-10);
+        // land in the WOA salinity gives the default salinity
+        assertEquals(35.0, column.getDouble(1), 1.0E-10);
+        column = getColumn(computed, SocatTypes.NCEP_SLP);
+        assertEquals(1013.25, column.getDouble(0), 1.0E-10);
+        column = getColumn(computed, SocatTypes.GVCO2);
+        assertEquals(400.0, column.getDouble(0), 1.0E-10);
+        column = getColumn(computed, SocatTypes.ETOPO2_DEPTH);
+        assertEquals(4000.0, column.getDouble(0), 1.0E-10);
+        column = getColumn(computed, SocatTypes.DIST_TO_LAND);
+        assertEquals(500.0, column.getDouble(0), 1.0E-10);
+        column = getColumn(computed, SocatTypes.DELTA_TEMP);
+        assertEquals(0.5, column.getDouble(0), 1.0E-10);
+        assertEquals(-0.25, column.getDouble(1), 1.0E-10);
+        column = getColumn(computed, ComputedDataCalculator.LON360);
+        assertEquals(210.0, column.getDouble(0), 1.0E-10);
+        assertEquals(150.0, column.getDouble(1), 1.0E-10);
+        column = getColumn(computed, DashboardServerUtils.DAY_OF_YEAR);
+        assertEquals(166.0 + (12.0 * 3600.0 + 30.0 * 60.0 + 30.0) / 86400.0, column.getDouble(0), 1.0E-10);
+        column = getColumn(computed, ComputedDataCalculator.TMONTH);
+        assertEquals("Jun", column.getString(0));
+        // no CO2 values
+        column = getColumn(computed, SocatTypes.FCO2_REC);
+        assertTrue(column.isMissing(0));
+
+        // Computed types that are not output are not added
+        KnownDataTypes fewerTypes = new KnownDataTypes().addStandardTypesForDataFiles();
+        computed = calculator.addComputedData(stddata, fewerTypes);
+        assertNull(computed.getIndexOfType(sourceTypes[0]));
+        assertNull(computed.getIndexOfType(ComputedDataCalculator.LON360));
+        assertNotNull(computed.getIndexOfType(SocatTypes.WOA_SALINITY));
+    }
+
+    /**
+     * Test method for {@link ComputedDataCalculator#addComputedData(StdDataArray, KnownDataTypes)} of the ship
+     * speeds, which use the distances as computed in sw_dist.jnl, including across the dateline, and time
+     * differences ignoring seconds.
+     */
+    @Test
+    public void testShipSpeeds() throws Exception {
+        Object[][] timeLocs = {
+                timeLocation(179.5, -30.0, 0, 0, 0.0),
+                timeLocation(-179.5, -30.5, 1, 0, 30.0),
+                timeLocation(-179.0, -30.0, 3, 0, 0.0),
+        };
+        StdDataArray computed = calculator.addComputedData(createStdData(timeLocs, null, null), outputTypes);
+        StdDataColumn column = getColumn(computed, SocatTypes.CALC_SPEED);
+        assertEquals(65.419023, column.getDouble(0), 1.0E-5);
+        assertEquals(20.886073, column.getDouble(1), 1.0E-5);
+        // the last sample is given the speed of the previous sample
+        assertEquals(20.886073, column.getDouble(2), 1.0E-5);
+    }
+
+    /**
+     * Test method for {@link ComputedDataCalculator#addComputedData(StdDataArray, KnownDataTypes)} of the region
+     * IDs, including the coastal region IDs used where the region ID is missing or zero (land).
+     */
+    @Test
+    public void testRegionIds() throws Exception {
+        Object[][] timeLocs = new Object[LATITUDES.length * LONGITUDES.length][];
+        for (int j = 0; j < LATITUDES.length; j++) {
+            for (int i = 0; i < LONGITUDES.length; i++) {
+                int k = j * LONGITUDES.length + i;
+                timeLocs[k] = timeLocation(LONGITUDES[i], LATITUDES[j], k, 0, 0.0);
+            }
+        }
+        StdDataArray computed = calculator.addComputedData(createStdData(timeLocs, null, null), outputTypes);
+        StdDataColumn column = getColumn(computed, DashboardServerUtils.REGION_ID);
+        String[] expected = { "N", "Z", "Z", "A", "T", "O", "R", null };
+        for (int k = 0; k < expected.length; k++) {
+            if ( expected[k] == null )
+                assertTrue(column.isMissing(k));
+            else
+                assertEquals(expected[k], column.getString(k));
+        }
+    }
+
+    /**
+     * Test method for {@link ComputedDataCalculator#addComputedData(StdDataArray, KnownDataTypes)} with a required
+     * data column missing.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingTimeColumn() throws Exception {
+        DashDataType<?>[] types = { DashboardServerUtils.LONGITUDE, DashboardServerUtils.LATITUDE };
+        StdDataArray stddata = new StdDataArray(types, new Object[][] { { -150.0, -30.0 } });
+        calculator.addComputedData(stddata, outputTypes);
+    }
+
+}
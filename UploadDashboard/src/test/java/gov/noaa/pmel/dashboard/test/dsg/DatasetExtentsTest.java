@@ -0,0 +1,135 @@
+package gov.noaa.pmel.dashboard.test.dsg;
+
+import gov.noaa.pmel.dashboard.dsg.DatasetExtents;
+import gov.noaa.pmel.dashboard.dsg.DatasetExtentsIndex;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for methods in {@link DatasetExtents} and {@link DatasetExtentsIndex}
+ */
+public class DatasetExtentsTest {
+
+    private static final double MISS = DashboardUtils.FP_MISSING_VALUE;
+
+    /**
+     * Test method for {@link DatasetExtents#fromData(String, long, long, double[], double[], double[])}
+     */
+    @Test
+    public void testFromData() {
+        double[] lons = { -170.0, -165.0, MISS, -160.0, -158.5 };
+        double[] lats = { 15.0, MISS, 17.5, 16.0, 14.5 };
+        double[] times = { 1000.0, 2000.0, 3000.0, MISS, 5000.0 };
+        DatasetExtents extents = DatasetExtents.fromData("XXXX20140113", 12345L, 678L, lons, lats, times);
+        assertEquals("XXXX20140113", extents.getDatasetId());
+        assertEquals(12345L, extents.getFileStamp());
+        assertEquals(678L, extents.getFileLength());
+        assertTrue(extents.isForFile(12345L, 678L));
+        assertFalse(extents.isForFile(12345L, 679L));
+        assertFalse(extents.isForFile(12346L, 678L));
+        assertEquals(2, extents.getNumValid());
+        assertEquals(1000.0, extents.getMinTime(), 1.0E-6);
+        assertEquals(5000.0, extents.getMaxTime(), 1.0E-6);
+        assertEquals(14.5, extents.getSouthLat(), 1.0E-6);
+        assertEquals(17.5, extents.getNorthLat(), 1.0E-6);
+        assertEquals(-170.0, extents.getWestLon(), 1.0E-6);
+        assertEquals(-158.5, extents.getEastLon(), 1.0E-6);
+        assertTrue(extents.hasValidTimes());
+        assertTrue(extents.hasValidLatitudes());
+        assertFalse(extents.crossesAntimeridian());
+
+        // Longitudes crossing the antimeridian, given in both conventions
+        lons = new double[] { 175.0, 179.5, 182.0, -176.0, 178.0 };
+        extents = DatasetExtents.fromData("XXXX20140113", 12345L, 678L, lons, lats, times);
+        assertEquals(175.0, extents.getWestLon(), 1.0E-6);
+        assertEquals(-176.0, extents.getEastLon(), 1.0E-6);
+        assertTrue(extents.crossesAntimeridian());
+
+        lons = new double[] { MISS, MISS, MISS, MISS, MISS };
+        extents = DatasetExtents.fromData("XXXX20140113", 12345L, 678L, lons, lats, times);
+        assertEquals(0, extents.getNumValid());
+        assertEquals(MISS, extents.getWestLon(), 1.0E-6);
+        assertEquals(MISS, extents.getEastLon(), 1.0E-6);
+        assertFalse(extents.crossesAntimeridian());
+
+        times = new double[] { MISS, MISS, MISS, MISS, MISS };
+        extents = DatasetExtents.fromData("XXXX20140113", 12345L, 678L, lons, lats, times);
+        assertFalse(extents.hasValidTimes());
+        assertTrue(extents.hasValidLatitudes());
+    }
+
+    /**
+     * Test method for {@link DatasetExtents#timesOverlap(DatasetExtents, double)} and
+     * {@link DatasetExtents#latitudesOverlap(DatasetExtents, double)}
+     */
+    @Test
+    public void testOverlaps() {
+        DatasetExtents first = new DatasetExtents("AAAA20140113", 0L, 0L, 10,
+                1000.0, 2000.0, 10.0, 20.0, -170.0, -160.0);
+        DatasetExtents second = new DatasetExtents("BBBB20140113", 0L, 0L, 10,
+                2500.0, 3000.0, 20.5, 30.0, -170.0, -160.0);
+        assertFalse(first.timesOverlap(second, 0.0));
+        assertFalse(second.timesOverlap(first, 499.0));
+        assertTrue(first.timesOverlap(second, 500.0));
+        assertFalse(first.latitudesOverlap(second, 0.25));
+        assertTrue(second.latitudesOverlap(first, 0.5));
+
+        DatasetExtents noTimes = new DatasetExtents("CCCC20140113", 0L, 0L, 0,
+                MISS, MISS, 10.0, 20.0, -170.0, -160.0);
+        assertFalse(first.timesOverlap(noTimes, 1.0E10));
+        assertTrue(first.latitudesOverlap(noTimes, 0.0));
+    }
+
+    /**
+     * Test method for {@link DatasetExtentsIndex#findTimeOverlaps(double, double)}
+     * by comparing with examining every dataset.
+     */
+    @Test
+    public void testFindTimeOverlaps() {
+        Random rand = new Random(20140113L);
+        ArrayList<DatasetExtents> extentsList = new ArrayList<DatasetExtents>();
+        for (int k = 0; k < 500; k++) {
+            double minTime = 1.0E6 * rand.nextDouble();
+            double maxTime = minTime + 1.0E4 * rand.nextDouble() * rand.nextDouble() * 10.0;
+            if ( k % 50 == 0 ) {
+                minTime = MISS;
+                maxTime = MISS;
+            }
+            extentsList.add(new DatasetExtents(String.format("XXXX%08d", k), 0L, 0L, 10,
+                    minTime, maxTime, 0.0, 10.0, 0.0, 10.0));
+        }
+        DatasetExtentsIndex index = new DatasetExtentsIndex(extentsList);
+        assertEquals(490, index.size());
+
+        for (int q = 0; q < 200; q++) {
+            double startTime = 1.1E6 * rand.nextDouble() - 0.05E6;
+            double endTime = startTime + 2.0E4 * rand.nextDouble();
+            TreeSet<String> expected = new TreeSet<String>();
+            for (DatasetExtents extents : extentsList) {
+                if ( extents.hasValidTimes() && (extents.getMaxTime() >= startTime) &&
+                        (extents.getMinTime() <= endTime) )
+                    expected.add(extents.getDatasetId());
+            }
+            TreeSet<String> found = new TreeSet<String>();
+            double lastMinTime = Double.NEGATIVE_INFINITY;
+            for (DatasetExtents extents : index.findTimeOverlaps(startTime, endTime)) {
+                assertTrue(extents.getMinTime() >= lastMinTime);
+                lastMinTime = extents.getMinTime();
+                found.add(extents.getDatasetId());
+            }
+            assertEquals(expected, found);
+        }
+
+        assertTrue(index.findTimeOverlaps(2000.0, 1000.0).isEmpty());
+        assertTrue(new DatasetExtentsIndex(new ArrayList<DatasetExtents>()).findTimeOverlaps(0.0, 1.0E6).isEmpty());
+    }
+
+}
@@ -0,0 +1,49 @@
+package gov.noaa.pmel.dashboard.test.dsg;
+
+import gov.noaa.pmel.dashboard.dsg.DsgDecimator;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests of methods of {@link DsgDecimator}
+ */
+public class DsgDecimatorTest {
+
+    /**
+     * Test method for {@link DsgDecimator#selectSamples(double[], double[], double[], double, double, double)}
+     */
+    @Test
+    public void testSelectSamples() {
+        // Straight line in all variables - only the end points are needed
+        double[] lons = { 0.0, 0.5, 1.0, 1.5, 2.0, 2.5, 3.0 };
+        double[] lats = { 10.0, 10.1, 10.2, 10.3, 10.4, 10.5, 10.6 };
+        double[] fco2s = { 350.0, 351.0, 352.0, 353.0, 354.0, 355.0, 356.0 };
+        assertArrayEquals(new int[] { 0, 6 }, DsgDecimator.selectSamples(lons, lats, fco2s, 1.0, 1.0, 4.0));
+
+        // Sharp turn in latitude at index 3
+        lats = new double[] { 10.0, 11.0, 12.0, 13.0, 12.0, 11.0, 10.0 };
+        assertArrayEquals(new int[] { 0, 3, 6 }, DsgDecimator.selectSamples(lons, lats, fco2s, 1.0, 1.0, 4.0));
+
+        // Spike in fCO2 at index 5, with a missing fCO2 value that does not contribute
+        lats = new double[] { 10.0, 10.1, 10.2, 10.3, 10.4, 10.5, 10.6 };
+        fco2s = new double[] { 350.0, Double.NaN, 352.0, 353.0, 354.0, 375.0, 356.0 };
+        int[] samples = DsgDecimator.selectSamples(lons, lats, fco2s, 1.0, 1.0, 4.0);
+        assertTrue(samples.length >= 3);
+        assertTrue(samples[0] == 0);
+        assertTrue(samples[samples.length - 1] == 6);
+        boolean found = false;
+        for (int idx : samples) {
+            if ( idx == 5 )
+                found = true;
+            assertTrue(idx != 1);
+        }
+        assertTrue(found);
+
+        // Two or fewer samples are all kept
+        assertArrayEquals(new int[] { 0, 1 }, DsgDecimator.selectSamples(new double[] { 0.0, 5.0 },
+                new double[] { 0.0, 5.0 }, new double[] { 0.0, 5.0 }, 1.0, 1.0, 4.0));
+    }
+
+}
@@ -3,23 +3,32 @@
  */
 package gov.noaa.pmel.dashboard.test.dsg;
 
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
 import gov.noaa.pmel.dashboard.datatype.SocatTypes;
 import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
 import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
+import gov.noaa.pmel.dashboard.dsg.StdDataArray;
 import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
+import gov.noaa.pmel.dashboard.qc.DataLocation;
+import gov.noaa.pmel.dashboard.qc.DataQCEvent;
 import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import gov.noaa.pmel.dashboard.shared.DashboardDatasetData;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DataColumnType;
 import gov.noaa.pmel.dashboard.test.datatype.KnownDataTypesTest;
 import org.junit.Test;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -216,4 +225,117 @@ public class DsgNcFileTest {
         }
     }
 
+    /**
+     * @return a data location with the given values
+     */
+    private static DataLocation dataLocation(double lon, double lat, double time, Double dataValue) {
+        DataLocation dataloc = new DataLocation();
+        dataloc.setLongitude(lon);
+        dataloc.setLatitude(lat);
+        dataloc.setDataDate(new Date(Math.round(time * 1000.0)));
+        if ( dataValue != null )
+            dataloc.setDataValue(dataValue);
+        return dataloc;
+    }
+
+    /**
+     * Test method for {@link DsgNcFile#updateDataQCFlags(java.util.List, boolean)}.  The flags of the events
+     * are applied in order, so a later event overrides an earlier event at the same data point, and the data
+     * locations not found are returned for each event.
+     */
+    @Test
+    public void testUpdateDataQCFlags() throws Exception {
+        String expocode = "33RO20150615";
+        double startTime = 1434326400.0;
+        DashDataType<?>[] types = {
+                DashboardServerUtils.LONGITUDE,
+                DashboardServerUtils.LATITUDE,
+                DashboardServerUtils.TIME,
+                DashboardServerUtils.YEAR,
+                DashboardServerUtils.MONTH_OF_YEAR,
+                DashboardServerUtils.DAY_OF_MONTH,
+                DashboardServerUtils.HOUR_OF_DAY,
+                DashboardServerUtils.MINUTE_OF_HOUR,
+                DashboardServerUtils.SECOND_OF_MINUTE,
+                SocatTypes.SST,
+        };
+        double[] lons = { -150.0, -150.01, -150.02, -150.03, -150.04 };
+        double[] lats = { 20.0, 20.01, 20.02, 20.03, 20.04 };
+        double[] ssts = { 25.0, 25.1, 25.2, 25.3, 25.4 };
+        Object[][] values = new Object[lons.length][];
+        for (int j = 0; j < lons.length; j++) {
+            values[j] = new Object[] { lons[j], lats[j], startTime + j * 60.0,
+                    2015, 6, 15, 0, j, 0.0, ssts[j] };
+        }
+        StdDataArray stddata = new StdDataArray(types, values);
+
+        DsgMetadata metadata = new DsgMetadata(KnownDataTypesTest.TEST_KNOWN_METADATA_FILE_TYPES);
+        metadata.setDatasetId(expocode);
+        metadata.setDatasetName(expocode);
+        metadata.setPlatformName("Roger Revelle");
+        metadata.setInvestigatorNames("Public, Nancy S.");
+        metadata.setPlatformType("Ship");
+        metadata.setSouthmostLatitude(20.0);
+        metadata.setNorthmostLatitude(20.04);
+        metadata.setWestmostLongitude(-150.04);
+        metadata.setEastmostLongitude(-150.0);
+        metadata.setBeginTime(startTime);
+        metadata.setEndTime(startTime + 240.0);
+
+        File parentDir = Files.createTempDirectory("dsgfile").toFile();
+        dsgNcFile = new DsgNcFile(parentDir, expocode + ".nc");
+        try {
+            dsgNcFile.createFromFileData(metadata, stddata, KnownDataTypesTest.TEST_KNOWN_DATA_FILE_TYPES);
+            String flagName = SocatTypes.WOCE_CO2_WATER.getVarName();
+            assertArrayEquals(new String[] { "2", "2", "2", "2", "2" },
+                    dsgNcFile.readStringVarDataValues(flagName));
+
+            // Questionable flags on SST values, with one location not in the file
+            DataQCEvent first = new DataQCEvent();
+            first.setFlagName(flagName);
+            first.setFlagValue(DashboardServerUtils.WOCE_QUESTIONABLE);
+            first.setVarName(SocatTypes.SST.getVarName());
+            DataLocation notFound = dataLocation(-150.02, 20.02, startTime + 120.0, 26.2);
+            first.setLocations(new ArrayList<DataLocation>(Arrays.asList(
+                    dataLocation(lons[1], lats[1], startTime + 60.0, ssts[1]),
+                    dataLocation(lons[3], lats[3], startTime + 180.0, ssts[3]),
+                    notFound)));
+
+            // Bad flag using only the location and time; overrides the earlier flag
+            DataQCEvent second = new DataQCEvent();
+            second.setFlagName(flagName);
+            second.setFlagValue(DashboardServerUtils.WOCE_BAD);
+            second.setVarName(DashboardUtils.STRING_MISSING_VALUE);
+            second.setLocations(new ArrayList<DataLocation>(Arrays.asList(
+                    dataLocation(lons[3], lats[3], startTime + 180.0, null))));
+
+            ArrayList<ArrayList<DataLocation>> unidentified =
+                    dsgNcFile.updateDataQCFlags(Arrays.asList(first, second), true);
+            assertEquals(2, unidentified.size());
+            assertEquals(1, unidentified.get(0).size());
+            assertSame(notFound, unidentified.get(0).get(0));
+            assertTrue(unidentified.get(1).isEmpty());
+            assertEquals(Integer.valueOf(2), first.getLocations().get(0).getRowNumber());
+            assertEquals(Integer.valueOf(4), first.getLocations().get(1).getRowNumber());
+            assertEquals(Integer.valueOf(DashboardUtils.INT_MISSING_VALUE), notFound.getRowNumber());
+            assertEquals(Integer.valueOf(4), second.getLocations().get(0).getRowNumber());
+
+            assertArrayEquals(new String[] { "2", "3", "2", "4", "2" },
+                    dsgNcFile.readStringVarDataValues(flagName));
+        } finally {
+            dsgNcFile.delete();
+            parentDir.delete();
+        }
+    }
+
+    /**
+     * Test method for {@link DsgNcFile#getAllRegionIDs(String[])}.
+     */
+    @Test
+    public void testGetAllRegionIDs() {
+        assertEquals("", DsgNcFile.getAllRegionIDs(new String[0]));
+        assertEquals("", DsgNcFile.getAllRegionIDs(new String[] { null, " ", "" }));
+        assertEquals("NT", DsgNcFile.getAllRegionIDs(new String[] { "T", "N", " ", "T", null, "N" }));
+    }
+
 }
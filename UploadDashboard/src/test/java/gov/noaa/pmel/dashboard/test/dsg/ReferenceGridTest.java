@@ -0,0 +1,121 @@
+package gov.noaa.pmel.dashboard.test.dsg;
+
+import gov.noaa.pmel.dashboard.dsg.ReferenceGrid;
+import org.junit.Test;
+import ucar.ma2.ArrayDouble;
+import ucar.ma2.DataType;
+import ucar.nc2.Attribute;
+import ucar.nc2.Dimension;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.NetcdfFileWriter.Version;
+import ucar.nc2.Variable;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests of methods of {@link ReferenceGrid}
+ */
+public class ReferenceGridTest {
+
+    private static final double[] LONGITUDES = { 0.0, 90.0, 180.0, 270.0 };
+    private static final double[] LATITUDES = { -45.0, 45.0 };
+    private static final double FILL_VALUE = -999.0;
+
+    /**
+     * Creates a NetCDF file with a global longitude-latitude grid variable "val" whose value is
+     * (longitude index) + 10 * (latitude index), except for a fill value at longitude 180, latitude 45.
+     */
+    private static File createGridFile() throws Exception {
+        File gridFile = File.createTempFile("refgrid", ".nc");
+        gridFile.deleteOnExit();
+        NetcdfFileWriter ncfile = NetcdfFileWriter.createNew(Version.netcdf3, gridFile.getPath());
+        try {
+            Dimension latDim = ncfile.addDimension(null, "lat", LATITUDES.length);
+            Dimension lonDim = ncfile.addDimension(null, "lon", LONGITUDES.length);
+            ArrayList<Dimension> dims = new ArrayList<Dimension>(1);
+            dims.add(lonDim);
+            Variable lonVar = ncfile.addVariable(null, "lon", DataType.DOUBLE, dims);
+            ncfile.addVariableAttribute(lonVar, new Attribute("units", "degrees_east"));
+            dims = new ArrayList<Dimension>(1);
+            dims.add(latDim);
+            Variable latVar = ncfile.addVariable(null, "lat", DataType.DOUBLE, dims);
+            ncfile.addVariableAttribute(latVar, new Attribute("units", "degrees_north"));
+            dims = new ArrayList<Dimension>(2);
+            dims.add(latDim);
+            dims.add(lonDim);
+            Variable valVar = ncfile.addVariable(null, "val", DataType.DOUBLE, dims);
+            ncfile.addVariableAttribute(valVar, new Attribute("_FillValue", FILL_VALUE));
+            ncfile.create();
+
+            ArrayDouble.D1 lonVals = new ArrayDouble.D1(LONGITUDES.length);
+            for (int i = 0; i < LONGITUDES.length; i++) {
+                lonVals.set(i, LONGITUDES[i]);
+            }
+            ncfile.write(lonVar, lonVals);
+            ArrayDouble.D1 latVals = new ArrayDouble.D1(LATITUDES.length);
+            for (int j = 0; j < LATITUDES.length; j++) {
+                latVals.set(j, LATITUDES[j]);
+            }
+            ncfile.write(latVar, latVals);
+            ArrayDouble.D2 vals = new ArrayDouble.D2(LATITUDES.length, LONGITUDES.length);
+            for (int j = 0; j < LATITUDES.length; j++) {
+                for (int i = 0; i < LONGITUDES.length; i++) {
+                    vals.set(j, i, i + 10.0 * j);
+                }
+            }
+            vals.set(1, 2, FILL_VALUE);
+            ncfile.write(valVar, vals);
+        } finally {
+            ncfile.close();
+        }
+        return gridFile;
+    }
+
+    /**
+     * Test method for {@link ReferenceGrid#sampleNearest(double, double, double)}
+     */
+    @Test
+    public void testSampleNearest() throws Exception {
+        File gridFile = createGridFile();
+        ReferenceGrid grid = new ReferenceGrid(gridFile, "val", false);
+        try {
+            assertEquals(gridFile.getName() + ":val", grid.getGridName());
+            assertEquals(11.0, grid.sampleNearest(100.0, 40.0, 0.0), 1.0E-10);
+            // longitude is periodic: -20 is nearest 0, not 270
+            assertEquals(0.0, grid.sampleNearest(-20.0, -40.0, 0.0), 1.0E-10);
+            assertEquals(13.0, grid.sampleNearest(-80.0, 50.0, 0.0), 1.0E-10);
+            assertTrue(Double.isNaN(grid.sampleNearest(180.0, 45.0, 0.0)));
+        } finally {
+            grid.close();
+            gridFile.delete();
+        }
+    }
+
+    /**
+     * Test method for {@link ReferenceGrid#sampleLinear(double, double, double)}
+     */
+    @Test
+    public void testSampleLinear() throws Exception {
+        File gridFile = createGridFile();
+        ReferenceGrid grid = new ReferenceGrid(gridFile, "val", false);
+        try {
+            assertEquals(0.5, grid.sampleLinear(45.0, -45.0, 0.0), 1.0E-10);
+            assertEquals(5.5, grid.sampleLinear(45.0, 0.0, 0.0), 1.0E-10);
+            // interpolation across the longitude wrap between 270 and 360
+            assertEquals(1.5, grid.sampleLinear(315.0, -45.0, 0.0), 1.0E-10);
+            assertEquals(1.5, grid.sampleLinear(-45.0, -45.0, 0.0), 1.0E-10);
+            // a contributing fill value gives a missing value
+            assertTrue(Double.isNaN(grid.sampleLinear(135.0, 45.0, 0.0)));
+            // outside the grid cells of the latitude axis
+            assertTrue(Double.isNaN(grid.sampleLinear(45.0, 95.0, 0.0)));
+        } finally {
+            grid.close();
+            gridFile.delete();
+        }
+    }
+
+}
@@ -4,6 +4,7 @@ import gov.noaa.pmel.dashboard.datatype.DashDataType;
 import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
 import gov.noaa.pmel.dashboard.datatype.SocatTypes;
 import gov.noaa.pmel.dashboard.dsg.StdDataArray;
+import gov.noaa.pmel.dashboard.dsg.StdDataColumn;
 import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
 import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import gov.noaa.pmel.dashboard.shared.ADCMessage;
@@ -26,6 +27,7 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Unit tests for methods in {@link StdUserDataArray} and {@link StdDataArray}
@@ -166,6 +168,117 @@ public class StdDataArrayTest {
         }
     }
 
+    /**
+     * Test method for {@link StdUserDataArray#StdUserDataArray(DashboardDatasetData, KnownDataTypes)}
+     * with data spanning more than one chunk of {@link StdUserDataArray#STANDARDIZATION_CHUNK_SIZE} rows.
+     */
+    @Test
+    public void testStdUserDataArrayChunks() {
+        List<ArrayList<String>> goodRows = DATA_VALUE_STRINGS.subList(3, DATA_VALUE_STRINGS.size());
+        int numRows = 2 * StdUserDataArray.STANDARDIZATION_CHUNK_SIZE + 7;
+        int badRowIdx = StdUserDataArray.STANDARDIZATION_CHUNK_SIZE + 3;
+        int lastUserDataColIdx = DATA_COLUMN_TYPES.size() - 1;
+        ArrayList<ArrayList<String>> dataVals = new ArrayList<ArrayList<String>>(numRows);
+        ArrayList<Integer> rowNums = new ArrayList<Integer>(numRows);
+        for (int j = 0; j < numRows; j++) {
+            ArrayList<String> rowVals = new ArrayList<String>(goodRows.get(j % goodRows.size()));
+            if ( j == badRowIdx )
+                rowVals.set(lastUserDataColIdx, "bad");
+            dataVals.add(rowVals);
+            rowNums.add(j + 1);
+        }
+        DashboardDatasetData dataset = new DashboardDatasetData();
+        dataset.setDatasetId(EXPOCODE);
+        dataset.setUserColNames(USER_COLUMN_NAMES);
+        dataset.setDataColTypes(DATA_COLUMN_TYPES);
+        dataset.setDataValues(dataVals);
+        dataset.setRowNums(rowNums);
+
+        StdUserDataArray stdData = new StdUserDataArray(dataset, KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES);
+        assertEquals(numRows, stdData.getNumSamples());
+        ArrayList<ADCMessage> msgList = stdData.getStandardizationMessages();
+        assertEquals(1, msgList.size());
+        ADCMessage msg = msgList.get(0);
+        assertEquals(Integer.valueOf(badRowIdx + 1), msg.getRowNumber());
+        assertEquals(Integer.valueOf(lastUserDataColIdx + 1), msg.getColNumber());
+        assertEquals(INVALID_FP_VALUE_ERRMSG, msg.getGeneralComment());
+
+        for (int j = 0; j < numRows; j++) {
+            ArrayList<String> rowVals = dataVals.get(j);
+            assertEquals(Double.valueOf(rowVals.get(0)), (Double) stdData.getStdVal(j, 0), 1.0E-6);
+            assertEquals(rowVals.get(1), stdData.getStdVal(j, 1));
+            assertEquals(Integer.valueOf(rowVals.get(3)), stdData.getStdVal(j, 3));
+            if ( j == badRowIdx )
+                assertNull(stdData.getStdVal(j, lastUserDataColIdx));
+            else
+                assertEquals(Double.valueOf(rowVals.get(lastUserDataColIdx)),
+                        (Double) stdData.getStdVal(j, lastUserDataColIdx), 1.0E-6);
+        }
+        int idx = stdData.getDataTypes().indexOf(DashboardServerUtils.SAMPLE_NUMBER);
+        for (int j = 0; j < numRows; j++) {
+            assertEquals(j + 1, ((Integer) stdData.getStdVal(j, idx)).intValue());
+        }
+    }
+
+    /**
+     * Test method for {@link StdUserDataArray#StdUserDataArray(DashboardDatasetData, KnownDataTypes)}
+     * with a run of invalid values spanning two chunks of {@link StdUserDataArray#STANDARDIZATION_CHUNK_SIZE} rows.
+     */
+    @Test
+    public void testStdUserDataArrayMessageRuns() {
+        List<ArrayList<String>> goodRows = DATA_VALUE_STRINGS.subList(3, DATA_VALUE_STRINGS.size());
+        int numRows = 2 * StdUserDataArray.STANDARDIZATION_CHUNK_SIZE + 7;
+        int firstBadRowIdx = StdUserDataArray.STANDARDIZATION_CHUNK_SIZE - 5;
+        int lastBadRowIdx = StdUserDataArray.STANDARDIZATION_CHUNK_SIZE + 10;
+        int otherBadRowIdx = lastBadRowIdx + 2;
+        int lastUserDataColIdx = DATA_COLUMN_TYPES.size() - 1;
+        ArrayList<ArrayList<String>> dataVals = new ArrayList<ArrayList<String>>(numRows);
+        ArrayList<Integer> rowNums = new ArrayList<Integer>(numRows);
+        for (int j = 0; j < numRows; j++) {
+            ArrayList<String> rowVals = new ArrayList<String>(goodRows.get(j % goodRows.size()));
+            if ( ((j >= firstBadRowIdx) && (j <= lastBadRowIdx)) || (j == otherBadRowIdx) )
+                rowVals.set(lastUserDataColIdx, "bad" + j);
+            dataVals.add(rowVals);
+            rowNums.add(j + 1);
+        }
+        DashboardDatasetData dataset = new DashboardDatasetData();
+        dataset.setDatasetId(EXPOCODE);
+        dataset.setUserColNames(USER_COLUMN_NAMES);
+        dataset.setDataColTypes(DATA_COLUMN_TYPES);
+        dataset.setDataValues(dataVals);
+        dataset.setRowNums(rowNums);
+
+        StdUserDataArray stdData = new StdUserDataArray(dataset, KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES);
+        assertEquals(numRows, stdData.getNumSamples());
+        // One message for the run of rows, and one for the separate row
+        ArrayList<ADCMessage> msgList = stdData.getStandardizationMessages();
+        assertEquals(2, msgList.size());
+
+        ADCMessage msg = msgList.get(0);
+        assertEquals(Integer.valueOf(firstBadRowIdx + 1), msg.getRowNumber());
+        assertEquals(Integer.valueOf(lastBadRowIdx + 1), msg.getLastRowNumber());
+        assertEquals(lastBadRowIdx - firstBadRowIdx + 1, msg.getNumRows());
+        assertEquals(Integer.valueOf(lastUserDataColIdx + 1), msg.getColNumber());
+        assertEquals(INVALID_FP_VALUE_ERRMSG, msg.getGeneralComment());
+        assertEquals("bad" + firstBadRowIdx, msg.getFirstValue());
+        assertEquals("bad" + lastBadRowIdx, msg.getLastValue());
+        assertTrue(msg.getDetailedComment().contains(INVALID_FP_VALUE_ERRMSG));
+        assertTrue(msg.getDetailedComment().contains("\"bad" + firstBadRowIdx + "\""));
+        assertTrue(msg.getDetailedComment().contains("\"bad" + lastBadRowIdx + "\""));
+
+        msg = msgList.get(1);
+        assertEquals(Integer.valueOf(otherBadRowIdx + 1), msg.getRowNumber());
+        assertEquals(Integer.valueOf(otherBadRowIdx + 1), msg.getLastRowNumber());
+        assertEquals(INVALID_FP_VALUE_ERRMSG, msg.getGeneralComment());
+
+        for (int j = 0; j < numRows; j++) {
+            if ( ((j >= firstBadRowIdx) && (j <= lastBadRowIdx)) || (j == otherBadRowIdx) )
+                assertNull(stdData.getStdVal(j, lastUserDataColIdx));
+            else
+                assertNotNull(stdData.getStdVal(j, lastUserDataColIdx));
+        }
+    }
+
     /**
      * Test method for {@link StdDataArray#getSampleLongitudes()},
      * {@link StdDataArray#getSampleLatitudes()},
@@ -260,6 +373,50 @@ public class StdDataArrayTest {
         assertEquals(4, stdUserData.getStandardizationMessages().size());
     }
 
+    /**
+     * Test method for {@link StdUserDataArray#checkDataOrder(Double[])} with misordered data rows
+     */
+    @Test
+    public void testCheckDataOrderMisordered() {
+        // Move the second row to after the sixth row, and the last row to the front
+        ArrayList<ArrayList<String>> dataValues = new ArrayList<ArrayList<String>>(DATA_VALUE_STRINGS);
+        ArrayList<String> moved = dataValues.remove(1);
+        dataValues.add(5, moved);
+        moved = dataValues.remove(dataValues.size() - 1);
+        dataValues.add(0, moved);
+
+        DashboardDatasetData dataset = new DashboardDatasetData();
+        dataset.setDatasetId(EXPOCODE);
+        dataset.setUserColNames(USER_COLUMN_NAMES);
+        dataset.setDataColTypes(DATA_COLUMN_TYPES);
+        int numRows = dataValues.size();
+        dataset.setDataValues(dataValues);
+        ArrayList<Integer> rowNums = new ArrayList<Integer>(numRows);
+        for (int k = 1; k <= numRows; k++) {
+            rowNums.add(k);
+        }
+        dataset.setRowNums(rowNums);
+
+        StdUserDataArray stdUserData = new StdUserDataArray(dataset, KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES);
+        int numMsgs = stdUserData.getStandardizationMessages().size();
+        Double[] sampleTimes = stdUserData.checkMissingLonLatTime();
+        assertNotNull(sampleTimes);
+        assertEquals(numMsgs, stdUserData.getStandardizationMessages().size());
+
+        stdUserData.checkDataOrder(sampleTimes);
+        List<ADCMessage> msgs = stdUserData.getStandardizationMessages();
+        ArrayList<Integer> misorderedRowNums = new ArrayList<Integer>();
+        for (ADCMessage msg : msgs.subList(numMsgs, msgs.size())) {
+            assertEquals(Severity.CRITICAL, msg.getSeverity());
+            assertEquals("time-misordered data row", msg.getGeneralComment());
+            if ( !misorderedRowNums.contains(msg.getRowNumber()) )
+                misorderedRowNums.add(msg.getRowNumber());
+        }
+        // Only the two moved rows are misordered; one message for each of the five date/time columns
+        assertEquals(Arrays.asList(1, 7), misorderedRowNums);
+        assertEquals(numMsgs + 10, msgs.size());
+    }
+
     /**
      * Test method for
      * {@link StdDataArray#hasLongitude()},
@@ -479,6 +636,92 @@ public class StdDataArrayTest {
         }
     }
 
+    /**
+     * Test method for {@link StdDataArray#StdDataArray(DashDataType[], StdDataColumn[])} and
+     * {@link StdDataArray#getStdColumn(int)}
+     */
+    @Test
+    public void testStdDataArrayDashDataTypeArrayStdDataColumnArray() {
+        DashboardDatasetData dataset = new DashboardDatasetData();
+        dataset.setDatasetId(EXPOCODE);
+        dataset.setUserColNames(USER_COLUMN_NAMES);
+        dataset.setDataColTypes(DATA_COLUMN_TYPES);
+        dataset.setDataValues(DATA_VALUE_STRINGS);
+        ArrayList<Integer> rowNums = new ArrayList<Integer>(DATA_VALUE_STRINGS.size());
+        for (int k = 1; k <= DATA_VALUE_STRINGS.size(); k++) {
+            rowNums.add(k);
+        }
+        dataset.setRowNums(rowNums);
+        StdUserDataArray stdUserData = new StdUserDataArray(dataset, KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES);
+        StdDataArray stdFileData = new StdDataArray(stdUserData, KnownDataTypesTest.TEST_KNOWN_DATA_FILE_TYPES);
+
+        int numColumns = stdFileData.getNumDataCols();
+        int numRows = stdFileData.getNumSamples();
+        List<DashDataType<?>> fileDataTypes = stdFileData.getDataTypes();
+
+        DashDataType<?>[] dataTypes = new DashDataType<?>[numColumns];
+        StdDataColumn[] dataColumns = new StdDataColumn[numColumns];
+        for (int k = 0; k < numColumns; k++) {
+            dataTypes[k] = fileDataTypes.get(k);
+            dataColumns[k] = stdFileData.getStdColumn(k);
+            assertEquals(numRows, dataColumns[k].getNumSamples());
+            assertEquals(StdDataColumn.valueKindOf(dataTypes[k]), dataColumns[k].getValueKind());
+            for (int j = 0; j < numRows; j++) {
+                Object value = stdFileData.getStdVal(j, k);
+                assertEquals(value == null, dataColumns[k].isMissing(j));
+                assertEquals(value, dataColumns[k].getValue(j));
+            }
+        }
+
+        StdDataArray stdData = new StdDataArray(dataTypes, dataColumns);
+        assertEquals(numColumns, stdData.getNumDataCols());
+        assertEquals(fileDataTypes, stdData.getDataTypes());
+        assertEquals(numRows, stdData.getNumSamples());
+        assertEquals(stdFileData, stdData);
+        assertEquals(stdFileData.hashCode(), stdData.hashCode());
+
+        // Longitudes are copied as doubles with no missing values
+        int lonIdx = stdData.getIndexOfType(DashboardServerUtils.LONGITUDE);
+        double[] lons = stdData.getStdColumn(lonIdx).getDoubles(DashboardUtils.FP_MISSING_VALUE);
+        Double[] sampleLons = stdData.getSampleLongitudes();
+        for (int j = 0; j < numRows; j++) {
+            assertEquals(sampleLons[j], lons[j], 1.0E-10);
+        }
+
+        // Sections of a column are copied to the start of the destination
+        double[] lonSection = new double[numRows];
+        stdData.getStdColumn(lonIdx).copyDoubles(1, numRows - 2, DashboardUtils.FP_MISSING_VALUE, lonSection);
+        for (int j = 0; j < numRows - 2; j++) {
+            assertEquals(lons[j + 1], lonSection[j], 1.0E-10);
+        }
+        for (int k = 0; k < numColumns; k++) {
+            if ( dataColumns[k].getValueKind() != StdDataColumn.ValueKind.STRING )
+                continue;
+            String[] strSection = new String[numRows];
+            dataColumns[k].copyStrings(2, numRows - 2, DashboardUtils.STRING_MISSING_VALUE, strSection);
+            String[] strValues = dataColumns[k].getStrings(DashboardUtils.STRING_MISSING_VALUE);
+            for (int j = 0; j < numRows - 2; j++) {
+                assertEquals(strValues[j + 2], strSection[j]);
+            }
+        }
+        try {
+            stdData.getStdColumn(lonIdx).copyDoubles(1, numRows, DashboardUtils.FP_MISSING_VALUE, lonSection);
+            fail("copyDoubles of a section past the last sample succeeded");
+        } catch ( IndexOutOfBoundsException ex ) {
+            // Expected result
+        }
+
+        // A column that does not match the data type is rejected
+        StdDataColumn[] badColumns = dataColumns.clone();
+        badColumns[lonIdx] = new StdDataColumn(StdDataColumn.ValueKind.STRING, numRows);
+        try {
+            new StdDataArray(dataTypes, badColumns);
+            fail("StdDataArray created with a string column of longitudes");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+        }
+    }
+
     // StdUserDataArray constructor adds SAMPLE_NUMBER
     private static final ArrayList<DashDataType<?>> DATA_COLUMN_DASH_TYPES = new ArrayList<DashDataType<?>>(
             Arrays.asList(
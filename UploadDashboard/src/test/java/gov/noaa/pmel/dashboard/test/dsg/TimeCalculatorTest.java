@@ -0,0 +1,198 @@
+package gov.noaa.pmel.dashboard.test.dsg;
+
+import gov.noaa.pmel.dashboard.dsg.TimeCalculator;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for methods in {@link TimeCalculator}
+ */
+public class TimeCalculatorTest {
+
+    /**
+     * @return the time from a non-lenient GregorianCalendar, or {@link TimeCalculator#INVALID_MILLIS} if invalid
+     */
+    private static long calendarMillis(int year, int month, int day, int hour, int minute, int second, int millisec) {
+        GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        cal.setLenient(false);
+        cal.clear();
+        try {
+            cal.set(year, GregorianCalendar.JANUARY + month - 1, day, hour, minute, second);
+            cal.set(GregorianCalendar.MILLISECOND, millisec);
+            return cal.getTimeInMillis();
+        } catch ( IllegalArgumentException ex ) {
+            return TimeCalculator.INVALID_MILLIS;
+        }
+    }
+
+    /**
+     * Test method for {@link TimeCalculator#isLeapYear(int)} and {@link TimeCalculator#daysInMonth(int, int)}
+     */
+    @Test
+    public void testDaysInMonth() {
+        assertTrue(TimeCalculator.isLeapYear(2000));
+        assertTrue(TimeCalculator.isLeapYear(2016));
+        assertFalse(TimeCalculator.isLeapYear(1900));
+        assertFalse(TimeCalculator.isLeapYear(2015));
+        assertEquals(29, TimeCalculator.daysInMonth(2016, 2));
+        assertEquals(28, TimeCalculator.daysInMonth(2100, 2));
+        assertEquals(31, TimeCalculator.daysInMonth(2015, 12));
+        assertEquals(30, TimeCalculator.daysInMonth(2015, 4));
+        try {
+            TimeCalculator.daysInMonth(2015, 13);
+            fail("daysInMonth with month 13 succeeded");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+        }
+    }
+
+    /**
+     * Test method for {@link TimeCalculator#epochMillis(int, int, int, int, int, int, int)}
+     */
+    @Test
+    public void testEpochMillis() {
+        assertEquals(0L, TimeCalculator.epochMillis(1970, 1, 1, 0, 0, 0, 0));
+        assertEquals(951782400000L, TimeCalculator.epochMillis(2000, 2, 29, 0, 0, 0, 0));
+        assertEquals(-946771200000L, TimeCalculator.epochMillis(1940, 1, 1, 0, 0, 0, 0));
+        assertEquals(TimeCalculator.INVALID_MILLIS, TimeCalculator.epochMillis(2015, 2, 29, 0, 0, 0, 0));
+        assertEquals(TimeCalculator.INVALID_MILLIS, TimeCalculator.epochMillis(2015, 4, 31, 0, 0, 0, 0));
+        assertEquals(TimeCalculator.INVALID_MILLIS, TimeCalculator.epochMillis(2015, 0, 1, 0, 0, 0, 0));
+        assertEquals(TimeCalculator.INVALID_MILLIS, TimeCalculator.epochMillis(2015, 1, 1, 24, 0, 0, 0));
+        assertEquals(TimeCalculator.INVALID_MILLIS, TimeCalculator.epochMillis(2015, 1, 1, 0, 60, 0, 0));
+        assertEquals(TimeCalculator.INVALID_MILLIS, TimeCalculator.epochMillis(2015, 1, 1, 0, 0, 60, 0));
+
+        // Compare to GregorianCalendar, including years outside those computed directly
+        Random rand = new Random(20161017L);
+        for (int k = 0; k < 20000; k++) {
+            int year = 1000 + rand.nextInt(9500);
+            int month = rand.nextInt(14);
+            int day = rand.nextInt(33);
+            int hour = rand.nextInt(25);
+            int minute = rand.nextInt(61);
+            int second = rand.nextInt(61);
+            int millisec = rand.nextInt(1000);
+            assertEquals(year + "-" + month + "-" + day + " " + hour + ":" + minute + ":" + second,
+                    calendarMillis(year, month, day, hour, minute, second, millisec),
+                    TimeCalculator.epochMillis(year, month, day, hour, minute, second, millisec));
+        }
+    }
+
+    /**
+     * Test method for {@link TimeCalculator#epochMillisOfDayOfYear(int, int, int, int, double)}
+     */
+    @Test
+    public void testEpochMillisOfDayOfYear() {
+        assertEquals(TimeCalculator.epochMillis(2016, 12, 31, 12, 30, 15, 500),
+                TimeCalculator.epochMillisOfDayOfYear(2016, 366, 12, 30, 15.5));
+        assertEquals(TimeCalculator.epochMillis(2015, 3, 1, 0, 0, 0, 0),
+                TimeCalculator.epochMillisOfDayOfYear(2015, 60, 0, 0, 0.0));
+        assertEquals(TimeCalculator.INVALID_MILLIS, TimeCalculator.epochMillisOfDayOfYear(2015, 366, 0, 0, 0.0));
+        assertEquals(TimeCalculator.INVALID_MILLIS, TimeCalculator.epochMillisOfDayOfYear(2015, 0, 0, 0, 0.0));
+        assertEquals(calendarMillis(1501, 3, 1, 0, 0, 0, 0),
+                TimeCalculator.epochMillisOfDayOfYear(1501, 60, 0, 0, 0.0));
+    }
+
+    /**
+     * Test method for
+     * {@link TimeCalculator#calcEpochSeconds(int[], int[], int[], int[], int[], double[], BitSet)}
+     */
+    @Test
+    public void testCalcEpochSeconds() {
+        int[] years = { 2015, 2015, 2016, 2016 };
+        int[] months = { 6, 2, 2, 7 };
+        int[] days = { 15, 29, 29, 4 };
+        int[] hours = { 10, 0, 23, 0 };
+        int[] minutes = { 20, 0, 59, 0 };
+        double[] seconds = { 30.25, 0.0, 59.0, 0.0 };
+        BitSet valid = new BitSet(4);
+        valid.set(0, 3);
+        double[] times = TimeCalculator.calcEpochSeconds(years, months, days, hours, minutes, seconds, valid);
+        assertEquals(4, times.length);
+        assertEquals(calendarMillis(2015, 6, 15, 10, 20, 30, 250) / 1000.0, times[0], 1.0E-6);
+        assertTrue(Double.isNaN(times[1]));
+        assertEquals(calendarMillis(2016, 2, 29, 23, 59, 59, 0) / 1000.0, times[2], 1.0E-6);
+        assertTrue(Double.isNaN(times[3]));
+        BitSet expected = new BitSet(4);
+        expected.set(0);
+        expected.set(2);
+        assertEquals(expected, valid);
+
+        int[] daysOfYear = { 166, 366, 60, 186 };
+        valid.set(0, 4);
+        times = TimeCalculator.calcEpochSeconds(years, null, daysOfYear, hours, minutes, seconds, valid);
+        assertEquals(calendarMillis(2015, 6, 15, 10, 20, 30, 250) / 1000.0, times[0], 1.0E-6);
+        assertTrue(Double.isNaN(times[1]));
+        assertEquals(calendarMillis(2016, 2, 29, 23, 59, 59, 0) / 1000.0, times[2], 1.0E-6);
+        assertEquals(calendarMillis(2016, 7, 4, 0, 0, 0, 0) / 1000.0, times[3], 1.0E-6);
+        expected.set(3);
+        assertEquals(expected, valid);
+    }
+
+    /**
+     * Test method for {@link TimeCalculator#civilFromEpochMillis(long, int[])}
+     * and {@link TimeCalculator#formatTimestamp(long)}
+     */
+    @Test
+    public void testCivilFromEpochMillis() {
+        assertEquals("1970-01-01 00:00:00", TimeCalculator.formatTimestamp(0L));
+        assertEquals("2000-02-29 23:59:59", TimeCalculator.formatTimestamp(951868799999L));
+        assertEquals("1940-01-01 00:00:00", TimeCalculator.formatTimestamp(-946771200000L));
+
+        GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        int[] fields = new int[7];
+        Random rand = new Random(20161017L);
+        for (int k = 0; k < 20000; k++) {
+            // Times from about the year 1000 to about the year 10500
+            long millis = (long) ((rand.nextDouble() * 3.0 - 0.32) * 1.0E14);
+            cal.setTimeInMillis(millis);
+            TimeCalculator.civilFromEpochMillis(millis, fields);
+            int[] expected = new int[] {
+                    cal.get(GregorianCalendar.YEAR),
+                    cal.get(GregorianCalendar.MONTH) - GregorianCalendar.JANUARY + 1,
+                    cal.get(GregorianCalendar.DAY_OF_MONTH),
+                    cal.get(GregorianCalendar.HOUR_OF_DAY),
+                    cal.get(GregorianCalendar.MINUTE),
+                    cal.get(GregorianCalendar.SECOND),
+                    cal.get(GregorianCalendar.MILLISECOND)
+            };
+            assertArrayEquals(Long.toString(millis), expected, fields);
+        }
+    }
+
+    /**
+     * Test method for {@link TimeCalculator#parseTimestamp(CharSequence, int[])}
+     */
+    @Test
+    public void testParseTimestamp() {
+        int[] fields = new int[5];
+        assertEquals(30.25, TimeCalculator.parseTimestamp("2015-06-15 10:20:30.25", fields), 1.0E-12);
+        assertArrayEquals(new int[] { 2015, 6, 15, 10, 20 }, fields);
+        assertEquals(5.0, TimeCalculator.parseTimestamp("1999-12-31 23:59:05 ", fields), 1.0E-12);
+        assertArrayEquals(new int[] { 1999, 12, 31, 23, 59 }, fields);
+        TimeCalculator.parseDate("x2016-2-29x", 1, 10, fields);
+        assertEquals(2016, fields[0]);
+        assertEquals(2, fields[1]);
+        assertEquals(29, fields[2]);
+        String[] badValues = { "2015-06-15", "2015-06 10:20:30", "2015-06-15 10:20", "2015-06-15  10:20:30",
+                "2015-06-15 10:20:3x", "2015-0a-15 10:20:30" };
+        for (String value : badValues) {
+            try {
+                TimeCalculator.parseTimestamp(value, fields);
+                fail("parseTimestamp of \"" + value + "\" succeeded");
+            } catch ( NumberFormatException ex ) {
+                // Expected result
+            }
+        }
+    }
+
+}
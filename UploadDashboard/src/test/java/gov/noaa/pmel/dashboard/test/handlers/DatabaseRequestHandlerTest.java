@@ -0,0 +1,179 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.handlers.DatabaseRequestHandler;
+import gov.noaa.pmel.dashboard.qc.DataLocation;
+import gov.noaa.pmel.dashboard.qc.DataQCEvent;
+import gov.noaa.pmel.dashboard.qc.QCEvent;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for methods in {@link DatabaseRequestHandler} using an in-memory H2 database in MySQL mode
+ */
+public class DatabaseRequestHandlerTest {
+
+    private static final String SQL_DRIVER = "org.h2.Driver";
+    private static final String USER = "sa";
+    private static final String PASS = "sa";
+    private static final String REVIEWER_USERNAME = "automated.data.checker";
+    private static final String REVIEWER_REALNAME = "automated data checker";
+    private static final String EXPOCODE = "AAAA20140113";
+    private static final int NUM_LOCATIONS = 2500;
+
+    /**
+     * Creates the flags tables in a new in-memory database with the given name
+     *
+     * @return URL of the database
+     */
+    private static String createDatabase(String dbName) throws SQLException {
+        String url = "jdbc:h2:mem:" + dbName + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        Connection conn = DriverManager.getConnection(url, USER, PASS);
+        try {
+            Statement stmt = conn.createStatement();
+            stmt.executeUpdate("CREATE TABLE `Reviewers` (`reviewer_id` INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "`username` VARCHAR(64) NOT NULL DEFAULT '', `realname` VARCHAR(64) NOT NULL DEFAULT '', " +
+                    "`email` VARCHAR(256) NOT NULL DEFAULT '');");
+            stmt.executeUpdate("INSERT INTO `Reviewers` (`realname`, `username`) VALUES ('" +
+                    REVIEWER_REALNAME + "', '" + REVIEWER_USERNAME + "');");
+            stmt.executeUpdate("CREATE TABLE `QCEvents` (`qc_id` BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "`qc_flag` CHAR(1) NOT NULL DEFAULT ' ', `qc_time` BIGINT DEFAULT NULL, " +
+                    "`expocode` VARCHAR(16) NOT NULL DEFAULT '', `socat_version` CHAR(4) NOT NULL DEFAULT '', " +
+                    "`region_id` CHAR(1) NOT NULL DEFAULT ' ', `reviewer_id` INT NOT NULL DEFAULT 0, " +
+                    "`qc_comment` VARCHAR(1024) NOT NULL DEFAULT '');");
+            stmt.executeUpdate("CREATE TABLE `WOCEEvents` (`woce_id` BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "`woce_name` VARCHAR(64) NOT NULL DEFAULT 'WOCE_CO2_water', " +
+                    "`woce_flag` CHAR(1) NOT NULL DEFAULT ' ', `woce_time` BIGINT DEFAULT NULL, " +
+                    "`expocode` VARCHAR(16) NOT NULL DEFAULT '', `socat_version` CHAR(4) NOT NULL DEFAULT '', " +
+                    "`data_name` VARCHAR(64) NOT NULL DEFAULT '', `reviewer_id` INT NOT NULL DEFAULT 0, " +
+                    "`woce_comment` VARCHAR(1024) NOT NULL DEFAULT '');");
+            stmt.executeUpdate("CREATE TABLE `WOCELocations` (`wloc_id` BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "`woce_id` BIGINT NOT NULL DEFAULT 0, `region_id` CHAR(1) NOT NULL DEFAULT ' ', " +
+                    "`row_num` INT DEFAULT NULL, `longitude` DOUBLE DEFAULT NULL, " +
+                    "`latitude` DOUBLE DEFAULT NULL, `data_time` BIGINT DEFAULT NULL, " +
+                    "`data_value` DOUBLE DEFAULT NULL, " +
+                    "FOREIGN KEY (`woce_id`) REFERENCES `WOCEEvents` (`woce_id`));");
+        } finally {
+            conn.close();
+        }
+        return url;
+    }
+
+    /**
+     * @return a data QC event for {@link #EXPOCODE} with the given number of locations
+     */
+    private static DataQCEvent createDataQCEvent(String flag, int numLocations) {
+        DataQCEvent event = new DataQCEvent();
+        event.setFlagName("WOCE_CO2_water");
+        event.setFlagValue(flag);
+        event.setFlagDate(new Date(1400000000000L));
+        event.setDatasetId(EXPOCODE);
+        event.setVersion("2.0");
+        event.setVarName("fCO2_recommended");
+        event.setUsername(REVIEWER_USERNAME);
+        event.setRealname(REVIEWER_REALNAME);
+        event.setComment("test flag " + flag);
+        ArrayList<DataLocation> locations = event.getLocations();
+        for (int k = 0; k < numLocations; k++) {
+            DataLocation loc = new DataLocation();
+            loc.setRowNumber(k + 1);
+            loc.setLongitude(-150.0 + 0.001 * k);
+            loc.setLatitude(20.0 + 0.001 * k);
+            loc.setDataDate(new Date(1300000000000L + 60000L * k));
+            loc.setDataValue(350.0 + 0.01 * k);
+            locations.add(loc);
+        }
+        return event;
+    }
+
+    /**
+     * Test method for {@link DatabaseRequestHandler#addDataQCEvent(java.util.Collection)} and
+     * {@link DatabaseRequestHandler#getDataQCEvents(String, boolean)}
+     */
+    @Test
+    public void testAddGetDataQCEvents() throws SQLException {
+        String url = createDatabase("addgetdataqc");
+        DatabaseRequestHandler handler = new DatabaseRequestHandler(SQL_DRIVER, url, USER, PASS, USER, PASS);
+        try {
+            DataQCEvent first = createDataQCEvent("3", NUM_LOCATIONS);
+            DataQCEvent second = createDataQCEvent("4", 3);
+            handler.addDataQCEvent(Arrays.asList(first, second));
+            assertTrue(first.getId() > 0);
+            assertTrue(second.getId() > first.getId());
+
+            ArrayList<DataQCEvent> events = handler.getDataQCEvents(EXPOCODE, false);
+            assertEquals(2, events.size());
+            int numFound = 0;
+            for (DataQCEvent event : events) {
+                if ( event.getId().equals(first.getId()) ) {
+                    assertEquals(NUM_LOCATIONS, event.getLocations().size());
+                    assertEquals(first.getLocations(), event.getLocations());
+                    numFound++;
+                }
+                else if ( event.getId().equals(second.getId()) ) {
+                    assertEquals(3, event.getLocations().size());
+                    numFound++;
+                }
+            }
+            assertEquals(2, numFound);
+
+            // Unknown reviewer - none of the events should be added
+            DataQCEvent third = createDataQCEvent("3", 10);
+            DataQCEvent fourth = createDataQCEvent("4", 10);
+            fourth.setUsername("unknown.reviewer");
+            try {
+                handler.addDataQCEvent(Arrays.asList(third, fourth));
+                fail("addDataQCEvent with an unknown reviewer succeeded");
+            } catch ( SQLException ex ) {
+                // Expected result
+            }
+            assertEquals(0L, third.getId().longValue());
+            assertEquals(2, handler.getDataQCEvents(EXPOCODE, true).size());
+        } finally {
+            handler.close();
+        }
+    }
+
+    /**
+     * Test method for {@link DatabaseRequestHandler#addDatasetQCEvents(java.util.Collection)} and
+     * {@link DatabaseRequestHandler#getDatasetQCEvents(String)}
+     */
+    @Test
+    public void testAddGetDatasetQCEvents() throws SQLException {
+        String url = createDatabase("addgetdatasetqc");
+        DatabaseRequestHandler handler = new DatabaseRequestHandler(SQL_DRIVER, url, USER, PASS, USER, PASS);
+        try {
+            ArrayList<QCEvent> qcEvents = new ArrayList<QCEvent>();
+            for (String flag : new String[] { "A", "B", "C" }) {
+                QCEvent event = new QCEvent();
+                event.setFlagValue(flag);
+                event.setFlagDate(new Date(1400000000000L));
+                event.setDatasetId(EXPOCODE);
+                event.setVersion("2.0");
+                event.setUsername(REVIEWER_USERNAME);
+                event.setRealname(REVIEWER_REALNAME);
+                event.setComment("test flag " + flag);
+                qcEvents.add(event);
+            }
+            handler.addDatasetQCEvents(qcEvents);
+            assertEquals(3, handler.getDatasetQCEvents(EXPOCODE).size());
+            // Pooled connections are reused
+            for (int k = 0; k < 20; k++) {
+                assertEquals(REVIEWER_REALNAME, handler.getReviewerRealname(REVIEWER_USERNAME));
+            }
+        } finally {
+            handler.close();
+        }
+    }
+
+}
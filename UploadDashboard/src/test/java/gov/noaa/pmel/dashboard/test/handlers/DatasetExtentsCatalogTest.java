@@ -0,0 +1,134 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.dsg.DatasetExtents;
+import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
+import gov.noaa.pmel.dashboard.handlers.DatasetExtentsCatalog;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for methods in {@link DatasetExtentsCatalog}.  Ordinary files stand in for the full-data DSG files,
+ * so any attempt to read data from a DSG file throws an IOException.
+ */
+public class DatasetExtentsCatalogTest {
+
+    private static final String DATASET_ID = "AAAA20140113";
+    private static final long FILE_STAMP = 1400000000000L;
+    private static final double[] LONS = { -160.0, -159.5, -159.0 };
+    private static final double[] LATS = { 20.0, 20.5, 21.0 };
+    private static final double[] TIMES = { 1000.0, 2000.0, 3000.0 };
+
+    private static void writeFile(File file, String contents, long fileStamp) throws IOException {
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(contents);
+        } finally {
+            writer.close();
+        }
+        assertTrue(file.setLastModified(fileStamp));
+    }
+
+    /**
+     * Test method for {@link DatasetExtentsCatalog#updateExtents(String, DsgNcFile, double[], double[], double[])}
+     * and {@link DatasetExtentsCatalog#getExtents(String, DsgNcFile)}, including rereading the catalog file and
+     * rejecting an entry when the DSG file length changes but the last-modified time does not.
+     */
+    @Test
+    public void testGetUpdateExtents() throws IOException {
+        File dir = Files.createTempDirectory("extentscatalog").toFile();
+        File catalogFile = new File(dir, "DatasetExtents.tsv");
+        DsgNcFile dsgFile = new DsgNcFile(dir, DATASET_ID + ".nc");
+        try {
+            writeFile(dsgFile, "first version", FILE_STAMP);
+            DatasetExtentsCatalog catalog = new DatasetExtentsCatalog(catalogFile, null);
+            DatasetExtents extents = catalog.updateExtents(DATASET_ID, dsgFile, LONS, LATS, TIMES);
+            assertEquals(FILE_STAMP, extents.getFileStamp());
+            assertEquals(dsgFile.length(), extents.getFileLength());
+            assertEquals(3, extents.getNumValid());
+            assertSame(extents, catalog.getExtents(DATASET_ID, dsgFile));
+
+            // A new catalog reads the entry from the catalog file
+            catalog = new DatasetExtentsCatalog(catalogFile, null);
+            assertEquals(extents, catalog.getExtents(DATASET_ID, dsgFile));
+
+            // Rewrite the DSG file within the same second; the entry must not be used
+            writeFile(dsgFile, "second, longer version", FILE_STAMP);
+            try {
+                catalog.getExtents(DATASET_ID, dsgFile);
+                fail("outdated extents returned for a DSG file with a different length");
+            } catch ( IOException ex ) {
+                // Expected - attempted to read the data from the DSG file
+            }
+        } finally {
+            dsgFile.delete();
+            catalogFile.delete();
+            new File(catalogFile.getPath() + ".tmp").delete();
+            dir.delete();
+        }
+    }
+
+    /**
+     * Test method for {@link DatasetExtentsCatalog#updateFileStamp(String, DsgNcFile, long, long)}
+     * and {@link DatasetExtentsCatalog#removeExtents(String)}
+     */
+    @Test
+    public void testUpdateFileStamp() throws IOException {
+        File dir = Files.createTempDirectory("extentscatalog").toFile();
+        File catalogFile = new File(dir, "DatasetExtents.tsv");
+        DsgNcFile dsgFile = new DsgNcFile(dir, DATASET_ID + ".nc");
+        try {
+            writeFile(dsgFile, "first version", FILE_STAMP);
+            DatasetExtentsCatalog catalog = new DatasetExtentsCatalog(catalogFile, null);
+            DatasetExtents extents = catalog.updateExtents(DATASET_ID, dsgFile, LONS, LATS, TIMES);
+            long priorLength = dsgFile.length();
+
+            // Modification not changing the extents, with the same last-modified time but a different length
+            writeFile(dsgFile, "second, longer version", FILE_STAMP);
+            catalog.updateFileStamp(DATASET_ID, dsgFile, FILE_STAMP, priorLength);
+            DatasetExtents updated = catalog.getExtents(DATASET_ID, dsgFile);
+            assertEquals(FILE_STAMP, updated.getFileStamp());
+            assertEquals(dsgFile.length(), updated.getFileLength());
+            assertEquals(extents.getNumValid(), updated.getNumValid());
+            assertEquals(extents.getMinTime(), updated.getMinTime(), 1.0E-6);
+            assertEquals(extents.getWestLon(), updated.getWestLon(), 1.0E-6);
+
+            // An entry not current prior to the modification is not updated
+            long secondLength = dsgFile.length();
+            writeFile(dsgFile, "third version", FILE_STAMP + 1000L);
+            catalog.updateFileStamp(DATASET_ID, dsgFile, FILE_STAMP, priorLength);
+            try {
+                catalog.getExtents(DATASET_ID, dsgFile);
+                fail("extents updated from an outdated entry");
+            } catch ( IOException ex ) {
+                // Expected - attempted to read the data from the DSG file
+            }
+            catalog.updateFileStamp(DATASET_ID, dsgFile, FILE_STAMP, secondLength);
+            assertEquals(FILE_STAMP + 1000L, catalog.getExtents(DATASET_ID, dsgFile).getFileStamp());
+
+            // A removed entry stays removed when the catalog file is reread
+            catalog.removeExtents(DATASET_ID);
+            catalog = new DatasetExtentsCatalog(catalogFile, null);
+            try {
+                catalog.getExtents(DATASET_ID, dsgFile);
+                fail("extents of a removed entry returned");
+            } catch ( IOException ex ) {
+                // Expected - attempted to read the data from the DSG file
+            }
+        } finally {
+            dsgFile.delete();
+            catalogFile.delete();
+            new File(catalogFile.getPath() + ".tmp").delete();
+            dir.delete();
+        }
+    }
+
+}
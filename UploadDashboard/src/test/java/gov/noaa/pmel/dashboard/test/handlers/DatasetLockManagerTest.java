@@ -0,0 +1,98 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.handlers.DatasetLockManager;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for methods in {@link DatasetLockManager}
+ */
+public class DatasetLockManagerTest {
+
+    private static final String FIRST_ID = "AAAA20140113";
+    private static final String SECOND_ID = "BBBB20140113";
+
+    /**
+     * Test method for {@link DatasetLockManager#lockForReading(String)} and
+     * {@link DatasetLockManager#lockForWriting(String)} without contention
+     */
+    @Test
+    public void testLockUncontended() {
+        DatasetLockManager manager = new DatasetLockManager(DatasetLockManager.DEFAULT_NUM_STRIPES);
+        assertEquals(DatasetLockManager.DEFAULT_NUM_STRIPES, manager.getNumStripes());
+
+        // Multiple readers are allowed
+        Lock first = manager.lockForReading(FIRST_ID);
+        Lock second = manager.lockForReading(FIRST_ID);
+        second.unlock();
+        first.unlock();
+
+        // Writer may reenter and may also read
+        first = manager.lockForWriting(SECOND_ID);
+        second = manager.lockForWriting(SECOND_ID);
+        Lock third = manager.lockForReading(SECOND_ID);
+        third.unlock();
+        second.unlock();
+        first.unlock();
+
+        assertEquals(3L, manager.getReadLockCount());
+        assertEquals(2L, manager.getWriteLockCount());
+        assertEquals(0L, manager.getReadWaitCount());
+        assertEquals(0L, manager.getWriteWaitCount());
+        assertEquals(0.0, manager.getMaxWaitMillis(), 0.0);
+
+        try {
+            new DatasetLockManager(0);
+            fail("creating a DatasetLockManager with no locks succeeded");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+        }
+    }
+
+    /**
+     * Test method for {@link DatasetLockManager#lockForReading(String)} waiting for
+     * {@link DatasetLockManager#lockForWriting(String)}
+     */
+    @Test
+    public void testLockContended() throws InterruptedException {
+        // Use one lock so both datasets share it
+        final DatasetLockManager manager = new DatasetLockManager(1);
+        final AtomicBoolean readWhileWriting = new AtomicBoolean(false);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        Lock writeLock = manager.lockForWriting(FIRST_ID);
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Lock readLock = manager.lockForReading(SECOND_ID);
+                try {
+                    if ( writing.get() )
+                        readWhileWriting.set(true);
+                } finally {
+                    readLock.unlock();
+                }
+            }
+        });
+        try {
+            reader.start();
+            Thread.sleep(100);
+            writing.set(false);
+        } finally {
+            writeLock.unlock();
+        }
+        reader.join(5000);
+        assertFalse(reader.isAlive());
+        assertFalse(readWhileWriting.get());
+        assertEquals(1L, manager.getReadWaitCount());
+        assertEquals(0L, manager.getWriteWaitCount());
+        assertTrue(manager.getReadWaitMillis() > 0.0);
+        assertEquals(manager.getReadWaitMillis(), manager.getMaxWaitMillis(), 0.0);
+    }
+
+}
@@ -0,0 +1,94 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.handlers.DsgColumnCache;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for methods in {@link DsgColumnCache}
+ */
+public class DsgColumnCacheTest {
+
+    private static final String FIRST_ID = "AAAA20140113";
+    private static final String SECOND_ID = "BBBB20140113";
+    private static final String LON_NAME = "longitude";
+    private static final String LAT_NAME = "latitude";
+
+    /**
+     * Test method for {@link DsgColumnCache#get(String, String, long)} and
+     * {@link DsgColumnCache#put(String, String, long, double[])}
+     */
+    @Test
+    public void testGetPut() {
+        DsgColumnCache cache = new DsgColumnCache(1024L * 1024L);
+        double[] lons = new double[] { -160.0, -159.5, -159.0 };
+        assertNull(cache.get(FIRST_ID, LON_NAME, 1000L));
+        cache.put(FIRST_ID, LON_NAME, 1000L, lons);
+        assertSame(lons, cache.get(FIRST_ID, LON_NAME, 1000L));
+        assertNull(cache.get(FIRST_ID, LAT_NAME, 1000L));
+        assertNull(cache.get(SECOND_ID, LON_NAME, 1000L));
+        assertEquals(1L, cache.getHitCount());
+        assertEquals(3L, cache.getMissCount());
+        assertEquals(1, cache.getNumColumns());
+
+        // Modified DSG file
+        assertNull(cache.get(FIRST_ID, LON_NAME, 2000L));
+        assertEquals(1L, cache.getInvalidationCount());
+        assertEquals(0, cache.getNumColumns());
+        assertEquals(0L, cache.getTotalBytes());
+    }
+
+    /**
+     * Test method for eviction of the least recently used columns
+     */
+    @Test
+    public void testEviction() {
+        double[] values = new double[100];
+        // Room for two, but not three, of these columns
+        DsgColumnCache cache = new DsgColumnCache(2L * (8L * values.length + 200L));
+        cache.put(FIRST_ID, LON_NAME, 1000L, values);
+        cache.put(FIRST_ID, LAT_NAME, 1000L, values);
+        // Use the longitudes so the latitudes are the least recently used
+        assertSame(values, cache.get(FIRST_ID, LON_NAME, 1000L));
+        cache.put(SECOND_ID, LON_NAME, 1000L, values);
+        assertEquals(1L, cache.getEvictionCount());
+        assertEquals(2, cache.getNumColumns());
+        assertNull(cache.get(FIRST_ID, LAT_NAME, 1000L));
+        assertSame(values, cache.get(FIRST_ID, LON_NAME, 1000L));
+        assertSame(values, cache.get(SECOND_ID, LON_NAME, 1000L));
+
+        // Too large to cache
+        cache.put(SECOND_ID, LAT_NAME, 1000L, new double[1000]);
+        assertNull(cache.get(SECOND_ID, LAT_NAME, 1000L));
+        assertEquals(2, cache.getNumColumns());
+
+        // Caching disabled
+        cache = new DsgColumnCache(0L);
+        cache.put(FIRST_ID, LON_NAME, 1000L, values);
+        assertNull(cache.get(FIRST_ID, LON_NAME, 1000L));
+    }
+
+    /**
+     * Test method for {@link DsgColumnCache#invalidate(String)} and {@link DsgColumnCache#clear()}
+     */
+    @Test
+    public void testInvalidate() {
+        DsgColumnCache cache = new DsgColumnCache(1024L * 1024L);
+        double[] values = new double[] { 1.0, 2.0 };
+        cache.put(FIRST_ID, LON_NAME, 1000L, values);
+        cache.put(FIRST_ID, LAT_NAME, 1000L, values);
+        cache.put(SECOND_ID, LON_NAME, 1000L, values);
+        cache.invalidate(FIRST_ID);
+        assertEquals(2L, cache.getInvalidationCount());
+        assertEquals(1, cache.getNumColumns());
+        assertNull(cache.get(FIRST_ID, LON_NAME, 1000L));
+        assertSame(values, cache.get(SECOND_ID, LON_NAME, 1000L));
+        cache.clear();
+        assertEquals(0, cache.getNumColumns());
+        assertEquals(0L, cache.getTotalBytes());
+    }
+
+}
@@ -0,0 +1,201 @@
+package gov.noaa.pmel.dashboard.test.shared;
+
+import gov.noaa.pmel.dashboard.shared.ADCMessageQuery;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import gov.noaa.pmel.dashboard.shared.DataQCFlag.Severity;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for method of {@link ADCMessageQuery}.
+ */
+public class ADCMessageQueryTest {
+
+    /**
+     * Test method for {@link ADCMessageQuery#getOffset()}, {@link ADCMessageQuery#setOffset(int)},
+     * {@link ADCMessageQuery#getLimit()}, and {@link ADCMessageQuery#setLimit(int)}.
+     */
+    @Test
+    public void testGetSetOffsetLimit() {
+        ADCMessageQuery query = new ADCMessageQuery();
+        assertEquals(0, query.getOffset());
+        assertEquals(-1, query.getLimit());
+        query.setOffset(50);
+        assertEquals(50, query.getOffset());
+        query.setLimit(DashboardUtils.MAX_ROWS_PER_GRID_PAGE);
+        assertEquals(DashboardUtils.MAX_ROWS_PER_GRID_PAGE, query.getLimit());
+        query.setOffset(-5);
+        assertEquals(0, query.getOffset());
+    }
+
+    /**
+     * Test method for {@link ADCMessageQuery#getSortColumn()}, {@link ADCMessageQuery#setSortColumn(String)},
+     * {@link ADCMessageQuery#isSortAscending()}, and {@link ADCMessageQuery#setSortAscending(boolean)}.
+     */
+    @Test
+    public void testGetSetSort() {
+        ADCMessageQuery query = new ADCMessageQuery();
+        assertEquals(ADCMessageQuery.SORT_SEVERITY, query.getSortColumn());
+        assertTrue(query.isSortAscending());
+        query.setSortColumn(ADCMessageQuery.SORT_ROW_NUMBER);
+        assertEquals(ADCMessageQuery.SORT_ROW_NUMBER, query.getSortColumn());
+        query.setSortAscending(false);
+        assertFalse(query.isSortAscending());
+        assertEquals(-1, query.getLimit());
+        assertEquals(0, query.getOffset());
+        query.setSortColumn(null);
+        assertEquals(ADCMessageQuery.SORT_SEVERITY, query.getSortColumn());
+    }
+
+    /**
+     * Test method for {@link ADCMessageQuery#getSeverityFilter()}, {@link ADCMessageQuery#setSeverityFilter(String)},
+     * {@link ADCMessageQuery#getColNumberFilter()}, {@link ADCMessageQuery#setColNumberFilter(Integer)},
+     * {@link ADCMessageQuery#getMinRowNumber()}, {@link ADCMessageQuery#setMinRowNumber(Integer)},
+     * {@link ADCMessageQuery#getMaxRowNumber()}, and {@link ADCMessageQuery#setMaxRowNumber(Integer)}.
+     */
+    @Test
+    public void testGetSetFilters() {
+        ADCMessageQuery query = new ADCMessageQuery();
+        assertEquals(ADCMessageQuery.SEVERITY_ANY, query.getSeverityFilter());
+        assertEquals(DashboardUtils.INT_MISSING_VALUE, query.getColNumberFilter());
+        assertEquals(DashboardUtils.INT_MISSING_VALUE, query.getMinRowNumber());
+        assertEquals(DashboardUtils.INT_MISSING_VALUE, query.getMaxRowNumber());
+        query.setSeverityFilter(ADCMessageQuery.SEVERITY_ERRORS);
+        assertEquals(ADCMessageQuery.SEVERITY_ERRORS, query.getSeverityFilter());
+        query.setColNumberFilter(3);
+        assertEquals(Integer.valueOf(3), query.getColNumberFilter());
+        query.setMinRowNumber(10);
+        assertEquals(Integer.valueOf(10), query.getMinRowNumber());
+        query.setMaxRowNumber(20);
+        assertEquals(Integer.valueOf(20), query.getMaxRowNumber());
+        assertEquals(ADCMessageQuery.SORT_SEVERITY, query.getSortColumn());
+        query.setSeverityFilter(null);
+        assertEquals(ADCMessageQuery.SEVERITY_ANY, query.getSeverityFilter());
+        query.setColNumberFilter(null);
+        assertEquals(DashboardUtils.INT_MISSING_VALUE, query.getColNumberFilter());
+        query.setMinRowNumber(null);
+        assertEquals(DashboardUtils.INT_MISSING_VALUE, query.getMinRowNumber());
+        query.setMaxRowNumber(null);
+        assertEquals(DashboardUtils.INT_MISSING_VALUE, query.getMaxRowNumber());
+    }
+
+    /**
+     * Test method for {@link ADCMessageQuery#hasSeverity(Severity, String)},
+     * {@link ADCMessageQuery#matches(Severity, int, int)}, and {@link ADCMessageQuery#matches(Severity, int, int, int)}.
+     */
+    @Test
+    public void testHasSeverityMatches() {
+        assertTrue(ADCMessageQuery.hasSeverity(Severity.UNASSIGNED, ADCMessageQuery.SEVERITY_ANY));
+        assertTrue(ADCMessageQuery.hasSeverity(Severity.CRITICAL, ADCMessageQuery.SEVERITY_ERRORS));
+        assertTrue(ADCMessageQuery.hasSeverity(Severity.ERROR, ADCMessageQuery.SEVERITY_ERRORS));
+        assertFalse(ADCMessageQuery.hasSeverity(Severity.WARNING, ADCMessageQuery.SEVERITY_ERRORS));
+        assertTrue(ADCMessageQuery.hasSeverity(Severity.WARNING, ADCMessageQuery.SEVERITY_WARNINGS));
+        assertFalse(ADCMessageQuery.hasSeverity(Severity.ERROR, ADCMessageQuery.SEVERITY_WARNINGS));
+
+        ADCMessageQuery query = new ADCMessageQuery();
+        assertTrue(query.matches(Severity.ERROR, 3, 15));
+        assertTrue(query.matches(Severity.WARNING, DashboardUtils.INT_MISSING_VALUE, DashboardUtils.INT_MISSING_VALUE));
+        query.setSeverityFilter(ADCMessageQuery.SEVERITY_ERRORS);
+        assertTrue(query.matches(Severity.ERROR, 3, 15));
+        assertFalse(query.matches(Severity.WARNING, 3, 15));
+        query.setColNumberFilter(3);
+        assertTrue(query.matches(Severity.ERROR, 3, 15));
+        assertFalse(query.matches(Severity.ERROR, 4, 15));
+        query.setMinRowNumber(10);
+        query.setMaxRowNumber(20);
+        assertTrue(query.matches(Severity.ERROR, 3, 10));
+        assertTrue(query.matches(Severity.ERROR, 3, 20));
+        assertFalse(query.matches(Severity.ERROR, 3, 9));
+        assertFalse(query.matches(Severity.ERROR, 3, 21));
+        assertFalse(query.matches(Severity.ERROR, 3, DashboardUtils.INT_MISSING_VALUE));
+        // Runs of rows are included if any row is within the row number filters
+        assertTrue(query.matches(Severity.ERROR, 3, 5, 10));
+        assertTrue(query.matches(Severity.ERROR, 3, 20, 25));
+        assertTrue(query.matches(Severity.ERROR, 3, 5, 25));
+        assertFalse(query.matches(Severity.ERROR, 3, 5, 9));
+        assertFalse(query.matches(Severity.ERROR, 3, 21, 25));
+
+        try {
+            ADCMessageQuery.hasSeverity(Severity.ERROR, "unknown");
+            fail("hasSeverity with an unknown filter succeeded");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+        }
+    }
+
+    /**
+     * Test method for {@link ADCMessageQuery#hashCode()} and {@link ADCMessageQuery#equals(Object)}.
+     */
+    @Test
+    public void testHashCodeEquals() {
+        ADCMessageQuery query = new ADCMessageQuery();
+        assertFalse(query.equals(null));
+        assertFalse(query.equals(ADCMessageQuery.SORT_SEVERITY));
+
+        ADCMessageQuery other = new ADCMessageQuery();
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setOffset(50);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setOffset(50);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setLimit(25);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setLimit(25);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setSortColumn(ADCMessageQuery.SORT_COLUMN_NUMBER);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setSortColumn(ADCMessageQuery.SORT_COLUMN_NUMBER);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setSortAscending(false);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setSortAscending(false);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setSeverityFilter(ADCMessageQuery.SEVERITY_WARNINGS);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setSeverityFilter(ADCMessageQuery.SEVERITY_WARNINGS);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setColNumberFilter(3);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setColNumberFilter(3);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setMinRowNumber(10);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setMinRowNumber(10);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setMaxRowNumber(20);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setMaxRowNumber(20);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+    }
+
+}
@@ -51,6 +51,57 @@ public class ADCMessageTest {
         assertEquals(DashboardUtils.INT_MISSING_VALUE, msg.getRowNumber());
     }
 
+    /**
+     * Test method for {@link ADCMessage#getLastRowNumber()}, {@link ADCMessage#setLastRowNumber(Integer)},
+     * {@link ADCMessage#getNumRows()}, and the detailed comment of a message for a run of rows.
+     */
+    @Test
+    public void testGetSetLastRowNumber() {
+        final Integer myRowNum = 25;
+        final Integer myLastRowNum = 40;
+        final String myGeneralComment = "value exceeds the upper limit of questionable values";
+        ADCMessage msg = new ADCMessage();
+        assertEquals(DashboardUtils.INT_MISSING_VALUE, msg.getLastRowNumber());
+        assertEquals(0, msg.getNumRows());
+        msg.setLastRowNumber(myLastRowNum);
+        // No row number, so not a run of rows
+        assertEquals(DashboardUtils.INT_MISSING_VALUE, msg.getLastRowNumber());
+        assertEquals(0, msg.getNumRows());
+        msg.setRowNumber(myRowNum);
+        assertEquals(myLastRowNum, msg.getLastRowNumber());
+        assertEquals(16, msg.getNumRows());
+        assertEquals(DashboardUtils.INT_MISSING_VALUE, msg.getColNumber());
+        assertEquals(Severity.UNASSIGNED, msg.getSeverity());
+
+        // Detailed comment of a run of rows formatted from the general comment if not given
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, msg.getDetailedComment());
+        msg.setGeneralComment(myGeneralComment);
+        assertEquals(myGeneralComment + " in rows 25 through 40", msg.getDetailedComment());
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, msg.getFirstValue());
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, msg.getLastValue());
+        msg.setFirstValue("40.5");
+        msg.setLastValue("41.25");
+        assertEquals("40.5", msg.getFirstValue());
+        assertEquals("41.25", msg.getLastValue());
+        assertEquals(myGeneralComment + " in rows 25 through 40; first value \"40.5\"; last value \"41.25\"",
+                msg.getDetailedComment());
+        msg.setFirstValue(null);
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, msg.getFirstValue());
+        assertEquals(myGeneralComment + " in rows 25 through 40; last value \"41.25\"", msg.getDetailedComment());
+        msg.setLastValue(null);
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, msg.getLastValue());
+
+        msg.setLastRowNumber(null);
+        assertEquals(myRowNum, msg.getLastRowNumber());
+        assertEquals(1, msg.getNumRows());
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, msg.getDetailedComment());
+        msg.setLastRowNumber(10);
+        assertEquals(myRowNum, msg.getLastRowNumber());
+        assertEquals(1, msg.getNumRows());
+        msg.setLastRowNumber(1234567);
+        assertEquals(myRowNum, msg.getLastRowNumber());
+    }
+
     /**
      * Test method for {@link ADCMessage#getColNumber()} and {@link ADCMessage#setColNumber(Integer)}.
      */
@@ -211,6 +262,34 @@ public class ADCMessageTest {
         assertEquals(0, DashboardUtils.colNameComparator.compare(msg, other));
         assertEquals(0, DashboardUtils.explanationComparator.compare(msg, other));
 
+        msg.setLastRowNumber(myRowNum + 5);
+        assertNotEquals(msg.hashCode(), other.hashCode());
+        assertFalse(msg.equals(other));
+        assertFalse(other.equals(msg));
+        assertEquals(0, DashboardUtils.rowNumComparator.compare(msg, other));
+        other.setLastRowNumber(myRowNum + 5);
+        assertEquals(msg.hashCode(), other.hashCode());
+        assertTrue(msg.equals(other));
+        assertTrue(other.equals(msg));
+
+        msg.setFirstValue("40.5");
+        assertNotEquals(msg.hashCode(), other.hashCode());
+        assertFalse(msg.equals(other));
+        assertFalse(other.equals(msg));
+        other.setFirstValue("40.5");
+        assertEquals(msg.hashCode(), other.hashCode());
+        assertTrue(msg.equals(other));
+        assertTrue(other.equals(msg));
+
+        msg.setLastValue("41.25");
+        assertNotEquals(msg.hashCode(), other.hashCode());
+        assertFalse(msg.equals(other));
+        assertFalse(other.equals(msg));
+        other.setLastValue("41.25");
+        assertEquals(msg.hashCode(), other.hashCode());
+        assertTrue(msg.equals(other));
+        assertTrue(other.equals(msg));
+
         msg.setColNumber(myColNum);
         assertNotEquals(msg.hashCode(), other.hashCode());
         assertFalse(msg.equals(other));
@@ -0,0 +1,229 @@
+package gov.noaa.pmel.dashboard.test.shared;
+
+import gov.noaa.pmel.dashboard.shared.DashboardDataset;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import gov.noaa.pmel.dashboard.shared.DatasetListQuery;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for method of {@link DatasetListQuery}.
+ */
+public class DatasetListQueryTest {
+
+    /**
+     * Test method for {@link DatasetListQuery#getOffset()} and {@link DatasetListQuery#setOffset(int)}.
+     */
+    @Test
+    public void testGetSetOffset() {
+        DatasetListQuery query = new DatasetListQuery();
+        assertEquals(0, query.getOffset());
+        query.setOffset(50);
+        assertEquals(50, query.getOffset());
+        query.setOffset(-5);
+        assertEquals(0, query.getOffset());
+    }
+
+    /**
+     * Test method for {@link DatasetListQuery#getLimit()} and {@link DatasetListQuery#setLimit(int)}.
+     */
+    @Test
+    public void testGetSetLimit() {
+        DatasetListQuery query = new DatasetListQuery();
+        assertEquals(-1, query.getLimit());
+        query.setLimit(DashboardUtils.MAX_ROWS_PER_GRID_PAGE);
+        assertEquals(DashboardUtils.MAX_ROWS_PER_GRID_PAGE, query.getLimit());
+        assertEquals(0, query.getOffset());
+    }
+
+    /**
+     * Test method for {@link DatasetListQuery#getSortColumn()}, {@link DatasetListQuery#setSortColumn(String)},
+     * {@link DatasetListQuery#isSortAscending()}, and {@link DatasetListQuery#setSortAscending(boolean)}.
+     */
+    @Test
+    public void testGetSetSort() {
+        DatasetListQuery query = new DatasetListQuery();
+        assertEquals(DatasetListQuery.SORT_TIMESTAMP, query.getSortColumn());
+        assertFalse(query.isSortAscending());
+        query.setSortColumn(DatasetListQuery.SORT_DATASET_ID);
+        assertEquals(DatasetListQuery.SORT_DATASET_ID, query.getSortColumn());
+        query.setSortAscending(true);
+        assertTrue(query.isSortAscending());
+        assertEquals(-1, query.getLimit());
+        assertEquals(0, query.getOffset());
+        query.setSortColumn(null);
+        assertEquals(DatasetListQuery.SORT_TIMESTAMP, query.getSortColumn());
+    }
+
+    /**
+     * Test method for {@link DatasetListQuery#getStatusFilter()}, {@link DatasetListQuery#setStatusFilter(String)},
+     * {@link DatasetListQuery#getOwnerFilter()}, {@link DatasetListQuery#setOwnerFilter(String)},
+     * {@link DatasetListQuery#getVersionFilter()}, and {@link DatasetListQuery#setVersionFilter(String)}.
+     */
+    @Test
+    public void testGetSetFilters() {
+        DatasetListQuery query = new DatasetListQuery();
+        assertEquals(DatasetListQuery.STATUS_ANY, query.getStatusFilter());
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, query.getOwnerFilter());
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, query.getVersionFilter());
+        query.setStatusFilter(DatasetListQuery.STATUS_SUBMITTED);
+        assertEquals(DatasetListQuery.STATUS_SUBMITTED, query.getStatusFilter());
+        query.setOwnerFilter(" SocatUser ");
+        assertEquals("SocatUser", query.getOwnerFilter());
+        query.setVersionFilter("2019");
+        assertEquals("2019", query.getVersionFilter());
+        assertEquals(DatasetListQuery.SORT_TIMESTAMP, query.getSortColumn());
+        query.setStatusFilter(null);
+        assertEquals(DatasetListQuery.STATUS_ANY, query.getStatusFilter());
+        query.setOwnerFilter(null);
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, query.getOwnerFilter());
+        query.setVersionFilter(null);
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, query.getVersionFilter());
+    }
+
+    /**
+     * Test method for {@link DatasetListQuery#getSelectedIds()}, {@link DatasetListQuery#setSelectedIds(TreeSet)},
+     * {@link DatasetListQuery#getSelectStatus()}, and {@link DatasetListQuery#setSelectStatus(String)}.
+     */
+    @Test
+    public void testGetSetSelection() {
+        final TreeSet<String> myIds = new TreeSet<String>(Arrays.asList("XXXX20140204", "XXXX20140205"));
+        DatasetListQuery query = new DatasetListQuery();
+        assertEquals(0, query.getSelectedIds().size());
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, query.getSelectStatus());
+        query.setSelectedIds(myIds);
+        assertEquals(myIds, query.getSelectedIds());
+        query.setSelectStatus(DatasetListQuery.STATUS_EDITABLE);
+        assertEquals(DatasetListQuery.STATUS_EDITABLE, query.getSelectStatus());
+        assertEquals(DatasetListQuery.STATUS_ANY, query.getStatusFilter());
+        query.setSelectedIds(null);
+        assertEquals(0, query.getSelectedIds().size());
+        query.setSelectStatus(null);
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, query.getSelectStatus());
+    }
+
+    /**
+     * Test method for {@link DatasetListQuery#hasStatus(DashboardDataset, String)}
+     * and {@link DatasetListQuery#matches(DashboardDataset)}.
+     */
+    @Test
+    public void testHasStatusMatches() {
+        DashboardDataset dataset = new DashboardDataset();
+        dataset.setOwner("SocatUser");
+        dataset.setVersion("2019");
+        assertTrue(DatasetListQuery.hasStatus(dataset, DatasetListQuery.STATUS_ANY));
+        assertTrue(DatasetListQuery.hasStatus(dataset, DatasetListQuery.STATUS_EDITABLE));
+        assertFalse(DatasetListQuery.hasStatus(dataset, DatasetListQuery.STATUS_SUBMITTED));
+        assertFalse(DatasetListQuery.hasStatus(dataset, DatasetListQuery.STATUS_PUBLISHED));
+
+        DatasetListQuery query = new DatasetListQuery();
+        assertTrue(query.matches(dataset));
+        query.setStatusFilter(DatasetListQuery.STATUS_SUBMITTED);
+        assertFalse(query.matches(dataset));
+        query.setStatusFilter(DatasetListQuery.STATUS_EDITABLE);
+        assertTrue(query.matches(dataset));
+        query.setOwnerFilter("OtherUser");
+        assertFalse(query.matches(dataset));
+        query.setOwnerFilter("SocatUser");
+        assertTrue(query.matches(dataset));
+        query.setVersionFilter("2020");
+        assertFalse(query.matches(dataset));
+        query.setVersionFilter("2019");
+        assertTrue(query.matches(dataset));
+
+        try {
+            DatasetListQuery.hasStatus(dataset, "unknown");
+            fail("hasStatus with an unknown status succeeded");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+        }
+    }
+
+    /**
+     * Test method for {@link DatasetListQuery#hashCode()} and {@link DatasetListQuery#equals(Object)}.
+     */
+    @Test
+    public void testHashCodeEquals() {
+        final TreeSet<String> myIds = new TreeSet<String>(Arrays.asList("XXXX20140204"));
+
+        DatasetListQuery query = new DatasetListQuery();
+        assertFalse(query.equals(null));
+        assertFalse(query.equals(myIds));
+
+        DatasetListQuery other = new DatasetListQuery();
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setOffset(50);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setOffset(50);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setLimit(25);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setLimit(25);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setSortColumn(DatasetListQuery.SORT_OWNER);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setSortColumn(DatasetListQuery.SORT_OWNER);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setSortAscending(true);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setSortAscending(true);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setStatusFilter(DatasetListQuery.STATUS_PUBLISHED);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setStatusFilter(DatasetListQuery.STATUS_PUBLISHED);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setOwnerFilter("SocatUser");
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setOwnerFilter("SocatUser");
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setVersionFilter("2019");
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setVersionFilter("2019");
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setSelectedIds(myIds);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setSelectedIds(myIds);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+
+        query.setSelectStatus(DatasetListQuery.STATUS_ANY);
+        assertNotEquals(query.hashCode(), other.hashCode());
+        assertFalse(query.equals(other));
+        other.setSelectStatus(DatasetListQuery.STATUS_ANY);
+        assertEquals(query.hashCode(), other.hashCode());
+        assertTrue(query.equals(other));
+    }
+
+}
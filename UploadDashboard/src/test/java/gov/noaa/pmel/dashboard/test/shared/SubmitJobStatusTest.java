@@ -0,0 +1,166 @@
+package gov.noaa.pmel.dashboard.test.shared;
+
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import gov.noaa.pmel.dashboard.shared.SubmitJobStatus;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for method of {@link SubmitJobStatus}.
+ */
+public class SubmitJobStatusTest {
+
+    /**
+     * Test method for {@link SubmitJobStatus#getJobId()} and {@link SubmitJobStatus#setJobId(String)}.
+     */
+    @Test
+    public void testGetSetJobId() {
+        final String myJobId = "0c4b0b8e-5c0a-4f5e-9b1e-3c2d1a0f9e8d";
+        SubmitJobStatus status = new SubmitJobStatus();
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, status.getJobId());
+        status.setJobId(myJobId);
+        assertEquals(myJobId, status.getJobId());
+        status.setJobId(null);
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, status.getJobId());
+    }
+
+    /**
+     * Test method for {@link SubmitJobStatus#getSubmitter()} and {@link SubmitJobStatus#setSubmitter(String)}.
+     */
+    @Test
+    public void testGetSetSubmitter() {
+        final String mySubmitter = "SocatUser";
+        SubmitJobStatus status = new SubmitJobStatus();
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, status.getSubmitter());
+        status.setSubmitter(mySubmitter);
+        assertEquals(mySubmitter, status.getSubmitter());
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, status.getJobId());
+        status.setSubmitter(null);
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, status.getSubmitter());
+    }
+
+    /**
+     * Test method for {@link SubmitJobStatus#getDatasetStages()}, {@link SubmitJobStatus#setDatasetStages(TreeMap)},
+     * and {@link SubmitJobStatus#getNumFinishedDatasets()}.
+     */
+    @Test
+    public void testGetSetDatasetStages() {
+        final TreeMap<String,String> myStages = new TreeMap<String,String>();
+        myStages.put("XXXX20140204", SubmitJobStatus.STAGE_DONE);
+        myStages.put("XXXX20140205", SubmitJobStatus.STAGE_CREATING_DSG);
+        myStages.put("XXXX20140206", SubmitJobStatus.STAGE_FAILED);
+        myStages.put("XXXX20140207", SubmitJobStatus.STAGE_QUEUED);
+        SubmitJobStatus status = new SubmitJobStatus();
+        assertEquals(0, status.getDatasetStages().size());
+        assertEquals(0, status.getNumFinishedDatasets());
+        status.setDatasetStages(myStages);
+        assertEquals(myStages, status.getDatasetStages());
+        assertEquals(2, status.getNumFinishedDatasets());
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, status.getSubmitter());
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, status.getJobId());
+        status.setDatasetStages(null);
+        assertEquals(0, status.getDatasetStages().size());
+    }
+
+    /**
+     * Test method for {@link SubmitJobStatus#getMessages()} and {@link SubmitJobStatus#setMessages(ArrayList)}.
+     */
+    @Test
+    public void testGetSetMessages() {
+        final ArrayList<String> myMessages = new ArrayList<String>(Arrays.asList(
+                "XXXX20140206: unacceptable; check data check error messages",
+                "Failed to submit request for immediate archival of XXXX20140204"));
+        SubmitJobStatus status = new SubmitJobStatus();
+        assertEquals(0, status.getMessages().size());
+        status.setMessages(myMessages);
+        assertEquals(myMessages, status.getMessages());
+        assertEquals(0, status.getDatasetStages().size());
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, status.getSubmitter());
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, status.getJobId());
+        status.setMessages(null);
+        assertEquals(0, status.getMessages().size());
+    }
+
+    /**
+     * Test method for {@link SubmitJobStatus#isFinished()} and {@link SubmitJobStatus#setFinished(boolean)}.
+     */
+    @Test
+    public void testIsSetFinished() {
+        SubmitJobStatus status = new SubmitJobStatus();
+        assertFalse(status.isFinished());
+        status.setFinished(true);
+        assertTrue(status.isFinished());
+        assertEquals(0, status.getMessages().size());
+        assertEquals(0, status.getDatasetStages().size());
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, status.getSubmitter());
+        assertEquals(DashboardUtils.STRING_MISSING_VALUE, status.getJobId());
+        status.setFinished(false);
+        assertFalse(status.isFinished());
+    }
+
+    /**
+     * Test method for {@link SubmitJobStatus#hashCode()} and {@link SubmitJobStatus#equals(Object)}.
+     */
+    @Test
+    public void testHashCodeEquals() {
+        final String myJobId = "0c4b0b8e-5c0a-4f5e-9b1e-3c2d1a0f9e8d";
+        final String mySubmitter = "SocatUser";
+        final TreeMap<String,String> myStages = new TreeMap<String,String>();
+        myStages.put("XXXX20140204", SubmitJobStatus.STAGE_DONE);
+        myStages.put("XXXX20140205", SubmitJobStatus.STAGE_CHECKING);
+        final ArrayList<String> myMessages = new ArrayList<String>(Arrays.asList(
+                "XXXX20140206: unacceptable; check data check error messages"));
+
+        SubmitJobStatus status = new SubmitJobStatus();
+        assertFalse(status.equals(null));
+        assertFalse(status.equals(myJobId));
+
+        SubmitJobStatus other = new SubmitJobStatus();
+        assertEquals(status.hashCode(), other.hashCode());
+        assertTrue(status.equals(other));
+
+        status.setJobId(myJobId);
+        assertNotEquals(status.hashCode(), other.hashCode());
+        assertFalse(status.equals(other));
+        other.setJobId(myJobId);
+        assertEquals(status.hashCode(), other.hashCode());
+        assertTrue(status.equals(other));
+
+        status.setSubmitter(mySubmitter);
+        assertNotEquals(status.hashCode(), other.hashCode());
+        assertFalse(status.equals(other));
+        other.setSubmitter(mySubmitter);
+        assertEquals(status.hashCode(), other.hashCode());
+        assertTrue(status.equals(other));
+
+        status.setDatasetStages(myStages);
+        assertNotEquals(status.hashCode(), other.hashCode());
+        assertFalse(status.equals(other));
+        other.setDatasetStages(myStages);
+        assertEquals(status.hashCode(), other.hashCode());
+        assertTrue(status.equals(other));
+
+        status.setMessages(myMessages);
+        assertNotEquals(status.hashCode(), other.hashCode());
+        assertFalse(status.equals(other));
+        other.setMessages(myMessages);
+        assertEquals(status.hashCode(), other.hashCode());
+        assertTrue(status.equals(other));
+
+        status.setFinished(true);
+        assertNotEquals(status.hashCode(), other.hashCode());
+        assertFalse(status.equals(other));
+        other.setFinished(true);
+        assertEquals(status.hashCode(), other.hashCode());
+        assertTrue(status.equals(other));
+    }
+
+}